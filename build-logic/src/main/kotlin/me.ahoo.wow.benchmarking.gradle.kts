@@ -1011,6 +1011,7 @@ val componentSuite = BenchmarkSuite(
         "me.ahoo.wow.benchmark.component.CommandPipelineComponentBenchmark",
         "me.ahoo.wow.benchmark.component.CommandDispatcherChainComponentBenchmark",
         "me.ahoo.wow.benchmark.component.MongoDocumentComponentBenchmark",
+        "me.ahoo.wow.benchmark.component.TraceSamplingComponentBenchmark",
     ),
     resultFileName = "component.json",
     humanFileName = "component-human.txt",
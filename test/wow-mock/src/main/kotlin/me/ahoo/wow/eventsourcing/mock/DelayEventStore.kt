@@ -16,32 +16,70 @@ package me.ahoo.wow.eventsourcing.mock
 import me.ahoo.wow.api.modeling.AggregateId
 import me.ahoo.wow.api.modeling.NamedAggregate
 import me.ahoo.wow.event.DomainEventStream
+import me.ahoo.wow.eventsourcing.EventLogRecord
 import me.ahoo.wow.eventsourcing.EventStore
 import me.ahoo.wow.eventsourcing.InMemoryEventStore
 import me.ahoo.wow.infra.Decorator
 import reactor.core.publisher.Flux
 import reactor.core.publisher.Mono
 import java.time.Duration
+import java.util.concurrent.locks.LockSupport
 
+/**
+ * [EventStore] decorator that injects a simulated I/O delay before every operation.
+ *
+ * By default the delay is non-blocking (`delaySubscription` on a timer). With [blocking] the delay parks the
+ * subscribing thread instead, modelling a blocking driver call made from the dispatcher's scheduler thread.
+ */
 class DelayEventStore(
     private val delaySupplier: () -> Duration = { Duration.ofMillis(5) },
-    override val delegate: EventStore = InMemoryEventStore()
+    override val delegate: EventStore = InMemoryEventStore(),
+    private val blocking: Boolean = false
 ) : EventStore,
     Decorator<EventStore> {
+    private fun <T> Mono<T>.delayed(): Mono<T> =
+        if (blocking) {
+            Mono.defer {
+                park()
+                this
+            }
+        } else {
+            delaySubscription(delaySupplier())
+        }
+
+    private fun <T> Flux<T>.delayed(): Flux<T> =
+        if (blocking) {
+            Flux.defer {
+                park()
+                this
+            }
+        } else {
+            delaySubscription(delaySupplier())
+        }
+
+    private fun park() {
+        val deadline = System.nanoTime() + delaySupplier().toNanos()
+        var remaining = deadline - System.nanoTime()
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining)
+            remaining = deadline - System.nanoTime()
+        }
+    }
+
     override fun append(eventStream: DomainEventStream): Mono<Void> {
-        return delegate.append(eventStream).delaySubscription(delaySupplier())
+        return delegate.append(eventStream).delayed()
     }
 
     override fun load(aggregateId: AggregateId, headVersion: Int, tailVersion: Int): Flux<DomainEventStream> {
-        return delegate.load(aggregateId, headVersion, tailVersion).delaySubscription(delaySupplier())
+        return delegate.load(aggregateId, headVersion, tailVersion).delayed()
     }
 
     override fun load(aggregateId: AggregateId, headEventTime: Long, tailEventTime: Long): Flux<DomainEventStream> {
-        return delegate.load(aggregateId, headEventTime, tailEventTime).delaySubscription(delaySupplier())
+        return delegate.load(aggregateId, headEventTime, tailEventTime).delayed()
     }
 
     override fun last(aggregateId: AggregateId): Mono<DomainEventStream> {
-        return delegate.last(aggregateId).delaySubscription(delaySupplier())
+        return delegate.last(aggregateId).delayed()
     }
 
     override fun scanAggregateId(
@@ -49,7 +87,19 @@ class DelayEventStore(
         afterId: String,
         limit: Int
     ): Flux<AggregateId> {
-        return delegate.scanAggregateId(namedAggregate, afterId, limit).delaySubscription(delaySupplier())
+        return delegate.scanAggregateId(namedAggregate, afterId, limit).delayed()
+    }
+
+    override fun readAll(
+        namedAggregate: NamedAggregate,
+        fromPosition: String,
+        batchSize: Int
+    ): Flux<EventLogRecord> {
+        return delegate.readAll(namedAggregate, fromPosition, batchSize).delayed()
+    }
+
+    override fun prune(aggregateId: AggregateId, headVersion: Int, tailVersion: Int): Mono<Long> {
+        return delegate.prune(aggregateId, headVersion, tailVersion).delayed()
     }
 
     override fun close() {
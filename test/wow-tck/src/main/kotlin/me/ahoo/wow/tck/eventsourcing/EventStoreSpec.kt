@@ -537,6 +537,56 @@ abstract class EventStoreSpec {
             .verifyComplete()
     }
 
+    @Test
+    open fun readAllShouldFollowAppendOrderAndResume() {
+        val eventStore = createEventStore().meteredForTck()
+        val logAggregate = "read_all_${generateGlobalId().lowercase()}".toNamedAggregate(namedAggregate.contextName)
+        val firstAggregateId = logAggregate.aggregateId(generateGlobalId())
+        val secondAggregateId = logAggregate.aggregateId(generateGlobalId())
+        val eventStreams = listOf(
+            generateMockEventStream(firstAggregateId),
+            generateMockEventStream(secondAggregateId),
+            generateMockEventStream(firstAggregateId, aggregateVersion = Version.INITIAL_VERSION),
+        )
+        eventStreams.forEach { eventStream ->
+            eventStore.append(eventStream)
+                .test()
+                .verifyComplete()
+        }
+
+        val firstBatch = eventStore.readAll(logAggregate, batchSize = 2).collectList().block()!!
+        firstBatch.map { it.eventStream.id }.assert().containsExactly(eventStreams[0].id, eventStreams[1].id)
+        val secondBatch = eventStore.readAll(logAggregate, fromPosition = firstBatch.last().position, batchSize = 2)
+            .collectList().block()!!
+        secondBatch.map { it.eventStream.id }.assert().containsExactly(eventStreams[2].id)
+        eventStore.readAll(logAggregate, fromPosition = secondBatch.last().position)
+            .test()
+            .verifyComplete()
+    }
+
+    @Test
+    open fun readAllShouldFilterNamedAggregate() {
+        val eventStore = createEventStore().meteredForTck()
+        val logAggregate = "read_all_${generateGlobalId().lowercase()}".toNamedAggregate(namedAggregate.contextName)
+        val otherAggregate = "read_all_${generateGlobalId().lowercase()}".toNamedAggregate(namedAggregate.contextName)
+        val eventStream = generateMockEventStream(logAggregate.aggregateId(generateGlobalId()))
+        eventStore.append(eventStream)
+            .test()
+            .verifyComplete()
+        eventStore.append(generateMockEventStream(otherAggregate.aggregateId(generateGlobalId())))
+            .test()
+            .verifyComplete()
+
+        eventStore.readAll(logAggregate)
+            .map { it.eventStream.id }
+            .collectList()
+            .test()
+            .consumeNextWith {
+                it.assert().containsExactly(eventStream.id)
+            }
+            .verifyComplete()
+    }
+
     companion object {
         const val DEFAULT_CONCURRENCY_TEST_ITERATIONS = 1000
         const val DEFAULT_CONCURRENCY_TEST_MAX_CONCURRENCY = 2
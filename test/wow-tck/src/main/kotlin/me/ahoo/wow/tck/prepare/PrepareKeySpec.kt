@@ -16,7 +16,10 @@ package me.ahoo.wow.tck.prepare
 import me.ahoo.test.asserts.assert
 import me.ahoo.wow.id.generateGlobalId
 import me.ahoo.wow.infra.prepare.PrepareKey
+import me.ahoo.wow.infra.prepare.PreparedValue.Companion.toForever
 import me.ahoo.wow.infra.prepare.PreparedValue.Companion.toTtlAt
+import me.ahoo.wow.infra.prepare.entry
+import me.ahoo.wow.infra.prepare.prepareAll
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertThrows
@@ -249,6 +252,94 @@ abstract class PrepareKeySpec<V : Any> {
             .verifyComplete()
     }
 
+    @Test
+    fun prepareAll() {
+        val values = List(3) { generateGlobalId() to generateValue().toForever() }.toMap()
+        prepareKey.prepareAll(values)
+            .test()
+            .expectNext(true)
+            .verifyComplete()
+        values.forEach { (key, value) ->
+            prepareKey.get(key)
+                .test()
+                .expectNext(value.value)
+                .verifyComplete()
+        }
+        prepareKey.prepareAll(values)
+            .test()
+            .expectNext(false)
+            .verifyComplete()
+        values.keys.forEach { key ->
+            prepareKey.rollback(key)
+                .test()
+                .expectNext(true)
+                .verifyComplete()
+        }
+    }
+
+    @Test
+    fun prepareAllRollsBackWhenAnyKeyIsTaken() {
+        val takenKey = generateGlobalId()
+        val takenValue = generateValue()
+        prepareKey.prepare(takenKey, takenValue)
+            .test()
+            .expectNext(true)
+            .verifyComplete()
+        val freeKey = generateGlobalId()
+        val values = linkedMapOf(
+            freeKey to generateValue().toForever(),
+            takenKey to generateValue().toForever(),
+        )
+        prepareKey.prepareAll(values)
+            .test()
+            .expectNext(false)
+            .verifyComplete()
+        prepareKey.getValue(freeKey)
+            .test()
+            .verifyComplete()
+        prepareKey.get(takenKey)
+            .test()
+            .expectNext(takenValue)
+            .verifyComplete()
+    }
+
+    @Test
+    fun prepareAllEntriesAcrossPrepareKeys() {
+        val otherPrepareKey = createPrepareKey("${name}_other")
+        val takenKey = generateGlobalId()
+        val takenValue = generateValue()
+        otherPrepareKey.prepare(takenKey, takenValue)
+            .test()
+            .expectNext(true)
+            .verifyComplete()
+        val freeKey = generateGlobalId()
+        listOf(
+            prepareKey.entry(freeKey, generateValue()),
+            otherPrepareKey.entry(takenKey, generateValue()),
+        ).prepareAll()
+            .test()
+            .expectNext(false)
+            .verifyComplete()
+        prepareKey.getValue(freeKey)
+            .test()
+            .verifyComplete()
+
+        val entries = listOf(
+            prepareKey.entry(freeKey, generateValue()),
+            otherPrepareKey.entry(generateGlobalId(), generateValue()),
+        )
+        entries.prepareAll()
+            .test()
+            .expectNext(true)
+            .verifyComplete()
+        entries.forEach { entry ->
+            entry.prepareKey.get(entry.key)
+                .test()
+                .expectNext(entry.value.value)
+                .verifyComplete()
+        }
+    }
+
     @Test
     fun getName() {
         prepareKey.name.assert().isEqualTo(name)
@@ -0,0 +1,79 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.api.annotation
+
+import me.ahoo.wow.api.annotation.BatchProjection.Companion.DEFAULT_MAX_DELAY
+import me.ahoo.wow.api.annotation.BatchProjection.Companion.DEFAULT_MAX_RETRIES
+import me.ahoo.wow.api.annotation.BatchProjection.Companion.DEFAULT_MAX_SIZE
+import me.ahoo.wow.api.annotation.BatchProjection.Companion.DEFAULT_MIN_BACKOFF
+
+/**
+ * Marks an event handler as a micro-batched projection function.
+ *
+ * The first parameter of the annotated function is a [List] of event bodies, domain events or
+ * domain event exchanges. The dispatcher gathers events of each processing group up to
+ * [maxSize] or [maxDelay], keeps them in per-aggregate order, invokes the function once per
+ * window, and acknowledges the gathered messages together. A failed invocation is retried
+ * for the whole window. Each event still runs the per-event filter chain, and only the events
+ * whose chain reaches the function join the invocation. Functions without this annotation are
+ * not windowed and handle each event as it arrives.
+ *
+ * Only supported on projection processors.
+ *
+ * Example usage:
+ * ```kotlin
+ * @ProjectionProcessor
+ * class OrderSummaryProjection {
+ *
+ *     @OnEvent
+ *     @BatchProjection(maxSize = 256, maxDelay = 20)
+ *     fun onOrderPaid(events: List<DomainEvent<OrderPaid>>): Mono<Void> {
+ *         return orderSummaryRepository.bulkMarkPaid(events.map { it.aggregateId.id })
+ *     }
+ * }
+ * ```
+ *
+ * @param maxSize Maximum number of events gathered into one invocation.
+ * @param maxDelay Maximum time in milliseconds to wait for a window to fill.
+ * @param maxRetries Maximum number of retries of a failed window.
+ * @param minBackoff Minimum backoff in milliseconds before the first retry.
+ *
+ * @see DEFAULT_MAX_SIZE
+ * @see DEFAULT_MAX_DELAY
+ * @see DEFAULT_MAX_RETRIES
+ * @see DEFAULT_MIN_BACKOFF
+ * @see OnEvent
+ * @see ProjectionProcessor
+ */
+@Target(AnnotationTarget.FUNCTION)
+@MustBeDocumented
+annotation class BatchProjection(
+    val maxSize: Int = DEFAULT_MAX_SIZE,
+    /**
+     * @see java.time.temporal.ChronoUnit.MILLIS
+     */
+    val maxDelay: Long = DEFAULT_MAX_DELAY,
+    val maxRetries: Int = DEFAULT_MAX_RETRIES,
+    /**
+     * @see java.time.temporal.ChronoUnit.MILLIS
+     */
+    val minBackoff: Long = DEFAULT_MIN_BACKOFF,
+) {
+    companion object {
+        const val DEFAULT_MAX_SIZE = 128
+        const val DEFAULT_MAX_DELAY = 10L
+        const val DEFAULT_MAX_RETRIES = 3
+        const val DEFAULT_MIN_BACKOFF = 100L
+    }
+}
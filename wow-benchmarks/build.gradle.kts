@@ -14,6 +14,8 @@ dependencies {
     implementation(project(":wow-mongo"))
     implementation(project(":wow-elasticsearch"))
     implementation(project(":wow-webflux"))
+    implementation(project(":wow-opentelemetry"))
+    implementation("io.opentelemetry:opentelemetry-sdk")
     implementation("org.springframework:spring-test")
     jmh(libs.jmh.core)
     jmh(libs.jmh.generator.annprocess)
@@ -18,6 +18,8 @@ import me.ahoo.wow.benchmark.fixture.BenchmarkCommands
 import me.ahoo.wow.benchmark.fixture.BenchmarkHeaders
 import me.ahoo.wow.benchmark.fixture.BenchmarkIds
 import me.ahoo.wow.example.api.cart.AddCartItem
+import me.ahoo.wow.messaging.HeaderOverlayable
+import me.ahoo.wow.messaging.withLocalFirst
 import org.openjdk.jmh.annotations.Benchmark
 import org.openjdk.jmh.annotations.Scope
 import org.openjdk.jmh.annotations.Setup
@@ -59,4 +61,33 @@ open class CommandMessageComponentBenchmark {
         blackhole.consume(commandMessage.requestId)
         blackhole.consume(commandMessage.body)
     }
+
+    /**
+     * Local and distributed routing copies as two deep copies; run with `-prof gc` to compare allocation
+     * against [overlayCopyForLocalFirstRouting].
+     */
+    @Benchmark
+    fun deepCopyForLocalFirstRouting(blackhole: Blackhole) {
+        val local = commandMessage.copy()
+        local.header.withLocalFirst()
+        val distributed = commandMessage.copy()
+        distributed.header.withLocalFirst()
+        blackhole.consume(local)
+        blackhole.consume(distributed)
+    }
+
+    /**
+     * Local and distributed routing copies sharing one frozen deep copy through header overlays.
+     */
+    @Suppress("UNCHECKED_CAST")
+    @Benchmark
+    fun overlayCopyForLocalFirstRouting(blackhole: Blackhole) {
+        val snapshot = commandMessage.copy().withReadOnly() as HeaderOverlayable<CommandMessage<AddCartItem>>
+        val local = snapshot.overlayCopy()
+        local.header.withLocalFirst()
+        val distributed = snapshot.overlayCopy()
+        distributed.header.withLocalFirst()
+        blackhole.consume(local)
+        blackhole.consume(distributed)
+    }
 }
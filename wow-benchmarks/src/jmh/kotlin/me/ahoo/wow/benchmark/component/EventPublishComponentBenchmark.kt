@@ -24,11 +24,13 @@ import me.ahoo.wow.event.SimpleDomainEvent
 import me.ahoo.wow.eventsourcing.state.InMemoryStateEventBus
 import me.ahoo.wow.eventsourcing.state.StateEvent
 import me.ahoo.wow.eventsourcing.state.StateEvent.Companion.toStateEvent
+import me.ahoo.wow.messaging.HeaderOverlayable
 import me.ahoo.wow.messaging.MessageSubscription
 import me.ahoo.wow.example.api.cart.CartItem
 import me.ahoo.wow.example.api.cart.CartItemAdded
 import me.ahoo.wow.messaging.function.MessageFunction
 import me.ahoo.wow.messaging.function.SimpleMessageFunctionRegistrar
+import me.ahoo.wow.messaging.withLocalFirst
 import me.ahoo.wow.modeling.state.ConstructorStateAggregateFactory
 import me.ahoo.wow.modeling.state.StateAggregate
 import org.openjdk.jmh.annotations.Benchmark
@@ -104,6 +106,36 @@ open class EventPublishComponentBenchmark {
         val result = stateEventBus.send(stateEvent).block()
         blackhole.consume(result)
     }
+
+    /**
+     * Local and distributed routing copies of an event stream as two deep copies; run with `-prof gc`
+     * to compare allocation against [overlayCopyEventStreamForLocalFirstRouting].
+     */
+    @Benchmark
+    fun deepCopyEventStreamForLocalFirstRouting(blackhole: Blackhole) {
+        val local = eventStream.copy()
+        local.header.withLocalFirst()
+        val distributed = eventStream.copy()
+        distributed.header.withLocalFirst()
+        blackhole.consume(local)
+        blackhole.consume(distributed)
+    }
+
+    /**
+     * Local and distributed routing copies of an event stream sharing one frozen deep copy through
+     * header overlays.
+     */
+    @Suppress("UNCHECKED_CAST")
+    @Benchmark
+    fun overlayCopyEventStreamForLocalFirstRouting(blackhole: Blackhole) {
+        val snapshot = eventStream.copy().withReadOnly() as HeaderOverlayable<DomainEventStream>
+        val local = snapshot.overlayCopy()
+        local.header.withLocalFirst()
+        val distributed = snapshot.overlayCopy()
+        distributed.header.withLocalFirst()
+        blackhole.consume(local)
+        blackhole.consume(distributed)
+    }
 }
 
 private class BenchmarkEventHandler(
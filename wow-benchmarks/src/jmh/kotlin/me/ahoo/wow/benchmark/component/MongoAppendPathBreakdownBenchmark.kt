@@ -16,6 +16,7 @@ package me.ahoo.wow.benchmark.component
 import me.ahoo.wow.api.event.DomainEvent
 import me.ahoo.wow.benchmark.fixture.BenchmarkEvents
 import me.ahoo.wow.event.DomainEventStream
+import me.ahoo.wow.mongo.codec.DomainEventStreamCodec
 import me.ahoo.wow.mongo.toDocument
 import me.ahoo.wow.serialization.toJsonNode
 import me.ahoo.wow.serialization.toLinkedHashMap
@@ -71,6 +72,18 @@ open class MongoAppendPathBreakdownBenchmark {
         blackhole.consume(encodeDocument(eventStream.toDocument()))
     }
 
+    @Benchmark
+    fun eventStreamToBsonBytesViaCodec(blackhole: Blackhole) {
+        val output = BasicOutputBuffer()
+        val writer = BsonBinaryWriter(output)
+        try {
+            DomainEventStreamCodec.encode(writer, eventStream, encoderContext)
+        } finally {
+            writer.close()
+        }
+        blackhole.consume(output.toByteArray())
+    }
+
     private fun encodeDocument(document: Document): ByteArray {
         val output = BasicOutputBuffer()
         val writer = BsonBinaryWriter(output)
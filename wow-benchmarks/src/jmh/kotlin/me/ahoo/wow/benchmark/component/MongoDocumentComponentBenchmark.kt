@@ -15,8 +15,12 @@ package me.ahoo.wow.benchmark.component
 
 import me.ahoo.wow.benchmark.fixture.BenchmarkEvents
 import me.ahoo.wow.event.DomainEventStream
+import me.ahoo.wow.mongo.codec.DomainEventStreamCodec
 import me.ahoo.wow.mongo.toDocument
+import me.ahoo.wow.mongo.toDomainEventStream
 import org.bson.Document
+import org.bson.RawBsonDocument
+import org.bson.codecs.DocumentCodec
 import org.openjdk.jmh.annotations.Benchmark
 import org.openjdk.jmh.annotations.Scope
 import org.openjdk.jmh.annotations.Setup
@@ -27,15 +31,38 @@ import org.openjdk.jmh.infra.Blackhole
 open class MongoDocumentComponentBenchmark {
     private lateinit var eventStream: DomainEventStream
     private lateinit var eventDocument: Document
+    private lateinit var eventBson: RawBsonDocument
+    private val documentCodec = DocumentCodec()
 
     @Setup
     fun setup() {
         eventStream = BenchmarkEvents.singleEventStream()
         eventDocument = eventStream.toDocument()
+        eventBson = RawBsonDocument(eventStream, DomainEventStreamCodec)
     }
 
     @Benchmark
     fun eventStreamToDocument(blackhole: Blackhole) {
         blackhole.consume(eventStream.toDocument())
     }
+
+    @Benchmark
+    fun eventStreamToBsonViaDocument(blackhole: Blackhole) {
+        blackhole.consume(RawBsonDocument(eventStream.toDocument(), documentCodec))
+    }
+
+    @Benchmark
+    fun eventStreamToBsonViaCodec(blackhole: Blackhole) {
+        blackhole.consume(RawBsonDocument(eventStream, DomainEventStreamCodec))
+    }
+
+    @Benchmark
+    fun bsonToEventStreamViaDocument(blackhole: Blackhole) {
+        blackhole.consume(eventBson.decode(documentCodec).toDomainEventStream())
+    }
+
+    @Benchmark
+    fun bsonToEventStreamViaCodec(blackhole: Blackhole) {
+        blackhole.consume(eventBson.decode(DomainEventStreamCodec))
+    }
 }
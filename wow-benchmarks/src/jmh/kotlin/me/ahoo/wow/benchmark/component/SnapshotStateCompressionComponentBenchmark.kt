@@ -0,0 +1,108 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.benchmark.component
+
+import me.ahoo.wow.benchmark.fixture.BenchmarkAggregates
+import me.ahoo.wow.eventsourcing.snapshot.compression.CompressionDictionaryTrainer
+import me.ahoo.wow.eventsourcing.snapshot.compression.DeflateStateCompressor
+import me.ahoo.wow.eventsourcing.snapshot.compression.SnapshotStateCompression
+import me.ahoo.wow.mongo.compressState
+import me.ahoo.wow.mongo.inflateState
+import me.ahoo.wow.serialization.JsonSerializer
+import org.bson.Document
+import org.bson.RawBsonDocument
+import org.bson.codecs.DocumentCodec
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.infra.Blackhole
+
+/**
+ * Encode and decode latency of a snapshot document with its state stored plain, deflated, or deflated with a
+ * dictionary trained from sample states. The stored document size of each mode is printed at setup.
+ */
+@State(Scope.Thread)
+open class SnapshotStateCompressionComponentBenchmark {
+    @Param("PLAIN", "DEFLATE", "DEFLATE_DICTIONARY")
+    lateinit var mode: String
+
+    @Param("5", "200")
+    var items: Int = 0
+
+    private val documentCodec = DocumentCodec()
+    private lateinit var compression: SnapshotStateCompression
+    private lateinit var snapshotState: Map<String, Any>
+    private lateinit var storedDocument: RawBsonDocument
+
+    @Setup
+    fun setup() {
+        val compressor = when (mode) {
+            "PLAIN" -> null
+            "DEFLATE" -> DeflateStateCompressor()
+            "DEFLATE_DICTIONARY" -> DeflateStateCompressor(
+                dictionary = CompressionDictionaryTrainer.train(
+                    (1..SAMPLE_COUNT).map { JsonSerializer.writeValueAsBytes(cartState(it)) }
+                )
+            )
+
+            else -> error("Unsupported mode: $mode.")
+        }
+        compression = compressor?.let {
+            SnapshotStateCompression(
+                compressors = mapOf(BenchmarkAggregates.namedAggregate to it),
+            )
+        } ?: SnapshotStateCompression.NONE
+        snapshotState = cartState(SAMPLE_COUNT + 1)
+        storedDocument = RawBsonDocument(encode(), documentCodec)
+        val plainSize = RawBsonDocument(snapshotDocument(), documentCodec).byteBuffer.remaining()
+        println("mode=$mode items=$items storedBytes=${storedDocument.byteBuffer.remaining()} plainBytes=$plainSize")
+    }
+
+    private fun cartState(seed: Int): Map<String, Any> = mapOf(
+        "id" to "cart-$seed",
+        "items" to (1..items).map {
+            mapOf(
+                "productId" to "product-${seed * 7 + it}",
+                "quantity" to it % 3 + 1,
+            )
+        },
+    )
+
+    private fun snapshotDocument(): Document = Document("_id", "cart-id")
+        .append("contextName", BenchmarkAggregates.namedAggregate.contextName)
+        .append("aggregateName", BenchmarkAggregates.namedAggregate.aggregateName)
+        .append("tenantId", "(0)")
+        .append("version", 1)
+        .append("state", snapshotState)
+        .append("snapshotTime", 1712485610666)
+        .append("deleted", false)
+
+    private fun encode(): Document = snapshotDocument().compressState(BenchmarkAggregates.namedAggregate, compression)
+
+    @Benchmark
+    fun encodeSnapshot(blackhole: Blackhole) {
+        blackhole.consume(RawBsonDocument(encode(), documentCodec))
+    }
+
+    @Benchmark
+    fun decodeSnapshot(blackhole: Blackhole) {
+        blackhole.consume(storedDocument.decode(documentCodec).inflateState(compression))
+    }
+
+    private companion object {
+        const val SAMPLE_COUNT = 64
+    }
+}
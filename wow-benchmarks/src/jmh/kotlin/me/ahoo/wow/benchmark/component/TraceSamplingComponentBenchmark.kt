@@ -0,0 +1,101 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.benchmark.component
+
+import io.opentelemetry.api.trace.Span
+import io.opentelemetry.api.trace.SpanContext
+import io.opentelemetry.api.trace.TraceFlags
+import io.opentelemetry.api.trace.TraceState
+import io.opentelemetry.context.Context
+import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter
+import io.opentelemetry.sdk.OpenTelemetrySdk
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.samplers.Sampler
+import me.ahoo.wow.opentelemetry.TailSpanRecorder
+import me.ahoo.wow.opentelemetry.TraceSamplingMode
+import me.ahoo.wow.opentelemetry.TraceSamplingOptions
+import me.ahoo.wow.opentelemetry.traceMono
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import org.openjdk.jmh.infra.Blackhole
+import reactor.core.publisher.Mono
+
+@State(Scope.Thread)
+open class TraceSamplingComponentBenchmark {
+    @Param("ALWAYS", "PARENT_BASED", "TAIL")
+    var mode: String = "ALWAYS"
+
+    @Param("true", "false")
+    var parentSampled: Boolean = false
+
+    private lateinit var openTelemetry: OpenTelemetrySdk
+    private lateinit var instrumenter: Instrumenter<String, Unit>
+    private lateinit var tailSpanRecorder: TailSpanRecorder<String>
+    private lateinit var options: TraceSamplingOptions
+    private lateinit var parentContext: Context
+    private val source: Mono<String> = Mono.just(REQUEST)
+
+    @Setup
+    fun setup() {
+        // No span processor: recorded spans are dropped, so rows measure assembly and span lifecycle only.
+        openTelemetry = OpenTelemetrySdk.builder()
+            .setTracerProvider(
+                SdkTracerProvider.builder()
+                    .setSampler(Sampler.parentBased(Sampler.alwaysOn()))
+                    .build()
+            )
+            .build()
+        instrumenter = Instrumenter.builder<String, Unit>(openTelemetry, "wow-benchmark") { it }
+            .buildInstrumenter()
+        tailSpanRecorder = TailSpanRecorder(
+            instrumentationName = "wow-benchmark",
+            spanNameExtractor = { it },
+            openTelemetry = openTelemetry,
+        )
+        val traceFlags = if (parentSampled) TraceFlags.getSampled() else TraceFlags.getDefault()
+        parentContext = Context.root().with(
+            Span.wrap(
+                SpanContext.create(TRACE_ID, SPAN_ID, traceFlags, TraceState.getDefault())
+            )
+        )
+        options = TraceSamplingOptions(mode = TraceSamplingMode.valueOf(mode))
+    }
+
+    @TearDown
+    fun tearDown() {
+        openTelemetry.close()
+    }
+
+    @Benchmark
+    fun untracedMono(blackhole: Blackhole) {
+        blackhole.consume(source.block())
+    }
+
+    @Benchmark
+    fun tracedMono(blackhole: Blackhole) {
+        parentContext.makeCurrent().use {
+            blackhole.consume(traceMono(instrumenter, tailSpanRecorder, options, REQUEST) { source }.block())
+        }
+    }
+
+    private companion object {
+        const val REQUEST = "benchmark-request"
+        const val TRACE_ID = "0af7651916cd43dd8448eb211c80319c"
+        const val SPAN_ID = "b7ad6b7169203331"
+    }
+}
@@ -22,9 +22,11 @@ import me.ahoo.wow.command.wait.CommandStage
 import me.ahoo.wow.command.wait.DefaultWaitCoordinator
 import me.ahoo.wow.command.wait.LocalCommandWaitNotifier
 import me.ahoo.wow.command.wait.SimpleWaitSignal
+import me.ahoo.wow.command.wait.WaitCapacityExceededException
 import me.ahoo.wow.command.wait.WaitCoordinator
 import me.ahoo.wow.command.wait.WaitSignal
 import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.Param
 import org.openjdk.jmh.annotations.Scope
 import org.openjdk.jmh.annotations.Setup
 import org.openjdk.jmh.annotations.State
@@ -34,16 +36,29 @@ import org.openjdk.jmh.infra.Blackhole
 open class WaitNotifyComponentBenchmark {
     private companion object {
         const val REGISTRATION_COMMAND_ID = "benchmark-registration-command-id"
+        const val REJECTED_COMMAND_ID = "benchmark-rejected-command-id"
     }
 
+    /**
+     * Waits that stay registered for the whole trial, modelling concurrently blocked requests.
+     */
+    @Param("0", "50000")
+    var inFlightWaits: Int = 0
+
     private lateinit var notifier: LocalCommandWaitNotifier
     private lateinit var waitCoordinator: WaitCoordinator
+    private lateinit var fullWaitCoordinator: WaitCoordinator
 
     @Setup
     fun setup() {
         BenchmarkIds.installDeterministicGlobalIdGenerator()
         waitCoordinator = DefaultWaitCoordinator()
+        repeat(inFlightWaits) {
+            waitCoordinator.createLast(CommandWait.processed(BenchmarkIds.nextGlobalId()))
+        }
         notifier = LocalCommandWaitNotifier(waitCoordinator)
+        fullWaitCoordinator = DefaultWaitCoordinator(maxPendingWaits = 1)
+        fullWaitCoordinator.createLast(CommandWait.processed(REGISTRATION_COMMAND_ID))
     }
 
     @Benchmark
@@ -54,6 +69,15 @@ open class WaitNotifyComponentBenchmark {
         blackhole.consume(handle)
     }
 
+    @Benchmark
+    fun rejectWaitRegistrationAtCapacity(blackhole: Blackhole) {
+        try {
+            fullWaitCoordinator.createLast(CommandWait.processed(REJECTED_COMMAND_ID))
+        } catch (error: WaitCapacityExceededException) {
+            blackhole.consume(error)
+        }
+    }
+
     @Benchmark
     fun notifyProcessed(blackhole: Blackhole) {
         val waitPlan = CommandWait.processed(BenchmarkIds.nextGlobalId())
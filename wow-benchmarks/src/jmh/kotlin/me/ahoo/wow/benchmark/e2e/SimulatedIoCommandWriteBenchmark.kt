@@ -46,6 +46,12 @@ import java.util.concurrent.atomic.AtomicInteger
  * - NoopEventStore (0 I/O): cross-thread ~95% of dispatch-chain cost.
  * - MongoEventStore (~300 us I/O): cross-thread ~5%.
  *
+ * A `blocking-` prefix (e.g. `blocking-500us`) makes [DelayEventStore] park the scheduler thread instead
+ * of using a timer, modelling a blocking driver. Running those profiles with
+ * `-p schedulerStrategy=PARALLEL,VIRTUAL_THREAD` on Java 21+ compares the bounded parallel pool against
+ * the virtual-thread mode; the virtual-thread strategy is not in the default sweep because it fails on
+ * older JVMs.
+ *
  * @author ahoo wang
  */
 @State(Scope.Benchmark)
@@ -69,8 +75,9 @@ open class SimulatedIoCommandWriteBenchmark {
         val eventStore = when (ioDelay) {
             "direct" -> InMemoryEventStore()
             else -> {
-                val delay = parseDelay(ioDelay)
-                DelayEventStore(delaySupplier = { delay })
+                val blocking = ioDelay.startsWith(BLOCKING_PREFIX)
+                val delay = parseDelay(ioDelay.removePrefix(BLOCKING_PREFIX))
+                DelayEventStore(delaySupplier = { delay }, blocking = blocking)
             }
         }
         commandDispatcherScenario = CommandDispatcherScenario.create(
@@ -106,6 +113,8 @@ open class SimulatedIoCommandWriteBenchmark {
     }
 
     private companion object {
+        const val BLOCKING_PREFIX = "blocking-"
+
         fun parseDelay(value: String): Duration =
             when {
                 value == "async-0" -> Duration.ZERO
@@ -113,7 +122,7 @@ open class SimulatedIoCommandWriteBenchmark {
                 value.endsWith("ms") -> Duration.ofMillis(value.removeSuffix("ms").toLong())
                 else -> error(
                     "Unsupported ioDelay value: $value " +
-                        "(expected 'direct', 'async-0', '<n>us', or '<n>ms')",
+                        "(expected 'direct', 'async-0', '<n>us', or '<n>ms', optionally prefixed by 'blocking-')",
                 )
             }
 
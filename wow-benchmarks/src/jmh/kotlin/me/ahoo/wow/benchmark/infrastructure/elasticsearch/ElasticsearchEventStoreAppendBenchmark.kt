@@ -43,6 +43,7 @@ open class ElasticsearchEventStoreAppendBenchmark {
     private lateinit var fixture: ElasticsearchBenchmarkFixture
     private lateinit var directEventStore: ElasticsearchEventStore
     private lateinit var batchEventStore: ElasticsearchEventStore
+    private lateinit var realtimeEventStore: ElasticsearchEventStore
     private lateinit var refreshPolicy: Refresh
 
     @Setup(Level.Iteration)
@@ -62,11 +63,18 @@ open class ElasticsearchEventStoreAppendBenchmark {
             ),
             refreshPolicy = refreshPolicy,
         )
+        // Realtime loads never need a refresh, so this store ignores the refresh parameter.
+        realtimeEventStore = ElasticsearchEventStore(
+            elasticsearchClient = fixture.client,
+            refreshPolicy = Refresh.False,
+            realtimeLoad = true,
+        )
     }
 
     @TearDown(Level.Iteration)
     fun tearDown() {
         try {
+            realtimeEventStore.close()
             batchEventStore.close()
         } finally {
             try {
@@ -107,6 +115,12 @@ open class ElasticsearchEventStoreAppendBenchmark {
         append(batchEventStore, blackhole)
     }
 
+    @Benchmark
+    @OperationsPerInvocation(APPENDS_PER_INVOCATION)
+    fun appendWithRealtimeLoadHead(blackhole: Blackhole) {
+        append(realtimeEventStore, blackhole)
+    }
+
     private fun append(eventStore: ElasticsearchEventStore, blackhole: Blackhole) {
         val result = Flux.range(0, APPENDS_PER_INVOCATION)
             .flatMap(
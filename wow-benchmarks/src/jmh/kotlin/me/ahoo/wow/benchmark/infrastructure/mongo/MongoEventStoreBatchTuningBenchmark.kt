@@ -38,7 +38,7 @@ import java.util.concurrent.atomic.AtomicLong
 
 @State(Scope.Benchmark)
 open class MongoEventStoreBatchTuningState {
-    @Param("128x1000us")
+    @Param("128x1000us", "128x1000us@2000us")
     lateinit var batchOptions: String
 
     private lateinit var fixture: MongoBenchmarkFixture
@@ -59,6 +59,7 @@ open class MongoEventStoreBatchTuningState {
                 enabled = true,
                 maxSize = tuningOptions.maxSize,
                 maxDelay = tuningOptions.maxDelay,
+                targetLatency = tuningOptions.targetLatency,
             ),
         )
     }
@@ -15,7 +15,9 @@ package me.ahoo.wow.benchmark.scenario
 
 import me.ahoo.wow.BenchmarkAggregateSchedulerSupplier
 import me.ahoo.wow.api.modeling.NamedAggregate
+import me.ahoo.wow.scheduler.AggregateSchedulerFactory
 import me.ahoo.wow.scheduler.AggregateSchedulerSupplier
+import me.ahoo.wow.scheduler.DefaultAggregateSchedulerSupplier
 import reactor.core.publisher.Mono
 import reactor.core.scheduler.Scheduler
 import reactor.core.scheduler.Schedulers
@@ -29,10 +31,14 @@ import reactor.core.scheduler.Schedulers
  * - [IMMEDIATE]: uses [Schedulers.immediate], so `publishOn` does not switch threads.
  *   Comparing [IMMEDIATE] against [PARALLEL] isolates the cross-thread handoff cost from
  *   the groupBy/concatMap dispatch-structure cost.
+ * - [VIRTUAL_THREAD]: the JDK 21+ virtual-thread mode ([AggregateSchedulerFactory.VIRTUAL_THREAD]).
+ *   Comparing it against [PARALLEL] under blocking simulated I/O shows how much a bounded carrier
+ *   pool costs when handlers block. Requires the benchmark JVM to run on Java 21 or newer.
  */
 enum class SchedulerStrategy {
     PARALLEL,
     IMMEDIATE,
+    VIRTUAL_THREAD,
 }
 
 /**
@@ -42,6 +48,7 @@ enum class SchedulerStrategy {
  *
  * - [SchedulerStrategy.PARALLEL] -> [BenchmarkAggregateSchedulerSupplier] (production default).
  * - [SchedulerStrategy.IMMEDIATE] -> [ImmediateAggregateSchedulerSupplier] (no thread switch).
+ * - [SchedulerStrategy.VIRTUAL_THREAD] -> [DefaultAggregateSchedulerSupplier] on virtual threads.
  */
 fun SchedulerStrategy.toSchedulerSupplier(
     schedulerPoolSize: Int = Schedulers.DEFAULT_POOL_SIZE,
@@ -49,6 +56,11 @@ fun SchedulerStrategy.toSchedulerSupplier(
     when (this) {
         SchedulerStrategy.PARALLEL -> BenchmarkAggregateSchedulerSupplier(schedulerPoolSize)
         SchedulerStrategy.IMMEDIATE -> ImmediateAggregateSchedulerSupplier
+        SchedulerStrategy.VIRTUAL_THREAD -> DefaultAggregateSchedulerSupplier(
+            name = "BenchmarkAggregate",
+            parallelism = schedulerPoolSize,
+            schedulerFactory = AggregateSchedulerFactory.VIRTUAL_THREAD,
+        )
     }
 
 /**
@@ -0,0 +1,66 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.benchmark.startup
+
+import me.ahoo.wow.benchmark.scenario.CommandWriteE2EFixture
+import me.ahoo.wow.benchmark.scenario.SchedulerStrategy
+import me.ahoo.wow.metadata.MetadataWarmUp
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import org.openjdk.jmh.infra.Blackhole
+import java.util.concurrent.TimeUnit
+
+/**
+ * Cold-start time from an empty JVM to the first processed command, with and without [MetadataWarmUp].
+ *
+ * Every fork measures exactly one invocation, so metadata caches, class loading and the JIT are cold.
+ * With `warmUp=true` the measured time includes the parallel warm-up itself, mirroring the runtime,
+ * which completes it before readiness.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@Suppress("VarCouldBeVal") // JMH injects @Param fields via reflection, so they must be `var`.
+open class MetadataWarmUpStartupBenchmark {
+    @Param("false", "true")
+    private var warmUp: Boolean = false
+
+    @Benchmark
+    fun timeToFirstCommand(blackhole: Blackhole) {
+        if (warmUp) {
+            blackhole.consume(MetadataWarmUp().warmUp())
+        }
+        CommandWriteE2EFixture.create(
+            scenarioId = CommandWriteE2EFixture.IN_MEMORY_NEW_AGGREGATE_SCENARIO,
+            schedulerStrategy = SchedulerStrategy.PARALLEL,
+        ).use { fixture ->
+            blackhole.consume(
+                fixture.commandGateway
+                    .sendAndWaitForProcessed(fixture.nextCommand())
+                    .block(),
+            )
+        }
+    }
+}
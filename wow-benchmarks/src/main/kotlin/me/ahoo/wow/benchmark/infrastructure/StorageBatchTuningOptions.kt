@@ -18,13 +18,15 @@ import java.time.Duration
 data class StorageBatchTuningOptions(
     val maxSize: Int,
     val maxDelay: Duration,
+    /** Adaptive window target latency, parsed from an optional `@<micros>us` suffix. */
+    val targetLatency: Duration? = null,
 ) {
     companion object {
-        private val FORMAT = Regex("""([1-9]\d*)x([1-9]\d*)us""")
+        private val FORMAT = Regex("""([1-9]\d*)x([1-9]\d*)us(?:@([1-9]\d*)us)?""")
 
         fun parse(value: String): StorageBatchTuningOptions {
             val match = requireNotNull(FORMAT.matchEntire(value)) {
-                "Storage batch tuning options must use '<maxSize>x<maxDelayMicros>us': $value"
+                "Storage batch tuning options must use '<maxSize>x<maxDelayMicros>us[@<targetLatencyMicros>us]': $value"
             }
             val maxSize = requireNotNull(match.groupValues[1].toIntOrNull()) {
                 "Storage batch maxSize is out of range: $value"
@@ -32,17 +34,27 @@ data class StorageBatchTuningOptions(
             val maxDelayMicros = requireNotNull(match.groupValues[2].toLongOrNull()) {
                 "Storage batch maxDelay is out of range: $value"
             }
-            val maxDelayNanos = try {
-                Math.multiplyExact(maxDelayMicros, NANOS_PER_MICROSECOND)
-            } catch (error: ArithmeticException) {
-                throw IllegalArgumentException("Storage batch maxDelay is out of range: $value", error)
+            val targetLatencyMicros = match.groupValues[3].takeIf { it.isNotEmpty() }?.let {
+                requireNotNull(it.toLongOrNull()) {
+                    "Storage batch targetLatency is out of range: $value"
+                }
             }
             return StorageBatchTuningOptions(
                 maxSize = maxSize,
-                maxDelay = Duration.ofNanos(maxDelayNanos),
+                maxDelay = microsToDuration(maxDelayMicros, "maxDelay", value),
+                targetLatency = targetLatencyMicros?.let { microsToDuration(it, "targetLatency", value) },
             )
         }
 
+        private fun microsToDuration(micros: Long, name: String, value: String): Duration {
+            val nanos = try {
+                Math.multiplyExact(micros, NANOS_PER_MICROSECOND)
+            } catch (error: ArithmeticException) {
+                throw IllegalArgumentException("Storage batch $name is out of range: $value", error)
+            }
+            return Duration.ofNanos(nanos)
+        }
+
         private const val NANOS_PER_MICROSECOND: Long = 1_000
     }
 }
@@ -31,6 +31,19 @@ class StorageBatchTuningOptionsTest {
             )
     }
 
+    @Test
+    fun `should parse optional adaptive target latency`() {
+        StorageBatchTuningOptions.parse("128x1000us@2000us")
+            .assert()
+            .isEqualTo(
+                StorageBatchTuningOptions(
+                    maxSize = 128,
+                    maxDelay = Duration.ofNanos(1_000_000),
+                    targetLatency = Duration.ofNanos(2_000_000),
+                )
+            )
+    }
+
     @Test
     fun `should reject malformed tuning options`() {
         listOf(
@@ -43,6 +56,9 @@ class StorageBatchTuningOptionsTest {
             "128x1ms",
             "2147483648x1000us",
             "128x9223372036854775807us",
+            "128x1000us@",
+            "128x1000us@0us",
+            "128x1000us@9223372036854775807us",
         ).forEach { value ->
             assertThrows<IllegalArgumentException> {
                 StorageBatchTuningOptions.parse(value)
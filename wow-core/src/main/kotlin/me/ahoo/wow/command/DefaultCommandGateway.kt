@@ -16,12 +16,15 @@ package me.ahoo.wow.command
 import jakarta.validation.Validator
 import me.ahoo.wow.api.command.CommandMessage
 import me.ahoo.wow.api.command.validation.CommandValidator
+import me.ahoo.wow.command.admission.CommandAdmission
+import me.ahoo.wow.command.admission.CommandRateLimitedException
 import me.ahoo.wow.command.validation.validateCommand
 import me.ahoo.wow.command.wait.CommandStage
 import me.ahoo.wow.command.wait.CommandWaitEndpoint
 import me.ahoo.wow.command.wait.CommandWaitNotifier
 import me.ahoo.wow.command.wait.DEFAULT_WAIT_TIMEOUT
 import me.ahoo.wow.command.wait.SkipsSuccessfulSentSignal
+import me.ahoo.wow.command.wait.WaitCapacityExceededException
 import me.ahoo.wow.command.wait.WaitCoordinator
 import me.ahoo.wow.command.wait.WaitHandle
 import me.ahoo.wow.command.wait.WaitPlan
@@ -31,6 +34,8 @@ import me.ahoo.wow.command.wait.timeout
 import me.ahoo.wow.id.generateGlobalId
 import me.ahoo.wow.messaging.MessageReceiver
 import me.ahoo.wow.messaging.MessageSubscription
+import me.ahoo.wow.messaging.shouldLocalFirst
+import me.ahoo.wow.modeling.state.AggregatePrefetcher
 import me.ahoo.wow.reactor.thenDefer
 import me.ahoo.wow.reactor.thenRunnable
 import reactor.core.publisher.Flux
@@ -51,6 +56,9 @@ import java.util.concurrent.TimeUnit
  * @param requestIdChecker Checker for command request ID idempotency.
  * @param waitCoordinator Coordinator for managing wait handles.
  * @param commandWaitNotifier Notifier for command wait signals.
+ * @param aggregatePrefetcher Hint that starts loading the target aggregate of local-first commands
+ * while they are in flight.
+ * @param commandAdmission Admission check, such as per-tenant rate limits, applied before any other check.
  */
 class DefaultCommandGateway(
     private val commandWaitEndpoint: CommandWaitEndpoint,
@@ -59,6 +67,8 @@ class DefaultCommandGateway(
     private val requestIdChecker: RequestIdChecker,
     private val waitCoordinator: WaitCoordinator,
     private val commandWaitNotifier: CommandWaitNotifier,
+    private val aggregatePrefetcher: AggregatePrefetcher = AggregatePrefetcher.NONE,
+    private val commandAdmission: CommandAdmission = CommandAdmission.NONE,
 ) : CommandGateway,
     CommandBus by commandBus {
     override val enforcesCommandWaitTimeout: Boolean = true
@@ -103,20 +113,37 @@ class DefaultCommandGateway(
             }
 
     /**
-     * Performs comprehensive pre-send checks including idempotency and validation.
+     * Performs comprehensive pre-send checks including admission, idempotency and validation.
      *
      * @param C The type of the command body.
      * @param command The command message to check.
      * @return A Mono that completes when all checks pass.
+     * @throws CommandRateLimitedException if the command is not admitted.
      * @throws DuplicateRequestIdException if the command is not idempotent.
      * @throws jakarta.validation.ConstraintViolationException if validation fails.
      */
     private fun <C : Any> check(command: CommandMessage<C>): Mono<Void> =
-        idempotencyCheck(command)
+        Mono.fromRunnable<Void> {
+            commandAdmission.admit(command)
+        }
+            .thenDefer {
+                idempotencyCheck(command)
+            }
             .thenRunnable {
                 validate(command.body)
             }
 
+    /**
+     * Sends the command to the command bus, first hinting the prefetcher when the command will be
+     * processed on this instance and targets an existing aggregate.
+     */
+    private fun sendToBus(command: CommandMessage<*>): Mono<Void> {
+        if (!command.isCreate && command.shouldLocalFirst()) {
+            aggregatePrefetcher.prefetch(command.aggregateId)
+        }
+        return commandBus.send(command)
+    }
+
     /**
      * Sends a command message through the command bus after performing validation and idempotency checks.
      * Notifies wait plans if configured in the message header.
@@ -129,7 +156,7 @@ class DefaultCommandGateway(
     override fun send(message: CommandMessage<*>): Mono<Void> {
         return check(message)
             .thenDefer {
-                commandBus.send(message)
+                sendToBus(message)
             }
             .doOnSuccess {
                 val waitPlan = message.header.extractWaitPlan() ?: return@doOnSuccess
@@ -159,7 +186,7 @@ class DefaultCommandGateway(
     override fun <C : Any> sendAndWaitForSent(command: CommandMessage<C>): Mono<CommandResult> =
         check(command)
             .thenDefer {
-                commandBus.send(command)
+                sendToBus(command)
             }.then(
                 Mono.fromCallable {
                     CommandResult(
@@ -190,6 +217,9 @@ class DefaultCommandGateway(
      * Sends a command and returns a stream of command results as they become available.
      * This method allows monitoring the progress of command execution in real-time.
      *
+     * The wait slot is taken before the pre-send checks, so a command refused for wait capacity has not
+     * consumed its request id and can be retried.
+     *
      * @param C The type of the command body.
      * @param command The command message to send.
      * @param waitPlan The plan defining how and what to wait for.
@@ -197,6 +227,7 @@ class DefaultCommandGateway(
      * @throws DuplicateRequestIdException if the command is not idempotent.
      * @throws jakarta.validation.ConstraintViolationException if validation fails.
      * @throws IllegalArgumentException if the wait plan doesn't support void commands when needed.
+     * @throws CommandResultException if the wait coordinator is at capacity.
      */
     override fun <C : Any> sendAndWaitStream(
         command: CommandMessage<C>,
@@ -204,28 +235,28 @@ class DefaultCommandGateway(
     ): Flux<CommandResult> =
         Flux.defer {
             validateVoidCommandWaitPlan(command, waitPlan)
-            check(command)
-                .mapToCommandResultException(command, waitPlan)
-                .thenMany(
-                    Flux.using(
-                        { waitCoordinator.createStream(waitPlan) },
-                        { handle ->
-                            sendWithRegisteredWaitHandle(command, waitPlan, handle)
-                                .thenMany(
-                                    handle.stream().map { waitSignal ->
-                                        waitSignal.toResult(command)
-                                    }
-                                )
-                        },
-                        { handle -> handle.cancel() },
-                    )
-                )
+            Flux.using(
+                { registerWait { waitCoordinator.createStream(waitPlan) } },
+                { handle ->
+                    check(command)
+                        .mapToCommandResultException(command, waitPlan)
+                        .then(sendWithRegisteredWaitHandle(command, waitPlan, handle))
+                        .thenMany(
+                            handle.stream().map { waitSignal ->
+                                waitSignal.toResult(command)
+                            }
+                        )
+                },
+                { handle -> handle.cancel() },
+            ).onWaitRegistrationError(command, waitPlan)
         }.withDeadline(waitPlan.timeout)
 
     /**
      * Sends a command and waits for the final result.
      * Throws CommandResultException if the command execution fails.
      *
+     * As with [sendAndWaitStream], the wait slot is taken before the pre-send checks.
+     *
      * @param C The type of the command body.
      * @param command The command message to send.
      * @param waitPlan The plan defining how and what to wait for.
@@ -233,7 +264,7 @@ class DefaultCommandGateway(
      * @throws DuplicateRequestIdException if the command is not idempotent.
      * @throws jakarta.validation.ConstraintViolationException if validation fails.
      * @throws IllegalArgumentException if the wait plan doesn't support void commands when needed.
-     * @throws CommandResultException if the command execution fails.
+     * @throws CommandResultException if the command execution fails or the wait coordinator is at capacity.
      */
     override fun <C : Any> sendAndWait(
         command: CommandMessage<C>,
@@ -241,28 +272,26 @@ class DefaultCommandGateway(
     ): Mono<CommandResult> =
         Mono.defer {
             validateVoidCommandWaitPlan(command, waitPlan)
-            check(command)
-                .mapToCommandResultException(command, waitPlan)
-                .then(
-                    Mono.using(
-                        { waitCoordinator.createLast(waitPlan) },
-                        { handle ->
-                            sendWithRegisteredWaitHandle(command, waitPlan, handle)
-                                .then(
-                                    handle.await()
-                                        .map { waitSignal ->
-                                            waitSignal.toResult(command)
-                                                .apply {
-                                                    if (!succeeded) {
-                                                        throw CommandResultException(this)
-                                                    }
-                                                }
+            Mono.using(
+                { registerWait { waitCoordinator.createLast(waitPlan) } },
+                { handle ->
+                    check(command)
+                        .mapToCommandResultException(command, waitPlan)
+                        .then(sendWithRegisteredWaitHandle(command, waitPlan, handle))
+                        .then(
+                            handle.await()
+                                .map { waitSignal ->
+                                    waitSignal.toResult(command)
+                                        .apply {
+                                            if (!succeeded) {
+                                                throw CommandResultException(this)
+                                            }
                                         }
-                                )
-                        },
-                        { handle -> handle.cancel() },
-                    )
-                )
+                                }
+                        )
+                },
+                { handle -> handle.cancel() },
+            ).onWaitRegistrationError(command, waitPlan)
         }.withDeadline(waitPlan.timeout)
 
     /**
@@ -286,7 +315,7 @@ class DefaultCommandGateway(
     ): Mono<Void> {
         return Mono.defer {
             waitPlan.propagate(commandWaitEndpoint, command.header)
-            commandBus.send(command)
+            sendToBus(command)
         }.doOnSuccess {
             if (waitHandle !is SkipsSuccessfulSentSignal ||
                 waitPlan.target.stage == CommandStage.SENT
@@ -301,6 +330,35 @@ class DefaultCommandGateway(
         }.mapToCommandResultException(command, waitPlan)
     }
 
+    /**
+     * Maps a refused wait slot to [CommandResultException]. A wait id conflict is reported as the failure of
+     * the pre-send checks when they fail, so an in-flight duplicate command still reports a duplicate request.
+     */
+    private fun <C : Any> Throwable.toWaitRegistrationError(
+        command: CommandMessage<C>,
+        waitPlan: WaitPlan
+    ): Mono<Void> = when (this) {
+        is WaitCapacityExceededException -> Mono.error(toCommandResultException(command, waitPlan))
+        is WaitRegistrationConflict -> check(command)
+            .mapToCommandResultException(command, waitPlan)
+            .then(Mono.error(cause))
+        else -> Mono.error(this)
+    }
+
+    private fun <T : Any, C : Any> Mono<T>.onWaitRegistrationError(
+        command: CommandMessage<C>,
+        waitPlan: WaitPlan
+    ): Mono<T> = onErrorResume {
+        it.toWaitRegistrationError(command, waitPlan).then(Mono.empty())
+    }
+
+    private fun <T : Any, C : Any> Flux<T>.onWaitRegistrationError(
+        command: CommandMessage<C>,
+        waitPlan: WaitPlan
+    ): Flux<T> = onErrorResume {
+        it.toWaitRegistrationError(command, waitPlan).thenMany(Flux.empty())
+    }
+
     private fun <C : Any> validateVoidCommandWaitPlan(
         command: CommandMessage<C>,
         waitPlan: WaitPlan
@@ -319,16 +377,36 @@ class DefaultCommandGateway(
         waitPlan: WaitPlan
     ): Mono<T> =
         onErrorMap {
-            CommandResultException(
-                it.toResult(
-                    waitCommandId = waitPlan.waitCommandId,
-                    commandMessage = command,
-                ),
-                it,
-            )
+            it.toCommandResultException(command, waitPlan)
         }
+
+    private fun <C : Any> Throwable.toCommandResultException(
+        command: CommandMessage<C>,
+        waitPlan: WaitPlan
+    ): CommandResultException =
+        CommandResultException(
+            toResult(
+                waitCommandId = waitPlan.waitCommandId,
+                commandMessage = command,
+            ),
+            this,
+        )
 }
 
+/**
+ * Marks a wait id that is already registered, as opposed to errors raised after the wait was registered.
+ */
+private class WaitRegistrationConflict(
+    override val cause: IllegalArgumentException,
+) : RuntimeException(cause.message, cause, false, false)
+
+private inline fun <H : WaitHandle> registerWait(create: () -> H): H =
+    try {
+        create()
+    } catch (conflict: IllegalArgumentException) {
+        throw WaitRegistrationConflict(conflict)
+    }
+
 private fun <T : Any> Mono<T>.withDeadline(timeout: Duration): Mono<T> =
     timeout(timeout)
 
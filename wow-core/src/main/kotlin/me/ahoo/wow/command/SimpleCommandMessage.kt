@@ -22,6 +22,8 @@ import me.ahoo.wow.api.modeling.SpaceId
 import me.ahoo.wow.api.modeling.SpaceIdCapable
 import me.ahoo.wow.id.generateGlobalId
 import me.ahoo.wow.messaging.DefaultHeader
+import me.ahoo.wow.messaging.HeaderOverlayable
+import me.ahoo.wow.messaging.overlayCopy
 import me.ahoo.wow.naming.annotation.toName
 
 /**
@@ -58,6 +60,7 @@ data class SimpleCommandMessage<C : Any>(
     override val isVoid: Boolean = false,
     override val createTime: Long = System.currentTimeMillis()
 ) : CommandMessage<C>,
+    HeaderOverlayable<CommandMessage<C>>,
     NamedAggregate by aggregateId {
     /**
      * Creates a copy of this command message with a deep copy of the header.
@@ -66,4 +69,6 @@ data class SimpleCommandMessage<C : Any>(
      * @return A new CommandMessage instance with copied header.
      */
     override fun copy(): CommandMessage<C> = copy(header = header.copy())
+
+    override fun overlayCopy(): CommandMessage<C> = copy(header = header.overlayCopy())
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.command.admission
+
+import me.ahoo.wow.api.command.CommandMessage
+
+/**
+ * Decides whether the command gateway accepts a command before any idempotency or validation work.
+ *
+ * Implementations are called on the sending path for every command and must be cheap and non-blocking.
+ *
+ * @see TokenBucketCommandAdmission
+ */
+fun interface CommandAdmission {
+    /**
+     * Admits [command] or throws.
+     *
+     * @throws CommandRateLimitedException if [command] exceeds a rate limit.
+     */
+    fun admit(command: CommandMessage<*>)
+
+    companion object {
+        val NONE: CommandAdmission = CommandAdmission { }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.command.admission
+
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.api.modeling.NamedAggregate
+import me.ahoo.wow.exception.ErrorCodes.TOO_MANY_REQUESTS
+import me.ahoo.wow.exception.RecoverableException
+import me.ahoo.wow.exception.WowException
+
+/**
+ * The rate limit that rejected a command.
+ */
+enum class CommandRateLimitScope {
+    TENANT,
+    AGGREGATE,
+}
+
+/**
+ * Exception thrown when the command gateway rejects a command because its tenant exceeded a rate limit.
+ *
+ * @param aggregateId the target aggregate of the rejected command
+ * @param scope the limit that was exceeded
+ */
+class CommandRateLimitedException(
+    val aggregateId: AggregateId,
+    val scope: CommandRateLimitScope,
+) : WowException(
+    errorCode = TOO_MANY_REQUESTS,
+    errorMsg = "Command rate limit[${scope.name}] of tenant[${aggregateId.tenantId}] has been exceeded.",
+),
+    RecoverableException,
+    NamedAggregate by aggregateId
@@ -0,0 +1,76 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.command.admission
+
+import java.time.Duration
+
+/**
+ * A token bucket that refills [permitsPerSecond] permits per second up to [burst] permits.
+ */
+data class CommandRateLimit(
+    val permitsPerSecond: Double,
+    val burst: Long,
+) {
+    init {
+        require(permitsPerSecond > 0) {
+            "permitsPerSecond must be greater than zero."
+        }
+        require(burst > 0) {
+            "burst must be greater than zero."
+        }
+    }
+
+    internal fun weighted(weight: Int): CommandRateLimit =
+        if (weight == 1) this else CommandRateLimit(permitsPerSecond * weight, burst * weight)
+
+    internal val permitsPerNano: Double
+        get() = permitsPerSecond / Duration.ofSeconds(1).toNanos()
+}
+
+/**
+ * Rate limits applied by the command gateway per tenant.
+ *
+ * Limits are enforced per gateway instance, so the effective limit of a tenant is the number of instances
+ * times the configured limit; divide the intended cluster-wide limit by the instance count.
+ *
+ * @property tenant Limit shared by all commands of a tenant; `null` leaves tenants unlimited.
+ * @property aggregate Limit shared by the commands of a tenant to one aggregate type; `null` leaves aggregate
+ * types unlimited.
+ * @property tenantWeights Multipliers of both limits for tenants that are entitled to more throughput; other
+ * tenants have weight 1.
+ * @property maxTrackedBuckets Maximum number of buckets held at the same time. The least recently used bucket is
+ * dropped once it has refilled; while none can be dropped, commands that would need a new bucket share one
+ * unweighted bucket per scope.
+ */
+data class TenantCommandRateLimits(
+    val tenant: CommandRateLimit? = null,
+    val aggregate: CommandRateLimit? = null,
+    val tenantWeights: Map<String, Int> = emptyMap(),
+    val maxTrackedBuckets: Int = DEFAULT_MAX_TRACKED_BUCKETS,
+) {
+    init {
+        require(tenantWeights.values.all { it > 0 }) {
+            "tenantWeights must be greater than zero."
+        }
+        require(maxTrackedBuckets > 0) {
+            "maxTrackedBuckets must be greater than zero."
+        }
+    }
+
+    internal fun weightOf(tenantId: String): Int = tenantWeights[tenantId] ?: 1
+
+    companion object {
+        const val DEFAULT_MAX_TRACKED_BUCKETS = 10_000
+    }
+}
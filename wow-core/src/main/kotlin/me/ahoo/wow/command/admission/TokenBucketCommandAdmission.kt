@@ -0,0 +1,165 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.command.admission
+
+import io.micrometer.core.instrument.Counter
+import me.ahoo.wow.api.command.CommandMessage
+import me.ahoo.wow.api.modeling.NamedAggregate
+import me.ahoo.wow.metrics.WowMetrics
+import me.ahoo.wow.metrics.recordSafely
+import me.ahoo.wow.modeling.materialize
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Applies [TenantCommandRateLimits] with one token bucket per tenant and one per tenant and aggregate type.
+ *
+ * A command takes a permit from its tenant bucket, then from its aggregate bucket; when the aggregate bucket
+ * is empty the tenant permit is returned. Rejections are counted by `wow.command.admission.rejected`, tagged
+ * by scope and aggregate but not by tenant to keep cardinality bounded.
+ *
+ * Buckets live in an access-ordered map of at most [TenantCommandRateLimits.maxTrackedBuckets] entries. A new
+ * bucket evicts the least recently used one if that one has refilled, since dropping it loses no state. If it has
+ * not, every tracked bucket is in use and the command takes its permit from a bucket of the scope shared by all
+ * untracked tenants, so a flood of tenants is throttled instead of admitted unlimited.
+ *
+ * Buckets are local to this instance: behind N gateway instances a tenant is admitted up to N times the
+ * configured limit.
+ */
+class TokenBucketCommandAdmission(
+    private val limits: TenantCommandRateLimits,
+    metrics: WowMetrics = WowMetrics.NONE,
+    private val clock: () -> Long = System::nanoTime,
+) : CommandAdmission {
+    private val buckets = LinkedHashMap<BucketKey, TokenBucket>(16, 0.75f, true)
+    private val overflowBuckets = ConcurrentHashMap<CommandRateLimitScope, TokenBucket>()
+    private val rejections = CommandAdmissionMetrics(metrics)
+
+    override fun admit(command: CommandMessage<*>) {
+        val aggregateId = command.aggregateId
+        val tenantId = aggregateId.tenantId
+        val weight = limits.weightOf(tenantId)
+        val now = clock()
+        val tenantBucket = limits.tenant?.let {
+            bucket(BucketKey(tenantId, null, null), CommandRateLimitScope.TENANT, it, weight, now)
+        }
+        if (tenantBucket != null && !tenantBucket.tryAcquire(now)) {
+            reject(command, CommandRateLimitScope.TENANT)
+        }
+        val aggregateBucket = limits.aggregate?.let {
+            val key = BucketKey(tenantId, aggregateId.contextName, aggregateId.aggregateName)
+            bucket(key, CommandRateLimitScope.AGGREGATE, it, weight, now)
+        }
+        if (aggregateBucket != null && !aggregateBucket.tryAcquire(now)) {
+            tenantBucket?.refund()
+            reject(command, CommandRateLimitScope.AGGREGATE)
+        }
+    }
+
+    private fun reject(command: CommandMessage<*>, scope: CommandRateLimitScope): Nothing {
+        rejections.rejected(command.aggregateId, scope)
+        throw CommandRateLimitedException(command.aggregateId, scope)
+    }
+
+    private fun bucket(
+        key: BucketKey,
+        scope: CommandRateLimitScope,
+        limit: CommandRateLimit,
+        weight: Int,
+        now: Long
+    ): TokenBucket {
+        synchronized(buckets) {
+            buckets[key]?.let { return it }
+            if (buckets.size >= limits.maxTrackedBuckets) {
+                val eldest = buckets.entries.first()
+                if (!eldest.value.isFull(now)) {
+                    return overflowBuckets.computeIfAbsent(scope) { TokenBucket(limit, now) }
+                }
+                buckets.remove(eldest.key)
+            }
+            return TokenBucket(limit.weighted(weight), now).also { buckets[key] = it }
+        }
+    }
+
+    private data class BucketKey(
+        val tenantId: String,
+        val contextName: String?,
+        val aggregateName: String?,
+    )
+}
+
+internal class TokenBucket(
+    limit: CommandRateLimit,
+    now: Long,
+) {
+    private val capacity = limit.burst.toDouble()
+    private val permitsPerNano = limit.permitsPerNano
+    private var tokens = capacity
+    private var refilledAt = now
+
+    @Synchronized
+    fun tryAcquire(now: Long): Boolean {
+        refill(now)
+        if (tokens < 1) {
+            return false
+        }
+        tokens -= 1
+        return true
+    }
+
+    @Synchronized
+    fun refund() {
+        tokens = (tokens + 1).coerceAtMost(capacity)
+    }
+
+    @Synchronized
+    fun isFull(now: Long): Boolean {
+        refill(now)
+        return tokens >= capacity
+    }
+
+    private fun refill(now: Long) {
+        val elapsed = now - refilledAt
+        if (elapsed <= 0) {
+            return
+        }
+        tokens = (tokens + elapsed * permitsPerNano).coerceAtMost(capacity)
+        refilledAt = now
+    }
+}
+
+private class CommandAdmissionMetrics(
+    private val metrics: WowMetrics,
+) {
+    private val counters = ConcurrentHashMap<Pair<NamedAggregate, CommandRateLimitScope>, Counter>()
+
+    fun rejected(namedAggregate: NamedAggregate, scope: CommandRateLimitScope) {
+        val registry = metrics.meterRegistry ?: return
+        recordSafely {
+            counters.computeIfAbsent(namedAggregate.materialize() to scope) { (aggregate, rejectedScope) ->
+                Counter.builder(REJECTED)
+                    .tag(SCOPE_TAG, rejectedScope.name.lowercase())
+                    .tag(CONTEXT_TAG, aggregate.contextName)
+                    .tag(AGGREGATE_TAG, aggregate.aggregateName)
+                    .register(registry)
+            }.increment()
+        }
+    }
+
+    private companion object {
+        const val REJECTED = "wow.command.admission.rejected"
+        const val SCOPE_TAG = "scope"
+        const val CONTEXT_TAG = "context"
+        const val AGGREGATE_TAG = "aggregate"
+    }
+}
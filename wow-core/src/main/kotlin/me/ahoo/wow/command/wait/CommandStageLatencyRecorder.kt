@@ -0,0 +1,64 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.command.wait
+
+import me.ahoo.wow.api.modeling.NamedAggregate
+
+/**
+ * Observes completed command stages to derive per-stage command latency.
+ *
+ * The notifier filters call [record] for every exchange, including those without a wait plan, with the
+ * completed stage and the time at which its previous stage completed. No wait signal is built for the
+ * recorder, so recording costs no more than the timer update.
+ *
+ * For [CommandStage.PROCESSED] the previous stage is [CommandStage.SENT] and its time is the command creation
+ * time; for the downstream stages the previous stage is [CommandStage.PROCESSED] and its time is the creation
+ * time of the domain event being handled. Both timestamps travel with the message, so the recorder needs no
+ * per-command state.
+ *
+ * @see CommandStage.previousStage
+ */
+fun interface CommandStageLatencyRecorder {
+    /**
+     * Records the latency between the previous stage and [stage].
+     *
+     * Implementations must be cheap and must not throw, as they run on the message processing path.
+     *
+     * @param stage the completed stage.
+     * @param aggregate the aggregate the command targets.
+     * @param processorName the processor that completed the stage, or empty when unknown.
+     * @param succeeded whether the stage completed without an error.
+     * @param previousStageTime the epoch milliseconds at which the previous stage completed.
+     * @param stageTime the epoch milliseconds at which [stage] completed.
+     */
+    @Suppress("LongParameterList")
+    fun record(
+        stage: CommandStage,
+        aggregate: NamedAggregate,
+        processorName: String,
+        succeeded: Boolean,
+        previousStageTime: Long,
+        stageTime: Long
+    )
+
+    companion object {
+        val NONE: CommandStageLatencyRecorder = CommandStageLatencyRecorder { _, _, _, _, _, _ -> }
+    }
+}
+
+/**
+ * The stage whose completion directly precedes this stage, or `null` for [CommandStage.SENT].
+ */
+val CommandStage.previousStage: CommandStage?
+    get() = previous.lastOrNull()
@@ -17,6 +17,7 @@ import me.ahoo.wow.api.command.CommandId
 import me.ahoo.wow.api.event.DomainEvent
 import me.ahoo.wow.api.exception.ErrorInfo
 import me.ahoo.wow.api.messaging.Message
+import me.ahoo.wow.api.messaging.function.FunctionInfo
 import me.ahoo.wow.api.messaging.function.FunctionInfoData
 import me.ahoo.wow.api.messaging.function.FunctionKind
 import me.ahoo.wow.api.modeling.AggregateIdCapable
@@ -44,17 +45,22 @@ import reactor.util.context.Context
  * @param processingStage The command processing stage being notified.
  * @param messageExchange The message exchange containing processing context.
  * @param source The original Mono<Void> operation to wrap.
+ * @param latencyRecorder The recorder observing the completed stage. It observes every exchange, including
+ * those without a wait plan, so fire-and-forget commands are measured as well.
  */
 class MonoCommandWaitNotifier<E, M>(
     private val commandWaitNotifier: CommandWaitNotifier,
     private val processingStage: CommandStage,
     private val messageExchange: E,
-    private val source: Mono<Void>
+    private val source: Mono<Void>,
+    private val latencyRecorder: CommandStageLatencyRecorder = CommandStageLatencyRecorder.NONE
 ) : Mono<Void>() where E : MessageExchange<*, M>, M : Message<*, *>, M : CommandId, M : NamedBoundedContext, M : AggregateIdCapable {
     override fun subscribe(actual: CoreSubscriber<in Void>) {
         val message = messageExchange.message
-        val waitPlan = message.header.extractWaitPlan() ?: return source.subscribe(actual)
-        if (!waitPlan.plan.target.shouldNotify(processingStage)) {
+        val waitPlan = message.header.extractWaitPlan()?.takeIf {
+            it.plan.target.shouldNotify(processingStage)
+        }
+        if (waitPlan == null && latencyRecorder === CommandStageLatencyRecorder.NONE) {
             return source.subscribe(actual)
         }
 
@@ -65,6 +71,7 @@ class MonoCommandWaitNotifier<E, M>(
                 waitPlan = waitPlan,
                 messageExchange = messageExchange,
                 actual = actual,
+                latencyRecorder = latencyRecorder,
             ),
         )
     }
@@ -79,16 +86,20 @@ class MonoCommandWaitNotifier<E, M>(
  * @param M The type of message in the exchange.
  * @param commandWaitNotifier The notifier for sending wait signals.
  * @param processingStage The stage of processing being completed.
- * @param waitPlan The extracted wait plan containing notification details.
+ * @param waitPlan The extracted wait plan containing notification details, or `null` when the stage is only
+ * recorded by [latencyRecorder].
  * @param messageExchange The message exchange with processing context.
  * @param actual The actual subscriber to delegate completion events to.
+ * @param latencyRecorder The recorder observing the completed stage; the message creation time marks the
+ * completion of the previous stage.
  */
 class CommandWaitNotifierSubscriber<E, M>(
     private val commandWaitNotifier: CommandWaitNotifier,
     private val processingStage: CommandStage,
-    private val waitPlan: ExtractedWaitPlan,
+    private val waitPlan: ExtractedWaitPlan?,
     private val messageExchange: E,
-    private val actual: CoreSubscriber<in Void>
+    private val actual: CoreSubscriber<in Void>,
+    private val latencyRecorder: CommandStageLatencyRecorder = CommandStageLatencyRecorder.NONE
 ) : BaseSubscriber<Void>() where E : MessageExchange<*, M>, M : Message<*, *>, M : CommandId, M : NamedBoundedContext, M : AggregateIdCapable {
     private val message = messageExchange.message
     private val isLastProjection =
@@ -130,7 +141,10 @@ class CommandWaitNotifierSubscriber<E, M>(
 
     private fun notifySignal(errorInfo: ErrorInfo? = null) {
         val error = errorInfo ?: ErrorInfo.OK
-        val functionInfo = messageExchange.getFunction()
+        val function = messageExchange.getFunction()
+        recordLatency(function, error)
+        val plan = waitPlan ?: return
+        val functionInfo = function
             ?: FunctionInfoData.unknown(
                 functionKind = FunctionKind.ERROR,
                 contextName = messageExchange.message.contextName
@@ -138,7 +152,7 @@ class CommandWaitNotifierSubscriber<E, M>(
 
         val waitSignal = functionInfo.toWaitSignal(
             id = messageExchange.message.id,
-            waitCommandId = waitPlan.waitCommandId,
+            waitCommandId = plan.waitCommandId,
             commandId = messageExchange.message.commandId,
             aggregateId = messageExchange.message.aggregateId,
             stage = processingStage,
@@ -150,7 +164,21 @@ class CommandWaitNotifierSubscriber<E, M>(
             result = messageExchange.getCommandResult(),
             commands = getCommands()
         )
-        commandWaitNotifier.notifyAndForget(waitPlan, waitSignal)
+        commandWaitNotifier.notifyAndForget(plan, waitSignal)
+    }
+
+    private fun recordLatency(function: FunctionInfo?, error: ErrorInfo) {
+        if (latencyRecorder === CommandStageLatencyRecorder.NONE) {
+            return
+        }
+        latencyRecorder.record(
+            stage = processingStage,
+            aggregate = message.aggregateId,
+            processorName = function?.processorName.orEmpty(),
+            succeeded = error.succeeded,
+            previousStageTime = message.createTime,
+            stageTime = System.currentTimeMillis(),
+        )
     }
 
     override fun hookOnComplete() {
@@ -170,16 +198,19 @@ class CommandWaitNotifierSubscriber<E, M>(
  * @param commandWaitNotifier The notifier for sending wait signals.
  * @param processingStage The processing stage to notify about.
  * @param messageExchange The message exchange containing context information.
+ * @param latencyRecorder The recorder observing the completed stage.
  * @return A new Mono that will send notifications when the original Mono completes.
  */
 fun <E : MessageExchange<*, M>, M> Mono<Void>.thenNotifyAndForget(
     commandWaitNotifier: CommandWaitNotifier,
     processingStage: CommandStage,
-    messageExchange: E
+    messageExchange: E,
+    latencyRecorder: CommandStageLatencyRecorder = CommandStageLatencyRecorder.NONE
 ): Mono<Void> where M : Message<*, *>, M : CommandId, M : NamedBoundedContext, M : AggregateIdCapable =
     MonoCommandWaitNotifier(
         commandWaitNotifier = commandWaitNotifier,
         processingStage = processingStage,
         messageExchange = messageExchange,
         source = this,
+        latencyRecorder = latencyRecorder,
     )
@@ -45,16 +45,18 @@ import reactor.core.publisher.Mono
  * @param M The type of message in the exchange.
  * @param processingStage The command stage this filter notifies about.
  * @param commandWaitNotifier The notifier used to send wait signals.
+ * @param latencyRecorder The recorder deriving stage latency from the completed stages.
  */
 abstract class AbstractNotifierFilter<T : MessageExchange<*, M>, M>(
     private val processingStage: CommandStage,
-    private val commandWaitNotifier: CommandWaitNotifier
+    private val commandWaitNotifier: CommandWaitNotifier,
+    private val latencyRecorder: CommandStageLatencyRecorder = CommandStageLatencyRecorder.NONE
 ) : ExchangeFilter<T> where M : Message<*, *>, M : CommandId, M : NamedBoundedContext, M : AggregateIdCapable {
     override fun filter(
         exchange: T,
         next: FilterChain<T>
     ): Mono<Void> = next.filter(exchange)
-        .thenNotifyAndForget(commandWaitNotifier, processingStage, exchange)
+        .thenNotifyAndForget(commandWaitNotifier, processingStage, exchange, latencyRecorder)
 }
 
 /**
@@ -62,57 +64,87 @@ abstract class AbstractNotifierFilter<T : MessageExchange<*, M>, M>(
  * Intercepts the command dispatcher pipeline to send PROCESSED stage notifications.
  *
  * @param commandWaitNotifier The notifier for sending wait signals.
+ * @param latencyRecorder The recorder deriving stage latency from the completed stages.
  */
 @Order(ORDER_FIRST)
 class ProcessedNotifierFilter(
-    commandWaitNotifier: CommandWaitNotifier
+    commandWaitNotifier: CommandWaitNotifier,
+    latencyRecorder: CommandStageLatencyRecorder = CommandStageLatencyRecorder.NONE
 ) : CommandFilter,
-    AbstractNotifierFilter<ServerCommandExchange<*>, CommandMessage<*>>(CommandStage.PROCESSED, commandWaitNotifier)
+    AbstractNotifierFilter<ServerCommandExchange<*>, CommandMessage<*>>(
+        CommandStage.PROCESSED,
+        commandWaitNotifier,
+        latencyRecorder
+    )
 
 /**
  * Filter that notifies wait plans when aggregate snapshots are generated.
  * Intercepts the snapshot dispatcher pipeline to send SNAPSHOT stage notifications.
  *
  * @param commandWaitNotifier The notifier for sending wait signals.
+ * @param latencyRecorder The recorder deriving stage latency from the completed stages.
  */
 @FilterType(SnapshotDispatcher::class)
 @Order(ORDER_FIRST)
 class SnapshotNotifierFilter(
-    commandWaitNotifier: CommandWaitNotifier
-) : AbstractNotifierFilter<StateEventExchange<*>, StateEvent<*>>(CommandStage.SNAPSHOT, commandWaitNotifier)
+    commandWaitNotifier: CommandWaitNotifier,
+    latencyRecorder: CommandStageLatencyRecorder = CommandStageLatencyRecorder.NONE
+) : AbstractNotifierFilter<StateEventExchange<*>, StateEvent<*>>(
+    CommandStage.SNAPSHOT,
+    commandWaitNotifier,
+    latencyRecorder
+)
 
 /**
  * Filter that notifies wait plans when projections are updated.
  * Intercepts the projection dispatcher pipeline to send PROJECTED stage notifications.
  *
  * @param commandWaitNotifier The notifier for sending wait signals.
+ * @param latencyRecorder The recorder deriving stage latency from the completed stages.
  */
 @FilterType(ProjectionDispatcher::class)
 @Order(ORDER_FIRST)
 class ProjectedNotifierFilter(
-    commandWaitNotifier: CommandWaitNotifier
-) : AbstractNotifierFilter<DomainEventExchange<Any>, DomainEvent<*>>(CommandStage.PROJECTED, commandWaitNotifier)
+    commandWaitNotifier: CommandWaitNotifier,
+    latencyRecorder: CommandStageLatencyRecorder = CommandStageLatencyRecorder.NONE
+) : AbstractNotifierFilter<DomainEventExchange<Any>, DomainEvent<*>>(
+    CommandStage.PROJECTED,
+    commandWaitNotifier,
+    latencyRecorder
+)
 
 /**
  * Filter that notifies wait plans when domain events are handled by event processors.
  * Intercepts the domain event dispatcher pipeline to send EVENT_HANDLED stage notifications.
  *
  * @param commandWaitNotifier The notifier for sending wait signals.
+ * @param latencyRecorder The recorder deriving stage latency from the completed stages.
  */
 @FilterType(DomainEventDispatcher::class)
 @Order(ORDER_FIRST)
 class EventHandledNotifierFilter(
-    commandWaitNotifier: CommandWaitNotifier
-) : AbstractNotifierFilter<DomainEventExchange<Any>, DomainEvent<*>>(CommandStage.EVENT_HANDLED, commandWaitNotifier)
+    commandWaitNotifier: CommandWaitNotifier,
+    latencyRecorder: CommandStageLatencyRecorder = CommandStageLatencyRecorder.NONE
+) : AbstractNotifierFilter<DomainEventExchange<Any>, DomainEvent<*>>(
+    CommandStage.EVENT_HANDLED,
+    commandWaitNotifier,
+    latencyRecorder
+)
 
 /**
  * Filter that notifies wait plans when domain events are handled by sagas.
  * Intercepts the stateless saga dispatcher pipeline to send SAGA_HANDLED stage notifications.
  *
  * @param commandWaitNotifier The notifier for sending wait signals.
+ * @param latencyRecorder The recorder deriving stage latency from the completed stages.
  */
 @FilterType(StatelessSagaDispatcher::class)
 @Order(ORDER_FIRST)
 class SagaHandledNotifierFilter(
-    commandWaitNotifier: CommandWaitNotifier
-) : AbstractNotifierFilter<DomainEventExchange<Any>, DomainEvent<*>>(CommandStage.SAGA_HANDLED, commandWaitNotifier)
+    commandWaitNotifier: CommandWaitNotifier,
+    latencyRecorder: CommandStageLatencyRecorder = CommandStageLatencyRecorder.NONE
+) : AbstractNotifierFilter<DomainEventExchange<Any>, DomainEvent<*>>(
+    CommandStage.SAGA_HANDLED,
+    commandWaitNotifier,
+    latencyRecorder
+)
@@ -0,0 +1,33 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.command.wait
+
+import me.ahoo.wow.exception.ErrorCodes.TOO_MANY_REQUESTS
+import me.ahoo.wow.exception.RecoverableException
+import me.ahoo.wow.exception.WowException
+
+/**
+ * Exception thrown when a [WaitCoordinator] already holds its maximum number of in-flight waits.
+ *
+ * @param waitCommandId the wait command id whose registration was rejected
+ * @param maxPendingWaits the configured capacity of the coordinator
+ */
+class WaitCapacityExceededException(
+    val waitCommandId: String,
+    val maxPendingWaits: Int,
+) : WowException(
+    errorCode = TOO_MANY_REQUESTS,
+    errorMsg = "Wait coordinator pending capacity[$maxPendingWaits] has been exhausted.",
+),
+    RecoverableException
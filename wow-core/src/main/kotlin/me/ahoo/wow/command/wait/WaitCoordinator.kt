@@ -13,7 +13,9 @@
 
 package me.ahoo.wow.command.wait
 
+import me.ahoo.wow.metrics.WowMetrics
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
 
 interface WaitCoordinator {
     /**
@@ -31,49 +33,105 @@ interface WaitCoordinator {
     operator fun contains(waitCommandId: String): Boolean
 }
 
+/**
+ * Registry of in-flight command waits, partitioned into [stripeCount] independent stripes by the hash of
+ * the wait command id.
+ *
+ * Every handle shares the coordinator's unregister callback, so registering a wait allocates only the
+ * handle itself. At most [maxPendingWaits] waits may be registered at once; further registrations fail
+ * with [WaitCapacityExceededException] and are counted by `wow.command.wait.rejected`.
+ */
 class DefaultWaitCoordinator(
     private val streamQueueLinkSize: Int = DEFAULT_WAIT_STREAM_QUEUE_LINK_SIZE,
+    val maxPendingWaits: Int = DEFAULT_MAX_PENDING_WAITS,
+    stripeCount: Int = DEFAULT_WAIT_STRIPE_COUNT,
+    metrics: WowMetrics = WowMetrics.NONE,
 ) : WaitCoordinator {
-    private val handles = ConcurrentHashMap<String, WaitHandle>()
+    init {
+        require(maxPendingWaits > 0) {
+            "maxPendingWaits must be greater than zero."
+        }
+        require(stripeCount > 0) {
+            "stripeCount must be greater than zero."
+        }
+    }
+
+    private val stripeMask = stripeCount.takeHighestOneBit().let {
+        if (it == stripeCount) it else it shl 1
+    } - 1
+    private val stripes = Array(stripeMask + 1) {
+        ConcurrentHashMap<String, WaitHandle>()
+    }
+    private val pending = AtomicInteger()
+    private val unregisterHandle: (WaitHandle) -> Unit = ::unregister
+    private val waitMetrics = WaitCoordinatorMetrics(metrics, pending)
+
+    /**
+     * The number of currently registered waits.
+     */
+    val pendingWaits: Int
+        get() = pending.get()
 
     override fun createLast(plan: WaitPlan): WaitLastHandle {
-        lateinit var handle: WaitLastHandle
-        handle = DefaultWaitLastHandle(plan) {
-            unregister(plan.waitCommandId, handle)
-        }
-        register(plan.waitCommandId, handle)
+        acquire(plan.waitCommandId)
+        val handle = DefaultWaitLastHandle(plan, unregisterHandle)
+        register(handle)
         return handle
     }
 
     override fun createStream(plan: WaitPlan): WaitStreamHandle {
-        lateinit var handle: WaitStreamHandle
-        handle = DefaultWaitStreamHandle(
+        acquire(plan.waitCommandId)
+        val handle = DefaultWaitStreamHandle(
             plan = plan,
-            onTerminate = {
-                unregister(plan.waitCommandId, handle)
-            },
+            onTerminate = unregisterHandle,
             queueLinkSize = streamQueueLinkSize,
         )
-        register(plan.waitCommandId, handle)
+        register(handle)
         return handle
     }
 
-    private fun register(waitCommandId: String, handle: WaitHandle) {
-        val previous = handles.putIfAbsent(waitCommandId, handle)
-        require(previous == null) {
-            "Wait handle already registered for waitCommandId[$waitCommandId]."
+    private fun stripe(waitCommandId: String): ConcurrentHashMap<String, WaitHandle> {
+        val hash = waitCommandId.hashCode()
+        return stripes[(hash xor (hash ushr STRIPE_HASH_SHIFT)) and stripeMask]
+    }
+
+    private fun acquire(waitCommandId: String) {
+        if (pending.incrementAndGet() <= maxPendingWaits) {
+            return
+        }
+        pending.decrementAndGet()
+        waitMetrics.rejected()
+        throw WaitCapacityExceededException(waitCommandId, maxPendingWaits)
+    }
+
+    private fun register(handle: WaitHandle) {
+        val previous = stripe(handle.waitCommandId).putIfAbsent(handle.waitCommandId, handle)
+        if (previous != null) {
+            pending.decrementAndGet()
+            throw IllegalArgumentException(
+                "Wait handle already registered for waitCommandId[${handle.waitCommandId}]."
+            )
         }
     }
 
     override fun signal(signal: WaitSignal): Boolean {
-        val handle = handles[signal.waitCommandId] ?: return false
+        val handle = stripe(signal.waitCommandId)[signal.waitCommandId] ?: return false
         return handle.next(signal)
     }
 
-    private fun unregister(waitCommandId: String, handle: WaitHandle) {
-        handles.remove(waitCommandId, handle)
+    private fun unregister(handle: WaitHandle) {
+        if (stripe(handle.waitCommandId).remove(handle.waitCommandId, handle)) {
+            pending.decrementAndGet()
+        }
     }
 
     override fun contains(waitCommandId: String): Boolean =
-        handles.containsKey(waitCommandId)
+        stripe(waitCommandId).containsKey(waitCommandId)
+
+    private companion object {
+        const val STRIPE_HASH_SHIFT = 16
+    }
 }
+
+const val DEFAULT_MAX_PENDING_WAITS: Int = Int.MAX_VALUE
+val DEFAULT_WAIT_STRIPE_COUNT: Int = Runtime.getRuntime().availableProcessors()
@@ -0,0 +1,46 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.command.wait
+
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.Gauge
+import me.ahoo.wow.metrics.WowMetrics
+import me.ahoo.wow.metrics.recordSafely
+import java.util.concurrent.atomic.AtomicInteger
+
+/** Records wait registry occupancy and capacity rejections through Micrometer. */
+internal class WaitCoordinatorMetrics(
+    metrics: WowMetrics,
+    pending: AtomicInteger,
+) {
+    private val rejected: Counter? = metrics.meterRegistry?.let { registry ->
+        Gauge.builder(PENDING, pending) { it.get().toDouble() }
+            .register(registry)
+        Counter.builder(REJECTED)
+            .tag(REASON_TAG, CAPACITY_VALUE)
+            .register(registry)
+    }
+
+    fun rejected() {
+        val counter = rejected ?: return
+        recordSafely { counter.increment() }
+    }
+
+    private companion object {
+        const val PENDING = "wow.command.wait.pending"
+        const val REJECTED = "wow.command.wait.rejected"
+        const val REASON_TAG = "reason"
+        const val CAPACITY_VALUE = "capacity"
+    }
+}
@@ -66,7 +66,7 @@ const val DEFAULT_WAIT_STREAM_QUEUE_LINK_SIZE: Int = 16
 
 internal class DefaultWaitLastHandle(
     override val plan: WaitPlan,
-    private val onTerminate: () -> Unit,
+    private val onTerminate: (WaitHandle) -> Unit,
 ) : WaitLastHandle,
     SkipsSuccessfulSentSignal {
     override val waitCommandId: String = plan.waitCommandId
@@ -105,7 +105,7 @@ internal class DefaultWaitLastHandle(
             transition.acceptedSignal != null
         }
         if (shouldTerminate) {
-            onTerminate()
+            onTerminate(this)
         }
         return accepted
     }
@@ -137,14 +137,14 @@ internal class DefaultWaitLastHandle(
         }
         if (shouldTerminate) {
             emit()
-            onTerminate()
+            onTerminate(this)
         }
     }
 }
 
 internal class DefaultWaitStreamHandle(
     override val plan: WaitPlan,
-    private val onTerminate: () -> Unit,
+    private val onTerminate: (WaitHandle) -> Unit,
     queueLinkSize: Int = DEFAULT_WAIT_STREAM_QUEUE_LINK_SIZE,
 ) : WaitStreamHandle {
     override val waitCommandId: String = plan.waitCommandId
@@ -193,7 +193,7 @@ internal class DefaultWaitStreamHandle(
             sink.tryEmitError(it).requireTerminalEmission(it)
         }
         if (shouldTerminate) {
-            onTerminate()
+            onTerminate(this)
         }
         emissionException?.let {
             throw it
@@ -228,7 +228,7 @@ internal class DefaultWaitStreamHandle(
         }
         if (shouldTerminate) {
             emit()
-            onTerminate()
+            onTerminate(this)
         }
     }
 }
@@ -26,6 +26,8 @@ import me.ahoo.wow.api.modeling.AggregateIdCapable
 import me.ahoo.wow.api.modeling.SpaceId
 import me.ahoo.wow.id.generateGlobalId
 import me.ahoo.wow.messaging.DefaultHeader
+import me.ahoo.wow.messaging.HeaderOverlayable
+import me.ahoo.wow.messaging.overlayCopy
 import me.ahoo.wow.serialization.event.JsonDomainEvent
 
 /**
@@ -79,6 +81,7 @@ data class SimpleDomainEventStream(
     override val header: Header = DefaultHeader.empty(),
     override val body: List<DomainEvent<*>>
 ) : DomainEventStream,
+    HeaderOverlayable<DomainEventStream>,
     Iterable<DomainEvent<*>> by body {
     override val aggregateId: AggregateId
 
@@ -98,6 +101,11 @@ data class SimpleDomainEventStream(
         }
     )
 
+    override fun overlayCopy(): DomainEventStream {
+        body.forEach { it.header.withReadOnly() }
+        return copy(header = header.overlayCopy())
+    }
+
     override val size: Int
     override val createTime: Long
 
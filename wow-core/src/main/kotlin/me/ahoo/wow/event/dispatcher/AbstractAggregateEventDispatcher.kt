@@ -19,9 +19,12 @@ import me.ahoo.wow.event.DomainEventExchange
 import me.ahoo.wow.event.DomainEventStream
 import me.ahoo.wow.messaging.compensation.CompensationMatcher.match
 import me.ahoo.wow.messaging.dispatcher.AggregateDispatcher
+import me.ahoo.wow.messaging.dispatcher.ExchangeBatchWindow
 import me.ahoo.wow.messaging.dispatcher.MessageParallelism.toGroupKey
+import me.ahoo.wow.messaging.function.BatchMessageFunction
 import me.ahoo.wow.messaging.function.MessageFunction
 import me.ahoo.wow.messaging.function.MessageFunctionRegistrar
+import me.ahoo.wow.messaging.handler.ExchangeAck.ackOnError
 import me.ahoo.wow.messaging.handler.ExchangeAck.finallyAck
 import me.ahoo.wow.messaging.handler.MessageExchange
 import me.ahoo.wow.metrics.WowMetrics
@@ -101,6 +104,74 @@ abstract class AbstractAggregateEventDispatcher<E : MessageExchange<*, DomainEve
             .concatMap { handleEvent(exchange, it) }
             .finallyAck(exchange)
 
+    /**
+     * Gathers exchanges only when a registered function of this aggregate is a batch function.
+     *
+     * @see me.ahoo.wow.api.annotation.BatchProjection
+     */
+    override val exchangeBatchWindow: ExchangeBatchWindow? by lazy {
+        functionRegistrar.functions
+            .filter { function ->
+                function.supportedTopics.any { it.isSameAggregateName(namedAggregate) }
+            }.toExchangeBatchWindow()
+    }
+
+    /**
+     * Handles the non-batch functions of every event as soon as the exchange arrives, so they neither
+     * wait for the window nor are delayed by batch functions.
+     *
+     * @param exchange The exchange about to join a window
+     * @return A Mono that completes when the non-batch functions are handled, acknowledging the
+     * exchange if they fail
+     */
+    override fun handleExchangeBeforeWindow(exchange: E): Mono<Void> =
+        Flux
+            .fromIterable(exchange.message)
+            .concatMap { event ->
+                handleEvent(exchange, event) { it !is BatchMessageFunction<*, *, *> }
+            }.then()
+            .ackOnError(exchange)
+
+    /**
+     * Handles the batch functions of a window, invoking each batch function once per window.
+     *
+     * Events are walked in order and the event exchanges of each batch function are collected.
+     * Every event exchange still runs its own filter chain, which joins the single [BatchInvocation]
+     * of its chunk, so filters can skip the event or handle its error per event. Every exchange of the
+     * window is acknowledged together.
+     *
+     * @param exchanges The exchanges gathered by the window, in arrival order
+     * @return A Mono that completes when the window is handled and acknowledged
+     */
+    override fun handleExchanges(exchanges: List<E>): Mono<Void> {
+        val batches = LinkedHashMap<BatchEventFunction, MutableList<DomainEventExchange<*>>>()
+        exchanges.forEach { exchange ->
+            exchange.message.forEach { event ->
+                supportedFunctions(event)
+                    .filterIsInstance<BatchMessageFunction<*, *, *>>()
+                    .forEach { function ->
+                        @Suppress("UNCHECKED_CAST")
+                        function as BatchEventFunction
+                        val eventExchange = exchange.createEventExchange(event).setFunction(function)
+                        batches.getOrPut(function) { mutableListOf() }.add(eventExchange)
+                    }
+            }
+        }
+        return Flux
+            .fromIterable(batches.entries)
+            .flatMap { (function, eventExchanges) ->
+                Flux.fromIterable(eventExchanges.chunked(function.batchProjection.maxSize))
+                    .concatMap { chunk -> BatchInvocation(function, chunk).handle(eventHandler) }
+            }.then()
+            .finallyAck(exchanges)
+    }
+
+    private fun supportedFunctions(event: DomainEvent<*>): Set<EventFunction> =
+        functionRegistrar.supportedFunctions(event)
+            .filter {
+                event.match(it)
+            }.toSet()
+
     /**
      * Handles an individual domain event within the exchange context.
      *
@@ -109,6 +180,7 @@ abstract class AbstractAggregateEventDispatcher<E : MessageExchange<*, DomainEve
      *
      * @param exchange The parent message exchange
      * @param event The domain event to process
+     * @param predicate Selects the functions to handle
      * @return A Mono that completes when the event is processed
      *
      * @see MessageFunctionRegistrar.supportedFunctions
@@ -117,12 +189,10 @@ abstract class AbstractAggregateEventDispatcher<E : MessageExchange<*, DomainEve
      */
     private fun handleEvent(
         exchange: E,
-        event: DomainEvent<*>
+        event: DomainEvent<*>,
+        predicate: (EventFunction) -> Boolean = { true }
     ): Mono<Void> {
-        val functions = functionRegistrar.supportedFunctions(event)
-            .filter {
-                event.match(it)
-            }.toSet()
+        val functions = supportedFunctions(event)
         if (functions.isEmpty()) {
             log.debug {
                 "Not find any functions.Ignore this event:[${event.toJsonString()}]."
@@ -130,7 +200,7 @@ abstract class AbstractAggregateEventDispatcher<E : MessageExchange<*, DomainEve
             return Mono.empty()
         }
         return Flux
-            .fromIterable(functions)
+            .fromIterable(functions.filter(predicate))
             .flatMap { function ->
                 val eventExchange = exchange.createEventExchange(event).setFunction(function)
                 eventHandler.handle(eventExchange)
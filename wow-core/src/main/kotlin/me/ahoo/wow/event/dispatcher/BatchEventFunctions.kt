@@ -0,0 +1,154 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.event.dispatcher
+
+import me.ahoo.wow.api.annotation.BatchProjection
+import me.ahoo.wow.event.DomainEventExchange
+import me.ahoo.wow.messaging.dispatcher.ExchangeBatchWindow
+import me.ahoo.wow.messaging.function.BatchMessageFunction
+import me.ahoo.wow.messaging.function.MessageFunction
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import reactor.core.publisher.Sinks
+import reactor.util.retry.Retry
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+
+internal const val BATCH_INVOCATION_KEY = "__BATCH_INVOCATION__"
+
+internal typealias EventFunction = MessageFunction<Any, DomainEventExchange<*>, Mono<*>>
+internal typealias BatchEventFunction = BatchMessageFunction<Any, DomainEventExchange<*>, Mono<*>>
+
+internal fun DomainEventExchange<*>.setBatchInvocation(
+    invocation: BatchInvocation.Participant
+): DomainEventExchange<*> = setAttribute(BATCH_INVOCATION_KEY, invocation)
+
+/**
+ * The batch invocation this exchange takes part in, so [DomainEventFunctionFilter] joins it instead
+ * of invoking the function for this exchange alone.
+ */
+internal fun DomainEventExchange<*>.getBatchInvocation(): BatchInvocation.Participant? =
+    getAttribute(BATCH_INVOCATION_KEY)
+
+/**
+ * Invokes a batch function once for the event exchanges of a window that reach the function through
+ * their own filter chains.
+ *
+ * Every event exchange runs the full filter chain. [DomainEventFunctionFilter] [joins][Participant.join]
+ * the invocation instead of calling the function, while an exchange whose chain ends without reaching
+ * it, because a filter short-circuits or fails, [leaves][Participant.leave] the batch. Once every
+ * exchange has joined or left, the function is invoked once for the joined ones in event order and the
+ * outcome completes every joined chain.
+ */
+internal class BatchInvocation(
+    private val function: BatchEventFunction,
+    private val eventExchanges: List<DomainEventExchange<*>>
+) {
+    private val joined = arrayOfNulls<DomainEventExchange<*>>(eventExchanges.size)
+    private val pending = AtomicInteger(eventExchanges.size)
+    private val outcome = Sinks.one<Void>()
+
+    /**
+     * Runs the filter chain of every event exchange concurrently, since each joined chain waits for
+     * the others to arrive.
+     */
+    fun handle(eventHandler: EventHandler): Mono<Void> =
+        Flux
+            .fromIterable(eventExchanges.indices)
+            .flatMap({ index ->
+                val participant = Participant(index)
+                Mono
+                    .defer { eventHandler.handle(eventExchanges[index].setBatchInvocation(participant)) }
+                    .doFinally { participant.leave() }
+            }, eventExchanges.size)
+            .then()
+
+    private fun arrive() {
+        if (pending.decrementAndGet() != 0) {
+            return
+        }
+        val batch = joined.filterNotNull()
+        if (batch.isEmpty()) {
+            outcome.tryEmitEmpty()
+            return
+        }
+        function.invokeBatchWithRetry(batch)
+            .subscribe(null, { outcome.tryEmitError(it) }, { outcome.tryEmitEmpty() })
+    }
+
+    inner class Participant(private val index: Int) {
+        private val arrived = AtomicBoolean()
+
+        /**
+         * Adds this exchange to the batch and waits for the outcome of the single invocation.
+         */
+        fun join(): Mono<Void> {
+            if (arrived.compareAndSet(false, true)) {
+                joined[index] = eventExchanges[index]
+                arrive()
+            }
+            return outcome.asMono()
+        }
+
+        /**
+         * Leaves the batch without taking part, unless this exchange already joined.
+         */
+        fun leave() {
+            if (arrived.compareAndSet(false, true)) {
+                arrive()
+            }
+        }
+    }
+}
+
+internal val BatchEventFunction.batchProjection: BatchProjection
+    get() = getAnnotation(BatchProjection::class.java) ?: DEFAULT_BATCH_PROJECTION
+
+/**
+ * Invokes [this] once for [exchanges], retrying the whole window on failure.
+ */
+internal fun BatchEventFunction.invokeBatchWithRetry(exchanges: List<DomainEventExchange<*>>): Mono<Void> {
+    val batchProjection = batchProjection
+    val invocation = Mono.defer { invokeBatch(exchanges) }.then()
+    if (batchProjection.maxRetries <= 0) {
+        return invocation
+    }
+    return invocation.retryWhen(
+        Retry.backoff(
+            batchProjection.maxRetries.toLong(),
+            Duration.ofMillis(batchProjection.minBackoff),
+        )
+    )
+}
+
+/**
+ * A window large enough for every batch function in this set and no slower than the most
+ * latency-sensitive one, or `null` when none of the functions batch.
+ */
+internal fun Iterable<EventFunction>.toExchangeBatchWindow(): ExchangeBatchWindow? {
+    val batchProjections = filterIsInstance<BatchMessageFunction<*, *, *>>()
+        .map {
+            it.getAnnotation(BatchProjection::class.java) ?: DEFAULT_BATCH_PROJECTION
+        }
+    if (batchProjections.isEmpty()) {
+        return null
+    }
+    return ExchangeBatchWindow(
+        maxSize = batchProjections.maxOf { it.maxSize },
+        maxDelay = Duration.ofMillis(batchProjections.minOf { it.maxDelay }),
+    )
+}
+
+private val DEFAULT_BATCH_PROJECTION = BatchProjection()
@@ -47,7 +47,8 @@ open class DomainEventFunctionFilter(
      * Filters the domain event exchange by invoking the registered event function.
      *
      * This method sets the service provider on the exchange, retrieves the event function,
-     * invokes it, and then continues with the next filter in the chain.
+     * invokes it, and then continues with the next filter in the chain. When the exchange takes part
+     * in a batch invocation, it joins the batch and continues with its shared outcome instead.
      *
      * @param exchange The domain event exchange to process
      * @param next The next filter in the chain
@@ -64,8 +65,8 @@ open class DomainEventFunctionFilter(
     ): Mono<Void> {
         exchange.setServiceProvider(serviceProvider)
         val eventFunction = checkNotNull(exchange.getEventFunction())
-        return eventFunction
-            .invoke(exchange)
+        val invocation = exchange.getBatchInvocation()?.join() ?: eventFunction.invoke(exchange)
+        return invocation
             .checkpoint { "Invoke ${eventFunction.qualifiedName} [DomainEventFunctionFilter]" }
             .then(Mono.defer { next.filter(exchange) })
     }
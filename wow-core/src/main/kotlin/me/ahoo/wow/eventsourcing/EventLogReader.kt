@@ -0,0 +1,100 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing
+
+import me.ahoo.wow.api.modeling.NamedAggregate
+import me.ahoo.wow.event.DomainEventStream
+import reactor.core.publisher.Flux
+import java.time.Duration
+
+/**
+ * Reads the event streams of every aggregate of a named aggregate as one ordered, resumable log.
+ *
+ * Unlike per-aggregate loads, the log spans all aggregate ids, so projections can rebuild or catch up with
+ * sequential batch reads instead of scanning ids and loading each aggregate separately.
+ * Each [EventLogRecord] carries an opaque position; passing the position of the last record read as
+ * `fromPosition` resumes the log right after it. Positions are store specific and must not be parsed.
+ *
+ * Streams of the same aggregate are always read in version order. The order across aggregates is the
+ * order in which the store sequences its writes, which for id-ordered stores is the creation order of the
+ * event streams rather than a strict commit order.
+ *
+ * Id-ordered stores page by the event stream id, which the producing node generates before the write commits.
+ * A stream committed late, after a reader has already passed a greater id, would be skipped, so these stores
+ * only read streams created at least a safety lag ago (see [takeSettled]). The log is then complete as long
+ * as every stream commits, clock skew between nodes included, within that lag of its creation time; a stream
+ * that commits later can still be skipped.
+ */
+interface EventLogReader {
+    companion object {
+        /**
+         * Position before the first record of the log.
+         */
+        const val HEAD_POSITION = ""
+
+        /**
+         * Default maximum number of records returned by a single [readAll].
+         */
+        const val DEFAULT_BATCH_SIZE = 100
+
+        /**
+         * Default age an event stream must reach before id-ordered stores return it from [readAll].
+         */
+        val DEFAULT_SAFETY_LAG: Duration = Duration.ofSeconds(5)
+    }
+
+    /**
+     * Reads at most [batchSize] records of the log of [namedAggregate] after [fromPosition].
+     *
+     * @param namedAggregate the named aggregate whose log is read
+     * @param fromPosition the position of the last record already read (default: [HEAD_POSITION])
+     * @param batchSize the maximum number of records to return (default: [DEFAULT_BATCH_SIZE])
+     * @return a Flux of records in log order, empty once the reader has caught up
+     */
+    fun readAll(
+        namedAggregate: NamedAggregate,
+        fromPosition: String = HEAD_POSITION,
+        batchSize: Int = DEFAULT_BATCH_SIZE
+    ): Flux<EventLogRecord> =
+        Flux.error(
+            UnsupportedOperationException(
+                "EventLogReader readAll is not supported. Reader: ${this::class.java.name}"
+            )
+        )
+}
+
+/**
+ * A single event stream read from the event log together with its position in the log.
+ */
+data class EventLogRecord(
+    val position: String,
+    val eventStream: DomainEventStream
+)
+
+/**
+ * Ends an id-ordered log read at the first event stream created less than [safetyLag] ago.
+ *
+ * The cut is evaluated when the read is subscribed, and a stream past it ends the read rather than being
+ * skipped, so the next read resumes before it. [Duration.ZERO] reads up to the newest stream.
+ */
+fun Flux<DomainEventStream>.takeSettled(safetyLag: Duration): Flux<DomainEventStream> {
+    require(!safetyLag.isNegative) { "safetyLag[$safetyLag] must not be negative." }
+    if (safetyLag.isZero) {
+        return this
+    }
+    return Flux.defer {
+        val settledTime = System.currentTimeMillis() - safetyLag.toMillis()
+        takeWhile { it.createTime <= settledTime }
+    }
+}
@@ -27,6 +27,8 @@ import reactor.core.publisher.Mono
 interface EventStore :
     RequestIdExistenceChecker,
     AggregateIdScanner,
+    EventLogReader,
+    EventStreamPruner,
     AutoCloseable {
     /**
      * Closes this event store and releases owned resources.
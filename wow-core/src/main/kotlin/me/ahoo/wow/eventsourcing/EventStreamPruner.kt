@@ -0,0 +1,38 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing
+
+import me.ahoo.wow.api.modeling.AggregateId
+import reactor.core.publisher.Mono
+
+/**
+ * Deletes event streams from the hot event store once they have been moved to an
+ * [me.ahoo.wow.eventsourcing.archive.EventStreamArchive].
+ *
+ * Pruning is only safe for streams already archived, and must keep the initial stream of the aggregate in place:
+ * stores rely on it to reject duplicate aggregate ids and to scan aggregate ids.
+ */
+interface EventStreamPruner {
+    /**
+     * Deletes the event streams of [aggregateId] whose version is in `[headVersion, tailVersion]`.
+     *
+     * @return a Mono emitting the number of deleted event streams
+     */
+    fun prune(aggregateId: AggregateId, headVersion: Int, tailVersion: Int): Mono<Long> =
+        Mono.error(
+            UnsupportedOperationException(
+                "EventStreamPruner prune is not supported. Pruner: ${this::class.java.name}"
+            )
+        )
+}
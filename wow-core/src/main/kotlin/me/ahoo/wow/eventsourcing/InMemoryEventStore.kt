@@ -34,6 +34,11 @@ class InMemoryEventStore : AbstractEventStore() {
      */
     private val events = ConcurrentHashMap<AggregateId, CopyOnWriteArrayList<DomainEventStream>>()
 
+    /**
+     * Event streams of all aggregates in append order, backing [readAll]. Positions are list indexes.
+     */
+    private val log = CopyOnWriteArrayList<DomainEventStream>()
+
     /**
      * Appends an event stream to the in-memory storage.
      * Validates version conflicts and duplicate request IDs.
@@ -66,6 +71,7 @@ class InMemoryEventStore : AbstractEventStore() {
                     )
                 }
                 aggregateStream.add(eventStream)
+                log.add(eventStream)
                 return@compute aggregateStream
             }
         }
@@ -132,6 +138,22 @@ class InMemoryEventStore : AbstractEventStore() {
         }
     }
 
+    /**
+     * Removes the streams from the aggregate only; the [readAll] log keeps them so that positions stay stable.
+     */
+    override fun prune(aggregateId: AggregateId, headVersion: Int, tailVersion: Int): Mono<Long> {
+        return Mono.fromSupplier {
+            var pruned = 0L
+            events.computeIfPresent(aggregateId) { _, aggregateStream ->
+                val before = aggregateStream.size
+                aggregateStream.removeIf { it.version in headVersion..tailVersion }
+                pruned = (before - aggregateStream.size).toLong()
+                aggregateStream
+            }
+            pruned
+        }
+    }
+
     override fun scanAggregateId(
         namedAggregate: NamedAggregate,
         afterId: String,
@@ -147,4 +169,20 @@ class InMemoryEventStore : AbstractEventStore() {
                 it.id
             }.take(limit)
             .toFlux()
+
+    override fun readAll(
+        namedAggregate: NamedAggregate,
+        fromPosition: String,
+        batchSize: Int
+    ): Flux<EventLogRecord> =
+        Flux.defer {
+            val fromIndex = if (fromPosition == EventLogReader.HEAD_POSITION) 0 else fromPosition.toInt() + 1
+            log.asSequence()
+                .withIndex()
+                .drop(fromIndex)
+                .filter { it.value.aggregateId.isSameAggregateName(namedAggregate) }
+                .take(batchSize)
+                .map { EventLogRecord(it.index.toString(), it.value.copy()) }
+                .toFlux()
+        }
 }
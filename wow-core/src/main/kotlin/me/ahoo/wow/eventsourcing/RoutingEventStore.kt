@@ -64,4 +64,14 @@ class RoutingEventStore(
         limit: Int
     ): Flux<AggregateId> =
         registry.get(namedAggregate).scanAggregateId(namedAggregate, afterId, limit)
+
+    override fun readAll(
+        namedAggregate: NamedAggregate,
+        fromPosition: String,
+        batchSize: Int
+    ): Flux<EventLogRecord> =
+        registry.get(namedAggregate).readAll(namedAggregate, fromPosition, batchSize)
+
+    override fun prune(aggregateId: AggregateId, headVersion: Int, tailVersion: Int): Mono<Long> =
+        registry.get(aggregateId.namedAggregate).prune(aggregateId, headVersion, tailVersion)
 }
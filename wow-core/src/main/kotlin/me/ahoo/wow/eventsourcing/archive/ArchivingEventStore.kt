@@ -0,0 +1,143 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing.archive
+
+import me.ahoo.wow.api.Version
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.api.modeling.NamedAggregate
+import me.ahoo.wow.event.DomainEventStream
+import me.ahoo.wow.eventsourcing.EventLogRecord
+import me.ahoo.wow.eventsourcing.EventStore
+import me.ahoo.wow.infra.Decorator
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+
+/**
+ * Event store decorator that transparently loads archived version ranges from an [EventStreamArchive].
+ *
+ * The [EventStreamArchiver] only archives versions between the initial stream and a retained tail, so the hot
+ * store always keeps the first and the latest stream of an aggregate and archived versions show up as a gap in
+ * the hot versions. Version loads fill such gaps from the archive, which keeps the common load after a snapshot
+ * free of any archive round trip. Bounded loads that end before the first hot stream after the gap also
+ * consult the archive, as do event time loads unless the hot store still holds version 2.
+ *
+ * Archived ranges must be complete: a version missing from both the archive and the hot store fails the load
+ * with an [IllegalStateException] instead of replaying the aggregate with a gap.
+ *
+ * [readAll] and [existsRequestId] only see the hot store.
+ */
+class ArchivingEventStore(
+    override val delegate: EventStore,
+    private val archive: EventStreamArchive
+) : EventStore, Decorator<EventStore> {
+
+    override fun append(eventStream: DomainEventStream): Mono<Void> = delegate.append(eventStream)
+
+    override fun load(aggregateId: AggregateId, headVersion: Int, tailVersion: Int): Flux<DomainEventStream> =
+        Flux.defer {
+            var expectedVersion = maxOf(headVersion, Version.INITIAL_VERSION)
+            delegate.load(aggregateId, headVersion, tailVersion)
+                .concatMap { eventStream ->
+                    val archived = if (eventStream.version > expectedVersion) {
+                        loadArchived(aggregateId, expectedVersion, eventStream.version - 1)
+                    } else {
+                        Flux.empty()
+                    }
+                    expectedVersion = eventStream.version + 1
+                    archived.concatWith(Flux.just(eventStream))
+                }.concatWith(
+                    Flux.defer {
+                        if (tailVersion < EventStore.DEFAULT_TAIL_VERSION && expectedVersion <= tailVersion) {
+                            loadArchived(aggregateId, expectedVersion, tailVersion)
+                        } else {
+                            Flux.empty()
+                        }
+                    }
+                )
+        }
+
+    override fun load(aggregateId: AggregateId, headEventTime: Long, tailEventTime: Long): Flux<DomainEventStream> =
+        delegate.load(aggregateId, headEventTime, tailEventTime)
+            .collectList()
+            .flatMapMany { hotStreams ->
+                val initialStreams = hotStreams.takeWhile { it.version == Version.INITIAL_VERSION }
+                val laterStreams = hotStreams.drop(initialStreams.size)
+                val firstLaterVersion = laterStreams.firstOrNull()?.version ?: EventStore.DEFAULT_TAIL_VERSION + 1
+                val archiveHead = Version.INITIAL_VERSION + 1
+                if (firstLaterVersion <= archiveHead) {
+                    return@flatMapMany Flux.fromIterable(hotStreams)
+                }
+                val archived = loadArchived(aggregateId, archiveHead, firstLaterVersion - 1)
+                    .filter { it.createTime in headEventTime..tailEventTime }
+                Flux.fromIterable(initialStreams)
+                    .concatWith(archived)
+                    .concatWith(Flux.fromIterable(laterStreams))
+            }
+
+    /**
+     * Loads the archived versions of [aggregateId] in `[headVersion, tailVersion]`, which must be consecutive from
+     * [headVersion]. The archive may stop short of [tailVersion] only where the hot store takes over or the
+     * aggregate ends, any other missing version fails the load.
+     */
+    private fun loadArchived(aggregateId: AggregateId, headVersion: Int, tailVersion: Int): Flux<DomainEventStream> =
+        Flux.defer {
+            var expectedVersion = headVersion
+            archive.load(aggregateId, headVersion, tailVersion)
+                .handle<DomainEventStream> { eventStream, sink ->
+                    if (eventStream.version == expectedVersion) {
+                        expectedVersion++
+                        sink.next(eventStream)
+                    } else {
+                        sink.error(missingVersions(aggregateId, expectedVersion, eventStream.version - 1))
+                    }
+                }.concatWith(
+                    Flux.defer {
+                        if (expectedVersion > tailVersion) {
+                            return@defer Flux.empty<DomainEventStream>()
+                        }
+                        delegate.load(aggregateId, expectedVersion, EventStore.DEFAULT_TAIL_VERSION)
+                            .next()
+                            .filter { it.version > expectedVersion }
+                            .flatMapMany { hotStream ->
+                                val missing = missingVersions(aggregateId, expectedVersion, hotStream.version - 1)
+                                Flux.error<DomainEventStream>(missing)
+                            }
+                    }
+                )
+        }
+
+    private fun missingVersions(aggregateId: AggregateId, headVersion: Int, tailVersion: Int) =
+        IllegalStateException(
+            "Event streams [$headVersion, $tailVersion] of $aggregateId are neither archived nor in the event store."
+        )
+
+    override fun last(aggregateId: AggregateId): Mono<DomainEventStream> = delegate.last(aggregateId)
+
+    override fun existsRequestId(aggregateId: AggregateId, requestId: String): Mono<Boolean> =
+        delegate.existsRequestId(aggregateId, requestId)
+
+    override fun scanAggregateId(namedAggregate: NamedAggregate, afterId: String, limit: Int): Flux<AggregateId> =
+        delegate.scanAggregateId(namedAggregate, afterId, limit)
+
+    override fun readAll(namedAggregate: NamedAggregate, fromPosition: String, batchSize: Int): Flux<EventLogRecord> =
+        delegate.readAll(namedAggregate, fromPosition, batchSize)
+
+    override fun prune(aggregateId: AggregateId, headVersion: Int, tailVersion: Int): Mono<Long> =
+        delegate.prune(aggregateId, headVersion, tailVersion)
+
+    override fun close() {
+        delegate.close()
+        archive.close()
+    }
+}
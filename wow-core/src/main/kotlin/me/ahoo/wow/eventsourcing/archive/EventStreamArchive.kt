@@ -0,0 +1,55 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing.archive
+
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.event.DomainEventStream
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+
+/**
+ * Cold tier holding event streams moved out of the hot event store by an [EventStreamArchiver].
+ *
+ * Streams are archived in segments of consecutive versions of one aggregate. Archiving a segment again must
+ * replace it, so an archival interrupted between archiving and pruning can simply be repeated.
+ *
+ * @see ArchivingEventStore
+ */
+interface EventStreamArchive : AutoCloseable {
+    /**
+     * Whether every instance sharing the hot event store reads this archive.
+     *
+     * [EventStreamArchiver] only prunes the hot store into a shared archive, otherwise the pruned versions would be
+     * lost to every instance but the one that archived them.
+     */
+    val shared: Boolean
+
+    /**
+     * Archives [eventStreams], consecutive versions of [aggregateId] in ascending order, as one segment.
+     */
+    fun archive(aggregateId: AggregateId, eventStreams: List<DomainEventStream>): Mono<Void>
+
+    /**
+     * Loads the archived event streams of [aggregateId] whose version is in `[headVersion, tailVersion]`,
+     * in version order.
+     */
+    fun load(aggregateId: AggregateId, headVersion: Int, tailVersion: Int): Flux<DomainEventStream>
+
+    /**
+     * The highest archived version of [aggregateId], or `0` if nothing is archived.
+     */
+    fun archivedVersion(aggregateId: AggregateId): Mono<Int>
+
+    override fun close() = Unit
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing.archive
+
+import me.ahoo.wow.event.DomainEventStream
+import me.ahoo.wow.serialization.JsonSerializer
+import me.ahoo.wow.serialization.toObject
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPOutputStream
+
+/**
+ * Encodes archive segments as a gzip compressed JSON array of event streams.
+ *
+ * Old event streams are read rarely and compress well, so a segment trades decoding time for storage.
+ */
+object EventStreamArchiveCodec {
+    fun encode(eventStreams: List<DomainEventStream>): ByteArray {
+        val output = ByteArrayOutputStream()
+        GZIPOutputStream(output).use {
+            JsonSerializer.writeValue(it, eventStreams)
+        }
+        return output.toByteArray()
+    }
+
+    fun decode(segment: ByteArray): List<DomainEventStream> {
+        val segmentNode = GZIPInputStream(ByteArrayInputStream(segment)).use {
+            JsonSerializer.readTree(it)
+        }
+        return segmentNode.map { it.toObject<DomainEventStream>() }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing.archive
+
+import io.github.oshai.kotlinlogging.KotlinLogging
+import me.ahoo.wow.api.Version
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.api.modeling.NamedAggregate
+import me.ahoo.wow.eventsourcing.AggregateIdScanner
+import me.ahoo.wow.eventsourcing.EventStore
+import me.ahoo.wow.eventsourcing.snapshot.SnapshotStore
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Moves event streams that are covered by a snapshot from the hot event store into an [EventStreamArchive].
+ *
+ * For each aggregate, the streams from version 2 up to the snapshot version minus [retainedVersions] are
+ * archived in segments of at most [segmentSize] streams, then pruned from [eventStore]. The initial stream and the
+ * retained tail stay hot, which keeps duplicate aggregate id checks, aggregate id scans and snapshot based loads
+ * on the hot store. Each run continues after [EventStreamArchive.archivedVersion] and archiving precedes pruning,
+ * so an interrupted archival is repaired by running it again.
+ *
+ * The [archive] must be [shared][EventStreamArchive.shared] by every instance reading [eventStore], as pruning
+ * removes the archived versions from the hot store of all of them.
+ *
+ * @param eventStore the event store to archive from, optionally wrapped by an [ArchivingEventStore]
+ * @param retainedVersions the number of versions below the snapshot kept hot, at least 1
+ */
+class EventStreamArchiver(
+    private val eventStore: EventStore,
+    private val snapshotStore: SnapshotStore,
+    private val archive: EventStreamArchive,
+    private val retainedVersions: Int = DEFAULT_RETAINED_VERSIONS,
+    private val segmentSize: Int = DEFAULT_SEGMENT_SIZE,
+    private val scanBatchSize: Int = DEFAULT_SCAN_BATCH_SIZE,
+    private val parallelism: Int = DEFAULT_PARALLELISM
+) {
+    companion object {
+        private val log = KotlinLogging.logger {}
+        const val DEFAULT_RETAINED_VERSIONS = 100
+        const val DEFAULT_SEGMENT_SIZE = 1000
+        const val DEFAULT_SCAN_BATCH_SIZE = 100
+        const val DEFAULT_PARALLELISM = 8
+        private const val ARCHIVE_HEAD_VERSION = Version.INITIAL_VERSION + 1
+    }
+
+    init {
+        require(archive.shared) {
+            "archive [${archive.javaClass.name}] must be shared by every instance before pruning the event store."
+        }
+        require(retainedVersions > 0) { "retainedVersions must be greater than 0." }
+        require(segmentSize > 0) { "segmentSize must be greater than 0." }
+        require(scanBatchSize > 0) { "scanBatchSize must be greater than 0." }
+        require(parallelism > 0) { "parallelism must be greater than 0." }
+    }
+
+    /**
+     * Archives every aggregate of [namedAggregate].
+     */
+    fun archive(namedAggregate: NamedAggregate): Mono<EventStreamArchivalResult> =
+        Mono.defer {
+            val startTime = System.nanoTime()
+            val scannedAggregates = AtomicLong()
+            val archivedAggregates = AtomicLong()
+            val archivedStreams = AtomicLong()
+            scanBatch(namedAggregate, AggregateIdScanner.FIRST_ID)
+                .expand { aggregateIds ->
+                    if (aggregateIds.size < scanBatchSize) {
+                        Mono.empty()
+                    } else {
+                        scanBatch(namedAggregate, aggregateIds.last().id)
+                    }
+                }.concatMap { aggregateIds ->
+                    scannedAggregates.addAndGet(aggregateIds.size.toLong())
+                    Flux.fromIterable(aggregateIds).flatMap({ archiveAggregate(it) }, parallelism)
+                }.doOnNext {
+                    if (it > 0) {
+                        archivedAggregates.incrementAndGet()
+                        archivedStreams.addAndGet(it.toLong())
+                    }
+                }.then(
+                    Mono.fromSupplier {
+                        EventStreamArchivalResult(
+                            namedAggregate = namedAggregate,
+                            scannedAggregates = scannedAggregates.get(),
+                            archivedAggregates = archivedAggregates.get(),
+                            archivedStreams = archivedStreams.get(),
+                            elapsed = Duration.ofNanos(System.nanoTime() - startTime),
+                        )
+                    }
+                ).doOnSuccess {
+                    log.info { "Event stream archival completed: $it." }
+                }
+        }
+
+    private fun scanBatch(namedAggregate: NamedAggregate, afterId: String): Mono<List<AggregateId>> =
+        eventStore.scanAggregateId(namedAggregate, afterId, scanBatchSize).collectList()
+
+    /**
+     * Archives the streams of [aggregateId] covered by its snapshot that are not archived yet, then prunes every
+     * archived version from the hot store.
+     *
+     * @return a Mono emitting the number of newly archived event streams
+     */
+    fun archiveAggregate(aggregateId: AggregateId): Mono<Int> =
+        Mono.zip(snapshotStore.getVersion(aggregateId), archive.archivedVersion(aggregateId))
+            .flatMap {
+                val tailVersion = it.t1 - retainedVersions
+                val headVersion = maxOf(it.t2 + 1, ARCHIVE_HEAD_VERSION)
+                val archiveSegments = if (headVersion > tailVersion) {
+                    Mono.just(ArchivedRange(0, it.t2))
+                } else {
+                    archiveSegments(aggregateId, headVersion, tailVersion, it.t2)
+                }
+                archiveSegments.flatMap { archived ->
+                    if (archived.tailVersion < ARCHIVE_HEAD_VERSION) {
+                        return@flatMap Mono.just(0)
+                    }
+                    // Pruning the whole archived range also repairs runs interrupted before pruning.
+                    eventStore.prune(aggregateId, ARCHIVE_HEAD_VERSION, archived.tailVersion)
+                        .thenReturn(archived.streams)
+                }
+            }
+
+    private fun archiveSegments(
+        aggregateId: AggregateId,
+        headVersion: Int,
+        tailVersion: Int,
+        archivedVersion: Int
+    ): Mono<ArchivedRange> =
+        eventStore.load(aggregateId, headVersion, tailVersion)
+            .buffer(segmentSize)
+            .concatMap { segment ->
+                archive.archive(aggregateId, segment).thenReturn(ArchivedRange(segment.size, segment.last().version))
+            }.reduce(ArchivedRange(0, archivedVersion)) { archived, segment ->
+                ArchivedRange(archived.streams + segment.streams, segment.tailVersion)
+            }
+
+    private data class ArchivedRange(val streams: Int, val tailVersion: Int)
+}
+
+/**
+ * Outcome of an [EventStreamArchiver.archive] run over a named aggregate.
+ */
+data class EventStreamArchivalResult(
+    val namedAggregate: NamedAggregate,
+    val scannedAggregates: Long,
+    val archivedAggregates: Long,
+    val archivedStreams: Long,
+    val elapsed: Duration
+)
@@ -0,0 +1,107 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing.archive
+
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.event.DomainEventStream
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import reactor.core.scheduler.Scheduler
+import reactor.core.scheduler.Schedulers
+import reactor.kotlin.core.publisher.toFlux
+import java.net.URLEncoder
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardCopyOption
+import kotlin.io.path.isDirectory
+import kotlin.io.path.listDirectoryEntries
+import kotlin.io.path.name
+import kotlin.io.path.readBytes
+
+/**
+ * [EventStreamArchive] storing each segment as a local file.
+ *
+ * Segments live under `{directory}/{contextName}/{aggregateName}/{tenantId}/{aggregateId}` and are named after
+ * their version range, so a load only decodes the segments overlapping the requested versions.
+ * Segments are written to a temporary file first and moved into place atomically, and are identified by their
+ * head version when rewritten.
+ *
+ * @param shared whether [directory] is on storage mounted by every instance, such as a network file system.
+ * A local directory is not [shared], so the hot event store is never pruned into it.
+ */
+class FileSegmentEventStreamArchive(
+    private val directory: Path,
+    private val scheduler: Scheduler = Schedulers.boundedElastic(),
+    override val shared: Boolean = false
+) : EventStreamArchive {
+    companion object {
+        private const val SEGMENT_SUFFIX = ".json.gz"
+        private const val VERSION_DELIMITER = "-"
+    }
+
+    private fun AggregateId.toSegmentDirectory(): Path =
+        directory.resolve(contextName.encode())
+            .resolve(aggregateName.encode())
+            .resolve(tenantId.encode())
+            .resolve(id.encode())
+
+    private fun String.encode(): String = URLEncoder.encode(this, Charsets.UTF_8)
+
+    override fun archive(aggregateId: AggregateId, eventStreams: List<DomainEventStream>): Mono<Void> =
+        Mono.fromRunnable<Void> {
+            if (eventStreams.isEmpty()) {
+                return@fromRunnable
+            }
+            val segmentDirectory = Files.createDirectories(aggregateId.toSegmentDirectory())
+            val segmentHead = "${eventStreams.first().version}$VERSION_DELIMITER"
+            val segmentFile = segmentDirectory.resolve(
+                "$segmentHead${eventStreams.last().version}$SEGMENT_SUFFIX"
+            )
+            val tempFile = Files.createTempFile(segmentDirectory, segmentHead, ".tmp")
+            Files.write(tempFile, EventStreamArchiveCodec.encode(eventStreams))
+            Files.move(tempFile, segmentFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+            // A rewrite of a segment may extend its tail, drop the segment it replaces.
+            segmentDirectory.listDirectoryEntries("$segmentHead*$SEGMENT_SUFFIX")
+                .filter { it != segmentFile }
+                .forEach { Files.deleteIfExists(it) }
+        }.subscribeOn(scheduler)
+
+    override fun load(aggregateId: AggregateId, headVersion: Int, tailVersion: Int): Flux<DomainEventStream> =
+        Flux.defer {
+            aggregateId.toSegmentDirectory().listSegments()
+                .filter { it.headVersion <= tailVersion && it.tailVersion >= headVersion }
+                .sortedBy { it.headVersion }
+                .asSequence()
+                .flatMap { EventStreamArchiveCodec.decode(it.path.readBytes()) }
+                .filter { it.version in headVersion..tailVersion }
+                .toFlux()
+        }.subscribeOn(scheduler)
+
+    override fun archivedVersion(aggregateId: AggregateId): Mono<Int> =
+        Mono.fromSupplier {
+            aggregateId.toSegmentDirectory().listSegments().maxOfOrNull { it.tailVersion } ?: 0
+        }.subscribeOn(scheduler)
+
+    private fun Path.listSegments(): List<Segment> {
+        if (!isDirectory()) {
+            return emptyList()
+        }
+        return listDirectoryEntries("*$SEGMENT_SUFFIX").map {
+            val versions = it.name.removeSuffix(SEGMENT_SUFFIX).split(VERSION_DELIMITER)
+            Segment(headVersion = versions[0].toInt(), tailVersion = versions[1].toInt(), path = it)
+        }
+    }
+
+    private class Segment(val headVersion: Int, val tailVersion: Int, val path: Path)
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing.archive
+
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.event.DomainEventStream
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import reactor.kotlin.core.publisher.toFlux
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentSkipListMap
+
+/**
+ * In-memory [EventStreamArchive] for testing and development purposes.
+ *
+ * Counts as [shared] by default, as it is meant to back an in-memory event store of the same process.
+ */
+class InMemoryEventStreamArchive(override val shared: Boolean = true) : EventStreamArchive {
+    private val segments = ConcurrentHashMap<AggregateId, ConcurrentSkipListMap<Int, Segment>>()
+
+    override fun archive(aggregateId: AggregateId, eventStreams: List<DomainEventStream>): Mono<Void> =
+        Mono.fromRunnable {
+            if (eventStreams.isEmpty()) {
+                return@fromRunnable
+            }
+            segments.computeIfAbsent(aggregateId) { ConcurrentSkipListMap() }[eventStreams.first().version] =
+                Segment(eventStreams.last().version, EventStreamArchiveCodec.encode(eventStreams))
+        }
+
+    override fun load(aggregateId: AggregateId, headVersion: Int, tailVersion: Int): Flux<DomainEventStream> =
+        Flux.defer {
+            val aggregateSegments = segments[aggregateId] ?: return@defer Flux.empty()
+            val fromVersion = aggregateSegments.floorKey(headVersion) ?: headVersion
+            aggregateSegments.subMap(fromVersion, true, tailVersion, true).values
+                .asSequence()
+                .flatMap { EventStreamArchiveCodec.decode(it.data) }
+                .filter { it.version in headVersion..tailVersion }
+                .toFlux()
+        }
+
+    override fun archivedVersion(aggregateId: AggregateId): Mono<Int> =
+        Mono.fromSupplier {
+            segments[aggregateId]?.lastEntry()?.value?.tailVersion ?: 0
+        }
+
+    private class Segment(val tailVersion: Int, val data: ByteArray)
+}
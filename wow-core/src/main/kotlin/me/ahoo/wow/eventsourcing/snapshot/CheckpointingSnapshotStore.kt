@@ -0,0 +1,48 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing.snapshot
+
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.infra.Decorator
+import reactor.core.publisher.Mono
+
+/**
+ * Snapshot store that also archives every saved snapshot as a historical checkpoint.
+ *
+ * [loadAtOrBefore] prefers the latest snapshot of [delegate] and falls back to the nearest archived
+ * checkpoint once the latest snapshot is newer than the requested version.
+ */
+class CheckpointingSnapshotStore(
+    override val delegate: SnapshotStore,
+    private val archive: SnapshotCheckpointArchive
+) : SnapshotStore,
+    Decorator<SnapshotStore> {
+    override val name: String
+        get() = delegate.name
+
+    override fun <S : Any> load(aggregateId: AggregateId): Mono<Snapshot<S>> = delegate.load(aggregateId)
+
+    override fun <S : Any> loadAtOrBefore(aggregateId: AggregateId, maxVersion: Int): Mono<Snapshot<S>> =
+        delegate.loadAtOrBefore<S>(aggregateId, maxVersion)
+            .switchIfEmpty(archive.loadAtOrBefore(aggregateId, maxVersion))
+
+    override fun getVersion(aggregateId: AggregateId): Mono<Int> = delegate.getVersion(aggregateId)
+
+    override fun <S : Any> save(snapshot: Snapshot<S>): Mono<Void> =
+        delegate.save(snapshot).then(archive.archive(snapshot))
+
+    override fun close() {
+        delegate.close()
+    }
+}
@@ -36,6 +36,9 @@ class RoutingSnapshotStore(
     override fun <S : Any> load(aggregateId: AggregateId): Mono<Snapshot<S>> =
         registry.get(aggregateId.namedAggregate).load(aggregateId)
 
+    override fun <S : Any> loadAtOrBefore(aggregateId: AggregateId, maxVersion: Int): Mono<Snapshot<S>> =
+        registry.get(aggregateId.namedAggregate).loadAtOrBefore(aggregateId, maxVersion)
+
     override fun getVersion(aggregateId: AggregateId): Mono<Int> =
         registry.get(aggregateId.namedAggregate).getVersion(aggregateId)
 
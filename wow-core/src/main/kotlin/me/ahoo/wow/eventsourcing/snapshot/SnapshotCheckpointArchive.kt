@@ -0,0 +1,81 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing.snapshot
+
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.serialization.toJsonNode
+import me.ahoo.wow.serialization.toObject
+import reactor.core.publisher.Mono
+import tools.jackson.databind.node.ObjectNode
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentSkipListMap
+
+/**
+ * Archive of historical snapshot checkpoints, keyed by aggregate and version.
+ *
+ * A [SnapshotStore] only keeps the latest snapshot of each aggregate. The archive keeps older
+ * checkpoints so that point-in-time readers can restore state close to any requested version.
+ *
+ * @see CheckpointingSnapshotStore
+ */
+interface SnapshotCheckpointArchive {
+    /**
+     * Archives [snapshot] as a checkpoint at its version.
+     */
+    fun <S : Any> archive(snapshot: Snapshot<S>): Mono<Void>
+
+    /**
+     * Loads the archived checkpoint with the highest version less than or equal to [maxVersion].
+     */
+    fun <S : Any> loadAtOrBefore(aggregateId: AggregateId, maxVersion: Int): Mono<Snapshot<S>>
+}
+
+/**
+ * In-memory [SnapshotCheckpointArchive] retaining at most [maxCheckpoints] checkpoints per aggregate.
+ *
+ * When the limit is exceeded the oldest checkpoint is evicted, since recent windows are traced far
+ * more often than the beginning of a long history.
+ */
+class InMemorySnapshotCheckpointArchive(
+    private val maxCheckpoints: Int = DEFAULT_MAX_CHECKPOINTS
+) : SnapshotCheckpointArchive {
+    init {
+        require(maxCheckpoints > 0) {
+            "maxCheckpoints must be greater than 0."
+        }
+    }
+
+    private val checkpoints = ConcurrentHashMap<AggregateId, ConcurrentSkipListMap<Int, ObjectNode>>()
+
+    override fun <S : Any> archive(snapshot: Snapshot<S>): Mono<Void> =
+        Mono.fromRunnable {
+            val aggregateCheckpoints = checkpoints.computeIfAbsent(snapshot.aggregateId) {
+                ConcurrentSkipListMap()
+            }
+            aggregateCheckpoints[snapshot.version] = snapshot.toJsonNode()
+            while (aggregateCheckpoints.size > maxCheckpoints) {
+                aggregateCheckpoints.pollFirstEntry()
+            }
+        }
+
+    override fun <S : Any> loadAtOrBefore(aggregateId: AggregateId, maxVersion: Int): Mono<Snapshot<S>> =
+        Mono.defer {
+            val checkpoint = checkpoints[aggregateId]?.floorEntry(maxVersion)?.value
+            Mono.justOrEmpty(checkpoint?.toObject<Snapshot<S>>())
+        }
+
+    companion object {
+        const val DEFAULT_MAX_CHECKPOINTS = 64
+    }
+}
@@ -41,6 +41,24 @@ interface SnapshotStore :
      */
     fun <S : Any> load(aggregateId: AggregateId): Mono<Snapshot<S>>
 
+    /**
+     * Loads the most recent snapshot whose version is less than or equal to [maxVersion].
+     *
+     * This is the versioned snapshot-history lookup used by point-in-time readers such as
+     * aggregate tracing: they restore the returned checkpoint and replay only the events after it.
+     * The default implementation only consults the latest snapshot, so it is empty once the latest
+     * snapshot is newer than [maxVersion]. Stores that retain historical checkpoints should override it.
+     *
+     * @param S the type of the state
+     * @param aggregateId the ID of the aggregate
+     * @param maxVersion the highest acceptable snapshot version
+     * @return a Mono emitting the nearest snapshot at or below [maxVersion], or empty if none exists
+     */
+    fun <S : Any> loadAtOrBefore(aggregateId: AggregateId, maxVersion: Int): Mono<Snapshot<S>> =
+        load<S>(aggregateId).filter {
+            it.version <= maxVersion
+        }
+
     /**
      * Gets the version of the latest snapshot for the specified aggregate.
      * Returns UNINITIALIZED_VERSION if no snapshot exists.
@@ -0,0 +1,257 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing.snapshot
+
+import io.github.oshai.kotlinlogging.KotlinLogging
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.infra.lifecycle.GracefullyStoppable
+import me.ahoo.wow.messaging.dispatcher.ExchangeBatchWindow
+import me.ahoo.wow.serialization.toJsonNode
+import me.ahoo.wow.serialization.toObject
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import reactor.core.publisher.Sinks
+import reactor.core.scheduler.Scheduler
+import reactor.core.scheduler.Schedulers
+import tools.jackson.databind.node.ObjectNode
+import java.time.Duration
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Default window during which snapshot saves of one aggregate are coalesced.
+ */
+val DEFAULT_SNAPSHOT_COALESCING_WINDOW: Duration = Duration.ofMillis(50)
+
+/**
+ * Default maximum number of state events the snapshot dispatcher gathers per group while coalescing.
+ */
+const val DEFAULT_SNAPSHOT_COALESCING_BATCH_SIZE = 256
+
+/**
+ * Write-behind buffer that coalesces snapshot saves per aggregate and persists only the highest version.
+ *
+ * The first save of an aggregate opens a window of [window]; later saves of the same aggregate within
+ * the window replace the buffered snapshot when their version is not lower. When the window closes the
+ * buffered snapshot is written to [delegate]. Snapshots are detached into a JSON tree on submission, so
+ * later mutations of the source state cannot leak into the buffered write.
+ *
+ * A save completes with the outcome of the delegate write that persisted it, so the SNAPSHOT wait stage is only
+ * signalled once the snapshot is stored, and a failed flush fails every save coalesced into it. A caller that
+ * awaits each save one at a time would therefore wait a whole window per save and never coalesce; the snapshot
+ * dispatcher gathers the state events of a group in [exchangeBatchWindow] and saves them concurrently instead.
+ * Writes of one aggregate reach [delegate] in flush order.
+ *
+ * Saves go through [snapshotStore], whose loads observe buffered snapshots and snapshots being flushed.
+ * [stopGracefully] flushes every buffered snapshot; saves submitted after that are written through directly.
+ * The [delegate] is not owned and is not closed.
+ */
+class SnapshotWriteCoalescer(
+    private val delegate: SnapshotStore,
+    val window: Duration = DEFAULT_SNAPSHOT_COALESCING_WINDOW,
+    private val scheduler: Scheduler = Schedulers.parallel(),
+) : GracefullyStoppable {
+    companion object {
+        private val log = KotlinLogging.logger {}
+    }
+
+    init {
+        require(!window.isNegative && !window.isZero) {
+            "window must be positive."
+        }
+    }
+
+    private val pending = ConcurrentHashMap<AggregateId, PendingSnapshotWrite>()
+    private val inFlight = ConcurrentHashMap<AggregateId, PendingSnapshotWrite>()
+    private val stopped = AtomicBoolean()
+    private val windowNanos = window.toNanos()
+
+    /**
+     * A [SnapshotStore] view whose saves are coalesced by this buffer.
+     */
+    val snapshotStore: SnapshotStore = CoalescingSnapshotStore()
+
+    /**
+     * The window in which the snapshot dispatcher gathers the state events of one group before saving them
+     * concurrently, so that several versions of an aggregate join one buffered write.
+     */
+    val exchangeBatchWindow: ExchangeBatchWindow = ExchangeBatchWindow(
+        maxSize = DEFAULT_SNAPSHOT_COALESCING_BATCH_SIZE,
+        maxDelay = window,
+    )
+
+    /**
+     * The number of aggregates with a buffered snapshot that has not been flushed yet.
+     */
+    val pendingSize: Int
+        get() = pending.size
+
+    fun <S : Any> save(snapshot: Snapshot<S>): Mono<Void> {
+        return Mono.defer {
+            if (stopped.get()) {
+                return@defer delegate.save(snapshot)
+            }
+            val node: ObjectNode = snapshot.toJsonNode()
+            val buffered = BufferedSnapshot(node.requiredSnapshotVersion(), node)
+            var opened = false
+            val write = pending.compute(snapshot.aggregateId) { _, current ->
+                if (current == null) {
+                    opened = true
+                    PendingSnapshotWrite(snapshot.aggregateId, buffered)
+                } else {
+                    current.offer(buffered)
+                    current
+                }
+            }!!
+            if (opened) {
+                scheduler.schedule({ flush(write).subscribe() }, windowNanos, TimeUnit.NANOSECONDS)
+            }
+            write.completion()
+        }
+    }
+
+    private fun flush(write: PendingSnapshotWrite): Mono<Void> {
+        var previous: PendingSnapshotWrite? = null
+        var flushing = false
+        pending.computeIfPresent(write.aggregateId) { _, current ->
+            if (current !== write) {
+                return@computeIfPresent current
+            }
+            flushing = true
+            previous = inFlight.put(write.aggregateId, write)
+            null
+        }
+        if (!flushing) {
+            return Mono.empty()
+        }
+        val buffered = write.buffered
+        log.debug {
+            "[${write.aggregateId}] Flush coalesced snapshot version[${buffered.version}] " +
+                "of [${write.coalesced}] saves."
+        }
+        val previousFlush = previous?.completion()?.onErrorResume { Mono.empty() } ?: Mono.empty()
+        return previousFlush
+            .then(Mono.defer { delegate.save(buffered.toSnapshot<Any>()) })
+            .doOnSuccess {
+                inFlight.remove(write.aggregateId, write)
+                write.complete()
+            }.onErrorResume {
+                log.warn(it) {
+                    "[${write.aggregateId}] Failed to flush coalesced snapshot version[${buffered.version}]."
+                }
+                inFlight.remove(write.aggregateId, write)
+                write.fail(it)
+                Mono.empty()
+            }
+    }
+
+    private fun bufferedAtOrBefore(aggregateId: AggregateId, maxVersion: Int = Int.MAX_VALUE): BufferedSnapshot? {
+        val buffered = pending[aggregateId]?.buffered?.takeIf { it.version <= maxVersion }
+        val flushing = inFlight[aggregateId]?.buffered?.takeIf { it.version <= maxVersion }
+        if (buffered == null || flushing != null && flushing.version > buffered.version) {
+            return flushing
+        }
+        return buffered
+    }
+
+    override fun stopGracefully(): Mono<Void> {
+        return Mono.defer {
+            stopped.set(true)
+            val flushing = Flux.fromIterable(pending.values.toList())
+                .flatMap { flush(it) }
+            val draining = Flux.fromIterable(inFlight.values.toList())
+                .flatMap { write -> write.completion().onErrorResume { Mono.empty() } }
+            Flux.merge(flushing, draining).then()
+        }
+    }
+
+    private inner class CoalescingSnapshotStore : SnapshotStore {
+        override val name: String
+            get() = delegate.name
+
+        override fun <S : Any> load(aggregateId: AggregateId): Mono<Snapshot<S>> =
+            Mono.defer {
+                val buffered = bufferedAtOrBefore(aggregateId)?.toSnapshot<S>()
+                    ?: return@defer delegate.load(aggregateId)
+                delegate.load<S>(aggregateId)
+                    .filter { it.version > buffered.version }
+                    .defaultIfEmpty(buffered)
+            }
+
+        override fun <S : Any> loadAtOrBefore(aggregateId: AggregateId, maxVersion: Int): Mono<Snapshot<S>> =
+            Mono.defer {
+                val buffered = bufferedAtOrBefore(aggregateId, maxVersion)?.toSnapshot<S>()
+                    ?: return@defer delegate.loadAtOrBefore(aggregateId, maxVersion)
+                delegate.loadAtOrBefore<S>(aggregateId, maxVersion)
+                    .filter { it.version > buffered.version }
+                    .defaultIfEmpty(buffered)
+            }
+
+        override fun getVersion(aggregateId: AggregateId): Mono<Int> =
+            Mono.defer {
+                val bufferedVersion = bufferedAtOrBefore(aggregateId)?.version
+                    ?: return@defer delegate.getVersion(aggregateId)
+                delegate.getVersion(aggregateId).map { maxOf(it, bufferedVersion) }
+            }
+
+        override fun <S : Any> save(snapshot: Snapshot<S>): Mono<Void> = this@SnapshotWriteCoalescer.save(snapshot)
+    }
+}
+
+/**
+ * One buffered snapshot; its version and JSON tree are swapped together as a single reference.
+ */
+private class BufferedSnapshot(
+    val version: Int,
+    private val node: ObjectNode,
+) {
+    fun <S : Any> toSnapshot(): Snapshot<S> = node.toObject<Snapshot<S>>()
+}
+
+/**
+ * Buffered snapshot of one aggregate. [offer] is only called while the owning map entry is locked,
+ * and [buffered] is replaced in one volatile write, so readers never observe a version paired with the
+ * tree of another version.
+ */
+private class PendingSnapshotWrite(
+    val aggregateId: AggregateId,
+    @Volatile var buffered: BufferedSnapshot,
+) {
+    private val sink = Sinks.empty<Void>()
+
+    @Volatile
+    var coalesced: Int = 1
+        private set
+
+    fun offer(snapshot: BufferedSnapshot) {
+        coalesced++
+        if (snapshot.version >= buffered.version) {
+            buffered = snapshot
+        }
+    }
+
+    /**
+     * Completes once the delegate has stored this write, or fails with the error of its flush.
+     */
+    fun completion(): Mono<Void> = sink.asMono()
+
+    fun complete() {
+        sink.tryEmitEmpty()
+    }
+
+    fun fail(error: Throwable) {
+        sink.tryEmitError(error)
+    }
+}
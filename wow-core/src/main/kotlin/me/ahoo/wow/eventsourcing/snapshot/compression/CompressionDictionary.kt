@@ -0,0 +1,100 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing.snapshot.compression
+
+import java.util.zip.Adler32
+
+/**
+ * Preset dictionary primed into the deflate window before a state is compressed.
+ *
+ * Snapshot states of one aggregate share their field names and many of their values, so priming the window with
+ * that shared content lets even a small state reference it instead of spelling it out.
+ * The [id] is the Adler-32 checksum of [content], which is also what a deflate stream records for its dictionary.
+ */
+class CompressionDictionary(val content: ByteArray) {
+    val id: String = Adler32().apply { update(content) }.value.toString(16)
+
+    init {
+        require(content.isNotEmpty()) { "content must not be empty." }
+        require(content.size <= MAX_SIZE) { "content must not exceed $MAX_SIZE bytes." }
+    }
+
+    companion object {
+        /**
+         * Deflate only looks back 32 KiB, so any content beyond this size could never be referenced.
+         */
+        const val MAX_SIZE = 32 * 1024
+    }
+}
+
+/**
+ * Trains a [CompressionDictionary] from sample serialized states.
+ *
+ * Each sample is split into JSON tokens at structural characters, so a token is a property name or a scalar value
+ * together with its delimiter, e.g. `"status":` or `"PAID",`.
+ * Tokens are scored by the number of samples containing them times their length, and tokens found in fewer than
+ * [minSamples] samples are dropped because they would not recur in other states.
+ * The best tokens are packed up to [maxSize], with the highest scoring ones last so they sit closest to the data.
+ */
+object CompressionDictionaryTrainer {
+    private const val MIN_TOKEN_LENGTH = 3
+    private val DELIMITERS = setOf(',', ':', '{', '}', '[', ']')
+
+    fun train(
+        samples: List<ByteArray>,
+        maxSize: Int = CompressionDictionary.MAX_SIZE,
+        minSamples: Int = 2
+    ): CompressionDictionary {
+        require(samples.isNotEmpty()) { "samples must not be empty." }
+        require(maxSize in 1..CompressionDictionary.MAX_SIZE) {
+            "maxSize must be in [1, ${CompressionDictionary.MAX_SIZE}]."
+        }
+        val sampleFrequency = HashMap<String, Int>()
+        for (sample in samples) {
+            tokenize(sample.decodeToString()).forEach {
+                sampleFrequency.merge(it, 1, Int::plus)
+            }
+        }
+        val threshold = minSamples.coerceAtMost(samples.size)
+        val selected = ArrayList<String>()
+        var size = 0
+        sampleFrequency.entries
+            .filter { it.value >= threshold }
+            .sortedByDescending { it.value.toLong() * it.key.length }
+            .forEach {
+                val tokenSize = it.key.encodeToByteArray().size
+                if (size + tokenSize <= maxSize) {
+                    selected.add(it.key)
+                    size += tokenSize
+                }
+            }
+        require(selected.isNotEmpty()) { "samples share no content to train a dictionary from." }
+        val content = selected.asReversed().joinToString(separator = "").encodeToByteArray()
+        return CompressionDictionary(content)
+    }
+
+    private fun tokenize(sample: String): Set<String> {
+        val tokens = HashSet<String>()
+        var start = 0
+        for (index in sample.indices) {
+            if (sample[index] in DELIMITERS) {
+                if (index + 1 - start >= MIN_TOKEN_LENGTH) {
+                    tokens.add(sample.substring(start, index + 1))
+                }
+                start = index + 1
+            }
+        }
+        return tokens
+    }
+}
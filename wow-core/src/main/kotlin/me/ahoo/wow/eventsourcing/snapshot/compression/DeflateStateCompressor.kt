@@ -0,0 +1,118 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing.snapshot.compression
+
+import java.io.ByteArrayOutputStream
+import java.util.zip.Deflater
+import java.util.zip.Inflater
+
+/**
+ * A compressed snapshot state as persisted in place of the plain `state` field.
+ *
+ * @param algorithm the compression algorithm, currently always [DeflateStateCompressor.ALGORITHM].
+ * @param dictionary the [CompressionDictionary.id] the state was compressed with, or `null` if none was used.
+ * @param size the size in bytes of the uncompressed state.
+ * @param data the compressed state.
+ */
+class CompressedState(
+    val algorithm: String,
+    val dictionary: String?,
+    val size: Int,
+    val data: ByteArray
+) {
+    companion object {
+        const val ALGORITHM = "algorithm"
+        const val DICTIONARY = "dictionary"
+        const val SIZE = "size"
+        const val DATA = "data"
+    }
+}
+
+/**
+ * Deflate compressor for serialized snapshot states with an optional preset [dictionary].
+ *
+ * `Deflater` and `Inflater` hold native memory, so one instance of each is reused per thread.
+ */
+class DeflateStateCompressor(
+    val level: Int = Deflater.DEFAULT_COMPRESSION,
+    val dictionary: CompressionDictionary? = null
+) {
+    companion object {
+        const val ALGORITHM = "deflate"
+        private const val BUFFER_SIZE = 8 * 1024
+    }
+
+    private val deflaters = ThreadLocal.withInitial { Deflater(level) }
+    private val inflaters = ThreadLocal.withInitial { Inflater() }
+
+    init {
+        require(level in Deflater.DEFAULT_COMPRESSION..Deflater.BEST_COMPRESSION) {
+            "level must be in [${Deflater.DEFAULT_COMPRESSION}, ${Deflater.BEST_COMPRESSION}]."
+        }
+    }
+
+    fun compress(state: ByteArray): CompressedState {
+        val deflater = deflaters.get()
+        deflater.reset()
+        dictionary?.let { deflater.setDictionary(it.content) }
+        deflater.setInput(state)
+        deflater.finish()
+        val output = ByteArrayOutputStream(state.size / 4 + 64)
+        val buffer = ByteArray(BUFFER_SIZE)
+        while (!deflater.finished()) {
+            val count = deflater.deflate(buffer)
+            output.write(buffer, 0, count)
+        }
+        return CompressedState(
+            algorithm = ALGORITHM,
+            dictionary = dictionary?.id,
+            size = state.size,
+            data = output.toByteArray()
+        )
+    }
+
+    /**
+     * Decompresses [compressed], resolving the dictionary it was written with through [dictionaries].
+     */
+    fun decompress(
+        compressed: CompressedState,
+        dictionaries: (String) -> CompressionDictionary? = { null }
+    ): ByteArray {
+        require(compressed.algorithm == ALGORITHM) {
+            "Unsupported compression algorithm: ${compressed.algorithm}."
+        }
+        val inflater = inflaters.get()
+        inflater.reset()
+        inflater.setInput(compressed.data)
+        val state = ByteArray(compressed.size)
+        var offset = 0
+        while (offset < state.size) {
+            val count = inflater.inflate(state, offset, state.size - offset)
+            offset += count
+            if (count > 0) {
+                continue
+            }
+            check(inflater.needsDictionary()) {
+                "Compressed state inflated to $offset bytes, expected ${compressed.size}."
+            }
+            val dictionaryId = compressed.dictionary ?: inflater.adler.toString(16)
+            val required = if (dictionary?.id == dictionaryId) dictionary else dictionaries(dictionaryId)
+            checkNotNull(required) {
+                "Compression dictionary [$dictionaryId] is not registered."
+            }
+            inflater.setDictionary(required.content)
+        }
+        return state
+    }
+}
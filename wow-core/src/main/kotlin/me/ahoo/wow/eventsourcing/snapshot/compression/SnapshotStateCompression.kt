@@ -0,0 +1,104 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing.snapshot.compression
+
+import me.ahoo.wow.api.modeling.NamedAggregate
+import me.ahoo.wow.modeling.MaterializedNamedAggregate
+import me.ahoo.wow.modeling.materialize
+import me.ahoo.wow.serialization.JsonSerializer
+import me.ahoo.wow.serialization.state.StateAggregateRecords
+import tools.jackson.databind.node.ObjectNode
+import java.util.Base64
+
+/**
+ * Opt-in, per aggregate compression of the snapshot `state` field.
+ *
+ * Only the state is compressed: the aggregate id, tenant, owner, version, tags and the other snapshot fields are
+ * stored as before, so `SnapshotQueryService` can still filter, sort and page on them.
+ * The state of an opted-in aggregate is always compressed, whatever its size, so its snapshots never mix plain and
+ * compressed states. Snapshot queries of an opted-in aggregate therefore reject conditions, sorts and projections
+ * on `state.*` fields, which is the tradeoff an aggregate opts into.
+ *
+ * Stores only look for compressed states when [enabled], i.e. for any instance other than [NONE].
+ * Decompression does not depend on the per aggregate opt-in, so snapshots stay readable after an aggregate is
+ * opted out again as long as the dictionary it used is still configured, e.g. via [retiredDictionaries].
+ *
+ * @param compressors the compressor of each opted-in aggregate.
+ * @param retiredDictionaries dictionaries no longer used for compression but still needed to read older snapshots.
+ */
+class SnapshotStateCompression(
+    compressors: Map<out NamedAggregate, DeflateStateCompressor> = emptyMap(),
+    retiredDictionaries: List<CompressionDictionary> = emptyList()
+) {
+    companion object {
+        const val COMPRESSED_STATE = "compressedState"
+        val NONE = SnapshotStateCompression()
+    }
+
+    private val compressors: Map<MaterializedNamedAggregate, DeflateStateCompressor> =
+        compressors.mapKeys { it.key.materialize() }
+    private val dictionaries: Map<String, CompressionDictionary> =
+        (retiredDictionaries + this.compressors.values.mapNotNull { it.dictionary }).associateBy { it.id }
+    private val decompressor = DeflateStateCompressor()
+
+    val enabled: Boolean
+        get() = this !== NONE
+
+    fun isEnabled(namedAggregate: NamedAggregate): Boolean = compressors.containsKey(namedAggregate.materialize())
+
+    /**
+     * Returns the compressed [state], or `null` if the aggregate has not opted in and the state is stored as is.
+     */
+    fun compress(namedAggregate: NamedAggregate, state: ByteArray): CompressedState? =
+        compressors[namedAggregate.materialize()]?.compress(state)
+
+    fun decompress(compressed: CompressedState): ByteArray =
+        decompressor.decompress(compressed) { dictionaries[it] }
+}
+
+/**
+ * Replaces the `state` field of this serialized snapshot with its compressed form if [compression] applies to
+ * [namedAggregate]. The compressed data is Base64 encoded, for stores that persist snapshots as JSON text.
+ */
+fun ObjectNode.compressState(namedAggregate: NamedAggregate, compression: SnapshotStateCompression): ObjectNode {
+    val stateNode = get(StateAggregateRecords.STATE) ?: return this
+    if (!compression.isEnabled(namedAggregate)) {
+        return this
+    }
+    val compressed = compression.compress(namedAggregate, JsonSerializer.writeValueAsBytes(stateNode)) ?: return this
+    remove(StateAggregateRecords.STATE)
+    putObject(SnapshotStateCompression.COMPRESSED_STATE).apply {
+        put(CompressedState.ALGORITHM, compressed.algorithm)
+        compressed.dictionary?.let { put(CompressedState.DICTIONARY, it) }
+        put(CompressedState.SIZE, compressed.size)
+        put(CompressedState.DATA, Base64.getEncoder().encodeToString(compressed.data))
+    }
+    return this
+}
+
+/**
+ * Restores the `state` field of a serialized snapshot written by [compressState]; plain snapshots are returned as is.
+ */
+fun ObjectNode.inflateState(compression: SnapshotStateCompression): ObjectNode {
+    val compressedNode = get(SnapshotStateCompression.COMPRESSED_STATE) ?: return this
+    val compressed = CompressedState(
+        algorithm = compressedNode.required(CompressedState.ALGORITHM).asString(),
+        dictionary = compressedNode.get(CompressedState.DICTIONARY)?.asString(),
+        size = compressedNode.required(CompressedState.SIZE).asInt(),
+        data = Base64.getDecoder().decode(compressedNode.required(CompressedState.DATA).asString())
+    )
+    remove(SnapshotStateCompression.COMPRESSED_STATE)
+    set(StateAggregateRecords.STATE, JsonSerializer.readTree(compression.decompress(compressed)))
+    return this
+}
@@ -17,6 +17,7 @@ import me.ahoo.wow.api.messaging.processor.ProcessorInfo
 import me.ahoo.wow.api.modeling.NamedAggregate
 import me.ahoo.wow.eventsourcing.state.StateEventExchange
 import me.ahoo.wow.messaging.dispatcher.AggregateDispatcher
+import me.ahoo.wow.messaging.dispatcher.ExchangeBatchWindow
 import me.ahoo.wow.messaging.dispatcher.MessageParallelism
 import me.ahoo.wow.messaging.dispatcher.MessageParallelism.toGroupKey
 import me.ahoo.wow.metrics.WowMetrics
@@ -40,6 +41,8 @@ import reactor.core.scheduler.Scheduler
  * [start]
  * @param processingQuiescence logical transport gate closed by [quiesce]
  * @param metrics instance-scoped metrics recorder for dispatcher operations
+ * @param exchangeBatchWindow window in which the state events of a group are gathered and handled
+ * concurrently; `null` handles them one at a time
  */
 class AggregateSnapshotDispatcher(
     override val name: String =
@@ -53,6 +56,7 @@ class AggregateSnapshotDispatcher(
     processingAdmission: () -> Unit = {},
     processingQuiescence: () -> Unit = {},
     metrics: WowMetrics = WowMetrics.NONE,
+    override val exchangeBatchWindow: ExchangeBatchWindow? = null,
 ) : AggregateDispatcher<StateEventExchange<*>>(
     messageReadiness = messageReadiness,
     processingAdmission = processingAdmission,
@@ -83,6 +87,18 @@ class AggregateSnapshotDispatcher(
         return snapshotHandler.handle(exchange)
     }
 
+    /**
+     * Handles the gathered exchanges concurrently, so that saves which complete only once they are stored, such
+     * as those of [me.ahoo.wow.eventsourcing.snapshot.SnapshotWriteCoalescer], are buffered together.
+     *
+     * @param exchanges the exchanges gathered by [exchangeBatchWindow]
+     * @return a Mono that completes when every exchange is handled
+     */
+    override fun handleExchanges(exchanges: List<StateEventExchange<*>>): Mono<Void> =
+        Flux.fromIterable(exchanges)
+            .flatMap({ handleExchange(it) }, exchanges.size.coerceAtLeast(1))
+            .then()
+
     /**
      * Computes the group key for parallel processing based on the message.
      *
@@ -23,6 +23,7 @@ import me.ahoo.wow.eventsourcing.state.StateEventExchange
 import me.ahoo.wow.messaging.MessageReceiver
 import me.ahoo.wow.messaging.MessageSubscription
 import me.ahoo.wow.messaging.compensation.CompensationMatcher.match
+import me.ahoo.wow.messaging.dispatcher.ExchangeBatchWindow
 import me.ahoo.wow.messaging.dispatcher.MainDispatcher
 import me.ahoo.wow.messaging.dispatcher.MessageDispatcher
 import me.ahoo.wow.messaging.dispatcher.MessageParallelism
@@ -54,6 +55,11 @@ class SnapshotDispatcher(
     private val schedulerSupplier: AggregateSchedulerSupplier =
         DefaultAggregateSchedulerSupplier(SNAPSHOT_PROCESSOR_NAME),
     metrics: WowMetrics = WowMetrics.NONE,
+    /**
+     * Gathers the state events of a group and saves them concurrently; set to
+     * [me.ahoo.wow.eventsourcing.snapshot.SnapshotWriteCoalescer.exchangeBatchWindow] when saves are coalesced.
+     */
+    private val exchangeBatchWindow: ExchangeBatchWindow? = null,
 ) : MainDispatcher<StateEventExchange<*>>(metrics) {
     override fun receiveMessage(subscription: MessageSubscription): Flux<StateEventExchange<*>> {
         return filterMessages(stateEventBus.receive(subscription))
@@ -82,6 +88,7 @@ class SnapshotDispatcher(
             snapshotHandler = snapshotHandler,
             scheduler = schedulerSupplier.getOrInitialize(namedAggregate),
             metrics = metrics,
+            exchangeBatchWindow = exchangeBatchWindow,
         )
     }
 
@@ -18,6 +18,7 @@ import me.ahoo.wow.api.abac.EMPTY_ABAC_TAGS
 import me.ahoo.wow.command.CommandOperator.operator
 import me.ahoo.wow.event.DomainEventStream
 import me.ahoo.wow.infra.Decorator
+import me.ahoo.wow.messaging.HeaderOverlayable
 import me.ahoo.wow.modeling.state.ReadOnlyStateAggregate
 
 /**
@@ -120,6 +121,7 @@ data class StateEventData<S : Any>(
     override val tags: AbacTags = EMPTY_ABAC_TAGS,
     override val deleted: Boolean = false
 ) : StateEvent<S>,
+    HeaderOverlayable<StateEvent<S>>,
     Decorator<DomainEventStream>,
     DomainEventStream by delegate {
     /**
@@ -128,4 +130,9 @@ data class StateEventData<S : Any>(
      * @return a copy of the state event data
      */
     override fun copy(): StateEvent<S> = copy(delegate = delegate.copy())
+
+    override fun overlayCopy(): StateEvent<S> {
+        val overlayDelegate = (delegate as? HeaderOverlayable<*>)?.overlayCopy() as DomainEventStream?
+        return copy(delegate = overlayDelegate ?: delegate.copy())
+    }
 }
@@ -0,0 +1,227 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.infra.batch
+
+import reactor.core.Disposable
+import reactor.core.publisher.Flux
+import reactor.core.publisher.FluxSink
+import reactor.core.scheduler.Scheduler
+import java.time.Duration
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+
+internal enum class BatchWindowAdjustment(
+    val metricValue: String,
+) {
+    INCREASE("increase"),
+    DECREASE("decrease"),
+}
+
+/** A buffered batch together with the reason its window closed. */
+internal class BatchWindow<T : Any>(
+    val items: List<T>,
+    val type: BatchWindowType,
+)
+
+/**
+ * AIMD target-latency controller for one batch lane.
+ *
+ * [onWindowClosed] runs on the lane's window thread and feeds the arrival
+ * rate; [onBatchWritten] runs serially after each write and adjusts the size.
+ * Both sides only publish through volatile fields, so readers may observe a
+ * decision one batch late, which the controller tolerates by design.
+ */
+internal class AdaptiveBatchController(
+    private val options: AdaptiveBatchOptions,
+    private val maxSize: Int,
+    maxDelay: Duration,
+) {
+    private val minDelayNanos = options.minDelay.toNanos()
+    private val maxDelayNanos = maxDelay.toNanos()
+    private val targetLatencyNanos = options.targetLatency.toNanos()
+
+    @Volatile
+    var size: Int = options.minSize
+        private set
+
+    /** Exponentially weighted arrival rate, in items per nanosecond. */
+    @Volatile
+    private var arrivalRate: Double = 0.0
+
+    val delayNanos: Long
+        get() {
+            val rate = arrivalRate
+            if (rate <= 0.0) {
+                return minDelayNanos
+            }
+            val fillNanos = size / rate
+            return fillNanos.coerceIn(minDelayNanos.toDouble(), maxDelayNanos.toDouble()).toLong()
+        }
+
+    fun onWindowClosed(items: Int, elapsedNanos: Long) {
+        val observed = items.toDouble() / elapsedNanos.coerceAtLeast(MIN_ELAPSED_NANOS)
+        val previous = arrivalRate
+        arrivalRate = if (previous <= 0.0) {
+            observed
+        } else {
+            previous + RATE_SMOOTHING * (observed - previous)
+        }
+    }
+
+    fun onBatchWritten(
+        windowType: BatchWindowType,
+        latencyNanos: Long,
+    ): BatchWindowAdjustment? {
+        val current = size
+        val next = when {
+            latencyNanos > targetLatencyNanos ->
+                (current * options.decreaseFactor).toInt().coerceAtLeast(options.minSize)
+
+            windowType == BatchWindowType.FULL ->
+                (current + options.sizeIncrement).coerceAtMost(maxSize)
+
+            else -> current
+        }
+        if (next == current) {
+            return null
+        }
+        size = next
+        return if (next > current) BatchWindowAdjustment.INCREASE else BatchWindowAdjustment.DECREASE
+    }
+
+    private companion object {
+        const val RATE_SMOOTHING = 0.2
+        const val MIN_ELAPSED_NANOS = 1_000L
+    }
+}
+
+/**
+ * Buffers [this] into windows bounded by the controller's current size and
+ * delay.
+ *
+ * Window timers run on a worker of [scheduler] that is not the one delivering
+ * the source, so source signals and timer flushes are serialized by a lock on
+ * the buffer.
+ */
+internal fun <T : Any> Flux<T>.adaptiveBufferTimeout(
+    controller: AdaptiveBatchController,
+    scheduler: Scheduler,
+    nanoTime: () -> Long = System::nanoTime,
+): Flux<BatchWindow<T>> {
+    val source = this
+    return Flux.create({ sink ->
+        val window = AdaptiveWindowBuffer(controller, scheduler, sink, nanoTime)
+        val subscription = source.subscribe(window::add, window::error, window::complete)
+        sink.onDispose {
+            subscription.dispose()
+            window.dispose()
+        }
+    }, FluxSink.OverflowStrategy.BUFFER)
+}
+
+private class AdaptiveWindowBuffer<T : Any>(
+    private val controller: AdaptiveBatchController,
+    private val scheduler: Scheduler,
+    private val sink: FluxSink<BatchWindow<T>>,
+    private val nanoTime: () -> Long,
+) : Disposable {
+    private val lock = Any()
+
+    // Guarded by lock.
+    private var buffer = ArrayList<T>()
+    private var limit = 0
+    private var openedAt = 0L
+    private var generation = 0L
+    private var timer: Disposable? = null
+
+    @Volatile
+    private var disposed = false
+
+    fun add(item: T) {
+        synchronized(lock) {
+            if (buffer.isEmpty() && !open()) {
+                return
+            }
+            buffer.add(item)
+            if (buffer.size >= limit) {
+                flush(BatchWindowType.FULL)
+            }
+        }
+    }
+
+    fun complete() {
+        synchronized(lock) {
+            flush(BatchWindowType.PARTIAL)
+            sink.complete()
+        }
+    }
+
+    fun error(error: Throwable) {
+        synchronized(lock) {
+            cancelTimer()
+            sink.error(error)
+        }
+    }
+
+    override fun dispose() {
+        synchronized(lock) {
+            disposed = true
+            cancelTimer()
+        }
+    }
+
+    private fun onTimeout(expectedGeneration: Long) {
+        synchronized(lock) {
+            if (!disposed && generation == expectedGeneration) {
+                flush(BatchWindowType.PARTIAL)
+            }
+        }
+    }
+
+    override fun isDisposed(): Boolean = disposed
+
+    private fun open(): Boolean {
+        limit = controller.size
+        openedAt = nanoTime()
+        val expectedGeneration = ++generation
+        timer = try {
+            scheduler.schedule(
+                { onTimeout(expectedGeneration) },
+                controller.delayNanos,
+                TimeUnit.NANOSECONDS,
+            )
+        } catch (error: RejectedExecutionException) {
+            sink.error(error)
+            return false
+        }
+        return true
+    }
+
+    private fun flush(windowType: BatchWindowType) {
+        cancelTimer()
+        if (buffer.isEmpty()) {
+            return
+        }
+        val items = buffer
+        buffer = ArrayList(limit)
+        controller.onWindowClosed(items.size, nanoTime() - openedAt)
+        sink.next(BatchWindow(items, windowType))
+    }
+
+    private fun cancelTimer() {
+        generation++
+        timer?.dispose()
+        timer = null
+    }
+}
@@ -37,6 +37,9 @@ internal class BatchLane<T : Any>(
     onComplete: () -> Unit,
 ) {
     private val maxSize = options.maxSize
+    private val controller = options.adaptive?.let {
+        AdaptiveBatchController(it, options.maxSize, options.maxDelay)
+    }?.also { metrics?.adaptiveWindow(lane, it) }
     private val requests = Sinks.many()
         .unicast()
         .onBackpressureBuffer<BatchRequest<T>>()
@@ -45,7 +48,14 @@ internal class BatchLane<T : Any>(
         // non-fair bufferTimeout can otherwise strand the final item when a
         // concurrent timeout observes the timer index before the buffer update.
         .publishOn(scheduler)
-        .bufferTimeout(options.maxSize, options.maxDelay, scheduler)
+        .let { source ->
+            if (controller == null) {
+                source.bufferTimeout(options.maxSize, options.maxDelay, scheduler)
+                    .map { BatchWindow(it, windowTypeOf(it.size)) }
+            } else {
+                source.adaptiveBufferTimeout(controller, scheduler)
+            }
+        }
         .onBackpressureBuffer(options.maxPendingItems)
         .concatMap(::writeBatch)
         .cancelOn(scheduler)
@@ -64,7 +74,15 @@ internal class BatchLane<T : Any>(
         processor.dispose()
     }
 
-    private fun writeBatch(batch: List<BatchRequest<T>>): Mono<Void> {
+    private fun windowTypeOf(bufferedItems: Int): BatchWindowType =
+        if (bufferedItems == maxSize) {
+            BatchWindowType.FULL
+        } else {
+            BatchWindowType.PARTIAL
+        }
+
+    private fun writeBatch(window: BatchWindow<BatchRequest<T>>): Mono<Void> {
+        val batch = window.items
         val claimedBatch = batch.filter { it.claim(lane) }
         if (claimedBatch.isEmpty()) {
             return Mono.empty()
@@ -73,13 +91,9 @@ internal class BatchLane<T : Any>(
             lane = lane,
             bufferedItems = batch.size,
             writtenItems = claimedBatch.size,
-            windowType = if (batch.size == maxSize) {
-                BatchWindowType.FULL
-            } else {
-                BatchWindowType.PARTIAL
-            },
+            windowType = window.type,
         )
-        return Mono.defer {
+        val write = Mono.defer {
             writer.write(claimedBatch.map { it.value })
         }.switchIfEmpty(
             Mono.error(
@@ -97,6 +111,14 @@ internal class BatchLane<T : Any>(
                 failedItems = claimedBatch.size,
             )
         }
+        val adaptive = controller ?: return write
+        return Mono.defer {
+            val startedAt = System.nanoTime()
+            write.doOnSuccess {
+                adaptive.onBatchWritten(window.type, System.nanoTime() - startedAt)
+                    ?.let { adjustment -> metrics?.windowAdjusted(lane, adjustment) }
+            }
+        }
     }
 
     private fun completeBatch(
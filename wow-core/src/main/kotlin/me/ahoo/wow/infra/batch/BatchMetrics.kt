@@ -14,8 +14,10 @@
 package me.ahoo.wow.infra.batch
 
 import io.github.oshai.kotlinlogging.KotlinLogging
+import io.micrometer.core.instrument.Gauge
 import io.micrometer.core.instrument.MeterRegistry
 import io.micrometer.core.instrument.Tags
+import io.micrometer.core.instrument.binder.BaseUnits
 import me.ahoo.wow.metrics.WowMetrics
 import reactor.core.Exceptions
 import java.util.concurrent.TimeUnit
@@ -108,6 +110,39 @@ internal class BatchMetrics(
         }
     }
 
+    /** Publishes the current adaptive window of [lane] as gauges. */
+    fun adaptiveWindow(
+        lane: Int,
+        controller: AdaptiveBatchController,
+    ) {
+        val registry = registry ?: return
+        val tags = coordinatorTags.and(LANE_TAG, lane.toString())
+        recordSafely {
+            Gauge.builder(WINDOW_SIZE, controller) { it.size.toDouble() }
+                .tags(tags)
+                .register(registry)
+            Gauge.builder(WINDOW_DELAY, controller) { it.delayNanos.toDouble() }
+                .tags(tags)
+                .baseUnit(BaseUnits.NANOSECONDS)
+                .register(registry)
+        }
+    }
+
+    fun windowAdjusted(
+        lane: Int,
+        adjustment: BatchWindowAdjustment,
+    ) {
+        val registry = registry ?: return
+        recordSafely {
+            registry.counter(
+                WINDOW_ADJUSTED,
+                coordinatorTags
+                    .and(LANE_TAG, lane.toString())
+                    .and(DIRECTION_TAG, adjustment.metricValue),
+            ).increment()
+        }
+    }
+
     fun markCloseStarted() {
         if (isEnabled) {
             closeStartedAt.compareAndSet(NOT_STARTED, nanoTime())
@@ -187,6 +222,9 @@ internal class BatchMetrics(
         const val BATCH_WRITE_ITEMS = "wow.batch.write.items"
         const val COORDINATOR_FAILED = "wow.batch.coordinator.failed"
         const val CLOSE = "wow.batch.close"
+        const val WINDOW_SIZE = "wow.batch.window.size"
+        const val WINDOW_DELAY = "wow.batch.window.delay"
+        const val WINDOW_ADJUSTED = "wow.batch.window.adjusted"
 
         const val COORDINATOR_TAG = "coordinator"
         const val LANE_TAG = "lane"
@@ -194,6 +232,7 @@ internal class BatchMetrics(
         const val WINDOW_TAG = "window"
         const val OUTCOME_TAG = "outcome"
         const val ITEM_KIND_TAG = "kind"
+        const val DIRECTION_TAG = "direction"
 
         const val SUCCESS_VALUE = "success"
         const val FAILED_VALUE = "failed"
@@ -14,6 +14,7 @@
 package me.ahoo.wow.infra.batch
 
 import java.time.Duration
+import java.time.temporal.ChronoUnit
 
 /**
  * Storage-independent limits for [BatchCoordinator] and [KeyedBatchCoordinator].
@@ -34,6 +35,12 @@ data class BatchOptions(
      * this keeps the internal Reactor queue bounded.
      */
     val maxPendingItems: Int,
+    /**
+     * Opt-in adaptive window. When set, [maxSize] and [maxDelay] become the
+     * upper bounds of a window that each lane tunes from observed write
+     * latency and arrival rate.
+     */
+    val adaptive: AdaptiveBatchOptions? = null,
 ) {
     init {
         require(maxSize > 1) {
@@ -45,5 +52,54 @@ data class BatchOptions(
         require(maxPendingItems >= maxSize) {
             "maxPendingItems must be greater than or equal to maxSize."
         }
+        adaptive?.let {
+            require(it.minSize <= maxSize) {
+                "adaptive.minSize must be less than or equal to maxSize."
+            }
+            require(it.minDelay <= maxDelay) {
+                "adaptive.minDelay must be less than or equal to maxDelay."
+            }
+        }
+    }
+}
+
+/**
+ * Target-latency controller settings for an adaptive batch window.
+ *
+ * Each lane starts at [minSize] and [minDelay]. A write that finishes within
+ * [targetLatency] after a full window grows the size by [sizeIncrement]; a
+ * write that exceeds it shrinks the size by [decreaseFactor]. The delay
+ * follows the time the observed arrival rate needs to fill the current size.
+ */
+data class AdaptiveBatchOptions(
+    val targetLatency: Duration,
+    val minSize: Int = DEFAULT_MIN_SIZE,
+    val minDelay: Duration = DEFAULT_MIN_DELAY,
+    val sizeIncrement: Int = DEFAULT_SIZE_INCREMENT,
+    val decreaseFactor: Double = DEFAULT_DECREASE_FACTOR,
+) {
+    init {
+        require(!targetLatency.isNegative && !targetLatency.isZero) {
+            "targetLatency must be positive."
+        }
+        require(minSize > 0) {
+            "minSize must be greater than zero."
+        }
+        require(!minDelay.isNegative && !minDelay.isZero) {
+            "minDelay must be positive."
+        }
+        require(sizeIncrement > 0) {
+            "sizeIncrement must be greater than zero."
+        }
+        require(decreaseFactor > 0.0 && decreaseFactor < 1.0) {
+            "decreaseFactor must be in (0, 1)."
+        }
+    }
+
+    companion object {
+        const val DEFAULT_MIN_SIZE: Int = 1
+        const val DEFAULT_SIZE_INCREMENT: Int = 8
+        const val DEFAULT_DECREASE_FACTOR: Double = 0.5
+        val DEFAULT_MIN_DELAY: Duration = Duration.of(100, ChronoUnit.MICROS)
     }
 }
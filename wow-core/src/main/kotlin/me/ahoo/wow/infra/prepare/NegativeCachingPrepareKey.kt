@@ -0,0 +1,146 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.infra.prepare
+
+import me.ahoo.wow.infra.Decorator
+import reactor.core.publisher.Mono
+import java.time.Duration
+import java.util.concurrent.ConcurrentHashMap
+
+val DEFAULT_PREPARE_NEGATIVE_CACHE_TTL: Duration = Duration.ofSeconds(5)
+const val DEFAULT_PREPARE_NEGATIVE_CACHE_MAX_ENTRIES = 10_000
+
+/**
+ * [PrepareKey] decorator that answers `false` locally for keys known to be taken.
+ *
+ * A key is remembered as taken for at most [ttl] once a preparation on this instance either
+ * succeeds or finds it already prepared, so repeated attempts at the same key never reach the
+ * store. Rolling a key back on this instance forgets it at once; a rollback on another instance
+ * does not, so a released key may be reported taken until its entry expires. Keep [ttl] short
+ * where keys are commonly released and reused.
+ *
+ * @param delegate the prepare key that performs the actual preparations.
+ * @param ttl how long a key is remembered as taken.
+ * @param maxEntries upper bound on remembered keys; further keys are not remembered while it is reached.
+ * @param clock the nanosecond clock used to expire entries.
+ */
+class NegativeCachingPrepareKey<V : Any>(
+    override val delegate: PrepareKey<V>,
+    private val ttl: Duration = DEFAULT_PREPARE_NEGATIVE_CACHE_TTL,
+    private val maxEntries: Int = DEFAULT_PREPARE_NEGATIVE_CACHE_MAX_ENTRIES,
+    private val clock: () -> Long = System::nanoTime,
+) : PrepareKey<V>,
+    Decorator<PrepareKey<V>> {
+    init {
+        require(ttl > Duration.ZERO) { "ttl must be greater than 0." }
+        require(maxEntries > 0) { "maxEntries must be greater than 0." }
+    }
+
+    private val ttlNanos = ttl.toNanos()
+    private val takenUntil = ConcurrentHashMap<String, Long>()
+
+    override val name: String
+        get() = delegate.name
+
+    /**
+     * Returns whether [key] is remembered as taken.
+     */
+    fun isKnownTaken(key: String): Boolean {
+        val until = takenUntil[key] ?: return false
+        if (until - clock() > 0) {
+            return true
+        }
+        takenUntil.remove(key, until)
+        return false
+    }
+
+    private fun remember(key: String) {
+        if (takenUntil.size >= maxEntries) {
+            evictExpired()
+            if (takenUntil.size >= maxEntries) {
+                return
+            }
+        }
+        takenUntil[key] = clock() + ttlNanos
+    }
+
+    private fun evictExpired() {
+        val now = clock()
+        takenUntil.entries.removeIf { it.value - now <= 0 }
+    }
+
+    private fun forget(key: String) {
+        takenUntil.remove(key)
+    }
+
+    override fun prepare(key: String, value: PreparedValue<V>): Mono<Boolean> =
+        Mono.defer {
+            if (isKnownTaken(key)) {
+                return@defer Mono.just(false)
+            }
+            delegate.prepare(key, value).doOnNext { remember(key) }
+        }
+
+    override fun prepareAll(values: Map<String, PreparedValue<V>>): Mono<Boolean> =
+        Mono.defer {
+            if (values.keys.any { isKnownTaken(it) }) {
+                return@defer Mono.just(false)
+            }
+            // A failed batch does not tell which key was taken, so only a successful one is remembered.
+            delegate.prepareAll(values).doOnNext { prepared ->
+                if (prepared) {
+                    values.keys.forEach { remember(it) }
+                }
+            }
+        }
+
+    override fun getValue(key: String): Mono<PreparedValue<V>> = delegate.getValue(key)
+
+    override fun rollback(key: String): Mono<Boolean> =
+        delegate.rollback(key).doOnNext { rolledBack ->
+            if (rolledBack) {
+                forget(key)
+            }
+        }
+
+    override fun rollback(key: String, value: V): Mono<Boolean> =
+        delegate.rollback(key, value).doOnNext { rolledBack ->
+            if (rolledBack) {
+                forget(key)
+            }
+        }
+
+    override fun reprepare(key: String, oldValue: V, newValue: PreparedValue<V>): Mono<Boolean> =
+        delegate.reprepare(key, oldValue, newValue)
+
+    override fun reprepare(key: String, value: PreparedValue<V>): Mono<Boolean> =
+        delegate.reprepare(key, value)
+}
+
+/**
+ * [PrepareKeyFactory] decorator that wraps every created prepare key in a [NegativeCachingPrepareKey].
+ */
+class NegativeCachingPrepareKeyFactory(
+    override val delegate: PrepareKeyFactory,
+    private val ttl: Duration = DEFAULT_PREPARE_NEGATIVE_CACHE_TTL,
+    private val maxEntries: Int = DEFAULT_PREPARE_NEGATIVE_CACHE_MAX_ENTRIES,
+) : PrepareKeyFactory,
+    Decorator<PrepareKeyFactory> {
+    override fun <V : Any> create(name: String, valueClass: Class<V>): PrepareKey<V> =
+        NegativeCachingPrepareKey(
+            delegate = delegate.create(name, valueClass),
+            ttl = ttl,
+            maxEntries = maxEntries,
+        )
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.infra.prepare
+
+import me.ahoo.wow.infra.Decorator
+import me.ahoo.wow.infra.prepare.PreparedValue.Companion.toForever
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import java.lang.reflect.Proxy
+
+/**
+ * A key to prepare with [prepareKey], as part of a preparation that spans several prepare keys.
+ *
+ * ```kotlin
+ * listOf(
+ *     usernamePrepare.entry(register.username, userId),
+ *     emailPrepare.entry(register.email, userId),
+ *     phonePrepare.entry(register.phone, userId),
+ * ).usingPrepareAll { prepared -> ... }
+ * ```
+ *
+ * @param V The type of value associated with the key
+ * @see prepareAll
+ */
+data class PrepareEntry<V : Any>(
+    val prepareKey: PrepareKey<V>,
+    val key: String,
+    val value: PreparedValue<V>
+) {
+    fun prepare(): Mono<Boolean> = prepareKey.prepare(key, value)
+
+    fun rollback(): Mono<Boolean> = prepareKey.rollback(key, value.value)
+}
+
+fun <V : Any> PrepareKey<V>.entry(key: String, value: V): PrepareEntry<V> = entry(key, value.toForever())
+
+fun <V : Any> PrepareKey<V>.entry(key: String, value: PreparedValue<V>): PrepareEntry<V> =
+    PrepareEntry(this, key, value)
+
+/**
+ * A [PrepareKey] whose store can check and write the keys of several prepare keys in one request.
+ */
+interface MultiPrepareKey {
+    /**
+     * Returns `true` when every entry of [entries] can be prepared by [prepareEntries] in one request.
+     */
+    fun canPrepareEntries(entries: List<PrepareEntry<*>>): Boolean
+
+    /**
+     * Prepares every entry of [entries] atomically.
+     *
+     * @return A Mono emitting true if every key was prepared, false if any key was already prepared
+     */
+    fun prepareEntries(entries: List<PrepareEntry<*>>): Mono<Boolean>
+}
+
+/**
+ * Prepares the keys of several prepare keys, all or nothing.
+ *
+ * When the store prepare key of the first entry, behind any proxy or decorator, is a [MultiPrepareKey]
+ * able to prepare every entry, they are prepared in one request, bypassing those decorators. Otherwise
+ * they are prepared one at a time in list order and, when a key is already prepared or a preparation
+ * fails, the keys already prepared are rolled back in reverse order.
+ *
+ * @return A Mono emitting true if every key was prepared, false if any key was already prepared
+ */
+fun List<PrepareEntry<*>>.prepareAll(): Mono<Boolean> {
+    if (isEmpty()) {
+        return Mono.just(true)
+    }
+    val storeEntries = map { it.toStoreEntry() }
+    val multiPrepareKey = storeEntries.first().prepareKey as? MultiPrepareKey
+    if (multiPrepareKey != null && multiPrepareKey.canPrepareEntries(storeEntries)) {
+        return multiPrepareKey.prepareEntries(storeEntries)
+    }
+    return prepareInSequence()
+}
+
+/**
+ * Unwraps proxies and decorators, such as [NegativeCachingPrepareKey], down to the prepare key of the store.
+ */
+@Suppress("UNCHECKED_CAST")
+private fun <V : Any> PrepareEntry<V>.toStoreEntry(): PrepareEntry<V> {
+    var storePrepareKey: PrepareKey<*> = prepareKey
+    while (true) {
+        storePrepareKey = when {
+            Proxy.isProxyClass(storePrepareKey.javaClass) ->
+                (Proxy.getInvocationHandler(storePrepareKey) as? Decorator<*>)?.delegate as? PrepareKey<*>
+            storePrepareKey is Decorator<*> -> storePrepareKey.delegate as? PrepareKey<*>
+            else -> null
+        } ?: break
+    }
+    if (storePrepareKey === prepareKey) {
+        return this
+    }
+    return copy(prepareKey = storePrepareKey as PrepareKey<V>)
+}
+
+/**
+ * Like [PrepareKey.usingPrepareAll], for keys of several prepare keys prepared through [prepareAll].
+ */
+fun <R : Any> List<PrepareEntry<*>>.usingPrepareAll(then: (Boolean) -> Mono<R>): Mono<R> {
+    return prepareAll()
+        .flatMap { prepared ->
+            Mono.defer { then(prepared) }.onErrorResume {
+                val errorMono = Mono.error<R>(it)
+                if (!prepared) {
+                    return@onErrorResume errorMono
+                }
+                Flux.fromIterable(this)
+                    .concatMap { entry -> entry.rollback() }
+                    .then(errorMono)
+            }
+        }
+}
+
+internal fun List<PrepareEntry<*>>.prepareInSequence(): Mono<Boolean> =
+    Mono.defer {
+        val prepared = ArrayList<PrepareEntry<*>>(size)
+        val rollbackPrepared = Flux.fromIterable(prepared.asReversed())
+            .concatMap { it.rollback() }
+            .then()
+        Flux.fromIterable(this)
+            .concatMap { entry ->
+                entry.prepare().doOnNext {
+                    if (it) {
+                        prepared.add(entry)
+                    }
+                }
+            }
+            .takeUntil { !it }
+            .all { it }
+            .flatMap { allPrepared ->
+                if (allPrepared) {
+                    Mono.just(true)
+                } else {
+                    rollbackPrepared.thenReturn(false)
+                }
+            }
+            .onErrorResume {
+                rollbackPrepared.then(Mono.error(it))
+            }
+    }
@@ -15,6 +15,7 @@ package me.ahoo.wow.infra.prepare
 
 import me.ahoo.wow.api.naming.Named
 import me.ahoo.wow.infra.prepare.PreparedValue.Companion.toForever
+import reactor.core.publisher.Flux
 import reactor.core.publisher.Mono
 
 /**
@@ -26,6 +27,7 @@ import reactor.core.publisher.Mono
  *
  * Key features:
  * - Atomic key preparation and rollback
+ * - All-or-nothing preparation of several keys
  * - TTL (Time-To-Live) support for temporary reservations
  * - Reprepare operations for key changes
  * - Transaction-like semantics with automatic rollback on failure
@@ -362,4 +364,50 @@ interface PrepareKey<V : Any> : Named {
                 }
             }
     }
+
+    /**
+     * Prepares several keys with values that may have a time-to-live, all or nothing.
+     *
+     * Either every key is prepared, or none is left prepared. The default implementation prepares
+     * the keys one at a time in iteration order and, when a key is already prepared or a preparation
+     * fails, rolls back the keys it already prepared in reverse order. Implementations backed by a
+     * store that can check and write several keys in one request override it to do so atomically.
+     *
+     * To prepare keys of different prepare keys together, such as a username, an email and a phone,
+     * use [List.prepareAll] on [PrepareEntry] instead.
+     *
+     * @param values The prepared values with optional TTL, by key
+     * @return A Mono emitting true if every key was prepared, false if any key was already prepared
+     */
+    fun prepareAll(values: Map<String, PreparedValue<V>>): Mono<Boolean> =
+        values.map { entry(it.key, it.value) }.prepareInSequence()
+
+    /**
+     * Executes an operation within a prepare context covering several keys.
+     *
+     * Like [usingPrepare], but prepares every key of [values] through [prepareAll] and rolls all of
+     * them back if the operation fails.
+     *
+     * @param R The return type of the operation
+     * @param values The prepared values with optional TTL, by key
+     * @param then A function that receives the preparation result and returns a Mono with the operation
+     * @return A Mono with the operation result, with automatic rollback on failure
+     */
+    fun <R : Any> usingPrepareAll(
+        values: Map<String, PreparedValue<V>>,
+        then: (Boolean) -> Mono<R>
+    ): Mono<R> {
+        return prepareAll(values)
+            .flatMap { prepared ->
+                Mono.defer { then(prepared) }.onErrorResume {
+                    val errorMono = Mono.error<R>(it)
+                    if (!prepared) {
+                        return@onErrorResume errorMono
+                    }
+                    Flux.fromIterable(values.entries)
+                        .concatMap { entry -> rollback(entry.key, entry.value.value) }
+                        .then(errorMono)
+                }
+            }
+    }
 }
@@ -145,8 +145,9 @@ class DefaultHeader(
 
     override fun equals(other: Any?): Boolean {
         if (this === other) return true
-        if (other !is DefaultHeader) return false
-        return delegate == other.delegate
+        if (other is DefaultHeader) return delegate == other.delegate
+        if (other !is Header) return false
+        return delegate == other
     }
 
     override fun hashCode(): Int = delegate.hashCode()
@@ -24,6 +24,8 @@ import me.ahoo.wow.messaging.handler.MessageExchange
 import reactor.core.Exceptions
 import reactor.core.publisher.Flux
 import reactor.core.publisher.Mono
+import reactor.util.context.Context
+import reactor.util.context.ContextView
 
 /**
  * Header key used to indicate local-first message routing.
@@ -87,8 +89,44 @@ fun <M> M.shouldLocalFirst(): Boolean
  */
 fun <M> M.isLocalHandled(): Boolean where M : Message<*, *>, M : NamedAggregate = isLocalFirst() && isLocal()
 
+private const val SKIP_LOCAL_HANDLED_KEY = "wow.local_first.skip_local_handled"
+
+/**
+ * Marks the receive pipeline as owned by a [LocalFirstMessageBus].
+ *
+ * Distributed buses that carry [LOCAL_FIRST_HEADER] as a transport header may then acknowledge
+ * and drop locally handled records before decoding their body.
+ */
+fun Context.writeSkipLocalHandled(): Context = put(SKIP_LOCAL_HANDLED_KEY, true)
+
+/**
+ * Whether the receive pipeline may drop locally handled records at the transport level.
+ *
+ * @see writeSkipLocalHandled
+ */
+fun ContextView.isSkipLocalHandled(): Boolean = getOrDefault(SKIP_LOCAL_HANDLED_KEY, false) == true
+
 private val log = KotlinLogging.logger {}
 
+/**
+ * The message that [routingCopy] copies from: a frozen deep copy for [HeaderOverlayable] messages,
+ * so that every routing copy can share it, or the message itself otherwise.
+ */
+@Suppress("UNCHECKED_CAST")
+private fun <M> M.routingSnapshot(): M where M : Message<*, *>, M : Copyable<*> {
+    if (this !is HeaderOverlayable<*>) {
+        return this
+    }
+    return (copy() as M).also { it.withReadOnly() }
+}
+
+/**
+ * A fresh message identity with a writable header for one routing target.
+ */
+@Suppress("UNCHECKED_CAST")
+private fun <M> M.routingCopy(): M where M : Message<*, *>, M : Copyable<*> =
+    if (this is HeaderOverlayable<*> && isReadOnly) overlayCopy() as M else copy() as M
+
 /**
  * A message bus that prioritizes local message handling before distributed routing.
  *
@@ -146,6 +184,9 @@ interface LocalFirstMessageBus<M, E : MessageExchange<*, M>> :
      * handled only after every targeted receiver confirms runtime admission;
      * otherwise it remains eligible for distributed processing.
      *
+     * [HeaderOverlayable] messages are deep-copied once and both deliveries
+     * share that frozen copy, each through its own [OverlayHeader].
+     *
      * @param message The message to send
      * @return A Mono that completes when sending is done
      */
@@ -157,8 +198,8 @@ interface LocalFirstMessageBus<M, E : MessageExchange<*, M>> :
 
         // A local delivery attempt owns a fresh immutable message identity.
         return Mono.defer {
-            @Suppress("UNCHECKED_CAST")
-            val localMessage = message.copy() as M
+            val snapshot = message.routingSnapshot()
+            val localMessage = snapshot.routingCopy()
             localMessage.withLocalFirst()
             localBus.sendIfSubscribed(localMessage).materialize().flatMap {
                 val locallyDelivered = it.hasValue() && it.get() == true
@@ -169,8 +210,7 @@ interface LocalFirstMessageBus<M, E : MessageExchange<*, M>> :
                             "LocalFirst mode temporarily disabled."
                     }
                 }
-                @Suppress("UNCHECKED_CAST")
-                val distributedMessage = message.copy() as M
+                val distributedMessage = snapshot.routingCopy()
                 distributedMessage.withLocalFirst(locallyDelivered)
                 distributedBus.send(distributedMessage)
             }
@@ -181,7 +221,9 @@ interface LocalFirstMessageBus<M, E : MessageExchange<*, M>> :
      * Receives messages from both local and distributed buses.
      *
      * Local messages are received for local aggregates, while distributed messages
-     * are filtered to exclude those already handled locally.
+     * are filtered to exclude those already handled locally. The distributed receive
+     * pipeline is marked with [writeSkipLocalHandled] so that transports can drop such
+     * records from their headers alone.
      *
      * @param subscription The message subscription
      * @return A merged flux of message exchanges from local and distributed sources
@@ -196,6 +238,7 @@ interface LocalFirstMessageBus<M, E : MessageExchange<*, M>> :
                 .filterThenAck {
                     !it.message.isLocalHandled()
                 }
+                .contextWrite { it.writeSkipLocalHandled() }
         return Flux.merge(localFlux, distributedFlux)
     }
 
@@ -228,7 +271,7 @@ interface LocalFirstMessageBus<M, E : MessageExchange<*, M>> :
                 localReceiver.messages,
                 distributedReceiver.messages.filterThenAck {
                     !it.message.isLocalHandled()
-                },
+                }.contextWrite { it.writeSkipLocalHandled() },
             ),
             readiness = Mono.`when`(
                 localReceiver.readiness,
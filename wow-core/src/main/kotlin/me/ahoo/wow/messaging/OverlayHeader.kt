@@ -0,0 +1,153 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.messaging
+
+import me.ahoo.wow.api.messaging.Header
+import java.util.Collections
+
+/**
+ * [Header] that layers a small set of writable entries over a shared, read-only base header.
+ *
+ * Reads consult the overlay first and fall back to [base]; writes and removals only touch the
+ * overlay, so several messages can share one frozen base header while each carries its own
+ * routing flags (for example [LOCAL_FIRST_HEADER]) without cloning the base map.
+ *
+ * Iteration materializes a merged, unmodifiable snapshot; use [copy] for a mutable header.
+ *
+ * @param base the shared header, which must be read-only.
+ */
+class OverlayHeader(
+    private val base: Header,
+) : AbstractMutableMap<String, String>(),
+    Header {
+    init {
+        require(base.isReadOnly) { "The base header of an OverlayHeader must be read-only." }
+    }
+
+    private val overlay: MutableMap<String, String> = HashMap(OVERLAY_INITIAL_CAPACITY)
+    private var removed: MutableSet<String>? = null
+
+    @Volatile
+    override var isReadOnly: Boolean = false
+        private set
+
+    override fun withReadOnly(): Header {
+        isReadOnly = true
+        return this
+    }
+
+    override fun copy(): Header = DefaultHeader(merged())
+
+    private inline fun <T> write(block: () -> T): T {
+        if (isReadOnly) {
+            throw UnsupportedOperationException("Header is read only.")
+        }
+        return block()
+    }
+
+    private fun isRemoved(key: String): Boolean = removed?.contains(key) == true
+
+    override fun get(key: String): String? {
+        overlay[key]?.let { return it }
+        if (isRemoved(key)) {
+            return null
+        }
+        return base[key]
+    }
+
+    override fun containsKey(key: String): Boolean = get(key) != null
+
+    override val size: Int
+        get() = overlay.size + base.keys.count { !overlay.containsKey(it) && !isRemoved(it) }
+
+    override fun isEmpty(): Boolean = size == 0
+
+    override fun put(key: String, value: String): String? =
+        write {
+            val previous = get(key)
+            removed?.remove(key)
+            overlay[key] = value
+            previous
+        }
+
+    override fun remove(key: String): String? =
+        write {
+            val previous = get(key)
+            overlay.remove(key)
+            if (base.containsKey(key)) {
+                (removed ?: HashSet<String>().also { removed = it }).add(key)
+            }
+            previous
+        }
+
+    override fun putAll(from: Map<out String, String>) {
+        write {
+            from.forEach { (key, value) -> put(key, value) }
+        }
+    }
+
+    override fun clear() {
+        write {
+            overlay.clear()
+            (removed ?: HashSet<String>().also { removed = it }).addAll(base.keys)
+        }
+    }
+
+    override val entries: MutableSet<MutableMap.MutableEntry<String, String>>
+        get() = Collections.unmodifiableMap(merged()).entries
+
+    private fun merged(): MutableMap<String, String> {
+        val merged = LinkedHashMap<String, String>(base.size + overlay.size)
+        base.forEach { (key, value) ->
+            if (!isRemoved(key)) {
+                merged[key] = value
+            }
+        }
+        merged.putAll(overlay)
+        return merged
+    }
+
+    override fun toString(): String = "OverlayHeader(base=$base, overlay=$overlay)"
+
+    private companion object {
+        const val OVERLAY_INITIAL_CAPACITY = 4
+    }
+}
+
+/**
+ * Shallow copy of this header for sharing: an [OverlayHeader] over this header once it is read-only,
+ * or a deep copy while it is still writable.
+ */
+fun Header.overlayCopy(): Header =
+    if (isReadOnly) OverlayHeader(this) else copy()
+
+/**
+ * A message that can be re-issued as a shallow copy whose header is an [OverlayHeader] over its own
+ * read-only header.
+ *
+ * [LocalFirstMessageBus] deep-copies such a message once, freezes the copy, and hands each bus an
+ * [overlayCopy] of it, so the local and the distributed delivery share the header map and body
+ * instead of each cloning them.
+ *
+ * @param M the message type.
+ */
+interface HeaderOverlayable<M> {
+    /**
+     * Returns a shallow copy of this message over a fresh [OverlayHeader].
+     *
+     * The copy shares the body with this message; implementations freeze any nested headers that
+     * become shared.
+     */
+    fun overlayCopy(): M
+}
@@ -14,6 +14,7 @@
 package me.ahoo.wow.messaging.dispatcher
 
 import io.github.oshai.kotlinlogging.KotlinLogging
+import me.ahoo.wow.api.modeling.AggregateIdCapable
 import me.ahoo.wow.api.modeling.NamedAggregateDecorator
 import me.ahoo.wow.infra.lifecycle.TerminatedSignalCapable
 import me.ahoo.wow.infra.sink.terminated
@@ -264,16 +265,20 @@ abstract class AggregateDispatcher<T : MessageExchange<*, *>> protected construc
         demandGate: DemandGateFlux<T>,
     ) {
         val terminalFailure = AtomicReference<Throwable?>()
+        val hotKeyRouter = hotKeyIsolation?.let { HotKeyRouter(parallelism, it) }
+        activeHotKeyRouter = hotKeyRouter
+        val fairness = tenantFairness
+        val groupCount = hotKeyRouter?.groupCount ?: parallelism
         demandGate
             .takeUntilOther(stopRequestedSink.asMono())
             .handle<TrackedExchange<T>> { exchange, sink ->
-                admitExchange(runtimeContext, exchange, sink)
+                admitExchange(runtimeContext, hotKeyRouter, fairness, exchange, sink)
             }
             .doOnNext(TrackedExchange<T>::confirmLocalDelivery)
             .groupBy { trackedExchange -> trackedExchange.groupKey }
             .flatMap({ grouped ->
                 handleGroupedExchange(grouped)
-            }, parallelism, parallelism)
+            }, groupCount, parallelism)
             .doOnDiscard(TrackedExchange::class.java) {
                 it.rejectLocalDelivery()
                 it.complete()
@@ -302,6 +307,8 @@ abstract class AggregateDispatcher<T : MessageExchange<*, *>> protected construc
     @Suppress("TooGenericExceptionCaught")
     private fun admitExchange(
         runtimeContext: RuntimeContext,
+        hotKeyRouter: HotKeyRouter?,
+        fairness: TenantFairness?,
         exchange: T,
         sink: SynchronousSink<TrackedExchange<T>>,
     ) {
@@ -319,17 +326,29 @@ abstract class AggregateDispatcher<T : MessageExchange<*, *>> protected construc
             }
             return
         }
+        // Only aggregate messages are routed by, and so must be completed on, the hot key router.
+        val keyRouter = hotKeyRouter?.takeIf { exchange.message is AggregateIdCapable }
+        var routedGroupKey: Int? = null
         var trackedExchange: TrackedExchange<T>? = null
         try {
+            val groupKey = exchange.toRoutedGroupKey(keyRouter, fairness)
+            routedGroupKey = groupKey
             trackedExchange = TrackedExchange(
                 exchange = exchange,
-                groupKey = exchange.toGroupKey(),
+                groupKey = groupKey,
                 activity = activity,
                 localDeliveryTicket = exchange.takeLocalDeliveryTicket(),
+                hotKeyRouter = keyRouter,
             )
             sink.next(trackedExchange)
         } catch (error: Throwable) {
-            activity.close()
+            if (trackedExchange != null) {
+                trackedExchange.complete()
+            } else {
+                // Routed but never tracked: undo the admission so migrations out of the group can proceed.
+                routedGroupKey?.let { keyRouter?.complete(it) }
+                activity.close()
+            }
             trackedExchange?.rejectLocalDelivery() ?: exchange.rejectLocalDelivery()
             Exceptions.throwIfFatal(error)
             sink.error(error)
@@ -376,6 +395,40 @@ abstract class AggregateDispatcher<T : MessageExchange<*, *>> protected construc
      */
     abstract fun T.toGroupKey(): Int
 
+    private fun T.toRoutedGroupKey(hotKeyRouter: HotKeyRouter?, fairness: TenantFairness?): Int {
+        val aggregateId = (message as? AggregateIdCapable)?.aggregateId ?: return toGroupKey()
+        val sharedGroup = fairness?.route(aggregateId, parallelism) ?: toGroupKey()
+        if (hotKeyRouter == null) {
+            return sharedGroup
+        }
+        return hotKeyRouter.route(aggregateId, sharedGroup)
+    }
+
+    /**
+     * Moves hot aggregates out of their shared group into dedicated lanes.
+     *
+     * `null` (the default) keeps every aggregate in the group chosen by [toGroupKey].
+     * Read once when the processing pipeline is subscribed.
+     */
+    protected open val hotKeyIsolation: HotKeyIsolation?
+        get() = null
+
+    /**
+     * The router of the subscribed pipeline, or `null` without [hotKeyIsolation].
+     */
+    @Volatile
+    internal var activeHotKeyRouter: HotKeyRouter? = null
+        private set
+
+    /**
+     * Confines the aggregates of each tenant to a weighted share of the groups in place of [toGroupKey].
+     *
+     * `null` (the default) lets every tenant use all groups.
+     * Read once when the processing pipeline is subscribed.
+     */
+    protected open val tenantFairness: TenantFairness?
+        get() = null
+
     /**
      * Handles a grouped flux of message exchanges.
      *
@@ -391,18 +444,75 @@ abstract class AggregateDispatcher<T : MessageExchange<*, *>> protected construc
      * @param grouped The grouped flux of message exchanges to process
      * @return A Mono that completes when all exchanges in the group are handled
      */
-    private fun handleGroupedExchange(grouped: GroupedFlux<Int, TrackedExchange<T>>): Mono<Void> =
-        grouped
+    private fun handleGroupedExchange(grouped: GroupedFlux<Int, TrackedExchange<T>>): Mono<Void> {
+        val batchWindow = exchangeBatchWindow
+            ?: return grouped
+                .publishOn(scheduler)
+                .concatMap { trackedExchange ->
+                    trackedExchange.afterBarrier(
+                        scheduler,
+                        measured(Mono.defer { handleExchange(trackedExchange.exchange) })
+                            .doFinally { trackedExchange.complete() }
+                    )
+                }.then()
+        return grouped
             .publishOn(scheduler)
             .concatMap { trackedExchange ->
-                val handledExchange = Mono.defer { handleExchange(trackedExchange.exchange) }
-                val measuredExchange = if (metrics.enabled) {
-                    metrics.operation(handledExchange, handleMetricDescriptor)
-                } else {
-                    handledExchange
-                }
-                measuredExchange.doFinally { trackedExchange.complete() }
+                trackedExchange.afterBarrier(
+                    scheduler,
+                    Mono.defer { handleExchangeBeforeWindow(trackedExchange.exchange) }
+                        .doOnError { trackedExchange.complete() }
+                        .thenReturn(trackedExchange)
+                )
+            }
+            // Fair backpressure keeps source delivery and timeout flushes from racing on
+            // the last buffered exchange when the scheduler has more than one worker.
+            .bufferTimeout(batchWindow.maxSize, batchWindow.maxDelay, scheduler, true)
+            .concatMap { trackedExchanges ->
+                measured(Mono.defer { handleExchanges(trackedExchanges.map { it.exchange }) })
+                    .doFinally { trackedExchanges.forEach(TrackedExchange<T>::complete) }
             }.then()
+    }
+
+    private fun measured(handledExchange: Mono<Void>): Mono<Void> =
+        if (metrics.enabled) {
+            metrics.operation(handledExchange, handleMetricDescriptor)
+        } else {
+            handledExchange
+        }
+
+    /**
+     * The window used to gather exchanges of each group before [handleExchanges].
+     *
+     * `null` (the default) handles every exchange on its own through [handleExchange].
+     * Read once when the processing pipeline is subscribed.
+     */
+    protected open val exchangeBatchWindow: ExchangeBatchWindow?
+        get() = null
+
+    /**
+     * Handles the part of an exchange that does not wait for its window, before the exchange joins one.
+     *
+     * Only called when [exchangeBatchWindow] is set, in arrival order. The default does nothing.
+     *
+     * @param exchange The exchange about to join a window
+     * @return A Mono that completes when the exchange may join a window
+     */
+    protected open fun handleExchangeBeforeWindow(exchange: T): Mono<Void> = Mono.empty()
+
+    /**
+     * Handles a window of exchanges from the same group, in arrival order.
+     *
+     * Only called when [exchangeBatchWindow] is set, after [handleExchangeBeforeWindow] completed for
+     * every exchange of the window. The default handles the exchanges one by one.
+     *
+     * @param exchanges The exchanges gathered by the window
+     * @return A Mono that completes when every exchange is handled
+     */
+    protected open fun handleExchanges(exchanges: List<T>): Mono<Void> =
+        Flux.fromIterable(exchanges)
+            .concatMap { handleExchange(it) }
+            .then()
 
     /**
      * Handles a single message exchange.
@@ -568,11 +678,13 @@ abstract class AggregateDispatcher<T : MessageExchange<*, *>> protected construc
         val groupKey: Int,
         private val activity: RuntimeActivity,
         private val localDeliveryTicket: LocalDeliveryTicket?,
+        private val hotKeyRouter: HotKeyRouter?,
     ) {
         private val completed = AtomicBoolean()
 
         fun complete() {
             if (completed.compareAndSet(false, true)) {
+                hotKeyRouter?.complete(groupKey)
                 activity.close()
             }
         }
@@ -581,6 +693,15 @@ abstract class AggregateDispatcher<T : MessageExchange<*, *>> protected construc
             localDeliveryTicket?.confirm()
         }
 
+        /**
+         * Subscribes [handling] on [scheduler] once the lane of a just promoted hot aggregate may proceed, see
+         * [HotKeyRouter.awaitBarrier].
+         */
+        fun <R> afterBarrier(scheduler: Scheduler, handling: Mono<R>): Mono<R> {
+            val barrier = hotKeyRouter?.awaitBarrier(groupKey) ?: return handling
+            return barrier.publishOn(scheduler).then(handling)
+        }
+
         fun rejectLocalDelivery() {
             localDeliveryTicket?.reject()
         }
@@ -0,0 +1,39 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.messaging.dispatcher
+
+import java.time.Duration
+
+/**
+ * Size and time bounds for gathering the exchanges of one processing group before handling them
+ * together.
+ *
+ * @property maxSize Maximum number of exchanges per window.
+ * @property maxDelay Maximum time to wait for a window to fill.
+ *
+ * @see AggregateDispatcher.exchangeBatchWindow
+ */
+data class ExchangeBatchWindow(
+    val maxSize: Int,
+    val maxDelay: Duration,
+) {
+    init {
+        require(maxSize > 0) {
+            "maxSize must be greater than zero."
+        }
+        require(!maxDelay.isNegative && !maxDelay.isZero) {
+            "maxDelay must be positive."
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.messaging.dispatcher
+
+import reactor.core.publisher.Mono
+import reactor.core.publisher.Sinks
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicLongArray
+import java.util.concurrent.atomic.AtomicReferenceArray
+
+/**
+ * Thresholds for moving hot aggregates out of their shared processing group into dedicated lanes.
+ *
+ * Aggregates share a group with every other aggregate that hashes into it, so a single hot aggregate
+ * blocks its neighbours behind its own backlog. Once a group is at least [depthThreshold] exchanges
+ * deep, the aggregates admitted into it are counted, and any aggregate admitted at least [rateThreshold]
+ * times within one [window] is moved to one of [maxLanes] dedicated lanes. An aggregate is moved back
+ * to its shared group after a window in which it stays below [rateThreshold].
+ *
+ * @property depthThreshold In-flight exchanges of a group above which its aggregates are counted.
+ * @property rateThreshold Admissions per [window] at which an aggregate is considered hot.
+ * @property window Period over which admissions are counted.
+ * @property maxLanes Maximum number of dedicated lanes, and so of simultaneously isolated aggregates.
+ * @property maxTrackedKeys Maximum number of aggregates counted at the same time.
+ *
+ * @see AggregateDispatcher.hotKeyIsolation
+ */
+data class HotKeyIsolation(
+    val depthThreshold: Int = DEFAULT_DEPTH_THRESHOLD,
+    val rateThreshold: Int = DEFAULT_RATE_THRESHOLD,
+    val window: Duration = DEFAULT_WINDOW,
+    val maxLanes: Int = DEFAULT_MAX_LANES,
+    val maxTrackedKeys: Int = DEFAULT_MAX_TRACKED_KEYS,
+) {
+    init {
+        require(depthThreshold >= 0) {
+            "depthThreshold must be greater than or equal to zero."
+        }
+        require(rateThreshold > 0) {
+            "rateThreshold must be greater than zero."
+        }
+        require(!window.isNegative && !window.isZero) {
+            "window must be positive."
+        }
+        require(maxLanes > 0) {
+            "maxLanes must be greater than zero."
+        }
+        require(maxTrackedKeys >= maxLanes) {
+            "maxTrackedKeys must be greater than or equal to maxLanes."
+        }
+    }
+
+    companion object {
+        const val DEFAULT_DEPTH_THRESHOLD = 32
+        const val DEFAULT_RATE_THRESHOLD = 256
+        val DEFAULT_WINDOW: Duration = Duration.ofSeconds(1)
+        const val DEFAULT_MAX_LANES = 8
+        const val DEFAULT_MAX_TRACKED_KEYS = 1024
+    }
+}
+
+/**
+ * Routes exchanges between the shared groups `[0, parallelism)` and the dedicated lanes
+ * `[parallelism, parallelism + maxLanes)`.
+ *
+ * Groups handle their exchanges in admission order, so each group keeps an admitted and a completed
+ * sequence. A promoted aggregate is routed to its lane right away, and the sequence of its last exchange
+ * in the shared group is frozen as the barrier of the lane: [awaitBarrier] holds the lane until the shared
+ * group has completed that sequence, which keeps the aggregate's exchanges in order across the move however
+ * busy the shared group stays. A cooled-down aggregate keeps being routed to its lane until the lane has
+ * completed its last exchange, and only then returns to its shared group.
+ *
+ * [route] must be called serially, as the dispatcher's admission stage does; [complete] and [awaitBarrier]
+ * may be called from any thread.
+ */
+internal class HotKeyRouter(
+    private val parallelism: Int,
+    private val isolation: HotKeyIsolation,
+    private val clock: () -> Long = System::nanoTime,
+) {
+    val groupCount: Int = parallelism + isolation.maxLanes
+    private val admitted = LongArray(groupCount)
+    private val completed = AtomicLongArray(groupCount)
+    private val lanes = BooleanArray(isolation.maxLanes)
+    private val barriers = AtomicReferenceArray<LaneBarrier>(isolation.maxLanes)
+    private val keys = HashMap<Any, KeyState>()
+    private val windowNanos = isolation.window.toNanos()
+    private var windowStart = clock()
+
+    /**
+     * Returns the group of the next exchange of [key], whose shared group is [sharedGroup].
+     */
+    fun route(key: Any, sharedGroup: Int): Int {
+        rollWindow()
+        val state = keys[key] ?: track(key, sharedGroup) ?: return admit(sharedGroup)
+        state.admissions++
+        if (state.group == state.sharedGroup && state.admissions >= isolation.rateThreshold) {
+            acquireLane()?.let { promote(state, it) }
+        }
+        if (state.targetGroup != state.group && completed[state.group] >= state.lastSequence) {
+            switchGroup(state)
+        }
+        state.lastSequence = admit(state.group)
+        return state.group
+    }
+
+    /**
+     * Marks the oldest in-flight exchange of [group] as completed.
+     *
+     * Must also be called for an exchange that was routed but never handed to its group.
+     */
+    fun complete(group: Int) {
+        val sequence = completed.incrementAndGet(group)
+        for (lane in 0 until barriers.length()) {
+            val barrier = barriers[lane] ?: continue
+            if (barrier.group == group && barrier.release(sequence)) {
+                barriers.compareAndSet(lane, barrier, null)
+            }
+        }
+    }
+
+    /**
+     * Returns a Mono that completes once [group] may handle its next exchange, or `null` if it may do so now.
+     *
+     * Only a lane whose aggregate was just promoted waits, until its shared group has completed the exchanges
+     * admitted for the aggregate before the move.
+     */
+    fun awaitBarrier(group: Int): Mono<Void>? {
+        if (group < parallelism) {
+            return null
+        }
+        val lane = group - parallelism
+        val barrier = barriers[lane] ?: return null
+        if (barrier.release(completed[barrier.group])) {
+            barriers.compareAndSet(lane, barrier, null)
+            return null
+        }
+        return barrier.released()
+    }
+
+    /**
+     * Returns the group currently assigned to [key], or `null` if [key] is not tracked.
+     */
+    fun groupOf(key: Any): Int? = keys[key]?.group
+
+    private fun depth(group: Int): Long = admitted[group] - completed[group]
+
+    private fun admit(group: Int): Long = ++admitted[group]
+
+    private fun track(key: Any, sharedGroup: Int): KeyState? {
+        if (depth(sharedGroup) < isolation.depthThreshold || keys.size >= isolation.maxTrackedKeys) {
+            return null
+        }
+        // Earlier exchanges of the key were admitted untracked, so conservatively wait for the whole group.
+        return KeyState(sharedGroup = sharedGroup, lastSequence = admitted[sharedGroup]).also {
+            keys[key] = it
+        }
+    }
+
+    private fun promote(state: KeyState, lane: Int) {
+        val barrier = LaneBarrier(state.group, state.lastSequence)
+        barriers.set(lane, barrier.takeUnless { it.release(completed[it.group]) })
+        state.group = parallelism + lane
+        state.targetGroup = state.group
+    }
+
+    private fun switchGroup(state: KeyState) {
+        releaseLane(state.group)
+        state.group = state.targetGroup
+    }
+
+    private fun releaseLane(group: Int) {
+        if (group >= parallelism) {
+            lanes[group - parallelism] = false
+        }
+    }
+
+    private fun acquireLane(): Int? {
+        val lane = lanes.indexOfFirst { !it }
+        if (lane < 0) {
+            return null
+        }
+        lanes[lane] = true
+        return lane
+    }
+
+    private fun rollWindow() {
+        val now = clock()
+        if (now - windowStart < windowNanos) {
+            return
+        }
+        windowStart = now
+        val iterator = keys.values.iterator()
+        while (iterator.hasNext()) {
+            val state = iterator.next()
+            if (state.group != state.sharedGroup) {
+                // Cooled down keys head back to their shared group; keys that heat up again stay.
+                state.targetGroup = if (state.admissions < isolation.rateThreshold) state.sharedGroup else state.group
+            }
+            // A quiet key never reaches route() again, so leave a drained lane here rather than on its next exchange.
+            if (state.targetGroup != state.group && completed[state.group] >= state.lastSequence) {
+                switchGroup(state)
+            }
+            if (state.group == state.sharedGroup) {
+                iterator.remove()
+            } else {
+                state.admissions = 0
+            }
+        }
+    }
+
+    private class KeyState(
+        val sharedGroup: Int,
+        var lastSequence: Long,
+    ) {
+        var group: Int = sharedGroup
+        var targetGroup: Int = sharedGroup
+        var admissions: Int = 0
+    }
+
+    /**
+     * Holds a lane until [group] has completed [sequence].
+     */
+    private class LaneBarrier(
+        val group: Int,
+        private val sequence: Long,
+    ) {
+        private val sink = Sinks.empty<Void>()
+
+        /**
+         * Releases the lane if [completedSequence] has reached the barrier, returning whether it is released.
+         */
+        fun release(completedSequence: Long): Boolean {
+            if (completedSequence < sequence) {
+                return false
+            }
+            sink.tryEmitEmpty()
+            return true
+        }
+
+        fun released(): Mono<Void> = sink.asMono()
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.messaging.dispatcher
+
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.api.modeling.mod
+
+/**
+ * Confines each tenant to a weighted share of the processing groups.
+ *
+ * Without it, aggregates of every tenant hash across all groups, so a tenant with a large backlog fills
+ * every group queue and delays all other tenants. With it, the aggregates of a tenant only hash across
+ * [lanesPerTenant] × weight consecutive groups, starting at a group derived from the tenant ID. A busy tenant
+ * therefore saturates only its own share, while the groups are still served concurrently, as in stochastic
+ * fairness queuing. An aggregate always maps to the same group, so per-aggregate ordering is unchanged.
+ *
+ * Lanes are not borrowed: a tenant with a backlog cannot use the idle groups of other tenants, so its throughput
+ * is capped by its share even when the rest of the dispatcher is idle. The first group comes from the hash code
+ * of the tenant ID, so tenants whose shares overlap compete for the overlapping groups; the fewer lanes per
+ * tenant relative to parallelism, the less likely two tenants collide.
+ *
+ * @property lanesPerTenant Groups assigned to a tenant of weight 1; `null` assigns
+ * parallelism / [DEFAULT_LANE_DIVISOR] groups, at least one.
+ * @property tenantWeights Weights of tenants that deserve a larger share; other tenants have weight 1.
+ *
+ * @see AggregateDispatcher.tenantFairness
+ */
+data class TenantFairness(
+    val lanesPerTenant: Int? = null,
+    val tenantWeights: Map<String, Int> = emptyMap(),
+) {
+    init {
+        require(lanesPerTenant == null || lanesPerTenant > 0) {
+            "lanesPerTenant must be greater than zero."
+        }
+        require(tenantWeights.values.all { it > 0 }) {
+            "tenantWeights must be greater than zero."
+        }
+    }
+
+    /**
+     * Returns the number of groups shared by the aggregates of [tenantId].
+     */
+    fun lanesOf(tenantId: String, parallelism: Int): Int {
+        val weight = tenantWeights[tenantId] ?: 1
+        val lanes = lanesPerTenant ?: (parallelism / DEFAULT_LANE_DIVISOR).coerceAtLeast(1)
+        return (lanes.toLong() * weight).coerceAtMost(parallelism.toLong()).toInt()
+    }
+
+    internal fun route(aggregateId: AggregateId, parallelism: Int): Int {
+        val lanes = lanesOf(aggregateId.tenantId, parallelism)
+        val firstGroup = aggregateId.tenantId.hashCode().mod(parallelism)
+        return (firstGroup + aggregateId.mod(lanes)) % parallelism
+    }
+
+    companion object {
+        /**
+         * By default a tenant of weight 1 is confined to an eighth of the groups.
+         */
+        const val DEFAULT_LANE_DIVISOR = 8
+    }
+}
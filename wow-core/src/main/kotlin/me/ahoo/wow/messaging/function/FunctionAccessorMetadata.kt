@@ -82,6 +82,7 @@ data class InjectParameter(
  * @property supportedTopics The set of supported named aggregates
  * @property firstParameterKind How the first parameter should be extracted
  * @property injectParameters Array of parameters that need dependency injection
+ * @property batch Whether the function receives a [List] of messages per invocation
  */
 data class FunctionAccessorMetadata<P, out R>(
     override val functionKind: FunctionKind,
@@ -89,7 +90,8 @@ data class FunctionAccessorMetadata<P, out R>(
     val supportedType: Class<*>,
     val supportedTopics: Set<NamedAggregate>,
     val firstParameterKind: FirstParameterKind,
-    val injectParameters: Array<InjectParameter>
+    val injectParameters: Array<InjectParameter>,
+    val batch: Boolean = false
 ) : FunctionInfo,
     NamedBoundedContext {
     /**
@@ -13,6 +13,7 @@
 
 package me.ahoo.wow.messaging.function
 
+import me.ahoo.wow.api.annotation.BatchProjection
 import me.ahoo.wow.api.annotation.DEFAULT_AFTER_COMMAND_NAME
 import me.ahoo.wow.api.annotation.DEFAULT_ON_COMMAND_NAME
 import me.ahoo.wow.api.annotation.DEFAULT_ON_ERROR_NAME
@@ -35,7 +36,7 @@ import me.ahoo.wow.messaging.handler.MessageExchange
 import me.ahoo.wow.modeling.toNamedAggregate
 import reactor.core.publisher.Mono
 import kotlin.reflect.KFunction
-import kotlin.reflect.KParameter
+import kotlin.reflect.KType
 import kotlin.reflect.full.isSubtypeOf
 import kotlin.reflect.full.starProjectedType
 import kotlin.reflect.full.valueParameters
@@ -68,9 +69,11 @@ object FunctionMetadataParser {
         check(parameterTypes.isNotEmpty()) { "The function has at least one parameter." }
         // A message function always receives the message as its first parameter.
         val firstParameterType = parameterTypes[0]
-        val firstParameterKind = firstParameterType.toFirstParameterKind()
+        val batch = scanAnnotation<BatchProjection>() != null
+        val messageType = if (batch) firstParameterType.type.toBatchElementType() else firstParameterType.type
+        val firstParameterKind = messageType.toFirstParameterKind()
         val functionKind = toFunctionKind()
-        val supportedType = firstParameterType.toSupportedType(firstParameterKind)
+        val supportedType = messageType.toSupportedType(firstParameterKind)
         val accessor = accessorFactory(this)
         val supportedTopics = toSupportedTopics(functionKind, supportedType)
 
@@ -80,6 +83,9 @@ object FunctionMetadataParser {
                 InjectParameter(it)
             }.toList()
             .toTypedArray()
+        check(!batch || injectParameterTypes.isEmpty()) {
+            "The batch function [$name] must declare the batch as its only parameter."
+        }
         return FunctionAccessorMetadata(
             functionKind = functionKind,
             accessor = accessor,
@@ -87,16 +93,26 @@ object FunctionMetadataParser {
             supportedTopics = supportedTopics,
             firstParameterKind = firstParameterKind,
             injectParameters = injectParameterTypes,
+            batch = batch,
         )
     }
 
-    private fun KParameter.toFirstParameterKind(): FirstParameterKind =
+    private fun KType.toBatchElementType(): KType {
+        check(jvmErasure == List::class) {
+            "The first parameter of a @BatchProjection function must be a List."
+        }
+        return checkNotNull(arguments[0].type) {
+            "The element type of a @BatchProjection function parameter must not be a star projection."
+        }
+    }
+
+    private fun KType.toFirstParameterKind(): FirstParameterKind =
         when {
-            type.isSubtypeOf(MessageExchange::class.starProjectedType) -> {
+            isSubtypeOf(MessageExchange::class.starProjectedType) -> {
                 FirstParameterKind.MESSAGE_EXCHANGE
             }
 
-            type.isSubtypeOf(Message::class.starProjectedType) -> {
+            isSubtypeOf(Message::class.starProjectedType) -> {
                 FirstParameterKind.MESSAGE
             }
 
@@ -133,14 +149,14 @@ object FunctionMetadataParser {
         throw IllegalStateException("The method [$$name] is not annotated by @OnMessage.")
     }
 
-    private fun KParameter.toSupportedType(firstParameterKind: FirstParameterKind): Class<*> =
+    private fun KType.toSupportedType(firstParameterKind: FirstParameterKind): Class<*> =
         when (firstParameterKind) {
             FirstParameterKind.MESSAGE_EXCHANGE, FirstParameterKind.MESSAGE -> {
-                checkNotNull(type.arguments[0].type).jvmErasure.java
+                checkNotNull(arguments[0].type).jvmErasure.java
             }
 
             FirstParameterKind.MESSAGE_BODY -> {
-                type.jvmErasure.java
+                jvmErasure.java
             }
         }
 
@@ -108,6 +108,23 @@ interface MessageFunction<P : Any, in M : MessageExchange<*, *>, out R> :
     fun handle(exchange: M): R = invoke(exchange)
 }
 
+/**
+ * A message function that also accepts a window of exchanges in a single invocation.
+ *
+ * [invoke] remains available and is equivalent to [invokeBatch] with a single exchange, so the
+ * function still works when a dispatcher handles exchanges one at a time.
+ *
+ * @see me.ahoo.wow.api.annotation.BatchProjection
+ */
+interface BatchMessageFunction<P : Any, in M : MessageExchange<*, *>, out R> : MessageFunction<P, M, R> {
+    /**
+     * Invokes the function once for all [exchanges], in order.
+     */
+    fun invokeBatch(exchanges: List<M>): R
+
+    override fun invoke(exchange: M): R = invokeBatch(listOf(exchange))
+}
+
 /**
  * An accessor-based implementation of MessageFunction that uses metadata to provide function information.
  * This interface extends MessageFunction and provides implementations for various properties and methods
@@ -184,7 +201,9 @@ interface MessageFunctionAccessor<P : Any, in M : MessageExchange<*, *>, out R>
 fun <P : Any, M : MessageExchange<*, *>, R> FunctionAccessorMetadata<P, R>.toMessageFunction(
     processor: P
 ): MessageFunctionAccessor<P, M, R> =
-    if (injectParameterLength == 0) {
+    if (batch) {
+        BatchMessageFunctionAccessor(processor, this)
+    } else if (injectParameterLength == 0) {
         SimpleMessageFunctionAccessor(processor, this)
     } else {
         InjectableMessageFunctionAccessor(processor, this)
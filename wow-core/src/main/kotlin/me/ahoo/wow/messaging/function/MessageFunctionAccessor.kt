@@ -88,3 +88,28 @@ data class InjectableMessageFunctionAccessor<P : Any, in M : MessageExchange<*,
 
     override fun toString(): String = "InjectableMessageFunctionAccessor(metadata=$metadata)"
 }
+
+/**
+ * A message function accessor for functions that receive a [List] of messages.
+ *
+ * @param P The processor type
+ * @param M The message exchange type
+ * @param R The return type
+ * @property processor The processor instance
+ * @property metadata The function metadata
+ */
+data class BatchMessageFunctionAccessor<P : Any, in M : MessageExchange<*, *>, out R>(
+    override val processor: P,
+    override val metadata: FunctionAccessorMetadata<P, R>
+) : MessageFunctionAccessor<P, M, R>,
+    BatchMessageFunction<P, M, R> {
+    /**
+     * Extracts the first argument of every exchange and calls the underlying function with the list.
+     */
+    override fun invokeBatch(exchanges: List<M>): R {
+        val batch = exchanges.map { metadata.extractFirstArgument(it) }
+        return metadata.accessor.invoke1(processor, batch)
+    }
+
+    override fun toString(): String = "BatchMessageFunctionAccessor(metadata=$metadata)"
+}
@@ -59,6 +59,37 @@ object ExchangeAck {
                 .then(Mono.error(it))
         }.then(exchange.acknowledgeDefer())
 
+    /**
+     * Acknowledges the exchange only when the Mono fails, then re-throws the error.
+     *
+     * Used when a later stage acknowledges the exchange on success.
+     *
+     * @param exchange The exchange to acknowledge on error
+     * @return A Mono that acknowledges the exchange on error
+     */
+    fun Mono<Void>.ackOnError(exchange: MessageExchange<*, *>): Mono<Void> =
+        onErrorResume {
+            exchange.acknowledgeDefer()
+                .then(Mono.error(it))
+        }
+
+    /**
+     * Ensures every exchange of a window is acknowledged after Mono completion, even on error.
+     *
+     * Exchanges are acknowledged in order, first on error and then re-throwing it.
+     *
+     * @param exchanges The exchanges to acknowledge together
+     * @return A Mono that acknowledges the exchanges
+     */
+    fun Mono<*>.finallyAck(exchanges: List<MessageExchange<*, *>>): Mono<Void> {
+        val acknowledgeAll = Flux.fromIterable(exchanges)
+            .concatMap { it.acknowledgeDefer() }
+            .then()
+        return onErrorResume {
+            acknowledgeAll.then(Mono.error(it))
+        }.then(acknowledgeAll)
+    }
+
     /**
      * Filters the flux and acknowledges exchanges that don't match the predicate.
      *
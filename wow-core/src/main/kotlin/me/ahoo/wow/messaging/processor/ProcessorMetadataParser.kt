@@ -13,6 +13,7 @@
 
 package me.ahoo.wow.messaging.processor
 
+import me.ahoo.wow.api.annotation.BatchProjection
 import me.ahoo.wow.api.annotation.OnMessage
 import me.ahoo.wow.configuration.requiredNamedBoundedContext
 import me.ahoo.wow.infra.reflection.AnnotationScanner.scanAnnotation
@@ -72,10 +73,12 @@ class MessageAnnotationFunctionCondition(
  *
  * @param E The message exchange type
  * @param functionCondition Condition to filter which functions to include
+ * @param batchSupported Whether the processors may declare [BatchProjection] functions
  * @see me.ahoo.wow.api.annotation.OnMessage
  */
 open class ProcessorMetadataParser<E : MessageExchange<*, *>>(
-    private val functionCondition: (KFunction<*>) -> Boolean = { true }
+    private val functionCondition: (KFunction<*>) -> Boolean = { true },
+    private val batchSupported: Boolean = false
 ) : CacheableMetadataParser() {
     /**
      * Parses a processor class to extract its metadata.
@@ -86,7 +89,7 @@ open class ProcessorMetadataParser<E : MessageExchange<*, *>>(
      * @return The metadata for the processor
      */
     override fun <TYPE : Any, M : Metadata> parseToMetadata(type: Class<TYPE>): M {
-        val visitor = ProcessorMetadataVisitor<TYPE, E>(type, functionCondition)
+        val visitor = ProcessorMetadataVisitor<TYPE, E>(type, functionCondition, batchSupported)
         type.kotlin.visit(visitor)
         @Suppress("UNCHECKED_CAST")
         return visitor.toMetadata() as M
@@ -100,10 +103,12 @@ open class ProcessorMetadataParser<E : MessageExchange<*, *>>(
  * @param E The message exchange type
  * @param processorType The class being visited
  * @param functionCondition Condition to filter functions
+ * @param batchSupported Whether [BatchProjection] functions are allowed
  */
 internal class ProcessorMetadataVisitor<P : Any, E : MessageExchange<*, *>>(
     private val processorType: Class<P>,
-    private val functionCondition: (KFunction<*>) -> Boolean
+    private val functionCondition: (KFunction<*>) -> Boolean,
+    private val batchSupported: Boolean = false
 ) : ClassVisitor<P, ProcessorMetadata<P, E>> {
     private val functionRegistry: MutableSet<FunctionAccessorMetadata<P, Mono<*>>> = mutableSetOf()
 
@@ -118,6 +123,10 @@ internal class ProcessorMetadataVisitor<P : Any, E : MessageExchange<*, *>>(
         }
 
         val handler = function.toMonoFunctionMetadata<P, Any>()
+        check(batchSupported || !handler.batch) {
+            "@BatchProjection is only supported by projection processors, " +
+                "but found on [${processorType.name}.${function.name}]."
+        }
         functionRegistry.add(handler)
     }
 
@@ -0,0 +1,178 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.metadata
+
+import io.github.oshai.kotlinlogging.KotlinLogging
+import me.ahoo.wow.command.annotation.commandMetadata
+import me.ahoo.wow.configuration.Aggregate
+import me.ahoo.wow.configuration.MetadataSearcher
+import me.ahoo.wow.configuration.WowMetadata
+import me.ahoo.wow.event.annotation.toEventMetadata
+import me.ahoo.wow.infra.TypeNameMapper.toType
+import me.ahoo.wow.modeling.annotation.aggregateMetadata
+import me.ahoo.wow.runtime.RuntimeComponent
+import me.ahoo.wow.runtime.RuntimeContext
+import me.ahoo.wow.serialization.JsonSerializer
+import reactor.core.publisher.Mono
+import reactor.core.scheduler.Schedulers
+import java.time.Duration
+import java.util.concurrent.Callable
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.atomic.AtomicReference
+
+/**
+ * Parses aggregate, command and event metadata for the types declared in [WowMetadata] before readiness.
+ *
+ * Metadata parsers are lazy and cached, so without a warm-up the first command of every type pays for
+ * reflection, annotation merging and Jackson serializer construction on the request path. As a
+ * [RuntimeComponent] the warm-up runs in [prepare], which the runtime completes for every component
+ * before any of them starts, so readiness opens only once the caches are populated.
+ *
+ * Aggregates are parsed first, in parallel on a dedicated [ForkJoinPool], which also discovers their
+ * command and sourced event types; those are then parsed together with the command and event types
+ * declared in [WowMetadata]. Types that cannot be resolved or parsed are logged and counted rather than
+ * failing startup, because the same parse runs again on first use and reports its error there.
+ */
+class MetadataWarmUp(
+    private val metadata: WowMetadata = MetadataSearcher.metadata,
+    private val parallelism: Int = Runtime.getRuntime().availableProcessors(),
+) : RuntimeComponent {
+    companion object {
+        private val log = KotlinLogging.logger {}
+    }
+
+    init {
+        require(parallelism > 0) { "parallelism must be greater than 0." }
+    }
+
+    private val runningPool = AtomicReference<ForkJoinPool?>()
+
+    /**
+     * The report of the last completed warm-up, or `null` before [prepare] completes.
+     */
+    @Volatile
+    var report: MetadataWarmUpReport? = null
+        private set
+
+    override fun prepare(runtimeContext: RuntimeContext): Mono<Void> =
+        Mono.fromCallable { warmUp() }
+            .subscribeOn(Schedulers.boundedElastic())
+            .then()
+
+    /**
+     * Runs the warm-up on the calling thread, blocking until every declared type has been parsed.
+     */
+    fun warmUp(): MetadataWarmUpReport {
+        val startedAt = System.nanoTime()
+        val pool = ForkJoinPool(parallelism)
+        runningPool.set(pool)
+        try {
+            val aggregateNames = metadata.declaredTypes { listOfNotNull(it.type) }
+            val commandNames = metadata.declaredTypes { it.commands }
+            val eventNames = metadata.declaredTypes { it.events }
+            val aggregateTypes = aggregateNames.resolveTypes()
+            val commandTypes = commandNames.resolveTypes()
+            val eventTypes = eventNames.resolveTypes()
+            val unresolved = aggregateNames.size - aggregateTypes.size +
+                commandNames.size - commandTypes.size +
+                eventNames.size - eventTypes.size
+            val aggregateFailures = pool.parseAll(aggregateTypes) {
+                val aggregateMetadata = it.aggregateMetadata<Any, Any>()
+                synchronized(commandTypes) {
+                    commandTypes.addAll(aggregateMetadata.command.registeredCommands)
+                    eventTypes.addAll(aggregateMetadata.state.sourcingFunctionRegistry.keys)
+                }
+            }
+            val commandFailures = pool.parseAll(commandTypes) {
+                it.commandMetadata()
+                JsonSerializer.readerFor(it)
+            }
+            val eventFailures = pool.parseAll(eventTypes) {
+                it.toEventMetadata()
+                JsonSerializer.readerFor(it)
+                JsonSerializer.writerFor(it)
+            }
+            return MetadataWarmUpReport(
+                aggregates = aggregateTypes.size,
+                commands = commandTypes.size,
+                events = eventTypes.size,
+                unresolved = unresolved,
+                failures = aggregateFailures + commandFailures + eventFailures,
+                elapsed = Duration.ofNanos(System.nanoTime() - startedAt),
+            ).also {
+                report = it
+                log.info { "Metadata warm-up completed: $it." }
+            }
+        } finally {
+            runningPool.compareAndSet(pool, null)
+            pool.shutdown()
+        }
+    }
+
+    override fun start() = Unit
+
+    override fun stopGracefully(): Mono<Void> = Mono.empty()
+
+    override fun forceStop() {
+        runningPool.getAndSet(null)?.shutdownNow()
+    }
+
+    private fun WowMetadata.declaredTypes(selector: (Aggregate) -> Collection<String>): Set<String> =
+        contexts.values.flatMapTo(linkedSetOf()) { context -> context.aggregates.values.flatMap(selector) }
+
+    private fun Set<String>.resolveTypes(): MutableSet<Class<*>> =
+        mapNotNullTo(linkedSetOf()) { typeName ->
+            try {
+                typeName.toType<Any>()
+            } catch (e: ClassNotFoundException) {
+                log.debug(e) { "Skip metadata warm-up of unresolved type [$typeName]." }
+                null
+            }
+        }
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun ForkJoinPool.parseAll(types: Collection<Class<*>>, parse: (Class<*>) -> Unit): Int {
+        if (types.isEmpty()) {
+            return 0
+        }
+        return submit(
+            Callable {
+                types.parallelStream().filter { type ->
+                    try {
+                        parse(type)
+                        false
+                    } catch (e: Exception) {
+                        log.warn(e) { "Failed to warm up metadata of [${type.name}]." }
+                        true
+                    }
+                }.count()
+            },
+        ).get().toInt()
+    }
+}
+
+/**
+ * Outcome of a [MetadataWarmUp] run.
+ *
+ * @property unresolved declared type names that are not on the classpath, such as commands of remote contexts.
+ * @property failures resolved types whose metadata could not be parsed.
+ */
+data class MetadataWarmUpReport(
+    val aggregates: Int,
+    val commands: Int,
+    val events: Int,
+    val unresolved: Int,
+    val failures: Int,
+    val elapsed: Duration,
+)
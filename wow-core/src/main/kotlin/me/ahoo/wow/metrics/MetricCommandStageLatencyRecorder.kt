@@ -0,0 +1,143 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.metrics
+
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Timer
+import me.ahoo.wow.api.modeling.NamedAggregate
+import me.ahoo.wow.command.wait.CommandStage
+import me.ahoo.wow.command.wait.CommandStageLatencyRecorder
+import me.ahoo.wow.command.wait.previousStage
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+
+/**
+ * Records `wow.command.stage.latency` timers of (stage − previous stage) per aggregate and processor.
+ *
+ * Timers are resolved once per key and cached, so the steady-state recording path performs a single
+ * map lookup and a timer update.
+ *
+ * Every timer publishes client-side p50/p95/p99. [percentileHistogram] additionally publishes the
+ * histogram buckets for server-side aggregation; it is off by default because it multiplies the series
+ * of every context × aggregate × processor × stage timer.
+ */
+internal class MetricCommandStageLatencyRecorder(
+    private val registry: MeterRegistry,
+    private val percentileHistogram: Boolean = false,
+) : CommandStageLatencyRecorder {
+    private val timers = ConcurrentHashMap<CommandStageLatencyKey, Timer>()
+
+    override fun record(
+        stage: CommandStage,
+        aggregate: NamedAggregate,
+        processorName: String,
+        succeeded: Boolean,
+        previousStageTime: Long,
+        stageTime: Long
+    ) {
+        val previousStage = stage.previousStage ?: return
+        val latency = (stageTime - previousStageTime).coerceAtLeast(0)
+        val key = CommandStageLatencyKey(
+            context = aggregate.contextName.metricValue(),
+            aggregate = aggregate.aggregateName.metricValue(),
+            processor = processorName.metricValue(),
+            stage = stage,
+            previousStage = previousStage,
+            succeeded = succeeded,
+        )
+        recordSafely {
+            timers.computeIfAbsent(key) { register(it) }.record(latency, TimeUnit.MILLISECONDS)
+        }
+    }
+
+    private fun register(key: CommandStageLatencyKey): Timer =
+        Timer.builder(WowMetricNames.COMMAND_STAGE_LATENCY)
+            .tags(key.tags())
+            .publishPercentiles(*PERCENTILES)
+            .publishPercentileHistogram(percentileHistogram)
+            .register(registry)
+
+    fun snapshot(): List<CommandStageLatency> =
+        timers.map { (key, timer) ->
+            val snapshot = timer.takeSnapshot()
+            val percentiles = snapshot.percentileValues().associate {
+                it.percentile() to it.value(TimeUnit.MILLISECONDS)
+            }
+            CommandStageLatency(
+                context = key.context,
+                aggregate = key.aggregate,
+                processor = key.processor,
+                stage = key.stage,
+                previousStage = key.previousStage,
+                succeeded = key.succeeded,
+                count = snapshot.count(),
+                mean = snapshot.mean(TimeUnit.MILLISECONDS),
+                max = snapshot.max(TimeUnit.MILLISECONDS),
+                p50 = percentiles[P50] ?: 0.0,
+                p95 = percentiles[P95] ?: 0.0,
+                p99 = percentiles[P99] ?: 0.0,
+            )
+        }
+
+    private companion object {
+        const val P50 = 0.5
+        const val P95 = 0.95
+        const val P99 = 0.99
+        val PERCENTILES = doubleArrayOf(P50, P95, P99)
+    }
+}
+
+private fun String.metricValue(): String = ifBlank { MetricDescriptor.NONE }
+
+private data class CommandStageLatencyKey(
+    val context: String,
+    val aggregate: String,
+    val processor: String,
+    val stage: CommandStage,
+    val previousStage: CommandStage,
+    val succeeded: Boolean,
+) {
+    fun tags() = MetricDescriptor(
+        component = COMPONENT,
+        operation = stage.name.lowercase(),
+        context = context,
+        aggregate = aggregate,
+        processor = processor,
+    ).terminalTags(
+        outcome = if (succeeded) MetricOutcome.SUCCESS else MetricOutcome.ERROR,
+        exception = MetricDescriptor.NONE,
+    ).and(MetricDescriptor.PREVIOUS_STAGE_TAG, previousStage.name.lowercase())
+
+    companion object {
+        const val COMPONENT = "command_stage"
+    }
+}
+
+/**
+ * Point-in-time view of one command stage latency timer, in milliseconds.
+ */
+data class CommandStageLatency(
+    val context: String,
+    val aggregate: String,
+    val processor: String,
+    val stage: CommandStage,
+    val previousStage: CommandStage,
+    val succeeded: Boolean,
+    val count: Long,
+    val mean: Double,
+    val max: Double,
+    val p50: Double,
+    val p95: Double,
+    val p99: Double,
+)
@@ -77,6 +77,7 @@ data class MetricDescriptor(
         internal const val SUBSCRIBER_TAG = "subscriber"
         internal const val OUTCOME_TAG = "outcome"
         internal const val EXCEPTION_TAG = "exception"
+        internal const val PREVIOUS_STAGE_TAG = "previous_stage"
     }
 }
 
@@ -94,4 +95,5 @@ internal object WowMetricNames {
     const val STREAM_ACTIVE = "wow.stream.active"
     const val STREAM_MESSAGES = "wow.stream.messages"
     const val STREAM_TERMINATIONS = "wow.stream.terminations"
+    const val COMMAND_STAGE_LATENCY = "wow.command.stage.latency"
 }
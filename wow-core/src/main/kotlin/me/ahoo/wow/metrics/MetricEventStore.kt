@@ -16,6 +16,7 @@ package me.ahoo.wow.metrics
 import me.ahoo.wow.api.modeling.AggregateId
 import me.ahoo.wow.api.modeling.NamedAggregate
 import me.ahoo.wow.event.DomainEventStream
+import me.ahoo.wow.eventsourcing.EventLogRecord
 import me.ahoo.wow.eventsourcing.EventStore
 import reactor.core.publisher.Flux
 import reactor.core.publisher.Mono
@@ -77,6 +78,22 @@ internal class MetricEventStore(
             descriptor("scan_aggregate_id", namedAggregate.contextName, namedAggregate.aggregateName),
         )
 
+    override fun readAll(
+        namedAggregate: NamedAggregate,
+        fromPosition: String,
+        batchSize: Int,
+    ): Flux<EventLogRecord> =
+        metrics.operation(
+            delegate.readAll(namedAggregate, fromPosition, batchSize),
+            descriptor("read_all", namedAggregate.contextName, namedAggregate.aggregateName),
+        )
+
+    override fun prune(aggregateId: AggregateId, headVersion: Int, tailVersion: Int): Mono<Long> =
+        metrics.operation(
+            delegate.prune(aggregateId, headVersion, tailVersion),
+            descriptor("prune", aggregateId.contextName, aggregateId.aggregateName),
+        )
+
     private fun descriptor(
         operation: String,
         context: String,
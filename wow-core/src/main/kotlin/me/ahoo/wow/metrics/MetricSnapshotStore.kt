@@ -33,6 +33,12 @@ internal class MetricSnapshotStore(
             descriptor("load", aggregateId),
         )
 
+    override fun <S : Any> loadAtOrBefore(aggregateId: AggregateId, maxVersion: Int): Mono<Snapshot<S>> =
+        metrics.operation(
+            delegate.loadAtOrBefore<S>(aggregateId, maxVersion),
+            descriptor("load_at_or_before", aggregateId),
+        )
+
     override fun getVersion(aggregateId: AggregateId): Mono<Int> =
         metrics.operation(
             delegate.getVersion(aggregateId),
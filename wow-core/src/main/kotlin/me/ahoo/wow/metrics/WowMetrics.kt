@@ -16,6 +16,7 @@ package me.ahoo.wow.metrics
 import io.github.oshai.kotlinlogging.KotlinLogging
 import io.micrometer.core.instrument.MeterRegistry
 import io.micrometer.core.instrument.Timer
+import me.ahoo.wow.command.wait.CommandStageLatencyRecorder
 import org.reactivestreams.Publisher
 import reactor.core.Exceptions
 import reactor.core.observability.DefaultSignalListener
@@ -32,9 +33,12 @@ import java.util.concurrent.atomic.AtomicLong
  *
  * A [WowMetrics] instance is bound to exactly one [MeterRegistry]. [NONE]
  * leaves publishers unchanged and never touches a registry.
+ *
+ * @param commandStageHistogram Whether command stage latency timers publish percentile histogram buckets.
  */
 class WowMetrics(
     internal val meterRegistry: MeterRegistry? = null,
+    private val commandStageHistogram: Boolean = false,
 ) {
 
     val enabled: Boolean
@@ -69,6 +73,21 @@ class WowMetrics(
         }
     }
 
+    /**
+     * Records command stage latency derived from wait signals, or does nothing when metrics are disabled.
+     */
+    val commandStageLatencyRecorder: CommandStageLatencyRecorder by lazy {
+        meterRegistry?.let {
+            MetricCommandStageLatencyRecorder(it, commandStageHistogram)
+        } ?: CommandStageLatencyRecorder.NONE
+    }
+
+    /**
+     * Returns the stage latencies recorded so far by [commandStageLatencyRecorder].
+     */
+    fun commandStageLatencies(): List<CommandStageLatency> =
+        (commandStageLatencyRecorder as? MetricCommandStageLatencyRecorder)?.snapshot().orEmpty()
+
     companion object {
         val NONE = WowMetrics()
     }
@@ -179,7 +198,7 @@ private fun Throwable?.metricException(): String =
     this?.javaClass?.simpleName?.takeIf(String::isNotBlank) ?: MetricDescriptor.NONE
 
 @Suppress("TooGenericExceptionCaught")
-private inline fun recordSafely(record: () -> Unit) {
+internal inline fun recordSafely(record: () -> Unit) {
     try {
         record()
     } catch (failure: Throwable) {
@@ -195,7 +214,7 @@ private inline fun <T> createSafely(create: () -> T): T? = try {
     null
 }
 
-private fun logMetricFailure(failure: Throwable) {
+internal fun logMetricFailure(failure: Throwable) {
     Exceptions.throwIfFatal(failure)
     METRICS_LOG.warn(failure) { "Failed to record Wow metrics." }
 }
@@ -15,8 +15,10 @@ package me.ahoo.wow.modeling.command.dispatcher
 import me.ahoo.wow.api.modeling.NamedAggregate
 import me.ahoo.wow.command.ServerCommandExchange
 import me.ahoo.wow.messaging.dispatcher.AggregateDispatcher
+import me.ahoo.wow.messaging.dispatcher.HotKeyIsolation
 import me.ahoo.wow.messaging.dispatcher.MessageParallelism
 import me.ahoo.wow.messaging.dispatcher.MessageParallelism.toGroupKey
+import me.ahoo.wow.messaging.dispatcher.TenantFairness
 import me.ahoo.wow.metrics.WowMetrics
 import me.ahoo.wow.modeling.metadata.AggregateMetadata
 import reactor.core.publisher.Flux
@@ -49,6 +51,8 @@ import reactor.core.scheduler.Scheduler
  * [start].
  * @param processingQuiescence Logical transport gate closed by [quiesce].
  * @param metrics Instance-scoped metrics recorder for dispatcher operations.
+ * @param hotKeyIsolation Moves hot aggregate IDs to dedicated workers; `null` disables isolation.
+ * @param tenantFairness Confines each tenant to a weighted share of the workers; `null` shares all workers.
  */
 class AggregateCommandDispatcher<C : Any, S : Any>(
     override val name: String =
@@ -62,6 +66,8 @@ class AggregateCommandDispatcher<C : Any, S : Any>(
     processingAdmission: () -> Unit = {},
     processingQuiescence: () -> Unit = {},
     metrics: WowMetrics = WowMetrics.NONE,
+    hotKeyIsolation: HotKeyIsolation? = null,
+    tenantFairness: TenantFairness? = null,
 ) : AggregateDispatcher<ServerCommandExchange<*>>(
     messageReadiness = messageReadiness,
     processingAdmission = processingAdmission,
@@ -71,6 +77,10 @@ class AggregateCommandDispatcher<C : Any, S : Any>(
     override val namedAggregate: NamedAggregate
         get() = aggregateMetadata.namedAggregate
 
+    override val hotKeyIsolation: HotKeyIsolation? = hotKeyIsolation
+
+    override val tenantFairness: TenantFairness? = tenantFairness
+
     /**
      * Handles a single command exchange by setting up the processing context and delegating to the command handler.
      *
@@ -19,9 +19,11 @@ import me.ahoo.wow.configuration.MetadataSearcher
 import me.ahoo.wow.configuration.requiredAggregateType
 import me.ahoo.wow.messaging.MessageReceiver
 import me.ahoo.wow.messaging.MessageSubscription
+import me.ahoo.wow.messaging.dispatcher.HotKeyIsolation
 import me.ahoo.wow.messaging.dispatcher.MainDispatcher
 import me.ahoo.wow.messaging.dispatcher.MessageDispatcher
 import me.ahoo.wow.messaging.dispatcher.MessageParallelism
+import me.ahoo.wow.messaging.dispatcher.TenantFairness
 import me.ahoo.wow.messaging.handler.ExchangeAck.filterThenAck
 import me.ahoo.wow.metrics.WowMetrics
 import me.ahoo.wow.modeling.annotation.aggregateMetadata
@@ -44,6 +46,8 @@ class CommandDispatcher(
     private val schedulerSupplier: AggregateSchedulerSupplier =
         DefaultAggregateSchedulerSupplier("CommandDispatcher"),
     metrics: WowMetrics = WowMetrics.NONE,
+    private val hotKeyIsolation: HotKeyIsolation? = null,
+    private val tenantFairness: TenantFairness? = null,
 ) : MainDispatcher<ServerCommandExchange<*>>(metrics) {
     override fun receiveMessage(subscription: MessageSubscription): Flux<ServerCommandExchange<*>> {
         return filterMessages(commandBus.receive(subscription))
@@ -75,6 +79,8 @@ class CommandDispatcher(
             commandHandler = commandHandler,
             scheduler = schedulerSupplier.getOrInitialize(namedAggregate),
             metrics = metrics,
+            hotKeyIsolation = hotKeyIsolation,
+            tenantFairness = tenantFairness,
         )
     }
 
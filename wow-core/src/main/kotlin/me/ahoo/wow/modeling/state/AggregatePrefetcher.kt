@@ -0,0 +1,34 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.modeling.state
+
+import me.ahoo.wow.api.modeling.AggregateId
+
+/**
+ * Ingress-side hint that an aggregate is about to be processed on this instance.
+ *
+ * Implementations start loading the aggregate state in the background so that the
+ * command processor finds it ready when the command arrives. A prefetch is a pure
+ * optimization: it must never fail the caller, and ignoring it must be correct.
+ */
+fun interface AggregatePrefetcher {
+    /**
+     * Starts loading the latest state of [aggregateId] without waiting for the result.
+     */
+    fun prefetch(aggregateId: AggregateId)
+
+    companion object {
+        val NONE: AggregatePrefetcher = AggregatePrefetcher { }
+    }
+}
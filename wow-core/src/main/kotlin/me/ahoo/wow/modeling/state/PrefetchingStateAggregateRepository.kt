@@ -0,0 +1,151 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.modeling.state
+
+import io.github.oshai.kotlinlogging.KotlinLogging
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.configuration.requiredAggregateType
+import me.ahoo.wow.modeling.annotation.aggregateMetadata
+import me.ahoo.wow.modeling.metadata.StateAggregateMetadata
+import reactor.core.publisher.Mono
+import reactor.core.scheduler.Scheduler
+import reactor.core.scheduler.Schedulers
+import java.time.Duration
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicReference
+
+val DEFAULT_AGGREGATE_PREFETCH_TTL: Duration = Duration.ofSeconds(2)
+const val DEFAULT_AGGREGATE_PREFETCH_MAX_ENTRIES = 10_000
+
+/**
+ * [StateAggregateRepository] decorator that serves latest-version loads from a short-lived prefetch cache.
+ *
+ * [prefetch] starts loading the snapshot and event tail of an aggregate in the background and parks the
+ * result for at most [ttl]. The first latest-version [load] of that aggregate within the window claims
+ * the prefetched state; every other load, including retries of the claiming command, goes to [delegate].
+ *
+ * A prefetched state is only a guess of the latest version, so correctness still rests on the event
+ * store's version check: if another command appended events in the meantime, the claiming command fails
+ * with a recoverable version conflict and the aggregate processor retries against a fresh load. To keep
+ * that path rare, a second prefetch of the same aggregate while an entry is parked drops the parked
+ * state instead of starting another load, so commands that race on one aggregate always load fresh.
+ *
+ * @param delegate the repository that performs the actual loads.
+ * @param ttl how long a prefetched state stays claimable.
+ * @param maxEntries upper bound on parked entries; further prefetches are ignored while it is reached.
+ * @param scheduler the scheduler that evicts expired entries.
+ */
+class PrefetchingStateAggregateRepository(
+    private val delegate: StateAggregateRepository,
+    private val ttl: Duration = DEFAULT_AGGREGATE_PREFETCH_TTL,
+    private val maxEntries: Int = DEFAULT_AGGREGATE_PREFETCH_MAX_ENTRIES,
+    private val scheduler: Scheduler = Schedulers.parallel(),
+) : StateAggregateRepository,
+    AggregatePrefetcher {
+    companion object {
+        private val log = KotlinLogging.logger {}
+    }
+
+    init {
+        require(ttl > Duration.ZERO) { "ttl must be greater than 0." }
+        require(maxEntries > 0) { "maxEntries must be greater than 0." }
+    }
+
+    private val entries = ConcurrentHashMap<AggregateId, PrefetchEntry>()
+
+    /**
+     * Number of parked entries, claimed or not, that have not expired yet.
+     */
+    val size: Int
+        get() = entries.size
+
+    @Suppress("TooGenericExceptionCaught")
+    override fun prefetch(aggregateId: AggregateId) {
+        try {
+            doPrefetch(aggregateId)
+        } catch (error: Throwable) {
+            log.warn(error) { "Prefetch $aggregateId failed." }
+        }
+    }
+
+    private fun doPrefetch(aggregateId: AggregateId) {
+        if (entries.size >= maxEntries) {
+            return
+        }
+        entries[aggregateId]?.let {
+            it.drop()
+            return
+        }
+        val metadata = aggregateId.requiredAggregateType<Any>().aggregateMetadata<Any, Any>().state
+        val stateAggregate = delegate.load(aggregateId, metadata).cache()
+        val entry = PrefetchEntry(stateAggregate)
+        val existing = entries.putIfAbsent(aggregateId, entry)
+        if (existing != null) {
+            existing.drop()
+            return
+        }
+        scheduler.schedule({ entries.remove(aggregateId, entry) }, ttl.toMillis(), TimeUnit.MILLISECONDS)
+        stateAggregate.subscribe(null) {
+            log.debug(it) { "Prefetch $aggregateId failed, the command will load it again." }
+        }
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    override fun <S : Any> load(
+        aggregateId: AggregateId,
+        metadata: StateAggregateMetadata<S>,
+        tailVersion: Int
+    ): Mono<StateAggregate<S>> {
+        if (tailVersion != Int.MAX_VALUE) {
+            return delegate.load(aggregateId, metadata, tailVersion)
+        }
+        return Mono.defer {
+            val prefetched = entries[aggregateId]?.claim() ?: return@defer delegate.load(aggregateId, metadata)
+            (prefetched as Mono<StateAggregate<S>>)
+                .onErrorResume { delegate.load(aggregateId, metadata) }
+        }
+    }
+
+    override fun <S : Any> load(
+        aggregateId: AggregateId,
+        metadata: StateAggregateMetadata<S>,
+        tailEventTime: Long
+    ): Mono<StateAggregate<S>> = delegate.load(aggregateId, metadata, tailEventTime)
+
+    /**
+     * A parked prefetch result that can be claimed at most once.
+     */
+    private class PrefetchEntry(stateAggregate: Mono<out StateAggregate<*>>) {
+        private val stateAggregate = AtomicReference<Mono<out StateAggregate<*>>?>(stateAggregate)
+
+        fun claim(): Mono<out StateAggregate<*>>? = stateAggregate.getAndSet(null)
+
+        fun drop() {
+            stateAggregate.set(null)
+        }
+    }
+}
+
+/**
+ * The prefetch hint of a [PrefetchingStateAggregateRepository], exposed without the repository itself.
+ *
+ * The prefetch cache only serves the command processor: a latest-version load from any other reader
+ * could claim the entry parked for a command, or be served a state up to the TTL old. This type lets the
+ * cache be registered as its own component, handed to the command gateway as an [AggregatePrefetcher],
+ * while only the command processor loads through [repository].
+ */
+class StateAggregatePrefetcher(
+    val repository: PrefetchingStateAggregateRepository,
+) : AggregatePrefetcher by repository
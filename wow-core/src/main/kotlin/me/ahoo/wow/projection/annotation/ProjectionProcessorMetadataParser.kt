@@ -23,12 +23,14 @@ import me.ahoo.wow.messaging.processor.ProcessorMetadataParser
 /**
  * Parser for extracting metadata from projection processors.
  * This parser identifies functions annotated with [OnEvent] or [OnStateEvent] annotations
- * to create processor metadata for domain event handling in projections.
+ * to create processor metadata for domain event handling in projections. Projection processors are
+ * the only processors that may declare [me.ahoo.wow.api.annotation.BatchProjection] functions.
  *
  * @property condition The condition used to filter functions based on annotations.
  */
 object ProjectionProcessorMetadataParser : ProcessorMetadataParser<DomainEventExchange<*>>(
     MessageAnnotationFunctionCondition(OnEvent::class, OnStateEvent::class),
+    batchSupported = true,
 )
 
 /**
@@ -0,0 +1,210 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.projection.catchup
+
+import io.github.oshai.kotlinlogging.KotlinLogging
+import me.ahoo.wow.api.messaging.function.FunctionKind
+import me.ahoo.wow.api.modeling.NamedAggregate
+import me.ahoo.wow.event.DomainEventExchange
+import me.ahoo.wow.event.DomainEventStream
+import me.ahoo.wow.event.SimpleDomainEventExchange
+import me.ahoo.wow.event.dispatcher.EventHandler
+import me.ahoo.wow.eventsourcing.EventLogRecord
+import me.ahoo.wow.eventsourcing.EventStore
+import me.ahoo.wow.messaging.function.MessageFunction
+import me.ahoo.wow.projection.ProjectionFunctionRegistrar
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import reactor.core.publisher.SignalType
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Rebuilds a projection processor from the event log and hands it over to live consumption.
+ *
+ * The catch-up reads the history of a named aggregate directly from the [EventStore] in batches of
+ * [batchSize] and invokes the processor's event functions off-bus through [eventHandler], applying the
+ * aggregates of a batch with up to [parallelism] in parallel while keeping each aggregate in version order.
+ * Live consumption keeps running meanwhile; the [ProjectionCatchUpFilter] and the shared
+ * [ProjectionWatermarks] make sure each event stream is applied exactly once by either side. Streams that
+ * live consumption skipped while the replay ran but the replay never read, because they were younger than the
+ * event log safety lag, are loaded from the [EventStore] and applied before the next live stream of their
+ * aggregate.
+ *
+ * State event functions need the aggregate state at each version and are not replayed.
+ *
+ * The watermarks and the [registry] live in the memory of this instance, so the catch-up is limited to
+ * single-instance deployments: live consumers of the processor on other instances are not gated and would
+ * apply the replayed streams a second time, and a restart loses the resume position and the marks.
+ *
+ * @param eventHandler handler of the replayed exchanges. It must propagate errors so that a failed catch-up
+ * stops at the last fully applied position instead of skipping events.
+ */
+class ProjectionCatchUp(
+    private val eventStore: EventStore,
+    private val functionRegistrar: ProjectionFunctionRegistrar,
+    private val eventHandler: EventHandler,
+    private val registry: ProjectionCatchUpRegistry,
+    private val batchSize: Int = DEFAULT_BATCH_SIZE,
+    private val parallelism: Int = DEFAULT_PARALLELISM
+) {
+    companion object {
+        private val log = KotlinLogging.logger {}
+        const val DEFAULT_BATCH_SIZE = 1000
+        const val DEFAULT_PARALLELISM = 16
+    }
+
+    init {
+        require(batchSize > 0) { "batchSize must be greater than 0." }
+        require(parallelism > 0) { "parallelism must be greater than 0." }
+    }
+
+    /**
+     * Replays the event log of [namedAggregate] into the processor named [processorName].
+     *
+     * Re-running a failed catch-up resumes from [ProjectionWatermarks.position] with the marks already recorded.
+     *
+     * @param fromPosition the log position to start after, defaulting to the position a previous failed run
+     * stopped at, or the head of the log
+     */
+    fun catchUp(
+        processorName: String,
+        namedAggregate: NamedAggregate,
+        fromPosition: String? = null
+    ): Mono<ProjectionCatchUpResult> =
+        Mono.defer {
+            val functions = functionRegistrar.functions.filter {
+                it.processorName == processorName &&
+                    it.functionKind == FunctionKind.EVENT &&
+                    it.supportedTopics.any { topic -> topic.isSameAggregateName(namedAggregate) }
+            }
+            require(functions.isNotEmpty()) {
+                "No event function of processor [$processorName] supports $namedAggregate."
+            }
+            val watermarks = registry.register(functions.first().contextName, processorName, namedAggregate)
+            check(!watermarks.completed) { "Catch-up of [$processorName] on $namedAggregate is completed." }
+            watermarks.gapFiller = { aggregateId, headVersion, tailVersion ->
+                eventStore.load(aggregateId, headVersion, tailVersion)
+                    .concatMap { applyEvents(it, functions) }
+                    .then()
+            }
+            replay(namedAggregate, functions, watermarks, fromPosition ?: watermarks.position)
+        }
+
+    private fun replay(
+        namedAggregate: NamedAggregate,
+        functions: List<MessageFunction<Any, DomainEventExchange<*>, Mono<*>>>,
+        watermarks: ProjectionWatermarks,
+        fromPosition: String
+    ): Mono<ProjectionCatchUpResult> {
+        val startTime = System.nanoTime()
+        val applied = AtomicLong()
+        val skipped = AtomicLong()
+        return readBatch(namedAggregate, fromPosition)
+            .expand { records ->
+                if (records.isEmpty()) {
+                    Mono.empty()
+                } else {
+                    readBatch(namedAggregate, records.last().position)
+                }
+            }.concatMap { records ->
+                applyBatch(records, functions, watermarks, applied, skipped).doOnSuccess {
+                    if (records.isNotEmpty()) {
+                        watermarks.position = records.last().position
+                    }
+                }
+            }.then(
+                Mono.fromCallable {
+                    watermarks.complete()
+                    ProjectionCatchUpResult(
+                        processorName = watermarks.processorName,
+                        namedAggregate = watermarks.namedAggregate,
+                        position = watermarks.position,
+                        appliedStreams = applied.get(),
+                        skippedStreams = skipped.get(),
+                        elapsed = Duration.ofNanos(System.nanoTime() - startTime),
+                    )
+                }
+            ).doOnSuccess {
+                log.info { "Projection catch-up completed: $it." }
+            }.doOnError {
+                log.error(it) {
+                    "Projection catch-up of [${watermarks.processorName}] on ${watermarks.namedAggregate} " +
+                        "failed after position [${watermarks.position}]."
+                }
+            }
+    }
+
+    private fun readBatch(namedAggregate: NamedAggregate, fromPosition: String): Mono<List<EventLogRecord>> =
+        eventStore.readAll(namedAggregate, fromPosition, batchSize).collectList()
+
+    private fun applyBatch(
+        records: List<EventLogRecord>,
+        functions: List<MessageFunction<Any, DomainEventExchange<*>, Mono<*>>>,
+        watermarks: ProjectionWatermarks,
+        applied: AtomicLong,
+        skipped: AtomicLong
+    ): Mono<Void> =
+        Flux.fromIterable(records.groupBy { it.eventStream.aggregateId }.values)
+            .flatMap({ aggregateRecords ->
+                Flux.fromIterable(aggregateRecords).concatMap {
+                    applyStream(it.eventStream, functions, watermarks).doOnNext { claimed ->
+                        if (claimed) applied.incrementAndGet() else skipped.incrementAndGet()
+                    }
+                }
+            }, parallelism)
+            .then()
+
+    private fun applyStream(
+        eventStream: DomainEventStream,
+        functions: List<MessageFunction<Any, DomainEventExchange<*>, Mono<*>>>,
+        watermarks: ProjectionWatermarks
+    ): Mono<Boolean> {
+        val aggregateId = eventStream.aggregateId
+        if (!watermarks.claimReplay(aggregateId, eventStream.version)) {
+            return Mono.just(false)
+        }
+        return applyEvents(eventStream, functions)
+            .then(Mono.just(true))
+            .doFinally {
+                watermarks.releaseReplay(aggregateId, applied = it == SignalType.ON_COMPLETE)
+            }
+    }
+
+    private fun applyEvents(
+        eventStream: DomainEventStream,
+        functions: List<MessageFunction<Any, DomainEventExchange<*>, Mono<*>>>
+    ): Mono<Void> =
+        Flux.fromIterable(eventStream)
+            .concatMap { event ->
+                Flux.fromIterable(functions.filter { it.supportMessage(event) })
+                    .concatMap { eventHandler.handle(SimpleDomainEventExchange(event).setFunction(it)) }
+            }.then()
+}
+
+/**
+ * Outcome of a completed [ProjectionCatchUp.catchUp].
+ *
+ * @property position the position of the last log record read
+ * @property appliedStreams the event streams applied by the catch-up
+ * @property skippedStreams the event streams left to live consumption or already applied
+ */
+data class ProjectionCatchUpResult(
+    val processorName: String,
+    val namedAggregate: NamedAggregate,
+    val position: String,
+    val appliedStreams: Long,
+    val skippedStreams: Long,
+    val elapsed: Duration
+)
@@ -0,0 +1,74 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.projection.catchup
+
+import io.github.oshai.kotlinlogging.KotlinLogging
+import me.ahoo.wow.api.annotation.Order
+import me.ahoo.wow.api.messaging.function.FunctionKind
+import me.ahoo.wow.event.DomainEventExchange
+import me.ahoo.wow.filter.FilterChain
+import me.ahoo.wow.filter.FilterType
+import me.ahoo.wow.messaging.handler.ExchangeFilter
+import me.ahoo.wow.projection.ProjectionDispatcher
+import me.ahoo.wow.projection.ProjectionFunctionFilter
+import reactor.core.publisher.Mono
+
+/**
+ * Gates live projection consumption of processors that are catching up, see [ProjectionWatermarks].
+ *
+ * Exchanges of other processors, and of state event functions which the catch-up does not replay, pass
+ * through unchanged.
+ */
+@FilterType(ProjectionDispatcher::class)
+@Order(before = [ProjectionFunctionFilter::class])
+class ProjectionCatchUpFilter(
+    private val registry: ProjectionCatchUpRegistry
+) : ExchangeFilter<DomainEventExchange<*>> {
+    companion object {
+        private val log = KotlinLogging.logger {}
+    }
+
+    override fun filter(
+        exchange: DomainEventExchange<*>,
+        next: FilterChain<DomainEventExchange<*>>
+    ): Mono<Void> {
+        val function = exchange.getEventFunction()
+        if (function == null || function.functionKind != FunctionKind.EVENT) {
+            return next.filter(exchange)
+        }
+        val event = exchange.message
+        val watermarks = registry.get(function.contextName, function.processorName, event.aggregateId)
+            ?: return next.filter(exchange)
+        return when (val claim = watermarks.claimLive(event.aggregateId, event.version)) {
+            ProjectionWatermarks.ClaimResult.Claimed -> next.filter(exchange)
+            is ProjectionWatermarks.ClaimResult.Gap -> {
+                log.warn {
+                    "Live projection [${function.qualifiedName}] applies ${event.aggregateId} from version " +
+                        "${claim.headVersion} to ${event.version - 1} from the event store before version " +
+                        "${event.version}."
+                }
+                watermarks.fillGap(event.aggregateId, claim.headVersion, event.version - 1)
+                    .then(next.filter(exchange))
+            }
+
+            ProjectionWatermarks.ClaimResult.Skipped -> {
+                log.debug {
+                    "Live projection [${function.qualifiedName}] skips ${event.aggregateId} at version " +
+                        "${event.version}, owned by catch-up."
+                }
+                Mono.empty()
+            }
+        }
+    }
+}
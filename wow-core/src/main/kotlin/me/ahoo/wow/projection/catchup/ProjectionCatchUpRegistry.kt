@@ -0,0 +1,60 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.projection.catchup
+
+import me.ahoo.wow.api.modeling.NamedAggregate
+import me.ahoo.wow.modeling.MaterializedNamedAggregate
+import me.ahoo.wow.modeling.materialize
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Registry of the [ProjectionWatermarks] of the catch-ups started on this instance.
+ *
+ * The [ProjectionCatchUpFilter] only gates live consumption of processors registered here. Nothing is shared
+ * with other instances or persisted, see [ProjectionCatchUp] for the single-instance restriction.
+ */
+class ProjectionCatchUpRegistry {
+    private val catchUps = ConcurrentHashMap<CatchUpKey, ProjectionWatermarks>()
+
+    /**
+     * Returns the watermarks of an unfinished catch-up, so a failed catch-up resumes with the marks it already
+     * recorded, or registers new ones.
+     */
+    fun register(contextName: String, processorName: String, namedAggregate: NamedAggregate): ProjectionWatermarks {
+        val key = CatchUpKey(contextName, processorName, namedAggregate.materialize())
+        return catchUps.compute(key) { _, current ->
+            if (current == null || current.completed) {
+                ProjectionWatermarks(contextName, processorName, key.namedAggregate)
+            } else {
+                current
+            }
+        }!!
+    }
+
+    fun get(contextName: String, processorName: String, namedAggregate: NamedAggregate): ProjectionWatermarks? =
+        catchUps[CatchUpKey(contextName, processorName, namedAggregate.materialize())]
+
+    /**
+     * Stops gating live consumption of the processor, e.g. once live consumption is known to be past
+     * every replayed version.
+     */
+    fun remove(contextName: String, processorName: String, namedAggregate: NamedAggregate): ProjectionWatermarks? =
+        catchUps.remove(CatchUpKey(contextName, processorName, namedAggregate.materialize()))
+
+    private data class CatchUpKey(
+        val contextName: String,
+        val processorName: String,
+        val namedAggregate: MaterializedNamedAggregate
+    )
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.projection.catchup
+
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.api.modeling.NamedAggregate
+import me.ahoo.wow.eventsourcing.EventLogReader
+import reactor.core.publisher.Mono
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Per-aggregate high-water marks of one projection processor catching up on one named aggregate.
+ *
+ * The marks are shared by the [ProjectionCatchUp] replaying history and the [ProjectionCatchUpFilter]
+ * gating live consumption, and decide which side applies each event stream:
+ * - an aggregate first seen by the replay is owned by the replay until live consumption reaches the version
+ *   right after its mark, at which point ownership moves to live consumption;
+ * - an aggregate first seen live (because it was created after the replay started) is owned by live
+ *   consumption and skipped by the replay.
+ *
+ * A stream is applied by exactly one side and only if its version is above the mark, so the handover has
+ * no duplicates as long as the live bus delivers streams at least once and every live consumer of the processor
+ * runs in this instance. The replay only reads streams older than the event log safety lag, so live consumption
+ * may skip streams the replay never reads; the first live stream after such a gap has the missing versions
+ * applied first, see [ClaimResult.Gap]. The marks are held in memory only.
+ */
+class ProjectionWatermarks(
+    val contextName: String,
+    val processorName: String,
+    val namedAggregate: NamedAggregate
+) {
+    private val marks = ConcurrentHashMap<AggregateId, Watermark>()
+
+    /**
+     * Whether the replay has read the log to its end.
+     */
+    @Volatile
+    var completed: Boolean = false
+        private set
+
+    /**
+     * Position of the last log record fully applied by the replay, to resume from after a failure.
+     */
+    @Volatile
+    var position: String = EventLogReader.HEAD_POSITION
+        internal set
+
+    /**
+     * The highest version applied for [aggregateId], or `0` if none.
+     */
+    fun version(aggregateId: AggregateId): Int = marks[aggregateId]?.version ?: 0
+
+    /**
+     * Applies the streams of an aggregate between two versions, inclusive, as the replay does. Set by the
+     * [ProjectionCatchUp] running on these marks.
+     */
+    @Volatile
+    internal var gapFiller: (AggregateId, headVersion: Int, tailVersion: Int) -> Mono<Void> = { _, _, _ ->
+        Mono.empty()
+    }
+
+    internal fun complete() {
+        completed = true
+    }
+
+    /**
+     * Applies the streams of [aggregateId] from [headVersion] to [tailVersion] that live consumption skipped
+     * and the replay never read, see [ClaimResult.Gap].
+     */
+    internal fun fillGap(aggregateId: AggregateId, headVersion: Int, tailVersion: Int): Mono<Void> =
+        gapFiller(aggregateId, headVersion, tailVersion)
+
+    /**
+     * Claims the stream of [aggregateId] at [version] for the replay.
+     *
+     * @return `true` if the replay must apply the stream, in which case [releaseReplay] must follow
+     */
+    internal fun claimReplay(aggregateId: AggregateId, version: Int): Boolean {
+        var claimed = false
+        marks.compute(aggregateId) { _, current ->
+            if (current != null && (current.live || version <= current.version)) {
+                return@compute current
+            }
+            claimed = true
+            Watermark(version = current?.version ?: 0, live = false, replaying = version)
+        }
+        return claimed
+    }
+
+    /**
+     * Ends the replay of the stream claimed by [claimReplay], raising the mark only if it was [applied] so that a
+     * resumed catch-up applies a failed stream again.
+     */
+    internal fun releaseReplay(aggregateId: AggregateId, applied: Boolean) {
+        marks.computeIfPresent(aggregateId) { _, current ->
+            val replaying = current.replaying ?: return@computeIfPresent current
+            if (applied) {
+                Watermark(version = replaying, live = false, replaying = null)
+            } else {
+                current.copy(replaying = null)
+            }
+        }
+    }
+
+    /**
+     * Claims the stream of [aggregateId] at [version] for live consumption.
+     *
+     * Every event of a stream carries the stream version, so the events of a stream already claimed live pass
+     * as well. A stream the replay has not reached yet is skipped while the replay runs, since the replay reads
+     * it from the event store.
+     *
+     * A skipped aggregate the replay has not seen yet is marked at version `0`, so that once the replay has
+     * completed, the versions it never read are filled in. Other aggregates the replay never saw are not
+     * tracked any more after it completed.
+     *
+     * @return whether live consumption must apply the event
+     */
+    internal fun claimLive(aggregateId: AggregateId, version: Int): ClaimResult {
+        var result: ClaimResult = ClaimResult.Skipped
+        marks.compute(aggregateId) { _, current ->
+            when {
+                current == null -> {
+                    if (completed) {
+                        // Never replayed nor skipped, nothing left to deduplicate against.
+                        result = ClaimResult.Claimed
+                        return@compute null
+                    }
+                    if (version != 1) {
+                        return@compute Watermark(version = 0, live = false, replaying = null)
+                    }
+                    result = ClaimResult.Claimed
+                    Watermark(version = version, live = true, replaying = null)
+                }
+
+                current.live && version == current.version -> {
+                    result = ClaimResult.Claimed
+                    current
+                }
+
+                version <= current.version -> current
+
+                version == current.version + 1 && current.replaying == null -> {
+                    result = ClaimResult.Claimed
+                    Watermark(version = version, live = true, replaying = null)
+                }
+
+                completed && current.replaying == null -> {
+                    result = ClaimResult.Gap(headVersion = current.version + 1)
+                    Watermark(version = version, live = true, replaying = null)
+                }
+
+                else -> current
+            }
+        }
+        return result
+    }
+
+    internal sealed interface ClaimResult {
+        data object Claimed : ClaimResult
+
+        /**
+         * Claimed although the versions from [headVersion] up to the stream were never applied, which
+         * [fillGap] must apply first.
+         */
+        data class Gap(val headVersion: Int) : ClaimResult
+
+        data object Skipped : ClaimResult
+    }
+
+    /**
+     * @property version the highest version applied
+     * @property live whether live consumption owns the aggregate
+     * @property replaying the version of the stream being applied by the replay, if any
+     */
+    private data class Watermark(
+        val version: Int,
+        val live: Boolean,
+        val replaying: Int?
+    )
+}
@@ -35,16 +35,29 @@ import reactor.kotlin.core.publisher.toMono
  * This function wraps a delegate message function and extends its behavior to handle command execution
  * and collection into a [CommandStream] for stateless saga processing.
  *
+ * Commands are sent one at a time by default. With a [sendParallelism] greater than one, commands are
+ * grouped by target aggregate: groups are sent concurrently up to [sendParallelism], while the commands
+ * of one aggregate keep their order. The request ids stay derived from the command index, so a replayed
+ * event still produces the same idempotency keys.
+ *
  * @param delegate The underlying message function that handles the domain event processing.
  * @param commandGateway The gateway used to send commands.
  * @param commandMessageFactory The factory for creating command messages.
+ * @param sendParallelism The maximum number of target aggregates sent to concurrently.
  */
 class StatelessSagaFunction(
     override val delegate: MessageFunction<Any, DomainEventExchange<*>, Mono<*>>,
     private val commandGateway: CommandGateway,
-    private val commandMessageFactory: CommandMessageFactory
+    private val commandMessageFactory: CommandMessageFactory,
+    private val sendParallelism: Int = DEFAULT_SEND_PARALLELISM
 ) : MessageFunction<Any, DomainEventExchange<*>, Mono<CommandStream>>,
     Decorator<MessageFunction<Any, DomainEventExchange<*>, Mono<*>>> {
+    init {
+        require(sendParallelism > 0) {
+            "sendParallelism must be greater than zero."
+        }
+    }
+
     override val contextName: String = delegate.contextName
     override val name: String = delegate.name
     override val processor: Any = delegate.processor
@@ -54,19 +67,48 @@ class StatelessSagaFunction(
 
     override fun <A : Annotation> getAnnotation(annotationClass: Class<A>): A? = delegate.getAnnotation(annotationClass)
 
-    override fun invoke(exchange: DomainEventExchange<*>): Mono<CommandStream> =
-        delegate
+    override fun invoke(exchange: DomainEventExchange<*>): Mono<CommandStream> {
+        if (sendParallelism == 1) {
+            return delegate
+                .invoke(exchange)
+                .flatMapMany {
+                    toCommandFlux(exchange.message, it)
+                }.concatMap {
+                    commandGateway.send(it).thenReturn(it)
+                }.collectList()
+                .toCommandStream(exchange)
+        }
+        return delegate
             .invoke(exchange)
             .flatMapMany {
                 toCommandFlux(exchange.message, it)
-            }.concatMap {
-                commandGateway.send(it).thenReturn(it)
             }.collectList()
-            .map {
-                val commandStream = DefaultCommandStream(exchange.message.id, it)
-                exchange.setCommandStream(commandStream)
-                commandStream
-            }
+            .flatMap { commands ->
+                sendGroupedByAggregate(commands).thenReturn(commands)
+            }.toCommandStream(exchange)
+    }
+
+    private fun sendGroupedByAggregate(commands: List<CommandMessage<*>>): Mono<Void> {
+        if (commands.size <= 1) {
+            return Flux.fromIterable(commands)
+                .concatMap { commandGateway.send(it) }
+                .then()
+        }
+        val aggregateCommands = commands.groupBy { it.aggregateId }.values
+        return Flux.fromIterable(aggregateCommands)
+            .flatMap({ aggregateCommand ->
+                Flux.fromIterable(aggregateCommand)
+                    .concatMap { commandGateway.send(it) }
+            }, sendParallelism)
+            .then()
+    }
+
+    private fun Mono<List<CommandMessage<*>>>.toCommandStream(exchange: DomainEventExchange<*>): Mono<CommandStream> =
+        map {
+            val commandStream = DefaultCommandStream(exchange.message.id, it)
+            exchange.setCommandStream(commandStream)
+            commandStream
+        }
 
     private fun toCommandFlux(
         domainEvent: DomainEvent<*>,
@@ -78,9 +120,9 @@ class StatelessSagaFunction(
         return Flux
             .fromIterable(handleResult as Iterable<Any>)
             .index()
-            .concatMap {
+            .flatMapSequential({
                 toCommand(domainEvent = domainEvent, singleResult = it.t2, index = it.t1.toInt())
-            }
+            }, sendParallelism)
     }
 
     private fun toCommand(
@@ -106,4 +148,8 @@ class StatelessSagaFunction(
     }
 
     override fun toString(): String = "StatelessSagaFunction(actual=$delegate)"
+
+    companion object {
+        const val DEFAULT_SEND_PARALLELISM = 1
+    }
 }
@@ -29,11 +29,13 @@ import reactor.core.publisher.Mono
  *
  * @param commandGateway The gateway used to send commands generated by saga functions.
  * @param commandMessageFactory The factory for creating command messages.
+ * @param sendParallelism The maximum number of target aggregates each saga function sends to concurrently.
  * @param actual The underlying message function registrar (default: [SimpleMessageFunctionRegistrar]).
  */
 class StatelessSagaFunctionRegistrar(
     private val commandGateway: CommandGateway,
     private val commandMessageFactory: CommandMessageFactory,
+    private val sendParallelism: Int = StatelessSagaFunction.DEFAULT_SEND_PARALLELISM,
     actual: MessageFunctionRegistrar<MessageFunction<Any, DomainEventExchange<*>, Mono<*>>> =
         SimpleMessageFunctionRegistrar()
 ) : AbstractEventFunctionRegistrar(actual) {
@@ -50,6 +52,6 @@ class StatelessSagaFunctionRegistrar(
             .statelessSagaMetadata()
             .toMessageFunctionRegistry(processor)
             .map {
-                StatelessSagaFunction(it, commandGateway, commandMessageFactory)
+                StatelessSagaFunction(it, commandGateway, commandMessageFactory, sendParallelism)
             }.toSet()
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.scheduler
+
+import reactor.core.scheduler.Scheduler
+import reactor.core.scheduler.Schedulers
+
+/**
+ * Creates the scheduler dedicated to one aggregate by [DefaultAggregateSchedulerSupplier].
+ *
+ * Dispatchers subscribe each aggregate group with `publishOn`, which runs the group on a single worker of the
+ * scheduler at a time. Per aggregate ordering therefore holds for every factory; factories only differ in what
+ * a blocking handler costs.
+ */
+fun interface AggregateSchedulerFactory {
+    /**
+     * @param name the scheduler name, `{supplier-name}-{aggregate-name}`.
+     * @param parallelism the parallelism configured on the supplier.
+     */
+    fun create(name: String, parallelism: Int): Scheduler
+
+    companion object {
+        /**
+         * Upper bound of concurrently busy virtual threads per aggregate scheduler.
+         */
+        const val VIRTUAL_THREAD_CAP = 10_000
+        private const val VIRTUAL_THREAD_TTL_SECONDS = 60
+
+        /**
+         * A parallel scheduler with `parallelism` platform threads. Handlers must not block.
+         */
+        val PARALLEL = AggregateSchedulerFactory { name, parallelism ->
+            Schedulers.newParallel(name, parallelism)
+        }
+
+        /**
+         * A bounded elastic scheduler backed by virtual threads, for handlers that call blocking I/O.
+         *
+         * Each active worker owns one virtual thread, so a handler blocked on I/O parks only its own aggregate
+         * group and releases the carrier thread to the other groups. Requires Java 21 or later.
+         */
+        val VIRTUAL_THREAD = AggregateSchedulerFactory { name, _ ->
+            Schedulers.newBoundedElastic(
+                VIRTUAL_THREAD_CAP,
+                Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE,
+                VirtualThreads.threadFactory("$name-"),
+                VIRTUAL_THREAD_TTL_SECONDS,
+            )
+        }
+    }
+}
@@ -68,8 +68,8 @@ interface AggregateSchedulerSupplier : GracefullyStoppable {
 /**
  * Default implementation of AggregateSchedulerSupplier that creates dedicated schedulers for each aggregate.
  *
- * This implementation maintains a cache of schedulers, creating a new parallel scheduler
- * for each unique aggregate on first access. Subsequent requests for the same aggregate
+ * This implementation maintains a cache of schedulers, creating a new scheduler through
+ * [schedulerFactory] for each unique aggregate on first access. Subsequent requests for the same aggregate
  * return the cached scheduler, ensuring consistent thread allocation and resource reuse.
  *
  * The scheduler names follow the pattern "{supplier-name}-{aggregate-name}" for easy
@@ -77,6 +77,7 @@ interface AggregateSchedulerSupplier : GracefullyStoppable {
  *
  * @property name the name of this scheduler supplier, used as a prefix for scheduler names
  * @property parallelism the number of parallel workers used by each aggregate scheduler
+ * @property schedulerFactory creates each aggregate scheduler, parallel platform threads by default
  *
  * Example usage:
  * ```kotlin
@@ -95,11 +96,12 @@ interface AggregateSchedulerSupplier : GracefullyStoppable {
  * ```
  *
  * @see AggregateSchedulerSupplier
- * @see Schedulers.newParallel
+ * @see AggregateSchedulerFactory
  */
 class DefaultAggregateSchedulerSupplier(
     override val name: String,
-    override val parallelism: Int = Schedulers.DEFAULT_POOL_SIZE
+    override val parallelism: Int = Schedulers.DEFAULT_POOL_SIZE,
+    val schedulerFactory: AggregateSchedulerFactory = AggregateSchedulerFactory.PARALLEL
 ) : AggregateSchedulerSupplier,
     ParallelismCapable,
     Named {
@@ -122,7 +124,7 @@ class DefaultAggregateSchedulerSupplier(
             .cache()
 
     /**
-     * Gets the cached scheduler for the aggregate or creates a new parallel scheduler.
+     * Gets the cached scheduler for the aggregate or creates a new one.
      *
      * This method implements lazy initialization with caching. If a scheduler already
      * exists for the given aggregate, it returns the cached instance. Otherwise, it
@@ -137,7 +139,7 @@ class DefaultAggregateSchedulerSupplier(
                 "Aggregate scheduler supplier[$name] has stopped."
             }
             schedulers.getOrPut(namedAggregate.materialize()) {
-                Schedulers.newParallel("$name-${namedAggregate.aggregateName}", parallelism)
+                schedulerFactory.create("$name-${namedAggregate.aggregateName}", parallelism)
             }
         }
 
@@ -0,0 +1,112 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.scheduler
+
+import io.github.oshai.kotlinlogging.KotlinLogging
+import jdk.jfr.consumer.RecordedEvent
+import jdk.jfr.consumer.RecordingStream
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * A virtual thread that stayed pinned to its carrier thread, e.g. by blocking inside `synchronized` or a native
+ * frame, for at least the detector threshold.
+ *
+ * @param threadName the name of the pinned virtual thread.
+ * @param duration how long the virtual thread was pinned.
+ * @param stackTrace the top frames where the virtual thread blocked while pinned.
+ */
+data class VirtualThreadPinning(
+    val threadName: String,
+    val duration: Duration,
+    val stackTrace: List<String>,
+)
+
+/**
+ * Reports virtual threads pinned to their carrier thread, which stalls every aggregate group sharing that carrier.
+ *
+ * Listens to the `jdk.VirtualThreadPinned` JFR event in-process; on runtimes that do not emit it nothing is
+ * reported. Each pinning is logged as a warning and passed to [listener].
+ *
+ * @param threshold pinnings shorter than this are ignored.
+ * @param maxFrames the number of top stack frames kept per pinning.
+ */
+class VirtualThreadPinningDetector(
+    val threshold: Duration = DEFAULT_THRESHOLD,
+    private val maxFrames: Int = DEFAULT_MAX_FRAMES,
+    private val listener: (VirtualThreadPinning) -> Unit = {},
+) : AutoCloseable {
+    companion object {
+        private val log = KotlinLogging.logger {}
+        const val PINNED_EVENT = "jdk.VirtualThreadPinned"
+        val DEFAULT_THRESHOLD: Duration = Duration.ofMillis(20)
+        const val DEFAULT_MAX_FRAMES = 8
+    }
+
+    private val pinned = AtomicLong()
+    private val lifecycleMonitor = Any()
+    private var recordingStream: RecordingStream? = null
+
+    /**
+     * The number of pinnings reported since [start].
+     */
+    val pinnedCount: Long
+        get() = pinned.get()
+
+    fun start() {
+        synchronized(lifecycleMonitor) {
+            if (recordingStream != null) {
+                return
+            }
+            recordingStream = RecordingStream().apply {
+                enable(PINNED_EVENT).withThreshold(threshold).withStackTrace()
+                onEvent(PINNED_EVENT, ::onPinned)
+                startAsync()
+            }
+        }
+    }
+
+    internal fun onPinned(event: RecordedEvent) {
+        val pinning = VirtualThreadPinning(
+            threadName = event.thread?.javaName.orEmpty(),
+            duration = event.duration,
+            stackTrace = event.stackTrace?.frames.orEmpty().take(maxFrames).map {
+                "${it.method.type.name}.${it.method.name}:${it.lineNumber}"
+            },
+        )
+        report(pinning)
+    }
+
+    @Suppress("TooGenericExceptionCaught")
+    internal fun report(pinning: VirtualThreadPinning) {
+        pinned.incrementAndGet()
+        log.warn {
+            "Virtual thread [${pinning.threadName}] was pinned to its carrier " +
+                "for ${pinning.duration.toMillis()}ms at " +
+                pinning.stackTrace.joinToString(separator = " <- ")
+        }
+        try {
+            listener(pinning)
+        } catch (error: RuntimeException) {
+            log.error(error) { "Virtual thread pinning listener failed." }
+        }
+    }
+
+    override fun close() {
+        synchronized(lifecycleMonitor) {
+            recordingStream?.close()
+            recordingStream = null
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.scheduler
+
+import java.lang.reflect.Method
+import java.util.concurrent.ThreadFactory
+
+/**
+ * Access to JDK 21 virtual threads from code compiled for an older release.
+ *
+ * The `Thread.Builder` API is resolved reflectively once; on runtimes without virtual threads [isSupported] is
+ * `false` and [threadFactory] fails.
+ */
+object VirtualThreads {
+    private val ofVirtual: Method? = runCatching {
+        Thread::class.java.getMethod("ofVirtual")
+    }.getOrNull()
+
+    private val builderType: Class<*>? = runCatching {
+        Class.forName("java.lang.Thread\$Builder")
+    }.getOrNull()
+
+    val isSupported: Boolean
+        get() = ofVirtual != null && builderType != null
+
+    /**
+     * Creates a factory of virtual threads named `{prefix}{n}`, counting from zero.
+     */
+    fun threadFactory(prefix: String): ThreadFactory {
+        val ofVirtual = checkNotNull(ofVirtual) {
+            "Virtual threads require Java 21 or later, current runtime is ${Runtime.version()}."
+        }
+        val builderType = checkNotNull(builderType)
+        val builder = ofVirtual.invoke(null)
+        builderType.getMethod("name", String::class.java, Long::class.javaPrimitiveType)
+            .invoke(builder, prefix, 0L)
+        return builderType.getMethod("factory").invoke(builder) as ThreadFactory
+    }
+}
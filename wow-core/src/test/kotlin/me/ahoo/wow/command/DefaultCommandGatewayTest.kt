@@ -16,6 +16,10 @@ package me.ahoo.wow.command
 import me.ahoo.test.asserts.assert
 import me.ahoo.wow.api.command.CommandMessage
 import me.ahoo.wow.api.command.validation.CommandValidator
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.command.admission.CommandAdmission
+import me.ahoo.wow.command.admission.CommandRateLimitScope
+import me.ahoo.wow.command.admission.CommandRateLimitedException
 import me.ahoo.wow.command.validation.NoOpValidator
 import me.ahoo.wow.command.wait.CommandStage
 import me.ahoo.wow.command.wait.CommandWait
@@ -45,6 +49,9 @@ import me.ahoo.wow.infra.idempotency.AggregateIdempotencyCheckerProvider
 import me.ahoo.wow.infra.idempotency.IdempotencyChecker
 import me.ahoo.wow.infra.idempotency.NoOpIdempotencyChecker
 import me.ahoo.wow.messaging.MessageSubscription
+import me.ahoo.wow.modeling.aggregateId
+import me.ahoo.wow.modeling.state.AggregatePrefetcher
+import me.ahoo.wow.tck.mock.MOCK_AGGREGATE_METADATA
 import org.junit.jupiter.api.Test
 import reactor.core.publisher.Flux
 import reactor.core.publisher.Mono
@@ -68,6 +75,33 @@ class DefaultCommandGatewayTest {
         commandBus.sent.assert().isEmpty()
     }
 
+    @Test
+    fun `send rejects commands beyond the admission limit before idempotency checks`() {
+        val commandBus = RecordingCommandBus()
+        val idempotencyChecks = AtomicInteger()
+        val command = TestCommandMessage(id = "rate-limited-command")
+        val gateway = commandGateway(
+            commandBus = commandBus,
+            idempotencyChecker = IdempotencyChecker {
+                idempotencyChecks.incrementAndGet()
+                true
+            },
+            commandAdmission = CommandAdmission {
+                throw CommandRateLimitedException(it.aggregateId, CommandRateLimitScope.TENANT)
+            },
+        )
+
+        StepVerifier.create(gateway.send(command))
+            .expectErrorSatisfies {
+                it.assert().isInstanceOf(CommandRateLimitedException::class.java)
+                (it as CommandRateLimitedException).errorCode.assert().isEqualTo(ErrorCodes.TOO_MANY_REQUESTS)
+            }
+            .verify()
+
+        idempotencyChecks.get().assert().isZero()
+        commandBus.sent.assert().isEmpty()
+    }
+
     @Test
     fun `send continues when idempotency precheck rejects but event store has no request id`() {
         val commandBus = RecordingCommandBus()
@@ -568,6 +602,40 @@ class DefaultCommandGatewayTest {
         waitCoordinator.contains(waitPlan.waitCommandId).assert().isFalse()
     }
 
+    @Test
+    fun `wait capacity rejection does not consume the request id`() {
+        val seenRequestIds = mutableSetOf<String>()
+        val waitCoordinator = DefaultWaitCoordinator(maxPendingWaits = 1)
+        val gateway = commandGateway(
+            waitCoordinator = waitCoordinator,
+            idempotencyChecker = IdempotencyChecker { seenRequestIds.add(it) },
+        )
+        val command = TestCommandMessage(id = "command-id")
+        val occupied = waitCoordinator.createLast(CommandWait.processed("occupied-wait-command-id"))
+
+        StepVerifier.create(gateway.sendAndWait(command, CommandWait.sent("wait-command-id")))
+            .expectErrorSatisfies {
+                it.assert().isInstanceOf(CommandResultException::class.java)
+                val result = (it as CommandResultException).commandResult
+                result.errorCode.assert().isEqualTo(ErrorCodes.TOO_MANY_REQUESTS)
+                result.waitCommandId.assert().isEqualTo("wait-command-id")
+            }
+            .verify()
+        StepVerifier.create(gateway.sendAndWaitStream(command, CommandWait.sent("wait-command-id")))
+            .expectErrorSatisfies {
+                (it as CommandResultException).commandResult.errorCode.assert()
+                    .isEqualTo(ErrorCodes.TOO_MANY_REQUESTS)
+            }
+            .verify()
+        seenRequestIds.assert().isEmpty()
+
+        occupied.cancel()
+        StepVerifier.create(gateway.sendAndWait(command, CommandWait.sent("wait-command-id")))
+            .expectNextMatches { it.stage == CommandStage.SENT }
+            .verifyComplete()
+        seenRequestIds.assert().containsExactly(command.requestId)
+    }
+
     @Test
     fun `send and wait stream maps command bus errors to command result exception and unregisters`() {
         val commandBus = RecordingCommandBus().apply {
@@ -700,6 +768,35 @@ class DefaultCommandGatewayTest {
         waitCoordinator.contains("wait-command-id").assert().isFalse()
     }
 
+    @Test
+    fun `send prefetches the target aggregate of local-first commands`() {
+        val prefetched = mutableListOf<AggregateId>()
+        val gateway = commandGateway(aggregatePrefetcher = AggregatePrefetcher { prefetched.add(it) })
+        val command = TestCommandMessage(aggregateId = MOCK_AGGREGATE_METADATA.aggregateId("prefetch-aggregate"))
+
+        StepVerifier.create(gateway.send(command))
+            .verifyComplete()
+
+        prefetched.assert().containsExactly(command.aggregateId)
+    }
+
+    @Test
+    fun `send skips prefetch for create and remote commands`() {
+        val prefetched = mutableListOf<AggregateId>()
+        val gateway = commandGateway(aggregatePrefetcher = AggregatePrefetcher { prefetched.add(it) })
+        val createCommand = TestCommandMessage(
+            aggregateId = MOCK_AGGREGATE_METADATA.aggregateId("prefetch-aggregate"),
+            isCreate = true,
+        )
+
+        StepVerifier.create(gateway.send(createCommand))
+            .verifyComplete()
+        StepVerifier.create(gateway.send(TestCommandMessage()))
+            .verifyComplete()
+
+        prefetched.assert().isEmpty()
+    }
+
     private fun commandGateway(
         commandBus: RecordingCommandBus = RecordingCommandBus(),
         idempotencyChecker: IdempotencyChecker = NoOpIdempotencyChecker,
@@ -711,6 +808,8 @@ class DefaultCommandGatewayTest {
             idempotencyCheckerProvider = AggregateIdempotencyCheckerProvider { idempotencyChecker },
             requestIdExistenceChecker = requestIdExistenceChecker,
         ),
+        aggregatePrefetcher: AggregatePrefetcher = AggregatePrefetcher.NONE,
+        commandAdmission: CommandAdmission = CommandAdmission.NONE,
     ): DefaultCommandGateway =
         DefaultCommandGateway(
             commandWaitEndpoint = SimpleCommandWaitEndpoint("test-command-wait-endpoint"),
@@ -719,6 +818,8 @@ class DefaultCommandGatewayTest {
             requestIdChecker = requestIdChecker,
             waitCoordinator = waitCoordinator,
             commandWaitNotifier = notifier,
+            aggregatePrefetcher = aggregatePrefetcher,
+            commandAdmission = commandAdmission,
         )
 }
 
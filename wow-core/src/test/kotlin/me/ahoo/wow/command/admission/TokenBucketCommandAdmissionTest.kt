@@ -0,0 +1,170 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.command.admission
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import me.ahoo.test.asserts.assert
+import me.ahoo.test.asserts.assertThrownBy
+import me.ahoo.wow.command.wait.TestCommandMessage
+import me.ahoo.wow.exception.ErrorCodes
+import me.ahoo.wow.metrics.WowMetrics
+import me.ahoo.wow.modeling.MaterializedNamedAggregate
+import me.ahoo.wow.modeling.aggregateId
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.time.Duration
+
+class TokenBucketCommandAdmissionTest {
+    private var now = 0L
+    private val order = MaterializedNamedAggregate("sales", "Order")
+    private val cart = MaterializedNamedAggregate("sales", "Cart")
+
+    private fun command(tenantId: String, aggregate: MaterializedNamedAggregate = order) =
+        TestCommandMessage(aggregateId = aggregate.aggregateId(tenantId = tenantId))
+
+    private fun admission(limits: TenantCommandRateLimits, metrics: WowMetrics = WowMetrics.NONE) =
+        TokenBucketCommandAdmission(limits, metrics) { now }
+
+    @Test
+    fun `should reject a tenant beyond its burst without affecting other tenants`() {
+        val admission = admission(TenantCommandRateLimits(tenant = CommandRateLimit(1.0, burst = 2)))
+
+        repeat(2) { admission.admit(command("noisy")) }
+        val error = assertThrows<CommandRateLimitedException> {
+            admission.admit(command("noisy"))
+        }
+        error.scope.assert().isEqualTo(CommandRateLimitScope.TENANT)
+        error.errorCode.assert().isEqualTo(ErrorCodes.TOO_MANY_REQUESTS)
+        admission.admit(command("quiet"))
+    }
+
+    @Test
+    fun `should refill permits over time`() {
+        val admission = admission(TenantCommandRateLimits(tenant = CommandRateLimit(2.0, burst = 1)))
+
+        admission.admit(command("tenant"))
+        assertThrownBy<CommandRateLimitedException> {
+            admission.admit(command("tenant"))
+        }
+        now += Duration.ofMillis(500).toNanos()
+        admission.admit(command("tenant"))
+    }
+
+    @Test
+    fun `should limit each aggregate type and return the tenant permit`() {
+        val admission = admission(
+            TenantCommandRateLimits(
+                tenant = CommandRateLimit(1.0, burst = 2),
+                aggregate = CommandRateLimit(1.0, burst = 1),
+            ),
+        )
+
+        admission.admit(command("tenant", order))
+        assertThrows<CommandRateLimitedException> {
+            admission.admit(command("tenant", order))
+        }.scope.assert().isEqualTo(CommandRateLimitScope.AGGREGATE)
+        admission.admit(command("tenant", cart))
+    }
+
+    @Test
+    fun `should scale limits by tenant weight`() {
+        val admission = admission(
+            TenantCommandRateLimits(
+                tenant = CommandRateLimit(1.0, burst = 1),
+                tenantWeights = mapOf("premium" to 3),
+            ),
+        )
+
+        repeat(3) { admission.admit(command("premium")) }
+        assertThrownBy<CommandRateLimitedException> {
+            admission.admit(command("premium"))
+        }
+    }
+
+    @Test
+    fun `should share one bucket among untracked tenants once every bucket is in use`() {
+        val admission = admission(
+            TenantCommandRateLimits(
+                tenant = CommandRateLimit(1.0, burst = 1),
+                maxTrackedBuckets = 1,
+            ),
+        )
+
+        admission.admit(command("first"))
+        admission.admit(command("second"))
+        assertThrownBy<CommandRateLimitedException> {
+            admission.admit(command("third"))
+        }
+        assertThrownBy<CommandRateLimitedException> {
+            admission.admit(command("first"))
+        }
+    }
+
+    @Test
+    fun `should evict the least recently used bucket once it has refilled`() {
+        val admission = admission(
+            TenantCommandRateLimits(
+                tenant = CommandRateLimit(1.0, burst = 1),
+                maxTrackedBuckets = 2,
+            ),
+        )
+
+        admission.admit(command("first"))
+        now += Duration.ofMillis(500).toNanos()
+        admission.admit(command("second"))
+        now += Duration.ofMillis(600).toNanos()
+        admission.admit(command("third"))
+        assertThrownBy<CommandRateLimitedException> {
+            admission.admit(command("third"))
+        }
+        assertThrownBy<CommandRateLimitedException> {
+            admission.admit(command("second"))
+        }
+    }
+
+    @Test
+    fun `should count rejections by scope and aggregate`() {
+        val registry = SimpleMeterRegistry()
+        val admission = admission(
+            TenantCommandRateLimits(tenant = CommandRateLimit(1.0, burst = 1)),
+            WowMetrics(registry),
+        )
+
+        admission.admit(command("tenant"))
+        repeat(2) {
+            assertThrownBy<CommandRateLimitedException> {
+                admission.admit(command("tenant"))
+            }
+        }
+
+        val counter = registry.find("wow.command.admission.rejected")
+            .tag("scope", "tenant")
+            .tag("aggregate", "Order")
+            .counter()
+        requireNotNull(counter).count().assert().isEqualTo(2.0)
+    }
+
+    @Test
+    fun `should reject invalid limits`() {
+        assertThrownBy<IllegalArgumentException> {
+            CommandRateLimit(0.0, burst = 1)
+        }
+        assertThrownBy<IllegalArgumentException> {
+            CommandRateLimit(1.0, burst = 0)
+        }
+        assertThrownBy<IllegalArgumentException> {
+            TenantCommandRateLimits(tenantWeights = mapOf("tenant" to 0))
+        }
+    }
+}
@@ -36,6 +36,28 @@ class MonoCommandWaitNotifierTest {
         notifier.notifications.assert().isEmpty()
     }
 
+    @Test
+    fun `source completion records stage latency without a wait plan`() {
+        val notifier = RecordingCommandWaitNotifier()
+        val exchange = testCommandExchange()
+        exchange.message.header.clear()
+        exchange.setFunction(testFunction(kind = FunctionKind.COMMAND))
+        val recorded = mutableListOf<CommandStage>()
+        val recorder = CommandStageLatencyRecorder { stage, aggregate, _, succeeded, previousStageTime, _ ->
+            aggregate.assert().isEqualTo(exchange.message.aggregateId)
+            succeeded.assert().isTrue()
+            previousStageTime.assert().isEqualTo(exchange.message.createTime)
+            recorded.add(stage)
+        }
+
+        StepVerifier.create(
+            Mono.empty<Void>().thenNotifyAndForget(notifier, CommandStage.PROCESSED, exchange, recorder)
+        ).verifyComplete()
+
+        recorded.assert().containsExactly(CommandStage.PROCESSED)
+        notifier.notifications.assert().isEmpty()
+    }
+
     @Test
     fun `source completion emits matching wait signal`() {
         val waitCommandId = "wait-command-id"
@@ -15,6 +15,7 @@ package me.ahoo.wow.command.wait
 
 import me.ahoo.test.asserts.assert
 import me.ahoo.wow.command.ServerCommandExchange
+import me.ahoo.wow.command.SimpleServerCommandExchange
 import me.ahoo.wow.filter.FilterChain
 import org.junit.jupiter.api.Test
 import reactor.core.publisher.Mono
@@ -35,4 +36,41 @@ class ProcessedNotifierFilterTest {
         notifier.notifications.assert().hasSize(1)
         notifier.notifications.single().signal.stage.assert().isEqualTo(CommandStage.PROCESSED)
     }
+
+    @Test
+    fun `filter records processed stage latency from command create time`() {
+        val recorded = mutableListOf<Pair<WaitSignal, Long>>()
+        val filter = ProcessedNotifierFilter(RecordingCommandWaitNotifier()) { signal, previousStageTime ->
+            recorded += signal to previousStageTime
+        }
+        val exchange = testCommandExchange(stage = CommandStage.PROCESSED)
+        val chain = FilterChain<ServerCommandExchange<*>> { Mono.empty() }
+
+        StepVerifier.create(filter.filter(exchange, chain))
+            .verifyComplete()
+
+        recorded.assert().hasSize(1)
+        val (signal, previousStageTime) = recorded.single()
+        signal.stage.assert().isEqualTo(CommandStage.PROCESSED)
+        previousStageTime.assert().isEqualTo(exchange.message.createTime)
+    }
+
+    @Test
+    fun `filter records latency of commands without a wait plan without notifying`() {
+        val notifier = RecordingCommandWaitNotifier()
+        val recorded = mutableListOf<WaitSignal>()
+        val filter = ProcessedNotifierFilter(notifier) { signal, _ ->
+            recorded += signal
+        }
+        val exchange = SimpleServerCommandExchange(TestCommandMessage(id = "fire-and-forget"))
+        val chain = FilterChain<ServerCommandExchange<*>> { Mono.empty() }
+
+        StepVerifier.create(filter.filter(exchange, chain))
+            .verifyComplete()
+
+        recorded.assert().hasSize(1)
+        recorded.single().stage.assert().isEqualTo(CommandStage.PROCESSED)
+        recorded.single().commandId.assert().isEqualTo("fire-and-forget")
+        notifier.notifications.assert().isEmpty()
+    }
 }
@@ -135,4 +135,52 @@ class WaitCoordinatorTest {
         coordinator.createStream(CommandWait.processed("wait-id"))
         coordinator.contains("wait-id").assert().isTrue()
     }
+
+    @Test
+    fun registrationBeyondCapacityIsRejected() {
+        val coordinator = DefaultWaitCoordinator(maxPendingWaits = 1)
+        val handle = coordinator.createLast(CommandWait.processed("wait-id"))
+
+        val error = assertThrows<WaitCapacityExceededException> {
+            coordinator.createStream(CommandWait.processed("other-wait-id"))
+        }
+
+        error.maxPendingWaits.assert().isEqualTo(1)
+        coordinator.contains("other-wait-id").assert().isFalse()
+        coordinator.pendingWaits.assert().isEqualTo(1)
+        handle.cancel()
+        coordinator.pendingWaits.assert().isZero()
+        coordinator.createStream(CommandWait.processed("other-wait-id"))
+        coordinator.contains("other-wait-id").assert().isTrue()
+    }
+
+    @Test
+    fun duplicateRegistrationReleasesCapacity() {
+        val coordinator = DefaultWaitCoordinator(maxPendingWaits = 2)
+
+        coordinator.createLast(CommandWait.processed("wait-id"))
+        assertThrows<IllegalArgumentException> {
+            coordinator.createLast(CommandWait.processed("wait-id"))
+        }
+
+        coordinator.pendingWaits.assert().isEqualTo(1)
+    }
+
+    @Test
+    fun waitsAreDispatchedAcrossStripes() {
+        val coordinator = DefaultWaitCoordinator(stripeCount = 3)
+        val waitCommandIds = (0 until 32).map { "wait-id-$it" }
+        waitCommandIds.forEach {
+            coordinator.createLast(CommandWait.processed(it))
+        }
+
+        coordinator.pendingWaits.assert().isEqualTo(waitCommandIds.size)
+        waitCommandIds.forEach {
+            coordinator.signal(testSignal(CommandStage.PROCESSED, waitCommandId = it)).assert().isTrue()
+        }
+        waitCommandIds.forEach {
+            coordinator.contains(it).assert().isFalse()
+        }
+        coordinator.pendingWaits.assert().isZero()
+    }
 }
@@ -0,0 +1,230 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.event.dispatcher
+
+import io.mockk.mockk
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.api.annotation.BatchProjection
+import me.ahoo.wow.api.annotation.OnEvent
+import me.ahoo.wow.command.toCommandMessage
+import me.ahoo.wow.event.DomainEventStream
+import me.ahoo.wow.event.DomainEventExchange
+import me.ahoo.wow.event.EventStreamExchange
+import me.ahoo.wow.event.toDomainEventStream
+import me.ahoo.wow.filter.FilterChain
+import me.ahoo.wow.id.generateGlobalId
+import me.ahoo.wow.ioc.ServiceProvider
+import me.ahoo.wow.messaging.function.BatchMessageFunction
+import me.ahoo.wow.modeling.materialize
+import me.ahoo.wow.projection.ProjectionFunctionRegistrar
+import me.ahoo.wow.runtime.WowRuntime
+import me.ahoo.wow.tck.mock.MOCK_AGGREGATE_METADATA
+import me.ahoo.wow.tck.mock.MockAggregateCreated
+import me.ahoo.wow.tck.mock.MockCreateAggregate
+import org.junit.jupiter.api.Test
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import reactor.core.scheduler.Schedulers
+import java.time.Duration
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class BatchProjectionDispatchTest {
+    private val namedAggregate = MOCK_AGGREGATE_METADATA.materialize()
+
+    @Test
+    fun `batch function should be invoked once per window in order and ack the window together`() {
+        val projection = BatchFixtureProjection(failures = 0)
+        val result = dispatch(projection, eventCount = 5)
+
+        projection.batches.assert().containsExactly(listOf("0", "1", "2", "3", "4"))
+        result.chainedEvents.assert().containsExactly("0", "1", "2", "3", "4")
+        result.errors.assert().isEmpty()
+    }
+
+    @Test
+    fun `failed window should be retried as a whole`() {
+        val projection = BatchFixtureProjection(failures = 1)
+        val result = dispatch(projection, eventCount = 3)
+
+        projection.batches.assert().containsExactly(
+            listOf("0", "1", "2"),
+            listOf("0", "1", "2"),
+        )
+        result.chainedEvents.assert().containsExactly("0", "1", "2")
+        result.errors.assert().isEmpty()
+    }
+
+    @Test
+    fun `exhausted retries should surface the error on every event exchange`() {
+        val projection = BatchFixtureProjection(failures = Int.MAX_VALUE)
+        val result = dispatch(projection, eventCount = 2)
+
+        projection.batches.assert().hasSize(2)
+        result.chainedEvents.assert().isEmpty()
+        result.errors.assert().hasSize(2)
+    }
+
+    @Test
+    fun `short-circuiting filter should keep the event out of the batch`() {
+        val projection = BatchFixtureProjection(failures = 0)
+        val result = dispatch(projection, eventCount = 4, skipped = setOf("1", "3"))
+
+        projection.batches.assert().containsExactly(listOf("0", "2"))
+        result.chainedEvents.assert().containsExactly("0", "2")
+        result.errors.assert().isEmpty()
+    }
+
+    @Test
+    fun `window where every event is skipped should not invoke the batch`() {
+        val projection = BatchFixtureProjection(failures = 0)
+        val result = dispatch(projection, eventCount = 2, skipped = setOf("0", "1"))
+
+        projection.batches.assert().isEmpty()
+        result.chainedEvents.assert().isEmpty()
+    }
+
+    @Test
+    fun `non-batch functions should not wait for the window`() {
+        val projection = MixedFixtureProjection()
+        val result = dispatch(projection, eventCount = 3) {
+            projection.handled.await(500, TimeUnit.MILLISECONDS).assert().isTrue()
+            projection.batches.assert().isEmpty()
+        }
+
+        projection.batches.assert().containsExactly(listOf("0", "1", "2"))
+        result.errors.assert().isEmpty()
+    }
+
+    @Test
+    fun `window should be derived from batch functions of the aggregate`() {
+        val registrar = ProjectionFunctionRegistrar()
+        registrar.registerProcessor(BatchFixtureProjection(failures = 0))
+
+        val window = registrar.functions.toExchangeBatchWindow()
+
+        window.assert().isNotNull()
+        window!!.maxSize.assert().isEqualTo(8)
+        window.maxDelay.assert().isEqualTo(Duration.ofMillis(50))
+    }
+
+    private class DispatchResult(
+        val chainedEvents: List<String>,
+        val errors: List<Throwable>,
+    )
+
+    private fun dispatch(
+        projection: Any,
+        eventCount: Int,
+        skipped: Set<String> = emptySet(),
+        beforeAcknowledged: () -> Unit = {},
+    ): DispatchResult {
+        val functionRegistrar = ProjectionFunctionRegistrar()
+        functionRegistrar.registerProcessor(projection)
+        val acknowledged = CountDownLatch(eventCount)
+        val exchanges = (0 until eventCount).map {
+            val command = MockCreateAggregate(generateGlobalId(), it.toString()).toCommandMessage()
+            AckCountingExchange(
+                message = MockAggregateCreated(it.toString()).toDomainEventStream(upstream = command),
+                acknowledged = acknowledged,
+            )
+        }
+        val chainedEvents = CopyOnWriteArrayList<String>()
+        val errors = CopyOnWriteArrayList<Throwable>()
+        val functionFilter = DomainEventFunctionFilter(mockk<ServiceProvider>())
+        val scheduler = Schedulers.newSingle("batch-projection-dispatch")
+        val dispatcher = AggregateEventDispatcher(
+            namedAggregate = namedAggregate,
+            messageFlux = Flux.fromIterable(exchanges),
+            parallelism = 1,
+            functionRegistrar = functionRegistrar,
+            eventHandler = object : EventHandler {
+                override fun handle(context: DomainEventExchange<*>): Mono<Void> {
+                    if ((context.message.body as MockAggregateCreated).data in skipped) {
+                        return Mono.empty()
+                    }
+                    return functionFilter.filter(
+                        context,
+                        FilterChain {
+                            if (it.getEventFunction() is BatchMessageFunction<*, *, *>) {
+                                chainedEvents.add((it.message.body as MockAggregateCreated).data)
+                            }
+                            Mono.empty()
+                        },
+                    ).onErrorResume { error ->
+                        errors.add(error)
+                        Mono.empty()
+                    }
+                }
+            },
+            scheduler = scheduler,
+        )
+        val runtime = WowRuntime(
+            components = listOf(dispatcher),
+            shutdownTimeout = Duration.ofSeconds(1),
+            shutdownQuietPeriod = Duration.ZERO,
+        )
+        try {
+            runtime.start().block()
+            beforeAcknowledged()
+            acknowledged.await(5, TimeUnit.SECONDS).assert().isTrue()
+        } finally {
+            runtime.stopGracefully().block(Duration.ofSeconds(5))
+            scheduler.dispose()
+        }
+        return DispatchResult(chainedEvents, errors)
+    }
+
+    private class AckCountingExchange(
+        override val message: DomainEventStream,
+        private val acknowledged: CountDownLatch,
+        override val attributes: MutableMap<String, Any> = ConcurrentHashMap(),
+    ) : EventStreamExchange {
+        override fun acknowledge(): Mono<Void> = Mono.fromRunnable { acknowledged.countDown() }
+    }
+}
+
+private class BatchFixtureProjection(
+    private var failures: Int,
+) {
+    val batches: MutableList<List<String>> = CopyOnWriteArrayList()
+
+    @OnEvent
+    @BatchProjection(maxSize = 8, maxDelay = 50, maxRetries = 1, minBackoff = 1)
+    fun onCreated(events: List<MockAggregateCreated>) {
+        batches.add(events.map { it.data })
+        if (failures > 0) {
+            failures--
+            throw IllegalStateException("Bulk write failed.")
+        }
+    }
+}
+
+private class MixedFixtureProjection {
+    val batches: MutableList<List<String>> = CopyOnWriteArrayList()
+    val handled = CountDownLatch(3)
+
+    @OnEvent
+    @BatchProjection(maxSize = 8, maxDelay = 2000, maxRetries = 0)
+    fun onCreatedBatch(events: List<MockAggregateCreated>) {
+        batches.add(events.map { it.data })
+    }
+
+    @OnEvent
+    fun onCreated(event: MockAggregateCreated) {
+        handled.countDown()
+    }
+}
@@ -13,8 +13,10 @@
 
 package me.ahoo.wow.event.dispatcher
 
+import io.mockk.every
 import io.mockk.mockk
 import me.ahoo.test.asserts.assert
+import me.ahoo.wow.api.annotation.BatchProjection
 import me.ahoo.wow.api.event.DomainEvent
 import me.ahoo.wow.api.messaging.function.FunctionKind
 import me.ahoo.wow.api.modeling.NamedAggregate
@@ -49,6 +51,26 @@ class DomainEventFunctionFilterTest {
         exchange.getServiceProvider().assert().isSameAs(serviceProvider)
         nextExchange.assert().isSameAs(exchange)
     }
+
+    @Test
+    fun `filter joins batch invocation instead of invoking alone`() {
+        val exchange = SimpleDomainEventExchange(mockk<DomainEvent<Any>>(relaxed = true))
+        val invocations = mutableListOf<String>()
+        exchange.setFunction(TestDomainEventFunction(invocations))
+        val batchFunction = mockk<BatchEventFunction> {
+            every { getAnnotation(BatchProjection::class.java) } returns BatchProjection(maxRetries = 0)
+            every { invokeBatch(listOf(exchange)) } returns Mono.error(IllegalStateException("batch failed"))
+        }
+        exchange.setBatchInvocation(BatchInvocation(batchFunction, listOf(exchange)).Participant(0))
+        val next = FilterChain<DomainEventExchange<*>> {
+            Mono.fromRunnable<Void> { invocations += "next" }
+        }
+
+        StepVerifier.create(DomainEventFunctionFilter(mockk<ServiceProvider>()).filter(exchange, next))
+            .verifyError(IllegalStateException::class.java)
+
+        invocations.assert().isEmpty()
+    }
 }
 
 private class TestDomainEventFunction(
@@ -0,0 +1,62 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing
+
+import io.mockk.every
+import io.mockk.mockk
+import me.ahoo.test.asserts.assertThrownBy
+import me.ahoo.wow.event.DomainEventStream
+import org.junit.jupiter.api.Test
+import reactor.core.publisher.Flux
+import reactor.kotlin.test.test
+import java.time.Duration
+
+class EventLogReaderTest {
+
+    private fun eventStream(createTime: Long): DomainEventStream = mockk {
+        every { this@mockk.createTime } returns createTime
+    }
+
+    @Test
+    fun `take settled should stop at the first stream younger than the safety lag`() {
+        val now = System.currentTimeMillis()
+        val settled = eventStream(now - 60_000)
+        val recent = eventStream(now)
+        val settledAfterRecent = eventStream(now - 60_000)
+
+        Flux.just(settled, recent, settledAfterRecent)
+            .takeSettled(Duration.ofSeconds(5))
+            .test()
+            .expectNext(settled)
+            .verifyComplete()
+    }
+
+    @Test
+    fun `take settled with zero lag should read every stream`() {
+        val recent = eventStream(System.currentTimeMillis() + 60_000)
+
+        Flux.just(recent)
+            .takeSettled(Duration.ZERO)
+            .test()
+            .expectNext(recent)
+            .verifyComplete()
+    }
+
+    @Test
+    fun `take settled should reject a negative lag`() {
+        assertThrownBy<IllegalArgumentException> {
+            Flux.empty<DomainEventStream>().takeSettled(Duration.ofSeconds(-1))
+        }
+    }
+}
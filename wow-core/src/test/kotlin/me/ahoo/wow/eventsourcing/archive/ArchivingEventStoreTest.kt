@@ -0,0 +1,91 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing.archive
+
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.event.DomainEventStream
+import me.ahoo.wow.eventsourcing.InMemoryEventStore
+import me.ahoo.wow.id.generateGlobalId
+import me.ahoo.wow.modeling.aggregateId
+import me.ahoo.wow.tck.event.MockDomainEventStreams.generateEventStream
+import me.ahoo.wow.tck.mock.MOCK_AGGREGATE_METADATA
+import org.junit.jupiter.api.Test
+import reactor.kotlin.test.test
+
+class ArchivingEventStoreTest {
+    private val hotStore = InMemoryEventStore()
+    private val archive = InMemoryEventStreamArchive()
+    private val eventStore = ArchivingEventStore(hotStore, archive)
+    private val aggregateId = MOCK_AGGREGATE_METADATA.aggregateId(generateGlobalId())
+    private val eventStreams: List<DomainEventStream> = (1..8).map {
+        generateEventStream(aggregateId, aggregateVersion = it - 1, eventCount = 1).also { eventStream ->
+            hotStore.append(eventStream).block()
+        }
+    }
+
+    init {
+        archiveRange(aggregateId, 2..5)
+    }
+
+    private fun archiveRange(aggregateId: AggregateId, versions: IntRange) {
+        archive.archive(aggregateId, eventStreams.filter { it.version in versions }).block()
+        hotStore.prune(aggregateId, versions.first, versions.last).block()
+    }
+
+    private fun versions(headVersion: Int, tailVersion: Int): List<Int> =
+        eventStore.load(aggregateId, headVersion, tailVersion).map { it.version }.collectList().block()!!
+
+    @Test
+    fun `should fill archived gaps of version loads`() {
+        versions(1, Int.MAX_VALUE - 1).assert().containsExactly(1, 2, 3, 4, 5, 6, 7, 8)
+        versions(3, 7).assert().containsExactly(3, 4, 5, 6, 7)
+        versions(3, 4).assert().containsExactly(3, 4)
+        versions(6, Int.MAX_VALUE - 1).assert().containsExactly(6, 7, 8)
+        versions(7, 20).assert().containsExactly(7, 8)
+    }
+
+    @Test
+    fun `should fail loads over versions missing from both archive and hot store`() {
+        hotStore.prune(aggregateId, 6, 6).block()
+        eventStore.load(aggregateId, 1, Int.MAX_VALUE - 1)
+            .test()
+            .expectNextCount(5)
+            .verifyError(IllegalStateException::class.java)
+        eventStore.load(aggregateId, 0L, Long.MAX_VALUE)
+            .test()
+            .verifyError(IllegalStateException::class.java)
+    }
+
+    @Test
+    fun `should fill archived streams of event time loads`() {
+        eventStore.load(aggregateId, 0L, Long.MAX_VALUE)
+            .map { it.version }
+            .collectList()
+            .block()
+            .assert().containsExactly(1, 2, 3, 4, 5, 6, 7, 8)
+    }
+
+    @Test
+    fun `single and last should see archived and hot streams`() {
+        eventStore.single(aggregateId, 4)
+            .test()
+            .consumeNextWith { it.id.assert().isEqualTo(eventStreams[3].id) }
+            .verifyComplete()
+        eventStore.last(aggregateId)
+            .test()
+            .consumeNextWith { it.version.assert().isEqualTo(8) }
+            .verifyComplete()
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing.archive
+
+import io.mockk.every
+import io.mockk.mockk
+import me.ahoo.test.asserts.assert
+import me.ahoo.test.asserts.assertThrownBy
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.eventsourcing.InMemoryEventStore
+import me.ahoo.wow.eventsourcing.snapshot.SnapshotStore
+import me.ahoo.wow.id.generateGlobalId
+import me.ahoo.wow.modeling.aggregateId
+import me.ahoo.wow.tck.event.MockDomainEventStreams.generateEventStream
+import me.ahoo.wow.tck.mock.MOCK_AGGREGATE_METADATA
+import org.junit.jupiter.api.Test
+import reactor.core.publisher.Mono
+import reactor.kotlin.test.test
+
+class EventStreamArchiverTest {
+    private val hotStore = InMemoryEventStore()
+    private val archive = InMemoryEventStreamArchive()
+    private val eventStore = ArchivingEventStore(hotStore, archive)
+    private val snapshotVersions = mutableMapOf<AggregateId, Int>()
+    private val snapshotStore = mockk<SnapshotStore> {
+        every { getVersion(any()) } answers { Mono.just(snapshotVersions[firstArg()] ?: 0) }
+    }
+    private val archiver = EventStreamArchiver(
+        eventStore = eventStore,
+        snapshotStore = snapshotStore,
+        archive = archive,
+        retainedVersions = 2,
+        segmentSize = 3,
+        scanBatchSize = 1,
+    )
+
+    private fun appendVersions(versions: IntRange): AggregateId {
+        val aggregateId = MOCK_AGGREGATE_METADATA.aggregateId(generateGlobalId())
+        versions.forEach {
+            hotStore.append(generateEventStream(aggregateId, aggregateVersion = it - 1, eventCount = 1)).block()
+        }
+        return aggregateId
+    }
+
+    @Test
+    fun `should archive versions covered by the snapshot and keep the initial and retained streams hot`() {
+        val aggregateId = appendVersions(1..10)
+        snapshotVersions[aggregateId] = 9
+
+        archiver.archiveAggregate(aggregateId)
+            .test()
+            .expectNext(6)
+            .verifyComplete()
+
+        hotStore.load(aggregateId).map { it.version }.collectList().block()
+            .assert().containsExactly(1, 8, 9, 10)
+        archive.archivedVersion(aggregateId).block().assert().isEqualTo(7)
+        eventStore.load(aggregateId).map { it.version }.collectList().block()
+            .assert().containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10)
+    }
+
+    @Test
+    fun `should continue after the archived version`() {
+        val aggregateId = appendVersions(1..10)
+        snapshotVersions[aggregateId] = 6
+        archiver.archiveAggregate(aggregateId).block().assert().isEqualTo(3)
+
+        snapshotVersions[aggregateId] = 10
+        archiver.archiveAggregate(aggregateId)
+            .test()
+            .expectNext(4)
+            .verifyComplete()
+
+        hotStore.load(aggregateId).map { it.version }.collectList().block()
+            .assert().containsExactly(1, 9, 10)
+        eventStore.load(aggregateId).map { it.version }.collectList().block()
+            .assert().containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10)
+    }
+
+    @Test
+    fun `should skip aggregates without enough snapshot coverage`() {
+        val aggregateId = appendVersions(1..3)
+        snapshotVersions[aggregateId] = 3
+
+        archiver.archiveAggregate(aggregateId)
+            .test()
+            .expectNext(0)
+            .verifyComplete()
+        hotStore.load(aggregateId).count().block().assert().isEqualTo(3)
+    }
+
+    @Test
+    fun `should archive every aggregate of the named aggregate`() {
+        val first = appendVersions(1..6)
+        val second = appendVersions(1..2)
+        snapshotVersions[first] = 6
+        snapshotVersions[second] = 2
+
+        archiver.archive(MOCK_AGGREGATE_METADATA)
+            .test()
+            .consumeNextWith {
+                it.scannedAggregates.assert().isGreaterThanOrEqualTo(2)
+                it.archivedAggregates.assert().isEqualTo(1)
+                it.archivedStreams.assert().isEqualTo(3)
+            }
+            .verifyComplete()
+    }
+
+    @Test
+    fun `should refuse to prune into an archive not shared by every instance`() {
+        assertThrownBy<IllegalArgumentException> {
+            EventStreamArchiver(
+                eventStore = eventStore,
+                snapshotStore = snapshotStore,
+                archive = InMemoryEventStreamArchive(shared = false),
+            )
+        }
+    }
+}
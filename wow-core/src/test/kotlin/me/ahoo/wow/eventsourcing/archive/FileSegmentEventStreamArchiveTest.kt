@@ -0,0 +1,72 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing.archive
+
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.id.generateGlobalId
+import me.ahoo.wow.modeling.aggregateId
+import me.ahoo.wow.tck.event.MockDomainEventStreams.generateEventStream
+import me.ahoo.wow.tck.mock.MOCK_AGGREGATE_METADATA
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import reactor.kotlin.test.test
+import java.nio.file.Path
+import kotlin.io.path.listDirectoryEntries
+
+class FileSegmentEventStreamArchiveTest {
+    @TempDir
+    lateinit var directory: Path
+
+    private val aggregateId = MOCK_AGGREGATE_METADATA.aggregateId(generateGlobalId())
+    private val eventStreams = (1..6).map {
+        generateEventStream(aggregateId, aggregateVersion = it - 1)
+    }
+
+    @Test
+    fun `should load overlapping segments in version order`() {
+        val archive = FileSegmentEventStreamArchive(directory)
+        archive.archive(aggregateId, eventStreams.subList(3, 6)).block()
+        archive.archive(aggregateId, eventStreams.subList(1, 3)).block()
+
+        archive.load(aggregateId, 3, 5)
+            .test()
+            .consumeNextWith {
+                it.id.assert().isEqualTo(eventStreams[2].id)
+                it.size.assert().isEqualTo(eventStreams[2].size)
+            }
+            .expectNextMatches { it.version == 4 }
+            .expectNextMatches { it.version == 5 }
+            .verifyComplete()
+        archive.archivedVersion(aggregateId).block().assert().isEqualTo(6)
+    }
+
+    @Test
+    fun `should replace a rewritten segment`() {
+        val archive = FileSegmentEventStreamArchive(directory)
+        archive.archive(aggregateId, eventStreams.subList(1, 3)).block()
+        archive.archive(aggregateId, eventStreams.subList(1, 4)).block()
+
+        archive.load(aggregateId, 1, 10).map { it.version }.collectList().block()
+            .assert().containsExactly(2, 3, 4)
+        directory.toFile().walk().filter { it.isFile }.count().assert().isEqualTo(1)
+    }
+
+    @Test
+    fun `should be empty for unknown aggregates`() {
+        val archive = FileSegmentEventStreamArchive(directory)
+        archive.load(aggregateId, 1, 10).test().verifyComplete()
+        archive.archivedVersion(aggregateId).test().expectNext(0).verifyComplete()
+        directory.listDirectoryEntries().assert().isEmpty()
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing.snapshot
+
+import me.ahoo.test.asserts.assert
+import me.ahoo.test.asserts.assertThrownBy
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.id.generateGlobalId
+import me.ahoo.wow.modeling.aggregateId
+import me.ahoo.wow.modeling.state.ConstructorStateAggregateFactory.toStateAggregate
+import me.ahoo.wow.tck.mock.MOCK_AGGREGATE_METADATA
+import me.ahoo.wow.tck.mock.MockStateAggregate
+import org.junit.jupiter.api.Test
+import reactor.test.StepVerifier
+
+class CheckpointingSnapshotStoreTest {
+    private val aggregateId = MOCK_AGGREGATE_METADATA.aggregateId(generateGlobalId())
+
+    @Test
+    fun `load at or before should prefer latest snapshot`() {
+        val store = checkpointingSnapshotStore(maxCheckpoints = 4)
+        saveVersions(store, 1, 2, 3)
+
+        StepVerifier.create(store.loadAtOrBefore<MockStateAggregate>(aggregateId, 5))
+            .consumeNextWith {
+                it.version.assert().isEqualTo(3)
+            }.verifyComplete()
+    }
+
+    @Test
+    fun `load at or before should fall back to archived checkpoint`() {
+        val store = checkpointingSnapshotStore(maxCheckpoints = 4)
+        saveVersions(store, 1, 2, 4)
+
+        StepVerifier.create(store.loadAtOrBefore<MockStateAggregate>(aggregateId, 3))
+            .consumeNextWith {
+                it.version.assert().isEqualTo(2)
+            }.verifyComplete()
+        StepVerifier.create(store.load<MockStateAggregate>(aggregateId))
+            .consumeNextWith {
+                it.version.assert().isEqualTo(4)
+            }.verifyComplete()
+    }
+
+    @Test
+    fun `archive should evict oldest checkpoints`() {
+        val store = checkpointingSnapshotStore(maxCheckpoints = 2)
+        saveVersions(store, 1, 2, 3)
+
+        StepVerifier.create(store.loadAtOrBefore<MockStateAggregate>(aggregateId, 1))
+            .verifyComplete()
+        StepVerifier.create(store.loadAtOrBefore<MockStateAggregate>(aggregateId, 2))
+            .consumeNextWith {
+                it.version.assert().isEqualTo(2)
+            }.verifyComplete()
+    }
+
+    @Test
+    fun `default load at or before should only consult latest snapshot`() {
+        val store = InMemorySnapshotStore()
+        saveVersions(store, 1, 3)
+
+        StepVerifier.create(store.loadAtOrBefore<MockStateAggregate>(aggregateId, 2))
+            .verifyComplete()
+        StepVerifier.create(store.loadAtOrBefore<MockStateAggregate>(aggregateId, 3))
+            .consumeNextWith {
+                it.version.assert().isEqualTo(3)
+            }.verifyComplete()
+    }
+
+    @Test
+    fun `archive should require positive max checkpoints`() {
+        assertThrownBy<IllegalArgumentException> {
+            InMemorySnapshotCheckpointArchive(maxCheckpoints = 0)
+        }
+    }
+
+    private fun checkpointingSnapshotStore(maxCheckpoints: Int): CheckpointingSnapshotStore =
+        CheckpointingSnapshotStore(
+            delegate = InMemorySnapshotStore(),
+            archive = InMemorySnapshotCheckpointArchive(maxCheckpoints),
+        )
+
+    private fun saveVersions(store: SnapshotStore, vararg versions: Int) {
+        versions.forEach {
+            store.save(snapshot(aggregateId, it)).block()
+        }
+    }
+
+    private fun snapshot(aggregateId: AggregateId, version: Int): Snapshot<MockStateAggregate> =
+        SimpleSnapshot(
+            MOCK_AGGREGATE_METADATA.state.toStateAggregate(
+                aggregateId = aggregateId,
+                state = MockStateAggregate(aggregateId.id),
+                version = version,
+            ),
+        )
+}
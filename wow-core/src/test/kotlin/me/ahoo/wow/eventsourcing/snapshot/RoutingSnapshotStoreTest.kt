@@ -53,6 +53,21 @@ class RoutingSnapshotStoreTest {
         defaultStore.lastOperation.assert().isNull()
     }
 
+    @Test
+    fun `load at or before chooses configured store`() {
+        val defaultStore = RecordingSnapshotStore()
+        val orderStore = RecordingSnapshotStore()
+        val aggregateId = order.aggregateId("order-1")
+        val routingStore = routingSnapshotStore(defaultStore, orderStore)
+
+        StepVerifier.create(routingStore.loadAtOrBefore<MockStateAggregate>(aggregateId, 3))
+            .verifyComplete()
+
+        orderStore.lastOperation.assert().isEqualTo("loadAtOrBefore")
+        orderStore.lastAggregateId.assert().isEqualTo(aggregateId)
+        defaultStore.lastOperation.assert().isNull()
+    }
+
     @Test
     fun `get version chooses configured store`() {
         val defaultStore = RecordingSnapshotStore()
@@ -167,6 +182,11 @@ class RoutingSnapshotStoreTest {
             return failure?.let { Mono.error(it) } ?: Mono.empty()
         }
 
+        override fun <S : Any> loadAtOrBefore(aggregateId: AggregateId, maxVersion: Int): Mono<Snapshot<S>> {
+            record("loadAtOrBefore", aggregateId)
+            return failure?.let { Mono.error(it) } ?: Mono.empty()
+        }
+
         override fun getVersion(aggregateId: AggregateId): Mono<Int> {
             record("getVersion", aggregateId)
             return failure?.let { Mono.error(it) } ?: Mono.just(7)
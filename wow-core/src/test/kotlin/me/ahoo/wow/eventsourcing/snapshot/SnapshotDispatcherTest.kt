@@ -33,7 +33,11 @@ import org.junit.jupiter.api.Test
 import reactor.core.publisher.Mono
 import reactor.core.publisher.Sinks
 import reactor.test.StepVerifier
+import reactor.test.scheduler.VirtualTimeScheduler
 import java.time.Duration
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 
 class SnapshotDispatcherTest {
 
@@ -82,6 +86,72 @@ class SnapshotDispatcherTest {
             .verifyComplete()
     }
 
+    @Test
+    fun `dispatcher coalesces snapshot versions of one aggregate into one write`() {
+        val aggregateId = MOCK_AGGREGATE_METADATA.aggregateId("coalesced-snapshot-dispatcher")
+        val stateEventBus = InMemoryStateEventBus()
+        val scheduler = VirtualTimeScheduler.create()
+        val delegate = CountingSnapshotStore()
+        val coalescer = SnapshotWriteCoalescer(delegate, Duration.ofMillis(50), scheduler)
+        val buffered = CountDownLatch(3)
+        val strategyStore = object : SnapshotStore by coalescer.snapshotStore {
+            override fun <S : Any> save(snapshot: Snapshot<S>): Mono<Void> =
+                coalescer.snapshotStore.save(snapshot).doOnSubscribe { buffered.countDown() }
+        }
+        val chain = FilterChainBuilder<me.ahoo.wow.eventsourcing.state.StateEventExchange<*>>()
+            .addFilter(SnapshotFunctionFilter(SimpleSnapshotStrategy(strategyStore)))
+            .filterCondition(SnapshotDispatcher::class)
+            .build()
+        val dispatcher = SnapshotDispatcher(
+            name = "test.CoalescingSnapshotDispatcher",
+            namedAggregates = setOf(MOCK_AGGREGATE_METADATA.materialize()),
+            snapshotHandler = DefaultSnapshotHandler(chain),
+            stateEventBus = stateEventBus,
+            exchangeBatchWindow = coalescer.exchangeBatchWindow,
+        )
+        val runtime = WowRuntime(
+            components = listOf(dispatcher),
+            shutdownTimeout = Duration.ofSeconds(1),
+            shutdownQuietPeriod = Duration.ZERO,
+        )
+        runtime.start().block()
+
+        (0..2).forEach { aggregateVersion ->
+            val stateEvent = MockAggregateCreated("created").toDomainEventStream(
+                upstream = GivenInitializationCommand(aggregateId),
+                aggregateVersion = aggregateVersion,
+            ).toStateEvent(MockStateAggregate(aggregateId.id))
+            StepVerifier.create(stateEventBus.send(stateEvent)).verifyComplete()
+        }
+
+        buffered.await(5, TimeUnit.SECONDS).assert().isTrue()
+        delegate.saves.get().assert().isZero()
+        coalescer.pendingSize.assert().isEqualTo(1)
+
+        scheduler.advanceTimeBy(coalescer.window)
+
+        delegate.saves.get().assert().isEqualTo(1)
+        StepVerifier.create(delegate.getVersion(aggregateId))
+            .expectNext(3)
+            .verifyComplete()
+        StepVerifier.create(runtime.stopGracefully())
+            .verifyComplete()
+    }
+
+    private class CountingSnapshotStore : SnapshotStore {
+        private val delegate = InMemorySnapshotStore()
+        val saves = AtomicInteger()
+
+        override val name: String = "counting"
+
+        override fun <S : Any> load(aggregateId: AggregateId): Mono<Snapshot<S>> = delegate.load(aggregateId)
+
+        override fun <S : Any> save(snapshot: Snapshot<S>): Mono<Void> {
+            saves.incrementAndGet()
+            return delegate.save(snapshot)
+        }
+    }
+
     private class SignalingSnapshotStore : SnapshotStore {
         private val delegate = InMemorySnapshotStore()
         val saved: Sinks.One<Snapshot<*>> = Sinks.one()
@@ -0,0 +1,240 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing.snapshot
+
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.modeling.aggregateId
+import me.ahoo.wow.modeling.state.ConstructorStateAggregateFactory.toStateAggregate
+import me.ahoo.wow.tck.mock.MOCK_AGGREGATE_METADATA
+import me.ahoo.wow.tck.mock.MockStateAggregate
+import org.junit.jupiter.api.Test
+import reactor.core.publisher.Mono
+import reactor.core.publisher.Sinks
+import reactor.kotlin.test.test
+import reactor.test.scheduler.VirtualTimeScheduler
+import java.time.Duration
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+
+class SnapshotWriteCoalescerTest {
+    private val aggregateId = MOCK_AGGREGATE_METADATA.aggregateId("coalescing-aggregate")
+    private val window = Duration.ofMillis(50)
+
+    private fun snapshot(version: Int, data: String = "v$version"): Snapshot<MockStateAggregate> {
+        val stateAggregate = MOCK_AGGREGATE_METADATA.state.toStateAggregate(
+            aggregateId = aggregateId,
+            state = MockStateAggregate(aggregateId.id).also { it.data = data },
+            version = version,
+        )
+        return SimpleSnapshot(stateAggregate)
+    }
+
+    @Test
+    fun `should persist only the highest version within a window`() {
+        val scheduler = VirtualTimeScheduler.create()
+        val store = CountingSnapshotStore()
+        val coalescer = SnapshotWriteCoalescer(store, window, scheduler)
+        val completed = AtomicInteger()
+
+        listOf(1, 3, 2).forEach { version ->
+            coalescer.snapshotStore.save(snapshot(version))
+                .doOnSuccess { completed.incrementAndGet() }
+                .subscribe()
+        }
+        completed.get().assert().isZero()
+        store.saves.get().assert().isZero()
+        coalescer.pendingSize.assert().isEqualTo(1)
+
+        scheduler.advanceTimeBy(window)
+
+        completed.get().assert().isEqualTo(3)
+        store.saves.get().assert().isEqualTo(1)
+        coalescer.pendingSize.assert().isZero()
+        store.getVersion(aggregateId).test()
+            .expectNext(3)
+            .verifyComplete()
+    }
+
+    @Test
+    fun `should expose buffered snapshot before it is flushed`() {
+        val scheduler = VirtualTimeScheduler.create()
+        val store = CountingSnapshotStore()
+        val coalescer = SnapshotWriteCoalescer(store, window, scheduler)
+        store.save(snapshot(1)).block()
+
+        coalescer.snapshotStore.save(snapshot(4)).subscribe()
+
+        coalescer.snapshotStore.getVersion(aggregateId).test()
+            .expectNext(4)
+            .verifyComplete()
+        coalescer.snapshotStore.load<MockStateAggregate>(aggregateId).test()
+            .consumeNextWith {
+                it.version.assert().isEqualTo(4)
+                it.state.data.assert().isEqualTo("v4")
+            }
+            .verifyComplete()
+    }
+
+    @Test
+    fun `load at or before should skip buffered snapshot newer than max version`() {
+        val scheduler = VirtualTimeScheduler.create()
+        val store = CountingSnapshotStore()
+        val coalescer = SnapshotWriteCoalescer(store, window, scheduler)
+        store.save(snapshot(1)).block()
+
+        coalescer.snapshotStore.save(snapshot(4)).subscribe()
+
+        coalescer.snapshotStore.loadAtOrBefore<MockStateAggregate>(aggregateId, 3).test()
+            .consumeNextWith {
+                it.version.assert().isEqualTo(1)
+            }
+            .verifyComplete()
+        coalescer.snapshotStore.loadAtOrBefore<MockStateAggregate>(aggregateId, 4).test()
+            .consumeNextWith {
+                it.version.assert().isEqualTo(4)
+            }
+            .verifyComplete()
+    }
+
+    @Test
+    fun `should detach buffered snapshot from later state mutations`() {
+        val scheduler = VirtualTimeScheduler.create()
+        val store = CountingSnapshotStore()
+        val coalescer = SnapshotWriteCoalescer(store, window, scheduler)
+        val snapshot = snapshot(1, data = "before")
+
+        coalescer.snapshotStore.save(snapshot).subscribe()
+        snapshot.state.data = "after"
+        scheduler.advanceTimeBy(window)
+
+        store.load<MockStateAggregate>(aggregateId).test()
+            .consumeNextWith {
+                it.state.data.assert().isEqualTo("before")
+            }
+            .verifyComplete()
+    }
+
+    @Test
+    fun `should flush buffered snapshots on graceful stop`() {
+        val scheduler = VirtualTimeScheduler.create()
+        val store = CountingSnapshotStore()
+        val coalescer = SnapshotWriteCoalescer(store, window, scheduler)
+
+        coalescer.snapshotStore.save(snapshot(2)).subscribe()
+        coalescer.stopGracefully().test().verifyComplete()
+
+        store.saves.get().assert().isEqualTo(1)
+        coalescer.snapshotStore.save(snapshot(5)).test().verifyComplete()
+        store.saves.get().assert().isEqualTo(2)
+        scheduler.advanceTimeBy(window)
+        store.saves.get().assert().isEqualTo(2)
+    }
+
+    @Test
+    fun `should fail every coalesced save when the flush fails`() {
+        val scheduler = VirtualTimeScheduler.create()
+        val failure = IllegalStateException("unavailable")
+        val store = CountingSnapshotStore(failure = failure)
+        val coalescer = SnapshotWriteCoalescer(store, window, scheduler)
+        val errors = CopyOnWriteArrayList<Throwable>()
+        listOf(1, 2).forEach { version ->
+            coalescer.snapshotStore.save(snapshot(version)).subscribe({}, { errors.add(it) })
+        }
+        errors.assert().isEmpty()
+
+        scheduler.advanceTimeBy(window)
+
+        errors.assert().containsExactly(failure, failure)
+        store.saves.get().assert().isEqualTo(1)
+        coalescer.pendingSize.assert().isZero()
+        coalescer.snapshotStore.getVersion(aggregateId).test()
+            .expectNext(0)
+            .verifyComplete()
+        coalescer.stopGracefully().test().verifyComplete()
+    }
+
+    @Test
+    fun `should expose a snapshot while its flush is in flight`() {
+        val scheduler = VirtualTimeScheduler.create()
+        val store = CountingSnapshotStore()
+        val coalescer = SnapshotWriteCoalescer(store, window, scheduler)
+        store.save(snapshot(1)).block()
+        val gate = Sinks.empty<Void>()
+        store.written = gate.asMono()
+        val saved = AtomicBoolean()
+        coalescer.snapshotStore.save(snapshot(4))
+            .doOnSuccess { saved.set(true) }
+            .subscribe()
+
+        scheduler.advanceTimeBy(window)
+
+        coalescer.pendingSize.assert().isZero()
+        store.saves.get().assert().isEqualTo(2)
+        coalescer.snapshotStore.load<MockStateAggregate>(aggregateId).test()
+            .consumeNextWith {
+                it.version.assert().isEqualTo(4)
+            }
+            .verifyComplete()
+        coalescer.snapshotStore.getVersion(aggregateId).test()
+            .expectNext(4)
+            .verifyComplete()
+        saved.get().assert().isFalse()
+
+        gate.tryEmitEmpty()
+
+        saved.get().assert().isTrue()
+        coalescer.snapshotStore.load<MockStateAggregate>(aggregateId).test()
+            .consumeNextWith {
+                it.version.assert().isEqualTo(4)
+            }
+            .verifyComplete()
+    }
+
+    @Test
+    fun `buffered version and state should always match`() {
+        val scheduler = VirtualTimeScheduler.create()
+        val coalescer = SnapshotWriteCoalescer(CountingSnapshotStore(), window, scheduler)
+
+        (1..64).toList().parallelStream().forEach { version ->
+            coalescer.snapshotStore.save(snapshot(version)).subscribe()
+            val buffered = requireNotNull(coalescer.snapshotStore.load<MockStateAggregate>(aggregateId).block())
+            buffered.state.data.assert().isEqualTo("v${buffered.version}")
+        }
+
+        coalescer.snapshotStore.getVersion(aggregateId).test()
+            .expectNext(64)
+            .verifyComplete()
+    }
+
+    private class CountingSnapshotStore(
+        private val failure: Throwable? = null,
+        @Volatile var written: Mono<Void> = Mono.empty(),
+    ) : SnapshotStore {
+        private val delegate = InMemorySnapshotStore()
+        val saves = AtomicInteger()
+
+        override val name: String
+            get() = delegate.name
+
+        override fun <S : Any> load(aggregateId: AggregateId): Mono<Snapshot<S>> = delegate.load(aggregateId)
+
+        override fun <S : Any> save(snapshot: Snapshot<S>): Mono<Void> {
+            saves.incrementAndGet()
+            failure?.let { return Mono.error(it) }
+            return written.then(Mono.defer { delegate.save(snapshot) })
+        }
+    }
+}
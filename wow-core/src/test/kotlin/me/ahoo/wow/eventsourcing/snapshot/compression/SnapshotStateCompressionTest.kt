@@ -0,0 +1,134 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.eventsourcing.snapshot.compression
+
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.modeling.MaterializedNamedAggregate
+import me.ahoo.wow.serialization.JsonSerializer
+import me.ahoo.wow.serialization.state.StateAggregateRecords
+import me.ahoo.wow.serialization.toJsonString
+import me.ahoo.wow.serialization.toObjectNode
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+
+class SnapshotStateCompressionTest {
+    private val namedAggregate = MaterializedNamedAggregate("sales", "order")
+    private val otherAggregate = MaterializedNamedAggregate("sales", "cart")
+
+    private fun state(seed: Int, items: Int = 40): ByteArray {
+        val state = mapOf(
+            "id" to "order-$seed",
+            "status" to "PAID",
+            "items" to (1..items).map {
+                mapOf(
+                    "productId" to "product-${seed * 31 + it}",
+                    "quantity" to it % 5 + 1,
+                    "price" to "${seed + it}.99",
+                    "warehouse" to "central-warehouse",
+                )
+            },
+        )
+        return JsonSerializer.writeValueAsBytes(state)
+    }
+
+    @Test
+    fun `should round trip with and without dictionary`() {
+        val state = state(1)
+        val plain = DeflateStateCompressor()
+        val decompressed = plain.decompress(plain.compress(state))
+        decompressed.assert().isEqualTo(state)
+
+        val dictionary = CompressionDictionaryTrainer.train((2..20).map { state(it) })
+        val primed = DeflateStateCompressor(dictionary = dictionary)
+        val compressed = primed.compress(state)
+        compressed.dictionary.assert().isEqualTo(dictionary.id)
+        primed.decompress(compressed).assert().isEqualTo(state)
+    }
+
+    @Test
+    fun `trained dictionary should improve small states`() {
+        val samples = (2..50).map { state(it, items = 3) }
+        val dictionary = CompressionDictionaryTrainer.train(samples)
+        dictionary.content.size.assert().isLessThanOrEqualTo(CompressionDictionary.MAX_SIZE)
+
+        val state = state(1, items = 3)
+        val plain = DeflateStateCompressor().compress(state)
+        val primed = DeflateStateCompressor(dictionary = dictionary).compress(state)
+        primed.data.size.assert().isLessThan(plain.data.size)
+    }
+
+    @Test
+    fun `should fail without the dictionary`() {
+        val dictionary = CompressionDictionaryTrainer.train((2..10).map { state(it) })
+        val compressed = DeflateStateCompressor(dictionary = dictionary).compress(state(1))
+        assertThrows<IllegalStateException> {
+            DeflateStateCompressor().decompress(compressed)
+        }
+    }
+
+    @Test
+    fun `should always compress opted in aggregates only`() {
+        val compression = SnapshotStateCompression(
+            compressors = mapOf(namedAggregate to DeflateStateCompressor()),
+        )
+        compression.enabled.assert().isTrue()
+        compression.compress(otherAggregate, state(1)).assert().isNull()
+        compression.compress(namedAggregate, "{}".toByteArray()).assert().isNotNull()
+        compression.compress(namedAggregate, state(1)).assert().isNotNull()
+        SnapshotStateCompression.NONE.enabled.assert().isFalse()
+    }
+
+    @Test
+    fun `should decompress with retired dictionary`() {
+        val dictionary = CompressionDictionaryTrainer.train((2..10).map { state(it) })
+        val compressed = SnapshotStateCompression(
+            compressors = mapOf(namedAggregate to DeflateStateCompressor(dictionary = dictionary)),
+        ).compress(namedAggregate, state(1))!!
+
+        val optedOut = SnapshotStateCompression(retiredDictionaries = listOf(dictionary))
+        optedOut.decompress(compressed).assert().isEqualTo(state(1))
+    }
+
+    @Test
+    fun `should compress and inflate state field of snapshot node`() {
+        val compression = SnapshotStateCompression(
+            compressors = mapOf(namedAggregate to DeflateStateCompressor()),
+        )
+        val snapshotJson = """{"aggregateId":"order-1","version":3,"tags":{"region":["cn"]},"state":${
+            state(1).decodeToString()
+        }}"""
+        val snapshotNode = snapshotJson.toObjectNode()
+        val originalState = snapshotNode[StateAggregateRecords.STATE].deepCopy()
+
+        val compressed = snapshotNode.compressState(namedAggregate, compression)
+        compressed.has(StateAggregateRecords.STATE).assert().isFalse()
+        compressed.has(SnapshotStateCompression.COMPRESSED_STATE).assert().isTrue()
+        compressed["version"].asInt().assert().isEqualTo(3)
+        compressed["tags"].has("region").assert().isTrue()
+
+        val inflated = compressed.toJsonString().toObjectNode().inflateState(compression)
+        inflated.has(SnapshotStateCompression.COMPRESSED_STATE).assert().isFalse()
+        inflated[StateAggregateRecords.STATE].assert().isEqualTo(originalState)
+    }
+
+    @Test
+    fun `should keep state of other aggregates`() {
+        val compression = SnapshotStateCompression(
+            compressors = mapOf(namedAggregate to DeflateStateCompressor()),
+        )
+        val snapshotNode = """{"version":1,"state":${state(1).decodeToString()}}""".toObjectNode()
+        snapshotNode.compressState(otherAggregate, compression)
+            .has(StateAggregateRecords.STATE).assert().isTrue()
+    }
+}
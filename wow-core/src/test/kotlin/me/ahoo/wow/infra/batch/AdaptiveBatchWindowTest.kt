@@ -0,0 +1,208 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.infra.batch
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.metrics.WowMetrics
+import org.assertj.core.data.Offset
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import reactor.core.scheduler.Schedulers
+import java.time.Duration
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.atomic.AtomicInteger
+
+class AdaptiveBatchWindowTest {
+    private val adaptiveOptions = AdaptiveBatchOptions(
+        targetLatency = Duration.ofMillis(10),
+        minSize = 2,
+        minDelay = Duration.ofMillis(1),
+        sizeIncrement = 4,
+    )
+
+    private fun controller() = AdaptiveBatchController(
+        options = adaptiveOptions,
+        maxSize = 16,
+        maxDelay = Duration.ofMillis(20),
+    )
+
+    @Test
+    fun `full windows within target latency should grow additively up to maxSize`() {
+        val controller = controller()
+        controller.size.assert().isEqualTo(2)
+
+        controller.onBatchWritten(BatchWindowType.FULL, Duration.ofMillis(1).toNanos())
+            .assert().isEqualTo(BatchWindowAdjustment.INCREASE)
+        controller.size.assert().isEqualTo(6)
+        repeat(10) {
+            controller.onBatchWritten(BatchWindowType.FULL, Duration.ofMillis(1).toNanos())
+        }
+        controller.size.assert().isEqualTo(16)
+        controller.onBatchWritten(BatchWindowType.FULL, Duration.ofMillis(1).toNanos())
+            .assert().isNull()
+    }
+
+    @Test
+    fun `partial windows within target latency should keep the size`() {
+        val controller = controller()
+
+        controller.onBatchWritten(BatchWindowType.PARTIAL, Duration.ofMillis(1).toNanos())
+            .assert().isNull()
+        controller.size.assert().isEqualTo(2)
+    }
+
+    @Test
+    fun `writes over target latency should shrink multiplicatively down to minSize`() {
+        val controller = controller()
+        repeat(4) {
+            controller.onBatchWritten(BatchWindowType.FULL, 0)
+        }
+        controller.size.assert().isEqualTo(16)
+
+        controller.onBatchWritten(BatchWindowType.PARTIAL, Duration.ofMillis(50).toNanos())
+            .assert().isEqualTo(BatchWindowAdjustment.DECREASE)
+        controller.size.assert().isEqualTo(8)
+        repeat(5) {
+            controller.onBatchWritten(BatchWindowType.FULL, Duration.ofMillis(50).toNanos())
+        }
+        controller.size.assert().isEqualTo(2)
+    }
+
+    @Test
+    fun `delay should follow the arrival rate within bounds`() {
+        val controller = controller()
+        controller.delayNanos.assert().isEqualTo(Duration.ofMillis(1).toNanos())
+
+        // 2 items per 4ms: filling 2 items takes 4ms.
+        controller.onWindowClosed(items = 2, elapsedNanos = Duration.ofMillis(4).toNanos())
+        controller.delayNanos.assert().isCloseTo(Duration.ofMillis(4).toNanos(), Offset.offset(1L))
+
+        // A very slow arrival rate never waits longer than maxDelay.
+        val slow = controller()
+        slow.onWindowClosed(items = 1, elapsedNanos = Duration.ofSeconds(1).toNanos())
+        slow.delayNanos.assert().isEqualTo(Duration.ofMillis(20).toNanos())
+
+        // A burst never waits shorter than minDelay.
+        val burst = controller()
+        burst.onWindowClosed(items = 2, elapsedNanos = 0)
+        burst.delayNanos.assert().isEqualTo(Duration.ofMillis(1).toNanos())
+    }
+
+    @Test
+    fun `adaptive coordinator should grow batches under sustained load`() {
+        val batchSizes = CopyOnWriteArrayList<Int>()
+        val registry = SimpleMeterRegistry()
+        val coordinator = BatchCoordinator(
+            name = "adaptive",
+            options = BatchOptions(
+                maxSize = 16,
+                maxDelay = Duration.ofMillis(20),
+                maxPendingItems = 64,
+                adaptive = adaptiveOptions.copy(targetLatency = Duration.ofSeconds(1)),
+            ),
+            writer = BatchWriter { items ->
+                batchSizes.add(items.size)
+                Mono.just(items.map { BatchItemResult.Success })
+            },
+            metrics = WowMetrics(registry),
+        )
+        val written = AtomicInteger()
+
+        try {
+            repeat(20) {
+                Flux.range(0, 32)
+                    .flatMap({ coordinator.submit(it).doOnSuccess { written.incrementAndGet() } }, 32)
+                    .then()
+                    .block(Duration.ofSeconds(2))
+            }
+            written.get().assert().isEqualTo(20 * 32)
+            batchSizes.first().assert().isLessThanOrEqualTo(2)
+            batchSizes.max().assert().isEqualTo(16)
+            registry.get("wow.batch.window.size")
+                .tag("coordinator", "adaptive")
+                .tag("lane", "0")
+                .gauge()
+                .value()
+                .assert()
+                .isEqualTo(16.0)
+            registry.get("wow.batch.window.adjusted")
+                .tag("direction", "increase")
+                .counter()
+                .count()
+                .assert()
+                .isGreaterThan(0.0)
+        } finally {
+            coordinator.close(Duration.ofSeconds(1))
+        }
+    }
+
+    @Test
+    fun `concurrent adds and timer flushes should emit every item exactly once`() {
+        val controller = AdaptiveBatchController(
+            options = AdaptiveBatchOptions(
+                targetLatency = Duration.ofMillis(10),
+                minSize = 8,
+                minDelay = Duration.ofNanos(1),
+            ),
+            maxSize = 64,
+            maxDelay = Duration.ofMillis(1),
+        )
+        val itemCount = 200_000
+
+        repeat(5) {
+            val windows = Flux.range(0, itemCount)
+                .publishOn(Schedulers.parallel())
+                .adaptiveBufferTimeout(controller, Schedulers.parallel())
+                .collectList()
+                .block(Duration.ofSeconds(30))!!
+
+            val items = windows.flatMap { it.items }
+            items.size.assert().isEqualTo(itemCount)
+            items.assert().isSorted()
+            windows.all { it.items.isNotEmpty() }.assert().isTrue()
+        }
+    }
+
+    @Test
+    fun `invalid adaptive options should be rejected`() {
+        assertThrows<IllegalArgumentException> {
+            AdaptiveBatchOptions(targetLatency = Duration.ZERO)
+        }
+        assertThrows<IllegalArgumentException> {
+            AdaptiveBatchOptions(targetLatency = Duration.ofMillis(1), decreaseFactor = 1.0)
+        }
+        assertThrows<IllegalArgumentException> {
+            BatchOptions(
+                maxSize = 4,
+                maxDelay = Duration.ofMillis(1),
+                maxPendingItems = 4,
+                adaptive = AdaptiveBatchOptions(targetLatency = Duration.ofMillis(1), minSize = 8),
+            )
+        }
+        assertThrows<IllegalArgumentException> {
+            BatchOptions(
+                maxSize = 4,
+                maxDelay = Duration.ofMillis(1),
+                maxPendingItems = 4,
+                adaptive = AdaptiveBatchOptions(
+                    targetLatency = Duration.ofMillis(1),
+                    minDelay = Duration.ofMillis(2),
+                ),
+            )
+        }
+    }
+}
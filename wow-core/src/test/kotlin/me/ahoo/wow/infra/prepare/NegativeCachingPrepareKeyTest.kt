@@ -0,0 +1,96 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.infra.prepare
+
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.infra.prepare.PreparedValue.Companion.toForever
+import org.junit.jupiter.api.Test
+import reactor.core.publisher.Mono
+import reactor.kotlin.test.test
+import java.time.Duration
+
+class NegativeCachingPrepareKeyTest {
+    private var now = 0L
+    private val delegate = mockk<PrepareKey<String>> {
+        every { name } returns "username"
+        every { prepare(any(), any<PreparedValue<String>>()) } returns Mono.just(false)
+        every { rollback(any(), any<String>()) } returns Mono.just(true)
+    }
+    private val prepareKey = NegativeCachingPrepareKey(
+        delegate = delegate,
+        ttl = Duration.ofNanos(TTL_NANOS),
+        maxEntries = 2,
+        clock = { now },
+    )
+
+    @Test
+    fun `should answer known taken keys locally`() {
+        prepareKey.prepare("taken", "user".toForever()).test().expectNext(false).verifyComplete()
+        prepareKey.prepare("taken", "user".toForever()).test().expectNext(false).verifyComplete()
+
+        verify(exactly = 1) { delegate.prepare("taken", any<PreparedValue<String>>()) }
+        prepareKey.isKnownTaken("taken").assert().isTrue()
+        prepareKey.name.assert().isEqualTo("username")
+    }
+
+    @Test
+    fun `should forget taken keys after ttl`() {
+        prepareKey.prepare("taken", "user".toForever()).block()
+        now += TTL_NANOS
+
+        prepareKey.isKnownTaken("taken").assert().isFalse()
+        prepareKey.prepare("taken", "user".toForever()).block()
+        verify(exactly = 2) { delegate.prepare("taken", any<PreparedValue<String>>()) }
+    }
+
+    @Test
+    fun `should forget keys rolled back locally`() {
+        prepareKey.prepare("taken", "user".toForever()).block()
+
+        prepareKey.rollback("taken", "user").test().expectNext(true).verifyComplete()
+
+        prepareKey.isKnownTaken("taken").assert().isFalse()
+    }
+
+    @Test
+    fun `should reject prepare all without the store when any key is known taken`() {
+        prepareKey.prepare("taken", "user".toForever()).block()
+
+        prepareKey.prepareAll(mapOf("free" to "user".toForever(), "taken" to "user".toForever()))
+            .test()
+            .expectNext(false)
+            .verifyComplete()
+
+        verify(exactly = 0) { delegate.prepareAll(any()) }
+    }
+
+    @Test
+    fun `should stop remembering keys when full`() {
+        prepareKey.prepare("first", "user".toForever()).block()
+        prepareKey.prepare("second", "user".toForever()).block()
+        prepareKey.prepare("third", "user".toForever()).block()
+
+        prepareKey.isKnownTaken("third").assert().isFalse()
+        now += TTL_NANOS
+        prepareKey.prepare("third", "user".toForever()).block()
+        prepareKey.isKnownTaken("third").assert().isTrue()
+    }
+
+    companion object {
+        const val TTL_NANOS = 1_000L
+    }
+}
@@ -116,6 +116,106 @@ class PrepareKeyTest {
 
         exception.message.assert().contains("oldKey must not be equals to newKey")
     }
+
+    @Test
+    fun `prepare all prepares every key`() {
+        val prepareKey = InMemoryPrepareKey<String>()
+
+        StepVerifier.create(
+            prepareKey.prepareAll(mapOf("username" to "user".toForever(), "email" to "user".toForever()))
+        )
+            .expectNext(true)
+            .verifyComplete()
+
+        StepVerifier.create(prepareKey.get("email"))
+            .expectNext("user")
+            .verifyComplete()
+    }
+
+    @Test
+    fun `prepare all rolls back prepared keys in reverse order when a key is taken`() {
+        val prepareKey = InMemoryPrepareKey<String>()
+        prepareKey.prepare("phone", "other").block()
+
+        StepVerifier.create(
+            prepareKey.prepareAll(
+                linkedMapOf(
+                    "username" to "user".toForever(),
+                    "email" to "user".toForever(),
+                    "phone" to "user".toForever(),
+                    "nickname" to "user".toForever(),
+                ),
+            )
+        )
+            .expectNext(false)
+            .verifyComplete()
+
+        prepareKey.rolledBack.assert().isEqualTo(listOf("email" to "user", "username" to "user"))
+        StepVerifier.create(prepareKey.getValue("nickname"))
+            .verifyComplete()
+        StepVerifier.create(prepareKey.get("phone"))
+            .expectNext("other")
+            .verifyComplete()
+    }
+
+    @Test
+    fun `prepare all entries rolls back keys of other prepare keys when a key is taken`() {
+        val usernamePrepare = InMemoryPrepareKey<String>("username")
+        val emailPrepare = InMemoryPrepareKey<String>("email")
+        val phonePrepare = InMemoryPrepareKey<String>("phone")
+        phonePrepare.prepare("10086", "other").block()
+
+        StepVerifier.create(
+            listOf(
+                usernamePrepare.entry("user", "user-id"),
+                emailPrepare.entry("user@ahoo.me", "user-id"),
+                phonePrepare.entry("10086", "user-id"),
+            ).prepareAll()
+        )
+            .expectNext(false)
+            .verifyComplete()
+
+        usernamePrepare.rolledBack.assert().containsExactly("user" to "user-id")
+        emailPrepare.rolledBack.assert().containsExactly("user@ahoo.me" to "user-id")
+        StepVerifier.create(phonePrepare.get("10086"))
+            .expectNext("other")
+            .verifyComplete()
+    }
+
+    @Test
+    fun `using prepare all entries rolls back every key when operation fails`() {
+        val usernamePrepare = InMemoryPrepareKey<String>("username")
+        val emailPrepare = InMemoryPrepareKey<String>("email")
+
+        StepVerifier.create(
+            listOf(
+                usernamePrepare.entry("user", "user-id"),
+                emailPrepare.entry("user@ahoo.me", "user-id"),
+            ).usingPrepareAll {
+                Mono.error<String>(IllegalStateException("operation failed"))
+            }
+        )
+            .expectError(IllegalStateException::class.java)
+            .verify()
+
+        usernamePrepare.rolledBack.assert().containsExactly("user" to "user-id")
+        emailPrepare.rolledBack.assert().containsExactly("user@ahoo.me" to "user-id")
+    }
+
+    @Test
+    fun `using prepare all rolls back every key when operation fails`() {
+        val prepareKey = InMemoryPrepareKey<String>()
+
+        StepVerifier.create(
+            prepareKey.usingPrepareAll(mapOf("username" to "user".toForever(), "email" to "user".toForever())) {
+                Mono.error<String>(IllegalStateException("operation failed"))
+            }
+        )
+            .expectError(IllegalStateException::class.java)
+            .verify()
+
+        prepareKey.rolledBack.assert().containsExactlyInAnyOrder("username" to "user", "email" to "user")
+    }
 }
 
 private class InMemoryPrepareKey<V : Any>(
@@ -66,6 +66,29 @@ class LocalFirstMessageBusTest {
         ready.get(1, TimeUnit.SECONDS)
     }
 
+    @Test
+    fun `distributed pipelines are marked to skip locally handled records`() {
+        val markers = mutableListOf<Boolean>()
+        val bus = RecordingLocalFirstMessageBus(
+            localBus = RecordingLocalBus(),
+            distributedBus = RecordingDistributedBus(
+                receiveFlux = Flux.deferContextual {
+                    markers += it.isSkipLocalHandled()
+                    Flux.empty()
+                },
+            ),
+        )
+        val subscription = MessageSubscription(LocalFirstTestMessage(), receiverGroup = "receiver-group")
+
+        StepVerifier.create(bus.receive(subscription)).verifyComplete()
+        StepVerifier.create(bus.receiver(subscription).messages).verifyComplete()
+        StepVerifier.create(Flux.deferContextual { Mono.just(it.isSkipLocalHandled()) })
+            .expectNext(false)
+            .verifyComplete()
+
+        markers.assert().containsExactly(true, true)
+    }
+
     @Test
     fun `receiver opens local and distributed processing exactly once`() {
         val localAdmissions = AtomicInteger()
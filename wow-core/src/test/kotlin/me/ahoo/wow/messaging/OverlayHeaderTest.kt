@@ -0,0 +1,101 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.messaging
+
+import me.ahoo.test.asserts.assert
+import me.ahoo.test.asserts.assertThrownBy
+import me.ahoo.wow.api.command.CommandMessage
+import me.ahoo.wow.command.SimpleCommandMessage
+import me.ahoo.wow.command.toCommandMessage
+import me.ahoo.wow.id.generateGlobalId
+import me.ahoo.wow.serialization.toJsonString
+import me.ahoo.wow.serialization.toObject
+import me.ahoo.wow.tck.mock.MockCreateAggregate
+import org.junit.jupiter.api.Test
+
+class OverlayHeaderTest {
+    private val base = DefaultHeader(mutableMapOf("one" to "1", "two" to "2")).withReadOnly()
+
+    @Test
+    fun `should require a read only base`() {
+        assertThrownBy<IllegalArgumentException> { OverlayHeader(DefaultHeader.empty()) }
+    }
+
+    @Test
+    fun `writes should only touch the overlay`() {
+        val header = OverlayHeader(base)
+
+        header.with("two", "22").with("three", "3")
+        header.remove("one").assert().isEqualTo("1")
+
+        header.assert().containsExactlyInAnyOrderEntriesOf(mapOf("two" to "22", "three" to "3"))
+        header.size.assert().isEqualTo(2)
+        header.containsKey("one").assert().isFalse()
+        base.assert().containsExactlyInAnyOrderEntriesOf(mapOf("one" to "1", "two" to "2"))
+    }
+
+    @Test
+    fun `put should restore a removed base key`() {
+        val header = OverlayHeader(base)
+
+        header.clear()
+        header.assert().isEmpty()
+        header.with("one", "11")
+
+        header.assert().containsExactlyInAnyOrderEntriesOf(mapOf("one" to "11"))
+    }
+
+    @Test
+    fun `read only overlay rejects all mutation paths`() {
+        val header = OverlayHeader(base).withReadOnly()
+
+        header.isReadOnly.assert().isTrue()
+        assertThrownBy<UnsupportedOperationException> { header["other"] = "value" }
+        assertThrownBy<UnsupportedOperationException> { header.remove("one") }
+        assertThrownBy<UnsupportedOperationException> { header.clear() }
+        assertThrownBy<UnsupportedOperationException> { header.entries.clear() }
+    }
+
+    @Test
+    fun `copy should be a mutable default header with merged entries`() {
+        val header = OverlayHeader(base).with("three", "3")
+
+        val copy = header.copy()
+
+        copy.assert().isInstanceOf(DefaultHeader::class.java)
+        copy.isReadOnly.assert().isFalse()
+        copy.assert().isEqualTo(header)
+        header.assert().isEqualTo(copy)
+    }
+
+    @Test
+    fun `overlay copies should share the frozen header of a message`() {
+        val message = MockCreateAggregate(generateGlobalId(), "data").toCommandMessage()
+        val snapshot = message.copy().withReadOnly()
+
+        val local = (snapshot as SimpleCommandMessage<*>).overlayCopy()
+        val distributed = snapshot.overlayCopy()
+        local.header.withLocalFirst()
+        distributed.header.withLocalFirst(false)
+
+        local.assert().isNotSameAs(distributed)
+        local.isReadOnly.assert().isFalse()
+        local.header.assert().isInstanceOf(OverlayHeader::class.java)
+        local.isLocalFirst().assert().isTrue()
+        distributed.isLocalFirst().assert().isFalse()
+        snapshot.header.containsKey(LOCAL_FIRST_HEADER).assert().isFalse()
+        distributed.toJsonString().toObject<CommandMessage<*>>().header[LOCAL_FIRST_HEADER]
+            .assert().isEqualTo(false.toString())
+    }
+}
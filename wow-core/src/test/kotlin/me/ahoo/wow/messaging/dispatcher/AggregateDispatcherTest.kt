@@ -15,10 +15,13 @@ package me.ahoo.wow.messaging.dispatcher
 
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry
 import me.ahoo.test.asserts.assert
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.api.modeling.AggregateIdCapable
 import me.ahoo.wow.api.modeling.NamedAggregate
 import me.ahoo.wow.messaging.TestNamedMessage
 import me.ahoo.wow.messaging.handler.MessageExchange
 import me.ahoo.wow.metrics.WowMetrics
+import me.ahoo.wow.modeling.aggregateId
 import me.ahoo.wow.modeling.materialize
 import me.ahoo.wow.modeling.toNamedAggregate
 import me.ahoo.wow.runtime.WowRuntime
@@ -763,6 +766,62 @@ class AggregateDispatcherTest {
         }
     }
 
+    @Test
+    fun `hot key isolation keeps per-aggregate order across lane moves`() {
+        val namedAggregate = "wow-core-test.messaging_aggregate".toNamedAggregate()
+        val aggregateIds = listOf("hot", "cold-1", "cold-2").map { namedAggregate.aggregateId(it) }
+        val exchanges = List(HOT_KEY_EXCHANGES) { index ->
+            // Three of four exchanges target the hot aggregate; all share group 0.
+            val aggregateId = if (index % 4 == 0) aggregateIds[1 + index / 4 % 2] else aggregateIds[0]
+            TestExchange(group = 0, id = index, message = AggregateTestMessage(aggregateId))
+        }
+        val source = Sinks.many().unicast().onBackpressureBuffer<TestExchange>()
+        val handledIds = ConcurrentHashMap<String, MutableList<Int>>()
+        val allHandled = CountDownLatch(exchanges.size)
+        val dispatcher = object : RecordingAggregateDispatcher(
+            messageFlux = source.asFlux(),
+            handle = { exchange ->
+                Mono.delay(Duration.ofMillis((exchange.id % 3).toLong()))
+                    .doOnNext {
+                        val aggregateId = (exchange.message as AggregateTestMessage).aggregateId.id
+                        handledIds.computeIfAbsent(aggregateId) { CopyOnWriteArrayList() }.add(exchange.id)
+                        allHandled.countDown()
+                    }
+                    .then()
+            },
+            scheduler = Schedulers.parallel(),
+        ) {
+            override val hotKeyIsolation: HotKeyIsolation = HotKeyIsolation(
+                depthThreshold = 0,
+                rateThreshold = 8,
+                window = Duration.ofMillis(200),
+                maxLanes = 1,
+                maxTrackedKeys = 4,
+            )
+        }
+
+        prepareAndStart(dispatcher)
+        exchanges.take(HOT_KEY_EXCHANGES / 2).forEach { source.tryEmitNext(it).orThrow() }
+        val deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5)
+        while (dispatcher.activeHotKeyRouter?.groupOf(aggregateIds[0]).let { it == null || it < 2 } &&
+            System.nanoTime() < deadline
+        ) {
+            Thread.sleep(1)
+        }
+        // The hot aggregate has moved to its lane while half of the load is still to come.
+        dispatcher.activeHotKeyRouter?.groupOf(aggregateIds[0]).assert().isEqualTo(2)
+        allHandled.count.assert().isGreaterThanOrEqualTo(HOT_KEY_EXCHANGES / 2L)
+        exchanges.drop(HOT_KEY_EXCHANGES / 2).forEach { source.tryEmitNext(it).orThrow() }
+        allHandled.await(10, TimeUnit.SECONDS).assert().isTrue()
+
+        handledIds.keys.assert().containsExactlyInAnyOrder("hot", "cold-1", "cold-2")
+        handledIds.values.forEach { ids ->
+            ids.assert().isSorted()
+        }
+        dispatcher.quiesce()
+        StepVerifier.create(dispatcher.stopGracefully()).verifyComplete()
+    }
+
     private fun tryStartAfterTerminalStop(dispatcher: AggregateDispatcher<TestExchange>) {
         try {
             dispatcher.start()
@@ -838,6 +897,12 @@ class AggregateDispatcherTest {
     }
 }
 
+private const val HOT_KEY_EXCHANGES = 200
+
+private class AggregateTestMessage(
+    override val aggregateId: AggregateId
+) : TestNamedMessage(), AggregateIdCapable
+
 private data class TestExchange(
     val group: Int,
     val id: Int = group,
@@ -0,0 +1,145 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.messaging.dispatcher
+
+import me.ahoo.test.asserts.assert
+import me.ahoo.test.asserts.assertThrownBy
+import org.junit.jupiter.api.Test
+import reactor.kotlin.test.test
+import java.time.Duration
+
+class HotKeyIsolationTest {
+    private var now = 0L
+    private val isolation = HotKeyIsolation(
+        depthThreshold = 2,
+        rateThreshold = 3,
+        window = Duration.ofNanos(WINDOW_NANOS),
+        maxLanes = 1,
+        maxTrackedKeys = 4,
+    )
+
+    private fun router(parallelism: Int = 2) = HotKeyRouter(parallelism, isolation) { now }
+
+    @Test
+    fun `should keep keys in their shared group below the depth threshold`() {
+        val router = router()
+
+        repeat(10) {
+            router.route(HOT, 0).assert().isZero()
+            router.complete(0)
+        }
+        router.groupOf(HOT).assert().isNull()
+    }
+
+    @Test
+    fun `should move a hot key to a dedicated lane held behind its shared group`() {
+        val router = router()
+        repeat(2) { router.route(COLD, 0).assert().isZero() }
+
+        val hotGroups = List(4) { router.route(HOT, 0) }
+
+        hotGroups.assert().containsExactly(0, 0, 2, 2)
+        router.groupOf(HOT).assert().isEqualTo(2)
+        router.awaitBarrier(0).assert().isNull()
+        val released = router.awaitBarrier(2)!!
+        repeat(3) { router.complete(0) }
+        router.awaitBarrier(2).assert().isNotNull()
+        router.complete(0)
+        released.test().verifyComplete()
+        router.awaitBarrier(2).assert().isNull()
+        router.route(COLD, 0).assert().isZero()
+    }
+
+    @Test
+    fun `should freeze the lane barrier while the shared group keeps admitting`() {
+        val router = router()
+        repeat(2) { router.route(COLD, 0) }
+        repeat(3) { router.route(HOT, 0) }
+
+        repeat(10) {
+            router.route(COLD, 0).assert().isZero()
+            router.route(HOT, 0).assert().isEqualTo(2)
+        }
+        repeat(3) { router.complete(0) }
+        router.awaitBarrier(2).assert().isNotNull()
+        router.complete(0)
+
+        // The COLD exchanges admitted after the move are still in flight.
+        router.awaitBarrier(2).assert().isNull()
+    }
+
+    @Test
+    fun `should move a quiet key back to its shared group after its lane drains`() {
+        val router = router()
+        repeat(2) { router.route(COLD, 0) }
+        repeat(3) { router.route(HOT, 0) }
+        router.route(HOT, 0).assert().isEqualTo(2)
+
+        now += WINDOW_NANOS
+        router.route(HOT, 0).assert().isEqualTo(2)
+        now += WINDOW_NANOS
+        // Cooled down, but its lane has not completed it yet.
+        router.route(HOT, 0).assert().isEqualTo(2)
+        repeat(4) { router.complete(2) }
+        now += WINDOW_NANOS
+        router.route(HOT, 0).assert().isZero()
+    }
+
+    @Test
+    fun `should release the lane of a key that goes quiet`() {
+        val router = router()
+        repeat(2) { router.route(COLD, 0) }
+        repeat(3) { router.route(HOT, 0) }
+        router.route(HOT, 0).assert().isEqualTo(2)
+        repeat(2) { router.complete(2) }
+
+        // HOT never arrives again: later admissions of other keys roll the windows.
+        repeat(2) {
+            now += WINDOW_NANOS
+            router.route(COLD, 0)
+        }
+        router.groupOf(HOT).assert().isNull()
+
+        repeat(2) { router.route(OTHER_HOT, 0) }
+        router.route(OTHER_HOT, 0).assert().isEqualTo(2)
+    }
+
+    @Test
+    fun `should keep hot keys shared when every lane is taken`() {
+        val router = router()
+        repeat(2) { router.route(COLD, 0) }
+        repeat(3) { router.route(HOT, 0) }
+        repeat(3) { router.route(OTHER_HOT, 0) }
+
+        router.route(HOT, 0).assert().isEqualTo(2)
+        router.route(OTHER_HOT, 0).assert().isZero()
+    }
+
+    @Test
+    fun `should reject invalid thresholds`() {
+        assertThrownBy<IllegalArgumentException> {
+            HotKeyIsolation(rateThreshold = 0)
+        }
+        assertThrownBy<IllegalArgumentException> {
+            HotKeyIsolation(maxLanes = 4, maxTrackedKeys = 2)
+        }
+    }
+
+    companion object {
+        const val WINDOW_NANOS = 1_000L
+        const val HOT = "hot"
+        const val OTHER_HOT = "other-hot"
+        const val COLD = "cold"
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.messaging.dispatcher
+
+import me.ahoo.test.asserts.assert
+import me.ahoo.test.asserts.assertThrownBy
+import me.ahoo.wow.modeling.MaterializedNamedAggregate
+import me.ahoo.wow.modeling.aggregateId
+import org.junit.jupiter.api.Test
+
+class TenantFairnessTest {
+    private val namedAggregate = MaterializedNamedAggregate("sales", "Order")
+
+    @Test
+    fun `should confine a tenant to its lanes`() {
+        val fairness = TenantFairness(lanesPerTenant = 2)
+
+        val groups = List(100) {
+            fairness.route(namedAggregate.aggregateId("order-$it", tenantId = "tenant-a"), parallelism = 16)
+        }.toSet()
+
+        groups.assert().hasSize(2)
+        val firstGroup = "tenant-a".hashCode().mod(16)
+        groups.assert().containsOnly(firstGroup, (firstGroup + 1) % 16)
+    }
+
+    @Test
+    fun `should route an aggregate to the same group`() {
+        val fairness = TenantFairness(lanesPerTenant = 4)
+        val aggregateId = namedAggregate.aggregateId("order", tenantId = "tenant-a")
+
+        fairness.route(aggregateId, parallelism = 8)
+            .assert()
+            .isEqualTo(fairness.route(aggregateId, parallelism = 8))
+    }
+
+    @Test
+    fun `should widen the share of weighted tenants up to parallelism`() {
+        val fairness = TenantFairness(lanesPerTenant = 2, tenantWeights = mapOf("premium" to 3, "huge" to 100))
+
+        fairness.lanesOf("standard", parallelism = 16).assert().isEqualTo(2)
+        fairness.lanesOf("premium", parallelism = 16).assert().isEqualTo(6)
+        fairness.lanesOf("huge", parallelism = 16).assert().isEqualTo(16)
+    }
+
+    @Test
+    fun `should default lanes relative to parallelism`() {
+        val fairness = TenantFairness(tenantWeights = mapOf("premium" to 2))
+
+        fairness.lanesOf("standard", parallelism = 512).assert().isEqualTo(64)
+        fairness.lanesOf("premium", parallelism = 512).assert().isEqualTo(128)
+        fairness.lanesOf("standard", parallelism = 4).assert().isEqualTo(1)
+    }
+
+    @Test
+    fun `should reject invalid shares`() {
+        assertThrownBy<IllegalArgumentException> {
+            TenantFairness(lanesPerTenant = 0)
+        }
+        assertThrownBy<IllegalArgumentException> {
+            TenantFairness(tenantWeights = mapOf("tenant" to 0))
+        }
+    }
+}
@@ -17,6 +17,7 @@ package me.ahoo.wow.messaging.function
 
 import me.ahoo.test.asserts.assert
 import me.ahoo.test.asserts.assertThrownBy
+import me.ahoo.wow.api.annotation.BatchProjection
 import me.ahoo.wow.api.annotation.Name
 import me.ahoo.wow.api.annotation.OnEvent
 import me.ahoo.wow.api.annotation.OnStateEvent
@@ -71,6 +72,31 @@ class FunctionMetadataParserTest {
         metadata.injectParameters[1].name.assert().isEmpty()
     }
 
+    @Test
+    fun `parses batch projection element types`() {
+        val bodies = MetadataProcessor::batchBodies.toFunctionMetadata<MetadataProcessor, Unit>()
+        val messages = MetadataProcessor::batchMessages.toFunctionMetadata<MetadataProcessor, Unit>()
+
+        bodies.batch.assert().isTrue()
+        bodies.firstParameterKind.assert().isEqualTo(FirstParameterKind.MESSAGE_BODY)
+        bodies.supportedType.assert().isEqualTo(ParsedEventBody::class.java)
+        messages.batch.assert().isTrue()
+        messages.firstParameterKind.assert().isEqualTo(FirstParameterKind.MESSAGE)
+        messages.supportedType.assert().isEqualTo(ParsedEventBody::class.java)
+        MetadataProcessor::wrappedEvent.toFunctionMetadata<MetadataProcessor, Unit>()
+            .batch.assert().isFalse()
+    }
+
+    @Test
+    fun `batch projection without list or with injected parameters is rejected`() {
+        assertThrownBy<IllegalStateException> {
+            MetadataProcessor::batchWithoutList.toFunctionMetadata<MetadataProcessor, Unit>()
+        }
+        assertThrownBy<IllegalStateException> {
+            MetadataProcessor::batchWithService.toFunctionMetadata<MetadataProcessor, Unit>()
+        }
+    }
+
     @Test
     fun `unannotated non default function names are rejected`() {
         assertThrownBy<IllegalStateException> {
@@ -102,6 +128,22 @@ internal class MetadataProcessor {
     ) = Unit
 
     fun plain(body: ParsedEventBody) = Unit
+
+    @OnEvent
+    @BatchProjection
+    fun batchBodies(bodies: List<ParsedEventBody>) = Unit
+
+    @OnEvent
+    @BatchProjection
+    fun batchMessages(messages: List<CommandMessage<ParsedEventBody>>) = Unit
+
+    @OnEvent
+    @BatchProjection
+    fun batchWithoutList(body: ParsedEventBody) = Unit
+
+    @OnEvent
+    @BatchProjection
+    fun batchWithService(bodies: List<ParsedEventBody>, service: ParsedService) = Unit
 }
 
 internal class ParsedExchange(
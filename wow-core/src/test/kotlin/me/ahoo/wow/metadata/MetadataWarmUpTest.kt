@@ -0,0 +1,79 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.metadata
+
+import io.mockk.mockk
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.configuration.Aggregate
+import me.ahoo.wow.configuration.BoundedContext
+import me.ahoo.wow.configuration.WowMetadata
+import me.ahoo.wow.tck.mock.MockCommandAggregate
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import reactor.kotlin.test.test
+
+class MetadataWarmUpTest {
+    private val metadata = WowMetadata(
+        contexts = mapOf(
+            "wow-tck" to BoundedContext(
+                aggregates = mapOf(
+                    "mock_aggregate" to Aggregate(
+                        type = MockCommandAggregate::class.java.name,
+                        commands = linkedSetOf("me.ahoo.wow.tck.mock.MissingCommand"),
+                    ),
+                ),
+            ),
+        ),
+    )
+
+    @Test
+    fun `should parse declared aggregates with their commands and sourced events`() {
+        val report = MetadataWarmUp(metadata, parallelism = 2).warmUp()
+
+        report.aggregates.assert().isEqualTo(1)
+        report.commands.assert().isGreaterThanOrEqualTo(3)
+        report.events.assert().isGreaterThanOrEqualTo(2)
+        report.unresolved.assert().isEqualTo(1)
+        report.failures.assert().isZero()
+    }
+
+    @Test
+    fun `prepare should publish the report`() {
+        val warmUp = MetadataWarmUp(metadata)
+        warmUp.report.assert().isNull()
+
+        warmUp.prepare(mockk()).test().verifyComplete()
+
+        requireNotNull(warmUp.report).aggregates.assert().isEqualTo(1)
+        warmUp.stopGracefully().test().verifyComplete()
+    }
+
+    @Test
+    fun `should tolerate empty metadata and force stop before prepare`() {
+        val warmUp = MetadataWarmUp(WowMetadata())
+        warmUp.forceStop()
+
+        val report = warmUp.warmUp()
+
+        report.aggregates.assert().isZero()
+        report.unresolved.assert().isZero()
+    }
+
+    @Test
+    fun `should reject non-positive parallelism`() {
+        assertThrows<IllegalArgumentException> {
+            MetadataWarmUp(WowMetadata(), parallelism = 0)
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.metrics
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.command.wait.CommandStage
+import me.ahoo.wow.command.wait.CommandStageLatencyRecorder
+import me.ahoo.wow.modeling.MaterializedNamedAggregate
+import org.junit.jupiter.api.Test
+import java.util.concurrent.TimeUnit
+
+class MetricCommandStageLatencyRecorderTest {
+    private val namedAggregate = MaterializedNamedAggregate("sales", "Order")
+
+    private fun CommandStageLatencyRecorder.recordStage(
+        stage: CommandStage,
+        stageTime: Long,
+        previousStageTime: Long,
+        processorName: String = "OrderProjector",
+        succeeded: Boolean = true,
+    ) = record(stage, namedAggregate, processorName, succeeded, previousStageTime, stageTime)
+
+    @Test
+    fun `should record latency against the previous stage`() {
+        val registry = SimpleMeterRegistry()
+        val recorder = MetricCommandStageLatencyRecorder(registry)
+
+        recorder.recordStage(CommandStage.PROCESSED, stageTime = 150, previousStageTime = 100, processorName = "Order")
+        recorder.recordStage(CommandStage.PROJECTED, stageTime = 400, previousStageTime = 150)
+
+        val processedTimer = registry.find(WowMetricNames.COMMAND_STAGE_LATENCY)
+            .tag(MetricDescriptor.OPERATION_TAG, "processed")
+            .tag(MetricDescriptor.PREVIOUS_STAGE_TAG, "sent")
+            .timer()
+        requireNotNull(processedTimer).totalTime(TimeUnit.MILLISECONDS).assert().isEqualTo(50.0)
+        val projectedTimer = registry.find(WowMetricNames.COMMAND_STAGE_LATENCY)
+            .tag(MetricDescriptor.OPERATION_TAG, "projected")
+            .tag(MetricDescriptor.PREVIOUS_STAGE_TAG, "processed")
+            .tag(MetricDescriptor.PROCESSOR_TAG, "OrderProjector")
+            .timer()
+        requireNotNull(projectedTimer).totalTime(TimeUnit.MILLISECONDS).assert().isEqualTo(250.0)
+    }
+
+    @Test
+    fun `should clamp clock skew and separate failed stages`() {
+        val registry = SimpleMeterRegistry()
+        val recorder = MetricCommandStageLatencyRecorder(registry)
+
+        recorder.recordStage(CommandStage.PROJECTED, stageTime = 100, previousStageTime = 200, succeeded = false)
+
+        val timer = registry.find(WowMetricNames.COMMAND_STAGE_LATENCY)
+            .tag(MetricDescriptor.OUTCOME_TAG, MetricOutcome.ERROR.metricValue)
+            .timer()
+        requireNotNull(timer).count().assert().isEqualTo(1)
+        timer.totalTime(TimeUnit.MILLISECONDS).assert().isEqualTo(0.0)
+    }
+
+    @Test
+    fun `snapshot should report recorded stages`() {
+        val recorder = MetricCommandStageLatencyRecorder(SimpleMeterRegistry())
+
+        recorder.recordStage(CommandStage.SENT, stageTime = 100, previousStageTime = 0)
+        recorder.recordStage(CommandStage.EVENT_HANDLED, stageTime = 120, previousStageTime = 100)
+
+        val latency = recorder.snapshot().single()
+        latency.stage.assert().isEqualTo(CommandStage.EVENT_HANDLED)
+        latency.previousStage.assert().isEqualTo(CommandStage.PROCESSED)
+        latency.aggregate.assert().isEqualTo("Order")
+        latency.count.assert().isEqualTo(1)
+        latency.max.assert().isEqualTo(20.0)
+    }
+
+    @Test
+    fun `disabled metrics should not record stage latency`() {
+        WowMetrics.NONE.commandStageLatencyRecorder.assert().isSameAs(CommandStageLatencyRecorder.NONE)
+        WowMetrics.NONE.commandStageLatencies().assert().isEmpty()
+    }
+
+    @Test
+    fun `percentile histogram should be opt-in`() {
+        val registry = SimpleMeterRegistry()
+        MetricCommandStageLatencyRecorder(registry)
+            .recordStage(CommandStage.PROCESSED, stageTime = 150, previousStageTime = 100, processorName = "Order")
+        MetricCommandStageLatencyRecorder(registry, percentileHistogram = true)
+            .recordStage(CommandStage.PROJECTED, stageTime = 400, previousStageTime = 150)
+
+        val processedTimer = registry.find(WowMetricNames.COMMAND_STAGE_LATENCY)
+            .tag(MetricDescriptor.OPERATION_TAG, "processed")
+            .timer()
+        requireNotNull(processedTimer).takeSnapshot().histogramCounts().assert().isEmpty()
+        val projectedTimer = registry.find(WowMetricNames.COMMAND_STAGE_LATENCY)
+            .tag(MetricDescriptor.OPERATION_TAG, "projected")
+            .timer()
+        requireNotNull(projectedTimer).takeSnapshot().histogramCounts().assert().isNotEmpty()
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.modeling.state
+
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.eventsourcing.EventStoreStateAggregateRepository
+import me.ahoo.wow.eventsourcing.InMemoryEventStore
+import me.ahoo.wow.modeling.aggregateId
+import me.ahoo.wow.modeling.metadata.StateAggregateMetadata
+import me.ahoo.wow.tck.mock.MOCK_AGGREGATE_METADATA
+import org.junit.jupiter.api.Test
+import reactor.core.publisher.Mono
+import reactor.test.StepVerifier
+import reactor.test.scheduler.VirtualTimeScheduler
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
+
+class PrefetchingStateAggregateRepositoryTest {
+    private val aggregateId = MOCK_AGGREGATE_METADATA.aggregateId("aggregate-1")
+    private val delegate = CountingStateAggregateRepository(
+        EventStoreStateAggregateRepository(ConstructorStateAggregateFactory, InMemoryEventStore())
+    )
+
+    @Test
+    fun `first load should claim the prefetched state`() {
+        val repository = PrefetchingStateAggregateRepository(delegate, scheduler = VirtualTimeScheduler.create())
+
+        repository.prefetch(aggregateId)
+        delegate.loads.get().assert().isEqualTo(1)
+
+        StepVerifier.create(repository.load(aggregateId, MOCK_AGGREGATE_METADATA.state))
+            .expectNextCount(1)
+            .verifyComplete()
+        delegate.loads.get().assert().isEqualTo(1)
+
+        StepVerifier.create(repository.load(aggregateId, MOCK_AGGREGATE_METADATA.state))
+            .expectNextCount(1)
+            .verifyComplete()
+        delegate.loads.get().assert().isEqualTo(2)
+    }
+
+    @Test
+    fun `contended prefetch should drop the parked state`() {
+        val repository = PrefetchingStateAggregateRepository(delegate, scheduler = VirtualTimeScheduler.create())
+
+        repository.prefetch(aggregateId)
+        repository.prefetch(aggregateId)
+        delegate.loads.get().assert().isEqualTo(1)
+
+        StepVerifier.create(repository.load(aggregateId, MOCK_AGGREGATE_METADATA.state))
+            .expectNextCount(1)
+            .verifyComplete()
+        delegate.loads.get().assert().isEqualTo(2)
+    }
+
+    @Test
+    fun `versioned load should bypass the prefetched state`() {
+        val repository = PrefetchingStateAggregateRepository(delegate, scheduler = VirtualTimeScheduler.create())
+
+        repository.prefetch(aggregateId)
+        StepVerifier.create(repository.load(aggregateId, MOCK_AGGREGATE_METADATA.state, tailVersion = 1))
+            .expectNextCount(1)
+            .verifyComplete()
+        delegate.loads.get().assert().isEqualTo(2)
+    }
+
+    @Test
+    fun `expired entries should be evicted`() {
+        val scheduler = VirtualTimeScheduler.create()
+        val repository = PrefetchingStateAggregateRepository(delegate, Duration.ofSeconds(1), scheduler = scheduler)
+
+        repository.prefetch(aggregateId)
+        repository.size.assert().isEqualTo(1)
+        scheduler.advanceTimeBy(Duration.ofSeconds(1))
+        repository.size.assert().isZero()
+
+        StepVerifier.create(repository.load(aggregateId, MOCK_AGGREGATE_METADATA.state))
+            .expectNextCount(1)
+            .verifyComplete()
+        delegate.loads.get().assert().isEqualTo(2)
+    }
+
+    @Test
+    fun `should ignore prefetch beyond max entries`() {
+        val repository = PrefetchingStateAggregateRepository(
+            delegate = delegate,
+            maxEntries = 1,
+            scheduler = VirtualTimeScheduler.create(),
+        )
+
+        repository.prefetch(aggregateId)
+        repository.prefetch(MOCK_AGGREGATE_METADATA.aggregateId("aggregate-2"))
+
+        repository.size.assert().isEqualTo(1)
+        delegate.loads.get().assert().isEqualTo(1)
+    }
+
+    @Test
+    fun `failed prefetch should fall back to a fresh load`() {
+        val failing = CountingStateAggregateRepository(delegate, failFirst = true)
+        val repository = PrefetchingStateAggregateRepository(failing, scheduler = VirtualTimeScheduler.create())
+
+        repository.prefetch(aggregateId)
+        StepVerifier.create(repository.load(aggregateId, MOCK_AGGREGATE_METADATA.state))
+            .expectNextCount(1)
+            .verifyComplete()
+        failing.loads.get().assert().isEqualTo(2)
+    }
+
+    private class CountingStateAggregateRepository(
+        private val delegate: StateAggregateRepository,
+        private val failFirst: Boolean = false,
+    ) : StateAggregateRepository {
+        val loads = AtomicInteger()
+
+        override fun <S : Any> load(
+            aggregateId: AggregateId,
+            metadata: StateAggregateMetadata<S>,
+            tailVersion: Int
+        ): Mono<StateAggregate<S>> {
+            if (loads.incrementAndGet() == 1 && failFirst) {
+                return Mono.error(IllegalStateException("prefetch failure"))
+            }
+            return delegate.load(aggregateId, metadata, tailVersion)
+        }
+
+        override fun <S : Any> load(
+            aggregateId: AggregateId,
+            metadata: StateAggregateMetadata<S>,
+            tailEventTime: Long
+        ): Mono<StateAggregate<S>> = delegate.load(aggregateId, metadata, tailEventTime)
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.projection.catchup
+
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.api.annotation.OnEvent
+import me.ahoo.wow.api.event.DomainEvent
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.api.modeling.NamedAggregate
+import me.ahoo.wow.event.DomainEventExchange
+import me.ahoo.wow.event.DomainEventStream
+import me.ahoo.wow.event.SimpleDomainEventExchange
+import me.ahoo.wow.eventsourcing.EventLogRecord
+import me.ahoo.wow.eventsourcing.EventStore
+import me.ahoo.wow.eventsourcing.InMemoryEventStore
+import me.ahoo.wow.filter.FilterChain
+import me.ahoo.wow.filter.FilterChainBuilder
+import me.ahoo.wow.filter.LogErrorHandler
+import me.ahoo.wow.id.generateGlobalId
+import me.ahoo.wow.ioc.SimpleServiceProvider
+import me.ahoo.wow.modeling.aggregateId
+import me.ahoo.wow.modeling.materialize
+import me.ahoo.wow.projection.DefaultProjectionHandler
+import me.ahoo.wow.projection.ProjectionFunctionFilter
+import me.ahoo.wow.projection.ProjectionFunctionRegistrar
+import me.ahoo.wow.tck.event.MockDomainEventStreams.generateEventStream
+import me.ahoo.wow.tck.mock.MOCK_AGGREGATE_METADATA
+import me.ahoo.wow.tck.mock.MockAggregateCreated
+import org.junit.jupiter.api.Test
+import reactor.core.publisher.Flux
+import reactor.kotlin.test.test
+import java.util.concurrent.CopyOnWriteArrayList
+
+class ProjectionCatchUpTest {
+    private val namedAggregate = MOCK_AGGREGATE_METADATA.materialize()
+    private val eventStore = InMemoryEventStore()
+    private val projection = CatchUpFixtureProjection()
+    private val functionRegistrar = ProjectionFunctionRegistrar().also {
+        it.registerProcessor(projection)
+    }
+    private val handler = DefaultProjectionHandler(
+        FilterChainBuilder<DomainEventExchange<*>>()
+            .addFilter(ProjectionFunctionFilter(SimpleServiceProvider()))
+            .build(),
+        LogErrorHandler(),
+    )
+    private val registry = ProjectionCatchUpRegistry()
+    private val catchUp = ProjectionCatchUp(
+        eventStore = eventStore,
+        functionRegistrar = functionRegistrar,
+        eventHandler = handler,
+        registry = registry,
+        batchSize = 2,
+        parallelism = 2,
+    )
+    private val liveFilter = ProjectionCatchUpFilter(registry)
+    private val processorName = CatchUpFixtureProjection::class.java.simpleName
+
+    private fun append(aggregateId: AggregateId, version: Int): DomainEventStream {
+        val eventStream = generateEventStream(aggregateId, aggregateVersion = version - 1, eventCount = 1)
+        eventStore.append(eventStream).block()
+        return eventStream
+    }
+
+    private fun live(eventStream: DomainEventStream) {
+        eventStream.forEach { event ->
+            functionRegistrar.supportedFunctions(event).forEach {
+                liveFilter.filter(
+                    SimpleDomainEventExchange(event).setFunction(it),
+                    FilterChain { exchange -> handler.handle(exchange) },
+                ).block()
+            }
+        }
+    }
+
+    @Test
+    fun `should replay history in version order per aggregate`() {
+        val first = namedAggregate.aggregateId(generateGlobalId())
+        val second = namedAggregate.aggregateId(generateGlobalId())
+        append(first, 1)
+        append(second, 1)
+        append(first, 2)
+        append(second, 2)
+        append(first, 3)
+
+        catchUp.catchUp(processorName, namedAggregate)
+            .test()
+            .consumeNextWith {
+                it.appliedStreams.assert().isEqualTo(5)
+                it.skippedStreams.assert().isZero()
+            }
+            .verifyComplete()
+
+        projection.applied(first).assert().containsExactly(1, 2, 3)
+        projection.applied(second).assert().containsExactly(1, 2)
+        registry.get(namedAggregate.contextName, processorName, namedAggregate)!!.completed.assert().isTrue()
+    }
+
+    @Test
+    fun `should hand over to live consumption without gaps or duplicates`() {
+        val replayed = namedAggregate.aggregateId(generateGlobalId())
+        val replayedStreams = (1..3).map { append(replayed, it) }
+        val watermarks = registry.register(namedAggregate.contextName, processorName, namedAggregate)
+
+        // Published while the catch-up has not started reading: left to the catch-up.
+        live(replayedStreams[2])
+        // Created after the catch-up started: owned by live consumption.
+        val created = namedAggregate.aggregateId(generateGlobalId())
+        live(append(created, 1))
+
+        catchUp.catchUp(processorName, namedAggregate)
+            .test()
+            .consumeNextWith {
+                it.appliedStreams.assert().isEqualTo(3)
+                it.skippedStreams.assert().isEqualTo(1)
+            }
+            .verifyComplete()
+        watermarks.version(replayed).assert().isEqualTo(3)
+
+        // Redelivered and new live streams after the handover.
+        live(replayedStreams[1])
+        live(append(replayed, 4))
+        live(append(created, 2))
+
+        projection.applied(replayed).assert().containsExactly(1, 2, 3, 4)
+        projection.applied(created).assert().containsExactly(1, 2)
+    }
+
+    @Test
+    fun `should apply versions skipped live but never replayed before the next live stream`() {
+        val replayed = namedAggregate.aggregateId(generateGlobalId())
+        (1..2).forEach { append(replayed, it) }
+        // Younger than the event log safety lag: the replay never reads it.
+        val unread = namedAggregate.aggregateId(generateGlobalId())
+        val unreadStreams = (1..2).map { append(unread, it) }
+        val laggingStore = object : EventStore by eventStore {
+            override fun readAll(
+                namedAggregate: NamedAggregate,
+                fromPosition: String,
+                batchSize: Int
+            ): Flux<EventLogRecord> =
+                eventStore.readAll(namedAggregate, fromPosition, batchSize)
+                    .filter { it.eventStream.aggregateId != unread }
+        }
+        registry.register(namedAggregate.contextName, processorName, namedAggregate)
+        live(unreadStreams[1])
+
+        ProjectionCatchUp(laggingStore, functionRegistrar, handler, registry, batchSize = 2)
+            .catchUp(processorName, namedAggregate)
+            .test()
+            .expectNextCount(1)
+            .verifyComplete()
+        // Never published live after the replay read its predecessor.
+        append(replayed, 3)
+        live(append(replayed, 4))
+        live(append(unread, 3))
+
+        projection.applied(replayed).assert().containsExactly(1, 2, 3, 4)
+        projection.applied(unread).assert().containsExactly(1, 2, 3)
+    }
+
+    @Test
+    fun `should resume a failed catch-up without applying streams twice`() {
+        val aggregateId = namedAggregate.aggregateId(generateGlobalId())
+        (1..3).forEach { append(aggregateId, it) }
+        projection.failOn = aggregateId.id to 2
+
+        catchUp.catchUp(processorName, namedAggregate)
+            .test()
+            .verifyError()
+        projection.applied(aggregateId).assert().containsExactly(1)
+
+        projection.failOn = null
+        catchUp.catchUp(processorName, namedAggregate)
+            .test()
+            .consumeNextWith {
+                it.appliedStreams.assert().isEqualTo(2)
+            }
+            .verifyComplete()
+        projection.applied(aggregateId).assert().containsExactly(1, 2, 3)
+    }
+
+    @Test
+    fun `should reject processors without event functions`() {
+        catchUp.catchUp("UnknownProjection", namedAggregate)
+            .test()
+            .verifyError(IllegalArgumentException::class.java)
+    }
+}
+
+private class CatchUpFixtureProjection {
+    val events: MutableList<Pair<String, Int>> = CopyOnWriteArrayList()
+
+    @Volatile
+    var failOn: Pair<String, Int>? = null
+
+    @OnEvent
+    fun onCreated(event: DomainEvent<MockAggregateCreated>) {
+        val applied = event.aggregateId.id to event.version
+        check(applied != failOn) { "Projection failed on $applied." }
+        events.add(applied)
+    }
+
+    fun applied(aggregateId: AggregateId): List<Int> =
+        events.filter { it.first == aggregateId.id }.map { it.second }
+}
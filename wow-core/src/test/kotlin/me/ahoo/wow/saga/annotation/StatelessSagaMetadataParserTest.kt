@@ -16,6 +16,8 @@
 package me.ahoo.wow.saga.annotation
 
 import me.ahoo.test.asserts.assert
+import me.ahoo.test.asserts.assertThrownBy
+import me.ahoo.wow.api.annotation.BatchProjection
 import me.ahoo.wow.api.annotation.OnEvent
 import me.ahoo.wow.api.annotation.OnStateEvent
 import me.ahoo.wow.api.messaging.function.FunctionKind
@@ -43,6 +45,13 @@ class StatelessSagaMetadataParserTest {
             )
         )
     }
+
+    @Test
+    fun `parser rejects batch projection functions`() {
+        assertThrownBy<IllegalStateException> {
+            statelessSagaMetadata<BatchFixtureStatelessSaga>()
+        }
+    }
 }
 
 private class FixtureStatelessSaga {
@@ -58,3 +67,9 @@ private class FixtureStatelessSaga {
 
     fun ignored(value: String) = Unit
 }
+
+private class BatchFixtureStatelessSaga {
+    @OnEvent
+    @BatchProjection
+    fun onCreated(created: List<MockAggregateCreated>) = Unit
+}
@@ -16,6 +16,7 @@ package me.ahoo.wow.saga.stateless
 import io.mockk.every
 import io.mockk.mockk
 import me.ahoo.test.asserts.assert
+import me.ahoo.test.asserts.assertThrownBy
 import me.ahoo.wow.api.command.CommandMessage
 import me.ahoo.wow.api.event.DomainEvent
 import me.ahoo.wow.api.messaging.function.FunctionKind
@@ -39,6 +40,8 @@ import org.junit.jupiter.api.Test
 import reactor.core.publisher.Mono
 import reactor.test.StepVerifier
 import java.time.Duration
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.atomic.AtomicInteger
 
 class StatelessSagaFunctionCommandEmissionTest {
 
@@ -130,6 +133,69 @@ class StatelessSagaFunctionCommandEmissionTest {
         sentCommands.single().assert().isSameAs(prebuilt)
     }
 
+    @Test
+    fun `parallel fan out keeps per aggregate order and deterministic request ids`() {
+        val event = fixtureEvent()
+        val inFlight = AtomicInteger()
+        val maxInFlight = AtomicInteger()
+        val sentCommands = CopyOnWriteArrayList<CommandMessage<*>>()
+        val commandGateway = mockk<CommandGateway> {
+            every { send(any<CommandMessage<*>>()) } answers {
+                val command = firstArg<CommandMessage<*>>()
+                Mono.delay(Duration.ofMillis(20))
+                    .doOnSubscribe {
+                        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), ::maxOf)
+                    }.doFinally {
+                        inFlight.decrementAndGet()
+                        sentCommands.add(command)
+                    }.then()
+            }
+        }
+        val function = StatelessSagaFunction(
+            delegate = StubMessageFunction(
+                Mono.just(
+                    listOf(
+                        MockChangeAggregate("a", "a-0"),
+                        MockChangeAggregate("b", "b-1"),
+                        MockChangeAggregate("a", "a-2"),
+                        MockChangeAggregate("c", "c-3"),
+                    )
+                )
+            ),
+            commandGateway = commandGateway,
+            commandMessageFactory = commandMessageFactory(),
+            sendParallelism = 2,
+        )
+
+        StepVerifier.create(function.invoke(SimpleDomainEventExchange(event)))
+            .assertNext { stream ->
+                stream.map { it.requestId }.assert().containsExactly(
+                    "${event.id}-0",
+                    "${event.id}-1",
+                    "${event.id}-2",
+                    "${event.id}-3",
+                )
+            }.verifyComplete()
+
+        sentCommands.assert().hasSize(4)
+        sentCommands.filter { it.aggregateId.id == "a" }
+            .map { (it.body as MockChangeAggregate).data }
+            .assert().containsExactly("a-0", "a-2")
+        maxInFlight.get().assert().isEqualTo(2)
+    }
+
+    @Test
+    fun `send parallelism must be positive`() {
+        assertThrownBy<IllegalArgumentException> {
+            StatelessSagaFunction(
+                delegate = StubMessageFunction(Mono.empty<Any>()),
+                commandGateway = mockk(),
+                commandMessageFactory = commandMessageFactory(),
+                sendParallelism = 0,
+            )
+        }
+    }
+
     private fun statelessSagaFunction(
         result: Mono<*>,
         sentCommands: MutableList<CommandMessage<*>>,
@@ -17,6 +17,8 @@ import me.ahoo.test.asserts.assert
 import me.ahoo.wow.modeling.toNamedAggregate
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.api.condition.EnabledForJreRange
+import org.junit.jupiter.api.condition.JRE
 import reactor.core.publisher.Flux
 import reactor.core.publisher.Mono
 import reactor.core.scheduler.Schedulers
@@ -150,4 +152,54 @@ internal class AggregateSchedulerSupplierTest {
             supplier.forceStop()
         }
     }
+
+    @Test
+    fun `supplier should create schedulers through configured factory`() {
+        val names = mutableListOf<String>()
+        val supplier = DefaultAggregateSchedulerSupplier("worker", parallelism = 3) { name, parallelism ->
+            names.add("$name:$parallelism")
+            Schedulers.newSingle(name)
+        }
+
+        supplier.getOrInitialize("sales.Order".toNamedAggregate())
+
+        names.assert().containsExactly("worker-Order:3")
+        StepVerifier.create(supplier.stopGracefully()).verifyComplete()
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    fun `virtual thread scheduler should keep group order while handlers block`() {
+        val supplier = DefaultAggregateSchedulerSupplier(
+            "worker",
+            schedulerFactory = AggregateSchedulerFactory.VIRTUAL_THREAD,
+        )
+        val scheduler = supplier.getOrInitialize("sales.Order".toNamedAggregate())
+        val threadNames = mutableSetOf<String>()
+
+        StepVerifier.create(
+            Flux.range(1, 20)
+                .publishOn(scheduler)
+                .map {
+                    Thread.sleep(1)
+                    threadNames.add(Thread.currentThread().name)
+                    it
+                }
+                .collectList()
+        ).assertNext {
+            it.assert().isEqualTo((1..20).toList())
+        }.verifyComplete()
+
+        threadNames.assert().allMatch { it.startsWith("worker-Order-") }
+        StepVerifier.create(supplier.stopGracefully()).verifyComplete()
+    }
+
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_20)
+    fun `virtual threads should be reported unsupported before Java 21`() {
+        VirtualThreads.isSupported.assert().isFalse()
+        assertThrows<IllegalStateException> {
+            VirtualThreads.threadFactory("worker-")
+        }
+    }
 }
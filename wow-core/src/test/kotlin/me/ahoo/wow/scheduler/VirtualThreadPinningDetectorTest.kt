@@ -0,0 +1,59 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.scheduler
+
+import me.ahoo.test.asserts.assert
+import org.junit.jupiter.api.Test
+import java.time.Duration
+
+internal class VirtualThreadPinningDetectorTest {
+
+    private fun pinning() = VirtualThreadPinning(
+        threadName = "worker-Order-0",
+        duration = Duration.ofMillis(50),
+        stackTrace = listOf("java.lang.Object.wait:-1"),
+    )
+
+    @Test
+    fun `report should count pinnings and notify listener`() {
+        val reported = mutableListOf<VirtualThreadPinning>()
+        val detector = VirtualThreadPinningDetector(listener = { reported.add(it) })
+
+        detector.report(pinning())
+
+        detector.pinnedCount.assert().isEqualTo(1)
+        reported.assert().containsExactly(pinning())
+    }
+
+    @Test
+    fun `report should survive a failing listener`() {
+        val detector = VirtualThreadPinningDetector(listener = { error("listener failed") })
+
+        detector.report(pinning())
+
+        detector.pinnedCount.assert().isEqualTo(1)
+    }
+
+    @Test
+    fun `start and close should be idempotent`() {
+        val detector = VirtualThreadPinningDetector(threshold = Duration.ofMillis(5))
+
+        detector.start()
+        detector.start()
+        detector.close()
+        detector.close()
+
+        detector.pinnedCount.assert().isEqualTo(0)
+    }
+}
@@ -30,7 +30,7 @@ object TemplateInitializer {
 
     fun ReactiveElasticsearchClient.initEventStreamTemplate() {
         val elasticsearchTemplate = createElasticsearchTemplate()
-        IndexTemplateInitializer(elasticsearchTemplate).initEventStreamTemplate().block()
+        IndexTemplateInitializer(elasticsearchTemplate).ensureEventStreamTemplate().block()
     }
 
     fun ReactiveElasticsearchClient.initSnapshotTemplate() {
@@ -41,6 +41,7 @@ class ElasticsearchEventStoreTest : EventStoreSpec() {
         elasticsearchClient.initEventStreamTemplate()
         return ElasticsearchEventStore(
             elasticsearchClient = elasticsearchClient,
+            eventLogSafetyLag = Duration.ZERO,
         )
     }
 
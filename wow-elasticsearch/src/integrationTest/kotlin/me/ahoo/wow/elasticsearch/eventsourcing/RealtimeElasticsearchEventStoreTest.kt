@@ -0,0 +1,164 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.elasticsearch.eventsourcing
+
+import co.elastic.clients.elasticsearch._types.Refresh
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.configuration.requiredNamedAggregate
+import me.ahoo.wow.elasticsearch.IndexNameConverter.toEventStreamHeadIndexName
+import me.ahoo.wow.elasticsearch.ReactiveElasticsearchClients
+import me.ahoo.wow.elasticsearch.TemplateInitializer.initEventStreamTemplate
+import me.ahoo.wow.event.DomainEventStream
+import me.ahoo.wow.id.generateGlobalId
+import me.ahoo.wow.modeling.aggregateId
+import me.ahoo.wow.serialization.MessageRecords
+import me.ahoo.wow.tck.container.ElasticsearchTestFixture
+import me.ahoo.wow.tck.event.MockDomainEventStreams.generateEventStream
+import me.ahoo.wow.tck.eventsourcing.EventStoreSpec
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.RegisterExtension
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient
+import reactor.core.publisher.Flux
+import reactor.kotlin.test.test
+
+class RealtimeElasticsearchEventStoreTest {
+    @JvmField
+    @RegisterExtension
+    val elasticsearch = ElasticsearchTestFixture()
+
+    private val namedAggregate = EventStoreSpec::class.java.requiredNamedAggregate()
+
+    private fun createClient(): ReactiveElasticsearchClient {
+        return ReactiveElasticsearchClients.createReactiveElasticsearchClient(elasticsearch).also {
+            it.initEventStreamTemplate()
+        }
+    }
+
+    private fun realtimeStore(client: ReactiveElasticsearchClient): ElasticsearchEventStore {
+        return ElasticsearchEventStore(
+            elasticsearchClient = client,
+            refreshPolicy = Refresh.False,
+            batchSize = 2,
+            realtimeLoad = true,
+        )
+    }
+
+    private fun generateStreams(aggregateId: AggregateId, versions: IntRange): List<DomainEventStream> {
+        return versions.map { version ->
+            generateEventStream(
+                aggregateId = aggregateId,
+                aggregateVersion = version - 1,
+                eventCount = 1,
+            )
+        }
+    }
+
+    private fun ElasticsearchEventStore.appendAll(streams: List<DomainEventStream>) {
+        Flux.concat(streams.map(::append))
+            .then()
+            .test()
+            .verifyComplete()
+    }
+
+    @Test
+    fun `load should see appends without a refresh`() {
+        val store = realtimeStore(createClient())
+        val aggregateId = namedAggregate.aggregateId(generateGlobalId())
+        store.appendAll(generateStreams(aggregateId, 1..5))
+
+        store.load(aggregateId)
+            .map { it.version }
+            .test()
+            .expectNext(1, 2, 3, 4, 5)
+            .verifyComplete()
+        store.load(aggregateId, 2, 3)
+            .map { it.version }
+            .test()
+            .expectNext(2, 3)
+            .verifyComplete()
+        store.last(aggregateId)
+            .map { it.version }
+            .test()
+            .expectNext(5)
+            .verifyComplete()
+    }
+
+    @Test
+    fun `aggregates appended before realtime load should fall back to search`() {
+        val client = createClient()
+        val aggregateId = namedAggregate.aggregateId(generateGlobalId())
+        val streams = generateStreams(aggregateId, 1..4)
+        ElasticsearchEventStore(client).appendAll(streams.take(2))
+        val store = realtimeStore(client)
+        store.appendAll(streams.drop(2))
+        client.delete {
+            it.index(aggregateId.toEventStreamHeadIndexName())
+                .id(aggregateId.id)
+                .routing(aggregateId.id)
+        }.block()
+
+        store.load(aggregateId)
+            .map { it.version }
+            .test()
+            .expectNext(1, 2, 3, 4)
+            .verifyComplete()
+        store.last(aggregateId)
+            .map { it.version }
+            .test()
+            .expectNext(4)
+            .verifyComplete()
+    }
+
+    @Test
+    fun `last should seed a missing head document`() {
+        val client = createClient()
+        val aggregateId = namedAggregate.aggregateId(generateGlobalId())
+        ElasticsearchEventStore(client).appendAll(generateStreams(aggregateId, 1..3))
+
+        realtimeStore(client).last(aggregateId)
+            .map { it.version }
+            .test()
+            .expectNext(3)
+            .verifyComplete()
+
+        client.get({
+            it.index(aggregateId.toEventStreamHeadIndexName())
+                .id(aggregateId.id)
+                .routing(aggregateId.id)
+        }, Map::class.java)
+            .test()
+            .assertNext { response ->
+                response.found().assert().isTrue()
+                (response.source()?.get(MessageRecords.VERSION) as Number).toInt().assert().isEqualTo(3)
+            }
+            .verifyComplete()
+    }
+
+    @Test
+    fun `head index should use the head template mapping`() {
+        val store = realtimeStore(createClient())
+        val aggregateId = namedAggregate.aggregateId(generateGlobalId())
+        store.appendAll(generateStreams(aggregateId, 1..1))
+        val headIndex = aggregateId.toEventStreamHeadIndexName()
+
+        createClient().indices().getMapping { it.index(headIndex) }
+            .test()
+            .assertNext { response ->
+                val mapping = response.result().values.single().mappings()
+                mapping.properties()[MessageRecords.VERSION]!!.isInteger.assert().isTrue()
+            }
+            .verifyComplete()
+    }
+}
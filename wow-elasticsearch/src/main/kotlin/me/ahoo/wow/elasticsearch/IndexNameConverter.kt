@@ -20,6 +20,7 @@ import me.ahoo.wow.modeling.toStringWithAlias
 object IndexNameConverter {
     const val SNAPSHOT_SUFFIX = ".snapshot"
     const val EVENT_STREAM_SUFFIX = ".es"
+    const val EVENT_STREAM_HEAD_SUFFIX = ".es-head"
 
     fun NamedAggregate.toSnapshotIndexName(): String {
         return "${Wow.WOW_PREFIX}${this.toStringWithAlias()}$SNAPSHOT_SUFFIX"
@@ -28,4 +29,8 @@ object IndexNameConverter {
     fun NamedAggregate.toEventStreamIndexName(): String {
         return "${Wow.WOW_PREFIX}${this.toStringWithAlias()}$EVENT_STREAM_SUFFIX"
     }
+
+    fun NamedAggregate.toEventStreamHeadIndexName(): String {
+        return "${Wow.WOW_PREFIX}${this.toStringWithAlias()}$EVENT_STREAM_HEAD_SUFFIX"
+    }
 }
@@ -29,6 +29,7 @@ class IndexTemplateInitializer(private val elasticsearchOperations: ReactiveElas
     companion object {
         private val log = KotlinLogging.logger {}
         private const val EVENT_STREAM_TEMPLATE_NAME = "wow-event-stream-template"
+        private const val EVENT_STREAM_HEAD_TEMPLATE_NAME = "wow-event-stream-head-template"
         private const val SNAPSHOT_TEMPLATE_NAME = "wow-snapshot-template"
         private const val INDEX_PATTERNS_KEY = "index_patterns"
         private const val TEMPLATE_KEY = "template"
@@ -39,6 +40,10 @@ class IndexTemplateInitializer(private val elasticsearchOperations: ReactiveElas
         ClassPathResource("templates/$EVENT_STREAM_TEMPLATE_NAME.json").inputStream.use {
             JsonSerializer.readValue(it, JsonNode::class.java)
         }
+    private val eventStreamHeadTemplate: JsonNode =
+        ClassPathResource("templates/$EVENT_STREAM_HEAD_TEMPLATE_NAME.json").inputStream.use {
+            JsonSerializer.readValue(it, JsonNode::class.java)
+        }
     private val snapshotTemplate: JsonNode =
         ClassPathResource("templates/$SNAPSHOT_TEMPLATE_NAME.json").inputStream.use {
             JsonSerializer.readValue(it, JsonNode::class.java)
@@ -48,6 +53,13 @@ class IndexTemplateInitializer(private val elasticsearchOperations: ReactiveElas
         return initTemplate(EVENT_STREAM_TEMPLATE_NAME, eventStreamTemplate)
     }
 
+    /**
+     * Installs the mapping of the event stream head indices used by realtime loads.
+     */
+    fun initEventStreamHeadTemplate(): Mono<Boolean> {
+        return initTemplate(EVENT_STREAM_HEAD_TEMPLATE_NAME, eventStreamHeadTemplate)
+    }
+
     fun initSnapshotTemplate(): Mono<Boolean> {
         return initTemplate(SNAPSHOT_TEMPLATE_NAME, snapshotTemplate)
     }
@@ -77,6 +89,11 @@ class IndexTemplateInitializer(private val elasticsearchOperations: ReactiveElas
 
     fun ensureEventStreamTemplate(): Mono<Void> {
         return initEventStreamTemplate().requireAcknowledged(EVENT_STREAM_TEMPLATE_NAME)
+            .then(
+                Mono.defer {
+                    initEventStreamHeadTemplate().requireAcknowledged(EVENT_STREAM_HEAD_TEMPLATE_NAME)
+                },
+            )
     }
 
     fun ensureSnapshotTemplate(): Mono<Void> {
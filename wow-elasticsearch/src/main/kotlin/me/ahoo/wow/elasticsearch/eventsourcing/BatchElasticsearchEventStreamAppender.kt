@@ -14,7 +14,6 @@
 package me.ahoo.wow.elasticsearch.eventsourcing
 
 import co.elastic.clients.elasticsearch._types.Refresh
-import me.ahoo.wow.elasticsearch.IndexNameConverter.toEventStreamIndexName
 import me.ahoo.wow.event.DomainEventStream
 import me.ahoo.wow.infra.batch.BatchCloseTimeoutException
 import me.ahoo.wow.infra.batch.BatchClosedException
@@ -23,7 +22,6 @@ import me.ahoo.wow.infra.batch.BatchOverflowException
 import me.ahoo.wow.infra.batch.BatchWriter
 import me.ahoo.wow.infra.batch.KeyedBatchCoordinator
 import me.ahoo.wow.metrics.WowMetrics
-import me.ahoo.wow.serialization.toLinkedHashMap
 import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient
 import reactor.core.publisher.Mono
 import java.time.Duration
@@ -35,6 +33,7 @@ internal class BatchElasticsearchEventStreamAppender(
     private val options: ElasticsearchEventStoreBatchOptions,
     private val closeTimeout: Duration = DEFAULT_CLOSE_TIMEOUT,
     metrics: WowMetrics = WowMetrics.NONE,
+    private val writeHead: Boolean = false,
 ) : ElasticsearchEventStreamAppender {
     private data class MappedCloseTimeout(
         val source: BatchCloseTimeoutException,
@@ -70,13 +69,7 @@ internal class BatchElasticsearchEventStreamAppender(
 
     override fun append(eventStream: DomainEventStream): Mono<Void> {
         return coordinator.submit {
-            ElasticsearchEventStreamAppend(
-                eventStream = eventStream,
-                index = eventStream.aggregateId.toEventStreamIndexName(),
-                id = eventStream.toDocId(),
-                document = eventStream.toLinkedHashMap(),
-                routing = eventStream.aggregateId.id,
-            )
+            eventStream.toAppend(writeHead)
         }.onErrorMap(::toElasticsearchBatchError)
     }
 
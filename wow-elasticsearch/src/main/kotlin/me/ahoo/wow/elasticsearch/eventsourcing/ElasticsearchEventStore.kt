@@ -26,6 +26,9 @@ import me.ahoo.wow.elasticsearch.query.ElasticsearchSortConverter.toSortOptions
 import me.ahoo.wow.elasticsearch.query.event.EventStreamConditionConverter
 import me.ahoo.wow.event.DomainEventStream
 import me.ahoo.wow.eventsourcing.AbstractEventStore
+import me.ahoo.wow.eventsourcing.EventLogReader
+import me.ahoo.wow.eventsourcing.EventLogRecord
+import me.ahoo.wow.eventsourcing.takeSettled
 import me.ahoo.wow.metrics.WowMetrics
 import me.ahoo.wow.modeling.aggregateId
 import me.ahoo.wow.query.dsl.condition
@@ -34,13 +37,34 @@ import me.ahoo.wow.serialization.MessageRecords
 import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient
 import reactor.core.publisher.Flux
 import reactor.core.publisher.Mono
+import java.time.Duration
 
+/**
+ * Elasticsearch-backed event store.
+ *
+ * By default loads go through search, which only sees refreshed segments, so appends refresh the shard
+ * ([refreshPolicy] = [Refresh.True]). With [realtimeLoad], version-range loads and [last] use realtime
+ * multi-gets on deterministic document ids instead, and appends can run with [Refresh.False]. Aggregates
+ * without a head document, such as those appended before [realtimeLoad] was enabled, fall back to search
+ * followed by realtime probes.
+ *
+ * The remaining searches are not realtime: with [Refresh.False], loads by event time, [scanAggregateId] and
+ * [readAll] only see event streams once the index refreshes, which by default happens within a second but
+ * is skipped for search-idle shards until the next search. Keep [Refresh.True] when those reads must observe
+ * an append as soon as it completes.
+ *
+ * @param realtimeLoad whether version-range loads and [last] use realtime gets.
+ * @param eventLogSafetyLag the age an event stream must reach before [readAll] returns it, bounding how late a
+ * stream may commit after creation without being skipped by the id-ordered log.
+ */
 class ElasticsearchEventStore(
     private val elasticsearchClient: ReactiveElasticsearchClient,
     val batchOptions: ElasticsearchEventStoreBatchOptions = ElasticsearchEventStoreBatchOptions(),
     private val refreshPolicy: Refresh = Refresh.True,
     private val batchSize: Int = DEFAULT_BATCH_SIZE,
     metrics: WowMetrics = WowMetrics.NONE,
+    realtimeLoad: Boolean = false,
+    private val eventLogSafetyLag: Duration = EventLogReader.DEFAULT_SAFETY_LAG,
 ) : AbstractEventStore() {
     private val appender: ElasticsearchEventStreamAppender = if (batchOptions.enabled) {
         BatchElasticsearchEventStreamAppender(
@@ -48,11 +72,13 @@ class ElasticsearchEventStore(
             refreshPolicy = refreshPolicy,
             options = batchOptions,
             metrics = metrics,
+            writeHead = realtimeLoad,
         )
     } else {
         DirectElasticsearchEventStreamAppender(
             elasticsearchClient = elasticsearchClient,
             refreshPolicy = refreshPolicy,
+            writeHead = realtimeLoad,
         )
     }
 
@@ -66,6 +92,18 @@ class ElasticsearchEventStore(
         require(batchSize > 0) { "batchSize[$batchSize] must be greater than 0." }
     }
 
+    private val realtimeReader: RealtimeEventStreamReader? = if (realtimeLoad) {
+        RealtimeEventStreamReader(
+            elasticsearchClient = elasticsearchClient,
+            maxPageSize = batchSize,
+            probeSize = minOf(RealtimeEventStreamReader.DEFAULT_PROBE_SIZE, batchSize),
+            searchRange = ::searchVersionRange,
+            searchLast = ::searchLast,
+        )
+    } else {
+        null
+    }
+
     private data class EventStreamPage(
         val streams: List<DomainEventStream>,
         val nextSearchAfter: List<FieldValue>?,
@@ -85,6 +123,17 @@ class ElasticsearchEventStore(
         aggregateId: AggregateId,
         headVersion: Int,
         tailVersion: Int
+    ): Flux<DomainEventStream> {
+        realtimeReader?.let {
+            return it.load(aggregateId, headVersion, tailVersion)
+        }
+        return searchVersionRange(aggregateId, headVersion, tailVersion)
+    }
+
+    private fun searchVersionRange(
+        aggregateId: AggregateId,
+        headVersion: Int,
+        tailVersion: Int
     ): Flux<DomainEventStream> {
         val condition =
             condition {
@@ -182,6 +231,13 @@ class ElasticsearchEventStore(
     }
 
     override fun last(aggregateId: AggregateId): Mono<DomainEventStream> {
+        realtimeReader?.let {
+            return it.last(aggregateId)
+        }
+        return searchLast(aggregateId)
+    }
+
+    private fun searchLast(aggregateId: AggregateId): Mono<DomainEventStream> {
         val condition =
             condition {
                 tenantId(aggregateId.tenantId)
@@ -234,6 +290,38 @@ class ElasticsearchEventStore(
             }
     }
 
+    /**
+     * Reads the event stream index with `search_after` on the event stream id, which is a time-ordered global
+     * id, so the log follows stream creation order and the position is the id of the last stream read.
+     * Like other searches, it only sees refreshed documents, and it stops at the first stream younger than
+     * [eventLogSafetyLag].
+     */
+    override fun readAll(
+        namedAggregate: NamedAggregate,
+        fromPosition: String,
+        batchSize: Int
+    ): Flux<EventLogRecord> {
+        require(batchSize > 0) { "batchSize[$batchSize] must be greater than 0." }
+        val sort = sort { MessageRecords.ID.asc() }.toSortOptions()
+        return elasticsearchClient
+            .search({ request ->
+                request
+                    .index(namedAggregate.toEventStreamIndexName())
+                    .size(batchSize)
+                    .sort(sort)
+                if (fromPosition != EventLogReader.HEAD_POSITION) {
+                    request.searchAfter(listOf(FieldValue.of(fromPosition)))
+                }
+                request
+            }, DomainEventStream::class.java)
+            .onErrorResume(::missingIndexAsEmpty)
+            .flatMapIterable<DomainEventStream> {
+                it.hits().hits().map { hit -> requireNotNull(hit.source()) }
+            }
+            .takeSettled(eventLogSafetyLag)
+            .map { EventLogRecord(it.id, it) }
+    }
+
     private fun <T : Any> missingIndexAsEmpty(error: Throwable): Mono<T> {
         if (error is ElasticsearchException && error.status() == NOT_FOUND_CODE) {
             return Mono.empty()
@@ -17,9 +17,11 @@ import co.elastic.clients.elasticsearch._types.ElasticsearchException
 import co.elastic.clients.elasticsearch._types.OpType
 import co.elastic.clients.elasticsearch._types.Refresh
 import co.elastic.clients.elasticsearch.core.IndexRequest
+import me.ahoo.wow.elasticsearch.IndexNameConverter.toEventStreamHeadIndexName
 import me.ahoo.wow.elasticsearch.IndexNameConverter.toEventStreamIndexName
 import me.ahoo.wow.event.DomainEventStream
 import me.ahoo.wow.eventsourcing.EventVersionConflictException
+import me.ahoo.wow.infra.batch.BatchItemResult
 import me.ahoo.wow.serialization.toLinkedHashMap
 import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient
 import reactor.core.publisher.Mono
@@ -30,11 +32,25 @@ internal interface ElasticsearchEventStreamAppender : AutoCloseable {
     override fun close() = Unit
 }
 
+/**
+ * Appends each event stream with its own request: a create request, or with [writeHead] a bulk request that also
+ * moves the head document of the aggregate.
+ */
 internal class DirectElasticsearchEventStreamAppender(
     private val elasticsearchClient: ReactiveElasticsearchClient,
     private val refreshPolicy: Refresh,
+    private val writeHead: Boolean = false,
 ) : ElasticsearchEventStreamAppender {
+    private val bulkWriter = ElasticsearchEventStreamBatchWriter(elasticsearchClient, refreshPolicy)
+
     override fun append(eventStream: DomainEventStream): Mono<Void> {
+        if (writeHead) {
+            return bulkWriter.write(listOf(eventStream.toAppend(writeHead = true)))
+                .flatMap { results ->
+                    val result = results.single()
+                    if (result is BatchItemResult.Failure) Mono.error(result.error) else Mono.empty()
+                }
+        }
         val request = IndexRequest.of<Map<String, Any?>> {
             it.index(eventStream.aggregateId.toEventStreamIndexName())
                 .id(eventStream.toDocId())
@@ -66,3 +82,14 @@ internal class DirectElasticsearchEventStreamAppender(
 }
 
 internal fun DomainEventStream.toDocId(): String = "${this.aggregateId.id}-${this.version}"
+
+internal fun DomainEventStream.toAppend(writeHead: Boolean): ElasticsearchEventStreamAppend {
+    return ElasticsearchEventStreamAppend(
+        eventStream = this,
+        index = aggregateId.toEventStreamIndexName(),
+        id = toDocId(),
+        document = toLinkedHashMap(),
+        routing = aggregateId.id,
+        headIndex = if (writeHead) aggregateId.toEventStreamHeadIndexName() else null,
+    )
+}
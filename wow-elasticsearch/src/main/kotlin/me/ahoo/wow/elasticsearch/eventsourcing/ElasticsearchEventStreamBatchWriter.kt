@@ -15,22 +15,30 @@ package me.ahoo.wow.elasticsearch.eventsourcing
 
 import co.elastic.clients.elasticsearch._types.ErrorCause
 import co.elastic.clients.elasticsearch._types.Refresh
+import co.elastic.clients.elasticsearch._types.VersionType
 import co.elastic.clients.elasticsearch.core.BulkRequest
 import co.elastic.clients.elasticsearch.core.bulk.BulkOperation
 import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem
 import co.elastic.clients.elasticsearch.core.bulk.OperationType
+import io.github.oshai.kotlinlogging.KotlinLogging
 import me.ahoo.wow.event.DomainEventStream
 import me.ahoo.wow.eventsourcing.EventVersionConflictException
 import me.ahoo.wow.infra.batch.BatchItemResult
+import me.ahoo.wow.serialization.MessageRecords
 import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient
 import reactor.core.publisher.Mono
 
+/**
+ * One event stream to create, and with [headIndex] the head document of its aggregate to move forward in the
+ * same bulk request, see [RealtimeEventStreamReader].
+ */
 internal data class ElasticsearchEventStreamAppend(
     val eventStream: DomainEventStream,
     val index: String,
     val id: String,
     val document: Map<String, Any?>,
     val routing: String,
+    val headIndex: String? = null,
 )
 
 class ElasticsearchBulkItemException(
@@ -57,24 +65,42 @@ internal class ElasticsearchEventStreamBatchWriter(
         require(batch.isNotEmpty()) { "Elasticsearch event stream batch must not be empty." }
         val request = BulkRequest.of { bulk ->
             bulk.refresh(refreshPolicy)
-                .operations(batch.map(::toCreateOperation))
+                .operations(
+                    batch.flatMap { append ->
+                        listOfNotNull(toCreateOperation(append), append.headIndex?.let { toHeadOperation(append, it) })
+                    }
+                )
         }
         return elasticsearchClient.bulk(request)
             .map { response ->
                 val responseItems = response.items()
                 validateElasticsearchBulkResponse(
-                    expectedItems = batch.map {
-                        ElasticsearchBulkItemExpectation(
-                            operationType = OperationType.Create,
-                            indexExpression = it.index,
-                            id = it.id,
+                    expectedItems = batch.flatMap { append ->
+                        listOfNotNull(
+                            ElasticsearchBulkItemExpectation(
+                                operationType = OperationType.Create,
+                                indexExpression = append.index,
+                                id = append.id,
+                            ),
+                            append.headIndex?.let {
+                                ElasticsearchBulkItemExpectation(
+                                    operationType = OperationType.Index,
+                                    indexExpression = it,
+                                    id = append.routing,
+                                )
+                            },
                         )
                     },
                     responseItems = responseItems,
                     responseErrors = response.errors(),
                 )
-                batch.zip(responseItems).map { (append, item) ->
-                    item.toBatchItemResult(append.eventStream)
+                val items = responseItems.iterator()
+                batch.map { append ->
+                    val result = items.next().toBatchItemResult(append.eventStream)
+                    if (append.headIndex != null) {
+                        items.next().warnIfHeadFailed(append.eventStream)
+                    }
+                    result
                 }
             }
     }
@@ -92,6 +118,37 @@ internal class ElasticsearchEventStreamBatchWriter(
         }
     }
 
+    /**
+     * Moves the head document forward with external versioning, so a stale or conflicting head write only
+     * fails its own bulk item and never the append.
+     */
+    private fun toHeadOperation(
+        append: ElasticsearchEventStreamAppend,
+        headIndex: String,
+    ): BulkOperation {
+        val version = append.eventStream.version
+        return BulkOperation.of { operation ->
+            operation.index<Map<String, Any>> { index ->
+                index.index(headIndex)
+                    .id(append.routing)
+                    .routing(append.routing)
+                    .versionType(VersionType.External)
+                    .version(version.toLong())
+                    .document(mapOf(MessageRecords.VERSION to version))
+            }
+        }
+    }
+
+    private fun BulkResponseItem.warnIfHeadFailed(eventStream: DomainEventStream) {
+        if (isSuccessfulResponse() || status() == VERSION_CONFLICT_STATUS) {
+            return
+        }
+        log.warn {
+            "Failed to move event stream head of ${eventStream.aggregateId} to version[${eventStream.version}]: " +
+                "status[${status()}], type[${error()?.type()}], reason[${error()?.reason()}]."
+        }
+    }
+
     private fun BulkResponseItem.toBatchItemResult(
         eventStream: DomainEventStream,
     ): BatchItemResult {
@@ -117,6 +174,7 @@ internal class ElasticsearchEventStreamBatchWriter(
     }
 
     private companion object {
+        private val log = KotlinLogging.logger {}
         const val VERSION_CONFLICT_STATUS = 409
     }
 }
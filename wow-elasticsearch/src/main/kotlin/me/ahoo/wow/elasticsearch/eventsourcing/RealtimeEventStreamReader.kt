@@ -0,0 +1,232 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.elasticsearch.eventsourcing
+
+import co.elastic.clients.elasticsearch._types.ElasticsearchException
+import co.elastic.clients.elasticsearch._types.Refresh
+import co.elastic.clients.elasticsearch._types.VersionType
+import co.elastic.clients.elasticsearch.core.IndexRequest
+import io.github.oshai.kotlinlogging.KotlinLogging
+import me.ahoo.wow.api.Version
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.elasticsearch.IndexNameConverter.toEventStreamHeadIndexName
+import me.ahoo.wow.elasticsearch.IndexNameConverter.toEventStreamIndexName
+import me.ahoo.wow.event.DomainEventStream
+import me.ahoo.wow.serialization.MessageRecords
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import java.util.Optional
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Loads event streams with realtime multi-gets on their deterministic document ids instead of searches.
+ *
+ * Realtime gets see documents as soon as they are indexed, so appends no longer need to refresh the
+ * shard for loads to observe them. Versions of an aggregate are contiguous, so a load requests the ids
+ * of consecutive versions and stops at the first missing one.
+ *
+ * A small head document per aggregate, written in the bulk request of each append with external versioning
+ * so it only moves forward, tells a load how many ids to request up front. It is only a hint: a load keeps
+ * probing past it in [probeSize] steps, so a head write that failed never hides events.
+ *
+ * Document ids carry the aggregate id but not its tenant, so a load stops at the first document of another
+ * tenant as if the version were missing.
+ *
+ * Aggregates appended before realtime loads were enabled have no head document. Their loads go through
+ * [searchRange] and [searchLast], which only see refreshed documents, and then keep probing with realtime
+ * gets past the last version found, so streams appended since the last refresh are not missed. A load of
+ * the last event stream also seeds the missing head document.
+ */
+internal class RealtimeEventStreamReader(
+    private val elasticsearchClient: ReactiveElasticsearchClient,
+    private val maxPageSize: Int,
+    private val probeSize: Int = DEFAULT_PROBE_SIZE,
+    private val searchRange: (AggregateId, headVersion: Int, tailVersion: Int) -> Flux<DomainEventStream>,
+    private val searchLast: (AggregateId) -> Mono<DomainEventStream>,
+) {
+    companion object {
+        private val log = KotlinLogging.logger {}
+        const val DEFAULT_PROBE_SIZE = 8
+        private const val NOT_FOUND_CODE = 404
+        private const val VERSION_CONFLICT_CODE = 409
+    }
+
+    init {
+        require(probeSize in 1..maxPageSize) { "probeSize[$probeSize] must be in [1, $maxPageSize]." }
+    }
+
+    private class Page(
+        val streams: List<DomainEventStream>,
+        val tailVersion: Int,
+        val complete: Boolean,
+    )
+
+    /**
+     * Seeds the head document of the aggregate of [eventStream], which appends otherwise move forward in
+     * their own bulk request.
+     *
+     * Never fails: the event stream is already stored, and a stale head only costs extra probes.
+     */
+    private fun writeHead(eventStream: DomainEventStream): Mono<Void> {
+        val aggregateId = eventStream.aggregateId
+        val request = IndexRequest.of<Map<String, Any>> {
+            it.index(aggregateId.toEventStreamHeadIndexName())
+                .id(aggregateId.id)
+                .routing(aggregateId.id)
+                .versionType(VersionType.External)
+                .version(eventStream.version.toLong())
+                .document(mapOf(MessageRecords.VERSION to eventStream.version))
+                .refresh(Refresh.False)
+        }
+        return elasticsearchClient.index(request)
+            .then()
+            .onErrorResume { error ->
+                if (!error.hasStatus(VERSION_CONFLICT_CODE)) {
+                    log.warn(error) {
+                        "Failed to move event stream head of $aggregateId to version[${eventStream.version}]."
+                    }
+                }
+                Mono.empty()
+            }
+    }
+
+    fun load(aggregateId: AggregateId, headVersion: Int, tailVersion: Int): Flux<DomainEventStream> {
+        if (headVersion > tailVersion) {
+            return Flux.empty()
+        }
+        return headHint(aggregateId).flatMapMany { hint ->
+            if (hint.isPresent) {
+                loadFrom(aggregateId, headVersion, tailVersion, hint.get())
+            } else {
+                loadWithoutHead(aggregateId, headVersion, tailVersion)
+            }
+        }
+    }
+
+    fun last(aggregateId: AggregateId): Mono<DomainEventStream> {
+        return headHint(aggregateId).flatMap { hint ->
+            if (hint.isPresent) {
+                loadFrom(aggregateId, maxOf(hint.get(), 1), Int.MAX_VALUE, hint.get()).takeLast(1).next()
+            } else {
+                lastWithoutHead(aggregateId)
+            }
+        }
+    }
+
+    private fun loadWithoutHead(
+        aggregateId: AggregateId,
+        headVersion: Int,
+        tailVersion: Int,
+    ): Flux<DomainEventStream> {
+        val searchedTail = AtomicInteger(headVersion - 1)
+        return searchRange(aggregateId, headVersion, tailVersion)
+            .doOnNext { searchedTail.set(it.version) }
+            .concatWith(
+                Flux.defer {
+                    val nextHead = searchedTail.get() + 1
+                    if (nextHead > tailVersion) Flux.empty() else loadFrom(aggregateId, nextHead, tailVersion, 0)
+                },
+            )
+    }
+
+    private fun lastWithoutHead(aggregateId: AggregateId): Mono<DomainEventStream> {
+        return searchLast(aggregateId)
+            .map { Optional.of(it) }
+            .defaultIfEmpty(Optional.empty())
+            .flatMap { searched ->
+                val nextHead = searched.map { it.version + 1 }.orElse(Version.INITIAL_VERSION)
+                loadFrom(aggregateId, nextHead, Int.MAX_VALUE, 0)
+                    .takeLast(1)
+                    .next()
+                    .switchIfEmpty(Mono.justOrEmpty(searched))
+            }
+            .flatMap { last -> writeHead(last).thenReturn(last) }
+    }
+
+    /**
+     * Emits the version recorded by the head document of [aggregateId], or an empty [Optional] when the
+     * aggregate has no head document.
+     */
+    private fun headHint(aggregateId: AggregateId): Mono<Optional<Int>> {
+        return elasticsearchClient.get({
+            it.index(aggregateId.toEventStreamHeadIndexName())
+                .id(aggregateId.id)
+                .routing(aggregateId.id)
+        }, Map::class.java)
+            .mapNotNull<Int> { response ->
+                if (!response.found()) {
+                    return@mapNotNull null
+                }
+                (response.source()?.get(MessageRecords.VERSION) as? Number)?.toInt()
+            }
+            .map { Optional.of(it) }
+            .onErrorResume { error ->
+                if (error.hasStatus(NOT_FOUND_CODE)) Mono.empty() else Mono.error(error)
+            }
+            .defaultIfEmpty(Optional.empty())
+    }
+
+    private fun loadFrom(
+        aggregateId: AggregateId,
+        headVersion: Int,
+        tailVersion: Int,
+        hint: Int,
+    ): Flux<DomainEventStream> {
+        return loadPage(aggregateId, headVersion, pageTail(headVersion, tailVersion, hint))
+            .expand { page ->
+                if (!page.complete || page.tailVersion >= tailVersion) {
+                    Mono.empty()
+                } else {
+                    val nextHead = page.tailVersion + 1
+                    loadPage(aggregateId, nextHead, pageTail(nextHead, tailVersion, hint))
+                }
+            }
+            .concatMapIterable { it.streams }
+    }
+
+    private fun pageTail(headVersion: Int, tailVersion: Int, hint: Int): Int {
+        val expected = maxOf(hint.toLong(), headVersion.toLong() + probeSize - 1)
+        return minOf(expected, headVersion.toLong() + maxPageSize - 1, tailVersion.toLong()).toInt()
+    }
+
+    private fun loadPage(aggregateId: AggregateId, headVersion: Int, tailVersion: Int): Mono<Page> {
+        val ids = (headVersion..tailVersion).map { "${aggregateId.id}-$it" }
+        return elasticsearchClient.mget({
+            it.index(aggregateId.toEventStreamIndexName())
+                .ids(ids)
+                .routing(aggregateId.id)
+                .realtime(true)
+        }, DomainEventStream::class.java)
+            .map { response ->
+                val streams = response.docs()
+                    .asSequence()
+                    .takeWhile { it.isResult && it.result().found() }
+                    .map { requireNotNull(it.result().source()) }
+                    .takeWhile { it.aggregateId.tenantId == aggregateId.tenantId }
+                    .toList()
+                Page(streams = streams, tailVersion = tailVersion, complete = streams.size == ids.size)
+            }
+            .onErrorResume { error ->
+                if (error.hasStatus(NOT_FOUND_CODE)) {
+                    Mono.just(Page(streams = emptyList(), tailVersion = tailVersion, complete = false))
+                } else {
+                    Mono.error(error)
+                }
+            }
+    }
+
+    private fun Throwable.hasStatus(code: Int): Boolean =
+        this is ElasticsearchException && status() == code
+}
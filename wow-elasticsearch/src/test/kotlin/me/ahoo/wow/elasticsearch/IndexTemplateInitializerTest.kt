@@ -52,6 +52,10 @@ class IndexTemplateInitializerTest {
             template.properties().single().value["mapping"]["ignore_above"]
                 .asInt().assert().isEqualTo(8191)
         }
+
+        val headMappings = readMappings("wow-event-stream-head-template")
+        headMappings["dynamic"].asBoolean().assert().isEqualTo(false)
+        headMappings["properties"]["version"]["type"].asString().assert().isEqualTo("integer")
     }
 
     @Test
@@ -63,10 +67,13 @@ class IndexTemplateInitializerTest {
 
         initializer.initAll()
 
-        completedRequests.get().assert().isEqualTo(2)
+        completedRequests.get().assert().isEqualTo(3)
         verify(exactly = 1) {
             indexOperations.putIndexTemplate(match { it.name == "wow-event-stream-template" })
         }
+        verify(exactly = 1) {
+            indexOperations.putIndexTemplate(match { it.name == "wow-event-stream-head-template" })
+        }
         verify(exactly = 1) {
             indexOperations.putIndexTemplate(match { it.name == "wow-snapshot-template" })
         }
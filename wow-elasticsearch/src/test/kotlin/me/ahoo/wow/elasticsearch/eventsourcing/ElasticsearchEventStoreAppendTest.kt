@@ -26,6 +26,7 @@ import io.mockk.mockk
 import io.mockk.slot
 import io.mockk.verify
 import me.ahoo.test.asserts.assert
+import me.ahoo.wow.elasticsearch.IndexNameConverter.toEventStreamHeadIndexName
 import me.ahoo.wow.elasticsearch.IndexNameConverter.toEventStreamIndexName
 import me.ahoo.wow.event.DomainEventStream
 import me.ahoo.wow.eventsourcing.EventVersionConflictException
@@ -67,6 +68,33 @@ class ElasticsearchEventStoreAppendTest {
         verify(exactly = 0) { client.bulk(any<BulkRequest>()) }
     }
 
+    @Test
+    fun `realtime load should move the head in the append bulk request`() {
+        val request = slot<BulkRequest>()
+        val eventStream = eventStream("order-realtime", aggregateVersion = 1)
+        every { client.bulk(capture(request)) } returns Mono.just(
+            bulkResponse(
+                responseItem(eventStream),
+                BulkResponseItem.of {
+                    it.operationType(OperationType.Index)
+                        .index(eventStream.aggregateId.toEventStreamHeadIndexName())
+                        .id(eventStream.aggregateId.id)
+                        .status(201)
+                },
+            )
+        )
+
+        ElasticsearchEventStore(client, realtimeLoad = true).use { eventStore ->
+            eventStore.append(eventStream)
+                .test()
+                .verifyComplete()
+        }
+
+        request.captured.operations().map { it.isCreate to it.isIndex }
+            .assert().containsExactly(true to false, false to true)
+        verify(exactly = 0) { client.index(any<IndexRequest<Map<String, Any?>>>()) }
+    }
+
     @Test
     fun `event stream should not exceed nested object limit`() {
         ElasticsearchEventStore(client)
@@ -15,12 +15,19 @@ package me.ahoo.wow.elasticsearch.eventsourcing
 
 import co.elastic.clients.elasticsearch._types.ElasticsearchException
 import co.elastic.clients.elasticsearch._types.FieldValue
+import co.elastic.clients.elasticsearch.core.GetRequest
+import co.elastic.clients.elasticsearch.core.GetResponse
+import co.elastic.clients.elasticsearch.core.MgetRequest
+import co.elastic.clients.elasticsearch.core.MgetResponse
 import co.elastic.clients.elasticsearch.core.SearchRequest
 import co.elastic.clients.elasticsearch.core.SearchResponse
+import co.elastic.clients.elasticsearch.core.get.GetResult
+import co.elastic.clients.elasticsearch.core.mget.MultiGetResponseItem
 import co.elastic.clients.elasticsearch.core.search.ResponseBody
 import co.elastic.clients.util.ObjectBuilder
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.verify
 import me.ahoo.wow.api.modeling.AggregateId
 import me.ahoo.wow.event.DomainEventStream
 import me.ahoo.wow.modeling.MaterializedNamedAggregate
@@ -94,6 +101,134 @@ class ElasticsearchEventStoreUnitTest {
             .verify()
     }
 
+    @Test
+    fun `realtime load probes past the head hint until the first missing version`() {
+        val streams = List(3) { eventStream() }
+        stubHead(version = 1)
+        every {
+            client.mget(
+                any<Function<MgetRequest.Builder, ObjectBuilder<MgetRequest>>>(),
+                DomainEventStream::class.java,
+            )
+        } returnsMany listOf(
+            Mono.just(mgetResponse(streams[0], streams[1])),
+            Mono.just(mgetResponse(streams[2], null)),
+        )
+
+        ElasticsearchEventStore(client, batchSize = 2, realtimeLoad = true).load(aggregateId)
+            .test()
+            .expectNextSequence(streams)
+            .verifyComplete()
+        verify(exactly = 0) {
+            client.search(
+                any<Function<SearchRequest.Builder, ObjectBuilder<SearchRequest>>>(),
+                DomainEventStream::class.java,
+            )
+        }
+    }
+
+    @Test
+    fun `realtime load without head searches then probes past the last searched version`() {
+        val searched = mockk<DomainEventStream> {
+            every { version } returns 1
+        }
+        val unrefreshed = eventStream()
+        stubHead(version = null)
+        stubSearch(
+            Mono.just(searchResponse(source = searched, sort = listOf(FieldValue.of(1), FieldValue.of("id")))),
+        )
+        every {
+            client.mget(
+                any<Function<MgetRequest.Builder, ObjectBuilder<MgetRequest>>>(),
+                DomainEventStream::class.java,
+            )
+        } returns Mono.just(mgetResponse(unrefreshed, null))
+
+        ElasticsearchEventStore(client, batchSize = 2, realtimeLoad = true).load(aggregateId)
+            .test()
+            .expectNext(searched, unrefreshed)
+            .verifyComplete()
+    }
+
+    @Test
+    fun `realtime last starts from the head hint`() {
+        val head = eventStream()
+        stubHead(version = 2)
+        every {
+            client.mget(
+                any<Function<MgetRequest.Builder, ObjectBuilder<MgetRequest>>>(),
+                DomainEventStream::class.java,
+            )
+        } returns Mono.just(mgetResponse(head, null))
+
+        ElasticsearchEventStore(client, batchSize = 2, realtimeLoad = true).last(aggregateId)
+            .test()
+            .expectNext(head)
+            .verifyComplete()
+    }
+
+    @Test
+    fun `realtime load stops at an event stream of another tenant`() {
+        val own = eventStream()
+        val otherTenant = eventStream(aggregateId = aggregateId.namedAggregate.aggregateId(aggregateId.id, "other"))
+        stubHead(version = 2)
+        every {
+            client.mget(
+                any<Function<MgetRequest.Builder, ObjectBuilder<MgetRequest>>>(),
+                DomainEventStream::class.java,
+            )
+        } returns Mono.just(mgetResponse(own, otherTenant))
+
+        val eventStore = ElasticsearchEventStore(client, batchSize = 2, realtimeLoad = true)
+        eventStore.load(aggregateId)
+            .test()
+            .expectNext(own)
+            .verifyComplete()
+        eventStore.last(aggregateId)
+            .test()
+            .expectNext(own)
+            .verifyComplete()
+    }
+
+    private fun eventStream(aggregateId: AggregateId = this.aggregateId): DomainEventStream {
+        return mockk {
+            every { this@mockk.aggregateId } returns aggregateId
+        }
+    }
+
+    private fun stubHead(version: Int?) {
+        val response = GetResponse.of<Map<*, *>> { get ->
+            get.index("head-index")
+                .id(aggregateId.id)
+                .found(version != null)
+            version?.let { get.source(mapOf("version" to it)) }
+            get
+        }
+        every {
+            client.get(any<Function<GetRequest.Builder, ObjectBuilder<GetRequest>>>(), Map::class.java)
+        } returns Mono.just(response)
+    }
+
+    private fun mgetResponse(vararg sources: DomainEventStream?): MgetResponse<DomainEventStream> {
+        return MgetResponse.of<DomainEventStream> { response ->
+            response.docs(
+                sources.mapIndexed { index, source ->
+                    MultiGetResponseItem.of<DomainEventStream> { item ->
+                        item.result(
+                            GetResult.of<DomainEventStream> { result ->
+                                result.index("test-index")
+                                    .id("id-$index")
+                                    .found(source != null)
+                                source?.let(result::source)
+                                result
+                            },
+                        )
+                    }
+                },
+            )
+        }
+    }
+
     private fun stubSearch(response: Mono<ResponseBody<DomainEventStream>>) {
         every {
             client.search(
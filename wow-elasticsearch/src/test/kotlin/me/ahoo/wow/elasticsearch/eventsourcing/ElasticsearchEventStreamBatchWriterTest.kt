@@ -14,6 +14,7 @@
 package me.ahoo.wow.elasticsearch.eventsourcing
 
 import co.elastic.clients.elasticsearch._types.Refresh
+import co.elastic.clients.elasticsearch._types.VersionType
 import co.elastic.clients.elasticsearch.core.BulkRequest
 import co.elastic.clients.elasticsearch.core.BulkResponse
 import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem
@@ -70,6 +71,42 @@ class ElasticsearchEventStreamBatchWriterTest {
         }
     }
 
+    @Test
+    fun `head should move in the same bulk request without failing its append`() {
+        val request = slot<BulkRequest>()
+        every { client.bulk(capture(request)) } returns Mono.just(
+            bulkResponse(
+                errors = true,
+                responseItem(index = "event-order", id = "order-1-2", status = 201),
+                responseItem(
+                    index = "event-order-head",
+                    id = "order-1",
+                    status = 409,
+                    errorType = "version_conflict_engine_exception",
+                    operationType = OperationType.Index,
+                ),
+            )
+        )
+        val eventStream = mockk<DomainEventStream> {
+            every { version } returns 2
+        }
+
+        ElasticsearchEventStreamBatchWriter(client, Refresh.False)
+            .write(listOf(append(eventStream = eventStream, id = "order-1-2").copy(headIndex = "event-order-head")))
+            .test()
+            .expectNext(listOf(BatchItemResult.Success))
+            .verifyComplete()
+
+        request.captured.operations().assert().hasSize(2)
+        request.captured.operations()[1].index<Map<String, Any>>().let { head ->
+            head.index().assert().isEqualTo("event-order-head")
+            head.id().assert().isEqualTo("order-1")
+            head.routing().assert().isEqualTo("order-1")
+            head.versionType().assert().isEqualTo(VersionType.External)
+            head.version().assert().isEqualTo(2L)
+        }
+    }
+
     @Test
     fun `concrete response index should be accepted for an alias request`() {
         every { client.bulk(any<BulkRequest>()) } returns Mono.just(
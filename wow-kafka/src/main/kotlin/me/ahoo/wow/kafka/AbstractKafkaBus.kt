@@ -17,14 +17,19 @@ import io.github.oshai.kotlinlogging.KotlinLogging
 import me.ahoo.wow.api.messaging.Message
 import me.ahoo.wow.api.modeling.AggregateIdCapable
 import me.ahoo.wow.api.modeling.NamedAggregate
+import me.ahoo.wow.configuration.MetadataSearcher.isLocal
 import me.ahoo.wow.messaging.DistributedMessageBus
+import me.ahoo.wow.messaging.LOCAL_FIRST_HEADER
 import me.ahoo.wow.messaging.MessageReceiver
 import me.ahoo.wow.messaging.MessageSubscription
 import me.ahoo.wow.messaging.handler.MessageExchange
+import me.ahoo.wow.messaging.isLocalFirst
+import me.ahoo.wow.messaging.isSkipLocalHandled
 import me.ahoo.wow.serialization.toJsonString
 import me.ahoo.wow.serialization.toObject
 import org.apache.kafka.clients.consumer.Consumer
 import org.apache.kafka.clients.consumer.ConsumerConfig
+import org.apache.kafka.clients.consumer.ConsumerRecord
 import org.apache.kafka.clients.consumer.OffsetAndMetadata
 import org.apache.kafka.clients.producer.ProducerRecord
 import org.apache.kafka.common.TopicPartition
@@ -44,6 +49,15 @@ import java.util.concurrent.atomic.AtomicBoolean
 import java.util.concurrent.atomic.AtomicLong
 import java.util.concurrent.atomic.AtomicReference
 
+private val LOCAL_FIRST_HEADER_VALUE = true.toString().toByteArray()
+
+/**
+ * Whether the record carries the local-first transport header, i.e. the sender already
+ * delivered the message to a local receiver.
+ */
+internal fun ConsumerRecord<*, *>.isLocalFirst(): Boolean =
+    headers().lastHeader(LOCAL_FIRST_HEADER)?.value()?.contentEquals(LOCAL_FIRST_HEADER_VALUE) == true
+
 private typealias KafkaAssignmentListener =
     (Consumer<*, *>, Map<TopicPartition, Long>) -> Unit
 
@@ -191,10 +205,15 @@ abstract class AbstractKafkaBus<M, E>(
             } else {
                 readinessReceiverOptions(customizedOptions, onAssigned)
             }
+            val skipLocalHandledTopics = if (contextView.isSkipLocalHandled()) {
+                subscription.namedAggregates.filter { it.isLocal() }.map { topicConverter.convert(it) }.toSet()
+            } else {
+                emptySet()
+            }
             createReceiver(readyOptions)
                 .receive(receiverPolicy.prefetchBatches)
                 .retryWhen(receiverPolicy.retrySpec)
-                .concatMap(::decodeRecord)
+                .concatMap { decodeRecord(it, skipLocalHandledTopics) }
         }
     }
 
@@ -292,10 +311,26 @@ abstract class AbstractKafkaBus<M, E>(
             /* value = */
             message.toJsonString(),
         )
+        if (message.isLocalFirst()) {
+            producerRecord.headers().add(LOCAL_FIRST_HEADER, LOCAL_FIRST_HEADER_VALUE)
+        }
         return SenderRecord.create(producerRecord, Sinks.empty())
     }
 
-    private fun decodeRecord(receiverRecord: ReceiverRecord<String, String>): Mono<E> {
+    /**
+     * Decodes the record into an exchange.
+     *
+     * Records of [skipLocalHandledTopics] that carry the local-first header were already handled by
+     * a local receiver of the sending instance, so they are acknowledged and dropped without decoding.
+     */
+    private fun decodeRecord(
+        receiverRecord: ReceiverRecord<String, String>,
+        skipLocalHandledTopics: Set<String>,
+    ): Mono<E> {
+        if (receiverRecord.topic() in skipLocalHandledTopics && receiverRecord.isLocalFirst()) {
+            receiverRecord.receiverOffset().acknowledge()
+            return Mono.empty()
+        }
         return Mono.fromCallable {
             decode(receiverRecord)
         }.onErrorResume(Exception::class.java) {
@@ -21,7 +21,10 @@ import me.ahoo.wow.api.command.CommandMessage
 import me.ahoo.wow.command.ServerCommandExchange
 import me.ahoo.wow.command.toCommandMessage
 import me.ahoo.wow.id.generateGlobalId
+import me.ahoo.wow.messaging.LOCAL_FIRST_HEADER
 import me.ahoo.wow.messaging.MessageSubscription
+import me.ahoo.wow.messaging.withLocalFirst
+import me.ahoo.wow.messaging.writeSkipLocalHandled
 import me.ahoo.wow.serialization.toJsonString
 import me.ahoo.wow.tck.mock.MockCreateAggregate
 import org.apache.kafka.clients.consumer.Consumer
@@ -30,6 +33,7 @@ import org.apache.kafka.clients.consumer.OffsetAndMetadata
 import org.apache.kafka.clients.consumer.OffsetCommitCallback
 import org.apache.kafka.clients.producer.ProducerConfig
 import org.apache.kafka.common.TopicPartition
+import org.apache.kafka.common.header.internals.RecordHeaders
 import org.apache.kafka.common.serialization.StringDeserializer
 import org.apache.kafka.common.serialization.StringSerializer
 import org.junit.jupiter.api.Test
@@ -625,6 +629,67 @@ class AbstractKafkaBusTest {
         )
     }
 
+    @Test
+    fun `should mark locally delivered messages with a record header`() {
+        val bus = TestKafkaBus(receiver = mockk())
+        try {
+            bus.encoded(message()).headers().lastHeader(LOCAL_FIRST_HEADER).assert().isNull()
+            val localFirst = message().apply { header.withLocalFirst() }
+            String(bus.encoded(localFirst).headers().lastHeader(LOCAL_FIRST_HEADER).value())
+                .assert().isEqualTo(true.toString())
+        } finally {
+            bus.close()
+        }
+    }
+
+    @Test
+    fun `should acknowledge locally handled records without decoding`() {
+        val message = message()
+        val receiverOffset = mockk<ReceiverOffset>(relaxed = true)
+        val record = receiverRecord(
+            message = message,
+            receiverOffset = receiverOffset,
+            headers = RecordHeaders().add(LOCAL_FIRST_HEADER, true.toString().toByteArray()),
+        )
+        val bus = testBus(record, FailKafkaRecordDecodeFailureHandler)
+
+        try {
+            bus.receive(MessageSubscription(message, generateGlobalId()))
+                .contextWrite { it.writeSkipLocalHandled() }
+                .test()
+                .verifyComplete()
+
+            verify(exactly = 1) {
+                receiverOffset.acknowledge()
+            }
+            verify(exactly = 0) {
+                record.value()
+            }
+        } finally {
+            bus.close()
+        }
+    }
+
+    @Test
+    fun `should decode locally handled records outside a local-first pipeline`() {
+        val message = message()
+        val record = receiverRecord(
+            message = message,
+            receiverOffset = mockk(relaxed = true),
+            headers = RecordHeaders().add(LOCAL_FIRST_HEADER, true.toString().toByteArray()),
+        )
+        val bus = testBus(record, FailKafkaRecordDecodeFailureHandler)
+
+        try {
+            bus.receive(MessageSubscription(message, generateGlobalId()))
+                .test()
+                .expectNextCount(1)
+                .verifyComplete()
+        } finally {
+            bus.close()
+        }
+    }
+
     private fun assertRejectedRecord(
         message: CommandMessage<*>,
         record: ReceiverRecord<String, String>,
@@ -677,11 +742,13 @@ class AbstractKafkaBusTest {
         topic: String = DefaultCommandTopicConverter().convert(message),
         key: String = message.aggregateId.id,
         value: String = message.toJsonString(),
+        headers: RecordHeaders = RecordHeaders(),
     ): ReceiverRecord<String, String> {
         return mockk {
             every { topic() } returns topic
             every { key() } returns key
             every { value() } returns value
+            every { headers() } returns headers
             every { receiverOffset() } returns receiverOffset
         }
     }
@@ -706,6 +773,8 @@ class AbstractKafkaBusTest {
     ) {
         var capturedOptions: ReceiverOptions<String, String>? = null
 
+        fun encoded(message: CommandMessage<*>) = encode(message)
+
         override val messageType: Class<CommandMessage<*>>
             get() = CommandMessage::class.java
 
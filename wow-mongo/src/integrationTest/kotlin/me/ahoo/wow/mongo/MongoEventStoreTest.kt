@@ -43,7 +43,7 @@ class MongoEventStoreTest : EventStoreSpec() {
     override fun createEventStore(): EventStore {
         val database = mongo.database()
         EventStreamSchemaInitializer(database).initSchema(namedAggregate)
-        return MongoEventStore(database).meteredForTck()
+        return MongoEventStore(database, eventLogSafetyLag = Duration.ZERO).meteredForTck()
     }
 
     @Test
@@ -31,11 +31,16 @@ object AggregateSchemaInitializer {
     const val REQUEST_ID_UNIQUE_INDEX_NAME = "requestId_1"
     private const val EVENT_STREAM_COLLECTION_SUFFIX = "_event_stream"
     private const val SNAPSHOT_COLLECTION_SUFFIX = "_snapshot"
+    private const val EVENT_STREAM_ARCHIVE_COLLECTION_SUFFIX = "_event_stream_archive"
 
     fun NamedAggregate.toEventStreamCollectionName(): String {
         return "${this.aggregateName}$EVENT_STREAM_COLLECTION_SUFFIX"
     }
 
+    fun NamedAggregate.toEventStreamArchiveCollectionName(): String {
+        return "${this.aggregateName}$EVENT_STREAM_ARCHIVE_COLLECTION_SUFFIX"
+    }
+
     fun NamedAggregate.toSnapshotCollectionName(): String {
         return "${this.aggregateName}$SNAPSHOT_COLLECTION_SUFFIX"
     }
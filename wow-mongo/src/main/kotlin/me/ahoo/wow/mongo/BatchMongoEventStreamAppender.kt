@@ -15,6 +15,7 @@ package me.ahoo.wow.mongo
 
 import com.mongodb.reactivestreams.client.MongoDatabase
 import me.ahoo.wow.event.DomainEventStream
+import me.ahoo.wow.infra.batch.AdaptiveBatchOptions
 import me.ahoo.wow.infra.batch.BatchCloseTimeoutException
 import me.ahoo.wow.infra.batch.BatchClosedException
 import me.ahoo.wow.infra.batch.BatchOptions
@@ -23,22 +24,33 @@ import me.ahoo.wow.infra.batch.BatchWriter
 import me.ahoo.wow.infra.batch.KeyedBatchCoordinator
 import me.ahoo.wow.metrics.WowMetrics
 import me.ahoo.wow.mongo.AggregateSchemaInitializer.toEventStreamCollectionName
-import org.bson.Document
+import me.ahoo.wow.mongo.codec.DomainEventStreamCodec
+import org.bson.RawBsonDocument
+import org.bson.conversions.Bson
 import reactor.core.publisher.Mono
 import java.time.Duration
 import java.util.concurrent.atomic.AtomicReference
 
+/**
+ * @param document the `Document` of [eventStream], or its [RawBsonDocument] when it was encoded by
+ * [DomainEventStreamCodec].
+ */
 internal data class MongoEventStreamAppend(
     val eventStream: DomainEventStream,
-    val document: Document,
+    val document: Bson,
     val collectionName: String,
 )
 
+/**
+ * With [directCodec] each stream is encoded by [DomainEventStreamCodec] into a [RawBsonDocument] when it is
+ * submitted, so the batch insert writes those bytes as is instead of converting a `Document`.
+ */
 internal class BatchMongoEventStreamAppender(
     database: MongoDatabase,
     private val options: MongoEventStoreBatchOptions,
     private val closeTimeout: Duration = DEFAULT_CLOSE_TIMEOUT,
     metrics: WowMetrics = WowMetrics.NONE,
+    private val directCodec: Boolean = false,
 ) : MongoEventStreamAppender {
     private data class MappedCloseTimeout(
         val source: BatchCloseTimeoutException,
@@ -58,12 +70,18 @@ internal class BatchMongoEventStreamAppender(
             maxSize = options.maxSize,
             maxDelay = options.maxDelay,
             maxPendingItems = options.maxPendingAppends,
+            adaptive = options.targetLatency?.let {
+                AdaptiveBatchOptions(
+                    targetLatency = it,
+                    minDelay = minOf(AdaptiveBatchOptions.DEFAULT_MIN_DELAY, options.maxDelay),
+                )
+            },
         ),
         laneCount = options.laneCount,
         keySelector = { append: MongoEventStreamAppend ->
             append.eventStream.aggregateId
         },
-        writer = BatchWriter(MongoEventStreamBatchWriter(database)::write),
+        writer = BatchWriter(MongoEventStreamBatchWriter(database, directCodec)::write),
         metrics = metrics,
     )
 
@@ -71,7 +89,11 @@ internal class BatchMongoEventStreamAppender(
         return coordinator.submit {
             MongoEventStreamAppend(
                 eventStream = eventStream,
-                document = eventStream.toDocument(),
+                document = if (directCodec) {
+                    RawBsonDocument(eventStream, DomainEventStreamCodec)
+                } else {
+                    eventStream.toDocument()
+                },
                 collectionName = eventStream.toEventStreamCollectionName(),
             )
         }.onErrorMap(::toMongoBatchError)
@@ -15,6 +15,7 @@ package me.ahoo.wow.mongo
 
 import com.mongodb.reactivestreams.client.MongoDatabase
 import me.ahoo.wow.eventsourcing.snapshot.Snapshot
+import me.ahoo.wow.eventsourcing.snapshot.compression.SnapshotStateCompression
 import me.ahoo.wow.infra.batch.BatchCloseTimeoutException
 import me.ahoo.wow.infra.batch.BatchClosedException
 import me.ahoo.wow.infra.batch.BatchOptions
@@ -31,6 +32,8 @@ internal class BatchMongoSnapshotSaver(
     private val options: MongoSnapshotStoreBatchOptions,
     private val closeTimeout: Duration = DEFAULT_CLOSE_TIMEOUT,
     metrics: WowMetrics = WowMetrics.NONE,
+    private val directCodec: Boolean = false,
+    private val stateCompression: SnapshotStateCompression = SnapshotStateCompression.NONE,
 ) : MongoSnapshotSaver {
     private data class MappedCloseTimeout(
         val source: BatchCloseTimeoutException,
@@ -61,7 +64,7 @@ internal class BatchMongoSnapshotSaver(
 
     override fun <S : Any> save(snapshot: Snapshot<S>): Mono<Void> {
         return coordinator.submit {
-            snapshot.toMongoSnapshotWrite()
+            snapshot.toMongoSnapshotWrite(directCodec, stateCompression)
         }.onErrorMap(::toMongoSnapshotBatchError)
     }
 
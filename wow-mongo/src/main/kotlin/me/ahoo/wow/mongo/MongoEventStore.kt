@@ -16,15 +16,20 @@ package me.ahoo.wow.mongo
 import com.mongodb.client.model.Filters
 import com.mongodb.client.model.Projections
 import com.mongodb.client.model.Sorts
+import com.mongodb.reactivestreams.client.MongoCollection
 import com.mongodb.reactivestreams.client.MongoDatabase
 import me.ahoo.wow.api.Version
 import me.ahoo.wow.api.modeling.AggregateId
 import me.ahoo.wow.api.modeling.NamedAggregate
 import me.ahoo.wow.event.DomainEventStream
 import me.ahoo.wow.eventsourcing.AbstractEventStore
+import me.ahoo.wow.eventsourcing.EventLogReader
+import me.ahoo.wow.eventsourcing.EventLogRecord
+import me.ahoo.wow.eventsourcing.takeSettled
 import me.ahoo.wow.metrics.WowMetrics
 import me.ahoo.wow.modeling.aggregateId
 import me.ahoo.wow.mongo.AggregateSchemaInitializer.toEventStreamCollectionName
+import me.ahoo.wow.mongo.codec.withWowCodecs
 import me.ahoo.wow.serialization.MessageRecords
 import org.bson.Document
 import org.bson.conversions.Bson
@@ -33,31 +38,62 @@ import reactor.core.publisher.Mono
 import reactor.kotlin.core.publisher.toFlux
 import reactor.kotlin.core.publisher.toMono
 import java.io.Closeable
+import java.time.Duration
 
+/**
+ * MongoDB backed event store.
+ *
+ * @param directCodec when `true`, appends and stream loads encode and decode through `DomainEventStreamCodec`
+ * instead of building an intermediate `Document`.
+ * @param eventLogSafetyLag the age an event stream must reach before [readAll] returns it, bounding how late a
+ * stream may commit after creation without being skipped by the id-ordered log.
+ */
 class MongoEventStore(
     private val database: MongoDatabase,
     val batchOptions: MongoEventStoreBatchOptions = MongoEventStoreBatchOptions(),
     metrics: WowMetrics = WowMetrics.NONE,
+    val directCodec: Boolean = false,
+    val eventLogSafetyLag: Duration = EventLogReader.DEFAULT_SAFETY_LAG,
 ) : AbstractEventStore(),
     Closeable {
-    private val appender: MongoEventStreamAppender = if (batchOptions.enabled) {
-        BatchMongoEventStreamAppender(database, batchOptions, metrics = metrics)
-    } else {
-        DirectMongoEventStreamAppender(database)
+    private val codecDatabase: MongoDatabase by lazy { database.withWowCodecs() }
+    private val appender: MongoEventStreamAppender = when {
+        batchOptions.enabled -> BatchMongoEventStreamAppender(
+            database = database,
+            options = batchOptions,
+            metrics = metrics,
+            directCodec = directCodec,
+        )
+        directCodec -> DirectMongoEventStreamAppender(codecDatabase, directCodec = true)
+        else -> DirectMongoEventStreamAppender(database)
     }
 
     override fun appendStream(eventStream: DomainEventStream): Mono<Void> =
         appender.append(eventStream)
 
-    private fun documentToDomainEventStream(aggregateId: AggregateId, document: Document): DomainEventStream {
-        val domainEventStream = document.toDomainEventStream()
+    private fun documentToDomainEventStream(aggregateId: AggregateId, document: Document): DomainEventStream =
+        requireAggregateId(aggregateId, document.toDomainEventStream())
+
+    private fun requireAggregateId(aggregateId: AggregateId, domainEventStream: DomainEventStream): DomainEventStream {
         require(domainEventStream.aggregateId == aggregateId) {
             "aggregateId is not match! aggregateId: $aggregateId, domainEventStream: ${domainEventStream.aggregateId}"
         }
         return domainEventStream
     }
 
+    private fun eventStreamCollection(aggregateId: AggregateId): MongoCollection<DomainEventStream> =
+        codecDatabase.getCollection(aggregateId.toEventStreamCollectionName(), DomainEventStream::class.java)
+
     private fun findStream(aggregateId: AggregateId, filter: Bson): Flux<DomainEventStream> {
+        if (directCodec) {
+            return eventStreamCollection(aggregateId)
+                .find(filter)
+                .sort(Sorts.ascending(MessageRecords.VERSION))
+                .toFlux()
+                .map {
+                    requireAggregateId(aggregateId, it)
+                }
+        }
         val eventStreamCollectionName = aggregateId.toEventStreamCollectionName()
         return database.getCollection(eventStreamCollectionName)
             .find(filter)
@@ -117,6 +153,17 @@ class MongoEventStore(
     }
 
     override fun last(aggregateId: AggregateId): Mono<DomainEventStream> {
+        if (directCodec) {
+            return eventStreamCollection(aggregateId)
+                .find(aggregateIdentityFilter(aggregateId))
+                .sort(Sorts.descending(MessageRecords.VERSION))
+                .limit(1)
+                .first()
+                .toMono()
+                .map {
+                    requireAggregateId(aggregateId, it)
+                }
+        }
         val eventStreamCollectionName = aggregateId.toEventStreamCollectionName()
         return database.getCollection(eventStreamCollectionName)
             .find(aggregateIdentityFilter(aggregateId))
@@ -129,6 +176,20 @@ class MongoEventStore(
             }
     }
 
+    override fun prune(aggregateId: AggregateId, headVersion: Int, tailVersion: Int): Mono<Long> {
+        val eventStreamCollectionName = aggregateId.toEventStreamCollectionName()
+        return database.getCollection(eventStreamCollectionName)
+            .deleteMany(
+                Filters.and(
+                    aggregateIdentityFilter(aggregateId),
+                    Filters.gte(MessageRecords.VERSION, headVersion),
+                    Filters.lte(MessageRecords.VERSION, tailVersion),
+                )
+            )
+            .toMono()
+            .map { it.deletedCount }
+    }
+
     override fun scanAggregateId(
         namedAggregate: NamedAggregate,
         afterId: String,
@@ -160,6 +221,44 @@ class MongoEventStore(
             }
     }
 
+    /**
+     * Reads the event stream collection in `_id` order. Event stream ids are time-ordered global ids, so the
+     * log follows stream creation order, and the position is the `_id` of the last stream read.
+     * The read stops at the first stream younger than [eventLogSafetyLag].
+     */
+    override fun readAll(
+        namedAggregate: NamedAggregate,
+        fromPosition: String,
+        batchSize: Int
+    ): Flux<EventLogRecord> {
+        require(batchSize > 0) { "batchSize[$batchSize] must be greater than 0." }
+        val filters = mutableListOf(
+            Filters.eq(MessageRecords.CONTEXT_NAME, namedAggregate.contextName),
+            Filters.eq(MessageRecords.AGGREGATE_NAME, namedAggregate.aggregateName),
+        )
+        if (fromPosition != EventLogReader.HEAD_POSITION) {
+            filters.add(Filters.gt(Documents.ID_FIELD, fromPosition))
+        }
+        val eventStreamCollectionName = namedAggregate.toEventStreamCollectionName()
+        val eventStreams = if (directCodec) {
+            codecDatabase.getCollection(eventStreamCollectionName, DomainEventStream::class.java)
+                .find(Filters.and(filters))
+                .sort(Sorts.ascending(Documents.ID_FIELD))
+                .limit(batchSize)
+                .toFlux()
+        } else {
+            database.getCollection(eventStreamCollectionName)
+                .find(Filters.and(filters))
+                .sort(Sorts.ascending(Documents.ID_FIELD))
+                .limit(batchSize)
+                .toFlux()
+                .map { it.toDomainEventStream() }
+        }
+        return eventStreams.takeSettled(eventLogSafetyLag).map {
+            EventLogRecord(it.id, it)
+        }
+    }
+
     override fun close() {
         appender.close()
     }
@@ -19,6 +19,8 @@ import java.time.Duration
  * Controls transparent batching for [MongoEventStore] appends.
  *
  * Batching is opt-in because collecting a partial batch adds up to `maxDelay` to a low-throughput append.
+ * Setting [targetLatency] turns `maxSize` and `maxDelay` into upper bounds of an adaptive window that
+ * tracks the observed write latency and append rate.
  */
 data class MongoEventStoreBatchOptions(
     val enabled: Boolean = false,
@@ -26,6 +28,7 @@ data class MongoEventStoreBatchOptions(
     val maxDelay: Duration = DEFAULT_MAX_DELAY,
     val maxPendingAppends: Int = DEFAULT_MAX_PENDING_APPENDS,
     val laneCount: Int = DEFAULT_LANE_COUNT,
+    val targetLatency: Duration? = null,
 ) {
     init {
         require(maxSize > 1) {
@@ -40,6 +43,9 @@ data class MongoEventStoreBatchOptions(
         require(laneCount > 0) {
             "laneCount must be greater than zero."
         }
+        require(targetLatency == null || (!targetLatency.isNegative && !targetLatency.isZero)) {
+            "targetLatency must be positive."
+        }
     }
 
     companion object {
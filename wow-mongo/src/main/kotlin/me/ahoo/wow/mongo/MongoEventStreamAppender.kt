@@ -26,14 +26,26 @@ internal interface MongoEventStreamAppender : AutoCloseable {
     override fun close() = Unit
 }
 
+/**
+ * Inserts one event stream per round trip.
+ *
+ * With [directCodec] the stream is encoded by `DomainEventStreamCodec` instead of being converted to a `Document`,
+ * so [database] must carry the Wow codecs.
+ */
 internal class DirectMongoEventStreamAppender(
     private val database: MongoDatabase,
+    private val directCodec: Boolean = false,
 ) : MongoEventStreamAppender {
     override fun append(eventStream: DomainEventStream): Mono<Void> {
         val eventStreamCollectionName = eventStream.toEventStreamCollectionName()
-        val document = eventStream.toDocument()
-        return database.getCollection(eventStreamCollectionName)
-            .insertOne(document)
+        val inserted = if (directCodec) {
+            database.getCollection(eventStreamCollectionName, DomainEventStream::class.java)
+                .insertOne(eventStream)
+        } else {
+            database.getCollection(eventStreamCollectionName)
+                .insertOne(eventStream.toDocument())
+        }
+        return inserted
             .toMono()
             .doOnNext {
                 check(it.wasAcknowledged())
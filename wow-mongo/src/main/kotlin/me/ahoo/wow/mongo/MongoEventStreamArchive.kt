@@ -0,0 +1,105 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.mongo
+
+import com.mongodb.client.model.Filters
+import com.mongodb.client.model.Projections
+import com.mongodb.client.model.ReplaceOptions
+import com.mongodb.client.model.Sorts
+import com.mongodb.reactivestreams.client.MongoDatabase
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.event.DomainEventStream
+import me.ahoo.wow.eventsourcing.archive.EventStreamArchive
+import me.ahoo.wow.eventsourcing.archive.EventStreamArchiveCodec
+import me.ahoo.wow.mongo.AggregateSchemaInitializer.toEventStreamArchiveCollectionName
+import me.ahoo.wow.serialization.MessageRecords
+import org.bson.Document
+import org.bson.types.Binary
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import reactor.kotlin.core.publisher.toFlux
+import reactor.kotlin.core.publisher.toMono
+
+/**
+ * [EventStreamArchive] storing each segment as one document with a compressed blob in the
+ * `{aggregateName}_event_stream_archive` collection, next to the hot event stream collection.
+ *
+ * @see EventStreamArchiveSchemaInitializer
+ */
+class MongoEventStreamArchive(private val database: MongoDatabase) : EventStreamArchive {
+    override val shared: Boolean = true
+
+    companion object {
+        const val HEAD_VERSION_FIELD = "headVersion"
+        const val TAIL_VERSION_FIELD = "tailVersion"
+        const val SEGMENT_FIELD = "segment"
+    }
+
+    private fun aggregateIdentityFilter(aggregateId: AggregateId) =
+        Filters.and(
+            Filters.eq(MessageRecords.AGGREGATE_ID, aggregateId.id),
+            Filters.eq(MessageRecords.TENANT_ID, aggregateId.tenantId),
+        )
+
+    override fun archive(aggregateId: AggregateId, eventStreams: List<DomainEventStream>): Mono<Void> {
+        if (eventStreams.isEmpty()) {
+            return Mono.empty()
+        }
+        val headVersion = eventStreams.first().version
+        val segmentId = "${aggregateId.tenantId}:${aggregateId.id}:$headVersion"
+        val document = Document(Documents.ID_FIELD, segmentId)
+            .append(MessageRecords.AGGREGATE_ID, aggregateId.id)
+            .append(MessageRecords.TENANT_ID, aggregateId.tenantId)
+            .append(HEAD_VERSION_FIELD, headVersion)
+            .append(TAIL_VERSION_FIELD, eventStreams.last().version)
+            .append(Documents.SIZE_FIELD, eventStreams.size)
+            .append(SEGMENT_FIELD, Binary(EventStreamArchiveCodec.encode(eventStreams)))
+        return database.getCollection(aggregateId.toEventStreamArchiveCollectionName())
+            .replaceOne(
+                Filters.eq(Documents.ID_FIELD, segmentId),
+                document,
+                ReplaceOptions().upsert(true),
+            )
+            .toMono()
+            .then()
+    }
+
+    override fun load(aggregateId: AggregateId, headVersion: Int, tailVersion: Int): Flux<DomainEventStream> =
+        database.getCollection(aggregateId.toEventStreamArchiveCollectionName())
+            .find(
+                Filters.and(
+                    aggregateIdentityFilter(aggregateId),
+                    Filters.lte(HEAD_VERSION_FIELD, tailVersion),
+                    Filters.gte(TAIL_VERSION_FIELD, headVersion),
+                )
+            )
+            .sort(Sorts.ascending(HEAD_VERSION_FIELD))
+            .toFlux()
+            .concatMapIterable {
+                EventStreamArchiveCodec.decode(it.get(SEGMENT_FIELD, Binary::class.java).data)
+            }.filter {
+                it.version in headVersion..tailVersion
+            }
+
+    override fun archivedVersion(aggregateId: AggregateId): Mono<Int> =
+        database.getCollection(aggregateId.toEventStreamArchiveCollectionName())
+            .find(aggregateIdentityFilter(aggregateId))
+            .sort(Sorts.descending(TAIL_VERSION_FIELD))
+            .projection(Projections.include(TAIL_VERSION_FIELD))
+            .limit(1)
+            .first()
+            .toMono()
+            .map { it.getInteger(TAIL_VERSION_FIELD) }
+            .defaultIfEmpty(0)
+}
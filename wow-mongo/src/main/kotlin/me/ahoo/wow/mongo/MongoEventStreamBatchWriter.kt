@@ -15,14 +15,23 @@ package me.ahoo.wow.mongo
 
 import com.mongodb.MongoBulkWriteException
 import com.mongodb.client.model.InsertManyOptions
+import com.mongodb.client.result.InsertManyResult
 import com.mongodb.reactivestreams.client.MongoDatabase
 import me.ahoo.wow.infra.batch.BatchItemResult
+import org.bson.Document
+import org.bson.RawBsonDocument
+import org.reactivestreams.Publisher
 import reactor.core.publisher.Flux
 import reactor.core.publisher.Mono
 import reactor.kotlin.core.publisher.toMono
 
+/**
+ * @param directCodec whether the documents of the appends are [RawBsonDocument]s encoded by `DomainEventStreamCodec`
+ * rather than `Document`s.
+ */
 internal class MongoEventStreamBatchWriter(
     private val database: MongoDatabase,
+    private val directCodec: Boolean = false,
 ) {
     fun write(batch: List<MongoEventStreamAppend>): Mono<List<BatchItemResult>> {
         val groups = batch.withIndex()
@@ -55,12 +64,7 @@ internal class MongoEventStreamBatchWriter(
         batch: List<MongoEventStreamAppend>,
     ): Mono<List<BatchItemResult>> {
         return Mono.defer {
-            database.getCollection(batch.first().collectionName)
-                .insertMany(
-                    batch.map(MongoEventStreamAppend::document),
-                    UNORDERED_INSERT_MANY_OPTIONS,
-                )
-                .toMono()
+            insertMany(batch).toMono()
         }.doOnNext {
             check(it.wasAcknowledged()) {
                 "MongoDB did not acknowledge the event stream batch append."
@@ -79,6 +83,22 @@ internal class MongoEventStreamBatchWriter(
             }
     }
 
+    private fun insertMany(batch: List<MongoEventStreamAppend>): Publisher<InsertManyResult> {
+        val collectionName = batch.first().collectionName
+        if (directCodec) {
+            return database.getCollection(collectionName, RawBsonDocument::class.java)
+                .insertMany(
+                    batch.map { it.document as RawBsonDocument },
+                    UNORDERED_INSERT_MANY_OPTIONS,
+                )
+        }
+        return database.getCollection(collectionName)
+            .insertMany(
+                batch.map { it.document as Document },
+                UNORDERED_INSERT_MANY_OPTIONS,
+            )
+    }
+
     private fun resolveBulkWriteError(
         batch: List<MongoEventStreamAppend>,
         error: MongoBulkWriteException,
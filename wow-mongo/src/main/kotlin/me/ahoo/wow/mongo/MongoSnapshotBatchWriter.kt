@@ -75,7 +75,7 @@ internal class MongoSnapshotBatchWriter(
         val models = batch.map { write ->
             UpdateOneModel<Document>(
                 Filters.eq(Documents.ID_FIELD, write.id),
-                versionGuardedSnapshotReplacement(write.document),
+                versionGuardedSnapshotReplacement(write.document, write.version),
                 VERSION_GUARDED_UPDATE_OPTIONS,
             )
         }
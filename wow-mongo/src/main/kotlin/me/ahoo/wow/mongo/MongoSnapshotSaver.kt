@@ -17,9 +17,12 @@ import com.mongodb.client.model.Filters
 import com.mongodb.client.model.UpdateOptions
 import com.mongodb.reactivestreams.client.MongoDatabase
 import me.ahoo.wow.eventsourcing.snapshot.Snapshot
+import me.ahoo.wow.eventsourcing.snapshot.compression.SnapshotStateCompression
 import me.ahoo.wow.mongo.AggregateSchemaInitializer.toSnapshotCollectionName
+import me.ahoo.wow.mongo.codec.SnapshotCodec
 import me.ahoo.wow.serialization.MessageRecords
-import org.bson.Document
+import org.bson.RawBsonDocument
+import org.bson.conversions.Bson
 import reactor.core.publisher.Mono
 import reactor.kotlin.core.publisher.toMono
 
@@ -27,11 +30,26 @@ internal data class MongoSnapshotWrite(
     val collectionName: String,
     val id: String,
     val version: Int,
-    val document: Document,
+    val document: Bson,
 )
 
-internal fun <S : Any> Snapshot<S>.toMongoSnapshotWrite(): MongoSnapshotWrite {
-    val document = toDocument()
+/**
+ * With [directCodec] the snapshot is encoded by [SnapshotCodec] straight into a [RawBsonDocument],
+ * unless [stateCompression] applies to the aggregate, which needs the `Document` to replace the state field.
+ */
+internal fun <S : Any> Snapshot<S>.toMongoSnapshotWrite(
+    directCodec: Boolean = false,
+    stateCompression: SnapshotStateCompression = SnapshotStateCompression.NONE,
+): MongoSnapshotWrite {
+    if (directCodec && !stateCompression.isEnabled(aggregateId)) {
+        return MongoSnapshotWrite(
+            collectionName = aggregateId.toSnapshotCollectionName(),
+            id = aggregateId.id,
+            version = version,
+            document = RawBsonDocument(this, SnapshotCodec),
+        )
+    }
+    val document = toDocument().compressState(aggregateId, stateCompression)
     val id = checkNotNull(document.getString(Documents.ID_FIELD)) {
         "Serialized Wow snapshot has no aggregate id."
     }
@@ -55,13 +73,15 @@ internal interface MongoSnapshotSaver : AutoCloseable {
 
 internal class DirectMongoSnapshotSaver(
     private val database: MongoDatabase,
+    private val directCodec: Boolean = false,
+    private val stateCompression: SnapshotStateCompression = SnapshotStateCompression.NONE,
 ) : MongoSnapshotSaver {
     override fun <S : Any> save(snapshot: Snapshot<S>): Mono<Void> {
-        val write = snapshot.toMongoSnapshotWrite()
+        val write = snapshot.toMongoSnapshotWrite(directCodec, stateCompression)
         return database.getCollection(write.collectionName)
             .updateOne(
                 Filters.eq(Documents.ID_FIELD, write.id),
-                versionGuardedSnapshotReplacement(write.document),
+                versionGuardedSnapshotReplacement(write.document, write.version),
                 VERSION_GUARDED_UPDATE_OPTIONS,
             )
             .toMono()
@@ -22,29 +22,46 @@ import me.ahoo.wow.api.Version.Companion.UNINITIALIZED_VERSION
 import me.ahoo.wow.api.modeling.AggregateId
 import me.ahoo.wow.eventsourcing.snapshot.Snapshot
 import me.ahoo.wow.eventsourcing.snapshot.SnapshotStore
+import me.ahoo.wow.eventsourcing.snapshot.compression.SnapshotStateCompression
 import me.ahoo.wow.metrics.WowMetrics
 import me.ahoo.wow.mongo.AggregateSchemaInitializer.toSnapshotCollectionName
+import me.ahoo.wow.mongo.codec.withWowCodecs
 import me.ahoo.wow.serialization.MessageRecords
 import org.bson.Document
 import org.bson.conversions.Bson
 import reactor.core.publisher.Mono
 import reactor.kotlin.core.publisher.toMono
 
+/**
+ * MongoDB backed snapshot store.
+ *
+ * @param directCodec when `true`, snapshots are encoded and decoded through `SnapshotCodec`
+ * instead of building an intermediate `Document`.
+ * @param stateCompression compresses the `state` field of opted-in aggregates. Snapshots are then read through
+ * the `Document` path, which restores compressed states.
+ */
 class MongoSnapshotStore(
     private val database: MongoDatabase,
     val batchOptions: MongoSnapshotStoreBatchOptions = MongoSnapshotStoreBatchOptions(),
     metrics: WowMetrics = WowMetrics.NONE,
+    val directCodec: Boolean = false,
+    val stateCompression: SnapshotStateCompression = SnapshotStateCompression.NONE,
 ) : SnapshotStore {
+    private val codecDatabase: MongoDatabase by lazy { database.withWowCodecs() }
     private val saver: MongoSnapshotSaver = if (batchOptions.enabled) {
         BatchMongoSnapshotSaver(
             database = database,
             options = batchOptions,
             metrics = metrics,
+            directCodec = directCodec,
+            stateCompression = stateCompression,
         )
     } else {
-        DirectMongoSnapshotSaver(database)
+        DirectMongoSnapshotSaver(database, directCodec, stateCompression)
     }
 
+    private val directDecode: Boolean = directCodec && !stateCompression.enabled
+
     companion object {
         const val NAME = "mongo"
         val DEFAULT_REPLACE_OPTIONS: ReplaceOptions = ReplaceOptions().upsert(true)
@@ -54,6 +71,9 @@ class MongoSnapshotStore(
         get() = NAME
 
     override fun <S : Any> load(aggregateId: AggregateId): Mono<Snapshot<S>> {
+        if (directDecode) {
+            return findSnapshot(aggregateId, Filters.eq(Documents.ID_FIELD, aggregateId.id))
+        }
         val snapshotCollectionName = aggregateId.toSnapshotCollectionName()
         return database.getCollection(snapshotCollectionName)
             .find(Filters.eq(Documents.ID_FIELD, aggregateId.id))
@@ -65,6 +85,25 @@ class MongoSnapshotStore(
             }
     }
 
+    override fun <S : Any> loadAtOrBefore(aggregateId: AggregateId, maxVersion: Int): Mono<Snapshot<S>> {
+        val filter = Filters.and(
+            Filters.eq(Documents.ID_FIELD, aggregateId.id),
+            Filters.lte(MessageRecords.VERSION, maxVersion),
+        )
+        if (directDecode) {
+            return findSnapshot(aggregateId, filter)
+        }
+        val snapshotCollectionName = aggregateId.toSnapshotCollectionName()
+        return database.getCollection(snapshotCollectionName)
+            .find(filter)
+            .limit(1)
+            .first()
+            .toMono()
+            .map {
+                mapSnapshot(aggregateId, it)
+            }
+    }
+
     override fun getVersion(aggregateId: AggregateId): Mono<Int> {
         val snapshotCollectionName = aggregateId.toSnapshotCollectionName()
         return database.getCollection(snapshotCollectionName)
@@ -78,11 +117,24 @@ class MongoSnapshotStore(
             }.defaultIfEmpty(UNINITIALIZED_VERSION)
     }
 
+    private fun <S : Any> findSnapshot(aggregateId: AggregateId, filter: Bson): Mono<Snapshot<S>> {
+        return codecDatabase.getCollection(aggregateId.toSnapshotCollectionName(), Snapshot::class.java)
+            .find(filter)
+            .limit(1)
+            .first()
+            .toMono()
+            .map {
+                @Suppress("UNCHECKED_CAST")
+                requireAggregateId(aggregateId, it as Snapshot<S>)
+            }
+    }
+
     private fun <S : Any> mapSnapshot(
         aggregateId: AggregateId,
         document: Document
-    ): Snapshot<S> {
-        val snapshot = document.toSnapshot<S>()
+    ): Snapshot<S> = requireAggregateId(aggregateId, document.inflateState(stateCompression).toSnapshot())
+
+    private fun <S : Any> requireAggregateId(aggregateId: AggregateId, snapshot: Snapshot<S>): Snapshot<S> {
         require(aggregateId == snapshot.aggregateId) {
             "aggregateId: $aggregateId != snapshot.aggregateId: ${snapshot.aggregateId}"
         }
@@ -105,6 +157,13 @@ internal fun versionGuardedSnapshotReplacement(
     check(snapshotVersion is Int) {
         "Serialized Wow snapshot has no integer version."
     }
+    return versionGuardedSnapshotReplacement(snapshotDocument, snapshotVersion)
+}
+
+internal fun versionGuardedSnapshotReplacement(
+    snapshotDocument: Bson,
+    snapshotVersion: Int,
+): List<Bson> {
     val candidateVersion = MqlValues.of(snapshotVersion)
     val candidate = MqlValues.of(snapshotDocument)
     val stored = MqlValues.current()
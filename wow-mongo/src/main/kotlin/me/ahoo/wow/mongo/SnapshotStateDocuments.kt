@@ -0,0 +1,56 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.mongo
+
+import me.ahoo.wow.api.modeling.NamedAggregate
+import me.ahoo.wow.eventsourcing.snapshot.compression.CompressedState
+import me.ahoo.wow.eventsourcing.snapshot.compression.SnapshotStateCompression
+import me.ahoo.wow.serialization.JsonSerializer
+import me.ahoo.wow.serialization.state.StateAggregateRecords
+import org.bson.Document
+import org.bson.types.Binary
+
+/**
+ * Replaces the `state` field of this snapshot document with its compressed form if [compression] applies to
+ * [namedAggregate]. The compressed data is stored as BSON binary.
+ */
+fun Document.compressState(namedAggregate: NamedAggregate, compression: SnapshotStateCompression): Document {
+    if (!compression.isEnabled(namedAggregate)) {
+        return this
+    }
+    val state = get(StateAggregateRecords.STATE) ?: return this
+    val compressed = compression.compress(namedAggregate, JsonSerializer.writeValueAsBytes(state)) ?: return this
+    remove(StateAggregateRecords.STATE)
+    val compressedState = Document(CompressedState.ALGORITHM, compressed.algorithm)
+    compressed.dictionary?.let { compressedState.append(CompressedState.DICTIONARY, it) }
+    compressedState.append(CompressedState.SIZE, compressed.size)
+        .append(CompressedState.DATA, Binary(compressed.data))
+    return append(SnapshotStateCompression.COMPRESSED_STATE, compressedState)
+}
+
+/**
+ * Restores the `state` field of a snapshot document written by [compressState]; plain documents are returned as is.
+ */
+fun Document.inflateState(compression: SnapshotStateCompression): Document {
+    val compressedState = get(SnapshotStateCompression.COMPRESSED_STATE, Document::class.java) ?: return this
+    val compressed = CompressedState(
+        algorithm = compressedState.getString(CompressedState.ALGORITHM),
+        dictionary = compressedState.getString(CompressedState.DICTIONARY),
+        size = compressedState.getInteger(CompressedState.SIZE),
+        data = compressedState.get(CompressedState.DATA, Binary::class.java).data
+    )
+    remove(SnapshotStateCompression.COMPRESSED_STATE)
+    val state = JsonSerializer.readValue(compression.decompress(compressed), LinkedHashMap::class.java)
+    return append(StateAggregateRecords.STATE, state)
+}
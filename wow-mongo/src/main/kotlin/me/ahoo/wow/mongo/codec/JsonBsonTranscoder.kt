@@ -0,0 +1,169 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.mongo.codec
+
+import me.ahoo.wow.mongo.Documents
+import me.ahoo.wow.serialization.JsonSerializer
+import org.bson.BsonReader
+import org.bson.BsonType
+import org.bson.BsonWriter
+import org.bson.types.Decimal128
+import tools.jackson.core.JsonGenerator
+import tools.jackson.core.JsonParser
+import tools.jackson.core.JsonToken
+import java.io.ByteArrayOutputStream
+import java.math.BigDecimal
+
+/**
+ * Streams Jackson JSON tokens to and from BSON without building an intermediate `Map`/`Document` tree.
+ *
+ * Integers are stored as the narrowest of `int32`/`int64` that fits the value, floating point numbers as `decimal128`
+ * (matching `USE_BIG_DECIMAL_FOR_FLOATS`), and the top-level primary key property as [Documents.ID_FIELD].
+ * Like the `Document` based conversion, a number that `decimal128` cannot hold exactly fails the write instead of
+ * being rounded.
+ * Documents written by either this codec path or the `Document` based conversion are readable by both.
+ */
+internal object JsonBsonTranscoder {
+    private const val DEFAULT_BUFFER_SIZE = 512
+
+    /**
+     * Writes the serialized [json] object to [writer], renaming the top-level [primaryKey] to `_id`.
+     *
+     * [trailer] is invoked before the top-level document is closed to append computed fields.
+     */
+    fun write(
+        json: ByteArray,
+        writer: BsonWriter,
+        primaryKey: String,
+        trailer: (BsonWriter) -> Unit = {},
+    ) {
+        JsonSerializer.createParser(json).use { parser ->
+            var depth = 0
+            while (true) {
+                val token = parser.nextToken() ?: break
+                when (token) {
+                    JsonToken.START_OBJECT -> {
+                        depth++
+                        writer.writeStartDocument()
+                    }
+
+                    JsonToken.END_OBJECT -> {
+                        depth--
+                        if (depth == 0) {
+                            trailer(writer)
+                        }
+                        writer.writeEndDocument()
+                    }
+
+                    JsonToken.START_ARRAY -> {
+                        depth++
+                        writer.writeStartArray()
+                    }
+
+                    JsonToken.END_ARRAY -> {
+                        depth--
+                        writer.writeEndArray()
+                    }
+
+                    JsonToken.PROPERTY_NAME -> {
+                        val name = parser.currentName()
+                        writer.writeName(if (depth == 1 && name == primaryKey) Documents.ID_FIELD else name)
+                    }
+
+                    else -> writeScalar(parser, token, writer)
+                }
+            }
+        }
+    }
+
+    private fun writeScalar(parser: JsonParser, token: JsonToken, writer: BsonWriter) {
+        when (token) {
+            JsonToken.VALUE_STRING -> writer.writeString(parser.valueAsString)
+            JsonToken.VALUE_NUMBER_INT -> when (parser.numberType) {
+                JsonParser.NumberType.INT -> writer.writeInt32(parser.intValue)
+                JsonParser.NumberType.LONG -> writer.writeInt64(parser.longValue)
+                else -> writer.writeDecimal128(parser.decimalValue.toDecimal128())
+            }
+
+            JsonToken.VALUE_NUMBER_FLOAT -> writer.writeDecimal128(parser.decimalValue.toDecimal128())
+            JsonToken.VALUE_TRUE -> writer.writeBoolean(true)
+            JsonToken.VALUE_FALSE -> writer.writeBoolean(false)
+            JsonToken.VALUE_NULL -> writer.writeNull()
+            else -> throw IllegalArgumentException("Unsupported JSON token [$token].")
+        }
+    }
+
+    private fun BigDecimal.toDecimal128(): Decimal128 {
+        return try {
+            Decimal128(this)
+        } catch (error: NumberFormatException) {
+            throw IllegalArgumentException("Number [$this] does not fit decimal128.", error)
+        }
+    }
+
+    /**
+     * Reads the current BSON document from [reader] as JSON bytes, renaming the top-level `_id` to [primaryKey].
+     */
+    fun read(reader: BsonReader, primaryKey: String): ByteArray {
+        val output = ByteArrayOutputStream(DEFAULT_BUFFER_SIZE)
+        JsonSerializer.createGenerator(output).use { generator ->
+            readDocument(reader, generator, primaryKey)
+        }
+        return output.toByteArray()
+    }
+
+    private fun readDocument(reader: BsonReader, generator: JsonGenerator, primaryKey: String?) {
+        reader.readStartDocument()
+        generator.writeStartObject()
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            val name = reader.readName()
+            generator.writeName(if (primaryKey != null && name == Documents.ID_FIELD) primaryKey else name)
+            readValue(reader, generator)
+        }
+        reader.readEndDocument()
+        generator.writeEndObject()
+    }
+
+    private fun readArray(reader: BsonReader, generator: JsonGenerator) {
+        reader.readStartArray()
+        generator.writeStartArray()
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            readValue(reader, generator)
+        }
+        reader.readEndArray()
+        generator.writeEndArray()
+    }
+
+    private fun readValue(reader: BsonReader, generator: JsonGenerator) {
+        when (val type = reader.currentBsonType) {
+            BsonType.DOCUMENT -> readDocument(reader, generator, null)
+            BsonType.ARRAY -> readArray(reader, generator)
+            BsonType.STRING -> generator.writeString(reader.readString())
+            BsonType.INT32 -> generator.writeNumber(reader.readInt32())
+            BsonType.INT64 -> generator.writeNumber(reader.readInt64())
+            BsonType.DOUBLE -> generator.writeNumber(reader.readDouble())
+            BsonType.DECIMAL128 -> generator.writeNumber(reader.readDecimal128().bigDecimalValue())
+            BsonType.BOOLEAN -> generator.writeBoolean(reader.readBoolean())
+            BsonType.DATE_TIME -> generator.writeNumber(reader.readDateTime())
+            BsonType.OBJECT_ID -> generator.writeString(reader.readObjectId().toHexString())
+            BsonType.BINARY -> generator.writeBinary(reader.readBinaryData().data)
+            BsonType.NULL -> {
+                reader.readNull()
+                generator.writeNull()
+            }
+
+            else -> throw IllegalArgumentException("Unsupported BSON type [$type].")
+        }
+    }
+}
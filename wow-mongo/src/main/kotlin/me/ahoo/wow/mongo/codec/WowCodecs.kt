@@ -0,0 +1,78 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.mongo.codec
+
+import com.mongodb.reactivestreams.client.MongoDatabase
+import me.ahoo.wow.event.DomainEventStream
+import me.ahoo.wow.eventsourcing.snapshot.Snapshot
+import me.ahoo.wow.mongo.Documents
+import me.ahoo.wow.serialization.JsonSerializer
+import me.ahoo.wow.serialization.MessageRecords
+import org.bson.BsonReader
+import org.bson.BsonWriter
+import org.bson.codecs.Codec
+import org.bson.codecs.DecoderContext
+import org.bson.codecs.EncoderContext
+import org.bson.codecs.configuration.CodecRegistries
+import org.bson.codecs.configuration.CodecRegistry
+
+/**
+ * Encodes [DomainEventStream] directly to BSON with the same layout as `DomainEventStream.toDocument()`:
+ * `id` is stored as `_id` and the event count is appended as [Documents.SIZE_FIELD].
+ */
+object DomainEventStreamCodec : Codec<DomainEventStream> {
+    override fun encode(writer: BsonWriter, value: DomainEventStream, encoderContext: EncoderContext) {
+        JsonBsonTranscoder.write(JsonSerializer.writeValueAsBytes(value), writer, MessageRecords.ID) {
+            it.writeInt32(Documents.SIZE_FIELD, value.size)
+        }
+    }
+
+    override fun decode(reader: BsonReader, decoderContext: DecoderContext): DomainEventStream {
+        val json = JsonBsonTranscoder.read(reader, MessageRecords.ID)
+        return JsonSerializer.readValue(json, DomainEventStream::class.java)
+    }
+
+    override fun getEncoderClass(): Class<DomainEventStream> = DomainEventStream::class.java
+}
+
+/**
+ * Encodes [Snapshot] directly to BSON with the same layout as `Snapshot.toDocument()`:
+ * `aggregateId` is stored as `_id`.
+ */
+object SnapshotCodec : Codec<Snapshot<*>> {
+    override fun encode(writer: BsonWriter, value: Snapshot<*>, encoderContext: EncoderContext) {
+        JsonBsonTranscoder.write(JsonSerializer.writeValueAsBytes(value), writer, MessageRecords.AGGREGATE_ID)
+    }
+
+    override fun decode(reader: BsonReader, decoderContext: DecoderContext): Snapshot<*> {
+        val json = JsonBsonTranscoder.read(reader, MessageRecords.AGGREGATE_ID)
+        return JsonSerializer.readValue(json, Snapshot::class.java)
+    }
+
+    override fun getEncoderClass(): Class<Snapshot<*>> = Snapshot::class.java
+}
+
+/**
+ * Returns a registry that resolves [DomainEventStreamCodec] and [SnapshotCodec] before falling back to this registry.
+ */
+fun CodecRegistry.withWowCodecs(): CodecRegistry =
+    CodecRegistries.fromRegistries(
+        CodecRegistries.fromCodecs(DomainEventStreamCodec, SnapshotCodec),
+        this,
+    )
+
+/**
+ * Returns a view of this database whose collections can be typed as [DomainEventStream] or [Snapshot].
+ */
+fun MongoDatabase.withWowCodecs(): MongoDatabase = withCodecRegistry(codecRegistry.withWowCodecs())
@@ -14,10 +14,13 @@
 package me.ahoo.wow.mongo.prepare
 
 import com.mongodb.ErrorCategory
+import com.mongodb.MongoBulkWriteException
 import com.mongodb.MongoWriteException
+import com.mongodb.client.model.BulkWriteOptions
 import com.mongodb.client.model.Filters
 import com.mongodb.client.model.IndexOptions
 import com.mongodb.client.model.Indexes
+import com.mongodb.client.model.ReplaceOneModel
 import com.mongodb.client.model.ReplaceOptions
 import com.mongodb.client.model.Updates
 import com.mongodb.reactivestreams.client.MongoCollection
@@ -50,6 +53,7 @@ class MongoPrepareKey<V : Any>(
 ) : PrepareKey<V> {
     companion object {
         val DEFAULT_REPLACE_OPTIONS: ReplaceOptions = ReplaceOptions().upsert(true).bypassDocumentValidation(true)
+        private val ORDERED_BULK_WRITE_OPTIONS: BulkWriteOptions = BulkWriteOptions().ordered(true)
     }
 
     private val prepareCollectionName = "prepare_$name"
@@ -88,6 +92,64 @@ class MongoPrepareKey<V : Any>(
             }
     }
 
+    /**
+     * Prepares every key in one ordered bulk write.
+     *
+     * An ordered bulk write stops at the first key that is already prepared, so the keys before it
+     * are the only ones written; they are deleted again before `false` is returned. When the write
+     * fails without telling how far it got, such as on a network error, every key is deleted again
+     * where it still holds the value written by this call, before the error is propagated.
+     *
+     * Keys of different prepare keys live in different collections and are prepared through the
+     * compensating [List.prepareAll] instead.
+     */
+    override fun prepareAll(values: Map<String, PreparedValue<V>>): Mono<Boolean> {
+        if (values.isEmpty()) {
+            return Mono.just(true)
+        }
+        val entries = values.entries.map { it.key to it.value.toDocument() }
+        val now = Date()
+        val models = entries.map { (key, document) ->
+            ReplaceOneModel(
+                Filters.and(
+                    Filters.eq(Documents.ID_FIELD, key),
+                    Filters.lt(TTL_AT_FIELD, now),
+                ),
+                document,
+                DEFAULT_REPLACE_OPTIONS,
+            )
+        }
+        return prepareCollection.bulkWrite(models, ORDERED_BULK_WRITE_OPTIONS)
+            .toMono()
+            .map { true }
+            .onErrorResume { error ->
+                val writeError = (error as? MongoBulkWriteException)?.writeErrors?.firstOrNull()
+                    ?: return@onErrorResume rollbackAll(entries).then(error.toMono())
+                val rollbackWritten = rollbackAll(entries.subList(0, writeError.index))
+                if (ErrorCategory.fromErrorCode(writeError.code) != ErrorCategory.DUPLICATE_KEY) {
+                    rollbackWritten.then(error.toMono())
+                } else {
+                    rollbackWritten.thenReturn(false)
+                }
+            }
+    }
+
+    private fun rollbackAll(written: List<Pair<String, Document>>): Mono<Void> {
+        if (written.isEmpty()) {
+            return Mono.empty()
+        }
+        return prepareCollection.deleteMany(
+            Filters.or(
+                written.map { (key, document) ->
+                    Filters.and(
+                        Filters.eq(Documents.ID_FIELD, key),
+                        Filters.eq(VALUE_FIELD, document[VALUE_FIELD]),
+                    )
+                },
+            ),
+        ).toMono().then()
+    }
+
     override fun getValue(key: String): Mono<PreparedValue<V>> {
         return prepareCollection
             .find(Filters.eq(Documents.ID_FIELD, key))
@@ -0,0 +1,48 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.mongo.query.snapshot
+
+import me.ahoo.wow.api.query.Condition
+import me.ahoo.wow.mongo.query.AbstractMongoConditionConverter
+import me.ahoo.wow.query.converter.FieldConverter
+import me.ahoo.wow.serialization.state.StateAggregateRecords
+import org.bson.conversions.Bson
+
+/**
+ * [SnapshotFieldConverter] of aggregates whose snapshot state is compressed.
+ *
+ * Their state is stored as an opaque `compressedState` blob, so `state` fields are rejected instead of silently
+ * matching, sorting or projecting nothing.
+ */
+object CompressedStateFieldConverter : FieldConverter {
+    private const val STATE_FIELD_PREFIX = "${StateAggregateRecords.STATE}."
+
+    override fun convert(field: String): String {
+        require(field != StateAggregateRecords.STATE && !field.startsWith(STATE_FIELD_PREFIX)) {
+            "Field [$field] is not queryable: the snapshot state of this aggregate is compressed."
+        }
+        return SnapshotFieldConverter.convert(field)
+    }
+}
+
+object CompressedStateConditionConverter : AbstractMongoConditionConverter() {
+    override val fieldConverter: FieldConverter = CompressedStateFieldConverter
+    override fun aggregateId(condition: Condition): Bson {
+        return id(condition)
+    }
+
+    override fun aggregateIds(condition: Condition): Bson {
+        return ids(condition)
+    }
+}
@@ -19,28 +19,47 @@ import me.ahoo.wow.api.query.DynamicDocument
 import me.ahoo.wow.api.query.MaterializedSnapshot
 import me.ahoo.wow.api.query.SimpleDynamicDocument.Companion.toDynamicDocument
 import me.ahoo.wow.configuration.requiredAggregateType
+import me.ahoo.wow.eventsourcing.snapshot.compression.SnapshotStateCompression
 import me.ahoo.wow.modeling.annotation.aggregateMetadata
 import me.ahoo.wow.mongo.Documents.replacePrimaryKeyToAggregateId
 import me.ahoo.wow.mongo.MongoSnapshotStore
+import me.ahoo.wow.mongo.inflateState
 import me.ahoo.wow.mongo.query.AbstractMongoQueryService
 import me.ahoo.wow.mongo.query.MongoProjectionConverter
 import me.ahoo.wow.mongo.query.MongoSortConverter
 import me.ahoo.wow.mongo.toMaterializedSnapshot
 import me.ahoo.wow.query.converter.ConditionConverter
+import me.ahoo.wow.query.converter.FieldConverter
 import me.ahoo.wow.query.snapshot.SnapshotQueryService
 import me.ahoo.wow.serialization.JsonSerializer
 import org.bson.Document
 import org.bson.conversions.Bson
 
+/**
+ * Snapshot query service of one aggregate.
+ *
+ * When [stateCompression] applies to the aggregate its states are always compressed, so conditions, sorts and
+ * projections on `state` fields are rejected with an [IllegalArgumentException].
+ */
 class MongoSnapshotQueryService<S : Any>(
     override val namedAggregate: NamedAggregate,
     override val collection: MongoCollection<Document>,
-    override val converter: ConditionConverter<Bson> = SnapshotConditionConverter
+    private val stateCompression: SnapshotStateCompression = SnapshotStateCompression.NONE,
+    override val converter: ConditionConverter<Bson> = if (stateCompression.isEnabled(namedAggregate)) {
+        CompressedStateConditionConverter
+    } else {
+        SnapshotConditionConverter
+    }
 ) : AbstractMongoQueryService<MaterializedSnapshot<S>>(), SnapshotQueryService<S> {
     override val name: String
         get() = MongoSnapshotStore.NAME
-    override val projectionConverter: MongoProjectionConverter = MongoProjectionConverter(SnapshotFieldConverter)
-    override val sortConverter: MongoSortConverter = MongoSortConverter(SnapshotFieldConverter)
+    private val fieldConverter: FieldConverter = if (stateCompression.isEnabled(namedAggregate)) {
+        CompressedStateFieldConverter
+    } else {
+        SnapshotFieldConverter
+    }
+    override val projectionConverter: MongoProjectionConverter = MongoProjectionConverter(fieldConverter)
+    override val sortConverter: MongoSortConverter = MongoSortConverter(fieldConverter)
     private val snapshotType = JsonSerializer.typeFactory
         .constructParametricType(
             MaterializedSnapshot::class.java,
@@ -48,10 +67,10 @@ class MongoSnapshotQueryService<S : Any>(
         )
 
     override fun toTypedResult(document: Document): MaterializedSnapshot<S> {
-        return document.toMaterializedSnapshot(snapshotType)
+        return document.inflateState(stateCompression).toMaterializedSnapshot(snapshotType)
     }
 
     override fun toDynamicDocument(document: Document): DynamicDocument {
-        return document.replacePrimaryKeyToAggregateId().toDynamicDocument()
+        return document.inflateState(stateCompression).replacePrimaryKeyToAggregateId().toDynamicDocument()
     }
 }
@@ -15,15 +15,23 @@ package me.ahoo.wow.mongo.query.snapshot
 
 import com.mongodb.reactivestreams.client.MongoDatabase
 import me.ahoo.wow.api.modeling.NamedAggregate
+import me.ahoo.wow.eventsourcing.snapshot.compression.SnapshotStateCompression
 import me.ahoo.wow.modeling.materialize
 import me.ahoo.wow.mongo.AggregateSchemaInitializer.toSnapshotCollectionName
 import me.ahoo.wow.query.snapshot.AbstractSnapshotQueryServiceFactory
 import me.ahoo.wow.query.snapshot.SnapshotQueryService
 
-class MongoSnapshotQueryServiceFactory(private val database: MongoDatabase) : AbstractSnapshotQueryServiceFactory() {
+class MongoSnapshotQueryServiceFactory(
+    private val database: MongoDatabase,
+    private val stateCompression: SnapshotStateCompression = SnapshotStateCompression.NONE
+) : AbstractSnapshotQueryServiceFactory() {
     override fun createQueryService(namedAggregate: NamedAggregate): SnapshotQueryService<*> {
         val collectionName = namedAggregate.toSnapshotCollectionName()
         val collection = database.getCollection(collectionName)
-        return MongoSnapshotQueryService<Any>(namedAggregate.materialize(), collection)
+        return MongoSnapshotQueryService<Any>(
+            namedAggregate = namedAggregate.materialize(),
+            collection = collection,
+            stateCompression = stateCompression
+        )
     }
 }
@@ -13,25 +13,32 @@
 
 package me.ahoo.wow.mongo
 
+import com.mongodb.MongoClientSettings
 import com.mongodb.MongoWriteException
 import com.mongodb.ServerAddress
 import com.mongodb.WriteError
+import com.mongodb.client.result.InsertManyResult
 import com.mongodb.client.result.InsertOneResult
 import com.mongodb.reactivestreams.client.MongoCollection
 import com.mongodb.reactivestreams.client.MongoDatabase
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.slot
 import io.mockk.verify
 import me.ahoo.test.asserts.assert
+import me.ahoo.wow.event.DomainEventStream
 import me.ahoo.wow.eventsourcing.EventVersionConflictException
 import me.ahoo.wow.modeling.MaterializedNamedAggregate
 import me.ahoo.wow.modeling.aggregateId
+import me.ahoo.wow.mongo.codec.DomainEventStreamCodec
 import me.ahoo.wow.tck.event.MockDomainEventStreams
 import org.bson.BsonDocument
 import org.bson.Document
+import org.bson.RawBsonDocument
 import org.junit.jupiter.api.Test
 import reactor.core.publisher.Mono
 import reactor.test.StepVerifier
+import java.time.Duration
 
 class MongoEventStoreDirectAppendTest {
     private val namedAggregate = MaterializedNamedAggregate("order-service", "order")
@@ -56,6 +63,58 @@ class MongoEventStoreDirectAppendTest {
         verify(exactly = 0) { collection.insertMany(any<List<Document>>(), any()) }
     }
 
+    @Test
+    fun `direct codec should insert the event stream without a document`() {
+        val database = mockk<MongoDatabase>()
+        val collection = mockk<MongoCollection<DomainEventStream>>()
+        every { database.codecRegistry } returns MongoClientSettings.getDefaultCodecRegistry()
+        every { database.withCodecRegistry(any()) } returns database
+        every { database.getCollection(any<String>(), DomainEventStream::class.java) } returns collection
+        every { collection.insertOne(any<DomainEventStream>()) } returns
+            Mono.just(InsertOneResult.acknowledged(null))
+        val eventStream = eventStream("order-codec")
+        val eventStore = MongoEventStore(
+            database = database,
+            batchOptions = MongoEventStoreBatchOptions(enabled = false),
+            directCodec = true,
+        )
+
+        StepVerifier.create(eventStore.append(eventStream))
+            .verifyComplete()
+
+        verify(exactly = 1) { collection.insertOne(eventStream) }
+        verify(exactly = 0) { database.getCollection(any<String>()) }
+    }
+
+    @Test
+    fun `batched direct codec should insert raw documents`() {
+        val database = mockk<MongoDatabase>()
+        val collection = mockk<MongoCollection<RawBsonDocument>>()
+        val documents = slot<List<RawBsonDocument>>()
+        every { database.codecRegistry } returns MongoClientSettings.getDefaultCodecRegistry()
+        every { database.withCodecRegistry(any()) } returns database
+        every { database.getCollection(any<String>(), RawBsonDocument::class.java) } returns collection
+        every { collection.insertMany(capture(documents), any()) } returns
+            Mono.just(InsertManyResult.acknowledged(emptyMap()))
+        val eventStream = eventStream("order-batch-codec")
+
+        MongoEventStore(
+            database = database,
+            batchOptions = MongoEventStoreBatchOptions(
+                enabled = true,
+                maxSize = 1,
+                maxDelay = Duration.ofMillis(10),
+            ),
+            directCodec = true,
+        ).use { eventStore ->
+            StepVerifier.create(eventStore.append(eventStream))
+                .verifyComplete()
+        }
+
+        documents.captured.single().decode(DomainEventStreamCodec).id.assert().isEqualTo(eventStream.id)
+        verify(exactly = 0) { database.getCollection(any<String>()) }
+    }
+
     @Test
     fun `unacknowledged direct append should fail`() {
         val database = mockk<MongoDatabase>()
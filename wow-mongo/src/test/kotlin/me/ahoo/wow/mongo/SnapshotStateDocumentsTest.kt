@@ -0,0 +1,88 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.mongo
+
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.eventsourcing.snapshot.compression.DeflateStateCompressor
+import me.ahoo.wow.eventsourcing.snapshot.compression.SnapshotStateCompression
+import me.ahoo.wow.serialization.state.StateAggregateRecords
+import me.ahoo.wow.tck.mock.MOCK_AGGREGATE_METADATA
+import me.ahoo.wow.tck.mock.MockStateAggregate
+import org.bson.Document
+import org.bson.types.Binary
+import org.junit.jupiter.api.Test
+
+class SnapshotStateDocumentsTest {
+    private val aggregateId = "0U9Fn5g30000001"
+    private val compression = SnapshotStateCompression(
+        compressors = mapOf(MOCK_AGGREGATE_METADATA to DeflateStateCompressor()),
+    )
+
+    private fun snapshotDocument(): Document {
+        val data = (1..50).joinToString(separator = ",") { "item-$it" }
+        return Document.parse(
+            """
+            {
+              "_id": "$aggregateId",
+              "contextName": "wow-tck",
+              "aggregateName": "mock_aggregate",
+              "tenantId": "(0)",
+              "version": 1,
+              "eventId": "0U9Fn6Ma0000002",
+              "firstOperator": "(0)",
+              "operator": "(0)",
+              "firstEventTime": 1712485610584,
+              "eventTime": 1712485610584,
+              "state": {
+                "id": "$aggregateId",
+                "data": "$data"
+              },
+              "snapshotTime": 1712485610666,
+              "deleted": false
+            }
+            """.trimIndent()
+        )
+    }
+
+    @Test
+    fun `should compress only the state field`() {
+        val document = snapshotDocument().compressState(MOCK_AGGREGATE_METADATA, compression)
+
+        document.containsKey(StateAggregateRecords.STATE).assert().isFalse()
+        document.getString(Documents.ID_FIELD).assert().isEqualTo(aggregateId)
+        document.getInteger("version").assert().isEqualTo(1)
+        val compressedState = document.get(SnapshotStateCompression.COMPRESSED_STATE, Document::class.java)
+        compressedState.getString("algorithm").assert().isEqualTo(DeflateStateCompressor.ALGORITHM)
+        compressedState["data"].assert().isInstanceOf(Binary::class.java)
+    }
+
+    @Test
+    fun `should inflate compressed state to snapshot`() {
+        val snapshot = snapshotDocument()
+            .compressState(MOCK_AGGREGATE_METADATA, compression)
+            .inflateState(compression)
+            .toSnapshot<MockStateAggregate>()
+
+        snapshot.aggregateId.id.assert().isEqualTo(aggregateId)
+        snapshot.state.data.assert().startsWith("item-1,item-2")
+    }
+
+    @Test
+    fun `should leave plain snapshot documents unchanged`() {
+        val document = snapshotDocument()
+        document.compressState(MOCK_AGGREGATE_METADATA, SnapshotStateCompression.NONE)
+            .containsKey(StateAggregateRecords.STATE).assert().isTrue()
+        document.inflateState(compression).containsKey(StateAggregateRecords.STATE).assert().isTrue()
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.mongo.codec
+
+import com.mongodb.MongoClientSettings
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.event.toDomainEventStream
+import me.ahoo.wow.eventsourcing.snapshot.SimpleSnapshot
+import me.ahoo.wow.eventsourcing.snapshot.Snapshot
+import me.ahoo.wow.modeling.MaterializedNamedAggregate
+import me.ahoo.wow.modeling.aggregateId
+import me.ahoo.wow.modeling.state.ConstructorStateAggregateFactory
+import me.ahoo.wow.mongo.Documents
+import me.ahoo.wow.mongo.toDocument
+import me.ahoo.wow.mongo.toDomainEventStream
+import me.ahoo.wow.mongo.toSnapshot
+import me.ahoo.wow.serialization.MessageRecords
+import me.ahoo.wow.tck.event.MockDomainEventStreams
+import me.ahoo.wow.tck.mock.MOCK_AGGREGATE_METADATA
+import me.ahoo.wow.tck.mock.MockAggregateCreated
+import me.ahoo.wow.tck.mock.MockStateAggregate
+import me.ahoo.wow.test.aggregate.GivenInitializationCommand
+import org.bson.BsonBinaryWriter
+import org.bson.BsonDecimal128
+import org.bson.Document
+import org.bson.RawBsonDocument
+import org.bson.codecs.DocumentCodec
+import org.bson.io.BasicOutputBuffer
+import org.bson.types.Decimal128
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.math.BigDecimal
+
+class WowCodecsTest {
+    private val namedAggregate = MaterializedNamedAggregate("order-service", "order")
+    private val eventStream = MockDomainEventStreams.generateEventStream(
+        aggregateId = namedAggregate.aggregateId("order-1"),
+        eventCount = 2,
+    )
+
+    @Test
+    fun `should encode event stream with the document layout`() {
+        val encoded = RawBsonDocument(eventStream, DomainEventStreamCodec)
+        val expected = RawBsonDocument(eventStream.toDocument(), DocumentCodec())
+
+        encoded.getString(Documents.ID_FIELD).value.assert().isEqualTo(eventStream.id)
+        encoded.containsKey(MessageRecords.ID).assert().isFalse()
+        encoded.getInt32(Documents.SIZE_FIELD).value.assert().isEqualTo(2)
+        encoded.getInt32(MessageRecords.VERSION).value.assert().isEqualTo(eventStream.version)
+        encoded.keys.assert().containsExactlyInAnyOrderElementsOf(expected.keys)
+        encoded.getArray(MessageRecords.BODY).size.assert().isEqualTo(2)
+    }
+
+    @Test
+    fun `should decode event stream`() {
+        val decoded = RawBsonDocument(eventStream, DomainEventStreamCodec).decode(DomainEventStreamCodec)
+
+        decoded.id.assert().isEqualTo(eventStream.id)
+        decoded.aggregateId.assert().isEqualTo(eventStream.aggregateId)
+        decoded.version.assert().isEqualTo(eventStream.version)
+        decoded.body.map { it.body }.assert().isEqualTo(eventStream.body.map { it.body })
+    }
+
+    @Test
+    fun `should read event streams written by either path`() {
+        val documentWritten = RawBsonDocument(eventStream.toDocument(), DocumentCodec())
+        documentWritten.decode(DomainEventStreamCodec).id.assert().isEqualTo(eventStream.id)
+
+        val codecWritten = RawBsonDocument(eventStream, DomainEventStreamCodec)
+        codecWritten.decode(DocumentCodec()).toDomainEventStream().id.assert().isEqualTo(eventStream.id)
+    }
+
+    @Test
+    fun `should round trip snapshot`() {
+        val snapshot = snapshot()
+        val encoded = RawBsonDocument(snapshot, SnapshotCodec)
+
+        encoded.getString(Documents.ID_FIELD).value.assert().isEqualTo(snapshot.aggregateId.id)
+        encoded.containsKey(MessageRecords.AGGREGATE_ID).assert().isFalse()
+        val decoded = encoded.decode(SnapshotCodec)
+        decoded.aggregateId.assert().isEqualTo(snapshot.aggregateId)
+        decoded.version.assert().isEqualTo(snapshot.version)
+        (decoded.state as MockStateAggregate).data.assert().isEqualTo(snapshot.state.data)
+        encoded.decode(DocumentCodec()).toSnapshot<MockStateAggregate>().aggregateId
+            .assert().isEqualTo(snapshot.aggregateId)
+    }
+
+    @Test
+    fun `should store floating point values as decimal128`() {
+        val json = """{"id":"a","value":1.5,"count":1}""".toByteArray()
+        val output = BasicOutputBuffer()
+        BsonBinaryWriter(output).use {
+            JsonBsonTranscoder.write(json, it, MessageRecords.ID)
+        }
+        val encoded = RawBsonDocument(output.toByteArray())
+
+        encoded.getString(Documents.ID_FIELD).value.assert().isEqualTo("a")
+        encoded["value"].assert().isEqualTo(BsonDecimal128(Decimal128(BigDecimal("1.5"))))
+        encoded.getInt32("count").value.assert().isEqualTo(1)
+    }
+
+    @Test
+    fun `should keep decimal precision and reject numbers beyond decimal128`() {
+        val precise = "0.12345678901234567890123456789"
+        val output = BasicOutputBuffer()
+        BsonBinaryWriter(output).use {
+            JsonBsonTranscoder.write("""{"id":"a","value":$precise}""".toByteArray(), it, MessageRecords.ID)
+        }
+        RawBsonDocument(output.toByteArray())["value"].assert()
+            .isEqualTo(BsonDecimal128(Decimal128(BigDecimal(precise))))
+
+        val overflow = "0.${"1".repeat(40)}"
+        assertThrows<IllegalArgumentException> {
+            BsonBinaryWriter(BasicOutputBuffer()).use {
+                JsonBsonTranscoder.write("""{"id":"a","value":$overflow}""".toByteArray(), it, MessageRecords.ID)
+            }
+        }
+    }
+
+    @Test
+    fun `registry should resolve wow codecs`() {
+        val registry = MongoClientSettings.getDefaultCodecRegistry().withWowCodecs()
+
+        registry[DomainEventStreamCodec.encoderClass].assert().isSameAs(DomainEventStreamCodec)
+        registry[Snapshot::class.java].assert().isSameAs(SnapshotCodec)
+        registry[Document::class.java].assert().isInstanceOf(DocumentCodec::class.java)
+    }
+
+    private fun snapshot(): Snapshot<MockStateAggregate> {
+        val aggregateId = MOCK_AGGREGATE_METADATA.aggregateId("order-1")
+        val stateAggregate =
+            ConstructorStateAggregateFactory.create(MOCK_AGGREGATE_METADATA.state, aggregateId)
+        stateAggregate.onSourcing(
+            MockAggregateCreated("created").toDomainEventStream(
+                upstream = GivenInitializationCommand(aggregateId),
+                aggregateVersion = stateAggregate.version,
+            )
+        )
+        return SimpleSnapshot(stateAggregate, snapshotTime = 1)
+    }
+}
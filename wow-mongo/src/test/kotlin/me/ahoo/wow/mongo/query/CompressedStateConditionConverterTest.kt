@@ -0,0 +1,53 @@
+package me.ahoo.wow.mongo.query
+
+import me.ahoo.test.asserts.assert
+import me.ahoo.test.asserts.assertThrownBy
+import me.ahoo.wow.api.query.Condition
+import me.ahoo.wow.api.query.DeletionState
+import me.ahoo.wow.api.query.Operator
+import me.ahoo.wow.mongo.Documents
+import me.ahoo.wow.mongo.query.snapshot.SnapshotConditionConverter
+import me.ahoo.wow.serialization.MessageRecords
+import me.ahoo.wow.serialization.state.StateAggregateRecords
+
+package me.ahoo.wow.mongo.query
+
+import me.ahoo.test.asserts.assert
+import me.ahoo.test.asserts.assertThrownBy
+import me.ahoo.wow.api.query.Condition
+import me.ahoo.wow.api.query.Projection
+import me.ahoo.wow.api.query.Sort
+import me.ahoo.wow.mongo.query.snapshot.CompressedStateConditionConverter
+import me.ahoo.wow.mongo.query.snapshot.CompressedStateFieldConverter
+import me.ahoo.wow.mongo.query.snapshot.SnapshotConditionConverter
+import org.junit.jupiter.api.Test
+
+class CompressedStateConditionConverterTest {
+
+    @Test
+    fun `should convert non state fields like the snapshot converter`() {
+        val condition = Condition.and(Condition.id("id"), Condition.eq("version", 1))
+        CompressedStateConditionConverter.convert(condition).toBsonDocument().assert()
+            .isEqualTo(SnapshotConditionConverter.convert(condition).toBsonDocument())
+    }
+
+    @Test
+    fun `should reject state conditions`() {
+        assertThrownBy<IllegalArgumentException> {
+            CompressedStateConditionConverter.convert(Condition.and(Condition.eq("state.name", "order")))
+        }
+        assertThrownBy<IllegalArgumentException> {
+            CompressedStateConditionConverter.convert(Condition.eq("state", "order"))
+        }
+    }
+
+    @Test
+    fun `should reject state sorts and projections`() {
+        assertThrownBy<IllegalArgumentException> {
+            MongoSortConverter(CompressedStateFieldConverter).convert(listOf(Sort("state.name", Sort.Direction.ASC)))
+        }
+        assertThrownBy<IllegalArgumentException> {
+            MongoProjectionConverter(CompressedStateFieldConverter).convert(Projection(include = listOf("state")))
+        }
+    }
+}
@@ -18,6 +18,7 @@ import me.ahoo.wow.api.Wow
 object BuiltInHttpRoutePaths {
     object Global {
         const val COMMAND_WAIT = "/${Wow.WOW}/command/wait"
+        const val COMMAND_WAIT_BATCH = "$COMMAND_WAIT/batch"
         const val COMMAND_SEND = "/${Wow.WOW}/command/send"
         const val METADATA = "/${Wow.WOW}/metadata"
         const val GLOBAL_ID = "/${Wow.WOW}/id/global"
@@ -35,6 +36,7 @@ object BuiltInHttpRouteHandlerKeys {
 
     object Global {
         const val COMMAND_WAIT = "$GLOBAL.command.wait"
+        const val COMMAND_WAIT_BATCH = "$GLOBAL.command.wait.batch"
         const val COMMAND_FACADE = "$GLOBAL.command.facade"
         const val METADATA = "$GLOBAL.metadata.get"
         const val GLOBAL_ID = "$GLOBAL.id.generate"
@@ -61,6 +61,29 @@ object CommandWaitRouteContributor : RouteContributor {
                     )
                 ),
                 tags = wowTags()
+            ),
+            HttpRouteContract(
+                routeId = wowRouteId("command", "batch_wait"),
+                method = Https.Method.POST,
+                path = BuiltInHttpRoutePaths.Global.COMMAND_WAIT_BATCH,
+                handlerKey = BuiltInHttpRouteHandlerKeys.Global.COMMAND_WAIT_BATCH,
+                summary = "The receiving endpoint of batched wait signals",
+                requestBody = HttpRequestBody(
+                    content = listOf(
+                        HttpContent(
+                            Https.MediaType.APPLICATION_JSON,
+                            HttpSchema.Array(HttpSchema.ComponentRef("wow.command.SimpleWaitSignal"))
+                        )
+                    )
+                ),
+                responses = listOf(
+                    HttpResponse(
+                        statusCode = Https.Code.OK,
+                        description = ErrorInfo.SUCCEEDED,
+                        contentDeclared = true
+                    )
+                ),
+                tags = wowTags()
             )
         )
     }
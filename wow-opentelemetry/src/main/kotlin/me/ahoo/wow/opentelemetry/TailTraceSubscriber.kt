@@ -0,0 +1,194 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.opentelemetry
+
+import io.opentelemetry.api.GlobalOpenTelemetry
+import io.opentelemetry.api.OpenTelemetry
+import io.opentelemetry.api.common.Attributes
+import io.opentelemetry.api.trace.SpanKind
+import io.opentelemetry.api.trace.StatusCode
+import io.opentelemetry.api.trace.Tracer
+import io.opentelemetry.context.Context
+import io.opentelemetry.context.propagation.TextMapGetter
+import io.opentelemetry.instrumentation.api.instrumenter.AttributesExtractor
+import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter
+import io.opentelemetry.instrumentation.api.instrumenter.SpanNameExtractor
+import me.ahoo.wow.api.Wow
+import org.reactivestreams.Subscription
+import reactor.core.CoreSubscriber
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import java.time.Duration
+import java.time.Instant
+import java.util.concurrent.atomic.AtomicBoolean
+
+class TailTraceMono<T : Any, O : Any>(
+    private val parentContext: Context,
+    private val instrumenter: Instrumenter<T, Unit>,
+    private val tailSpanRecorder: TailSpanRecorder<T>,
+    private val request: T,
+    private val source: Mono<O>,
+    private val slowThreshold: Duration,
+    private val completionError: () -> Throwable? = { null }
+) : Mono<O>() {
+    override fun subscribe(actual: CoreSubscriber<in O>) {
+        source.subscribe(
+            TailTraceSubscriber(
+                instrumenter = instrumenter,
+                tailSpanRecorder = tailSpanRecorder,
+                parentContext = parentContext,
+                request = request,
+                actual = actual,
+                slowThreshold = slowThreshold,
+                completionError = completionError,
+            )
+        )
+    }
+}
+
+class TailTraceFlux<T : Any, O : Any>(
+    private val parentContext: Context,
+    private val instrumenter: Instrumenter<T, Unit>,
+    private val tailSpanRecorder: TailSpanRecorder<T>,
+    private val request: T,
+    private val source: Flux<O>,
+    private val slowThreshold: Duration
+) : Flux<O>() {
+    override fun subscribe(actual: CoreSubscriber<in O>) {
+        source.subscribe(
+            TailTraceSubscriber(
+                instrumenter = instrumenter,
+                tailSpanRecorder = tailSpanRecorder,
+                parentContext = parentContext,
+                request = request,
+                actual = actual,
+                slowThreshold = slowThreshold,
+            )
+        )
+    }
+}
+
+/**
+ * Passes signals through untouched and records a span only when the publisher fails or
+ * runs for at least [slowThreshold].
+ *
+ * The span is started and ended at termination with the measured start time, so fast
+ * successful publishers never allocate a span or touch the OpenTelemetry context.
+ */
+class TailTraceSubscriber<T : Any, O : Any>(
+    private val instrumenter: Instrumenter<T, Unit>,
+    private val tailSpanRecorder: TailSpanRecorder<T>,
+    private val parentContext: Context,
+    private val request: T,
+    private val actual: CoreSubscriber<in O>,
+    slowThreshold: Duration,
+    private val completionError: () -> Throwable? = { null }
+) : CoreSubscriber<O>,
+    Subscription {
+    private val slowThresholdNanos = slowThreshold.toNanos()
+    private val startNanos = System.nanoTime()
+    private val ended = AtomicBoolean()
+    private lateinit var subscription: Subscription
+
+    override fun currentContext(): reactor.util.context.Context = actual.currentContext()
+
+    override fun onSubscribe(subscription: Subscription) {
+        this.subscription = subscription
+        actual.onSubscribe(this)
+    }
+
+    override fun onNext(signal: O) {
+        actual.onNext(signal)
+    }
+
+    override fun onError(throwable: Throwable) {
+        record(throwable)
+        actual.onError(throwable)
+    }
+
+    override fun onComplete() {
+        record(completionError())
+        actual.onComplete()
+    }
+
+    override fun request(n: Long) {
+        subscription.request(n)
+    }
+
+    override fun cancel() {
+        try {
+            subscription.cancel()
+        } finally {
+            record(null)
+        }
+    }
+
+    internal fun record(error: Throwable?) {
+        if (!ended.compareAndSet(false, true)) {
+            return
+        }
+        val elapsedNanos = System.nanoTime() - startNanos
+        if (error == null && elapsedNanos < slowThresholdNanos) {
+            return
+        }
+        if (!instrumenter.shouldStart(parentContext, request)) {
+            return
+        }
+        val endTime = Instant.now()
+        tailSpanRecorder.record(parentContext, request, error, endTime.minusNanos(elapsedNanos), endTime)
+    }
+}
+
+/**
+ * Records the span of an [Instrumenter] after the fact, with the measured start and end time,
+ * through the public tracing API.
+ *
+ * Built from the same instrumentation name, span name extractor, span kind and attributes
+ * extractor as the instrumenter it stands in for. Consumer recorders extract the propagated
+ * parent through [textMapGetter], as consumer instrumenters do.
+ */
+class TailSpanRecorder<T : Any>(
+    instrumentationName: String,
+    private val spanNameExtractor: SpanNameExtractor<in T>,
+    private val spanKind: SpanKind = SpanKind.INTERNAL,
+    private val attributesExtractor: AttributesExtractor<in T, in Unit>? = null,
+    private val textMapGetter: TextMapGetter<T>? = null,
+    private val openTelemetry: OpenTelemetry = GlobalOpenTelemetry.get()
+) {
+    private val tracer: Tracer = openTelemetry.tracerBuilder(instrumentationName)
+        .setInstrumentationVersion(Wow.VERSION)
+        .build()
+
+    fun record(parentContext: Context, request: T, error: Throwable?, startTime: Instant, endTime: Instant) {
+        val spanParentContext = textMapGetter?.let {
+            openTelemetry.propagators.textMapPropagator.extract(parentContext, request, it)
+        } ?: parentContext
+        val startAttributes = Attributes.builder()
+        attributesExtractor?.onStart(startAttributes, spanParentContext, request)
+        val span = tracer.spanBuilder(spanNameExtractor.extract(request))
+            .setParent(spanParentContext)
+            .setSpanKind(spanKind)
+            .setStartTimestamp(startTime)
+            .setAllAttributes(startAttributes.build())
+            .startSpan()
+        val endAttributes = Attributes.builder()
+        attributesExtractor?.onEnd(endAttributes, spanParentContext.with(span), request, null, error)
+        span.setAllAttributes(endAttributes.build())
+        if (error != null) {
+            span.setStatus(StatusCode.ERROR)
+            span.recordException(error)
+        }
+        span.end(endTime)
+    }
+}
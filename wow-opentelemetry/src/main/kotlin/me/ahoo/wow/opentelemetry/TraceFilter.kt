@@ -22,18 +22,17 @@ import me.ahoo.wow.messaging.handler.MessageExchange
 import reactor.core.publisher.Mono
 
 @Order(ORDER_FIRST)
-open class TraceFilter<T : MessageExchange<*, *>>(private val instrumenter: Instrumenter<T, Unit>) :
-    ExchangeFilter<T> {
+open class TraceFilter<T : MessageExchange<*, *>>(
+    private val instrumenter: Instrumenter<T, Unit>,
+    private val tailSpanRecorder: TailSpanRecorder<T>,
+    private val samplingOptions: TraceSamplingOptions = TraceSamplingOptions()
+) : ExchangeFilter<T> {
     override fun filter(
         exchange: T,
         next: FilterChain<T>
     ): Mono<Void> {
-        return Mono.deferContextual {
-            val parentContext = ReactorTraceContext.get(it)
-            val source = Mono.defer {
-                next.filter(exchange)
-            }
-            ExchangeTraceMono(parentContext, instrumenter, exchange, source)
+        return traceExchange(instrumenter, tailSpanRecorder, samplingOptions, exchange) {
+            next.filter(exchange)
         }
     }
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.opentelemetry
+
+import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter
+import me.ahoo.wow.messaging.handler.MessageExchange
+import me.ahoo.wow.opentelemetry.messaging.MessageExchangeTextMapGetter
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+
+/*
+ * Assembly-time entry points of the Wow tracing decorators.
+ *
+ * The sampling decision is taken once the parent context is known and before any trace
+ * operator is assembled: unsampled parents subscribe to the undecorated source directly.
+ * In [TraceSamplingMode.TAIL] mode, [TailSpanRecorder] records the span of the instrumenter
+ * after the fact.
+ */
+
+fun <T : Any, O : Any> traceMono(
+    instrumenter: Instrumenter<T, Unit>,
+    tailSpanRecorder: TailSpanRecorder<T>,
+    options: TraceSamplingOptions,
+    request: T,
+    source: () -> Mono<O>
+): Mono<O> =
+    Mono.deferContextual {
+        val parentContext = ReactorTraceContext.get(it)
+        if (options.isUnsampled(parentContext)) {
+            return@deferContextual source()
+        }
+        if (options.mode == TraceSamplingMode.TAIL) {
+            TailTraceMono(
+                parentContext = parentContext,
+                instrumenter = instrumenter,
+                tailSpanRecorder = tailSpanRecorder,
+                request = request,
+                source = Mono.defer(source),
+                slowThreshold = options.slowThreshold,
+            )
+        } else {
+            TraceMono(parentContext, instrumenter, request, Mono.defer(source))
+        }
+    }
+
+fun <T : Any, O : Any> traceFlux(
+    instrumenter: Instrumenter<T, Unit>,
+    tailSpanRecorder: TailSpanRecorder<T>,
+    options: TraceSamplingOptions,
+    request: T,
+    source: () -> Flux<O>
+): Flux<O> =
+    Flux.deferContextual {
+        val parentContext = ReactorTraceContext.get(it)
+        if (options.isUnsampled(parentContext)) {
+            return@deferContextual source()
+        }
+        if (options.mode == TraceSamplingMode.TAIL) {
+            TailTraceFlux(
+                parentContext = parentContext,
+                instrumenter = instrumenter,
+                tailSpanRecorder = tailSpanRecorder,
+                request = request,
+                source = Flux.defer(source),
+                slowThreshold = options.slowThreshold,
+            )
+        } else {
+            TraceFlux(parentContext, instrumenter, request, Flux.defer(source))
+        }
+    }
+
+fun <T : MessageExchange<*, *>> traceExchange(
+    instrumenter: Instrumenter<T, Unit>,
+    tailSpanRecorder: TailSpanRecorder<T>,
+    options: TraceSamplingOptions,
+    exchange: T,
+    source: () -> Mono<Void>
+): Mono<Void> =
+    Mono.deferContextual {
+        val parentContext = ReactorTraceContext.get(it)
+        if (options.isUnsampled<MessageExchange<*, *>>(parentContext, exchange, EXCHANGE_TEXT_MAP_GETTER)) {
+            return@deferContextual source()
+        }
+        if (options.mode == TraceSamplingMode.TAIL) {
+            TailTraceMono(
+                parentContext = parentContext,
+                instrumenter = instrumenter,
+                tailSpanRecorder = tailSpanRecorder,
+                request = exchange,
+                source = Mono.defer(source),
+                slowThreshold = options.slowThreshold,
+                completionError = { exchange.getError() },
+            )
+        } else {
+            ExchangeTraceMono(parentContext, instrumenter, exchange, Mono.defer(source))
+        }
+    }
+
+private val EXCHANGE_TEXT_MAP_GETTER = MessageExchangeTextMapGetter<MessageExchange<*, *>>()
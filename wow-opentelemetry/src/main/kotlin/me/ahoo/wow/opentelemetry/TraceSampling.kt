@@ -0,0 +1,96 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.opentelemetry
+
+import io.opentelemetry.api.GlobalOpenTelemetry
+import io.opentelemetry.api.trace.Span
+import io.opentelemetry.context.Context
+import io.opentelemetry.context.propagation.TextMapGetter
+import java.time.Duration
+
+/**
+ * How Wow trace operators are assembled around commands, events, snapshots and projections.
+ */
+enum class TraceSamplingMode {
+    /**
+     * Always assemble the trace operator and leave sampling to the OpenTelemetry sampler.
+     *
+     * The default.
+     */
+    ALWAYS,
+
+    /**
+     * Skip the trace operator entirely when the parent span context is valid but not sampled.
+     *
+     * This matches the default parent-based sampler, which never samples a child of an
+     * unsampled parent, without paying for a non-recording span and its subscriber.
+     */
+    PARENT_BASED,
+
+    /**
+     * [PARENT_BASED], and only record spans for exchanges that fail or take at least
+     * [TraceSamplingOptions.slowThreshold].
+     *
+     * The span is created once the publisher terminates, so it is not current while the
+     * source runs: nested spans and propagated message headers refer to the parent instead.
+     */
+    TAIL
+}
+
+/**
+ * Sampling options of the Wow trace operators, passed to every traced decorator and filter.
+ *
+ * @property mode How trace operators are assembled, [TraceSamplingMode.ALWAYS] by default.
+ * @property slowThreshold Minimum duration of a successful operation kept in [TraceSamplingMode.TAIL] mode.
+ */
+data class TraceSamplingOptions(
+    val mode: TraceSamplingMode = TraceSamplingMode.ALWAYS,
+    val slowThreshold: Duration = DEFAULT_SLOW_THRESHOLD
+) {
+    init {
+        require(!slowThreshold.isNegative) {
+            "slowThreshold must not be negative."
+        }
+    }
+
+    /**
+     * Returns `true` when tracing can be skipped for [parentContext] without changing the
+     * sampling outcome.
+     */
+    fun isUnsampled(parentContext: Context): Boolean {
+        if (mode == TraceSamplingMode.ALWAYS) {
+            return false
+        }
+        val spanContext = Span.fromContext(parentContext).spanContext
+        return spanContext.isValid && !spanContext.isSampled
+    }
+
+    /**
+     * Same as [isUnsampled], but for consumer instrumenters: the parent propagated through
+     * [carrier] takes precedence over the local parent, as it does when the span is started.
+     */
+    fun <C> isUnsampled(parentContext: Context, carrier: C, getter: TextMapGetter<C>): Boolean {
+        if (mode == TraceSamplingMode.ALWAYS) {
+            return false
+        }
+        val extractedContext = GlobalOpenTelemetry.getPropagators()
+            .textMapPropagator
+            .extract(parentContext, carrier, getter)
+        return isUnsampled(extractedContext)
+    }
+
+    companion object {
+        val DEFAULT_SLOW_THRESHOLD: Duration = Duration.ofMillis(500)
+    }
+}
@@ -34,71 +34,75 @@ import me.ahoo.wow.opentelemetry.wait.TracingCommandGateway
 
 object Tracing {
 
-    fun LocalCommandBus.tracing(): LocalCommandBus {
+    fun LocalCommandBus.tracing(options: TraceSamplingOptions = TraceSamplingOptions()): LocalCommandBus {
         return tracing {
-            TracingLocalCommandBus(this)
+            TracingLocalCommandBus(this, samplingOptions = options)
         }
     }
 
-    fun DistributedCommandBus.tracing(): DistributedCommandBus {
+    fun DistributedCommandBus.tracing(options: TraceSamplingOptions = TraceSamplingOptions()): DistributedCommandBus {
         return tracing {
-            TracingDistributedCommandBus(this)
+            TracingDistributedCommandBus(this, samplingOptions = options)
         }
     }
 
-    fun LocalDomainEventBus.tracing(): LocalDomainEventBus {
+    fun LocalDomainEventBus.tracing(options: TraceSamplingOptions = TraceSamplingOptions()): LocalDomainEventBus {
         return tracing {
-            TracingLocalEventBus(this)
+            TracingLocalEventBus(this, samplingOptions = options)
         }
     }
 
-    fun DistributedDomainEventBus.tracing(): DistributedDomainEventBus {
+    fun DistributedDomainEventBus.tracing(
+        options: TraceSamplingOptions = TraceSamplingOptions()
+    ): DistributedDomainEventBus {
         return tracing {
-            TracingDistributedEventBus(this)
+            TracingDistributedEventBus(this, samplingOptions = options)
         }
     }
 
-    fun EventStore.tracing(): EventStore {
+    fun EventStore.tracing(options: TraceSamplingOptions = TraceSamplingOptions()): EventStore {
         return tracing {
-            TracingEventStore(this)
+            TracingEventStore(this, options)
         }
     }
 
-    fun SnapshotStore.tracing(): SnapshotStore {
+    fun SnapshotStore.tracing(options: TraceSamplingOptions = TraceSamplingOptions()): SnapshotStore {
         return tracing {
-            TracingSnapshotStore(this)
+            TracingSnapshotStore(this, options)
         }
     }
 
-    fun LocalStateEventBus.tracing(): LocalStateEventBus {
+    fun LocalStateEventBus.tracing(options: TraceSamplingOptions = TraceSamplingOptions()): LocalStateEventBus {
         return tracing {
-            TracingLocalStateEventBus(this)
+            TracingLocalStateEventBus(this, samplingOptions = options)
         }
     }
 
-    fun DistributedStateEventBus.tracing(): DistributedStateEventBus {
+    fun DistributedStateEventBus.tracing(
+        options: TraceSamplingOptions = TraceSamplingOptions()
+    ): DistributedStateEventBus {
         return tracing {
-            TracingDistributedStateEventBus(this)
+            TracingDistributedStateEventBus(this, samplingOptions = options)
         }
     }
 
-    fun CommandGateway.tracing(): CommandGateway {
+    fun CommandGateway.tracing(options: TraceSamplingOptions = TraceSamplingOptions()): CommandGateway {
         return tracing {
-            TracingCommandGateway(this)
+            TracingCommandGateway(this, options)
         }
     }
 
-    fun <T : Any> T.tracing(): Any {
+    fun <T : Any> T.tracing(options: TraceSamplingOptions = TraceSamplingOptions()): Any {
         return when (this) {
-            is LocalCommandBus -> tracing()
-            is DistributedCommandBus -> tracing()
-            is LocalDomainEventBus -> tracing()
-            is DistributedDomainEventBus -> tracing()
-            is EventStore -> tracing()
-            is SnapshotStore -> tracing()
-            is LocalStateEventBus -> tracing()
-            is DistributedStateEventBus -> tracing()
-            is CommandGateway -> tracing()
+            is LocalCommandBus -> tracing(options)
+            is DistributedCommandBus -> tracing(options)
+            is LocalDomainEventBus -> tracing(options)
+            is DistributedDomainEventBus -> tracing(options)
+            is EventStore -> tracing(options)
+            is SnapshotStore -> tracing(options)
+            is LocalStateEventBus -> tracing(options)
+            is DistributedStateEventBus -> tracing(options)
+            is CommandGateway -> tracing(options)
             else -> this
         }
     }
@@ -14,11 +14,13 @@
 package me.ahoo.wow.opentelemetry.aggregate
 
 import io.opentelemetry.api.GlobalOpenTelemetry
+import io.opentelemetry.api.trace.SpanKind
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter
 import io.opentelemetry.instrumentation.api.instrumenter.SpanNameExtractor
 import me.ahoo.wow.api.Wow
 import me.ahoo.wow.command.ServerCommandExchange
 import me.ahoo.wow.opentelemetry.ExchangeAttributesExtractor
+import me.ahoo.wow.opentelemetry.TailSpanRecorder
 import me.ahoo.wow.opentelemetry.WowInstrumenter.INSTRUMENTATION_NAME_PREFIX
 import me.ahoo.wow.opentelemetry.messaging.MessageExchangeTextMapGetter
 
@@ -32,6 +34,15 @@ object AggregateInstrumenter {
         ).addAttributesExtractor(ExchangeAttributesExtractor())
             .setInstrumentationVersion(Wow.VERSION)
             .buildConsumerInstrumenter(MessageExchangeTextMapGetter())
+
+    val TAIL_SPAN_RECORDER: TailSpanRecorder<ServerCommandExchange<*>> =
+        TailSpanRecorder(
+            INSTRUMENTATION_NAME,
+            AggregateSpanNameExtractor,
+            SpanKind.CONSUMER,
+            ExchangeAttributesExtractor(),
+            MessageExchangeTextMapGetter(),
+        )
 }
 
 object AggregateSpanNameExtractor : SpanNameExtractor<ServerCommandExchange<*>> {
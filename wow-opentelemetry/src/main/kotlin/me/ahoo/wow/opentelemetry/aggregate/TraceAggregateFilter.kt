@@ -20,9 +20,16 @@ import me.ahoo.wow.filter.FilterType
 import me.ahoo.wow.modeling.command.dispatcher.CommandDispatcher
 import me.ahoo.wow.modeling.command.dispatcher.CommandFilter
 import me.ahoo.wow.opentelemetry.TraceFilter
+import me.ahoo.wow.opentelemetry.TraceSamplingOptions
 import me.ahoo.wow.opentelemetry.Traced
 
 @FilterType(CommandDispatcher::class)
 @Order(ORDER_FIRST)
-object TraceAggregateFilter : Traced, CommandFilter,
-    TraceFilter<ServerCommandExchange<*>>(AggregateInstrumenter.INSTRUMENTER)
+class TraceAggregateFilter(samplingOptions: TraceSamplingOptions = TraceSamplingOptions()) :
+    TraceFilter<ServerCommandExchange<*>>(
+        AggregateInstrumenter.INSTRUMENTER,
+        AggregateInstrumenter.TAIL_SPAN_RECORDER,
+        samplingOptions,
+    ),
+    Traced,
+    CommandFilter
@@ -20,9 +20,15 @@ import me.ahoo.wow.event.dispatcher.DomainEventDispatcher
 import me.ahoo.wow.filter.FilterType
 import me.ahoo.wow.messaging.handler.RetryableFilter
 import me.ahoo.wow.opentelemetry.TraceFilter
+import me.ahoo.wow.opentelemetry.TraceSamplingOptions
 import me.ahoo.wow.opentelemetry.Traced
 
 @FilterType(DomainEventDispatcher::class)
 @Order(ORDER_FIRST, after = [RetryableFilter::class])
-object TraceEventProcessorFilter : Traced,
-    TraceFilter<DomainEventExchange<Any>>(EventProcessorInstrumenter.INSTRUMENTER)
+class TraceEventProcessorFilter(samplingOptions: TraceSamplingOptions = TraceSamplingOptions()) :
+    TraceFilter<DomainEventExchange<Any>>(
+        EventProcessorInstrumenter.INSTRUMENTER,
+        EventProcessorInstrumenter.TAIL_SPAN_RECORDER,
+        samplingOptions,
+    ),
+    Traced
@@ -14,6 +14,7 @@
 package me.ahoo.wow.opentelemetry.eventsourcing
 
 import io.opentelemetry.api.GlobalOpenTelemetry
+import io.opentelemetry.api.trace.SpanKind
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter
 import io.opentelemetry.instrumentation.api.instrumenter.SpanNameExtractor
 import me.ahoo.wow.api.Wow
@@ -21,6 +22,7 @@ import me.ahoo.wow.api.modeling.AggregateId
 import me.ahoo.wow.event.DomainEventStream
 import me.ahoo.wow.opentelemetry.AggregateIdAttributesExtractor
 import me.ahoo.wow.opentelemetry.MessageAttributesExtractor
+import me.ahoo.wow.opentelemetry.TailSpanRecorder
 import me.ahoo.wow.opentelemetry.WowInstrumenter.INSTRUMENTATION_NAME_PREFIX
 
 object EventStoreInstrumenter {
@@ -34,6 +36,14 @@ object EventStoreInstrumenter {
             .setInstrumentationVersion(Wow.VERSION)
             .buildInstrumenter()
 
+    val APPEND_TAIL_SPAN_RECORDER: TailSpanRecorder<DomainEventStream> =
+        TailSpanRecorder(
+            INSTRUMENTATION_NAME,
+            EventStoreAppendSpanNameExtractor,
+            SpanKind.INTERNAL,
+            MessageAttributesExtractor(),
+        )
+
     val LOAD_INSTRUMENTER: Instrumenter<AggregateId, Unit> =
         Instrumenter.builder<AggregateId, Unit>(
             GlobalOpenTelemetry.get(),
@@ -42,6 +52,14 @@ object EventStoreInstrumenter {
         ).addAttributesExtractor(AggregateIdAttributesExtractor)
             .setInstrumentationVersion(Wow.VERSION)
             .buildInstrumenter()
+
+    val LOAD_TAIL_SPAN_RECORDER: TailSpanRecorder<AggregateId> =
+        TailSpanRecorder(
+            INSTRUMENTATION_NAME,
+            EventStoreLoadSpanNameExtractor,
+            SpanKind.INTERNAL,
+            AggregateIdAttributesExtractor,
+        )
 }
 
 object EventStoreAppendSpanNameExtractor : SpanNameExtractor<DomainEventStream> {
@@ -16,53 +16,61 @@ package me.ahoo.wow.opentelemetry.eventsourcing
 import me.ahoo.wow.api.modeling.AggregateId
 import me.ahoo.wow.api.modeling.NamedAggregate
 import me.ahoo.wow.event.DomainEventStream
+import me.ahoo.wow.eventsourcing.EventLogRecord
 import me.ahoo.wow.eventsourcing.EventStore
 import me.ahoo.wow.infra.Decorator
-import me.ahoo.wow.opentelemetry.ReactorTraceContext
-import me.ahoo.wow.opentelemetry.TraceFlux
-import me.ahoo.wow.opentelemetry.TraceMono
+import me.ahoo.wow.opentelemetry.TraceSamplingOptions
 import me.ahoo.wow.opentelemetry.Traced
+import me.ahoo.wow.opentelemetry.traceFlux
+import me.ahoo.wow.opentelemetry.traceMono
 import reactor.core.publisher.Flux
 import reactor.core.publisher.Mono
 
-class TracingEventStore(override val delegate: EventStore) : Traced, EventStore, Decorator<EventStore> {
+class TracingEventStore(
+    override val delegate: EventStore,
+    private val samplingOptions: TraceSamplingOptions = TraceSamplingOptions()
+) : Traced, EventStore, Decorator<EventStore> {
     override fun append(eventStream: DomainEventStream): Mono<Void> {
-        return Mono.deferContextual {
-            val parentContext = ReactorTraceContext.get(it)
-            val source = Mono.defer {
-                delegate.append(eventStream)
-            }
-            TraceMono(parentContext, EventStoreInstrumenter.APPEND_INSTRUMENTER, eventStream, source)
+        return traceMono(
+            EventStoreInstrumenter.APPEND_INSTRUMENTER,
+            EventStoreInstrumenter.APPEND_TAIL_SPAN_RECORDER,
+            samplingOptions,
+            eventStream
+        ) {
+            delegate.append(eventStream)
         }
     }
 
     override fun load(aggregateId: AggregateId, headVersion: Int, tailVersion: Int): Flux<DomainEventStream> {
-        return Flux.deferContextual {
-            val parentContext = ReactorTraceContext.get(it)
-            val source = Flux.defer {
-                delegate.load(aggregateId, headVersion, tailVersion)
-            }
-            TraceFlux(parentContext, EventStoreInstrumenter.LOAD_INSTRUMENTER, aggregateId, source)
+        return traceFlux(
+            EventStoreInstrumenter.LOAD_INSTRUMENTER,
+            EventStoreInstrumenter.LOAD_TAIL_SPAN_RECORDER,
+            samplingOptions,
+            aggregateId
+        ) {
+            delegate.load(aggregateId, headVersion, tailVersion)
         }
     }
 
     override fun load(aggregateId: AggregateId, headEventTime: Long, tailEventTime: Long): Flux<DomainEventStream> {
-        return Flux.deferContextual {
-            val parentContext = ReactorTraceContext.get(it)
-            val source = Flux.defer {
-                delegate.load(aggregateId, headEventTime, tailEventTime)
-            }
-            TraceFlux(parentContext, EventStoreInstrumenter.LOAD_INSTRUMENTER, aggregateId, source)
+        return traceFlux(
+            EventStoreInstrumenter.LOAD_INSTRUMENTER,
+            EventStoreInstrumenter.LOAD_TAIL_SPAN_RECORDER,
+            samplingOptions,
+            aggregateId
+        ) {
+            delegate.load(aggregateId, headEventTime, tailEventTime)
         }
     }
 
     override fun last(aggregateId: AggregateId): Mono<DomainEventStream> {
-        return Mono.deferContextual {
-            val parentContext = ReactorTraceContext.get(it)
-            val source = Mono.defer {
-                delegate.last(aggregateId)
-            }
-            TraceMono(parentContext, EventStoreInstrumenter.LOAD_INSTRUMENTER, aggregateId, source)
+        return traceMono(
+            EventStoreInstrumenter.LOAD_INSTRUMENTER,
+            EventStoreInstrumenter.LOAD_TAIL_SPAN_RECORDER,
+            samplingOptions,
+            aggregateId
+        ) {
+            delegate.last(aggregateId)
         }
     }
 
@@ -74,6 +82,18 @@ class TracingEventStore(override val delegate: EventStore) : Traced, EventStore,
         return delegate.scanAggregateId(namedAggregate, afterId, limit)
     }
 
+    override fun readAll(
+        namedAggregate: NamedAggregate,
+        fromPosition: String,
+        batchSize: Int
+    ): Flux<EventLogRecord> {
+        return delegate.readAll(namedAggregate, fromPosition, batchSize)
+    }
+
+    override fun prune(aggregateId: AggregateId, headVersion: Int, tailVersion: Int): Mono<Long> {
+        return delegate.prune(aggregateId, headVersion, tailVersion)
+    }
+
     override fun close() {
         delegate.close()
     }
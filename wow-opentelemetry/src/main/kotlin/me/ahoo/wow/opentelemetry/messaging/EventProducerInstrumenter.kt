@@ -14,11 +14,13 @@
 package me.ahoo.wow.opentelemetry.messaging
 
 import io.opentelemetry.api.GlobalOpenTelemetry
+import io.opentelemetry.api.trace.SpanKind
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter
 import io.opentelemetry.instrumentation.api.instrumenter.SpanNameExtractor
 import me.ahoo.wow.api.Wow
 import me.ahoo.wow.event.DomainEventStream
 import me.ahoo.wow.opentelemetry.MessageAttributesExtractor
+import me.ahoo.wow.opentelemetry.TailSpanRecorder
 import me.ahoo.wow.opentelemetry.WowInstrumenter.INSTRUMENTATION_NAME_PREFIX
 
 object EventProducerInstrumenter {
@@ -31,6 +33,14 @@ object EventProducerInstrumenter {
         ).addAttributesExtractor(MessageAttributesExtractor())
             .setInstrumentationVersion(Wow.VERSION)
             .buildProducerInstrumenter(MessageTextMapSetter())
+
+    val TAIL_SPAN_RECORDER: TailSpanRecorder<DomainEventStream> =
+        TailSpanRecorder(
+            INSTRUMENTATION_NAME,
+            EventProducerSpanNameExtractor,
+            SpanKind.PRODUCER,
+            MessageAttributesExtractor(),
+        )
 }
 
 object EventProducerSpanNameExtractor : SpanNameExtractor<DomainEventStream> {
@@ -19,15 +19,20 @@ import me.ahoo.wow.api.modeling.NamedAggregate
 import me.ahoo.wow.command.DistributedCommandBus
 import me.ahoo.wow.command.LocalCommandBus
 import me.ahoo.wow.command.ServerCommandExchange
+import me.ahoo.wow.opentelemetry.TailSpanRecorder
+import me.ahoo.wow.opentelemetry.TraceSamplingOptions
 import reactor.core.publisher.Mono
 
 class TracingLocalCommandBus(
     override val delegate: LocalCommandBus,
-    override val producerInstrumenter: Instrumenter<CommandMessage<*>, Unit> = CommandProducerInstrumenter.INSTRUMENTER
+    override val producerInstrumenter: Instrumenter<CommandMessage<*>, Unit> = CommandProducerInstrumenter.INSTRUMENTER,
+    override val producerTailSpanRecorder: TailSpanRecorder<CommandMessage<*>> =
+        CommandProducerInstrumenter.TAIL_SPAN_RECORDER,
+    override val samplingOptions: TraceSamplingOptions = TraceSamplingOptions()
 ) : TracingMessageBus<CommandMessage<*>, ServerCommandExchange<*>, LocalCommandBus>,
     LocalCommandBus {
     override fun sendIfSubscribed(message: CommandMessage<*>): Mono<Boolean> =
-        traceMessageSend(message, producerInstrumenter) {
+        traceMessageSend(message) {
             delegate.sendIfSubscribed(message)
         }
 
@@ -38,7 +43,10 @@ class TracingLocalCommandBus(
 
 class TracingDistributedCommandBus(
     override val delegate: DistributedCommandBus,
-    override val producerInstrumenter: Instrumenter<CommandMessage<*>, Unit> = CommandProducerInstrumenter.INSTRUMENTER
+    override val producerInstrumenter: Instrumenter<CommandMessage<*>, Unit> = CommandProducerInstrumenter.INSTRUMENTER,
+    override val producerTailSpanRecorder: TailSpanRecorder<CommandMessage<*>> =
+        CommandProducerInstrumenter.TAIL_SPAN_RECORDER,
+    override val samplingOptions: TraceSamplingOptions = TraceSamplingOptions()
 ) :
     TracingMessageBus<CommandMessage<*>, ServerCommandExchange<*>, DistributedCommandBus>,
     DistributedCommandBus
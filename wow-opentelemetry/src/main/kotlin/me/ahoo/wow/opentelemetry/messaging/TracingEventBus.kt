@@ -19,16 +19,21 @@ import me.ahoo.wow.event.DistributedDomainEventBus
 import me.ahoo.wow.event.DomainEventStream
 import me.ahoo.wow.event.EventStreamExchange
 import me.ahoo.wow.event.LocalDomainEventBus
+import me.ahoo.wow.opentelemetry.TailSpanRecorder
+import me.ahoo.wow.opentelemetry.TraceSamplingOptions
 import reactor.core.publisher.Mono
 
 class TracingLocalEventBus(
     override val delegate: LocalDomainEventBus,
-    override val producerInstrumenter: Instrumenter<DomainEventStream, Unit> = EventProducerInstrumenter.INSTRUMENTER
+    override val producerInstrumenter: Instrumenter<DomainEventStream, Unit> = EventProducerInstrumenter.INSTRUMENTER,
+    override val producerTailSpanRecorder: TailSpanRecorder<DomainEventStream> =
+        EventProducerInstrumenter.TAIL_SPAN_RECORDER,
+    override val samplingOptions: TraceSamplingOptions = TraceSamplingOptions()
 ) :
     TracingMessageBus<DomainEventStream, EventStreamExchange, LocalDomainEventBus>,
     LocalDomainEventBus {
     override fun sendIfSubscribed(message: DomainEventStream): Mono<Boolean> =
-        traceMessageSend(message, producerInstrumenter) {
+        traceMessageSend(message) {
             delegate.sendIfSubscribed(message)
         }
 
@@ -39,7 +44,10 @@ class TracingLocalEventBus(
 
 class TracingDistributedEventBus(
     override val delegate: DistributedDomainEventBus,
-    override val producerInstrumenter: Instrumenter<DomainEventStream, Unit> = EventProducerInstrumenter.INSTRUMENTER
+    override val producerInstrumenter: Instrumenter<DomainEventStream, Unit> = EventProducerInstrumenter.INSTRUMENTER,
+    override val producerTailSpanRecorder: TailSpanRecorder<DomainEventStream> =
+        EventProducerInstrumenter.TAIL_SPAN_RECORDER,
+    override val samplingOptions: TraceSamplingOptions = TraceSamplingOptions()
 ) :
     TracingMessageBus<DomainEventStream, EventStreamExchange, DistributedDomainEventBus>,
     DistributedDomainEventBus
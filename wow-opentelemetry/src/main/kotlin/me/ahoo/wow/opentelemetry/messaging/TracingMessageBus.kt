@@ -20,9 +20,10 @@ import me.ahoo.wow.messaging.MessageBus
 import me.ahoo.wow.messaging.MessageReceiver
 import me.ahoo.wow.messaging.MessageSubscription
 import me.ahoo.wow.messaging.handler.MessageExchange
-import me.ahoo.wow.opentelemetry.ReactorTraceContext
-import me.ahoo.wow.opentelemetry.TraceMono
+import me.ahoo.wow.opentelemetry.TailSpanRecorder
+import me.ahoo.wow.opentelemetry.TraceSamplingOptions
 import me.ahoo.wow.opentelemetry.Traced
+import me.ahoo.wow.opentelemetry.traceMono
 import reactor.core.publisher.Flux
 import reactor.core.publisher.Mono
 
@@ -31,8 +32,10 @@ interface TracingMessageBus<M : Message<*, *>, E : MessageExchange<*, M>, B : Me
     MessageBus<M, E>,
     Decorator<B> {
     val producerInstrumenter: Instrumenter<M, Unit>
+    val producerTailSpanRecorder: TailSpanRecorder<M>
+    val samplingOptions: TraceSamplingOptions
     override fun send(message: M): Mono<Void> =
-        traceMessageSend(message, producerInstrumenter) {
+        traceMessageSend(message) {
             delegate.send(message)
         }
 
@@ -51,16 +54,8 @@ interface TracingMessageBus<M : Message<*, *>, E : MessageExchange<*, M>, B : Me
     }
 }
 
-internal fun <M : Message<*, *>, O : Any> traceMessageSend(
+internal fun <M : Message<*, *>, O : Any> TracingMessageBus<M, *, *>.traceMessageSend(
     message: M,
-    instrumenter: Instrumenter<M, Unit>,
     source: () -> Mono<O>,
 ): Mono<O> =
-    Mono.deferContextual {
-        TraceMono(
-            parentContext = ReactorTraceContext.get(it),
-            instrumenter = instrumenter,
-            request = message,
-            source = Mono.defer(source),
-        )
-    }
+    traceMono(producerInstrumenter, producerTailSpanRecorder, samplingOptions, message, source)
@@ -19,16 +19,21 @@ import me.ahoo.wow.eventsourcing.state.DistributedStateEventBus
 import me.ahoo.wow.eventsourcing.state.LocalStateEventBus
 import me.ahoo.wow.eventsourcing.state.StateEvent
 import me.ahoo.wow.eventsourcing.state.StateEventExchange
+import me.ahoo.wow.opentelemetry.TailSpanRecorder
+import me.ahoo.wow.opentelemetry.TraceSamplingOptions
 import reactor.core.publisher.Mono
 
 class TracingLocalStateEventBus(
     override val delegate: LocalStateEventBus,
-    override val producerInstrumenter: Instrumenter<StateEvent<*>, Unit> = StateEventProducerInstrumenter.INSTRUMENTER
+    override val producerInstrumenter: Instrumenter<StateEvent<*>, Unit> = StateEventProducerInstrumenter.INSTRUMENTER,
+    override val producerTailSpanRecorder: TailSpanRecorder<StateEvent<*>> =
+        StateEventProducerInstrumenter.TAIL_SPAN_RECORDER,
+    override val samplingOptions: TraceSamplingOptions = TraceSamplingOptions()
 ) :
     TracingMessageBus<StateEvent<*>, StateEventExchange<*>, LocalStateEventBus>,
     LocalStateEventBus {
     override fun sendIfSubscribed(message: StateEvent<*>): Mono<Boolean> =
-        traceMessageSend(message, producerInstrumenter) {
+        traceMessageSend(message) {
             delegate.sendIfSubscribed(message)
         }
 
@@ -39,7 +44,10 @@ class TracingLocalStateEventBus(
 
 class TracingDistributedStateEventBus(
     override val delegate: DistributedStateEventBus,
-    override val producerInstrumenter: Instrumenter<StateEvent<*>, Unit> = StateEventProducerInstrumenter.INSTRUMENTER
+    override val producerInstrumenter: Instrumenter<StateEvent<*>, Unit> = StateEventProducerInstrumenter.INSTRUMENTER,
+    override val producerTailSpanRecorder: TailSpanRecorder<StateEvent<*>> =
+        StateEventProducerInstrumenter.TAIL_SPAN_RECORDER,
+    override val samplingOptions: TraceSamplingOptions = TraceSamplingOptions()
 ) :
     TracingMessageBus<StateEvent<*>, StateEventExchange<*>, DistributedStateEventBus>,
     DistributedStateEventBus
@@ -14,10 +14,12 @@
 package me.ahoo.wow.opentelemetry.projection
 
 import io.opentelemetry.api.GlobalOpenTelemetry
+import io.opentelemetry.api.trace.SpanKind
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter
 import me.ahoo.wow.api.Wow
 import me.ahoo.wow.event.DomainEventExchange
 import me.ahoo.wow.opentelemetry.ExchangeAttributesExtractor
+import me.ahoo.wow.opentelemetry.TailSpanRecorder
 import me.ahoo.wow.opentelemetry.WowInstrumenter.INSTRUMENTATION_NAME_PREFIX
 import me.ahoo.wow.opentelemetry.eventprocessor.EventProcessorSpanNameExtractor
 import me.ahoo.wow.opentelemetry.messaging.MessageExchangeTextMapGetter
@@ -32,4 +34,13 @@ object ProjectionInstrumenter {
         ).addAttributesExtractor(ExchangeAttributesExtractor())
             .setInstrumentationVersion(Wow.VERSION)
             .buildConsumerInstrumenter(MessageExchangeTextMapGetter())
+
+    val TAIL_SPAN_RECORDER: TailSpanRecorder<DomainEventExchange<Any>> =
+        TailSpanRecorder(
+            INSTRUMENTATION_NAME,
+            EventProcessorSpanNameExtractor,
+            SpanKind.CONSUMER,
+            ExchangeAttributesExtractor(),
+            MessageExchangeTextMapGetter(),
+        )
 }
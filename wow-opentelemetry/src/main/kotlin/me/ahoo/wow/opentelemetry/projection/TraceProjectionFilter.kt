@@ -19,9 +19,16 @@ import me.ahoo.wow.event.DomainEventExchange
 import me.ahoo.wow.filter.FilterType
 import me.ahoo.wow.messaging.handler.RetryableFilter
 import me.ahoo.wow.opentelemetry.TraceFilter
+import me.ahoo.wow.opentelemetry.TraceSamplingOptions
 import me.ahoo.wow.opentelemetry.Traced
 import me.ahoo.wow.projection.ProjectionDispatcher
 
 @FilterType(ProjectionDispatcher::class)
 @Order(ORDER_FIRST, after = [RetryableFilter::class])
-object TraceProjectionFilter : Traced, TraceFilter<DomainEventExchange<Any>>(ProjectionInstrumenter.INSTRUMENTER)
+class TraceProjectionFilter(samplingOptions: TraceSamplingOptions = TraceSamplingOptions()) :
+    TraceFilter<DomainEventExchange<Any>>(
+        ProjectionInstrumenter.INSTRUMENTER,
+        ProjectionInstrumenter.TAIL_SPAN_RECORDER,
+        samplingOptions,
+    ),
+    Traced
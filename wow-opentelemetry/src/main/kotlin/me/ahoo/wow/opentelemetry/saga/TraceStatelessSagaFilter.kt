@@ -19,9 +19,16 @@ import me.ahoo.wow.event.DomainEventExchange
 import me.ahoo.wow.filter.FilterType
 import me.ahoo.wow.messaging.handler.RetryableFilter
 import me.ahoo.wow.opentelemetry.TraceFilter
+import me.ahoo.wow.opentelemetry.TraceSamplingOptions
 import me.ahoo.wow.opentelemetry.Traced
 import me.ahoo.wow.saga.stateless.StatelessSagaDispatcher
 
 @FilterType(StatelessSagaDispatcher::class)
 @Order(ORDER_FIRST, after = [RetryableFilter::class])
-object TraceStatelessSagaFilter : Traced, TraceFilter<DomainEventExchange<Any>>(StatelessSagaInstrumenter.INSTRUMENTER)
+class TraceStatelessSagaFilter(samplingOptions: TraceSamplingOptions = TraceSamplingOptions()) :
+    TraceFilter<DomainEventExchange<Any>>(
+        StatelessSagaInstrumenter.INSTRUMENTER,
+        StatelessSagaInstrumenter.TAIL_SPAN_RECORDER,
+        samplingOptions,
+    ),
+    Traced
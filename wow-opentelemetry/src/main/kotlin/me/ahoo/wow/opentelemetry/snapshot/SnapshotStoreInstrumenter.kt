@@ -14,11 +14,13 @@
 package me.ahoo.wow.opentelemetry.snapshot
 
 import io.opentelemetry.api.GlobalOpenTelemetry
+import io.opentelemetry.api.trace.SpanKind
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter
 import io.opentelemetry.instrumentation.api.instrumenter.SpanNameExtractor
 import me.ahoo.wow.api.Wow
 import me.ahoo.wow.api.modeling.AggregateId
 import me.ahoo.wow.opentelemetry.AggregateIdAttributesExtractor
+import me.ahoo.wow.opentelemetry.TailSpanRecorder
 import me.ahoo.wow.opentelemetry.WowInstrumenter.INSTRUMENTATION_NAME_PREFIX
 
 object SnapshotStoreInstrumenter {
@@ -32,6 +34,14 @@ object SnapshotStoreInstrumenter {
             .setInstrumentationVersion(Wow.VERSION)
             .buildInstrumenter()
 
+    val SAVE_TAIL_SPAN_RECORDER: TailSpanRecorder<AggregateId> =
+        TailSpanRecorder(
+            INSTRUMENTATION_NAME,
+            SnapshotStoreSaveSpanNameExtractor,
+            SpanKind.INTERNAL,
+            AggregateIdAttributesExtractor,
+        )
+
     val LOAD_INSTRUMENTER: Instrumenter<AggregateId, Unit> =
         Instrumenter.builder<AggregateId, Unit>(
             GlobalOpenTelemetry.get(),
@@ -41,6 +51,14 @@ object SnapshotStoreInstrumenter {
             .setInstrumentationVersion(Wow.VERSION)
             .buildInstrumenter()
 
+    val LOAD_TAIL_SPAN_RECORDER: TailSpanRecorder<AggregateId> =
+        TailSpanRecorder(
+            INSTRUMENTATION_NAME,
+            SnapshotStoreLoadSpanNameExtractor,
+            SpanKind.INTERNAL,
+            AggregateIdAttributesExtractor,
+        )
+
     val VERSION_INSTRUMENTER: Instrumenter<AggregateId, Unit> =
         Instrumenter.builder<AggregateId, Unit>(
             GlobalOpenTelemetry.get(),
@@ -49,6 +67,14 @@ object SnapshotStoreInstrumenter {
         ).addAttributesExtractor(AggregateIdAttributesExtractor)
             .setInstrumentationVersion(Wow.VERSION)
             .buildInstrumenter()
+
+    val VERSION_TAIL_SPAN_RECORDER: TailSpanRecorder<AggregateId> =
+        TailSpanRecorder(
+            INSTRUMENTATION_NAME,
+            SnapshotStoreVersionSpanNameExtractor,
+            SpanKind.INTERNAL,
+            AggregateIdAttributesExtractor,
+        )
 }
 
 object SnapshotStoreSaveSpanNameExtractor : SpanNameExtractor<AggregateId> {
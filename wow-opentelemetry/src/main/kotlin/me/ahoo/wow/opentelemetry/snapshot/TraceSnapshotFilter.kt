@@ -20,8 +20,15 @@ import me.ahoo.wow.eventsourcing.state.StateEventExchange
 import me.ahoo.wow.filter.FilterType
 import me.ahoo.wow.messaging.handler.RetryableFilter
 import me.ahoo.wow.opentelemetry.TraceFilter
+import me.ahoo.wow.opentelemetry.TraceSamplingOptions
 import me.ahoo.wow.opentelemetry.Traced
 
 @FilterType(SnapshotDispatcher::class)
 @Order(ORDER_FIRST, after = [RetryableFilter::class])
-object TraceSnapshotFilter : Traced, TraceFilter<StateEventExchange<*>>(SnapshotInstrumenter.INSTRUMENTER)
+class TraceSnapshotFilter(samplingOptions: TraceSamplingOptions = TraceSamplingOptions()) :
+    TraceFilter<StateEventExchange<*>>(
+        SnapshotInstrumenter.INSTRUMENTER,
+        SnapshotInstrumenter.TAIL_SPAN_RECORDER,
+        samplingOptions,
+    ),
+    Traced
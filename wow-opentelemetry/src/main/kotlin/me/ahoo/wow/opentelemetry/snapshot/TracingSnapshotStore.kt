@@ -17,12 +17,15 @@ import me.ahoo.wow.api.modeling.AggregateId
 import me.ahoo.wow.eventsourcing.snapshot.Snapshot
 import me.ahoo.wow.eventsourcing.snapshot.SnapshotStore
 import me.ahoo.wow.infra.Decorator
-import me.ahoo.wow.opentelemetry.ReactorTraceContext
-import me.ahoo.wow.opentelemetry.TraceMono
+import me.ahoo.wow.opentelemetry.TraceSamplingOptions
 import me.ahoo.wow.opentelemetry.Traced
+import me.ahoo.wow.opentelemetry.traceMono
 import reactor.core.publisher.Mono
 
-class TracingSnapshotStore(override val delegate: SnapshotStore) :
+class TracingSnapshotStore(
+    override val delegate: SnapshotStore,
+    private val samplingOptions: TraceSamplingOptions = TraceSamplingOptions()
+) :
     Traced,
     SnapshotStore,
     Decorator<SnapshotStore> {
@@ -30,32 +33,46 @@ class TracingSnapshotStore(override val delegate: SnapshotStore) :
         get() = delegate.name
 
     override fun <S : Any> load(aggregateId: AggregateId): Mono<Snapshot<S>> {
-        return Mono.deferContextual {
-            val parentContext = ReactorTraceContext.get(it)
-            val source = Mono.defer {
-                delegate.load<S>(aggregateId)
-            }
-            TraceMono(parentContext, SnapshotStoreInstrumenter.LOAD_INSTRUMENTER, aggregateId, source)
+        return traceMono(
+            SnapshotStoreInstrumenter.LOAD_INSTRUMENTER,
+            SnapshotStoreInstrumenter.LOAD_TAIL_SPAN_RECORDER,
+            samplingOptions,
+            aggregateId
+        ) {
+            delegate.load<S>(aggregateId)
+        }
+    }
+
+    override fun <S : Any> loadAtOrBefore(aggregateId: AggregateId, maxVersion: Int): Mono<Snapshot<S>> {
+        return traceMono(
+            SnapshotStoreInstrumenter.LOAD_INSTRUMENTER,
+            SnapshotStoreInstrumenter.LOAD_TAIL_SPAN_RECORDER,
+            samplingOptions,
+            aggregateId
+        ) {
+            delegate.loadAtOrBefore<S>(aggregateId, maxVersion)
         }
     }
 
     override fun getVersion(aggregateId: AggregateId): Mono<Int> {
-        return Mono.deferContextual {
-            val parentContext = ReactorTraceContext.get(it)
-            val source = Mono.defer {
-                delegate.getVersion(aggregateId)
-            }
-            TraceMono(parentContext, SnapshotStoreInstrumenter.VERSION_INSTRUMENTER, aggregateId, source)
+        return traceMono(
+            SnapshotStoreInstrumenter.VERSION_INSTRUMENTER,
+            SnapshotStoreInstrumenter.VERSION_TAIL_SPAN_RECORDER,
+            samplingOptions,
+            aggregateId
+        ) {
+            delegate.getVersion(aggregateId)
         }
     }
 
     override fun <S : Any> save(snapshot: Snapshot<S>): Mono<Void> {
-        return Mono.deferContextual {
-            val parentContext = ReactorTraceContext.get(it)
-            val source = Mono.defer {
-                delegate.save(snapshot)
-            }
-            TraceMono(parentContext, SnapshotStoreInstrumenter.SAVE_INSTRUMENTER, snapshot.aggregateId, source)
+        return traceMono(
+            SnapshotStoreInstrumenter.SAVE_INSTRUMENTER,
+            SnapshotStoreInstrumenter.SAVE_TAIL_SPAN_RECORDER,
+            samplingOptions,
+            snapshot.aggregateId
+        ) {
+            delegate.save(snapshot)
         }
     }
 
@@ -21,14 +21,17 @@ import me.ahoo.wow.command.wait.WaitPlan
 import me.ahoo.wow.infra.Decorator
 import me.ahoo.wow.messaging.MessageReceiver
 import me.ahoo.wow.messaging.MessageSubscription
-import me.ahoo.wow.opentelemetry.ReactorTraceContext
-import me.ahoo.wow.opentelemetry.TraceFlux
-import me.ahoo.wow.opentelemetry.TraceMono
+import me.ahoo.wow.opentelemetry.TraceSamplingOptions
 import me.ahoo.wow.opentelemetry.Traced
+import me.ahoo.wow.opentelemetry.traceFlux
+import me.ahoo.wow.opentelemetry.traceMono
 import reactor.core.publisher.Flux
 import reactor.core.publisher.Mono
 
-class TracingCommandGateway(override val delegate: CommandGateway) : Traced, CommandGateway, Decorator<CommandGateway> {
+class TracingCommandGateway(
+    override val delegate: CommandGateway,
+    private val samplingOptions: TraceSamplingOptions = TraceSamplingOptions()
+) : Traced, CommandGateway, Decorator<CommandGateway> {
     override val enforcesCommandWaitTimeout: Boolean
         get() = delegate.enforcesCommandWaitTimeout
 
@@ -36,16 +39,13 @@ class TracingCommandGateway(override val delegate: CommandGateway) : Traced, Com
         command: CommandMessage<C>,
         waitPlan: WaitPlan
     ): Flux<CommandResult> {
-        return Flux.deferContextual {
-            val source = Flux.defer {
-                delegate.sendAndWaitStream(command, waitPlan)
-            }
-            TraceFlux(
-                parentContext = ReactorTraceContext.get(it),
-                instrumenter = WaitPlanInstrumenter.INSTRUMENTER,
-                request = command,
-                source = source,
-            )
+        return traceFlux(
+            WaitPlanInstrumenter.INSTRUMENTER,
+            WaitPlanInstrumenter.TAIL_SPAN_RECORDER,
+            samplingOptions,
+            command
+        ) {
+            delegate.sendAndWaitStream(command, waitPlan)
         }
     }
 
@@ -53,16 +53,13 @@ class TracingCommandGateway(override val delegate: CommandGateway) : Traced, Com
         command: CommandMessage<C>,
         waitPlan: WaitPlan
     ): Mono<CommandResult> {
-        return Mono.deferContextual {
-            val source = Mono.defer {
-                delegate.sendAndWait(command, waitPlan)
-            }
-            TraceMono(
-                parentContext = ReactorTraceContext.get(it),
-                instrumenter = WaitPlanInstrumenter.INSTRUMENTER,
-                request = command,
-                source = source,
-            )
+        return traceMono(
+            WaitPlanInstrumenter.INSTRUMENTER,
+            WaitPlanInstrumenter.TAIL_SPAN_RECORDER,
+            samplingOptions,
+            command
+        ) {
+            delegate.sendAndWait(command, waitPlan)
         }
     }
 
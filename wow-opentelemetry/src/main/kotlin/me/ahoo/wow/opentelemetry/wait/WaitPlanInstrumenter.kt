@@ -1,10 +1,12 @@
 package me.ahoo.wow.opentelemetry.wait
 
 import io.opentelemetry.api.GlobalOpenTelemetry
+import io.opentelemetry.api.trace.SpanKind
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter
 import io.opentelemetry.instrumentation.api.instrumenter.SpanNameExtractor
 import me.ahoo.wow.api.Wow
 import me.ahoo.wow.api.command.CommandMessage
+import me.ahoo.wow.opentelemetry.TailSpanRecorder
 import me.ahoo.wow.opentelemetry.WowInstrumenter.INSTRUMENTATION_NAME_PREFIX
 
 object WaitPlanInstrumenter {
@@ -17,6 +19,13 @@ object WaitPlanInstrumenter {
             WaitPlanSpaceNameExtractor,
         ).setInstrumentationVersion(Wow.VERSION)
             .buildInstrumenter()
+
+    val TAIL_SPAN_RECORDER: TailSpanRecorder<CommandMessage<*>> =
+        TailSpanRecorder(
+            INSTRUMENTATION_NAME,
+            WaitPlanSpaceNameExtractor,
+            SpanKind.INTERNAL,
+        )
 }
 
 object WaitPlanSpaceNameExtractor : SpanNameExtractor<CommandMessage<*>> {
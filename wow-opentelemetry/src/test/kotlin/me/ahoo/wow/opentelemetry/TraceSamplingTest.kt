@@ -0,0 +1,205 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.opentelemetry
+
+import io.mockk.every
+import io.mockk.just
+import io.mockk.mockk
+import io.mockk.runs
+import io.mockk.verify
+import io.opentelemetry.api.OpenTelemetry
+import io.opentelemetry.api.trace.Span
+import io.opentelemetry.api.trace.SpanContext
+import io.opentelemetry.api.trace.TraceFlags
+import io.opentelemetry.api.trace.TraceState
+import io.opentelemetry.context.Context
+import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter
+import io.opentelemetry.sdk.OpenTelemetrySdk
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.trace.ReadWriteSpan
+import io.opentelemetry.sdk.trace.ReadableSpan
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.SpanProcessor
+import me.ahoo.test.asserts.assert
+import org.junit.jupiter.api.Test
+import reactor.core.publisher.Mono
+import reactor.kotlin.test.test
+import java.time.Duration
+import java.util.concurrent.CopyOnWriteArrayList
+
+class TraceSamplingTest {
+
+    @Test
+    fun `parent based mode should skip wrapping for unsampled parent`() {
+        val instrumenter = mockk<Instrumenter<String, Unit>>()
+        val options = TraceSamplingOptions(mode = TraceSamplingMode.PARENT_BASED)
+
+        unsampledParent().makeCurrent().use {
+            traceMono(instrumenter, mockk(), options, REQUEST) { Mono.just(1) }
+                .test()
+                .expectNext(1)
+                .verifyComplete()
+        }
+
+        verify(exactly = 0) {
+            instrumenter.shouldStart(any(), any())
+            instrumenter.start(any(), any())
+        }
+    }
+
+    @Test
+    fun `always mode should wrap unsampled parent`() {
+        val parentContext = unsampledParent()
+        val instrumenter = mockk<Instrumenter<String, Unit>> {
+            every { shouldStart(parentContext, REQUEST) } returns true
+            every { start(parentContext, REQUEST) } returns parentContext
+            every { end(parentContext, REQUEST, null, null) } just runs
+        }
+
+        parentContext.makeCurrent().use {
+            traceMono(instrumenter, mockk(), TraceSamplingOptions(), REQUEST) { Mono.just(1) }
+                .test()
+                .expectNext(1)
+                .verifyComplete()
+        }
+
+        verify(exactly = 1) {
+            instrumenter.end(parentContext, REQUEST, null, null)
+        }
+    }
+
+    @Test
+    fun `unsampled check should ignore root and sampled parents`() {
+        val options = TraceSamplingOptions(mode = TraceSamplingMode.PARENT_BASED)
+        options.isUnsampled(Context.root()).assert().isFalse()
+        options.isUnsampled(parent(TraceFlags.getSampled())).assert().isFalse()
+        options.isUnsampled(unsampledParent()).assert().isTrue()
+    }
+
+    @Test
+    fun `always mode should be the default`() {
+        TraceSamplingOptions().mode.assert().isEqualTo(TraceSamplingMode.ALWAYS)
+        TraceSamplingOptions().isUnsampled(unsampledParent()).assert().isFalse()
+    }
+
+    @Test
+    fun `tail mode should not record fast successful publishers`() {
+        val options = TraceSamplingOptions(
+            mode = TraceSamplingMode.TAIL,
+            slowThreshold = Duration.ofSeconds(10),
+        )
+        val spans = CopyOnWriteArrayList<ReadableSpan>()
+        val openTelemetry = sdk(spans)
+
+        traceMono(sdkInstrumenter(openTelemetry), tailSpanRecorder(openTelemetry), options, REQUEST) { Mono.just(1) }
+            .test()
+            .expectNext(1)
+            .verifyComplete()
+
+        spans.assert().isEmpty()
+    }
+
+    @Test
+    fun `tail mode should record failed publishers`() {
+        val options = TraceSamplingOptions(
+            mode = TraceSamplingMode.TAIL,
+            slowThreshold = Duration.ofSeconds(10),
+        )
+        val spans = CopyOnWriteArrayList<ReadableSpan>()
+        val openTelemetry = sdk(spans)
+        val failure = IllegalStateException("failed")
+
+        traceMono(sdkInstrumenter(openTelemetry), tailSpanRecorder(openTelemetry), options, REQUEST) {
+            Mono.error<Int>(failure)
+        }
+            .test()
+            .expectErrorMatches { it === failure }
+            .verify()
+
+        spans.assert().hasSize(1)
+        spans.first().name.assert().isEqualTo(REQUEST)
+    }
+
+    @Test
+    fun `tail mode should record slow publishers`() {
+        val options = TraceSamplingOptions(
+            mode = TraceSamplingMode.TAIL,
+            slowThreshold = Duration.ofMillis(10),
+        )
+        val spans = CopyOnWriteArrayList<ReadableSpan>()
+        val openTelemetry = sdk(spans)
+
+        traceMono(sdkInstrumenter(openTelemetry), tailSpanRecorder(openTelemetry), options, REQUEST) {
+            Mono.delay(Duration.ofMillis(30)).thenReturn(1)
+        }.test()
+            .expectNext(1)
+            .verifyComplete()
+
+        spans.assert().hasSize(1)
+        spans.first().latencyNanos.assert().isGreaterThanOrEqualTo(Duration.ofMillis(10).toNanos())
+    }
+
+    private fun sdk(spans: MutableList<ReadableSpan>): OpenTelemetry =
+        OpenTelemetrySdk.builder()
+            .setTracerProvider(
+                SdkTracerProvider.builder()
+                    .addSpanProcessor(CollectingSpanProcessor(spans))
+                    .build()
+            )
+            .build()
+
+    private fun sdkInstrumenter(openTelemetry: OpenTelemetry): Instrumenter<String, Unit> =
+        Instrumenter.builder<String, Unit>(openTelemetry, INSTRUMENTATION_NAME) { it }
+            .buildInstrumenter()
+
+    private fun tailSpanRecorder(openTelemetry: OpenTelemetry): TailSpanRecorder<String> =
+        TailSpanRecorder(
+            instrumentationName = INSTRUMENTATION_NAME,
+            spanNameExtractor = { it },
+            openTelemetry = openTelemetry,
+        )
+
+    private class CollectingSpanProcessor(
+        private val spans: MutableList<ReadableSpan>
+    ) : SpanProcessor {
+        override fun onStart(parentContext: Context, span: ReadWriteSpan) = Unit
+
+        override fun isStartRequired(): Boolean = false
+
+        override fun onEnd(span: ReadableSpan) {
+            spans.add(span)
+        }
+
+        override fun isEndRequired(): Boolean = true
+
+        override fun shutdown(): CompletableResultCode = CompletableResultCode.ofSuccess()
+    }
+
+    companion object {
+        private const val REQUEST = "request"
+        private const val INSTRUMENTATION_NAME = "trace-sampling-test"
+
+        private fun unsampledParent(): Context = parent(TraceFlags.getDefault())
+
+        private fun parent(traceFlags: TraceFlags): Context {
+            val spanContext = SpanContext.create(
+                "0af7651916cd43dd8448eb211c80319c",
+                "b7ad6b7169203331",
+                traceFlags,
+                TraceState.getDefault(),
+            )
+            return Context.root().with(Span.wrap(spanContext))
+        }
+    }
+}
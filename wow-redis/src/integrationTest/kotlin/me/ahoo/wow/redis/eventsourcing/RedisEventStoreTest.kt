@@ -35,7 +35,7 @@ class RedisEventStoreTest : EventStoreSpec() {
     val redis = RedisTestFixture()
 
     override fun createEventStore(): EventStore {
-        return RedisEventStore(redis.redisTemplate)
+        return RedisEventStore(redis.redisTemplate, eventLog = true)
     }
 
     override fun loadEventStreamByEventTime() = Unit
@@ -0,0 +1,151 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.redis.eventsourcing
+
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.event.DomainEventStream
+import me.ahoo.wow.event.toDomainEventStream
+import me.ahoo.wow.eventsourcing.snapshot.SimpleSnapshot
+import me.ahoo.wow.id.generateGlobalId
+import me.ahoo.wow.modeling.aggregateId
+import me.ahoo.wow.modeling.annotation.aggregateMetadata
+import me.ahoo.wow.modeling.state.ConstructorStateAggregateFactory
+import me.ahoo.wow.modeling.state.StateAggregate
+import me.ahoo.wow.modeling.state.StateAggregateRepository
+import me.ahoo.wow.serialization.toJsonString
+import me.ahoo.wow.tck.container.RedisTestFixture
+import me.ahoo.wow.tck.mock.MockAggregateChanged
+import me.ahoo.wow.tck.mock.MockCommandAggregate
+import me.ahoo.wow.tck.mock.MockStateAggregate
+import me.ahoo.wow.test.aggregate.GivenInitializationCommand
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.extension.RegisterExtension
+import reactor.core.publisher.Mono
+import reactor.kotlin.test.test
+
+class RedisStateAggregateRepositoryTest {
+    @JvmField
+    @RegisterExtension
+    val redis = RedisTestFixture()
+
+    private val aggregateMetadata = aggregateMetadata<MockCommandAggregate, MockStateAggregate>()
+
+    private fun eventStream(aggregateId: AggregateId, version: Int): DomainEventStream =
+        MockAggregateChanged("data-$version").toDomainEventStream(
+            upstream = GivenInitializationCommand(aggregateId),
+            aggregateVersion = version - 1,
+        )
+
+    private fun repository(
+        delegate: StateAggregateRepository = mockk()
+    ): StateAggregateRepository =
+        RedisStateAggregateRepository(
+            redisTemplate = redis.redisTemplate,
+            stateAggregateFactory = ConstructorStateAggregateFactory,
+            delegate = delegate,
+        )
+
+    @Test
+    fun `should source event streams without snapshot`() {
+        val eventStore = RedisEventStore(redis.redisTemplate)
+        val aggregateId = aggregateMetadata.aggregateId(generateGlobalId())
+        eventStore.append(eventStream(aggregateId, 1)).block()
+        eventStore.append(eventStream(aggregateId, 2)).block()
+
+        repository().load(aggregateId, aggregateMetadata.state)
+            .test()
+            .consumeNextWith {
+                it.version.assert().isEqualTo(2)
+                it.state.data.assert().isEqualTo("data-2")
+            }
+            .verifyComplete()
+    }
+
+    @Test
+    fun `should continue colocated snapshot with event tail`() {
+        val eventStore = RedisEventStore(redis.redisTemplate)
+        val snapshotStore = RedisSnapshotStore(redis.redisTemplate, colocated = true)
+        val aggregateId = aggregateMetadata.aggregateId(generateGlobalId())
+        val stateAggregate = ConstructorStateAggregateFactory.create(aggregateMetadata.state, aggregateId)
+        val initialized = eventStream(aggregateId, 1)
+        eventStore.append(initialized).block()
+        stateAggregate.onSourcing(initialized)
+        snapshotStore.save(SimpleSnapshot(stateAggregate)).block()
+        eventStore.append(eventStream(aggregateId, 2)).block()
+
+        repository().load(aggregateId, aggregateMetadata.state)
+            .test()
+            .consumeNextWith {
+                it.version.assert().isEqualTo(2)
+                it.state.data.assert().isEqualTo("data-2")
+            }
+            .verifyComplete()
+    }
+
+    @Test
+    fun `should continue colocated snapshot saved without its version key`() {
+        val eventStore = RedisEventStore(redis.redisTemplate)
+        val aggregateId = aggregateMetadata.aggregateId(generateGlobalId())
+        val stateAggregate = ConstructorStateAggregateFactory.create(aggregateMetadata.state, aggregateId)
+        val initialized = eventStream(aggregateId, 1)
+        eventStore.append(initialized).block()
+        stateAggregate.onSourcing(initialized)
+        redis.redisTemplate.opsForValue()
+            .set(SnapshotKeyLayout.colocatedKey(aggregateId), SimpleSnapshot(stateAggregate).toJsonString())
+            .block()
+        eventStore.append(eventStream(aggregateId, 2)).block()
+
+        repository().load(aggregateId, aggregateMetadata.state)
+            .test()
+            .consumeNextWith {
+                it.version.assert().isEqualTo(2)
+                it.state.data.assert().isEqualTo("data-2")
+            }
+            .verifyComplete()
+    }
+
+    @Test
+    fun `should fall back to delegate when tail does not continue`() {
+        val aggregateId = aggregateMetadata.aggregateId(generateGlobalId())
+        redis.redisTemplate.opsForZSet()
+            .add(EventStreamKeyLayout.key(aggregateId), eventStream(aggregateId, 2).toJsonString(), 2.0)
+            .block()
+        val loaded = mockk<StateAggregate<MockStateAggregate>>()
+        val delegate = mockk<StateAggregateRepository> {
+            every { load(aggregateId, aggregateMetadata.state, Int.MAX_VALUE) } returns Mono.just(loaded)
+        }
+
+        repository(delegate).load(aggregateId, aggregateMetadata.state)
+            .test()
+            .expectNext(loaded)
+            .verifyComplete()
+    }
+
+    @Test
+    fun `should delegate versioned load`() {
+        val aggregateId = aggregateMetadata.aggregateId(generateGlobalId())
+        val delegate = mockk<StateAggregateRepository> {
+            every { load(aggregateId, aggregateMetadata.state, 1) } returns Mono.empty()
+        }
+
+        repository(delegate).load(aggregateId, aggregateMetadata.state, tailVersion = 1)
+            .test()
+            .verifyComplete()
+        verify { delegate.load(aggregateId, aggregateMetadata.state, 1) }
+    }
+}
@@ -18,11 +18,15 @@ import io.lettuce.core.RedisBusyException
 import me.ahoo.wow.api.messaging.Message
 import me.ahoo.wow.api.modeling.AggregateIdCapable
 import me.ahoo.wow.api.modeling.NamedAggregate
+import me.ahoo.wow.configuration.MetadataSearcher.isLocal
 import me.ahoo.wow.id.GlobalIdGenerator
 import me.ahoo.wow.messaging.DistributedMessageBus
+import me.ahoo.wow.messaging.LOCAL_FIRST_HEADER
 import me.ahoo.wow.messaging.MessageReceiver
 import me.ahoo.wow.messaging.MessageSubscription
 import me.ahoo.wow.messaging.handler.MessageExchange
+import me.ahoo.wow.messaging.isLocalFirst
+import me.ahoo.wow.messaging.isSkipLocalHandled
 import me.ahoo.wow.serialization.toJsonString
 import me.ahoo.wow.serialization.toObject
 import org.springframework.data.redis.connection.stream.Consumer
@@ -43,6 +47,12 @@ import java.util.concurrent.atomic.AtomicBoolean
 
 const val MESSAGE_FIELD = "msg"
 
+/**
+ * Stream field set on messages that the sender already delivered to a local receiver.
+ */
+const val LOCAL_FIRST_FIELD = LOCAL_FIRST_HEADER
+private val LOCAL_FIRST_FIELD_VALUE = true.toString()
+
 internal fun Throwable.isBusyGroup(): Boolean =
     generateSequence(this) { error -> error.cause }
         .filterIsInstance<RedisBusyException>()
@@ -58,15 +68,28 @@ abstract class AbstractRedisMessageBus<M, E>(
     private val pollTimeout: Duration = Duration.ofSeconds(2),
     private val recoveryOptions: RedisStreamRecoveryOptions = RedisStreamRecoveryOptions.DEFAULT,
     private val messageBusObserver: RedisMessageBusObserver = RedisMessageBusObserver.NOOP,
+    private val scalingOptions: RedisStreamScalingOptions = RedisStreamScalingOptions.DISABLED,
 ) : DistributedMessageBus<M, E>
     where M : Message<*, *>, M : AggregateIdCapable, M : NamedAggregate, E : MessageExchange<*, M> {
     private val streamOps = redisTemplate.opsForStream<String, String>()
     abstract val messageType: Class<M>
+
+    init {
+        require(!scalingOptions.enabled || recoveryOptions.enabled) {
+            "Redis Stream consumer scaling requires pending message recovery to be enabled."
+        }
+    }
+
     override fun send(message: M): Mono<Void> {
         return Mono.defer {
             message.withReadOnly()
             val topic = topicConverter.convert(message)
-            streamOps.add(topic, mapOf(MESSAGE_FIELD to message.toJsonString())).then()
+            val fields = if (message.isLocalFirst()) {
+                mapOf(MESSAGE_FIELD to message.toJsonString(), LOCAL_FIRST_FIELD to LOCAL_FIRST_FIELD_VALUE)
+            } else {
+                mapOf(MESSAGE_FIELD to message.toJsonString())
+            }
+            streamOps.add(topic, fields).then()
         }
     }
 
@@ -108,12 +131,15 @@ abstract class AbstractRedisMessageBus<M, E>(
         onReady: () -> Unit,
         readAdmission: Sinks.Empty<Void>?,
     ): Flux<E> {
-        val options = StreamReceiverOptions.builder().pollTimeout(pollTimeout)
-            .build()
-
-        return Flux.defer {
+        return Flux.deferContextual { contextView ->
             val group = subscription.receiverGroup
+            val skipLocalHandled = contextView.isSkipLocalHandled()
             val topics = subscription.namedAggregates.map(topicConverter::convert)
+            val skipLocalHandledTopics = if (skipLocalHandled) {
+                subscription.namedAggregates.filter { it.isLocal() }.map(topicConverter::convert).toSet()
+            } else {
+                emptySet()
+            }
             val createGroupPublisher = topics.map { topic ->
                 createGroup(topic, group)
             }.let { publishers ->
@@ -121,7 +147,7 @@ abstract class AbstractRedisMessageBus<M, E>(
             }
             val consumer = Consumer.from(group, GlobalIdGenerator.generateAsString())
             val streamOffsets = topics.map { topic ->
-                receive(topic, options, consumer, group)
+                receive(topic, consumer, group, topic in skipLocalHandledTopics)
             }
             val readPublisher = Flux.merge(streamOffsets)
             val effectiveReadAdmission = readAdmission ?: Sinks.empty()
@@ -154,23 +180,28 @@ abstract class AbstractRedisMessageBus<M, E>(
 
     private fun receive(
         topic: String,
-        options: StreamReceiverOptions<String, MapRecord<String, String, String>>,
         consumer: Consumer,
-        group: String
+        group: String,
+        skipLocalHandled: Boolean,
     ): Flux<E> {
-        val streamOffset = StreamOffset.create(topic, ReadOffset.lastConsumed())
-        val liveRecords = StreamReceiver.create(
-            redisTemplate.connectionFactory,
-            options
-        )
-            .receive(consumer, streamOffset)
-        val records = if (recoveryOptions.enabled) {
-            val leaseRegistry = DefaultRedisConsumerLeaseRegistry(redisTemplate, recoveryOptions)
-            val leasedLiveRecords = leaseRegistry.withLease(
-                topic = topic,
-                consumer = consumer,
-                source = liveRecords,
-            )
+        val leaseRegistry = if (recoveryOptions.enabled) {
+            DefaultRedisConsumerLeaseRegistry(redisTemplate, recoveryOptions)
+        } else {
+            null
+        }
+        val liveRecords = if (scalingOptions.enabled) {
+            RedisStreamConsumerScaler(
+                lagReader = DefaultRedisConsumerGroupLagReader(redisTemplate),
+                leaseRegistry = checkNotNull(leaseRegistry),
+                options = scalingOptions,
+                observer = messageBusObserver,
+            ).scale(topic, consumer) { member, batchSize ->
+                liveRecords(topic, member, batchSize, leaseRegistry)
+            }
+        } else {
+            liveRecords(topic, consumer, null, leaseRegistry)
+        }
+        val records = if (leaseRegistry != null) {
             val recoveredRecords = RedisPendingMessageRecoverer(
                 streamOps = streamOps,
                 scanner = DefaultRedisPendingMessageScanner(
@@ -181,19 +212,63 @@ abstract class AbstractRedisMessageBus<M, E>(
                 leaseRegistry = leaseRegistry,
                 options = recoveryOptions,
                 observer = messageBusObserver,
+                autoClaimer = DefaultRedisPendingMessageAutoClaimer(redisTemplate, streamOps),
             ).recover(topic, consumer)
             Flux.merge(
-                leasedLiveRecords,
+                liveRecords,
                 recoveredRecords,
             )
         } else {
             liveRecords
         }
-        return records.handle<E> { record, sink ->
+        val pendingRecords = if (skipLocalHandled) {
+            records.filterWhen { it.keepOrAcknowledge(topic, group) }
+        } else {
+            records
+        }
+        return pendingRecords.handle<E> { record, sink ->
             record.decode(topic, group, consumer.name, sink)
         }
     }
 
+    /**
+     * Reads new entries of [topic] as [consumer], holding its lease while reading when recovery is enabled.
+     *
+     * @param batchSize the `XREADGROUP COUNT`, or `null` for the receiver default.
+     */
+    private fun liveRecords(
+        topic: String,
+        consumer: Consumer,
+        batchSize: Int?,
+        leaseRegistry: RedisConsumerLeaseRegistry?,
+    ): Flux<MapRecord<String, String, String>> {
+        val optionsBuilder = StreamReceiverOptions.builder().pollTimeout(pollTimeout)
+        if (batchSize != null) {
+            optionsBuilder.batchSize(batchSize)
+        }
+        val records = StreamReceiver.create(
+            redisTemplate.connectionFactory,
+            optionsBuilder.build()
+        )
+            .receive(consumer, StreamOffset.create(topic, ReadOffset.lastConsumed()))
+        return leaseRegistry?.withLease(
+            topic = topic,
+            consumer = consumer,
+            source = records,
+        ) ?: records
+    }
+
+    /**
+     * Acknowledges and drops records that a local receiver of the sending instance already handled,
+     * using only the [LOCAL_FIRST_FIELD] field so that their message body is never decoded.
+     */
+    private fun MapRecord<String, String, String>.keepOrAcknowledge(topic: String, group: String): Mono<Boolean> {
+        if (value[LOCAL_FIRST_FIELD] != LOCAL_FIRST_FIELD_VALUE) {
+            return Mono.just(true)
+        }
+        return streamOps.acknowledge(topic, group, id).thenReturn(false)
+    }
+
     private fun MapRecord<String, String, String>.decode(
         topic: String,
         group: String,
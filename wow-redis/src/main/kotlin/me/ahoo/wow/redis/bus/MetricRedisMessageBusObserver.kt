@@ -0,0 +1,125 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.redis.bus
+
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Tags
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Publishes Redis stream consumption health as Micrometer meters.
+ *
+ * Lag, pending entries and in-process consumers are gauges per topic and consumer group; claims, claim failures
+ * and scaling decisions are counters. Meters are registered on first use and cached.
+ */
+class MetricRedisMessageBusObserver(
+    private val registry: MeterRegistry,
+) : RedisMessageBusObserver {
+    private val gauges = ConcurrentHashMap<GaugeKey, AtomicLong>()
+    private val counters = ConcurrentHashMap<CounterKey, Counter>()
+
+    override fun onObservation(observation: RedisMessageBusObservation) {
+        when (observation) {
+            is RedisMessageBusObservation.ConsumerGroupLagObserved -> {
+                observation.lag?.let { gauge(LAG, observation).set(it) }
+                gauge(PENDING, observation).set(observation.pendingMessages)
+                gauge(CONSUMERS, observation).set(observation.consumers.toLong())
+            }
+
+            is RedisMessageBusObservation.ConsumersScaled -> {
+                gauge(CONSUMERS, observation).set(observation.consumers.toLong())
+                val direction = if (observation.consumers > observation.previousConsumers) UP else DOWN
+                counter(SCALINGS, observation, DIRECTION_TAG, direction).increment()
+            }
+
+            is RedisMessageBusObservation.PendingClaimCompleted ->
+                counter(CLAIMED, observation, MODE_TAG, CLAIM_MODE)
+                    .increment(observation.claimedMessages.toDouble())
+
+            is RedisMessageBusObservation.PendingAutoClaimCompleted ->
+                counter(CLAIMED, observation, MODE_TAG, AUTO_CLAIM_MODE)
+                    .increment(observation.claimedMessages.toDouble())
+
+            is RedisMessageBusObservation.PendingClaimFailed ->
+                counter(CLAIM_FAILURES, observation, MODE_TAG, CLAIM_MODE).increment()
+
+            else -> Unit
+        }
+    }
+
+    private fun gauge(name: String, observation: RedisMessageBusObservation): AtomicLong {
+        val key = GaugeKey(name, observation.topic, observation.consumerGroup)
+        return gauges.computeIfAbsent(key) {
+            val value = AtomicLong()
+            Gauge.builder(name, value) { it.toDouble() }
+                .tags(it.tags())
+                .register(registry)
+            value
+        }
+    }
+
+    private fun counter(
+        name: String,
+        observation: RedisMessageBusObservation,
+        tagKey: String,
+        tagValue: String,
+    ): Counter {
+        val key = CounterKey(name, observation.topic, observation.consumerGroup, tagKey, tagValue)
+        return counters.computeIfAbsent(key) {
+            Counter.builder(name)
+                .tags(it.tags())
+                .register(registry)
+        }
+    }
+
+    private data class GaugeKey(
+        val name: String,
+        val topic: String,
+        val consumerGroup: String,
+    ) {
+        fun tags(): Tags = Tags.of(TOPIC_TAG, topic, CONSUMER_GROUP_TAG, consumerGroup)
+    }
+
+    private data class CounterKey(
+        val name: String,
+        val topic: String,
+        val consumerGroup: String,
+        val tagKey: String,
+        val tagValue: String,
+    ) {
+        fun tags(): Tags = Tags.of(TOPIC_TAG, topic, CONSUMER_GROUP_TAG, consumerGroup, tagKey, tagValue)
+    }
+
+    companion object {
+        const val LAG = "wow.redis.stream.lag"
+        const val PENDING = "wow.redis.stream.pending"
+        const val CONSUMERS = "wow.redis.stream.consumers"
+        const val CLAIMED = "wow.redis.stream.claimed"
+        const val CLAIM_FAILURES = "wow.redis.stream.claim.failures"
+        const val SCALINGS = "wow.redis.stream.scalings"
+
+        const val TOPIC_TAG = "topic"
+        const val CONSUMER_GROUP_TAG = "consumer_group"
+        const val MODE_TAG = "mode"
+        const val DIRECTION_TAG = "direction"
+
+        private const val CLAIM_MODE = "claim"
+        private const val AUTO_CLAIM_MODE = "auto_claim"
+        private const val UP = "up"
+        private const val DOWN = "down"
+    }
+}
@@ -26,6 +26,7 @@ class RedisCommandBus(
     pollTimeout: Duration = Duration.ofSeconds(2),
     recoveryOptions: RedisStreamRecoveryOptions = RedisStreamRecoveryOptions.DEFAULT,
     messageBusObserver: RedisMessageBusObserver = RedisMessageBusObserver.NOOP,
+    scalingOptions: RedisStreamScalingOptions = RedisStreamScalingOptions.DISABLED,
 ) : DistributedCommandBus,
     AbstractRedisMessageBus<CommandMessage<*>, ServerCommandExchange<*>>(
         redisTemplate,
@@ -33,6 +34,7 @@ class RedisCommandBus(
         pollTimeout,
         recoveryOptions,
         messageBusObserver,
+        scalingOptions,
     ) {
     override val messageType: Class<CommandMessage<*>>
         get() = CommandMessage::class.java
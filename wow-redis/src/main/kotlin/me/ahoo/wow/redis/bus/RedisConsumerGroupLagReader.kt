@@ -0,0 +1,88 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.redis.bus
+
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate
+import org.springframework.data.redis.core.script.RedisScript
+import reactor.core.publisher.Mono
+
+/**
+ * Consumer-group state reported by `XINFO GROUPS`.
+ *
+ * @param lag entries not yet delivered to the group, or `null` when Redis cannot tell (before Redis 7, or after
+ * entries were deleted from the stream).
+ * @param pendingMessages entries delivered to the group but not yet acknowledged.
+ */
+internal data class RedisConsumerGroupLag(
+    val lag: Long?,
+    val pendingMessages: Long,
+)
+
+internal fun interface RedisConsumerGroupLagReader {
+    fun read(topic: String, group: String): Mono<RedisConsumerGroupLag>
+}
+
+/**
+ * Reads the group entry of `XINFO GROUPS` with a small Lua wrapper, as the typed Spring Data view does not expose
+ * the `lag` field.
+ */
+@Suppress("UNCHECKED_CAST")
+internal class DefaultRedisConsumerGroupLagReader(
+    private val redisTemplate: ReactiveStringRedisTemplate,
+) : RedisConsumerGroupLagReader {
+    override fun read(topic: String, group: String): Mono<RedisConsumerGroupLag> {
+        return redisTemplate.execute(GROUP_LAG_SCRIPT, listOf(topic), listOf(group))
+            .next()
+            .filter { fields -> fields.size == FIELD_COUNT }
+            .map { fields ->
+                val lag = fields[1].asLong()
+                RedisConsumerGroupLag(
+                    lag = lag.takeIf { it >= 0 },
+                    pendingMessages = fields[0].asLong(),
+                )
+            }
+    }
+
+    private fun Any.asLong(): Long {
+        return when (this) {
+            is Number -> toLong()
+            else -> toString().toLong()
+        }
+    }
+
+    companion object {
+        private const val FIELD_COUNT = 2
+
+        private val GROUP_LAG_SCRIPT: RedisScript<List<Any>> = RedisScript.of(
+            """
+            local groups = redis.call('XINFO', 'GROUPS', KEYS[1])
+            for _, fields in ipairs(groups) do
+                local info = {}
+                for index = 1, #fields, 2 do
+                    info[fields[index]] = fields[index + 1]
+                end
+                if info['name'] == ARGV[1] then
+                    local lag = info['lag']
+                    if not lag then
+                        lag = -1
+                    end
+                    return { info['pending'], lag }
+                end
+            end
+            return {}
+            """.trimIndent(),
+            List::class.java as Class<List<Any>>,
+        )
+    }
+}
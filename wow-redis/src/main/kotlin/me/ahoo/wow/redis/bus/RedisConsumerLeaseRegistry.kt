@@ -37,6 +37,14 @@ internal interface RedisConsumerLeaseRegistry {
         group: String,
         consumerNames: Set<String>,
     ): Mono<Set<String>>
+
+    /**
+     * Counts the consumers of [group] across all instances that hold a lease or read recently.
+     */
+    fun countActiveConsumers(
+        topic: String,
+        group: String,
+    ): Mono<Int>
 }
 
 internal class DefaultRedisConsumerLeaseRegistry(
@@ -114,6 +122,17 @@ internal class DefaultRedisConsumerLeaseRegistry(
             }
     }
 
+    override fun countActiveConsumers(
+        topic: String,
+        group: String,
+    ): Mono<Int> {
+        return streamOps.consumers(topic, group)
+            .map { consumer -> consumer.consumerName() }
+            .collectList()
+            .flatMap { consumerNames -> findActiveConsumers(topic, group, consumerNames.toSet()) }
+            .map { activeConsumers -> activeConsumers.size }
+    }
+
     private fun acquire(topic: String, consumer: Consumer): Mono<Lease> {
         val lease = Lease(
             key = leaseKey(topic, consumer.group, consumer.name),
@@ -26,6 +26,7 @@ class RedisDomainEventBus(
     pollTimeout: Duration = Duration.ofSeconds(2),
     recoveryOptions: RedisStreamRecoveryOptions = RedisStreamRecoveryOptions.DEFAULT,
     messageBusObserver: RedisMessageBusObserver = RedisMessageBusObserver.NOOP,
+    scalingOptions: RedisStreamScalingOptions = RedisStreamScalingOptions.DISABLED,
 ) : DistributedDomainEventBus,
     AbstractRedisMessageBus<DomainEventStream, EventStreamExchange>(
         redisTemplate,
@@ -33,6 +34,7 @@ class RedisDomainEventBus(
         pollTimeout,
         recoveryOptions,
         messageBusObserver,
+        scalingOptions,
     ) {
     override val messageType: Class<DomainEventStream>
         get() = DomainEventStream::class.java
@@ -20,7 +20,10 @@ import io.github.oshai.kotlinlogging.KotlinLogging
  *
  * Implementations must be non-blocking. Callback failures are isolated from message delivery.
  * Metrics adapters should use the observation type, outcome, or [RedisRecordDecodeFailureReason]
- * as low-cardinality dimensions instead of topic, consumer-group, record, or message-type values.
+ * as low-cardinality dimensions instead of record or message-type values. Topic and consumer group are
+ * bounded by the subscribed aggregates and are only suitable for per-stream gauges such as the lag.
+ *
+ * @see MetricRedisMessageBusObserver
  */
 fun interface RedisMessageBusObserver {
     fun onObservation(observation: RedisMessageBusObservation)
@@ -68,6 +71,37 @@ sealed interface RedisMessageBusObservation {
         val failureType: String,
     ) : RedisMessageBusObservation
 
+    /**
+     * Completion of one `XAUTOCLAIM` page. [deletedMessages] counts pending entries whose stream entry no longer
+     * exists; Redis drops them from the pending list instead of claiming them.
+     */
+    data class PendingAutoClaimCompleted(
+        override val topic: String,
+        override val consumerGroup: String,
+        val claimedMessages: Long,
+        val deletedMessages: Long,
+    ) : RedisMessageBusObservation
+
+    /**
+     * @param lag entries not yet delivered to the group, or `null` when Redis cannot tell.
+     * @param consumers the in-process consumers currently reading the stream.
+     */
+    data class ConsumerGroupLagObserved(
+        override val topic: String,
+        override val consumerGroup: String,
+        val lag: Long?,
+        val pendingMessages: Long,
+        val consumers: Int,
+    ) : RedisMessageBusObservation
+
+    data class ConsumersScaled(
+        override val topic: String,
+        override val consumerGroup: String,
+        val previousConsumers: Int,
+        val consumers: Int,
+        val batchSize: Int,
+    ) : RedisMessageBusObservation
+
     data class RecordDecodeFailed(
         override val topic: String,
         override val consumerGroup: String,
@@ -0,0 +1,133 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.redis.bus
+
+import org.springframework.data.redis.connection.stream.Consumer
+import org.springframework.data.redis.connection.stream.MapRecord
+import org.springframework.data.redis.connection.stream.RecordId
+import org.springframework.data.redis.core.ReactiveStreamOperations
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate
+import org.springframework.data.redis.core.script.RedisScript
+import reactor.core.publisher.Mono
+import java.time.Duration
+
+internal data class RedisAutoClaimPage(
+    val nextStart: String,
+    val records: List<MapRecord<String, String, String>>,
+    val deletedMessages: Long,
+) {
+    val complete: Boolean
+        get() = nextStart == RedisPendingMessageAutoClaimer.START
+}
+
+/**
+ * Claims idle pending entries with `XAUTOCLAIM`, one page per call.
+ *
+ * `XAUTOCLAIM` cannot be restricted to a consumer, so [RedisPendingMessageRecoverer] only uses it when every
+ * consumer owning pending entries is inactive.
+ */
+internal interface RedisPendingMessageAutoClaimer {
+    /**
+     * Names of the consumers that own at least one pending entry of [group].
+     */
+    fun pendingOwners(topic: String, group: String): Mono<Set<String>>
+
+    fun claim(
+        topic: String,
+        consumer: Consumer,
+        minIdleTime: Duration,
+        start: String,
+        count: Long,
+    ): Mono<RedisAutoClaimPage>
+
+    companion object {
+        const val START = "0-0"
+    }
+}
+
+/**
+ * Flattens the nested `XAUTOCLAIM` reply in Lua so that it can be decoded without a dedicated reactive command.
+ */
+@Suppress("UNCHECKED_CAST")
+internal class DefaultRedisPendingMessageAutoClaimer(
+    private val redisTemplate: ReactiveStringRedisTemplate,
+    private val streamOps: ReactiveStreamOperations<String, String, String> = redisTemplate.opsForStream(),
+) : RedisPendingMessageAutoClaimer {
+    override fun pendingOwners(topic: String, group: String): Mono<Set<String>> {
+        return streamOps.pending(topic, group)
+            .map { summary ->
+                summary.pendingMessagesPerConsumer.filterValues { pending -> pending > 0 }.keys
+            }
+            .defaultIfEmpty(emptySet())
+    }
+
+    override fun claim(
+        topic: String,
+        consumer: Consumer,
+        minIdleTime: Duration,
+        start: String,
+        count: Long,
+    ): Mono<RedisAutoClaimPage> {
+        return redisTemplate.execute(
+            AUTO_CLAIM_SCRIPT,
+            listOf(topic),
+            listOf(consumer.group, consumer.name, minIdleTime.toMillis().toString(), start, count.toString()),
+        ).next()
+            .map { flattened -> flattened.toPage(topic) }
+    }
+
+    private fun List<Any>.toPage(topic: String): RedisAutoClaimPage {
+        val records = mutableListOf<MapRecord<String, String, String>>()
+        var index = HEADER_SIZE
+        while (index < size) {
+            val id = this[index].toString()
+            val fieldCount = this[index + 1].toString().toInt()
+            val fields = LinkedHashMap<String, String>(fieldCount / 2)
+            for (field in 0 until fieldCount step 2) {
+                fields[this[index + 2 + field].toString()] = this[index + 3 + field].toString()
+            }
+            records.add(MapRecord.create(topic, fields).withId(RecordId.of(id)))
+            index += 2 + fieldCount
+        }
+        return RedisAutoClaimPage(
+            nextStart = this[0].toString(),
+            records = records,
+            deletedMessages = this[1].toString().toLong(),
+        )
+    }
+
+    companion object {
+        private const val HEADER_SIZE = 2
+
+        private val AUTO_CLAIM_SCRIPT: RedisScript<List<Any>> = RedisScript.of(
+            """
+            local result = redis.call('XAUTOCLAIM', KEYS[1], ARGV[1], ARGV[2], ARGV[3], ARGV[4], 'COUNT', ARGV[5])
+            local deleted = result[3] or {}
+            local flattened = { result[1], #deleted }
+            for _, entry in ipairs(result[2]) do
+                local fields = entry[2]
+                if fields then
+                    flattened[#flattened + 1] = entry[1]
+                    flattened[#flattened + 1] = #fields
+                    for _, value in ipairs(fields) do
+                        flattened[#flattened + 1] = value
+                    end
+                end
+            end
+            return flattened
+            """.trimIndent(),
+            List::class.java as Class<List<Any>>,
+        )
+    }
+}
@@ -18,14 +18,23 @@ import org.springframework.data.redis.connection.stream.Consumer
 import org.springframework.data.redis.connection.stream.MapRecord
 import org.springframework.data.redis.core.ReactiveStreamOperations
 import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
 import java.util.concurrent.atomic.AtomicLong
 
+/**
+ * Periodically moves idle pending entries of inactive consumers to the current consumer.
+ *
+ * Each round either scans the pending list page by page and claims the entries of inactive consumers with
+ * `XCLAIM`, or, when [autoClaimer] is set and every consumer owning pending entries is inactive, claims them in
+ * batches with `XAUTOCLAIM`, which needs no separate scan.
+ */
 internal class RedisPendingMessageRecoverer(
     private val streamOps: ReactiveStreamOperations<String, String, String>,
     private val scanner: RedisPendingMessageScanner,
     private val leaseRegistry: RedisConsumerLeaseRegistry,
     private val options: RedisStreamRecoveryOptions,
     private val observer: RedisMessageBusObserver = RedisMessageBusObserver.NOOP,
+    private val autoClaimer: RedisPendingMessageAutoClaimer? = null,
 ) {
     fun recover(
         topic: String,
@@ -35,6 +44,24 @@ internal class RedisPendingMessageRecoverer(
             return Flux.empty()
         }
         return Flux.defer {
+            recoverRound(topic, consumer).onErrorResume { failure ->
+                log.warn(failure) {
+                    "Redis Stream pending-message recovery failed for topic [$topic] and consumer group " +
+                        "[${consumer.group}]; live delivery remains active and recovery will retry after " +
+                        "[${options.interval}]."
+                }
+                Flux.empty()
+            }
+        }.repeatWhen { completedSweeps ->
+            completedSweeps.delayElements(options.interval)
+        }
+    }
+
+    private fun recoverRound(
+        topic: String,
+        consumer: Consumer,
+    ): Flux<MapRecord<String, String, String>> {
+        val sweep = Flux.defer {
             recoverSweep(
                 topic = topic,
                 consumer = consumer,
@@ -43,19 +70,76 @@ internal class RedisPendingMessageRecoverer(
                     sweepEnd = null,
                     count = options.batchSize,
                 ),
-            ).onErrorResume { failure ->
-                log.warn(failure) {
-                    "Redis Stream pending-message recovery failed for topic [$topic] and consumer group " +
-                        "[${consumer.group}]; live delivery remains active and recovery will retry after " +
-                        "[${options.interval}]."
+            )
+        }
+        val claimer = autoClaimer ?: return sweep
+        return recoveryMode(claimer, topic, consumer).flatMapMany { mode ->
+            when (mode) {
+                RecoveryMode.NONE -> Flux.empty()
+                RecoveryMode.AUTO_CLAIM -> autoClaim(claimer, topic, consumer, RedisPendingMessageAutoClaimer.START)
+                RecoveryMode.SCAN -> sweep
+            }
+        }
+    }
+
+    private fun recoveryMode(
+        claimer: RedisPendingMessageAutoClaimer,
+        topic: String,
+        consumer: Consumer,
+    ): Mono<RecoveryMode> {
+        return claimer.pendingOwners(topic, consumer.group).flatMap { owners ->
+            when {
+                owners.isEmpty() -> Mono.just(RecoveryMode.NONE)
+                consumer.name in owners -> Mono.just(RecoveryMode.SCAN)
+                else -> leaseRegistry.findActiveConsumers(topic, consumer.group, owners).map { activeConsumers ->
+                    if (activeConsumers.isEmpty()) RecoveryMode.AUTO_CLAIM else RecoveryMode.SCAN
                 }
-                Flux.empty()
             }
-        }.repeatWhen { completedSweeps ->
-            completedSweeps.delayElements(options.interval)
         }
     }
 
+    private fun autoClaim(
+        claimer: RedisPendingMessageAutoClaimer,
+        topic: String,
+        consumer: Consumer,
+        start: String,
+    ): Flux<MapRecord<String, String, String>> {
+        return claimer.claim(topic, consumer, options.minIdleTime, start, options.batchSize)
+            .doOnNext { page ->
+                log.info {
+                    "Redis Stream pending-message auto-claim completed for topic [$topic] and consumer group " +
+                        "[${consumer.group}]: claimed [${page.records.size}], deleted [${page.deletedMessages}]."
+                }
+                observer.notifySafely(
+                    RedisMessageBusObservation.PendingAutoClaimCompleted(
+                        topic = topic,
+                        consumerGroup = consumer.group,
+                        claimedMessages = page.records.size.toLong(),
+                        deletedMessages = page.deletedMessages,
+                    ),
+                )
+            }
+            .doOnError { failure ->
+                observer.notifySafely(
+                    RedisMessageBusObservation.PendingClaimFailed(
+                        topic = topic,
+                        consumerGroup = consumer.group,
+                        requestedMessages = options.batchSize,
+                        claimedMessages = 0,
+                        failureType = failure.javaClass.name,
+                    ),
+                )
+            }
+            .flatMapMany { page ->
+                val nextPage = if (page.complete) {
+                    Flux.empty()
+                } else {
+                    Flux.defer { autoClaim(claimer, topic, consumer, page.nextStart) }
+                }
+                Flux.fromIterable(page.records).concatWith(nextPage)
+            }
+    }
+
     private fun recoverSweep(
         topic: String,
         consumer: Consumer,
@@ -174,6 +258,12 @@ internal class RedisPendingMessageRecoverer(
             .flatMapMany { claimedRecords -> Flux.fromIterable(claimedRecords) }
     }
 
+    private enum class RecoveryMode {
+        NONE,
+        AUTO_CLAIM,
+        SCAN,
+    }
+
     companion object {
         private val log = KotlinLogging.logger {}
     }
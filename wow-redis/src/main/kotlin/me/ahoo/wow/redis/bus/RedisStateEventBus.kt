@@ -26,6 +26,7 @@ class RedisStateEventBus(
     pollTimeout: Duration = Duration.ofSeconds(2),
     recoveryOptions: RedisStreamRecoveryOptions = RedisStreamRecoveryOptions.DEFAULT,
     messageBusObserver: RedisMessageBusObserver = RedisMessageBusObserver.NOOP,
+    scalingOptions: RedisStreamScalingOptions = RedisStreamScalingOptions.DISABLED,
 ) : DistributedStateEventBus,
     AbstractRedisMessageBus<StateEvent<*>, StateEventExchange<*>>(
         redisTemplate,
@@ -33,6 +34,7 @@ class RedisStateEventBus(
         pollTimeout,
         recoveryOptions,
         messageBusObserver,
+        scalingOptions,
     ) {
     override val messageType: Class<StateEvent<*>>
         get() = StateEvent::class.java
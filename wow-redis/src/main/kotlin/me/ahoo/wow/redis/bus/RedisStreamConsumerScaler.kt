@@ -0,0 +1,128 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.redis.bus
+
+import io.github.oshai.kotlinlogging.KotlinLogging
+import org.springframework.data.redis.connection.stream.Consumer
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import reactor.core.publisher.Sinks
+
+/**
+ * Runs between [RedisStreamScalingOptions.minConsumers] and [RedisStreamScalingOptions.maxConsumers] readers of
+ * one stream for one subscription, following the consumer-group lag.
+ *
+ * The first reader uses the subscription's consumer; additional readers use `<consumer>-<index>` so that each
+ * keeps its own pending entries and lease. A reader removed on scale-down stops reading; entries it had already
+ * received but not yet emitted stay pending under its name and are recovered once its lease has expired.
+ * Readers of the same subscription consume the stream concurrently and so lose the per-aggregate order.
+ *
+ * The scaling target is derived from this subscription's share of the group lag, the active consumers of the
+ * group across all instances being counted by [leaseRegistry].
+ */
+internal class RedisStreamConsumerScaler(
+    private val lagReader: RedisConsumerGroupLagReader,
+    private val leaseRegistry: RedisConsumerLeaseRegistry,
+    private val options: RedisStreamScalingOptions,
+    private val observer: RedisMessageBusObserver = RedisMessageBusObserver.NOOP,
+) {
+    /**
+     * @param reader opens a reader for a consumer with the given `XREADGROUP COUNT`.
+     */
+    fun <T : Any> scale(
+        topic: String,
+        consumer: Consumer,
+        reader: (Consumer, Int) -> Flux<T>,
+    ): Flux<T> {
+        return Flux.defer {
+            val readers = Sinks.many().unicast().onBackpressureBuffer<Flux<T>>()
+            val stops = ArrayDeque<Sinks.Empty<Void>>()
+
+            fun resize(target: Int, batchSize: Int) {
+                while (stops.size < target) {
+                    val stop = Sinks.empty<Void>()
+                    val member = consumer.member(stops.size)
+                    stops.addLast(stop)
+                    readers.tryEmitNext(reader(member, batchSize).takeUntilOther(stop.asMono()))
+                }
+                while (stops.size > target) {
+                    stops.removeLast().tryEmitEmpty()
+                }
+            }
+
+            resize(options.minConsumers, options.minBatchSize)
+            val scaling = Flux.interval(options.interval)
+                .concatMap { sample(topic, consumer.group) }
+                .doOnNext { (groupLag, activeConsumers) ->
+                    val current = stops.size
+                    observer.notifySafely(
+                        RedisMessageBusObservation.ConsumerGroupLagObserved(
+                            topic = topic,
+                            consumerGroup = consumer.group,
+                            lag = groupLag.lag,
+                            pendingMessages = groupLag.pendingMessages,
+                            consumers = current,
+                        ),
+                    )
+                    val lag = groupLag.lag ?: return@doOnNext
+                    val lagShare = options.lagShare(lag, current, activeConsumers)
+                    val target = options.targetConsumers(lagShare, current)
+                    if (target != current) {
+                        val batchSize = options.batchSize(lagShare, target)
+                        log.info {
+                            "Scaling Redis Stream consumers for topic [$topic] and consumer group " +
+                                "[${consumer.group}] from [$current] to [$target] at lag [$lag] shared by " +
+                                "[$activeConsumers] active consumers, batch size [$batchSize]."
+                        }
+                        observer.notifySafely(
+                            RedisMessageBusObservation.ConsumersScaled(
+                                topic = topic,
+                                consumerGroup = consumer.group,
+                                previousConsumers = current,
+                                consumers = target,
+                                batchSize = batchSize,
+                            ),
+                        )
+                        resize(target, batchSize)
+                    }
+                }
+                .thenMany(Flux.empty<T>())
+            Flux.merge(
+                readers.asFlux().flatMap({ it }, options.maxConsumers),
+                scaling,
+            )
+        }
+    }
+
+    private fun sample(topic: String, group: String): Mono<Pair<RedisConsumerGroupLag, Int>> {
+        return lagReader.read(topic, group)
+            .zipWith(leaseRegistry.countActiveConsumers(topic, group)) { groupLag, activeConsumers ->
+                groupLag to activeConsumers
+            }
+            .onErrorResume { failure ->
+                log.warn(failure) {
+                    "Failed to read the Redis Stream lag of topic [$topic] and consumer group [$group]; " +
+                        "keeping the current consumers until the next sample."
+                }
+                Mono.empty()
+            }
+    }
+
+    private fun Consumer.member(index: Int): Consumer =
+        if (index == 0) this else Consumer.from(group, "$name-$index")
+
+    companion object {
+        private val log = KotlinLogging.logger {}
+    }
+}
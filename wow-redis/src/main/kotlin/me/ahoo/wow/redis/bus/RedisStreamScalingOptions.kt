@@ -0,0 +1,89 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.redis.bus
+
+import java.time.Duration
+
+/**
+ * Lag-aware scaling of the in-process consumers that read one Redis Stream.
+ *
+ * Every [interval] the consumer-group lag reported by `XINFO GROUPS` is sampled. The lag is shared by every active
+ * consumer of the group, so each instance only takes the share of its own consumers, `lag * own / active`, with
+ * the active consumers counted from the consumer leases. The number of consumers is moved towards
+ * `ceil(share / lagPerConsumer)` within `[minConsumers, maxConsumers]`. Scaling up is immediate; scaling down
+ * removes one consumer per interval so that a draining backlog does not cause flapping. Each new consumer reads
+ * with an `XREADGROUP COUNT` of `share / consumers`, within `[minBatchSize, maxBatchSize]`.
+ *
+ * Scaling requires [RedisStreamRecoveryOptions.enabled]: the consumer leases count the active consumers, and the
+ * entries left pending by a removed consumer are only delivered again by recovery.
+ *
+ * Additional consumers read the stream concurrently, so events of the same aggregate may be handled out of order
+ * and concurrently by different consumers. Only enable scaling for handlers that do not depend on per-aggregate
+ * order.
+ */
+data class RedisStreamScalingOptions(
+    val enabled: Boolean = false,
+    val minConsumers: Int = 1,
+    val maxConsumers: Int = 4,
+    val lagPerConsumer: Long = 1000,
+    val interval: Duration = Duration.ofSeconds(10),
+    val minBatchSize: Int = 16,
+    val maxBatchSize: Int = 512,
+) {
+    init {
+        require(minConsumers > 0) {
+            "minConsumers must be positive."
+        }
+        require(maxConsumers >= minConsumers) {
+            "maxConsumers must be greater than or equal to minConsumers."
+        }
+        require(lagPerConsumer > 0) {
+            "lagPerConsumer must be positive."
+        }
+        require(interval >= MIN_DURATION) {
+            "interval must be at least 1 millisecond."
+        }
+        require(minBatchSize > 0) {
+            "minBatchSize must be positive."
+        }
+        require(maxBatchSize >= minBatchSize) {
+            "maxBatchSize must be greater than or equal to minBatchSize."
+        }
+    }
+
+    /**
+     * The part of the group [lag] that falls to [currentConsumers] out of the [activeConsumers] of the group.
+     * Consumers that have not read yet are not active for Redis, so the own consumers always count as active.
+     */
+    internal fun lagShare(lag: Long, currentConsumers: Int, activeConsumers: Int): Long =
+        lag * currentConsumers / maxOf(activeConsumers, currentConsumers)
+
+    internal fun targetConsumers(lag: Long, currentConsumers: Int): Int {
+        val demand = ((lag + lagPerConsumer - 1) / lagPerConsumer).coerceIn(
+            minConsumers.toLong(),
+            maxConsumers.toLong(),
+        ).toInt()
+        return if (demand < currentConsumers) currentConsumers - 1 else demand
+    }
+
+    internal fun batchSize(lag: Long, consumers: Int): Int =
+        (lag / consumers).coerceIn(minBatchSize.toLong(), maxBatchSize.toLong()).toInt()
+
+    companion object {
+        private val MIN_DURATION = Duration.ofMillis(1)
+
+        @JvmField
+        val DISABLED: RedisStreamScalingOptions = RedisStreamScalingOptions()
+    }
+}
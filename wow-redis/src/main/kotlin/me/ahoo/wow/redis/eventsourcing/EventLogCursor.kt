@@ -0,0 +1,45 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.redis.eventsourcing
+
+/**
+ * Encodes the position of a Redis event log read as the last stream entry id read per bucket.
+ *
+ * Buckets that have not been read yet are omitted, so [me.ahoo.wow.eventsourcing.EventLogReader.HEAD_POSITION]
+ * decodes to no cursors.
+ */
+internal object EventLogCursor {
+    private const val ENTRY_DELIMITER = ','
+    private const val BUCKET_DELIMITER = '='
+
+    fun decode(position: String): Map<Int, String> {
+        if (position.isEmpty()) {
+            return emptyMap()
+        }
+        return position.split(ENTRY_DELIMITER).associate { entry ->
+            val bucket = entry.substringBefore(BUCKET_DELIMITER, missingDelimiterValue = "")
+            val entryId = entry.substringAfter(BUCKET_DELIMITER, missingDelimiterValue = "")
+            require(bucket.isNotEmpty() && entryId.isNotEmpty()) {
+                "Invalid Redis event log position[$position]."
+            }
+            bucket.toInt() to entryId
+        }
+    }
+
+    fun encode(cursors: Map<Int, String>): String {
+        return cursors.entries
+            .sortedBy { it.key }
+            .joinToString(ENTRY_DELIMITER.toString()) { "${it.key}$BUCKET_DELIMITER${it.value}" }
+    }
+}
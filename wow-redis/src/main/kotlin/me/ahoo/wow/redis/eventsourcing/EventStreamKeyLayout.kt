@@ -38,6 +38,14 @@ internal object EventStreamKeyLayout {
         return namedAggregate.toAggregateIdIndexKey(mod(AGGREGATE_ID_INDEX_BUCKETS))
     }
 
+    fun NamedAggregate.toEventLogKey(bucket: Int): String {
+        return "${toHashTag(bucket)}${DELIMITER}log"
+    }
+
+    fun AggregateId.toEventLogKey(): String {
+        return namedAggregate.toEventLogKey(mod(AGGREGATE_ID_INDEX_BUCKETS))
+    }
+
     fun toAggregateIdIndexMember(aggregateId: AggregateId): String {
         return CanonicalRedisKeyCodec.encodeIndexMember(aggregateId)
     }
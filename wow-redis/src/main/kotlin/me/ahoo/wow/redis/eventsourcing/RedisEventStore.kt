@@ -20,6 +20,7 @@ import me.ahoo.wow.event.DomainEventStream
 import me.ahoo.wow.eventsourcing.AbstractEventStore
 import me.ahoo.wow.eventsourcing.AggregateIdScanner
 import me.ahoo.wow.eventsourcing.DuplicateAggregateIdException
+import me.ahoo.wow.eventsourcing.EventLogRecord
 import me.ahoo.wow.eventsourcing.EventVersionConflictException
 import me.ahoo.wow.exception.ErrorCodes
 import me.ahoo.wow.redis.RedisScripts
@@ -29,6 +30,7 @@ import me.ahoo.wow.redis.eventsourcing.EventStreamKeyLayout.toAggregateIdIndexKe
 import me.ahoo.wow.redis.eventsourcing.EventStreamKeyLayout.toAggregateIdIndexMember
 import me.ahoo.wow.redis.eventsourcing.EventStreamKeyLayout.toAggregateIdIndexMemberLowerBound
 import me.ahoo.wow.redis.eventsourcing.EventStreamKeyLayout.toAggregateIdIndexMemberPrefix
+import me.ahoo.wow.redis.eventsourcing.EventStreamKeyLayout.toEventLogKey
 import me.ahoo.wow.serialization.toJsonString
 import me.ahoo.wow.serialization.toObject
 import org.springframework.data.domain.Range
@@ -37,12 +39,33 @@ import org.springframework.data.redis.core.ReactiveStringRedisTemplate
 import org.springframework.data.redis.core.script.RedisScript
 import reactor.core.publisher.Flux
 import reactor.core.publisher.Mono
+import java.util.PriorityQueue
+import java.util.TreeMap
 
+/**
+ * Redis backed event store.
+ *
+ * @param eventLog when `true`, every append also adds the event stream to a per-bucket Redis stream of its
+ * named aggregate within the same script, which backs [readAll]. This stores each event stream twice.
+ * @param eventLogMaxLength the approximate number of entries each per-bucket event log keeps, trimmed with
+ * `XADD MAXLEN ~` on append; `0` keeps every entry. The event log is then a bounded tail: the aggregate event
+ * streams remain the source of truth, and [readAll] continues from the oldest retained entry of a bucket whose
+ * position has been trimmed away.
+ */
 class RedisEventStore(
-    private val redisTemplate: ReactiveStringRedisTemplate
+    private val redisTemplate: ReactiveStringRedisTemplate,
+    val eventLog: Boolean = false,
+    val eventLogMaxLength: Long = DEFAULT_EVENT_LOG_MAX_LENGTH,
 ) : AbstractEventStore() {
+    init {
+        require(eventLogMaxLength >= 0) { "eventLogMaxLength[$eventLogMaxLength] must not be negative." }
+    }
+
     companion object {
+        const val DEFAULT_EVENT_LOG_MAX_LENGTH = 100_000L
         internal const val AGGREGATE_ID_INDEX_SCAN_CONCURRENCY = 16
+        private const val EVENT_LOG_ID_FIELD = "id"
+        private const val EVENT_LOG_VALUE_FIELD = "value"
         internal val SCRIPT_EVENT_STREAM_APPEND: RedisScript<String> =
             RedisScripts.load("event_stream_append.lua", String::class.java)
     }
@@ -52,18 +75,21 @@ class RedisEventStore(
         val eventStreamKey = EventStreamKeyLayout.key(aggregateId)
         val aggregateIdIndexKey = aggregateId.toAggregateIdIndexKey()
         val requestIndexKey = EventStreamKeyLayout.requestIndexKey(aggregateId)
-        return redisTemplate.execute(
-            SCRIPT_EVENT_STREAM_APPEND,
-            listOf(eventStreamKey, aggregateIdIndexKey, requestIndexKey),
-            listOf(
-                eventStream.requestId,
-                eventStream.version.toString(),
-                eventStream.toJsonString(),
-                toAggregateIdIndexMember(aggregateId),
-                toAggregateIdIndexMemberPrefix(aggregateId.id),
-                toAggregateIdIndexMemberLowerBound(aggregateId.id),
-            ),
-        ).next()
+        val keys = mutableListOf(eventStreamKey, aggregateIdIndexKey, requestIndexKey)
+        val args = mutableListOf(
+            eventStream.requestId,
+            eventStream.version.toString(),
+            eventStream.toJsonString(),
+            toAggregateIdIndexMember(aggregateId),
+            toAggregateIdIndexMemberPrefix(aggregateId.id),
+            toAggregateIdIndexMemberLowerBound(aggregateId.id),
+        )
+        if (eventLog) {
+            keys.add(aggregateId.toEventLogKey())
+            args.add(eventStream.id)
+            args.add(eventLogMaxLength.toString())
+        }
+        return redisTemplate.execute(SCRIPT_EVENT_STREAM_APPEND, keys, args).next()
             .switchIfEmpty(Mono.error(IllegalStateException("Redis EventStore append script returned no result.")))
             .flatMap { handleAppendResult(eventStream, it) }
     }
@@ -156,4 +182,148 @@ class RedisEventStore(
                 toAggregateIdFromIndexMember(namedAggregate, it)
             }
     }
+
+    /**
+     * Reads the per-bucket event logs of [namedAggregate] and merges them by event stream id.
+     *
+     * Each bucket keeps its commit order, so streams of the same aggregate stay in version order; buckets are
+     * interleaved by event stream id, which follows stream creation time. The position records the last entry
+     * read from every bucket.
+     *
+     * Every bucket is first read for its share of [batchSize], and only a bucket whose entries run out while it
+     * still heads the merge is read again, for twice as many entries each time. A batch therefore reads on the
+     * order of [batchSize] entries plus one per bucket, however they are spread across buckets.
+     */
+    override fun readAll(
+        namedAggregate: NamedAggregate,
+        fromPosition: String,
+        batchSize: Int
+    ): Flux<EventLogRecord> {
+        if (!eventLog) {
+            return super.readAll(namedAggregate, fromPosition, batchSize)
+        }
+        require(batchSize > 0) { "batchSize[$batchSize] must be greater than 0." }
+        val cursors = EventLogCursor.decode(fromPosition)
+        val initialCount = (batchSize + AGGREGATE_ID_INDEX_BUCKETS - 1) / AGGREGATE_ID_INDEX_BUCKETS
+        return Flux.range(0, AGGREGATE_ID_INDEX_BUCKETS)
+            .flatMap(
+                { bucket ->
+                    readEventLogBucket(namedAggregate, EventLogBucket(bucket, cursors[bucket], initialCount))
+                },
+                AGGREGATE_ID_INDEX_SCAN_CONCURRENCY,
+            )
+            .collectList()
+            .flatMap { buckets ->
+                EventLogMerge(namedAggregate, cursors, batchSize, buckets).merge()
+            }
+            .flatMapIterable { it }
+    }
+
+    private fun readEventLogBucket(namedAggregate: NamedAggregate, bucket: EventLogBucket): Mono<EventLogBucket> {
+        val lowerBound = bucket.lastEntryId?.let { Range.Bound.exclusive(it) } ?: Range.Bound.unbounded<String>()
+        return redisTemplate.opsForStream<String, String>()
+            .range(
+                namedAggregate.toEventLogKey(bucket.bucket),
+                Range.of(lowerBound, Range.Bound.unbounded()),
+                Limit.limit().count(bucket.requested),
+            )
+            .map {
+                EventLogEntry(
+                    entryId = it.id.value,
+                    eventStreamId = checkNotNull(it.value[EVENT_LOG_ID_FIELD]),
+                    value = checkNotNull(it.value[EVENT_LOG_VALUE_FIELD]),
+                )
+            }
+            .collectList()
+            .map { bucket.buffer(it) }
+    }
+
+    private inner class EventLogMerge(
+        private val namedAggregate: NamedAggregate,
+        cursors: Map<Int, String>,
+        private val batchSize: Int,
+        buckets: List<EventLogBucket>,
+    ) {
+        private val heads = PriorityQueue<EventLogBucket>(compareBy { it.entries.first().eventStreamId })
+        private val drained = ArrayList<EventLogBucket>()
+        private val positions = TreeMap(cursors)
+        private val records = ArrayList<EventLogRecord>(batchSize)
+
+        init {
+            buckets.forEach(::offer)
+        }
+
+        /**
+         * Takes the lowest entry of the bucket heads until the batch is full, and reads the buckets that ran dry
+         * first whenever one of them may hold the next lowest entry.
+         */
+        fun merge(): Mono<List<EventLogRecord>> {
+            while (records.size < batchSize) {
+                if (drained.isNotEmpty()) {
+                    return refill().then(Mono.defer { merge() })
+                }
+                val bucket = heads.poll() ?: break
+                val entry = bucket.entries.removeFirst()
+                positions[bucket.bucket] = entry.entryId
+                records.add(EventLogRecord(EventLogCursor.encode(positions), entry.value.toObject()))
+                offer(bucket)
+            }
+            return Mono.just(records)
+        }
+
+        private fun refill(): Mono<Void> {
+            val remaining = batchSize - records.size
+            val refilling = drained.map { it.next(remaining) }
+            drained.clear()
+            return Flux.fromIterable(refilling)
+                .flatMap({ readEventLogBucket(namedAggregate, it) }, AGGREGATE_ID_INDEX_SCAN_CONCURRENCY)
+                .doOnNext(::offer)
+                .then()
+        }
+
+        private fun offer(bucket: EventLogBucket) {
+            when {
+                bucket.entries.isNotEmpty() -> heads.add(bucket)
+                !bucket.exhausted -> drained.add(bucket)
+            }
+        }
+    }
+
+    /**
+     * The buffered entries of one bucket, read after [lastEntryId] with a limit of [requested].
+     */
+    private class EventLogBucket(
+        val bucket: Int,
+        val lastEntryId: String?,
+        val requested: Int,
+    ) {
+        val entries = ArrayDeque<EventLogEntry>()
+        private var lastReadEntryId: String? = lastEntryId
+
+        /**
+         * Whether the last read returned fewer entries than [requested], so the bucket has no more.
+         */
+        var exhausted: Boolean = false
+            private set
+
+        fun buffer(read: List<EventLogEntry>): EventLogBucket {
+            entries.addAll(read)
+            read.lastOrNull()?.let { lastReadEntryId = it.entryId }
+            exhausted = read.size < requested
+            return this
+        }
+
+        /**
+         * Returns the read that follows this one, for twice as many entries but no more than [remaining].
+         */
+        fun next(remaining: Int): EventLogBucket {
+            return EventLogBucket(bucket, lastReadEntryId, minOf(requested * 2, remaining))
+        }
+    }
+
+    private data class EventLogEntry(
+        val entryId: String,
+        val eventStreamId: String,
+        val value: String,
+    )
 }
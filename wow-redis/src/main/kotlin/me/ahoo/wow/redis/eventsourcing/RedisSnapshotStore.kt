@@ -16,18 +16,32 @@ package me.ahoo.wow.redis.eventsourcing
 import me.ahoo.wow.api.modeling.AggregateId
 import me.ahoo.wow.eventsourcing.snapshot.Snapshot
 import me.ahoo.wow.eventsourcing.snapshot.SnapshotStore
+import me.ahoo.wow.eventsourcing.snapshot.compression.SnapshotStateCompression
+import me.ahoo.wow.eventsourcing.snapshot.compression.compressState
+import me.ahoo.wow.eventsourcing.snapshot.compression.inflateState
 import me.ahoo.wow.redis.RedisScripts
 import me.ahoo.wow.serialization.MessageRecords
 import me.ahoo.wow.serialization.toJsonNode
 import me.ahoo.wow.serialization.toJsonString
 import me.ahoo.wow.serialization.toObject
+import me.ahoo.wow.serialization.toObjectNode
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate
 import org.springframework.data.redis.core.script.RedisScript
 import reactor.core.publisher.Mono
 import tools.jackson.databind.node.ObjectNode
 
+/**
+ * Redis backed snapshot store.
+ *
+ * @param stateCompression compresses the `state` field of opted-in aggregates, Base64 encoded within the JSON value.
+ * @param colocated when `true`, snapshots are stored under the hash tag of the aggregate's event stream
+ * (see [SnapshotKeyLayout.colocatedKey]), which [RedisStateAggregateRepository] requires. Snapshots stored under
+ * the standalone layout are not read in this mode and are rebuilt from events.
+ */
 class RedisSnapshotStore(
-    private val redisTemplate: ReactiveStringRedisTemplate
+    private val redisTemplate: ReactiveStringRedisTemplate,
+    private val stateCompression: SnapshotStateCompression = SnapshotStateCompression.NONE,
+    val colocated: Boolean = false
 ) : SnapshotStore {
     companion object {
         const val NAME = "redis"
@@ -39,19 +53,26 @@ class RedisSnapshotStore(
         get() = NAME
 
     override fun <S : Any> load(aggregateId: AggregateId): Mono<Snapshot<S>> {
-        val snapshotKey = SnapshotKeyLayout.key(aggregateId)
+        val snapshotKey = SnapshotKeyLayout.key(aggregateId, colocated)
         return redisTemplate.opsForValue()
             .get(snapshotKey)
-            .map { it.toObject<Snapshot<S>>() }
+            .map {
+                if (stateCompression.enabled) {
+                    it.toObjectNode().inflateState(stateCompression).toObject<Snapshot<S>>()
+                } else {
+                    it.toObject<Snapshot<S>>()
+                }
+            }
     }
 
     override fun <S : Any> save(snapshot: Snapshot<S>): Mono<Void> {
-        val snapshotKey = SnapshotKeyLayout.key(snapshot.aggregateId)
-        val snapshotNode: ObjectNode = snapshot.toJsonNode()
+        val snapshotKey = SnapshotKeyLayout.key(snapshot.aggregateId, colocated)
+        val snapshotNode: ObjectNode = snapshot.toJsonNode<ObjectNode>()
+            .compressState(snapshot.aggregateId, stateCompression)
         val snapshotVersion = snapshotNode.requiredSnapshotVersion()
         return redisTemplate.execute(
             SCRIPT_SAVE_SNAPSHOT,
-            listOf(snapshotKey),
+            listOf(snapshotKey, SnapshotKeyLayout.versionKey(snapshotKey)),
             listOf(snapshotVersion.toString(), snapshotNode.toJsonString()),
         ).then()
     }
@@ -0,0 +1,120 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.redis.eventsourcing
+
+import io.github.oshai.kotlinlogging.KotlinLogging
+import me.ahoo.wow.api.modeling.AggregateId
+import me.ahoo.wow.api.modeling.NamedAggregate
+import me.ahoo.wow.event.DomainEventStream
+import me.ahoo.wow.eventsourcing.snapshot.Snapshot
+import me.ahoo.wow.eventsourcing.snapshot.compression.SnapshotStateCompression
+import me.ahoo.wow.eventsourcing.snapshot.compression.inflateState
+import me.ahoo.wow.modeling.metadata.StateAggregateMetadata
+import me.ahoo.wow.modeling.state.ConstructorStateAggregateFactory.toStateAggregate
+import me.ahoo.wow.modeling.state.StateAggregate
+import me.ahoo.wow.modeling.state.StateAggregateFactory
+import me.ahoo.wow.modeling.state.StateAggregateRepository
+import me.ahoo.wow.redis.RedisScripts
+import me.ahoo.wow.serialization.toObject
+import me.ahoo.wow.serialization.toObjectNode
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate
+import org.springframework.data.redis.core.script.RedisScript
+import reactor.core.publisher.Mono
+import tools.jackson.databind.node.ObjectNode
+
+/**
+ * Redis [StateAggregateRepository] that loads the latest version of an aggregate in one round trip.
+ *
+ * A single script reads the co-located snapshot (see [RedisSnapshotStore.colocated]) and the event streams
+ * after it, which share the hash tag of the aggregate's event stream and therefore one cluster slot. The
+ * read is atomic, so the tail always continues the snapshot it was read with.
+ *
+ * Versioned and event-time loads, aggregates that [colocated] rejects, and tails that do not continue the
+ * snapshot (e.g. when the head of the stream was archived) are served by [delegate].
+ *
+ * @param colocated whether both the event stream and the snapshot of an aggregate are stored in this Redis
+ * with the co-located layout.
+ */
+class RedisStateAggregateRepository(
+    private val redisTemplate: ReactiveStringRedisTemplate,
+    private val stateAggregateFactory: StateAggregateFactory,
+    private val delegate: StateAggregateRepository,
+    private val stateCompression: SnapshotStateCompression = SnapshotStateCompression.NONE,
+    private val colocated: (NamedAggregate) -> Boolean = { true }
+) : StateAggregateRepository {
+    companion object {
+        private val log = KotlinLogging.logger {}
+        private const val SNAPSHOT_FIELD = "snapshot"
+        private const val EVENT_STREAMS_FIELD = "eventStreams"
+        private val SCRIPT_AGGREGATE_LOAD: RedisScript<String> =
+            RedisScripts.load("aggregate_load.lua", String::class.java)
+    }
+
+    override fun <S : Any> load(
+        aggregateId: AggregateId,
+        metadata: StateAggregateMetadata<S>,
+        tailVersion: Int
+    ): Mono<StateAggregate<S>> {
+        if (tailVersion != Int.MAX_VALUE || !colocated(aggregateId.namedAggregate)) {
+            return delegate.load(aggregateId, metadata, tailVersion)
+        }
+        val snapshotKey = SnapshotKeyLayout.colocatedKey(aggregateId)
+        val keys = listOf(snapshotKey, EventStreamKeyLayout.key(aggregateId), SnapshotKeyLayout.versionKey(snapshotKey))
+        return redisTemplate.execute(SCRIPT_AGGREGATE_LOAD, keys).next()
+            .switchIfEmpty(Mono.error(IllegalStateException("Redis aggregate load script returned no result.")))
+            .flatMap { source(aggregateId, metadata, it.toObjectNode()) }
+    }
+
+    private fun <S : Any> source(
+        aggregateId: AggregateId,
+        metadata: StateAggregateMetadata<S>,
+        result: ObjectNode
+    ): Mono<StateAggregate<S>> {
+        val snapshotNode = result[SNAPSHOT_FIELD]
+        val loadStateAggregate = if (snapshotNode == null || snapshotNode.isNull) {
+            stateAggregateFactory.createAsMono(metadata, aggregateId)
+        } else {
+            Mono.fromCallable { (snapshotNode as ObjectNode).toSnapshot<S>().toStateAggregate() }
+        }
+        return loadStateAggregate.flatMap { stateAggregate ->
+            val eventStreamNodes = result.required(EVENT_STREAMS_FIELD)
+            val eventStreams = List(eventStreamNodes.size()) {
+                eventStreamNodes[it].toObject<DomainEventStream>()
+            }
+            val headVersion = eventStreams.firstOrNull()?.version
+            if (headVersion != null && headVersion != stateAggregate.expectedNextVersion) {
+                log.debug {
+                    "Load $aggregateId: event stream head version[$headVersion] does not continue " +
+                        "version[${stateAggregate.version}], falling back to delegate."
+                }
+                return@flatMap delegate.load(aggregateId, metadata, tailVersion = Int.MAX_VALUE)
+            }
+            eventStreams.forEach { stateAggregate.onSourcing(it) }
+            Mono.just(stateAggregate)
+        }
+    }
+
+    private fun <S : Any> ObjectNode.toSnapshot(): Snapshot<S> =
+        if (stateCompression.enabled) {
+            inflateState(stateCompression).toObject()
+        } else {
+            toObject()
+        }
+
+    override fun <S : Any> load(
+        aggregateId: AggregateId,
+        metadata: StateAggregateMetadata<S>,
+        tailEventTime: Long
+    ): Mono<StateAggregate<S>> = delegate.load(aggregateId, metadata, tailEventTime)
+}
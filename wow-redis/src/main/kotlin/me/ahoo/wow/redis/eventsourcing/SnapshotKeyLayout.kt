@@ -24,4 +24,19 @@ internal object SnapshotKeyLayout {
         val identity = CanonicalRedisKeyCodec.encodeIdentity(aggregateId)
         return "$LAYOUT_PREFIX$DELIMITER{$scope.$identity}"
     }
+
+    /**
+     * Places the snapshot next to the event stream of the aggregate, under the same hash tag, so that a single
+     * script can read both in one cluster slot.
+     */
+    fun colocatedKey(aggregateId: AggregateId): String = "${EventStreamKeyLayout.key(aggregateId)}${DELIMITER}snapshot"
+
+    fun key(aggregateId: AggregateId, colocated: Boolean): String =
+        if (colocated) colocatedKey(aggregateId) else key(aggregateId)
+
+    /**
+     * Holds the version of the snapshot stored under [snapshotKey], in the same cluster slot, so that scripts can
+     * compare versions without decoding the snapshot.
+     */
+    fun versionKey(snapshotKey: String): String = "$snapshotKey${DELIMITER}version"
 }
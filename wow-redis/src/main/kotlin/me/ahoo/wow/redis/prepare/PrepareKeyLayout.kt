@@ -18,9 +18,18 @@ import me.ahoo.wow.redis.RedisKeyComponentCodec
 internal object PrepareKeyLayout {
     private const val LAYOUT_PREFIX = "v2:prepare"
 
-    fun key(name: String, key: String): String {
+    /**
+     * Without a [hashTag], every key hashes to its own Redis Cluster slot. Prepare keys sharing a
+     * [hashTag] keep all of their keys in the slot of that tag, so they can be prepared together.
+     */
+    fun key(name: String, key: String, hashTag: String? = null): String {
         require(name.isNotEmpty()) { "Prepare key name must not be empty." }
         require(key.isNotEmpty()) { "Prepare key must not be empty." }
-        return "$LAYOUT_PREFIX:{${RedisKeyComponentCodec.encode(name)}.${RedisKeyComponentCodec.encode(key)}}"
+        val encodedKey = "${RedisKeyComponentCodec.encode(name)}.${RedisKeyComponentCodec.encode(key)}"
+        if (hashTag == null) {
+            return "$LAYOUT_PREFIX:{$encodedKey}"
+        }
+        require(hashTag.isNotEmpty()) { "Prepare hash tag must not be empty." }
+        return "$LAYOUT_PREFIX:{${RedisKeyComponentCodec.encode(hashTag)}}:$encodedKey"
     }
 }
@@ -13,12 +13,18 @@
 
 package me.ahoo.wow.redis.prepare
 
+import io.lettuce.core.cluster.SlotHash
+import me.ahoo.wow.infra.prepare.MultiPrepareKey
+import me.ahoo.wow.infra.prepare.PrepareEntry
 import me.ahoo.wow.infra.prepare.PrepareKey
 import me.ahoo.wow.infra.prepare.PreparedValue
 import me.ahoo.wow.infra.prepare.PreparedValue.Companion.toTtlAt
+import me.ahoo.wow.infra.prepare.entry
+import me.ahoo.wow.infra.prepare.prepareAll
 import me.ahoo.wow.redis.RedisScripts
 import me.ahoo.wow.serialization.toJsonString
 import me.ahoo.wow.serialization.toObject
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate
 import org.springframework.data.redis.core.script.RedisScript
 import reactor.core.publisher.Mono
@@ -26,15 +32,31 @@ import reactor.core.publisher.Mono
 private const val VALUE_FIELD = "value"
 private const val TTL_AT_FIELD = "ttlAt"
 
+/**
+ * Redis-backed [PrepareKey] storing each prepared key as a hash.
+ *
+ * [prepareAll], and [prepareEntries] for entries of several Redis prepare keys on the same template,
+ * check and write every key in one script. A script cannot span Redis Cluster slots, and by default
+ * every key hashes to its own slot, so against a cluster such calls fall back to preparing the keys
+ * one at a time with compensating rollbacks. Give the prepare keys that are prepared together the
+ * same [hashTag] to keep their keys in one slot and the calls atomic; that slot then holds every key
+ * of those prepare keys. Changing the [hashTag] of a prepare key orphans the keys it already holds.
+ *
+ * @param hashTag Redis Cluster hash tag shared by the keys of this prepare key, `null` for one slot per key.
+ */
 class RedisPrepareKey<V : Any>(
     override val name: String,
     private val valueType: Class<V>,
-    private val redisTemplate: ReactiveStringRedisTemplate
-) : PrepareKey<V> {
+    private val redisTemplate: ReactiveStringRedisTemplate,
+    private val hashTag: String? = null
+) : PrepareKey<V>, MultiPrepareKey {
     companion object {
         private val SCRIPT_PREPARE_PREPARE: RedisScript<Boolean> =
             RedisScripts.load("prepare_prepare.lua", Boolean::class.java)
 
+        private val SCRIPT_PREPARE_PREPARE_ALL: RedisScript<Boolean> =
+            RedisScripts.load("prepare_prepare_all.lua", Boolean::class.java)
+
         private val SCRIPT_PREPARE_REPREPARE: RedisScript<Boolean> =
             RedisScripts.load("prepare_reprepare.lua", Boolean::class.java)
 
@@ -57,7 +79,11 @@ class RedisPrepareKey<V : Any>(
         return value.toTtlAt(ttlAt)
     }
 
-    private fun redisKey(key: String): String = PrepareKeyLayout.key(name, key)
+    private val clusterAware: Boolean by lazy {
+        (redisTemplate.connectionFactory as? LettuceConnectionFactory)?.isClusterAware ?: false
+    }
+
+    private fun redisKey(key: String): String = PrepareKeyLayout.key(name, key, hashTag)
 
     override fun prepare(key: String, value: PreparedValue<V>): Mono<Boolean> {
         return redisTemplate.execute(
@@ -71,6 +97,36 @@ class RedisPrepareKey<V : Any>(
         ).next()
     }
 
+    override fun prepareAll(values: Map<String, PreparedValue<V>>): Mono<Boolean> =
+        values.map { entry(it.key, it.value) }.prepareAll()
+
+    override fun canPrepareEntries(entries: List<PrepareEntry<*>>): Boolean {
+        val prepareKeys = entries.map { it.prepareKey as? RedisPrepareKey<*> ?: return false }
+        if (prepareKeys.any { it.redisTemplate !== redisTemplate }) {
+            return false
+        }
+        if (!clusterAware) {
+            return true
+        }
+        return entries.zip(prepareKeys)
+            .distinctBy { (entry, prepareKey) -> SlotHash.getSlot(prepareKey.redisKey(entry.key)) }
+            .size == 1
+    }
+
+    override fun prepareEntries(entries: List<PrepareEntry<*>>): Mono<Boolean> {
+        if (entries.isEmpty()) {
+            return Mono.just(true)
+        }
+        val redisKeys = entries.map { (it.prepareKey as RedisPrepareKey<*>).redisKey(it.key) }
+        val args = ArrayList<String>(entries.size * 2 + 1)
+        args.add(System.currentTimeMillis().toString())
+        entries.forEach {
+            args.add(it.value.ttlAt.toString())
+            args.add(it.value.value.toJsonString())
+        }
+        return redisTemplate.execute(SCRIPT_PREPARE_PREPARE_ALL, redisKeys, args).next()
+    }
+
     override fun getValue(key: String): Mono<PreparedValue<V>> {
         return redisTemplate.opsForHash<String, String>().entries(redisKey(key))
             .collectMap({ it.key }, { it.value })
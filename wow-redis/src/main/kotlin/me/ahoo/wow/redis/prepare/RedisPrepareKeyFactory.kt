@@ -17,8 +17,14 @@ import me.ahoo.wow.infra.prepare.PrepareKey
 import me.ahoo.wow.infra.prepare.PrepareKeyFactory
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate
 
-class RedisPrepareKeyFactory(private val redisTemplate: ReactiveStringRedisTemplate) : PrepareKeyFactory {
+/**
+ * @param hashTags Redis Cluster hash tags by prepare key name; see [RedisPrepareKey].
+ */
+class RedisPrepareKeyFactory(
+    private val redisTemplate: ReactiveStringRedisTemplate,
+    private val hashTags: Map<String, String> = emptyMap()
+) : PrepareKeyFactory {
     override fun <V : Any> create(name: String, valueClass: Class<V>): PrepareKey<V> {
-        return RedisPrepareKey(name, valueClass, redisTemplate)
+        return RedisPrepareKey(name, valueClass, redisTemplate, hashTags[name])
     }
 }
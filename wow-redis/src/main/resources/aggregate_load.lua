@@ -0,0 +1,22 @@
+local snapshotKey = KEYS[1];
+local eventStreamKey = KEYS[2];
+local snapshotVersionKey = KEYS[3];
+
+local snapshot = redis.call("GET", snapshotKey);
+local headVersion = 1;
+if snapshot then
+    local snapshotVersion = tonumber(redis.call("GET", snapshotVersionKey));
+    if snapshotVersion == nil then
+        -- Saved before the version was stored next to the snapshot.
+        snapshotVersion = tonumber(cjson.decode(snapshot)["version"]);
+    end
+    if snapshotVersion == nil then
+        error("Stored Wow snapshot has no numeric version.");
+    end
+    headVersion = snapshotVersion + 1;
+else
+    snapshot = "null";
+end
+
+local eventStreams = redis.call("ZRANGEBYSCORE", eventStreamKey, headVersion, "+inf");
+return '{"snapshot":' .. snapshot .. ',"eventStreams":[' .. table.concat(eventStreams, ",") .. ']}';
@@ -1,6 +1,7 @@
 local eventStreamKey = KEYS[1];
 local aggregateIdIndexKey = KEYS[2];
 local requestIdxKey = KEYS[3];
+local eventLogKey = KEYS[4];
 
 local requestId = ARGV[1];
 local version = tonumber(ARGV[2]);
@@ -8,6 +9,8 @@ local value = ARGV[3];
 local aggregateIdIndexMember = ARGV[4];
 local aggregateIdIndexMemberPrefix = ARGV[5];
 local aggregateIdIndexMemberUpperBound = ARGV[6];
+local eventStreamId = ARGV[7];
+local eventLogMaxLength = tonumber(ARGV[8]);
 
 local count = redis.call("ZCARD", eventStreamKey)
 if count ~= (version - 1) then
@@ -35,6 +38,13 @@ if added == 0 then
 end
 
 redis.call("ZADD", eventStreamKey, version, value);
+if eventLogKey then
+    if eventLogMaxLength > 0 then
+        redis.call("XADD", eventLogKey, "MAXLEN", "~", eventLogMaxLength, "*", "id", eventStreamId, "value", value);
+    else
+        redis.call("XADD", eventLogKey, "*", "id", eventStreamId, "value", value);
+    end
+end
 if version == 1 then
     redis.call("ZADD", aggregateIdIndexKey, 0, aggregateIdIndexMember);
 end
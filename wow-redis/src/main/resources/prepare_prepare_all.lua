@@ -0,0 +1,17 @@
+local currentAt = tonumber(ARGV[1]);
+
+local ttlAtField = "ttlAt";
+local valueField = "value";
+for _, prepareKey in ipairs(KEYS) do
+    local currentTtlAt = redis.call("HGET", prepareKey, ttlAtField);
+    if currentTtlAt and tonumber(currentTtlAt) > currentAt then
+        return false;
+    end
+end
+
+for index, prepareKey in ipairs(KEYS) do
+    local ttlAtIndex = index * 2;
+    redis.call("HSET", prepareKey, ttlAtField, ARGV[ttlAtIndex], valueField, ARGV[ttlAtIndex + 1]);
+end
+
+return true;
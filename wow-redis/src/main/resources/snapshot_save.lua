@@ -1,17 +1,23 @@
 local snapshotKey = KEYS[1];
+local snapshotVersionKey = KEYS[2];
 local snapshotVersion = tonumber(ARGV[1]);
 local snapshot = ARGV[2];
 
-local storedSnapshot = redis.call("GET", snapshotKey);
-if storedSnapshot then
-    local storedVersion = tonumber(cjson.decode(storedSnapshot)["version"]);
-    if storedVersion == nil then
-        error("Stored Wow snapshot has no numeric version.");
-    end
-    if storedVersion > snapshotVersion then
-        return "Ignored";
+local storedVersion = tonumber(redis.call("GET", snapshotVersionKey));
+if storedVersion == nil then
+    local storedSnapshot = redis.call("GET", snapshotKey);
+    if storedSnapshot then
+        -- Saved before the version was stored next to the snapshot.
+        storedVersion = tonumber(cjson.decode(storedSnapshot)["version"]);
+        if storedVersion == nil then
+            error("Stored Wow snapshot has no numeric version.");
+        end
     end
 end
+if storedVersion ~= nil and storedVersion > snapshotVersion then
+    return "Ignored";
+end
 
 redis.call("SET", snapshotKey, snapshot);
+redis.call("SET", snapshotVersionKey, ARGV[1]);
 return "Ok";
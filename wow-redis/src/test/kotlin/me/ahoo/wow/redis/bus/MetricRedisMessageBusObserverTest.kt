@@ -0,0 +1,79 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.redis.bus
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import me.ahoo.test.asserts.assert
+import org.junit.jupiter.api.Test
+
+class MetricRedisMessageBusObserverTest {
+    private val registry = SimpleMeterRegistry()
+    private val observer = MetricRedisMessageBusObserver(registry)
+
+    @Test
+    fun `should publish lag gauges per topic and consumer group`() {
+        observer.onObservation(RedisMessageBusObservation.ConsumerGroupLagObserved("topic", "group", 42, 7, 2))
+
+        gauge(MetricRedisMessageBusObserver.LAG).assert().isEqualTo(42.0)
+        gauge(MetricRedisMessageBusObserver.PENDING).assert().isEqualTo(7.0)
+        gauge(MetricRedisMessageBusObserver.CONSUMERS).assert().isEqualTo(2.0)
+
+        observer.onObservation(RedisMessageBusObservation.ConsumerGroupLagObserved("topic", "group", null, 3, 2))
+
+        gauge(MetricRedisMessageBusObserver.LAG).assert().isEqualTo(42.0)
+        gauge(MetricRedisMessageBusObserver.PENDING).assert().isEqualTo(3.0)
+    }
+
+    @Test
+    fun `should count claims by mode`() {
+        observer.onObservation(RedisMessageBusObservation.PendingClaimCompleted("topic", "group", 5, 3))
+        observer.onObservation(RedisMessageBusObservation.PendingAutoClaimCompleted("topic", "group", 4, 1))
+        observer.onObservation(RedisMessageBusObservation.PendingClaimFailed("topic", "group", 5, 0, "Failure"))
+
+        counter(MetricRedisMessageBusObserver.CLAIMED, "claim").assert().isEqualTo(3.0)
+        counter(MetricRedisMessageBusObserver.CLAIMED, "auto_claim").assert().isEqualTo(4.0)
+        counter(MetricRedisMessageBusObserver.CLAIM_FAILURES, "claim").assert().isEqualTo(1.0)
+    }
+
+    @Test
+    fun `should count scaling decisions by direction`() {
+        observer.onObservation(RedisMessageBusObservation.ConsumersScaled("topic", "group", 1, 3, 64))
+        observer.onObservation(RedisMessageBusObservation.ConsumersScaled("topic", "group", 3, 2, 16))
+
+        gauge(MetricRedisMessageBusObserver.CONSUMERS).assert().isEqualTo(2.0)
+        registry.find(MetricRedisMessageBusObserver.SCALINGS)
+            .tag(MetricRedisMessageBusObserver.DIRECTION_TAG, "up")
+            .counter()
+            ?.count()
+            .assert().isEqualTo(1.0)
+        registry.find(MetricRedisMessageBusObserver.SCALINGS)
+            .tag(MetricRedisMessageBusObserver.DIRECTION_TAG, "down")
+            .counter()
+            ?.count()
+            .assert().isEqualTo(1.0)
+    }
+
+    private fun gauge(name: String): Double? =
+        registry.find(name)
+            .tag(MetricRedisMessageBusObserver.TOPIC_TAG, "topic")
+            .tag(MetricRedisMessageBusObserver.CONSUMER_GROUP_TAG, "group")
+            .gauge()
+            ?.value()
+
+    private fun counter(name: String, mode: String): Double? =
+        registry.find(name)
+            .tag(MetricRedisMessageBusObserver.MODE_TAG, mode)
+            .counter()
+            ?.count()
+}
@@ -17,6 +17,7 @@ import io.mockk.every
 import io.mockk.mockk
 import org.junit.jupiter.api.Test
 import org.springframework.data.redis.connection.stream.Consumer
+import org.springframework.data.redis.connection.stream.StreamInfo
 import org.springframework.data.redis.core.ReactiveStreamOperations
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate
 import org.springframework.data.redis.core.ReactiveValueOperations
@@ -56,6 +57,25 @@ class RedisConsumerLeaseRegistryTest {
             .verifyComplete()
     }
 
+    @Test
+    fun `should count leased and recently active consumers of the group`() {
+        val idleConsumer = mockk<StreamInfo.XInfoConsumer> {
+            every { consumerName() } returns "consumer-1"
+            every { idleTime() } returns Duration.ofMinutes(1)
+        }
+        val readingConsumer = mockk<StreamInfo.XInfoConsumer> {
+            every { consumerName() } returns "consumer-2"
+            every { idleTime() } returns Duration.ZERO
+        }
+        every { streamOps.consumers("topic", "group") } returns Flux.just(idleConsumer, readingConsumer)
+        every { redisTemplate.hasKey(any()) } returns Mono.just(false)
+        val registry = DefaultRedisConsumerLeaseRegistry(redisTemplate, recoveryOptions())
+
+        StepVerifier.create(registry.countActiveConsumers("topic", "group"))
+            .expectNext(1)
+            .verifyComplete()
+    }
+
     @Test
     fun `should continue live delivery when lease acquisition fails`() {
         val valueOps = mockk<ReactiveValueOperations<String, String>>()
@@ -348,9 +348,81 @@ class RedisPendingMessageRecovererTest {
         )
     }
 
+    @Test
+    fun `should auto-claim every page when all pending owners are inactive`() {
+        val autoClaimer = mockk<RedisPendingMessageAutoClaimer>()
+        val firstRecord = mockk<MapRecord<String, String, String>>()
+        val secondRecord = mockk<MapRecord<String, String, String>>()
+        every { autoClaimer.pendingOwners(topic, group) } returns Mono.just(setOf("inactive-peer"))
+        every {
+            autoClaimer.claim(topic, currentConsumer, Duration.ofSeconds(1), RedisPendingMessageAutoClaimer.START, 10)
+        } returns Mono.just(RedisAutoClaimPage("5-0", listOf(firstRecord), deletedMessages = 1))
+        every {
+            autoClaimer.claim(topic, currentConsumer, Duration.ofSeconds(1), "5-0", 10)
+        } returns Mono.just(RedisAutoClaimPage(RedisPendingMessageAutoClaimer.START, listOf(secondRecord), 0))
+        val observations = mutableListOf<RedisMessageBusObservation>()
+
+        StepVerifier.create(
+            recoverer(options(interval = Duration.ofDays(1)), observations, autoClaimer)
+                .recover(topic, currentConsumer)
+                .take(2),
+        )
+            .expectNext(firstRecord, secondRecord)
+            .verifyComplete()
+
+        verify(exactly = 0) { scanner.scan(any(), any(), any()) }
+        observations.assert().containsExactly(
+            RedisMessageBusObservation.PendingAutoClaimCompleted(topic, group, 1, 1),
+            RedisMessageBusObservation.PendingAutoClaimCompleted(topic, group, 1, 0),
+        )
+    }
+
+    @Test
+    fun `should fall back to the scan sweep when a pending owner is active`() {
+        val autoClaimer = mockk<RedisPendingMessageAutoClaimer>()
+        every { autoClaimer.pendingOwners(topic, group) } returns Mono.just(setOf("active-peer"))
+        every {
+            leaseRegistry.findActiveConsumers(topic, group, setOf("active-peer"))
+        } returns Mono.just(setOf("active-peer"))
+        every {
+            scanner.scan(topic, group, scanRequest())
+        } returns Mono.just(page("1-0", listOf(pending("1-0", "active-peer")), complete = true))
+
+        StepVerifier.withVirtualTime {
+            recoverer(options(interval = Duration.ofDays(1)), autoClaimer = autoClaimer)
+                .recover(topic, currentConsumer)
+                .takeUntilOther(Mono.delay(Duration.ofSeconds(1)))
+        }
+            .expectSubscription()
+            .thenAwait(Duration.ofSeconds(1))
+            .verifyComplete()
+
+        verify(exactly = 1) { scanner.scan(topic, group, scanRequest()) }
+        verify(exactly = 0) { autoClaimer.claim(any(), any(), any(), any(), any()) }
+    }
+
+    @Test
+    fun `should skip the round when nothing is pending`() {
+        val autoClaimer = mockk<RedisPendingMessageAutoClaimer>()
+        every { autoClaimer.pendingOwners(topic, group) } returns Mono.just(emptySet())
+
+        StepVerifier.withVirtualTime {
+            recoverer(options(interval = Duration.ofDays(1)), autoClaimer = autoClaimer)
+                .recover(topic, currentConsumer)
+                .takeUntilOther(Mono.delay(Duration.ofSeconds(1)))
+        }
+            .expectSubscription()
+            .thenAwait(Duration.ofSeconds(1))
+            .verifyComplete()
+
+        verify(exactly = 0) { scanner.scan(any(), any(), any()) }
+        verify(exactly = 0) { autoClaimer.claim(any(), any(), any(), any(), any()) }
+    }
+
     private fun recoverer(
         options: RedisStreamRecoveryOptions,
         observations: MutableList<RedisMessageBusObservation>? = null,
+        autoClaimer: RedisPendingMessageAutoClaimer? = null,
     ): RedisPendingMessageRecoverer {
         return RedisPendingMessageRecoverer(
             streamOps = streamOps,
@@ -358,6 +430,7 @@ class RedisPendingMessageRecovererTest {
             leaseRegistry = leaseRegistry,
             options = options,
             observer = observations?.let { RedisMessageBusObserver(it::add) } ?: RedisMessageBusObserver.NOOP,
+            autoClaimer = autoClaimer,
         )
     }
 
@@ -0,0 +1,134 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.redis.bus
+
+import io.mockk.every
+import io.mockk.mockk
+import me.ahoo.test.asserts.assert
+import org.junit.jupiter.api.Test
+import org.springframework.data.redis.connection.stream.Consumer
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import reactor.test.StepVerifier
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicLong
+
+class RedisStreamConsumerScalerTest {
+    private val topic = "topic"
+    private val consumer = Consumer.from("group", "consumer")
+    private val options = RedisStreamScalingOptions(
+        enabled = true,
+        minConsumers = 1,
+        maxConsumers = 3,
+        lagPerConsumer = 100,
+        interval = Duration.ofSeconds(1),
+        minBatchSize = 10,
+        maxBatchSize = 100,
+    )
+
+    @Test
+    fun `should add and remove readers as the lag changes`() {
+        val lag = AtomicLong(250)
+        val opened = mutableListOf<Pair<String, Int>>()
+        val cancelled = mutableListOf<String>()
+        val observations = mutableListOf<RedisMessageBusObservation>()
+        val scaler = RedisStreamConsumerScaler(
+            lagReader = { _, _ -> Mono.just(RedisConsumerGroupLag(lag.get(), pendingMessages = 5)) },
+            leaseRegistry = leaseRegistry(activeConsumers = 1),
+            options = options,
+            observer = RedisMessageBusObserver(observations::add),
+        )
+
+        StepVerifier.withVirtualTime {
+            scaler.scale(topic, consumer) { member, batchSize ->
+                opened.add(member.name to batchSize)
+                Flux.never<String>().doOnCancel { cancelled.add(member.name) }
+            }
+        }
+            .expectSubscription()
+            .thenAwait(Duration.ofSeconds(1))
+            .then { lag.set(0) }
+            .thenAwait(Duration.ofSeconds(1))
+            .thenCancel()
+            .verify()
+
+        opened.assert().containsExactly(
+            "consumer" to 10,
+            "consumer-1" to 83,
+            "consumer-2" to 83,
+        )
+        cancelled.first().assert().isEqualTo("consumer-2")
+        observations.filterIsInstance<RedisMessageBusObservation.ConsumersScaled>().assert().containsExactly(
+            RedisMessageBusObservation.ConsumersScaled(topic, "group", 1, 3, 83),
+            RedisMessageBusObservation.ConsumersScaled(topic, "group", 3, 2, 10),
+        )
+        observations.filterIsInstance<RedisMessageBusObservation.ConsumerGroupLagObserved>().first()
+            .assert().isEqualTo(RedisMessageBusObservation.ConsumerGroupLagObserved(topic, "group", 250, 5, 1))
+    }
+
+    @Test
+    fun `should only scale for the share of the group lag of this instance`() {
+        val opened = mutableListOf<Pair<String, Int>>()
+        val scaler = RedisStreamConsumerScaler(
+            lagReader = { _, _ -> Mono.just(RedisConsumerGroupLag(600, pendingMessages = 0)) },
+            leaseRegistry = leaseRegistry(activeConsumers = 3),
+            options = options,
+        )
+
+        StepVerifier.withVirtualTime {
+            scaler.scale(topic, consumer) { member, batchSize ->
+                opened.add(member.name to batchSize)
+                Flux.never<String>()
+            }
+        }
+            .expectSubscription()
+            .thenAwait(Duration.ofSeconds(1))
+            .thenCancel()
+            .verify()
+
+        opened.assert().containsExactly(
+            "consumer" to 10,
+            "consumer-1" to 100,
+        )
+    }
+
+    @Test
+    fun `should keep readers when the lag cannot be read`() {
+        val opened = mutableListOf<String>()
+        val scaler = RedisStreamConsumerScaler(
+            lagReader = { _, _ -> Mono.error(IllegalStateException("lag unavailable")) },
+            leaseRegistry = leaseRegistry(activeConsumers = 1),
+            options = options,
+        )
+
+        StepVerifier.withVirtualTime {
+            scaler.scale(topic, consumer) { member, _ ->
+                opened.add(member.name)
+                Flux.just("${member.name}-record").concatWith(Flux.never())
+            }
+        }
+            .expectSubscription()
+            .expectNext("consumer-record")
+            .thenAwait(Duration.ofSeconds(3))
+            .thenCancel()
+            .verify()
+
+        opened.assert().containsExactly("consumer")
+    }
+
+    private fun leaseRegistry(activeConsumers: Int): RedisConsumerLeaseRegistry =
+        mockk {
+            every { countActiveConsumers(any(), any()) } returns Mono.just(activeConsumers)
+        }
+}
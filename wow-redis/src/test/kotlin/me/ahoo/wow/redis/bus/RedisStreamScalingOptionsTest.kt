@@ -0,0 +1,80 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.redis.bus
+
+import me.ahoo.test.asserts.assert
+import org.junit.jupiter.api.Test
+import java.time.Duration
+
+class RedisStreamScalingOptionsTest {
+    private val options = RedisStreamScalingOptions(
+        enabled = true,
+        minConsumers = 1,
+        maxConsumers = 4,
+        lagPerConsumer = 100,
+        minBatchSize = 10,
+        maxBatchSize = 50,
+    )
+
+    @Test
+    fun `should disable scaling by default`() {
+        RedisStreamScalingOptions.DISABLED.assert().isEqualTo(RedisStreamScalingOptions())
+        RedisStreamScalingOptions.DISABLED.enabled.assert().isFalse()
+    }
+
+    @Test
+    fun `should scale up to the lag demand within bounds`() {
+        options.targetConsumers(lag = 0, currentConsumers = 1).assert().isEqualTo(1)
+        options.targetConsumers(lag = 101, currentConsumers = 1).assert().isEqualTo(2)
+        options.targetConsumers(lag = 10_000, currentConsumers = 1).assert().isEqualTo(4)
+    }
+
+    @Test
+    fun `should scale down one consumer at a time`() {
+        options.targetConsumers(lag = 0, currentConsumers = 4).assert().isEqualTo(3)
+        options.targetConsumers(lag = 250, currentConsumers = 3).assert().isEqualTo(3)
+    }
+
+    @Test
+    fun `should share the group lag among the active consumers`() {
+        options.lagShare(lag = 600, currentConsumers = 1, activeConsumers = 3).assert().isEqualTo(200L)
+        options.lagShare(lag = 600, currentConsumers = 2, activeConsumers = 1).assert().isEqualTo(600L)
+    }
+
+    @Test
+    fun `should size batches by the lag per consumer`() {
+        options.batchSize(lag = 0, consumers = 1).assert().isEqualTo(10)
+        options.batchSize(lag = 90, consumers = 3).assert().isEqualTo(30)
+        options.batchSize(lag = 10_000, consumers = 4).assert().isEqualTo(50)
+    }
+
+    @Test
+    fun `should reject unsupported scaling bounds`() {
+        runCatching {
+            RedisStreamScalingOptions(minConsumers = 0)
+        }.exceptionOrNull().assert().isInstanceOf(IllegalArgumentException::class.java)
+        runCatching {
+            RedisStreamScalingOptions(minConsumers = 2, maxConsumers = 1)
+        }.exceptionOrNull().assert().isInstanceOf(IllegalArgumentException::class.java)
+        runCatching {
+            RedisStreamScalingOptions(lagPerConsumer = 0)
+        }.exceptionOrNull().assert().isInstanceOf(IllegalArgumentException::class.java)
+        runCatching {
+            RedisStreamScalingOptions(interval = Duration.ZERO)
+        }.exceptionOrNull().assert().isInstanceOf(IllegalArgumentException::class.java)
+        runCatching {
+            RedisStreamScalingOptions(minBatchSize = 8, maxBatchSize = 4)
+        }.exceptionOrNull().assert().isInstanceOf(IllegalArgumentException::class.java)
+    }
+}
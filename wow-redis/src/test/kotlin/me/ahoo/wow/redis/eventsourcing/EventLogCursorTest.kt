@@ -0,0 +1,43 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.redis.eventsourcing
+
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.eventsourcing.EventLogReader
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+
+class EventLogCursorTest {
+    @Test
+    fun `head position should decode to no cursors`() {
+        EventLogCursor.decode(EventLogReader.HEAD_POSITION).assert().isEmpty()
+    }
+
+    @Test
+    fun `should round trip cursors in bucket order`() {
+        val cursors = mapOf(17 to "1700000000001-0", 3 to "1700000000000-2")
+
+        val position = EventLogCursor.encode(cursors)
+
+        position.assert().isEqualTo("3=1700000000000-2,17=1700000000001-0")
+        EventLogCursor.decode(position).assert().isEqualTo(cursors)
+    }
+
+    @Test
+    fun `should reject malformed position`() {
+        assertThrows<IllegalArgumentException> {
+            EventLogCursor.decode("3")
+        }
+    }
+}
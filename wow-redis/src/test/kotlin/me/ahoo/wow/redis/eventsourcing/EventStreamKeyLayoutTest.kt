@@ -18,6 +18,7 @@ import me.ahoo.test.asserts.assert
 import me.ahoo.wow.modeling.MaterializedNamedAggregate
 import me.ahoo.wow.modeling.aggregateId
 import me.ahoo.wow.redis.eventsourcing.EventStreamKeyLayout.toAggregateIdIndexKey
+import me.ahoo.wow.redis.eventsourcing.EventStreamKeyLayout.toEventLogKey
 import me.ahoo.wow.redis.eventsourcing.EventStreamKeyLayout.toKeyPrefix
 import me.ahoo.wow.tck.mock.MOCK_AGGREGATE_METADATA
 import org.junit.jupiter.api.Test
@@ -46,6 +47,12 @@ class EventStreamKeyLayoutTest {
         actual.assert().isEqualTo("{$hashTag}:ids")
     }
 
+    @Test
+    fun `should convert event log key in the aggregate bucket`() {
+        val actual = aggregateId.toEventLogKey()
+        actual.assert().isEqualTo("{$hashTag}:log")
+    }
+
     @Test
     fun `should convert aggregate id index member`() {
         val actual = EventStreamKeyLayout.toAggregateIdIndexMember(aggregateId)
@@ -25,15 +25,22 @@ import me.ahoo.wow.exception.ErrorCodes
 import me.ahoo.wow.modeling.MaterializedNamedAggregate
 import me.ahoo.wow.modeling.aggregateId
 import me.ahoo.wow.redis.eventsourcing.EventStreamKeyLayout.toAggregateIdIndexMember
+import me.ahoo.wow.redis.eventsourcing.EventStreamKeyLayout.toEventLogKey
+import me.ahoo.wow.serialization.toJsonString
 import me.ahoo.wow.tck.event.MockDomainEventStreams.generateEventStream
 import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
 import org.springframework.data.domain.Range
 import org.springframework.data.redis.connection.Limit
+import org.springframework.data.redis.connection.stream.MapRecord
+import org.springframework.data.redis.connection.stream.RecordId
+import org.springframework.data.redis.core.ReactiveStreamOperations
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate
 import org.springframework.data.redis.core.ReactiveZSetOperations
 import reactor.core.publisher.Flux
 import reactor.kotlin.test.test
 import reactor.test.StepVerifier
+import java.util.concurrent.atomic.AtomicInteger
 
 private const val EXPECTED_BUCKET_QUERY_CONCURRENCY = 16
 
@@ -83,6 +90,93 @@ class RedisEventStoreScanTest {
             .isEqualTo("006f0072006400650072002d0031/")
     }
 
+    @Test
+    fun `append should add event log key and stream id when event log is enabled`() {
+        val namedAggregate = MaterializedNamedAggregate("order-service", "order")
+        val redisTemplate = mockk<ReactiveStringRedisTemplate>()
+        val keysSlot = io.mockk.slot<List<String>>()
+        val argumentsSlot = io.mockk.slot<List<*>>()
+        val aggregateId = namedAggregate.aggregateId("order-1", tenantId = "tenant-1")
+        val eventStream = generateEventStream(aggregateId, eventCount = 1)
+        every {
+            redisTemplate.execute(
+                RedisEventStore.SCRIPT_EVENT_STREAM_APPEND,
+                capture(keysSlot),
+                capture(argumentsSlot),
+            )
+        } returns Flux.just(ErrorCodes.SUCCEEDED)
+        val eventStore = RedisEventStore(redisTemplate, eventLog = true, eventLogMaxLength = 1000)
+
+        eventStore.append(eventStream)
+            .test()
+            .verifyComplete()
+
+        val bucket = "order-1".hashCode().mod(128)
+        keysSlot.captured.assert().hasSize(4)
+        keysSlot.captured[3].assert().isEqualTo("{v2:es:b3JkZXItc2VydmljZQ.b3JkZXI:$bucket}:log")
+        argumentsSlot.captured.assert().hasSize(8)
+        argumentsSlot.captured[6].assert().isEqualTo(eventStream.id)
+        argumentsSlot.captured[7].assert().isEqualTo("1000")
+    }
+
+    @Test
+    fun `event log max length must not be negative`() {
+        assertThrows<IllegalArgumentException> {
+            RedisEventStore(mockk(), eventLog = true, eventLogMaxLength = -1)
+        }
+    }
+
+    @Test
+    fun `readAll should be unsupported when event log is disabled`() {
+        val eventStore = RedisEventStore(mockk())
+
+        eventStore.readAll(MaterializedNamedAggregate("order-service", "order"))
+            .test()
+            .expectError(UnsupportedOperationException::class.java)
+            .verify()
+    }
+
+    @Test
+    fun `readAll should merge buckets reading about batch size entries`() {
+        val namedAggregate = MaterializedNamedAggregate("order-service", "order")
+        val redisTemplate = mockk<ReactiveStringRedisTemplate>()
+        val streamOperations = mockk<ReactiveStreamOperations<String, String, String>>()
+        val value = generateEventStream(namedAggregate.aggregateId("order-1")).toJsonString()
+        val logs = mapOf(
+            namedAggregate.toEventLogKey(5) to List(10) { "s${"%02d".format(it * 2 + 1)}" },
+            namedAggregate.toEventLogKey(7) to List(3) { "s${"%02d".format(it * 2 + 2)}" },
+        )
+        val readEntries = AtomicInteger()
+        every { redisTemplate.opsForStream<String, String>() } returns streamOperations
+        every {
+            streamOperations.range(any<String>(), any<Range<String>>(), any<Limit>())
+        } answers {
+            val after = secondArg<Range<String>>().lowerBound.value.map { it.substringBefore('-').toInt() }.orElse(0)
+            val entries = logs[firstArg<String>()].orEmpty()
+                .mapIndexed { index, eventStreamId ->
+                    MapRecord.create(firstArg<String>(), mapOf("id" to eventStreamId, "value" to value))
+                        .withId(RecordId.of("${index + 1}-0"))
+                }
+                .drop(after)
+                .take(thirdArg<Limit>().count)
+            readEntries.addAndGet(entries.size)
+            Flux.fromIterable(entries)
+        }
+        val eventStore = RedisEventStore(redisTemplate, eventLog = true)
+
+        eventStore.readAll(namedAggregate, batchSize = 6)
+            .collectList()
+            .test()
+            .consumeNextWith { records ->
+                records.assert().hasSize(6)
+                records.last().position.assert().isEqualTo("5=3-0,7=3-0")
+            }
+            .verifyComplete()
+
+        // One entry read ahead of the batch, since it might have been lower than the last one returned.
+        readEntries.get().assert().isEqualTo(7)
+    }
+
     @Test
     fun `append should map initial version conflict script result to duplicate aggregate id`() {
         val namedAggregate = MaterializedNamedAggregate("order-service", "order")
@@ -57,4 +57,27 @@ class SnapshotKeyLayoutTest {
             "v2:snapshot:{b3JkZXItc2VydmljZQ.b3JkZXI.b3JkZXJAezQyfTrpm6o.dGVuYW50QGVhc3R9}"
         )
     }
+
+    @Test
+    fun `should colocate snapshot with event stream`() {
+        val aggregateId = MOCK_AGGREGATE_METADATA.aggregateId("id", "tenantId")
+        val eventStreamKey = EventStreamKeyLayout.key(aggregateId)
+        val actual = SnapshotKeyLayout.key(aggregateId, colocated = true)
+
+        actual.assert().isEqualTo("$eventStreamKey:snapshot")
+        actual.substringBefore('}').assert().isEqualTo(eventStreamKey.substringBefore('}'))
+        SnapshotKeyLayout.key(aggregateId, colocated = false).assert().isEqualTo(SnapshotKeyLayout.key(aggregateId))
+    }
+
+    @Test
+    fun `should keep the snapshot version in the slot of its snapshot`() {
+        val aggregateId = MOCK_AGGREGATE_METADATA.aggregateId("id", "tenantId")
+        listOf(true, false).forEach { colocated ->
+            val snapshotKey = SnapshotKeyLayout.key(aggregateId, colocated)
+            val versionKey = SnapshotKeyLayout.versionKey(snapshotKey)
+
+            versionKey.assert().isEqualTo("$snapshotKey:version")
+            versionKey.substringBefore('}').assert().isEqualTo(snapshotKey.substringBefore('}'))
+        }
+    }
 }
@@ -47,6 +47,16 @@ class PrepareKeyLayoutTest {
         SlotHash.getSlot(first).assert().isEqualTo(SlotHash.getSlot(second))
     }
 
+    @Test
+    fun `should keep keys of prepare keys sharing a hash tag in one slot`() {
+        val username = PrepareKeyLayout.key("username", "user", "user-identity")
+        val email = PrepareKeyLayout.key("email", "user@ahoo.me", "user-identity")
+
+        username.assert().isEqualTo("v2:prepare:{dXNlci1pZGVudGl0eQ}:dXNlcm5hbWU.dXNlcg")
+        username.assert().isNotEqualTo(PrepareKeyLayout.key("username", "user"))
+        SlotHash.getSlot(username).assert().isEqualTo(SlotHash.getSlot(email))
+    }
+
     @Test
     fun `should reject empty name and key`() {
         assertThrows<IllegalArgumentException> {
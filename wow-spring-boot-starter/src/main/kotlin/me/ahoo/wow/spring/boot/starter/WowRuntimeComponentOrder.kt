@@ -21,6 +21,7 @@ package me.ahoo.wow.spring.boot.starter
  * order for diagnostics and failure handling.
  */
 object WowRuntimeComponentOrder {
+    const val METADATA = 0
     const val COMMAND = 100
     const val EVENT = 200
     const val PROJECTION = 300
@@ -22,6 +22,9 @@ import me.ahoo.wow.command.CommandGateway
 import me.ahoo.wow.command.DefaultCommandGateway
 import me.ahoo.wow.command.DefaultRequestIdChecker
 import me.ahoo.wow.command.RequestIdChecker
+import me.ahoo.wow.command.admission.CommandAdmission
+import me.ahoo.wow.command.admission.TokenBucketCommandAdmission
+import me.ahoo.wow.command.wait.CommandStageLatencyRecorder
 import me.ahoo.wow.command.wait.CommandWaitEndpoint
 import me.ahoo.wow.command.wait.CommandWaitNotifier
 import me.ahoo.wow.command.wait.DefaultWaitCoordinator
@@ -38,6 +41,8 @@ import me.ahoo.wow.infra.idempotency.AggregateIdempotencyCheckerProvider
 import me.ahoo.wow.infra.idempotency.BloomFilterIdempotencyChecker
 import me.ahoo.wow.infra.idempotency.DefaultAggregateIdempotencyCheckerProvider
 import me.ahoo.wow.infra.idempotency.NoOpIdempotencyChecker
+import me.ahoo.wow.metrics.WowMetrics
+import me.ahoo.wow.modeling.state.AggregatePrefetcher
 import me.ahoo.wow.spring.boot.starter.ConditionalOnWowEnabled
 import me.ahoo.wow.spring.boot.starter.ENABLED_SUFFIX_KEY
 import org.springframework.beans.factory.ObjectProvider
@@ -99,8 +104,29 @@ class CommandGatewayAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    fun waitCoordinator(): WaitCoordinator {
-        return DefaultWaitCoordinator()
+    fun waitCoordinator(
+        commandProperties: CommandProperties,
+        metrics: ObjectProvider<WowMetrics>
+    ): WaitCoordinator {
+        val waitProperties = commandProperties.wait
+        return DefaultWaitCoordinator(
+            maxPendingWaits = waitProperties.maxPending,
+            stripeCount = waitProperties.stripeCount,
+            metrics = metrics.getIfAvailable { WowMetrics.NONE },
+        )
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    fun commandAdmission(
+        commandProperties: CommandProperties,
+        metrics: ObjectProvider<WowMetrics>
+    ): CommandAdmission {
+        val limits = commandProperties.tenant.toRateLimits() ?: return CommandAdmission.NONE
+        return TokenBucketCommandAdmission(
+            limits = limits,
+            metrics = metrics.getIfAvailable { WowMetrics.NONE },
+        )
     }
 
     @Bean
@@ -116,28 +142,43 @@ class CommandGatewayAutoConfiguration {
     }
 
     @Bean
-    fun processedNotifierFilter(commandWaitNotifier: CommandWaitNotifier): ProcessedNotifierFilter {
-        return ProcessedNotifierFilter(commandWaitNotifier)
+    fun processedNotifierFilter(
+        commandWaitNotifier: CommandWaitNotifier,
+        metrics: ObjectProvider<WowMetrics>,
+    ): ProcessedNotifierFilter {
+        return ProcessedNotifierFilter(commandWaitNotifier, metrics.commandStageLatencyRecorder())
     }
 
     @Bean
-    fun snapshotNotifierFilter(commandWaitNotifier: CommandWaitNotifier): SnapshotNotifierFilter {
-        return SnapshotNotifierFilter(commandWaitNotifier)
+    fun snapshotNotifierFilter(
+        commandWaitNotifier: CommandWaitNotifier,
+        metrics: ObjectProvider<WowMetrics>,
+    ): SnapshotNotifierFilter {
+        return SnapshotNotifierFilter(commandWaitNotifier, metrics.commandStageLatencyRecorder())
     }
 
     @Bean
-    fun projectedNotifierFilter(commandWaitNotifier: CommandWaitNotifier): ProjectedNotifierFilter {
-        return ProjectedNotifierFilter(commandWaitNotifier)
+    fun projectedNotifierFilter(
+        commandWaitNotifier: CommandWaitNotifier,
+        metrics: ObjectProvider<WowMetrics>,
+    ): ProjectedNotifierFilter {
+        return ProjectedNotifierFilter(commandWaitNotifier, metrics.commandStageLatencyRecorder())
     }
 
     @Bean
-    fun eventHandledNotifierFilter(commandWaitNotifier: CommandWaitNotifier): EventHandledNotifierFilter {
-        return EventHandledNotifierFilter(commandWaitNotifier)
+    fun eventHandledNotifierFilter(
+        commandWaitNotifier: CommandWaitNotifier,
+        metrics: ObjectProvider<WowMetrics>,
+    ): EventHandledNotifierFilter {
+        return EventHandledNotifierFilter(commandWaitNotifier, metrics.commandStageLatencyRecorder())
     }
 
     @Bean
-    fun sagaHandledNotifierFilter(commandWaitNotifier: CommandWaitNotifier): SagaHandledNotifierFilter {
-        return SagaHandledNotifierFilter(commandWaitNotifier)
+    fun sagaHandledNotifierFilter(
+        commandWaitNotifier: CommandWaitNotifier,
+        metrics: ObjectProvider<WowMetrics>,
+    ): SagaHandledNotifierFilter {
+        return SagaHandledNotifierFilter(commandWaitNotifier, metrics.commandStageLatencyRecorder())
     }
 
     @Suppress("LongParameterList")
@@ -151,6 +192,8 @@ class CommandGatewayAutoConfiguration {
         requestIdChecker: RequestIdChecker,
         waitCoordinator: WaitCoordinator,
         commandWaitNotifier: CommandWaitNotifier,
+        aggregatePrefetcher: ObjectProvider<AggregatePrefetcher>,
+        commandAdmission: ObjectProvider<CommandAdmission>,
     ): CommandGateway {
         return DefaultCommandGateway(
             commandWaitEndpoint = commandWaitEndpoint,
@@ -159,6 +202,11 @@ class CommandGatewayAutoConfiguration {
             requestIdChecker = requestIdChecker,
             waitCoordinator = waitCoordinator,
             commandWaitNotifier = commandWaitNotifier,
+            aggregatePrefetcher = aggregatePrefetcher.getIfAvailable { AggregatePrefetcher.NONE },
+            commandAdmission = commandAdmission.getIfAvailable { CommandAdmission.NONE },
         )
     }
 }
+
+private fun ObjectProvider<WowMetrics>.commandStageLatencyRecorder(): CommandStageLatencyRecorder =
+    getIfAvailable { WowMetrics.NONE }.commandStageLatencyRecorder
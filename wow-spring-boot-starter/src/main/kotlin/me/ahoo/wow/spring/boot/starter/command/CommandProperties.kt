@@ -15,16 +15,30 @@ package me.ahoo.wow.spring.boot.starter.command
 
 import me.ahoo.wow.api.Wow
 import me.ahoo.wow.api.naming.EnabledCapable
+import me.ahoo.wow.command.admission.CommandRateLimit
+import me.ahoo.wow.command.admission.TenantCommandRateLimits
+import me.ahoo.wow.command.wait.DEFAULT_MAX_PENDING_WAITS
+import me.ahoo.wow.command.wait.DEFAULT_WAIT_STRIPE_COUNT
+import me.ahoo.wow.messaging.dispatcher.HotKeyIsolation
+import me.ahoo.wow.messaging.dispatcher.TenantFairness
+import me.ahoo.wow.modeling.state.DEFAULT_AGGREGATE_PREFETCH_MAX_ENTRIES
+import me.ahoo.wow.modeling.state.DEFAULT_AGGREGATE_PREFETCH_TTL
 import me.ahoo.wow.spring.boot.starter.BusProperties
+import me.ahoo.wow.spring.boot.starter.ENABLED_SUFFIX_KEY
 import org.springframework.boot.context.properties.ConfigurationProperties
 import org.springframework.boot.context.properties.NestedConfigurationProperty
 import org.springframework.boot.context.properties.bind.DefaultValue
 import java.time.Duration
+import kotlin.math.ceil
 
 @ConfigurationProperties(prefix = CommandProperties.PREFIX)
 class CommandProperties(
     @NestedConfigurationProperty var bus: BusProperties = BusProperties(),
-    @NestedConfigurationProperty var idempotency: IdempotencyProperties = IdempotencyProperties()
+    @NestedConfigurationProperty var idempotency: IdempotencyProperties = IdempotencyProperties(),
+    @NestedConfigurationProperty var wait: WaitProperties = WaitProperties(),
+    @NestedConfigurationProperty var prefetch: PrefetchProperties = PrefetchProperties(),
+    @NestedConfigurationProperty var hotKey: HotKeyProperties = HotKeyProperties(),
+    @NestedConfigurationProperty var tenant: TenantProperties = TenantProperties()
 ) {
     companion object {
         const val PREFIX = "${Wow.WOW_PREFIX}command"
@@ -47,3 +61,126 @@ class IdempotencyProperties(
         val fpp: Double = 0.00001
     )
 }
+
+class WaitProperties(
+    var maxPending: Int = DEFAULT_MAX_PENDING_WAITS,
+    var stripeCount: Int = DEFAULT_WAIT_STRIPE_COUNT
+) {
+    companion object {
+        const val PREFIX = "${CommandProperties.PREFIX}.wait"
+    }
+}
+
+/**
+ * Ingress-side prefetch of the target aggregate of local-first commands.
+ */
+class PrefetchProperties(
+    @DefaultValue("false") override var enabled: Boolean = false,
+    var ttl: Duration = DEFAULT_AGGREGATE_PREFETCH_TTL,
+    var maxEntries: Int = DEFAULT_AGGREGATE_PREFETCH_MAX_ENTRIES
+) : EnabledCapable {
+    companion object {
+        const val PREFIX = "${CommandProperties.PREFIX}.prefetch"
+        const val ENABLED = "$PREFIX$ENABLED_SUFFIX_KEY"
+    }
+}
+
+/**
+ * Isolation of hot aggregates into dedicated command dispatch lanes.
+ */
+class HotKeyProperties(
+    @DefaultValue("false") override var enabled: Boolean = false,
+    var depthThreshold: Int = HotKeyIsolation.DEFAULT_DEPTH_THRESHOLD,
+    var rateThreshold: Int = HotKeyIsolation.DEFAULT_RATE_THRESHOLD,
+    var window: Duration = HotKeyIsolation.DEFAULT_WINDOW,
+    var maxLanes: Int = HotKeyIsolation.DEFAULT_MAX_LANES,
+    var maxTrackedKeys: Int = HotKeyIsolation.DEFAULT_MAX_TRACKED_KEYS
+) : EnabledCapable {
+    companion object {
+        const val PREFIX = "${CommandProperties.PREFIX}.hot-key"
+    }
+
+    fun toIsolation(): HotKeyIsolation? {
+        if (!enabled) {
+            return null
+        }
+        return HotKeyIsolation(
+            depthThreshold = depthThreshold,
+            rateThreshold = rateThreshold,
+            window = window,
+            maxLanes = maxLanes,
+            maxTrackedKeys = maxTrackedKeys,
+        )
+    }
+}
+
+/**
+ * Per-tenant fairness of command dispatch and per-tenant rate limits of the command gateway.
+ *
+ * [weights] multiply both the dispatch share and the rate limits of the listed tenants.
+ */
+class TenantProperties(
+    var weights: Map<String, Int> = emptyMap(),
+    @NestedConfigurationProperty var fairness: TenantFairnessProperties = TenantFairnessProperties(),
+    @NestedConfigurationProperty var rateLimit: TenantRateLimitProperties = TenantRateLimitProperties()
+) {
+    companion object {
+        const val PREFIX = "${CommandProperties.PREFIX}.tenant"
+    }
+
+    fun toFairness(): TenantFairness? {
+        if (!fairness.enabled) {
+            return null
+        }
+        return TenantFairness(
+            lanesPerTenant = fairness.lanesPerTenant,
+            tenantWeights = weights,
+        )
+    }
+
+    fun toRateLimits(): TenantCommandRateLimits? {
+        if (!rateLimit.enabled) {
+            return null
+        }
+        return TenantCommandRateLimits(
+            tenant = rateLimit.tenantPermitsPerSecond?.let {
+                CommandRateLimit(it, rateLimit.tenantBurst ?: it.toBurst())
+            },
+            aggregate = rateLimit.aggregatePermitsPerSecond?.let {
+                CommandRateLimit(it, rateLimit.aggregateBurst ?: it.toBurst())
+            },
+            tenantWeights = weights,
+            maxTrackedBuckets = rateLimit.maxTrackedBuckets,
+        )
+    }
+
+    private fun Double.toBurst(): Long = ceil(this).toLong().coerceAtLeast(1)
+}
+
+/**
+ * Dispatch groups per tenant of weight 1; unset confines a tenant to an eighth of the aggregate parallelism.
+ */
+class TenantFairnessProperties(
+    @DefaultValue("false") override var enabled: Boolean = false,
+    var lanesPerTenant: Int? = null
+) : EnabledCapable {
+    companion object {
+        const val PREFIX = "${TenantProperties.PREFIX}.fairness"
+    }
+}
+
+/**
+ * Token-bucket limits per tenant and per tenant and aggregate type; a burst defaults to one second of permits.
+ */
+class TenantRateLimitProperties(
+    @DefaultValue("false") override var enabled: Boolean = false,
+    var tenantPermitsPerSecond: Double? = null,
+    var tenantBurst: Long? = null,
+    var aggregatePermitsPerSecond: Double? = null,
+    var aggregateBurst: Long? = null,
+    var maxTrackedBuckets: Int = TenantCommandRateLimits.DEFAULT_MAX_TRACKED_BUCKETS
+) : EnabledCapable {
+    companion object {
+        const val PREFIX = "${TenantProperties.PREFIX}.rate-limit"
+    }
+}
@@ -13,6 +13,7 @@
 
 package me.ahoo.wow.spring.boot.starter.elasticsearch
 
+import co.elastic.clients.elasticsearch._types.Refresh
 import co.elastic.clients.json.JsonpMapper
 import co.elastic.clients.json.jackson.Jackson3JsonpMapper
 import co.elastic.clients.transport.rest5_client.Rest5ClientOptions
@@ -111,10 +112,14 @@ class ElasticsearchEventSourcingAutoConfiguration @Autowired constructor(
         if (elasticsearchProperties.autoInitTemplate) {
             indexTemplateInitializer.ensureEventStreamTemplate().block()
         }
+        val realtimeLoad = elasticsearchProperties.realtimeLoad
         return ElasticsearchEventStore(
             elasticsearchClient = elasticsearchClient,
             batchOptions = eventStoreBatchProperties.toOptions(),
+            refreshPolicy = if (realtimeLoad) Refresh.False else Refresh.True,
             metrics = metrics.getIfAvailable { WowMetrics.NONE },
+            realtimeLoad = realtimeLoad,
+            eventLogSafetyLag = elasticsearchProperties.eventLogSafetyLag,
         )
     }
 
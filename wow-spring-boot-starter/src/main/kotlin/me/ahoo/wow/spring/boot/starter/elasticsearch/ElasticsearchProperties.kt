@@ -15,17 +15,28 @@ package me.ahoo.wow.spring.boot.starter.elasticsearch
 
 import me.ahoo.wow.api.Wow
 import me.ahoo.wow.api.naming.EnabledCapable
+import me.ahoo.wow.eventsourcing.EventLogReader
 import org.springframework.boot.context.properties.ConfigurationProperties
 import org.springframework.boot.context.properties.bind.DefaultValue
+import java.time.Duration
 
+/**
+ * @property realtimeLoad load event streams by version with realtime gets, so appends skip the shard refresh.
+ * Loads by event time, aggregate id scans and event log reads still search and only see appends after the
+ * next index refresh.
+ * @property eventLogSafetyLag the age an event stream must reach before the event log `readAll` returns it.
+ */
 @ConfigurationProperties(prefix = ElasticsearchProperties.PREFIX)
 class ElasticsearchProperties(
     @DefaultValue("true") override val enabled: Boolean = true,
     @DefaultValue("true") var autoInitTemplate: Boolean = true,
     var compatibilityVersion: Int? = null,
+    @DefaultValue("false") var realtimeLoad: Boolean = false,
+    @DefaultValue("5s") var eventLogSafetyLag: Duration = EventLogReader.DEFAULT_SAFETY_LAG,
 ) : EnabledCapable {
     companion object {
         const val PREFIX = "${Wow.WOW_PREFIX}elasticsearch"
         const val COMPATIBILITY_VERSION_KEY = "$PREFIX.compatibility-version"
+        const val REALTIME_LOAD_KEY = "$PREFIX.realtime-load"
     }
 }
@@ -30,9 +30,11 @@ import me.ahoo.wow.ioc.ServiceProvider
 import me.ahoo.wow.messaging.handler.ExchangeFilter
 import me.ahoo.wow.messaging.handler.RetryableFilter
 import me.ahoo.wow.metrics.WowMetrics
+import me.ahoo.wow.scheduler.AggregateSchedulerFactory
 import me.ahoo.wow.spring.boot.starter.ConditionalOnWowEnabled
 import me.ahoo.wow.spring.boot.starter.WowAutoConfiguration
 import me.ahoo.wow.spring.boot.starter.WowRuntimeComponentOrder
+import me.ahoo.wow.spring.boot.starter.scheduler.toAggregateSchedulerSupplier
 import me.ahoo.wow.spring.event.EventProcessorAutoRegistrar
 import org.springframework.beans.factory.ObjectProvider
 import org.springframework.beans.factory.annotation.Qualifier
@@ -106,6 +108,7 @@ class EventDispatcherAutoConfiguration {
         handlerRegistrar: DomainEventFunctionRegistrar,
         eventDispatcherHandler: DomainEventHandler,
         metrics: ObjectProvider<WowMetrics>,
+        schedulerFactory: ObjectProvider<AggregateSchedulerFactory>,
     ): DomainEventDispatcher {
         return DomainEventDispatcher(
             name = "${namedBoundedContext.contextName}.${DomainEventDispatcher::class.simpleName}",
@@ -113,6 +116,7 @@ class EventDispatcherAutoConfiguration {
             stateEventBus = stateEventBus,
             functionRegistrar = handlerRegistrar,
             eventHandler = eventDispatcherHandler,
+            schedulerSupplier = schedulerFactory.toAggregateSchedulerSupplier("EventDispatcher"),
             metrics = metrics.getIfAvailable { WowMetrics.NONE },
         )
     }
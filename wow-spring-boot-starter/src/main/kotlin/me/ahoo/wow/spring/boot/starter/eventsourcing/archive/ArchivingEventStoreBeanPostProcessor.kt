@@ -0,0 +1,50 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.spring.boot.starter.eventsourcing.archive
+
+import io.github.oshai.kotlinlogging.KotlinLogging
+import me.ahoo.wow.eventsourcing.EventStore
+import me.ahoo.wow.eventsourcing.archive.ArchivingEventStore
+import me.ahoo.wow.eventsourcing.archive.EventStreamArchive
+import org.springframework.beans.factory.ObjectProvider
+import org.springframework.beans.factory.config.BeanPostProcessor
+import org.springframework.core.Ordered
+
+/**
+ * Wraps the archived event store, the bean named [eventStoreBeanName], with an [ArchivingEventStore] so that its
+ * loads fall back to the archive. Other event stores are left untouched, as nothing of theirs is archived.
+ *
+ * Runs before the metrics post processor, so archive reads are measured as part of the event store load.
+ */
+class ArchivingEventStoreBeanPostProcessor(
+    private val eventStoreBeanName: String,
+    private val archive: ObjectProvider<EventStreamArchive>,
+) : BeanPostProcessor,
+    Ordered {
+    override fun postProcessAfterInitialization(bean: Any, beanName: String): Any {
+        if (beanName != eventStoreBeanName || bean !is EventStore || bean is ArchivingEventStore) {
+            return bean
+        }
+        log.info {
+            "Archiving bean [$beanName] [${bean.javaClass.name}] -> [${ArchivingEventStore::class.java.name}]"
+        }
+        return ArchivingEventStore(bean, archive.getObject())
+    }
+
+    override fun getOrder(): Int = Ordered.LOWEST_PRECEDENCE - 1
+
+    private companion object {
+        val log = KotlinLogging.logger {}
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.spring.boot.starter.eventsourcing.archive
+
+import me.ahoo.wow.eventsourcing.EventStore
+import me.ahoo.wow.eventsourcing.archive.EventStreamArchive
+import me.ahoo.wow.eventsourcing.archive.EventStreamArchiver
+import me.ahoo.wow.eventsourcing.archive.FileSegmentEventStreamArchive
+import me.ahoo.wow.eventsourcing.snapshot.SnapshotStore
+import me.ahoo.wow.spring.boot.starter.ConditionalOnWowEnabled
+import me.ahoo.wow.spring.boot.starter.eventsourcing.routing.StorageRoutingAutoConfiguration
+import me.ahoo.wow.spring.boot.starter.mongo.MongoEventSourcingAutoConfiguration
+import org.springframework.beans.factory.BeanFactory
+import org.springframework.beans.factory.ObjectProvider
+import org.springframework.boot.autoconfigure.AutoConfiguration
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.boot.context.properties.EnableConfigurationProperties
+import org.springframework.context.annotation.Bean
+import org.springframework.core.env.Environment
+import java.nio.file.Path
+
+@AutoConfiguration(
+    after = [
+        MongoEventSourcingAutoConfiguration::class,
+        StorageRoutingAutoConfiguration::class,
+    ],
+)
+@ConditionalOnWowEnabled
+@ConditionalOnEventStreamArchiveEnabled
+@EnableConfigurationProperties(EventStreamArchiveProperties::class)
+class EventStreamArchiveAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(
+        value = [EventStreamArchiveProperties.STORAGE_KEY],
+        havingValue = "file",
+        matchIfMissing = true,
+    )
+    fun fileSegmentEventStreamArchive(properties: EventStreamArchiveProperties): EventStreamArchive {
+        return FileSegmentEventStreamArchive(
+            directory = Path.of(properties.directory),
+            shared = properties.directoryShared,
+        )
+    }
+
+    @Bean
+    fun archivingEventStoreBeanPostProcessor(
+        environment: Environment,
+        archive: ObjectProvider<EventStreamArchive>
+    ): ArchivingEventStoreBeanPostProcessor {
+        val eventStoreBeanName = environment.getProperty(
+            EventStreamArchiveProperties.EVENT_STORE_BEAN_NAME_KEY,
+            EventStreamArchiveProperties.DEFAULT_EVENT_STORE_BEAN_NAME
+        )
+        return ArchivingEventStoreBeanPostProcessor(eventStoreBeanName, archive)
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    fun eventStreamArchiver(
+        beanFactory: BeanFactory,
+        snapshotStore: SnapshotStore,
+        archive: EventStreamArchive,
+        properties: EventStreamArchiveProperties
+    ): EventStreamArchiver {
+        check(archive.shared) {
+            "Event stream archive [${archive.javaClass.name}] is not shared by every instance. " +
+                "Set [${EventStreamArchiveProperties.PREFIX}.directory-shared=true] when the directory is on " +
+                "shared storage, or use [${EventStreamArchiveProperties.STORAGE_KEY}=mongo]."
+        }
+        return EventStreamArchiver(
+            eventStore = beanFactory.getBean(properties.eventStoreBeanName, EventStore::class.java),
+            snapshotStore = snapshotStore,
+            archive = archive,
+            retainedVersions = properties.retainedVersions,
+            segmentSize = properties.segmentSize,
+            parallelism = properties.parallelism,
+        )
+    }
+}
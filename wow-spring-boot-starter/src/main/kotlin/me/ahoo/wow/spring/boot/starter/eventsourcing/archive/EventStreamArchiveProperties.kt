@@ -0,0 +1,64 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.spring.boot.starter.eventsourcing.archive
+
+import me.ahoo.wow.api.naming.EnabledCapable
+import me.ahoo.wow.eventsourcing.archive.EventStreamArchiver
+import me.ahoo.wow.spring.boot.starter.eventsourcing.EventSourcingProperties
+import org.springframework.boot.context.properties.ConfigurationProperties
+import org.springframework.boot.context.properties.bind.DefaultValue
+
+@ConfigurationProperties(prefix = EventStreamArchiveProperties.PREFIX)
+class EventStreamArchiveProperties(
+    @DefaultValue("false") override var enabled: Boolean = false,
+    @DefaultValue("file") var storage: Storage = Storage.FILE,
+    /**
+     * Root directory of the segment files when [storage] is [Storage.FILE].
+     */
+    @DefaultValue(DEFAULT_DIRECTORY) var directory: String = DEFAULT_DIRECTORY,
+    /**
+     * Whether [directory] is on storage mounted by every instance, such as a network file system.
+     * Archiving prunes the shared hot event store, so it refuses to start on a local directory.
+     */
+    @DefaultValue("false") var directoryShared: Boolean = false,
+    /**
+     * Bean name of the event store that is archived and whose loads fall back to the archive.
+     */
+    @DefaultValue(DEFAULT_EVENT_STORE_BEAN_NAME) var eventStoreBeanName: String = DEFAULT_EVENT_STORE_BEAN_NAME,
+    /**
+     * Number of versions below the snapshot version kept in the hot event store.
+     */
+    var retainedVersions: Int = EventStreamArchiver.DEFAULT_RETAINED_VERSIONS,
+    /**
+     * Maximum number of event streams per archive segment.
+     */
+    var segmentSize: Int = EventStreamArchiver.DEFAULT_SEGMENT_SIZE,
+    /**
+     * Number of aggregates archived concurrently.
+     */
+    var parallelism: Int = EventStreamArchiver.DEFAULT_PARALLELISM,
+) : EnabledCapable {
+    companion object {
+        const val PREFIX = "${EventSourcingProperties.PREFIX}.archive"
+        const val STORAGE_KEY = "$PREFIX.storage"
+        const val EVENT_STORE_BEAN_NAME_KEY = "$PREFIX.event-store-bean-name"
+        const val DEFAULT_DIRECTORY = "event-stream-archive"
+        const val DEFAULT_EVENT_STORE_BEAN_NAME = "mongoEventStore"
+    }
+
+    enum class Storage {
+        FILE,
+        MONGO
+    }
+}
@@ -18,7 +18,11 @@ import me.ahoo.wow.eventsourcing.snapshot.InMemorySnapshotStore
 import me.ahoo.wow.eventsourcing.snapshot.SimpleSnapshotStrategy
 import me.ahoo.wow.eventsourcing.snapshot.SnapshotStore
 import me.ahoo.wow.eventsourcing.snapshot.SnapshotStrategy
+import me.ahoo.wow.eventsourcing.snapshot.SnapshotWriteCoalescer
 import me.ahoo.wow.eventsourcing.snapshot.VersionOffsetSnapshotStrategy
+import me.ahoo.wow.eventsourcing.snapshot.compression.CompressionDictionary
+import me.ahoo.wow.eventsourcing.snapshot.compression.DeflateStateCompressor
+import me.ahoo.wow.eventsourcing.snapshot.compression.SnapshotStateCompression
 import me.ahoo.wow.eventsourcing.snapshot.dispatcher.DefaultSnapshotHandler
 import me.ahoo.wow.eventsourcing.snapshot.dispatcher.SnapshotDispatcher
 import me.ahoo.wow.eventsourcing.snapshot.dispatcher.SnapshotFunctionFilter
@@ -29,12 +33,15 @@ import me.ahoo.wow.filter.FilterChain
 import me.ahoo.wow.filter.FilterChainBuilder
 import me.ahoo.wow.messaging.handler.ExchangeFilter
 import me.ahoo.wow.metrics.WowMetrics
+import me.ahoo.wow.modeling.toNamedAggregate
+import me.ahoo.wow.scheduler.AggregateSchedulerFactory
 import me.ahoo.wow.spring.boot.starter.ConditionalOnWowEnabled
 import me.ahoo.wow.spring.boot.starter.WowAutoConfiguration
 import me.ahoo.wow.spring.boot.starter.WowRuntimeComponentOrder
 import me.ahoo.wow.spring.boot.starter.eventsourcing.StorageType
 import me.ahoo.wow.spring.boot.starter.eventsourcing.routing.ConditionalOnSnapshotStoreStorage
 import me.ahoo.wow.spring.boot.starter.eventsourcing.routing.SnapshotStoreBinding
+import me.ahoo.wow.spring.boot.starter.scheduler.toAggregateSchedulerSupplier
 import org.springframework.beans.factory.ObjectProvider
 import org.springframework.beans.factory.annotation.Qualifier
 import org.springframework.boot.autoconfigure.AutoConfiguration
@@ -66,6 +73,40 @@ class SnapshotAutoConfiguration(
         return SnapshotStoreBinding.storage(StorageType.IN_MEMORY, snapshotStore)
     }
 
+    @Bean
+    @ConditionalOnProperty(
+        value = [SnapshotProperties.COALESCING_ENABLED],
+        havingValue = "true",
+    )
+    fun snapshotWriteCoalescer(snapshotStore: SnapshotStore): SnapshotWriteCoalescer {
+        return SnapshotWriteCoalescer(
+            delegate = snapshotStore,
+            window = snapshotProperties.coalescing.window,
+        )
+    }
+
+    @Bean
+    @ConditionalOnProperty(
+        value = [SnapshotProperties.COMPRESSION_ENABLED],
+        havingValue = "true",
+    )
+    fun snapshotStateCompression(
+        @Qualifier(WowAutoConfiguration.WOW_CURRENT_BOUNDED_CONTEXT)
+        namedBoundedContext: NamedBoundedContext,
+    ): SnapshotStateCompression {
+        val compression = snapshotProperties.compression
+        val compressors = compression.aggregates.map { (aggregate, aggregateCompression) ->
+            aggregate.toNamedAggregate(namedBoundedContext.contextName) to DeflateStateCompressor(
+                level = aggregateCompression.level ?: compression.level,
+                dictionary = aggregateCompression.dictionary?.let { CompressionDictionary(it.contentAsByteArray) },
+            )
+        }.toMap()
+        return SnapshotStateCompression(
+            compressors = compressors,
+            retiredDictionaries = compression.retiredDictionaries.map { CompressionDictionary(it.contentAsByteArray) },
+        )
+    }
+
     @Bean
     @ConditionalOnProperty(
         value = [SnapshotProperties.STRATEGY],
@@ -73,10 +114,11 @@ class SnapshotAutoConfiguration(
         havingValue = Strategy.ALL_NAME,
     )
     fun simpleSnapshotStrategy(
-        snapshotStore: SnapshotStore
+        snapshotStore: SnapshotStore,
+        snapshotWriteCoalescer: ObjectProvider<SnapshotWriteCoalescer>
     ): SnapshotStrategy {
         return SimpleSnapshotStrategy(
-            snapshotStore = snapshotStore,
+            snapshotStore = snapshotWriteCoalescer.strategySnapshotStore(snapshotStore),
         )
     }
 
@@ -86,11 +128,12 @@ class SnapshotAutoConfiguration(
         havingValue = Strategy.VERSION_OFFSET_NAME,
     )
     fun versionOffsetSnapshotStrategy(
-        snapshotStore: SnapshotStore
+        snapshotStore: SnapshotStore,
+        snapshotWriteCoalescer: ObjectProvider<SnapshotWriteCoalescer>
     ): SnapshotStrategy {
         return VersionOffsetSnapshotStrategy(
             versionOffset = snapshotProperties.versionOffset,
-            snapshotStore = snapshotStore
+            snapshotStore = snapshotWriteCoalescer.strategySnapshotStore(snapshotStore)
         )
     }
 
@@ -126,12 +169,19 @@ class SnapshotAutoConfiguration(
         snapshotHandler: SnapshotHandler,
         stateEventBus: StateEventBus,
         metrics: ObjectProvider<WowMetrics>,
+        schedulerFactory: ObjectProvider<AggregateSchedulerFactory>,
+        snapshotWriteCoalescer: ObjectProvider<SnapshotWriteCoalescer>,
     ): SnapshotDispatcher {
         return SnapshotDispatcher(
             name = "${namedBoundedContext.contextName}.${SnapshotDispatcher::class.simpleName}",
             snapshotHandler = snapshotHandler,
             stateEventBus = stateEventBus,
+            schedulerSupplier = schedulerFactory.toAggregateSchedulerSupplier("SnapshotDispatcher"),
             metrics = metrics.getIfAvailable { WowMetrics.NONE },
+            exchangeBatchWindow = snapshotWriteCoalescer.ifAvailable?.exchangeBatchWindow,
         )
     }
 }
+
+private fun ObjectProvider<SnapshotWriteCoalescer>.strategySnapshotStore(snapshotStore: SnapshotStore): SnapshotStore =
+    ifAvailable?.snapshotStore ?: snapshotStore
@@ -14,24 +14,62 @@
 package me.ahoo.wow.spring.boot.starter.eventsourcing.snapshot
 
 import me.ahoo.wow.api.naming.EnabledCapable
+import me.ahoo.wow.eventsourcing.snapshot.DEFAULT_SNAPSHOT_COALESCING_WINDOW
 import me.ahoo.wow.eventsourcing.snapshot.DEFAULT_VERSION_OFFSET
+import me.ahoo.wow.spring.boot.starter.ENABLED_SUFFIX_KEY
 import me.ahoo.wow.spring.boot.starter.eventsourcing.EventSourcingProperties
 import me.ahoo.wow.spring.boot.starter.eventsourcing.StorageType
 import org.springframework.boot.context.properties.ConfigurationProperties
 import org.springframework.boot.context.properties.bind.DefaultValue
+import org.springframework.core.io.Resource
+import java.time.Duration
+import java.util.zip.Deflater
 
 @ConfigurationProperties(prefix = SnapshotProperties.PREFIX)
 data class SnapshotProperties(
     @DefaultValue("true") override var enabled: Boolean = true,
     var strategy: Strategy = Strategy.ALL,
     var versionOffset: Int = DEFAULT_VERSION_OFFSET,
-    var storage: StorageType = StorageType.MONGO
+    var storage: StorageType = StorageType.MONGO,
+    var coalescing: Coalescing = Coalescing(),
+    var compression: Compression = Compression()
 ) : EnabledCapable {
     companion object {
         const val PREFIX = "${EventSourcingProperties.PREFIX}.snapshot"
         const val STRATEGY = "$PREFIX.strategy"
         const val STORAGE = "$PREFIX.storage"
+        const val COALESCING_ENABLED = "$PREFIX.coalescing$ENABLED_SUFFIX_KEY"
+        const val COMPRESSION_ENABLED = "$PREFIX.compression$ENABLED_SUFFIX_KEY"
     }
+
+    data class Coalescing(
+        @DefaultValue("false")
+        override var enabled: Boolean = false,
+        var window: Duration = DEFAULT_SNAPSHOT_COALESCING_WINDOW
+    ) : EnabledCapable
+
+    /**
+     * Snapshot state compression, applied to the aggregates listed in [aggregates].
+     *
+     * Aggregates are keyed by `aggregateName` within the current bounded context or by `contextName.aggregateName`.
+     * Their states are always compressed, so their snapshot queries reject `state.*` fields.
+     */
+    data class Compression(
+        @DefaultValue("false")
+        override var enabled: Boolean = false,
+        var level: Int = Deflater.DEFAULT_COMPRESSION,
+        var aggregates: Map<String, AggregateCompression> = emptyMap(),
+        var retiredDictionaries: List<Resource> = emptyList()
+    ) : EnabledCapable
+
+    /**
+     * @param level overrides [Compression.level] for this aggregate.
+     * @param dictionary a dictionary trained from sample states with `CompressionDictionaryTrainer`.
+     */
+    data class AggregateCompression(
+        var level: Int? = null,
+        var dictionary: Resource? = null
+    )
 }
 
 enum class Strategy {
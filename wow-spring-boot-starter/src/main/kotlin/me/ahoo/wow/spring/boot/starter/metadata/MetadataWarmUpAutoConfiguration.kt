@@ -0,0 +1,35 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.spring.boot.starter.metadata
+
+import me.ahoo.wow.metadata.MetadataWarmUp
+import me.ahoo.wow.spring.boot.starter.ConditionalOnWowEnabled
+import me.ahoo.wow.spring.boot.starter.WowRuntimeComponentOrder
+import org.springframework.boot.autoconfigure.AutoConfiguration
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
+import org.springframework.boot.context.properties.EnableConfigurationProperties
+import org.springframework.context.annotation.Bean
+import org.springframework.core.annotation.Order
+
+@AutoConfiguration
+@ConditionalOnWowEnabled
+@ConditionalOnMetadataWarmUpEnabled
+@EnableConfigurationProperties(MetadataWarmUpProperties::class)
+class MetadataWarmUpAutoConfiguration {
+    @Bean
+    @ConditionalOnMissingBean
+    @Order(WowRuntimeComponentOrder.METADATA)
+    fun metadataWarmUp(properties: MetadataWarmUpProperties): MetadataWarmUp =
+        MetadataWarmUp(parallelism = properties.parallelism)
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.spring.boot.starter.metrics
+
+import me.ahoo.wow.metrics.CommandStageLatency
+import me.ahoo.wow.metrics.WowMetrics
+import me.ahoo.wow.spring.boot.starter.ConditionalOnWowEnabled
+import org.springframework.boot.actuate.endpoint.Access
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation
+import org.springframework.boot.actuate.endpoint.annotation.Selector
+import org.springframework.boot.autoconfigure.AutoConfiguration
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
+import org.springframework.context.annotation.Bean
+
+@AutoConfiguration(after = [MetricsAutoConfiguration::class])
+@ConditionalOnWowEnabled
+@ConditionalOnMetricsEnabled
+@ConditionalOnClass(name = ["org.springframework.boot.actuate.endpoint.annotation.Endpoint"])
+class CommandStageLatencyEndpointAutoConfiguration {
+    @Bean
+    @ConditionalOnMissingBean
+    fun wowCommandStageLatencyEndpoint(metrics: WowMetrics): WowCommandStageLatencyEndpoint =
+        WowCommandStageLatencyEndpoint(metrics)
+}
+
+/**
+ * Exposes the command stage latency breakdown recorded on this instance.
+ */
+@Endpoint(id = "wowCommandStages", defaultAccess = Access.READ_ONLY)
+class WowCommandStageLatencyEndpoint(
+    private val metrics: WowMetrics,
+) {
+    @ReadOperation
+    fun latencies(): CommandStageLatencyEndpointResponse =
+        CommandStageLatencyEndpointResponse(latencies = metrics.commandStageLatencies())
+
+    @ReadOperation
+    fun aggregateLatencies(
+        @Selector contextName: String,
+        @Selector aggregateName: String,
+    ): CommandStageLatencyEndpointResponse =
+        CommandStageLatencyEndpointResponse(
+            latencies = metrics.commandStageLatencies().filter {
+                it.context == contextName && it.aggregate == aggregateName
+            },
+        )
+}
+
+data class CommandStageLatencyEndpointResponse(
+    val scope: String = "LOCAL_INSTANCE",
+    val unit: String = "MILLISECONDS",
+    val latencies: List<CommandStageLatency>,
+)
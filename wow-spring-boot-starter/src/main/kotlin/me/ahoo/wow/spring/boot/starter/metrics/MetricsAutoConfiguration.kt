@@ -20,6 +20,7 @@ import org.springframework.beans.factory.ObjectProvider
 import org.springframework.beans.factory.config.BeanPostProcessor
 import org.springframework.boot.autoconfigure.AutoConfiguration
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
+import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Bean
 import org.springframework.core.Ordered
 import org.springframework.core.PriorityOrdered
@@ -27,6 +28,7 @@ import org.springframework.core.env.Environment
 
 @AutoConfiguration
 @ConditionalOnWowEnabled
+@EnableConfigurationProperties(MetricsProperties::class)
 class MetricsAutoConfiguration {
     @Bean
     fun wowMetricsEnablementBeanPostProcessor(
@@ -39,11 +41,14 @@ class MetricsAutoConfiguration {
     fun wowMetrics(
         meterRegistry: ObjectProvider<MeterRegistry>,
         environment: Environment,
+        metricsProperties: MetricsProperties,
     ): WowMetrics {
         if (!environment.isMetricsEnabled()) {
             return WowMetrics.NONE
         }
-        return meterRegistry.getIfAvailable()?.let(::WowMetrics) ?: WowMetrics.NONE
+        return meterRegistry.getIfAvailable()?.let {
+            WowMetrics(meterRegistry = it, commandStageHistogram = metricsProperties.commandStage.histogram)
+        } ?: WowMetrics.NONE
     }
 
     @Bean
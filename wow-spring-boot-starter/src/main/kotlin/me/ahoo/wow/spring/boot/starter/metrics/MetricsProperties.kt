@@ -0,0 +1,44 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.spring.boot.starter.metrics
+
+import me.ahoo.wow.api.Wow
+import me.ahoo.wow.api.naming.EnabledCapable
+import org.springframework.boot.context.properties.ConfigurationProperties
+import org.springframework.boot.context.properties.NestedConfigurationProperty
+import org.springframework.boot.context.properties.bind.DefaultValue
+
+@ConfigurationProperties(prefix = MetricsProperties.PREFIX)
+class MetricsProperties(
+    @DefaultValue("true") override var enabled: Boolean = true,
+    @NestedConfigurationProperty var commandStage: CommandStageMetricsProperties = CommandStageMetricsProperties()
+) : EnabledCapable {
+    companion object {
+        const val PREFIX = "${Wow.WOW_PREFIX}metrics"
+    }
+}
+
+/**
+ * `wow.command.stage.latency` timers.
+ *
+ * [histogram] publishes percentile histogram buckets for server-side aggregation; it is off by default because
+ * it multiplies the series of every context × aggregate × processor × stage timer.
+ */
+class CommandStageMetricsProperties(
+    @DefaultValue("false") var histogram: Boolean = false
+) {
+    companion object {
+        const val PREFIX = "${MetricsProperties.PREFIX}.command-stage"
+    }
+}
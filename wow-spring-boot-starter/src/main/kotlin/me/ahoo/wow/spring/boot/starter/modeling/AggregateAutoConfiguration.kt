@@ -37,15 +37,22 @@ import me.ahoo.wow.modeling.command.dispatcher.CommandHandler
 import me.ahoo.wow.modeling.command.dispatcher.DefaultCommandHandler
 import me.ahoo.wow.modeling.command.dispatcher.SendDomainEventStreamFilter
 import me.ahoo.wow.modeling.state.ConstructorStateAggregateFactory
+import me.ahoo.wow.modeling.state.PrefetchingStateAggregateRepository
 import me.ahoo.wow.modeling.state.StateAggregateFactory
+import me.ahoo.wow.modeling.state.StateAggregatePrefetcher
 import me.ahoo.wow.modeling.state.StateAggregateRepository
+import me.ahoo.wow.scheduler.AggregateSchedulerFactory
 import me.ahoo.wow.spring.boot.starter.ConditionalOnWowEnabled
 import me.ahoo.wow.spring.boot.starter.WowAutoConfiguration
 import me.ahoo.wow.spring.boot.starter.WowRuntimeComponentOrder
+import me.ahoo.wow.spring.boot.starter.command.CommandProperties
+import me.ahoo.wow.spring.boot.starter.command.PrefetchProperties
+import me.ahoo.wow.spring.boot.starter.scheduler.toAggregateSchedulerSupplier
 import org.springframework.beans.factory.ObjectProvider
 import org.springframework.beans.factory.annotation.Qualifier
 import org.springframework.boot.autoconfigure.AutoConfiguration
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
 import org.springframework.context.annotation.Bean
 import org.springframework.core.annotation.Order
 
@@ -63,9 +70,36 @@ class AggregateAutoConfiguration {
     fun stateAggregateRepository(
         stateAggregateFactory: StateAggregateFactory,
         snapshotStore: SnapshotStore,
-        eventStore: EventStore
+        eventStore: EventStore,
+        customizers: ObjectProvider<StateAggregateRepositoryCustomizer>
     ): StateAggregateRepository {
-        return EventSourcingStateAggregateRepository(stateAggregateFactory, snapshotStore, eventStore)
+        var repository: StateAggregateRepository =
+            EventSourcingStateAggregateRepository(stateAggregateFactory, snapshotStore, eventStore)
+        customizers.orderedStream().forEach {
+            repository = it.customize(repository)
+        }
+        return repository
+    }
+
+    /**
+     * The prefetch cache wraps the shared repository for the command processor only; every other reader
+     * keeps loading through the shared [StateAggregateRepository] bean.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(value = [PrefetchProperties.ENABLED], havingValue = "true")
+    fun stateAggregatePrefetcher(
+        stateAggregateRepository: StateAggregateRepository,
+        commandProperties: ObjectProvider<CommandProperties>,
+    ): StateAggregatePrefetcher {
+        val prefetch = commandProperties.getIfAvailable()?.prefetch ?: PrefetchProperties(enabled = true)
+        return StateAggregatePrefetcher(
+            PrefetchingStateAggregateRepository(
+                delegate = stateAggregateRepository,
+                ttl = prefetch.ttl,
+                maxEntries = prefetch.maxEntries,
+            ),
+        )
     }
 
     @Bean
@@ -79,11 +113,13 @@ class AggregateAutoConfiguration {
     fun aggregateProcessorFactory(
         stateAggregateFactory: StateAggregateFactory,
         stateAggregateRepository: StateAggregateRepository,
+        stateAggregatePrefetcher: ObjectProvider<StateAggregatePrefetcher>,
         commandAggregateFactory: CommandAggregateFactory
     ): AggregateProcessorFactory {
         return RetryableAggregateProcessorFactory(
             stateAggregateFactory = stateAggregateFactory,
-            stateAggregateRepository = stateAggregateRepository,
+            stateAggregateRepository = stateAggregatePrefetcher.getIfAvailable()?.repository
+                ?: stateAggregateRepository,
             commandAggregateFactory = commandAggregateFactory,
         )
     }
@@ -144,12 +180,17 @@ class AggregateAutoConfiguration {
         commandBus: CommandGateway,
         commandHandler: CommandHandler,
         metrics: ObjectProvider<WowMetrics>,
+        commandProperties: ObjectProvider<CommandProperties>,
+        schedulerFactory: ObjectProvider<AggregateSchedulerFactory>,
     ): CommandDispatcher {
         return CommandDispatcher(
             name = "${namedBoundedContext.contextName}.${CommandDispatcher::class.simpleName}",
             commandBus = commandBus,
             commandHandler = commandHandler,
             metrics = metrics.getIfAvailable { WowMetrics.NONE },
+            hotKeyIsolation = commandProperties.getIfAvailable()?.hotKey?.toIsolation(),
+            tenantFairness = commandProperties.getIfAvailable()?.tenant?.toFairness(),
+            schedulerSupplier = schedulerFactory.toAggregateSchedulerSupplier("CommandDispatcher"),
         )
     }
 }
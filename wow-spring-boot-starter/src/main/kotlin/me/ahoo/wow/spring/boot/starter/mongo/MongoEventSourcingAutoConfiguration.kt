@@ -18,11 +18,14 @@ import com.mongodb.reactivestreams.client.MongoDatabase
 import me.ahoo.wow.api.naming.NamedBoundedContext
 import me.ahoo.wow.eventsourcing.EventStore
 import me.ahoo.wow.eventsourcing.snapshot.SnapshotStore
+import me.ahoo.wow.eventsourcing.snapshot.compression.SnapshotStateCompression
 import me.ahoo.wow.infra.prepare.PrepareKeyFactory
 import me.ahoo.wow.metrics.WowMetrics
+import me.ahoo.wow.mongo.EventStreamArchiveSchemaInitializer
 import me.ahoo.wow.mongo.EventStreamSchemaInitializer
 import me.ahoo.wow.mongo.MongoDatabaseContextGuard
 import me.ahoo.wow.mongo.MongoEventStore
+import me.ahoo.wow.mongo.MongoEventStreamArchive
 import me.ahoo.wow.mongo.MongoSnapshotStore
 import me.ahoo.wow.mongo.SnapshotSchemaInitializer
 import me.ahoo.wow.mongo.prepare.MongoPrepareKeyFactory
@@ -31,6 +34,8 @@ import me.ahoo.wow.mongo.query.snapshot.MongoSnapshotQueryServiceFactory
 import me.ahoo.wow.spring.boot.starter.ConditionalOnWowEnabled
 import me.ahoo.wow.spring.boot.starter.WowAutoConfiguration
 import me.ahoo.wow.spring.boot.starter.eventsourcing.StorageType
+import me.ahoo.wow.spring.boot.starter.eventsourcing.archive.ConditionalOnEventStreamArchiveEnabled
+import me.ahoo.wow.spring.boot.starter.eventsourcing.archive.EventStreamArchiveProperties
 import me.ahoo.wow.spring.boot.starter.eventsourcing.routing.ConditionalOnEventStoreStorage
 import me.ahoo.wow.spring.boot.starter.eventsourcing.routing.ConditionalOnSnapshotStoreStorage
 import me.ahoo.wow.spring.boot.starter.eventsourcing.routing.EventStoreBinding
@@ -86,6 +91,8 @@ class MongoEventSourcingAutoConfiguration(
             database = eventStoreDatabase,
             batchOptions = eventStoreBatchProperties.toOptions(),
             metrics = metrics.getIfAvailable { WowMetrics.NONE },
+            directCodec = mongoProperties.directCodec,
+            eventLogSafetyLag = mongoProperties.eventLogSafetyLag,
         )
     }
 
@@ -120,6 +127,23 @@ class MongoEventSourcingAutoConfiguration(
         return EventStreamQueryServiceFactoryBinding.storage(StorageType.MONGO, mongoEventStreamQueryServiceFactory)
     }
 
+    @Bean
+    @ConditionalOnEventStreamArchiveEnabled
+    @ConditionalOnProperty(
+        value = [EventStreamArchiveProperties.STORAGE_KEY],
+        havingValue = "mongo",
+    )
+    fun mongoEventStreamArchive(
+        mongoClient: MongoClient,
+        dataMongoProperties: org.springframework.boot.mongodb.autoconfigure.MongoProperties?,
+    ): MongoEventStreamArchive {
+        val eventStoreDatabase = getEventStreamDatabase(dataMongoProperties, mongoClient)
+        if (mongoProperties.autoInitSchema) {
+            EventStreamArchiveSchemaInitializer(eventStoreDatabase).initAll()
+        }
+        return MongoEventStreamArchive(eventStoreDatabase)
+    }
+
     private fun getEventStreamDatabase(
         dataMongoProperties: org.springframework.boot.mongodb.autoconfigure.MongoProperties?,
         mongoClient: MongoClient
@@ -141,6 +165,7 @@ class MongoEventSourcingAutoConfiguration(
         @Qualifier(WowAutoConfiguration.WOW_CURRENT_BOUNDED_CONTEXT)
         currentBoundedContext: NamedBoundedContext,
         metrics: ObjectProvider<WowMetrics>,
+        stateCompression: ObjectProvider<SnapshotStateCompression>,
     ): MongoSnapshotStore {
         val snapshotDatabase = getMongoSnapshotDatabase(dataMongoProperties, mongoClient)
         MongoDatabaseContextGuard(snapshotDatabase)
@@ -152,6 +177,8 @@ class MongoEventSourcingAutoConfiguration(
             database = snapshotDatabase,
             batchOptions = snapshotStoreBatchProperties.toOptions(),
             metrics = metrics.getIfAvailable { WowMetrics.NONE },
+            stateCompression = stateCompression.getIfAvailable { SnapshotStateCompression.NONE },
+            directCodec = mongoProperties.directCodec,
         )
     }
 
@@ -173,11 +200,15 @@ class MongoEventSourcingAutoConfiguration(
         dataMongoProperties: org.springframework.boot.mongodb.autoconfigure.MongoProperties?,
         @Qualifier(WowAutoConfiguration.WOW_CURRENT_BOUNDED_CONTEXT)
         currentBoundedContext: NamedBoundedContext,
+        stateCompression: ObjectProvider<SnapshotStateCompression>,
     ): MongoSnapshotQueryServiceFactory {
         val snapshotDatabase = getMongoSnapshotDatabase(dataMongoProperties, mongoClient)
         MongoDatabaseContextGuard(snapshotDatabase)
             .ensureContext(currentBoundedContext.contextName)
-        return MongoSnapshotQueryServiceFactory(snapshotDatabase)
+        return MongoSnapshotQueryServiceFactory(
+            database = snapshotDatabase,
+            stateCompression = stateCompression.getIfAvailable { SnapshotStateCompression.NONE },
+        )
     }
 
     @Bean
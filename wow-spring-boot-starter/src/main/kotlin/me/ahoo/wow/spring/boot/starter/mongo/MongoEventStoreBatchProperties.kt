@@ -26,6 +26,10 @@ class MongoEventStoreBatchProperties(
     @DefaultValue("4096")
     val maxPendingAppends: Int = MongoEventStoreBatchOptions.DEFAULT_MAX_PENDING_APPENDS,
     @DefaultValue("1") val laneCount: Int = MongoEventStoreBatchOptions.DEFAULT_LANE_COUNT,
+    /**
+     * Enables the adaptive batch window when set; `maxSize` and `maxDelay` then act as upper bounds.
+     */
+    val targetLatency: Duration? = null,
 ) {
     fun toOptions(): MongoEventStoreBatchOptions {
         return MongoEventStoreBatchOptions(
@@ -34,6 +38,7 @@ class MongoEventStoreBatchProperties(
             maxDelay = maxDelay,
             maxPendingAppends = maxPendingAppends,
             laneCount = laneCount,
+            targetLatency = targetLatency,
         )
     }
 
@@ -15,8 +15,10 @@ package me.ahoo.wow.spring.boot.starter.mongo
 
 import me.ahoo.wow.api.Wow
 import me.ahoo.wow.api.naming.EnabledCapable
+import me.ahoo.wow.eventsourcing.EventLogReader
 import org.springframework.boot.context.properties.ConfigurationProperties
 import org.springframework.boot.context.properties.bind.DefaultValue
+import java.time.Duration
 
 @ConfigurationProperties(prefix = MongoProperties.PREFIX)
 class MongoProperties(
@@ -25,6 +27,11 @@ class MongoProperties(
     val eventStreamDatabase: String? = null,
     val snapshotDatabase: String? = null,
     val prepareDatabase: String? = null,
+    @DefaultValue("false") val directCodec: Boolean = false,
+    /**
+     * The age an event stream must reach before the event log `readAll` returns it.
+     */
+    @DefaultValue("5s") val eventLogSafetyLag: Duration = EventLogReader.DEFAULT_SAFETY_LAG,
 ) : EnabledCapable {
     companion object {
         const val PREFIX = "${Wow.WOW_PREFIX}mongo"
@@ -0,0 +1,45 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.spring.boot.starter.opentelemetry
+
+import me.ahoo.wow.api.Wow
+import me.ahoo.wow.api.naming.EnabledCapable
+import me.ahoo.wow.opentelemetry.TraceSamplingMode
+import me.ahoo.wow.opentelemetry.TraceSamplingOptions
+import org.springframework.boot.context.properties.ConfigurationProperties
+import org.springframework.boot.context.properties.bind.DefaultValue
+import java.time.Duration
+
+@ConfigurationProperties(prefix = OpenTelemetryProperties.PREFIX)
+data class OpenTelemetryProperties(
+    @DefaultValue("true") override var enabled: Boolean = true,
+    var sampling: Sampling = Sampling()
+) : EnabledCapable {
+    companion object {
+        const val PREFIX = "${Wow.WOW_PREFIX}opentelemetry"
+    }
+
+    data class Sampling(
+        /**
+         * How trace operators are assembled; see [TraceSamplingMode].
+         */
+        var mode: TraceSamplingMode = TraceSamplingMode.ALWAYS,
+        /**
+         * Minimum duration of a successful exchange whose span is kept in [TraceSamplingMode.TAIL] mode.
+         */
+        var slowThreshold: Duration = TraceSamplingOptions.DEFAULT_SLOW_THRESHOLD
+    ) {
+        fun toOptions(): TraceSamplingOptions = TraceSamplingOptions(mode = mode, slowThreshold = slowThreshold)
+    }
+}
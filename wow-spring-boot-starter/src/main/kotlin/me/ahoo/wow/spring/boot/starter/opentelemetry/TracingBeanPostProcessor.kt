@@ -14,17 +14,28 @@
 package me.ahoo.wow.spring.boot.starter.opentelemetry
 
 import io.github.oshai.kotlinlogging.KotlinLogging
+import me.ahoo.wow.opentelemetry.TraceSamplingOptions
 import me.ahoo.wow.opentelemetry.Tracing.tracing
+import org.springframework.beans.factory.ObjectProvider
 import org.springframework.beans.factory.config.BeanPostProcessor
 import org.springframework.core.Ordered
 
-class TracingBeanPostProcessor : BeanPostProcessor, Ordered {
+class TracingBeanPostProcessor(
+    private val traceSamplingOptionsProvider: ObjectProvider<TraceSamplingOptions>
+) : BeanPostProcessor, Ordered {
     companion object {
         private val log = KotlinLogging.logger {}
     }
 
+    /**
+     * Resolved on first use: bean post processors are instantiated before regular beans.
+     */
+    private val samplingOptions: TraceSamplingOptions by lazy {
+        traceSamplingOptionsProvider.getIfAvailable { TraceSamplingOptions() }
+    }
+
     override fun postProcessAfterInitialization(bean: Any, beanName: String): Any {
-        val tracingBean = bean.tracing()
+        val tracingBean = bean.tracing(samplingOptions)
         if (tracingBean !== bean) {
             log.info {
                 "Tracing bean [$beanName] [${bean.javaClass.name}] -> [${tracingBean.javaClass.name}]"
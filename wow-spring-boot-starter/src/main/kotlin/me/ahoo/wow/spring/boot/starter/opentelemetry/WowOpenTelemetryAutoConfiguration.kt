@@ -12,14 +12,17 @@
  */
 package me.ahoo.wow.spring.boot.starter.opentelemetry
 
+import me.ahoo.wow.opentelemetry.TraceSamplingOptions
 import me.ahoo.wow.opentelemetry.aggregate.TraceAggregateFilter
 import me.ahoo.wow.opentelemetry.eventprocessor.TraceEventProcessorFilter
 import me.ahoo.wow.opentelemetry.projection.TraceProjectionFilter
 import me.ahoo.wow.opentelemetry.saga.TraceStatelessSagaFilter
 import me.ahoo.wow.opentelemetry.snapshot.TraceSnapshotFilter
 import me.ahoo.wow.spring.boot.starter.ConditionalOnWowEnabled
+import org.springframework.beans.factory.ObjectProvider
 import org.springframework.boot.autoconfigure.AutoConfiguration
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
+import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Bean
 
 /**
@@ -30,41 +33,50 @@ import org.springframework.context.annotation.Bean
 @AutoConfiguration
 @ConditionalOnWowEnabled
 @ConditionalOnOpenTelemetryEnabled
+@EnableConfigurationProperties(OpenTelemetryProperties::class)
 class WowOpenTelemetryAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    fun traceAggregateFilter(): TraceAggregateFilter {
-        return TraceAggregateFilter
+    fun traceSamplingOptions(openTelemetryProperties: OpenTelemetryProperties): TraceSamplingOptions {
+        return openTelemetryProperties.sampling.toOptions()
     }
 
     @Bean
     @ConditionalOnMissingBean
-    fun traceProjectionFilter(): TraceProjectionFilter {
-        return TraceProjectionFilter
+    fun traceAggregateFilter(traceSamplingOptions: TraceSamplingOptions): TraceAggregateFilter {
+        return TraceAggregateFilter(traceSamplingOptions)
     }
 
     @Bean
     @ConditionalOnMissingBean
-    fun traceSnapshotFilter(): TraceSnapshotFilter {
-        return TraceSnapshotFilter
+    fun traceProjectionFilter(traceSamplingOptions: TraceSamplingOptions): TraceProjectionFilter {
+        return TraceProjectionFilter(traceSamplingOptions)
     }
 
     @Bean
     @ConditionalOnMissingBean
-    fun traceStatelessSagaFilter(): TraceStatelessSagaFilter {
-        return TraceStatelessSagaFilter
+    fun traceSnapshotFilter(traceSamplingOptions: TraceSamplingOptions): TraceSnapshotFilter {
+        return TraceSnapshotFilter(traceSamplingOptions)
     }
 
     @Bean
     @ConditionalOnMissingBean
-    fun traceEventProcessorFilter(): TraceEventProcessorFilter {
-        return TraceEventProcessorFilter
+    fun traceStatelessSagaFilter(traceSamplingOptions: TraceSamplingOptions): TraceStatelessSagaFilter {
+        return TraceStatelessSagaFilter(traceSamplingOptions)
     }
 
     @Bean
     @ConditionalOnMissingBean
-    fun tracingBeanPostProcessor(): TracingBeanPostProcessor {
-        return TracingBeanPostProcessor()
+    fun traceEventProcessorFilter(traceSamplingOptions: TraceSamplingOptions): TraceEventProcessorFilter {
+        return TraceEventProcessorFilter(traceSamplingOptions)
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    fun tracingBeanPostProcessor(
+        traceSamplingOptionsProvider: ObjectProvider<TraceSamplingOptions>
+    ): TracingBeanPostProcessor {
+        return TracingBeanPostProcessor(traceSamplingOptionsProvider)
     }
 }
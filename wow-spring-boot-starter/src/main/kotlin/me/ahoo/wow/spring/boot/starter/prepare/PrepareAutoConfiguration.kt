@@ -12,6 +12,7 @@
  */
 package me.ahoo.wow.spring.boot.starter.prepare
 
+import me.ahoo.wow.infra.prepare.NegativeCachingPrepareKeyFactory
 import me.ahoo.wow.infra.prepare.PrepareKeyFactory
 import me.ahoo.wow.infra.prepare.proxy.DefaultPrepareKeyProxyFactory
 import me.ahoo.wow.infra.prepare.proxy.PrepareKeyProxyFactory
@@ -43,8 +44,21 @@ class PrepareAutoConfiguration {
 
     @Bean
     @ConditionalOnBean(PrepareKeyFactory::class)
-    fun prepareKeyProxyFactory(prepareKeyFactory: PrepareKeyFactory): PrepareKeyProxyFactory {
-        return DefaultPrepareKeyProxyFactory(prepareKeyFactory)
+    fun prepareKeyProxyFactory(
+        prepareKeyFactory: PrepareKeyFactory,
+        prepareProperties: PrepareProperties
+    ): PrepareKeyProxyFactory {
+        val negativeCache = prepareProperties.negativeCache
+        if (!negativeCache.enabled) {
+            return DefaultPrepareKeyProxyFactory(prepareKeyFactory)
+        }
+        return DefaultPrepareKeyProxyFactory(
+            NegativeCachingPrepareKeyFactory(
+                delegate = prepareKeyFactory,
+                ttl = negativeCache.ttl,
+                maxEntries = negativeCache.maxEntries,
+            ),
+        )
     }
 
     @Bean
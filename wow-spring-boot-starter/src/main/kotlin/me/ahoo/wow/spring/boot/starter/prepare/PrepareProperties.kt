@@ -15,14 +15,20 @@ package me.ahoo.wow.spring.boot.starter.prepare
 
 import me.ahoo.wow.api.Wow
 import me.ahoo.wow.api.naming.EnabledCapable
+import me.ahoo.wow.infra.prepare.DEFAULT_PREPARE_NEGATIVE_CACHE_MAX_ENTRIES
+import me.ahoo.wow.infra.prepare.DEFAULT_PREPARE_NEGATIVE_CACHE_TTL
 import org.springframework.boot.context.properties.ConfigurationProperties
+import org.springframework.boot.context.properties.NestedConfigurationProperty
 import org.springframework.boot.context.properties.bind.DefaultValue
+import java.time.Duration
 
 @ConfigurationProperties(prefix = PrepareProperties.PREFIX)
 class PrepareProperties(
     @DefaultValue("true") override var enabled: Boolean = true,
     var storage: PrepareStorage = PrepareStorage.MONGO,
     var basePackages: List<String> = emptyList(),
+    @NestedConfigurationProperty var negativeCache: NegativeCacheProperties = NegativeCacheProperties(),
+    @NestedConfigurationProperty var redis: RedisPrepareProperties = RedisPrepareProperties(),
 ) : EnabledCapable {
     companion object {
         const val PREFIX = "${Wow.WOW_PREFIX}prepare"
@@ -31,6 +37,30 @@ class PrepareProperties(
     }
 }
 
+/**
+ * Local cache of keys known to be taken, answering obvious conflicts without a store round trip.
+ */
+class NegativeCacheProperties(
+    @DefaultValue("false") override var enabled: Boolean = false,
+    var ttl: Duration = DEFAULT_PREPARE_NEGATIVE_CACHE_TTL,
+    var maxEntries: Int = DEFAULT_PREPARE_NEGATIVE_CACHE_MAX_ENTRIES,
+) : EnabledCapable {
+    companion object {
+        const val PREFIX = "${PrepareProperties.PREFIX}.negative-cache"
+    }
+}
+
+/**
+ * Redis storage of prepare keys.
+ *
+ * @property hashTags Redis Cluster hash tags by prepare key name. Prepare keys sharing a hash tag keep
+ * their keys in one slot, so keys of several of them can be prepared atomically; that slot holds all
+ * of their keys, and changing the hash tag of a prepare key orphans the keys it already holds.
+ */
+class RedisPrepareProperties(
+    var hashTags: Map<String, String> = emptyMap(),
+)
+
 enum class PrepareStorage {
     MONGO,
     REDIS
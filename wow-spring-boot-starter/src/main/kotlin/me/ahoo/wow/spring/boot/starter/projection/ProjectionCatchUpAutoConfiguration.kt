@@ -0,0 +1,91 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.spring.boot.starter.projection
+
+import me.ahoo.wow.event.DomainEventBus
+import me.ahoo.wow.event.DomainEventExchange
+import me.ahoo.wow.event.LocalDomainEventBus
+import me.ahoo.wow.eventsourcing.EventStore
+import me.ahoo.wow.filter.FilterChainBuilder
+import me.ahoo.wow.filter.LogErrorHandler
+import me.ahoo.wow.projection.DefaultProjectionHandler
+import me.ahoo.wow.projection.ProjectionFunctionFilter
+import me.ahoo.wow.projection.ProjectionFunctionRegistrar
+import me.ahoo.wow.projection.catchup.ProjectionCatchUp
+import me.ahoo.wow.projection.catchup.ProjectionCatchUpFilter
+import me.ahoo.wow.projection.catchup.ProjectionCatchUpRegistry
+import me.ahoo.wow.spring.boot.starter.ConditionalOnWowEnabled
+import me.ahoo.wow.spring.boot.starter.eventsourcing.routing.StorageRoutingAutoConfiguration
+import org.springframework.boot.autoconfigure.AutoConfiguration
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
+import org.springframework.boot.context.properties.EnableConfigurationProperties
+import org.springframework.context.annotation.Bean
+
+@AutoConfiguration(
+    after = [
+        ProjectionDispatcherAutoConfiguration::class,
+        StorageRoutingAutoConfiguration::class,
+    ],
+)
+@ConditionalOnWowEnabled
+@ConditionalOnProjectionCatchUpEnabled
+@EnableConfigurationProperties(ProjectionCatchUpProperties::class)
+class ProjectionCatchUpAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    fun projectionCatchUpRegistry(): ProjectionCatchUpRegistry {
+        return ProjectionCatchUpRegistry()
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    fun projectionCatchUpFilter(registry: ProjectionCatchUpRegistry): ProjectionCatchUpFilter {
+        return ProjectionCatchUpFilter(registry)
+    }
+
+    /**
+     * Replays through the function filter only, failing on the first error so that the catch-up can resume.
+     *
+     * Catch-up state is local to this instance, so a distributed domain event bus requires
+     * [ProjectionCatchUpProperties.singleInstance].
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    fun projectionCatchUp(
+        domainEventBus: DomainEventBus,
+        eventStore: EventStore,
+        handlerRegistrar: ProjectionFunctionRegistrar,
+        projectionFunctionFilter: ProjectionFunctionFilter,
+        registry: ProjectionCatchUpRegistry,
+        properties: ProjectionCatchUpProperties
+    ): ProjectionCatchUp {
+        check(domainEventBus is LocalDomainEventBus || properties.singleInstance) {
+            "Projection catch-up keeps its watermarks in memory and cannot gate live consumers on other " +
+                "instances. Set [${ProjectionCatchUpProperties.PREFIX}.single-instance=true] if this " +
+                "application runs as a single instance."
+        }
+        val chain = FilterChainBuilder<DomainEventExchange<*>>()
+            .addFilter(projectionFunctionFilter)
+            .build()
+        return ProjectionCatchUp(
+            eventStore = eventStore,
+            functionRegistrar = handlerRegistrar,
+            eventHandler = DefaultProjectionHandler(chain, LogErrorHandler()),
+            registry = registry,
+            batchSize = properties.batchSize,
+            parallelism = properties.parallelism,
+        )
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.spring.boot.starter.projection
+
+import me.ahoo.wow.api.Wow
+import me.ahoo.wow.api.naming.EnabledCapable
+import me.ahoo.wow.projection.catchup.ProjectionCatchUp
+import org.springframework.boot.context.properties.ConfigurationProperties
+import org.springframework.boot.context.properties.bind.DefaultValue
+
+@ConfigurationProperties(prefix = ProjectionCatchUpProperties.PREFIX)
+class ProjectionCatchUpProperties(
+    @DefaultValue("false") override var enabled: Boolean = false,
+    /**
+     * Maximum number of event streams read from the event log per batch.
+     */
+    var batchSize: Int = ProjectionCatchUp.DEFAULT_BATCH_SIZE,
+    /**
+     * Number of aggregates of a batch replayed concurrently.
+     */
+    var parallelism: Int = ProjectionCatchUp.DEFAULT_PARALLELISM,
+    /**
+     * Confirms that the application runs as a single instance.
+     *
+     * Catch-up watermarks are held in memory, so live consumers on other instances would not be gated.
+     * Required unless the domain event bus is local.
+     */
+    @DefaultValue("false") var singleInstance: Boolean = false,
+) : EnabledCapable {
+    companion object {
+        const val PREFIX = "${Wow.WOW_PREFIX}projection.catch-up"
+    }
+}
@@ -29,9 +29,11 @@ import me.ahoo.wow.projection.ProjectionDispatcher
 import me.ahoo.wow.projection.ProjectionFunctionFilter
 import me.ahoo.wow.projection.ProjectionFunctionRegistrar
 import me.ahoo.wow.projection.ProjectionHandler
+import me.ahoo.wow.scheduler.AggregateSchedulerFactory
 import me.ahoo.wow.spring.boot.starter.ConditionalOnWowEnabled
 import me.ahoo.wow.spring.boot.starter.WowAutoConfiguration
 import me.ahoo.wow.spring.boot.starter.WowRuntimeComponentOrder
+import me.ahoo.wow.spring.boot.starter.scheduler.toAggregateSchedulerSupplier
 import me.ahoo.wow.spring.projection.ProjectionProcessorAutoRegistrar
 import org.springframework.beans.factory.ObjectProvider
 import org.springframework.beans.factory.annotation.Qualifier
@@ -103,6 +105,7 @@ class ProjectionDispatcherAutoConfiguration {
         stateEventBus: StateEventBus,
         projectionHandler: ProjectionHandler,
         metrics: ObjectProvider<WowMetrics>,
+        schedulerFactory: ObjectProvider<AggregateSchedulerFactory>,
     ): ProjectionDispatcher {
         return ProjectionDispatcher(
             name = "${namedBoundedContext.contextName}.${ProjectionDispatcher::class.simpleName}",
@@ -110,6 +113,7 @@ class ProjectionDispatcherAutoConfiguration {
             stateEventBus = stateEventBus,
             functionRegistrar = handlerRegistrar,
             eventHandler = projectionHandler,
+            schedulerSupplier = schedulerFactory.toAggregateSchedulerSupplier("ProjectionDispatcher"),
             metrics = metrics.getIfAvailable { WowMetrics.NONE },
         )
     }
@@ -18,11 +18,15 @@ import me.ahoo.wow.api.naming.NamedBoundedContext
 import me.ahoo.wow.configuration.MetadataSearcher
 import me.ahoo.wow.eventsourcing.EventStore
 import me.ahoo.wow.eventsourcing.snapshot.SnapshotStore
+import me.ahoo.wow.eventsourcing.snapshot.compression.SnapshotStateCompression
 import me.ahoo.wow.infra.Decorator.Companion.getOriginalDelegate
 import me.ahoo.wow.infra.prepare.PrepareKeyFactory
+import me.ahoo.wow.modeling.materialize
+import me.ahoo.wow.modeling.state.StateAggregateFactory
 import me.ahoo.wow.modeling.toStringWithAlias
 import me.ahoo.wow.redis.eventsourcing.RedisEventStore
 import me.ahoo.wow.redis.eventsourcing.RedisSnapshotStore
+import me.ahoo.wow.redis.eventsourcing.RedisStateAggregateRepository
 import me.ahoo.wow.redis.prepare.RedisPrepareKeyFactory
 import me.ahoo.wow.spring.boot.starter.ConditionalOnWowEnabled
 import me.ahoo.wow.spring.boot.starter.WowAutoConfiguration
@@ -34,7 +38,9 @@ import me.ahoo.wow.spring.boot.starter.eventsourcing.routing.SnapshotStoreBindin
 import me.ahoo.wow.spring.boot.starter.eventsourcing.routing.StorageRouteResolver
 import me.ahoo.wow.spring.boot.starter.eventsourcing.routing.StorageRoutingProperties
 import me.ahoo.wow.spring.boot.starter.eventsourcing.snapshot.ConditionalOnSnapshotEnabled
+import me.ahoo.wow.spring.boot.starter.eventsourcing.snapshot.SnapshotProperties
 import me.ahoo.wow.spring.boot.starter.eventsourcing.store.EventStoreProperties
+import me.ahoo.wow.spring.boot.starter.modeling.StateAggregateRepositoryCustomizer
 import me.ahoo.wow.spring.boot.starter.prepare.ConditionalOnPrepareEnabled
 import me.ahoo.wow.spring.boot.starter.prepare.PrepareProperties
 import me.ahoo.wow.spring.boot.starter.prepare.PrepareStorage
@@ -61,13 +67,21 @@ import java.time.Duration
     RedisProperties::class,
     EventStoreProperties::class,
     StorageRoutingProperties::class,
+    SnapshotProperties::class,
 )
 class RedisEventSourcingAutoConfiguration {
 
     @Bean
     @ConditionalOnEventStoreStorage(StorageType.REDIS)
-    fun redisEventStore(redisTemplate: ReactiveStringRedisTemplate): RedisEventStore {
-        return RedisEventStore(redisTemplate)
+    fun redisEventStore(
+        redisTemplate: ReactiveStringRedisTemplate,
+        redisProperties: RedisProperties,
+    ): RedisEventStore {
+        return RedisEventStore(
+            redisTemplate = redisTemplate,
+            eventLog = redisProperties.eventLog,
+            eventLogMaxLength = redisProperties.eventLogMaxLength,
+        )
     }
 
     @Bean
@@ -102,8 +116,16 @@ class RedisEventSourcingAutoConfiguration {
     @Bean("redisSnapshotStore")
     @ConditionalOnSnapshotEnabled
     @ConditionalOnSnapshotStoreStorage(StorageType.REDIS)
-    fun redisSnapshotStore(redisTemplate: ReactiveStringRedisTemplate): RedisSnapshotStore {
-        return RedisSnapshotStore(redisTemplate)
+    fun redisSnapshotStore(
+        redisTemplate: ReactiveStringRedisTemplate,
+        redisProperties: RedisProperties,
+        stateCompression: ObjectProvider<SnapshotStateCompression>,
+    ): RedisSnapshotStore {
+        return RedisSnapshotStore(
+            redisTemplate = redisTemplate,
+            stateCompression = stateCompression.getIfAvailable { SnapshotStateCompression.NONE },
+            colocated = redisProperties.colocatedSnapshot,
+        )
     }
 
     @Bean
@@ -116,6 +138,60 @@ class RedisEventSourcingAutoConfiguration {
         return SnapshotStoreBinding.storage(StorageType.REDIS, snapshotStore)
     }
 
+    /**
+     * Serves latest-version loads of aggregates whose events and snapshots are both routed to Redis with one
+     * script; every other aggregate keeps the event-sourcing repository.
+     */
+    @Bean
+    @ConditionalOnSnapshotEnabled
+    @ConditionalOnEventStoreStorage(StorageType.REDIS)
+    @ConditionalOnSnapshotStoreStorage(StorageType.REDIS)
+    @ConditionalOnProperty(RedisProperties.COLOCATED_SNAPSHOT, havingValue = "true")
+    fun redisStateAggregateRepositoryCustomizer(
+        redisTemplate: ReactiveStringRedisTemplate,
+        stateAggregateFactory: StateAggregateFactory,
+        @Qualifier("redisEventStore") redisEventStore: EventStore,
+        @Qualifier("redisSnapshotStore") redisSnapshotStore: SnapshotStore,
+        @Qualifier(WowAutoConfiguration.WOW_CURRENT_BOUNDED_CONTEXT) currentContext: NamedBoundedContext,
+        eventStoreProperties: EventStoreProperties,
+        snapshotProperties: SnapshotProperties,
+        storageRoutingProperties: StorageRoutingProperties,
+        eventStoreBindings: ObjectProvider<EventStoreBinding>,
+        snapshotStoreBindings: ObjectProvider<SnapshotStoreBinding>,
+        stateCompression: ObjectProvider<SnapshotStateCompression>,
+    ): StateAggregateRepositoryCustomizer {
+        val colocatedAggregates by lazy {
+            val resolver = StorageRouteResolver(
+                contextName = currentContext.contextName,
+                snapshotEnabled = true,
+                eventStoreBindings = eventStoreBindings.orderedStream().toList(),
+                snapshotStoreBindings = snapshotStoreBindings.orderedStream().toList(),
+                defaultEventStorage = eventStoreProperties.storage,
+                defaultSnapshotStorage = snapshotProperties.storage,
+            )
+            val eventRoutes = resolver.resolveEventRoutes(storageRoutingProperties)
+            val snapshotRoutes = resolver.resolveSnapshotRoutes(storageRoutingProperties)
+            val originalEventStore = redisEventStore.getOriginalDelegate()
+            val originalSnapshotStore = redisSnapshotStore.getOriginalDelegate()
+            MetadataSearcher.localAggregates.filterTo(mutableSetOf()) { namedAggregate ->
+                val eventStore = eventRoutes.eventRoutes[namedAggregate] ?: eventRoutes.defaultEventStore
+                val snapshotStore = snapshotRoutes.snapshotRoutes[namedAggregate]
+                    ?: snapshotRoutes.defaultSnapshotStore
+                eventStore.getOriginalDelegate() === originalEventStore &&
+                    snapshotStore.getOriginalDelegate() === originalSnapshotStore
+            }
+        }
+        return StateAggregateRepositoryCustomizer { repository ->
+            RedisStateAggregateRepository(
+                redisTemplate = redisTemplate,
+                stateAggregateFactory = stateAggregateFactory,
+                delegate = repository,
+                stateCompression = stateCompression.getIfAvailable { SnapshotStateCompression.NONE },
+                colocated = { colocatedAggregates.contains(it.materialize()) },
+            )
+        }
+    }
+
     @Bean
     @ConditionalOnProperty(
         PrepareProperties.STORAGE,
@@ -123,8 +199,14 @@ class RedisEventSourcingAutoConfiguration {
     )
     @ConditionalOnPrepareEnabled
     @ConditionalOnMissingBean
-    fun redisPrepareKeyFactory(redisTemplate: ReactiveStringRedisTemplate): PrepareKeyFactory {
-        return RedisPrepareKeyFactory(redisTemplate)
+    fun redisPrepareKeyFactory(
+        redisTemplate: ReactiveStringRedisTemplate,
+        prepareProperties: ObjectProvider<PrepareProperties>
+    ): PrepareKeyFactory {
+        return RedisPrepareKeyFactory(
+            redisTemplate = redisTemplate,
+            hashTags = prepareProperties.getIfAvailable()?.redis?.hashTags.orEmpty(),
+        )
     }
 
     private enum class IncompatibleRedisEventStoreLayout {
@@ -13,10 +13,12 @@
 
 package me.ahoo.wow.spring.boot.starter.redis
 
+import io.micrometer.core.instrument.MeterRegistry
 import me.ahoo.wow.command.DistributedCommandBus
 import me.ahoo.wow.event.DistributedDomainEventBus
 import me.ahoo.wow.eventsourcing.state.DistributedStateEventBus
 import me.ahoo.wow.redis.bus.CompositeRedisMessageBusObserver
+import me.ahoo.wow.redis.bus.MetricRedisMessageBusObserver
 import me.ahoo.wow.redis.bus.RedisCommandBus
 import me.ahoo.wow.redis.bus.RedisDomainEventBus
 import me.ahoo.wow.redis.bus.RedisMessageBusObserver
@@ -29,8 +31,10 @@ import me.ahoo.wow.spring.boot.starter.event.EventAutoConfiguration
 import me.ahoo.wow.spring.boot.starter.event.EventProperties
 import me.ahoo.wow.spring.boot.starter.eventsourcing.state.StateAutoConfiguration
 import me.ahoo.wow.spring.boot.starter.eventsourcing.state.StateProperties
+import me.ahoo.wow.spring.boot.starter.metrics.ConditionalOnMetricsEnabled
 import org.springframework.beans.factory.ObjectProvider
 import org.springframework.boot.autoconfigure.AutoConfiguration
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
@@ -46,13 +50,22 @@ import org.springframework.data.redis.core.ReactiveStringRedisTemplate
         StateAutoConfiguration::class,
     ],
     after = [DataRedisReactiveAutoConfiguration::class],
+    afterName = ["org.springframework.boot.micrometer.metrics.autoconfigure.CompositeMeterRegistryAutoConfiguration"],
 )
 @ConditionalOnWowEnabled
 @ConditionalOnRedisEnabled
 @ConditionalOnClass(RedisCommandBus::class)
-@EnableConfigurationProperties(RedisStreamRecoveryProperties::class)
+@EnableConfigurationProperties(RedisStreamRecoveryProperties::class, RedisStreamScalingProperties::class)
 class RedisMessageBusAutoConfiguration {
 
+    @Bean
+    @ConditionalOnMetricsEnabled
+    @ConditionalOnBean(MeterRegistry::class)
+    @ConditionalOnMissingBean(MetricRedisMessageBusObserver::class)
+    fun metricRedisMessageBusObserver(meterRegistry: MeterRegistry): MetricRedisMessageBusObserver {
+        return MetricRedisMessageBusObserver(meterRegistry)
+    }
+
     @Bean
     @ConditionalOnProperty(
         CommandProperties.BUS_TYPE,
@@ -62,12 +75,14 @@ class RedisMessageBusAutoConfiguration {
     fun redisCommandBus(
         redisTemplate: ReactiveStringRedisTemplate,
         recoveryProperties: RedisStreamRecoveryProperties,
+        scalingProperties: RedisStreamScalingProperties,
         observers: ObjectProvider<RedisMessageBusObserver>,
     ): DistributedCommandBus {
         return RedisCommandBus(
             redisTemplate = redisTemplate,
             recoveryOptions = recoveryProperties.toOptions(),
             messageBusObserver = observers.toObserver(),
+            scalingOptions = scalingProperties.toOptions(),
         )
     }
 
@@ -80,12 +95,14 @@ class RedisMessageBusAutoConfiguration {
     fun redisDomainEventBus(
         redisTemplate: ReactiveStringRedisTemplate,
         recoveryProperties: RedisStreamRecoveryProperties,
+        scalingProperties: RedisStreamScalingProperties,
         observers: ObjectProvider<RedisMessageBusObserver>,
     ): DistributedDomainEventBus {
         return RedisDomainEventBus(
             redisTemplate = redisTemplate,
             recoveryOptions = recoveryProperties.toOptions(),
             messageBusObserver = observers.toObserver(),
+            scalingOptions = scalingProperties.toOptions(),
         )
     }
 
@@ -98,12 +115,14 @@ class RedisMessageBusAutoConfiguration {
     fun redisStateEventBus(
         redisTemplate: ReactiveStringRedisTemplate,
         recoveryProperties: RedisStreamRecoveryProperties,
+        scalingProperties: RedisStreamScalingProperties,
         observers: ObjectProvider<RedisMessageBusObserver>,
     ): DistributedStateEventBus {
         return RedisStateEventBus(
             redisTemplate = redisTemplate,
             recoveryOptions = recoveryProperties.toOptions(),
             messageBusObserver = observers.toObserver(),
+            scalingOptions = scalingProperties.toOptions(),
         )
     }
 
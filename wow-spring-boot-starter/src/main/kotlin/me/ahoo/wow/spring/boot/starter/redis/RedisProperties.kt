@@ -15,12 +15,34 @@ package me.ahoo.wow.spring.boot.starter.redis
 
 import me.ahoo.wow.api.Wow
 import me.ahoo.wow.api.naming.EnabledCapable
+import me.ahoo.wow.redis.eventsourcing.RedisEventStore
 import org.springframework.boot.context.properties.ConfigurationProperties
 import org.springframework.boot.context.properties.bind.DefaultValue
 
 @ConfigurationProperties(prefix = RedisProperties.PREFIX)
-class RedisProperties(@DefaultValue("true") override var enabled: Boolean = true) : EnabledCapable {
+class RedisProperties(
+    @DefaultValue("true") override var enabled: Boolean = true,
+    /**
+     * Whether the event store also appends every event stream to a per-aggregate-type Redis stream,
+     * enabling ordered `readAll` of the event log.
+     */
+    @DefaultValue("false") var eventLog: Boolean = false,
+    /**
+     * The approximate number of entries kept by each per-bucket event log stream, trimmed on append;
+     * `0` keeps every entry.
+     */
+    @DefaultValue("100000") var eventLogMaxLength: Long = RedisEventStore.DEFAULT_EVENT_LOG_MAX_LENGTH,
+    /**
+     * Whether snapshots are stored under the hash tag of their aggregate's event stream, so that loading the
+     * latest version of an aggregate reads the snapshot and the event tail with one script.
+     *
+     * Snapshots written under the standalone layout are not read once this is enabled; they are rebuilt from
+     * events by the snapshot dispatcher.
+     */
+    @DefaultValue("false") var colocatedSnapshot: Boolean = false,
+) : EnabledCapable {
     companion object {
         const val PREFIX = "${Wow.WOW_PREFIX}redis"
+        const val COLOCATED_SNAPSHOT = "$PREFIX.colocated-snapshot"
     }
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.spring.boot.starter.redis
+
+import me.ahoo.wow.redis.bus.RedisStreamScalingOptions
+import org.springframework.boot.context.properties.ConfigurationProperties
+import org.springframework.boot.context.properties.bind.DefaultValue
+import java.time.Duration
+
+/**
+ * Lag-aware scaling of the in-process Redis Stream consumers, see [RedisStreamScalingOptions].
+ *
+ * Requires pending message recovery, and gives up the per-aggregate order of the scaled subscriptions.
+ */
+@ConfigurationProperties(prefix = RedisStreamScalingProperties.PREFIX)
+class RedisStreamScalingProperties(
+    @DefaultValue("false") var enabled: Boolean = false,
+    @DefaultValue("1") var minConsumers: Int = 1,
+    @DefaultValue("4") var maxConsumers: Int = 4,
+    @DefaultValue("1000") var lagPerConsumer: Long = 1000,
+    @DefaultValue("10s") var interval: Duration = Duration.ofSeconds(10),
+    @DefaultValue("16") var minBatchSize: Int = 16,
+    @DefaultValue("512") var maxBatchSize: Int = 512,
+) {
+    fun toOptions(): RedisStreamScalingOptions {
+        return RedisStreamScalingOptions(
+            enabled = enabled,
+            minConsumers = minConsumers,
+            maxConsumers = maxConsumers,
+            lagPerConsumer = lagPerConsumer,
+            interval = interval,
+            minBatchSize = minBatchSize,
+            maxBatchSize = maxBatchSize,
+        )
+    }
+
+    companion object {
+        const val PREFIX = "${RedisProperties.PREFIX}.message-bus.scaling"
+    }
+}
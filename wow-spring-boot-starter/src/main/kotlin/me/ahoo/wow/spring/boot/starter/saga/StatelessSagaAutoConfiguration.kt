@@ -31,29 +31,38 @@ import me.ahoo.wow.saga.stateless.StatelessSagaDispatcher
 import me.ahoo.wow.saga.stateless.StatelessSagaFunctionFilter
 import me.ahoo.wow.saga.stateless.StatelessSagaFunctionRegistrar
 import me.ahoo.wow.saga.stateless.StatelessSagaHandler
+import me.ahoo.wow.scheduler.AggregateSchedulerFactory
 import me.ahoo.wow.spring.boot.starter.ConditionalOnWowEnabled
 import me.ahoo.wow.spring.boot.starter.WowAutoConfiguration
 import me.ahoo.wow.spring.boot.starter.WowRuntimeComponentOrder
+import me.ahoo.wow.spring.boot.starter.scheduler.toAggregateSchedulerSupplier
 import me.ahoo.wow.spring.saga.StatelessSagaProcessorAutoRegistrar
 import org.springframework.beans.factory.ObjectProvider
 import org.springframework.beans.factory.annotation.Qualifier
 import org.springframework.boot.autoconfigure.AutoConfiguration
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
+import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.ApplicationContext
 import org.springframework.context.annotation.Bean
 import org.springframework.core.annotation.Order
 
 @AutoConfiguration
 @ConditionalOnWowEnabled
+@EnableConfigurationProperties(StatelessSagaProperties::class)
 class StatelessSagaAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
     fun statelessSagaHandlerRegistrar(
         commandGateway: CommandGateway,
-        commandMessageFactory: CommandMessageFactory
+        commandMessageFactory: CommandMessageFactory,
+        statelessSagaProperties: StatelessSagaProperties
     ): StatelessSagaFunctionRegistrar {
-        return StatelessSagaFunctionRegistrar(commandGateway, commandMessageFactory)
+        return StatelessSagaFunctionRegistrar(
+            commandGateway = commandGateway,
+            commandMessageFactory = commandMessageFactory,
+            sendParallelism = statelessSagaProperties.sendParallelism,
+        )
     }
 
     @Bean
@@ -107,6 +116,7 @@ class StatelessSagaAutoConfiguration {
         stateEventBus: StateEventBus,
         statelessSagaHandler: StatelessSagaHandler,
         metrics: ObjectProvider<WowMetrics>,
+        schedulerFactory: ObjectProvider<AggregateSchedulerFactory>,
     ): StatelessSagaDispatcher {
         return StatelessSagaDispatcher(
             name = "${namedBoundedContext.contextName}.${StatelessSagaDispatcher::class.simpleName}",
@@ -114,6 +124,7 @@ class StatelessSagaAutoConfiguration {
             stateEventBus = stateEventBus,
             functionRegistrar = handlerRegistrar,
             eventHandler = statelessSagaHandler,
+            schedulerSupplier = schedulerFactory.toAggregateSchedulerSupplier("SagaDispatcher"),
             metrics = metrics.getIfAvailable { WowMetrics.NONE },
         )
     }
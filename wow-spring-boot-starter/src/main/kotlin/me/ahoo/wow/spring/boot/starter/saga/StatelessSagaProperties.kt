@@ -0,0 +1,32 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.spring.boot.starter.saga
+
+import me.ahoo.wow.api.Wow
+import me.ahoo.wow.saga.stateless.StatelessSagaFunction
+import org.springframework.boot.context.properties.ConfigurationProperties
+import org.springframework.boot.context.properties.bind.DefaultValue
+
+@ConfigurationProperties(prefix = StatelessSagaProperties.PREFIX)
+class StatelessSagaProperties(
+    /**
+     * Maximum number of target aggregates a saga handler sends commands to concurrently.
+     * Commands for the same aggregate are always sent in order.
+     */
+    @DefaultValue("1") val sendParallelism: Int = StatelessSagaFunction.DEFAULT_SEND_PARALLELISM,
+) {
+    companion object {
+        const val PREFIX = "${Wow.WOW_PREFIX}saga.stateless"
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.spring.boot.starter.scheduler
+
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition
+import org.springframework.boot.context.properties.bind.Binder
+import org.springframework.context.annotation.ConditionContext
+import org.springframework.context.annotation.Conditional
+import org.springframework.core.type.AnnotatedTypeMetadata
+
+/**
+ * Matches when [SchedulerProperties.mode] binds to [SchedulerMode.VIRTUAL_THREAD], in any relaxed form such as
+ * `virtual_thread` or `virtual-thread`.
+ */
+@Conditional(OnVirtualThreadSchedulerCondition::class)
+annotation class ConditionalOnVirtualThreadScheduler
+
+internal class OnVirtualThreadSchedulerCondition : SpringBootCondition() {
+    override fun getMatchOutcome(
+        context: ConditionContext,
+        metadata: AnnotatedTypeMetadata
+    ): ConditionOutcome {
+        val mode = Binder.get(context.environment)
+            .bind(SchedulerProperties.MODE, SchedulerMode::class.java)
+            .orElse(SchedulerMode.PARALLEL)
+        return if (mode == SchedulerMode.VIRTUAL_THREAD) {
+            ConditionOutcome.match("Scheduler mode is $mode.")
+        } else {
+            ConditionOutcome.noMatch("Scheduler mode is $mode.")
+        }
+    }
+}
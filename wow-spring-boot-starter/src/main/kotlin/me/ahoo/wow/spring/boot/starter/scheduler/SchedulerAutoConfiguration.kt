@@ -0,0 +1,70 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.spring.boot.starter.scheduler
+
+import me.ahoo.wow.scheduler.AggregateSchedulerFactory
+import me.ahoo.wow.scheduler.AggregateSchedulerSupplier
+import me.ahoo.wow.scheduler.DefaultAggregateSchedulerSupplier
+import me.ahoo.wow.scheduler.VirtualThreadPinningDetector
+import me.ahoo.wow.scheduler.VirtualThreads
+import me.ahoo.wow.spring.boot.starter.ConditionalOnWowEnabled
+import org.springframework.beans.factory.ObjectProvider
+import org.springframework.boot.autoconfigure.AutoConfiguration
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
+import org.springframework.boot.context.properties.EnableConfigurationProperties
+import org.springframework.context.annotation.Bean
+
+@AutoConfiguration
+@ConditionalOnWowEnabled
+@EnableConfigurationProperties(SchedulerProperties::class)
+class SchedulerAutoConfiguration(
+    private val schedulerProperties: SchedulerProperties,
+) {
+    @Bean
+    @ConditionalOnMissingBean
+    fun aggregateSchedulerFactory(): AggregateSchedulerFactory {
+        return when (schedulerProperties.mode) {
+            SchedulerMode.PARALLEL -> AggregateSchedulerFactory.PARALLEL
+            SchedulerMode.VIRTUAL_THREAD -> {
+                check(VirtualThreads.isSupported) {
+                    "${SchedulerProperties.MODE}=${SchedulerMode.VIRTUAL_THREAD_NAME} requires Java 21 or later."
+                }
+                AggregateSchedulerFactory.VIRTUAL_THREAD
+            }
+        }
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnVirtualThreadScheduler
+    @ConditionalOnProperty(
+        value = [SchedulerProperties.PINNING_DETECTION_ENABLED],
+        matchIfMissing = true,
+        havingValue = "true",
+    )
+    fun virtualThreadPinningDetector(): VirtualThreadPinningDetector {
+        return VirtualThreadPinningDetector(threshold = schedulerProperties.pinningDetection.threshold)
+    }
+}
+
+/**
+ * Creates the scheduler supplier of a dispatcher from the configured [AggregateSchedulerFactory],
+ * falling back to [AggregateSchedulerFactory.PARALLEL] when [SchedulerAutoConfiguration] is not applied.
+ */
+fun ObjectProvider<AggregateSchedulerFactory>.toAggregateSchedulerSupplier(name: String): AggregateSchedulerSupplier =
+    DefaultAggregateSchedulerSupplier(
+        name = name,
+        schedulerFactory = getIfAvailable { AggregateSchedulerFactory.PARALLEL },
+    )
@@ -0,0 +1,60 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.spring.boot.starter.scheduler
+
+import me.ahoo.wow.api.Wow
+import me.ahoo.wow.api.naming.EnabledCapable
+import me.ahoo.wow.scheduler.VirtualThreadPinningDetector
+import me.ahoo.wow.spring.boot.starter.ENABLED_SUFFIX_KEY
+import org.springframework.boot.context.properties.ConfigurationProperties
+import org.springframework.boot.context.properties.bind.DefaultValue
+import java.time.Duration
+
+/**
+ * Scheduler of the command, event, projection, saga and snapshot dispatchers.
+ *
+ * @param mode [SchedulerMode.VIRTUAL_THREAD] runs aggregate groups on virtual threads, for handlers that call
+ * blocking I/O. Requires Java 21 or later.
+ */
+@ConfigurationProperties(prefix = SchedulerProperties.PREFIX)
+data class SchedulerProperties(
+    var mode: SchedulerMode = SchedulerMode.PARALLEL,
+    var pinningDetection: PinningDetection = PinningDetection()
+) {
+    companion object {
+        const val PREFIX = "${Wow.WOW_PREFIX}scheduler"
+        const val MODE = "$PREFIX.mode"
+        const val PINNING_DETECTION_ENABLED = "$PREFIX.pinning-detection$ENABLED_SUFFIX_KEY"
+    }
+
+    /**
+     * Reports virtual threads pinned to their carrier for at least [threshold], in [SchedulerMode.VIRTUAL_THREAD].
+     */
+    data class PinningDetection(
+        @DefaultValue("true")
+        override var enabled: Boolean = true,
+        var threshold: Duration = VirtualThreadPinningDetector.DEFAULT_THRESHOLD
+    ) : EnabledCapable
+}
+
+enum class SchedulerMode {
+    PARALLEL,
+    VIRTUAL_THREAD,
+    ;
+
+    companion object {
+        const val PARALLEL_NAME = "parallel"
+        const val VIRTUAL_THREAD_NAME = "virtual_thread"
+    }
+}
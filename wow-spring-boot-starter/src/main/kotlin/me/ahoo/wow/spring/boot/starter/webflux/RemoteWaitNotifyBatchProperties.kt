@@ -0,0 +1,43 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.spring.boot.starter.webflux
+
+import me.ahoo.wow.webflux.wait.RemoteWaitNotifyBatchOptions
+import org.springframework.boot.context.properties.ConfigurationProperties
+import org.springframework.boot.context.properties.bind.DefaultValue
+import java.time.Duration
+
+@ConfigurationProperties(prefix = RemoteWaitNotifyBatchProperties.PREFIX)
+class RemoteWaitNotifyBatchProperties(
+    @DefaultValue("false") val enabled: Boolean = false,
+    @DefaultValue("256") val maxSize: Int = RemoteWaitNotifyBatchOptions.DEFAULT_MAX_SIZE,
+    @DefaultValue("2ms") val maxDelay: Duration = RemoteWaitNotifyBatchOptions.DEFAULT_MAX_DELAY,
+    @DefaultValue("8192")
+    val maxPendingNotifications: Int = RemoteWaitNotifyBatchOptions.DEFAULT_MAX_PENDING_NOTIFICATIONS,
+    @DefaultValue("4") val laneCount: Int = RemoteWaitNotifyBatchOptions.DEFAULT_LANE_COUNT,
+) {
+    fun toOptions(): RemoteWaitNotifyBatchOptions {
+        return RemoteWaitNotifyBatchOptions(
+            enabled = enabled,
+            maxSize = maxSize,
+            maxDelay = maxDelay,
+            maxPendingNotifications = maxPendingNotifications,
+            laneCount = laneCount,
+        )
+    }
+
+    companion object {
+        const val PREFIX = "${WebFluxProperties.PREFIX}.wait-notify-batch"
+    }
+}
@@ -222,14 +222,16 @@ class WebFluxAutoConfiguration {
         stateAggregateFactory: StateAggregateFactory,
         eventStore: EventStore,
         exceptionHandler: RequestExceptionHandler,
-        tracingPolicy: TracingPolicy
+        tracingPolicy: TracingPolicy,
+        snapshotStore: SnapshotStore
     ): StateRouteModule {
         return StateRouteModule(
             stateAggregateRepository = stateAggregateRepository,
             stateAggregateFactory = stateAggregateFactory,
             eventStore = eventStore,
             exceptionHandler = exceptionHandler,
-            tracingPolicy = tracingPolicy
+            tracingPolicy = tracingPolicy,
+            snapshotStore = snapshotStore
         )
     }
 
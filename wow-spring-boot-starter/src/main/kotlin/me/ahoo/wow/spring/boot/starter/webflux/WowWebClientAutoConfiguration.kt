@@ -14,12 +14,16 @@ package me.ahoo.wow.spring.boot.starter.webflux
 
 import me.ahoo.wow.command.wait.CommandWaitNotifier
 import me.ahoo.wow.command.wait.WaitCoordinator
+import me.ahoo.wow.metrics.WowMetrics
 import me.ahoo.wow.spring.boot.starter.ConditionalOnWowEnabled
+import me.ahoo.wow.webflux.wait.BatchWebClientCommandWaitNotifier
 import me.ahoo.wow.webflux.wait.RemoteWaitNotifyPolicy
 import me.ahoo.wow.webflux.wait.WebClientCommandWaitNotifier
+import org.springframework.beans.factory.ObjectProvider
 import org.springframework.boot.autoconfigure.AutoConfiguration
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
+import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Bean
 import org.springframework.web.reactive.function.client.WebClient
 
@@ -31,6 +35,7 @@ import org.springframework.web.reactive.function.client.WebClient
 @AutoConfiguration
 @ConditionalOnWowEnabled
 @ConditionalOnClass(WebClient::class)
+@EnableConfigurationProperties(RemoteWaitNotifyBatchProperties::class)
 class WowWebClientAutoConfiguration {
 
     @Bean
@@ -44,8 +49,20 @@ class WowWebClientAutoConfiguration {
     fun commandWaitNotifier(
         waitCoordinator: WaitCoordinator,
         webClientBuilder: WebClient.Builder,
-        remoteWaitNotifyPolicy: RemoteWaitNotifyPolicy
+        remoteWaitNotifyPolicy: RemoteWaitNotifyPolicy,
+        batchProperties: RemoteWaitNotifyBatchProperties,
+        metrics: ObjectProvider<WowMetrics>
     ): CommandWaitNotifier {
+        val batchOptions = batchProperties.toOptions()
+        if (batchOptions.enabled) {
+            return BatchWebClientCommandWaitNotifier(
+                waitCoordinator = waitCoordinator,
+                webClient = webClientBuilder.build(),
+                remoteWaitNotifyPolicy = remoteWaitNotifyPolicy,
+                options = batchOptions,
+                metrics = metrics.getIfAvailable { WowMetrics.NONE },
+            )
+        }
         return WebClientCommandWaitNotifier(waitCoordinator, webClientBuilder.build(), remoteWaitNotifyPolicy)
     }
 }
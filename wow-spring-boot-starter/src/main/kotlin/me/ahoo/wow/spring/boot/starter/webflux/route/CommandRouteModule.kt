@@ -21,6 +21,7 @@ import me.ahoo.wow.webflux.route.command.CommandFacadeHandlerFunctionFactory
 import me.ahoo.wow.webflux.route.command.CommandHandlerFunctionFactory
 import me.ahoo.wow.webflux.route.command.extractor.CommandMessageExtractor
 import me.ahoo.wow.webflux.route.policy.CommandWaitPolicy
+import me.ahoo.wow.webflux.wait.CommandWaitBatchHandlerFunctionFactory
 import me.ahoo.wow.webflux.wait.CommandWaitHandlerFunctionFactory
 
 class CommandRouteModule(
@@ -32,6 +33,7 @@ class CommandRouteModule(
 ) : WebFluxRouteModule {
     override val httpFactories: List<HttpRouteHandlerFunctionFactory> = listOf(
         CommandWaitHandlerFunctionFactory(waitCoordinator = waitCoordinator),
+        CommandWaitBatchHandlerFunctionFactory(waitCoordinator = waitCoordinator),
         CommandFacadeHandlerFunctionFactory(
             commandGateway = commandGateway,
             commandMessageExtractor = commandMessageExtractor,
@@ -14,6 +14,8 @@
 package me.ahoo.wow.spring.boot.starter.webflux.route
 
 import me.ahoo.wow.eventsourcing.EventStore
+import me.ahoo.wow.eventsourcing.snapshot.NoOpSnapshotStore
+import me.ahoo.wow.eventsourcing.snapshot.SnapshotStore
 import me.ahoo.wow.modeling.state.StateAggregateFactory
 import me.ahoo.wow.modeling.state.StateAggregateRepository
 import me.ahoo.wow.webflux.exception.RequestExceptionHandler
@@ -29,7 +31,8 @@ class StateRouteModule(
     stateAggregateFactory: StateAggregateFactory,
     eventStore: EventStore,
     exceptionHandler: RequestExceptionHandler,
-    tracingPolicy: TracingPolicy
+    tracingPolicy: TracingPolicy,
+    snapshotStore: SnapshotStore = NoOpSnapshotStore
 ) : WebFluxRouteModule {
     override val httpFactories: List<HttpRouteHandlerFunctionFactory> = listOf(
         LoadAggregateHandlerFunctionFactory(
@@ -48,7 +51,8 @@ class StateRouteModule(
             stateAggregateFactory = stateAggregateFactory,
             eventStore = eventStore,
             exceptionHandler = exceptionHandler,
-            tracingPolicy = tracingPolicy
+            tracingPolicy = tracingPolicy,
+            snapshotStore = snapshotStore
         ),
     )
 }
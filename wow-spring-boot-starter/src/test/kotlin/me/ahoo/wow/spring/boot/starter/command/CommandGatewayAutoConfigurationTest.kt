@@ -6,6 +6,8 @@ import me.ahoo.cosid.machine.LocalHostAddressSupplier
 import me.ahoo.test.asserts.assert
 import me.ahoo.wow.command.CommandGateway
 import me.ahoo.wow.command.RequestIdChecker
+import me.ahoo.wow.command.admission.CommandAdmission
+import me.ahoo.wow.command.admission.TokenBucketCommandAdmission
 import me.ahoo.wow.command.wait.CommandWaitNotifier
 import me.ahoo.wow.command.wait.LocalCommandWaitNotifier
 import me.ahoo.wow.eventsourcing.RequestIdExistenceChecker
@@ -124,4 +126,53 @@ class CommandGatewayAutoConfigurationTest {
                 existenceChecks.get().assert().isEqualTo(1)
             }
     }
+
+    @Test
+    fun `should load token bucket command admission when tenant rate limit enabled`() {
+        contextRunner
+            .enableWow()
+            .withBean(CommandWaitNotifier::class.java, { mockk<CommandWaitNotifier>() })
+            .withBean(HostAddressSupplier::class.java, { LocalHostAddressSupplier.INSTANCE })
+            .withPropertyValues(
+                "${CommandProperties.BUS_TYPE}=${BusType.IN_MEMORY_NAME}",
+                "${TenantRateLimitProperties.PREFIX}.enabled=true",
+                "${TenantRateLimitProperties.PREFIX}.tenant-permits-per-second=100",
+                "${TenantProperties.PREFIX}.weights.premium=4",
+            )
+            .withUserConfiguration(
+                CommandAutoConfiguration::class.java,
+                CommandGatewayAutoConfiguration::class.java,
+            )
+            .run { context: AssertableApplicationContext ->
+                context.assert()
+                    .hasSingleBean(CommandAdmission::class.java)
+                    .hasSingleBean(CommandGateway::class.java)
+                context.getBean(CommandAdmission::class.java)
+                    .assert().isInstanceOf(TokenBucketCommandAdmission::class.java)
+
+                val limits = requireNotNull(context.getBean(CommandProperties::class.java).tenant.toRateLimits())
+                val tenantLimit = requireNotNull(limits.tenant)
+                tenantLimit.permitsPerSecond.assert().isEqualTo(100.0)
+                tenantLimit.burst.assert().isEqualTo(100L)
+                limits.aggregate.assert().isNull()
+                limits.tenantWeights.assert().containsEntry("premium", 4)
+            }
+    }
+
+    @Test
+    fun `should not limit commands when tenant rate limit disabled`() {
+        contextRunner
+            .enableWow()
+            .withBean(CommandWaitNotifier::class.java, { mockk<CommandWaitNotifier>() })
+            .withBean(HostAddressSupplier::class.java, { LocalHostAddressSupplier.INSTANCE })
+            .withPropertyValues("${CommandProperties.BUS_TYPE}=${BusType.IN_MEMORY_NAME}")
+            .withUserConfiguration(
+                CommandAutoConfiguration::class.java,
+                CommandGatewayAutoConfiguration::class.java,
+            )
+            .run { context: AssertableApplicationContext ->
+                context.getBean(CommandAdmission::class.java).assert().isSameAs(CommandAdmission.NONE)
+                context.getBean(CommandProperties::class.java).tenant.toFairness().assert().isNull()
+            }
+    }
 }
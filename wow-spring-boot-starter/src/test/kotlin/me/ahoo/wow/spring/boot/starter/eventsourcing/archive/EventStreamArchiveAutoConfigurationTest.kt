@@ -0,0 +1,105 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.spring.boot.starter.eventsourcing.archive
+
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.eventsourcing.EventStore
+import me.ahoo.wow.eventsourcing.InMemoryEventStore
+import me.ahoo.wow.eventsourcing.archive.ArchivingEventStore
+import me.ahoo.wow.eventsourcing.archive.EventStreamArchive
+import me.ahoo.wow.eventsourcing.archive.EventStreamArchiver
+import me.ahoo.wow.eventsourcing.archive.FileSegmentEventStreamArchive
+import me.ahoo.wow.eventsourcing.snapshot.NoOpSnapshotStore
+import me.ahoo.wow.eventsourcing.snapshot.SnapshotStore
+import me.ahoo.wow.spring.boot.starter.enableWow
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import org.springframework.boot.test.context.assertj.AssertableApplicationContext
+import org.springframework.boot.test.context.runner.ApplicationContextRunner
+import java.nio.file.Path
+
+internal class EventStreamArchiveAutoConfigurationTest {
+    @TempDir
+    lateinit var directory: Path
+
+    private val contextRunner = ApplicationContextRunner()
+        .enableWow()
+        .withBean(
+            EventStreamArchiveProperties.DEFAULT_EVENT_STORE_BEAN_NAME,
+            EventStore::class.java,
+            { InMemoryEventStore() }
+        )
+        .withBean(SnapshotStore::class.java, { NoOpSnapshotStore })
+        .withUserConfiguration(EventStreamArchiveAutoConfiguration::class.java)
+
+    @Test
+    fun `should wrap the archived event store and provide the archiver when enabled`() {
+        contextRunner
+            .withPropertyValues(
+                "${ConditionalOnEventStreamArchiveEnabled.ENABLED_KEY}=true",
+                "${EventStreamArchiveProperties.PREFIX}.directory=$directory",
+                "${EventStreamArchiveProperties.PREFIX}.directory-shared=true",
+                "${EventStreamArchiveProperties.PREFIX}.retained-versions=10",
+            )
+            .run { context: AssertableApplicationContext ->
+                context.assert()
+                    .hasSingleBean(EventStreamArchiver::class.java)
+                    .hasSingleBean(ArchivingEventStoreBeanPostProcessor::class.java)
+                context.getBean(EventStreamArchive::class.java).assert()
+                    .isInstanceOf(FileSegmentEventStreamArchive::class.java)
+                context.getBean(EventStore::class.java).assert().isInstanceOf(ArchivingEventStore::class.java)
+                context.getBean(EventStreamArchiveProperties::class.java).retainedVersions.assert().isEqualTo(10)
+            }
+    }
+
+    @Test
+    fun `should only wrap the configured event store`() {
+        contextRunner
+            .withBean("otherEventStore", EventStore::class.java, { InMemoryEventStore() })
+            .withPropertyValues(
+                "${ConditionalOnEventStreamArchiveEnabled.ENABLED_KEY}=true",
+                "${EventStreamArchiveProperties.PREFIX}.directory=$directory",
+                "${EventStreamArchiveProperties.PREFIX}.directory-shared=true",
+            )
+            .run { context: AssertableApplicationContext ->
+                context.assert().hasSingleBean(EventStreamArchiver::class.java)
+                context.getBean(EventStreamArchiveProperties.DEFAULT_EVENT_STORE_BEAN_NAME).assert()
+                    .isInstanceOf(ArchivingEventStore::class.java)
+                context.getBean("otherEventStore").assert().isInstanceOf(InMemoryEventStore::class.java)
+            }
+    }
+
+    @Test
+    fun `should fail to start when the archive directory is not shared`() {
+        contextRunner
+            .withPropertyValues(
+                "${ConditionalOnEventStreamArchiveEnabled.ENABLED_KEY}=true",
+                "${EventStreamArchiveProperties.PREFIX}.directory=$directory",
+            )
+            .run { context: AssertableApplicationContext ->
+                context.assert().hasFailed()
+            }
+    }
+
+    @Test
+    fun `should not archive by default`() {
+        contextRunner
+            .run { context: AssertableApplicationContext ->
+                context.assert()
+                    .doesNotHaveBean(EventStreamArchiver::class.java)
+                    .doesNotHaveBean(EventStreamArchive::class.java)
+                context.getBean(EventStore::class.java).assert().isInstanceOf(InMemoryEventStore::class.java)
+            }
+    }
+}
@@ -19,12 +19,15 @@ import me.ahoo.wow.eventsourcing.snapshot.InMemorySnapshotStore
 import me.ahoo.wow.eventsourcing.snapshot.SimpleSnapshotStrategy
 import me.ahoo.wow.eventsourcing.snapshot.Snapshot
 import me.ahoo.wow.eventsourcing.snapshot.SnapshotStore
+import me.ahoo.wow.eventsourcing.snapshot.SnapshotWriteCoalescer
 import me.ahoo.wow.eventsourcing.snapshot.VersionOffsetSnapshotStrategy
+import me.ahoo.wow.eventsourcing.snapshot.compression.SnapshotStateCompression
 import me.ahoo.wow.eventsourcing.snapshot.dispatcher.SnapshotDispatcher
 import me.ahoo.wow.eventsourcing.snapshot.dispatcher.SnapshotFunctionFilter
 import me.ahoo.wow.eventsourcing.snapshot.dispatcher.SnapshotHandler
 import me.ahoo.wow.eventsourcing.state.InMemoryStateEventBus
 import me.ahoo.wow.eventsourcing.state.StateEventBus
+import me.ahoo.wow.modeling.MaterializedNamedAggregate
 import me.ahoo.wow.modeling.state.ConstructorStateAggregateFactory
 import me.ahoo.wow.modeling.state.StateAggregateFactory
 import me.ahoo.wow.spring.WowRuntimeLifecycle
@@ -38,6 +41,7 @@ import me.ahoo.wow.spring.boot.starter.eventsourcing.store.EventStoreAutoConfigu
 import me.ahoo.wow.spring.boot.starter.eventsourcing.store.EventStoreProperties
 import org.junit.jupiter.api.Test
 import org.springframework.beans.factory.config.BeanPostProcessor
+import org.springframework.beans.factory.support.StaticListableBeanFactory
 import org.springframework.boot.test.context.assertj.AssertableApplicationContext
 import org.springframework.boot.test.context.runner.ApplicationContextRunner
 import org.springframework.context.annotation.Bean
@@ -55,7 +59,9 @@ internal class SnapshotAutoConfigurationTest {
         )
         val snapshotStore = configuration.inMemorySnapshotStore()
 
-        configuration.simpleSnapshotStrategy(snapshotStore).assert()
+        val snapshotWriteCoalescer = StaticListableBeanFactory().getBeanProvider(SnapshotWriteCoalescer::class.java)
+
+        configuration.simpleSnapshotStrategy(snapshotStore, snapshotWriteCoalescer).assert()
             .isInstanceOf(SimpleSnapshotStrategy::class.java)
     }
 
@@ -94,6 +100,58 @@ internal class SnapshotAutoConfigurationTest {
             }
     }
 
+    @Test
+    fun `should create snapshot write coalescer when enabled`() {
+        contextRunner
+            .enableWow()
+            .withBean(StateAggregateFactory::class.java, { ConstructorStateAggregateFactory })
+            .withBean(StateEventBus::class.java, { InMemoryStateEventBus() })
+            .withPropertyValues(
+                "${EventStoreProperties.STORAGE}=${StorageType.IN_MEMORY_NAME}",
+                "${SnapshotProperties.STORAGE}=${StorageType.IN_MEMORY_NAME}",
+                "${EventProperties.BUS_TYPE}=${BusType.IN_MEMORY_NAME}",
+                "${SnapshotProperties.COALESCING_ENABLED}=true",
+                "${SnapshotProperties.PREFIX}.coalescing.window=20ms",
+            )
+            .withUserConfiguration(
+                EventAutoConfiguration::class.java,
+                EventStoreAutoConfiguration::class.java,
+                SnapshotAutoConfiguration::class.java,
+            )
+            .run { context: AssertableApplicationContext ->
+                context.assert()
+                    .hasSingleBean(SnapshotWriteCoalescer::class.java)
+                    .hasSingleBean(SimpleSnapshotStrategy::class.java)
+                context.getBean(SnapshotWriteCoalescer::class.java).window.toMillis().assert().isEqualTo(20)
+            }
+    }
+
+    @Test
+    fun `should create snapshot state compression when enabled`() {
+        contextRunner
+            .enableWow()
+            .withBean(StateAggregateFactory::class.java, { ConstructorStateAggregateFactory })
+            .withBean(StateEventBus::class.java, { InMemoryStateEventBus() })
+            .withPropertyValues(
+                "${EventStoreProperties.STORAGE}=${StorageType.IN_MEMORY_NAME}",
+                "${SnapshotProperties.STORAGE}=${StorageType.IN_MEMORY_NAME}",
+                "${EventProperties.BUS_TYPE}=${BusType.IN_MEMORY_NAME}",
+                "${SnapshotProperties.COMPRESSION_ENABLED}=true",
+                "${SnapshotProperties.PREFIX}.compression.aggregates[sales.order].level=9",
+            )
+            .withUserConfiguration(
+                EventAutoConfiguration::class.java,
+                EventStoreAutoConfiguration::class.java,
+                SnapshotAutoConfiguration::class.java,
+            )
+            .run { context: AssertableApplicationContext ->
+                context.assert().hasSingleBean(SnapshotStateCompression::class.java)
+                val compression = context.getBean(SnapshotStateCompression::class.java)
+                compression.isEnabled(MaterializedNamedAggregate("sales", "order")).assert().isTrue()
+                compression.isEnabled(MaterializedNamedAggregate("sales", "cart")).assert().isFalse()
+            }
+    }
+
     @Test
     fun `should create binding from decorated snapshot store`() {
         contextRunner
@@ -0,0 +1,48 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.spring.boot.starter.metadata
+
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.metadata.MetadataWarmUp
+import me.ahoo.wow.spring.boot.starter.enableWow
+import org.junit.jupiter.api.Test
+import org.springframework.boot.test.context.assertj.AssertableApplicationContext
+import org.springframework.boot.test.context.runner.ApplicationContextRunner
+
+class MetadataWarmUpAutoConfigurationTest {
+    private val contextRunner = ApplicationContextRunner()
+        .enableWow()
+        .withUserConfiguration(MetadataWarmUpAutoConfiguration::class.java)
+
+    @Test
+    fun `should load context with metadata warm-up`() {
+        contextRunner
+            .withPropertyValues("${MetadataWarmUpProperties.PREFIX}.parallelism=2")
+            .run { context: AssertableApplicationContext ->
+                context.assert()
+                    .hasSingleBean(MetadataWarmUp::class.java)
+                context.getBean(MetadataWarmUpProperties::class.java).parallelism.assert().isEqualTo(2)
+            }
+    }
+
+    @Test
+    fun `should not load metadata warm-up when disabled`() {
+        contextRunner
+            .withPropertyValues("${ConditionalOnMetadataWarmUpEnabled.ENABLED_KEY}=false")
+            .run { context: AssertableApplicationContext ->
+                context.assert()
+                    .doesNotHaveBean(MetadataWarmUp::class.java)
+            }
+    }
+}
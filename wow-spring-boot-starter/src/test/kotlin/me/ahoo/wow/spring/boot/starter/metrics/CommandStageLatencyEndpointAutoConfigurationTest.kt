@@ -0,0 +1,60 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.spring.boot.starter.metrics
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.spring.boot.starter.enableWow
+import org.junit.jupiter.api.Test
+import org.springframework.boot.test.context.assertj.AssertableApplicationContext
+import org.springframework.boot.test.context.runner.ApplicationContextRunner
+
+class CommandStageLatencyEndpointAutoConfigurationTest {
+    private val contextRunner = ApplicationContextRunner()
+
+    @Test
+    fun `should expose command stage latency endpoint`() {
+        contextRunner
+            .enableWow()
+            .withBean(SimpleMeterRegistry::class.java, ::SimpleMeterRegistry)
+            .withUserConfiguration(
+                MetricsAutoConfiguration::class.java,
+                CommandStageLatencyEndpointAutoConfiguration::class.java,
+            )
+            .run { context: AssertableApplicationContext ->
+                context.assert().hasSingleBean(WowCommandStageLatencyEndpoint::class.java)
+                val response = context.getBean(WowCommandStageLatencyEndpoint::class.java).latencies()
+                response.scope.assert().isEqualTo("LOCAL_INSTANCE")
+                response.latencies.assert().isEmpty()
+                context.getBean(WowCommandStageLatencyEndpoint::class.java)
+                    .aggregateLatencies("sales", "Order")
+                    .latencies.assert().isEmpty()
+            }
+    }
+
+    @Test
+    fun `should not expose endpoint when metrics disabled`() {
+        contextRunner
+            .enableWow()
+            .withBean(SimpleMeterRegistry::class.java, ::SimpleMeterRegistry)
+            .withPropertyValues("${ConditionalOnMetricsEnabled.ENABLED_KEY}=false")
+            .withUserConfiguration(
+                MetricsAutoConfiguration::class.java,
+                CommandStageLatencyEndpointAutoConfiguration::class.java,
+            )
+            .run { context: AssertableApplicationContext ->
+                context.assert().doesNotHaveBean(WowCommandStageLatencyEndpoint::class.java)
+            }
+    }
+}
@@ -16,12 +16,14 @@ package me.ahoo.wow.spring.boot.starter.metrics
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry
 import io.mockk.mockk
 import me.ahoo.test.asserts.assert
+import me.ahoo.wow.command.wait.CommandStage
 import me.ahoo.wow.eventsourcing.EventStore
 import me.ahoo.wow.eventsourcing.InMemoryEventStore
 import me.ahoo.wow.eventsourcing.snapshot.InMemorySnapshotStore
 import me.ahoo.wow.infra.Decorator
 import me.ahoo.wow.metrics.MetricDescriptor
 import me.ahoo.wow.metrics.WowMetrics
+import me.ahoo.wow.modeling.MaterializedNamedAggregate
 import me.ahoo.wow.spring.boot.starter.enableWow
 import me.ahoo.wow.spring.boot.starter.eventsourcing.routing.EventStoreBinding
 import me.ahoo.wow.spring.boot.starter.eventsourcing.routing.SnapshotStoreBinding
@@ -97,6 +99,30 @@ class MetricsAutoConfigurationTest {
             }
     }
 
+    @Test
+    fun `command stage histogram should bind from properties`() {
+        val meterRegistry = SimpleMeterRegistry()
+
+        contextRunner
+            .enableWow()
+            .withBean(SimpleMeterRegistry::class.java, { meterRegistry })
+            .withPropertyValues("${CommandStageMetricsProperties.PREFIX}.histogram=true")
+            .withUserConfiguration(MetricsAutoConfiguration::class.java)
+            .run { context ->
+                context.getBean(MetricsProperties::class.java).commandStage.histogram.assert().isTrue()
+                context.getBean(WowMetrics::class.java).commandStageLatencyRecorder.record(
+                    stage = CommandStage.PROCESSED,
+                    aggregate = MaterializedNamedAggregate("sales", "Order"),
+                    processorName = "Order",
+                    succeeded = true,
+                    previousStageTime = 100,
+                    stageTime = 150,
+                )
+                val timer = meterRegistry.find("wow.command.stage.latency").timer()
+                requireNotNull(timer).takeSnapshot().histogramCounts().assert().isNotEmpty()
+            }
+    }
+
     @Test
     fun `enabled metrics without a registry should remain a local no-op`() {
         contextRunner
@@ -28,11 +28,16 @@ import me.ahoo.wow.modeling.command.dispatcher.AggregateProcessorFilter
 import me.ahoo.wow.modeling.command.dispatcher.CommandDispatcher
 import me.ahoo.wow.modeling.command.dispatcher.CommandHandler
 import me.ahoo.wow.modeling.command.dispatcher.SendDomainEventStreamFilter
+import me.ahoo.wow.modeling.state.AggregatePrefetcher
 import me.ahoo.wow.modeling.state.ConstructorStateAggregateFactory
+import me.ahoo.wow.modeling.state.PrefetchingStateAggregateRepository
 import me.ahoo.wow.modeling.state.StateAggregateFactory
+import me.ahoo.wow.modeling.state.StateAggregatePrefetcher
 import me.ahoo.wow.modeling.state.StateAggregateRepository
 import me.ahoo.wow.runtime.WowRuntime
 import me.ahoo.wow.spring.WowRuntimeLifecycle
+import me.ahoo.wow.spring.boot.starter.command.CommandProperties
+import me.ahoo.wow.spring.boot.starter.command.PrefetchProperties
 import me.ahoo.wow.spring.boot.starter.enableWow
 import me.ahoo.wow.spring.boot.starter.opentelemetry.WowOpenTelemetryAutoConfiguration
 import me.ahoo.wow.test.SagaVerifier
@@ -72,4 +77,50 @@ internal class AggregateAutoConfigurationTest {
                     .isInstanceOf(CommandDispatcher::class.java)
             }
     }
+
+    @Test
+    fun `should register prefetcher without wrapping shared repository when prefetch is enabled`() {
+        contextRunner
+            .enableWow()
+            .withBean(StateAggregateFactory::class.java, { ConstructorStateAggregateFactory })
+            .withBean(SnapshotStore::class.java, { NoOpSnapshotStore })
+            .withBean(EventStore::class.java, { InMemoryEventStore() })
+            .withBean(DomainEventBus::class.java, { InMemoryDomainEventBus() })
+            .withBean(CommandGateway::class.java, { SagaVerifier.defaultCommandGateway() })
+            .withBean(CommandProperties::class.java, {
+                CommandProperties(prefetch = PrefetchProperties(enabled = true))
+            })
+            .withPropertyValues("${PrefetchProperties.ENABLED}=true")
+            .withUserConfiguration(
+                WowOpenTelemetryAutoConfiguration::class.java,
+                AggregateAutoConfiguration::class.java,
+            )
+            .run { context: AssertableApplicationContext ->
+                context.assert()
+                    .hasSingleBean(StateAggregateRepository::class.java)
+                    .hasSingleBean(AggregatePrefetcher::class.java)
+                    .getBean(StateAggregateRepository::class.java)
+                    .isNotInstanceOf(PrefetchingStateAggregateRepository::class.java)
+                context.getBean(StateAggregatePrefetcher::class.java)
+                    .repository.assert().isInstanceOf(PrefetchingStateAggregateRepository::class.java)
+            }
+    }
+
+    @Test
+    fun `should not register prefetcher when prefetch is disabled`() {
+        contextRunner
+            .enableWow()
+            .withBean(StateAggregateFactory::class.java, { ConstructorStateAggregateFactory })
+            .withBean(SnapshotStore::class.java, { NoOpSnapshotStore })
+            .withBean(EventStore::class.java, { InMemoryEventStore() })
+            .withBean(DomainEventBus::class.java, { InMemoryDomainEventBus() })
+            .withBean(CommandGateway::class.java, { SagaVerifier.defaultCommandGateway() })
+            .withUserConfiguration(
+                WowOpenTelemetryAutoConfiguration::class.java,
+                AggregateAutoConfiguration::class.java,
+            )
+            .run { context: AssertableApplicationContext ->
+                context.assert().doesNotHaveBean(AggregatePrefetcher::class.java)
+            }
+    }
 }
@@ -91,6 +91,7 @@ class MongoEventSourcingAutoConfigurationTest {
                 "${MongoProperties.PREFIX}.prepare-database=testPrepare",
                 "${MongoProperties.PREFIX}.error-database=testError",
                 "${MongoProperties.PREFIX}.auto-init-schema=false",
+                "${MongoProperties.PREFIX}.direct-codec=true",
                 "${MongoProperties.PREFIX}.event-store-batch.enabled=true",
                 "${MongoProperties.PREFIX}.event-store-batch.max-size=64",
                 "${MongoProperties.PREFIX}.event-store-batch.max-delay=2ms",
@@ -124,6 +125,7 @@ class MongoEventSourcingAutoConfigurationTest {
                 eventStore.batchOptions.maxDelay.assert().isEqualTo(java.time.Duration.ofMillis(2))
                 eventStore.batchOptions.maxPendingAppends.assert().isEqualTo(2048)
                 eventStore.batchOptions.laneCount.assert().isEqualTo(2)
+                eventStore.directCodec.assert().isTrue()
                 val eventBinding = context.getBean(EventStoreBinding::class.java)
                 eventBinding.storage.assert().isEqualTo(StorageType.MONGO)
                 eventBinding.eventStore.assert().isSameAs(eventStore)
@@ -134,6 +136,7 @@ class MongoEventSourcingAutoConfigurationTest {
                 snapshotStore.batchOptions.maxDelay.assert().isEqualTo(java.time.Duration.ofMillis(3))
                 snapshotStore.batchOptions.maxPendingSaves.assert().isEqualTo(1024)
                 snapshotStore.batchOptions.laneCount.assert().isEqualTo(3)
+                snapshotStore.directCodec.assert().isTrue()
                 val snapshotBinding = context.getBean(SnapshotStoreBinding::class.java)
                 snapshotBinding.storage.assert().isEqualTo(StorageType.MONGO)
                 snapshotBinding.snapshotStore.assert().isSameAs(snapshotStore)
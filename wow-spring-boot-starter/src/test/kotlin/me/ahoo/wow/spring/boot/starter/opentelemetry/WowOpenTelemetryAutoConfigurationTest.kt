@@ -22,6 +22,8 @@ import me.ahoo.wow.eventsourcing.snapshot.AggregateSnapshotStoreRegistry
 import me.ahoo.wow.eventsourcing.snapshot.InMemorySnapshotStore
 import me.ahoo.wow.eventsourcing.snapshot.RoutingSnapshotStore
 import me.ahoo.wow.metrics.WowMetrics
+import me.ahoo.wow.opentelemetry.TraceSamplingMode
+import me.ahoo.wow.opentelemetry.TraceSamplingOptions
 import me.ahoo.wow.opentelemetry.aggregate.TraceAggregateFilter
 import me.ahoo.wow.opentelemetry.eventprocessor.TraceEventProcessorFilter
 import me.ahoo.wow.opentelemetry.projection.TraceProjectionFilter
@@ -30,8 +32,11 @@ import me.ahoo.wow.opentelemetry.snapshot.TraceSnapshotFilter
 import me.ahoo.wow.spring.boot.starter.enableWow
 import me.ahoo.wow.spring.boot.starter.metrics.MetricsBeanPostProcessor
 import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.ObjectProvider
+import org.springframework.beans.factory.support.DefaultListableBeanFactory
 import org.springframework.boot.test.context.assertj.AssertableApplicationContext
 import org.springframework.boot.test.context.runner.ApplicationContextRunner
+import java.time.Duration
 
 internal class WowOpenTelemetryAutoConfigurationTest {
     private val contextRunner = ApplicationContextRunner()
@@ -51,6 +56,25 @@ internal class WowOpenTelemetryAutoConfigurationTest {
                     .hasSingleBean(TraceStatelessSagaFilter::class.java)
                     .hasSingleBean(TraceEventProcessorFilter::class.java)
                     .hasSingleBean(TracingBeanPostProcessor::class.java)
+                context.getBean(TraceSamplingOptions::class.java).mode.assert().isEqualTo(TraceSamplingMode.ALWAYS)
+            }
+    }
+
+    @Test
+    fun `should bind trace sampling options`() {
+        contextRunner
+            .enableWow()
+            .withPropertyValues(
+                "${OpenTelemetryProperties.PREFIX}.sampling.mode=tail",
+                "${OpenTelemetryProperties.PREFIX}.sampling.slow-threshold=200ms",
+            )
+            .withUserConfiguration(
+                WowOpenTelemetryAutoConfiguration::class.java,
+            )
+            .run { context: AssertableApplicationContext ->
+                val options = context.getBean(TraceSamplingOptions::class.java)
+                options.mode.assert().isEqualTo(TraceSamplingMode.TAIL)
+                options.slowThreshold.assert().isEqualTo(Duration.ofMillis(200))
             }
     }
 
@@ -77,7 +101,7 @@ internal class WowOpenTelemetryAutoConfigurationTest {
     fun `should back off when custom trace filter exists`() {
         contextRunner
             .enableWow()
-            .withBean("customTraceSnapshotFilter", TraceSnapshotFilter::class.java, { TraceSnapshotFilter })
+            .withBean("customTraceSnapshotFilter", TraceSnapshotFilter::class.java, { TraceSnapshotFilter() })
             .withUserConfiguration(
                 WowOpenTelemetryAutoConfiguration::class.java,
             )
@@ -94,7 +118,7 @@ internal class WowOpenTelemetryAutoConfigurationTest {
                 routes = emptyMap(),
             ),
         )
-        val tracedStore = TracingBeanPostProcessor().postProcessAfterInitialization(
+        val tracedStore = TracingBeanPostProcessor(samplingOptionsProvider()).postProcessAfterInitialization(
             routingStore,
             "eventStore",
         )
@@ -115,7 +139,7 @@ internal class WowOpenTelemetryAutoConfigurationTest {
                 routes = emptyMap(),
             ),
         )
-        val tracedStore = TracingBeanPostProcessor().postProcessAfterInitialization(
+        val tracedStore = TracingBeanPostProcessor(samplingOptionsProvider()).postProcessAfterInitialization(
             routingStore,
             "snapshotStore",
         )
@@ -127,4 +151,7 @@ internal class WowOpenTelemetryAutoConfigurationTest {
 
         metricStore.assert().isSameAs(tracedStore)
     }
+
+    private fun samplingOptionsProvider(): ObjectProvider<TraceSamplingOptions> =
+        DefaultListableBeanFactory().getBeanProvider(TraceSamplingOptions::class.java)
 }
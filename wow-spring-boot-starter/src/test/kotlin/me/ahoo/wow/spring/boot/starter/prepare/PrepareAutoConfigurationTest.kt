@@ -50,6 +50,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication
 import org.springframework.boot.test.context.assertj.AssertableApplicationContext
 import org.springframework.boot.test.context.runner.ApplicationContextRunner
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate
+import java.time.Duration
 
 class PrepareAutoConfigurationTest {
     private val contextRunner = ApplicationContextRunner()
@@ -70,6 +71,29 @@ class PrepareAutoConfigurationTest {
             }
     }
 
+    @Test
+    fun `should bind negative cache properties`() {
+        contextRunner
+            .enableWow()
+            .withPropertyValues(
+                "${NegativeCacheProperties.PREFIX}.enabled=true",
+                "${NegativeCacheProperties.PREFIX}.ttl=1s",
+                "${NegativeCacheProperties.PREFIX}.max-entries=16",
+            )
+            .withBean(PrepareKeyFactory::class.java, {
+                mockk()
+            })
+            .withUserConfiguration(PrepareAutoConfiguration::class.java)
+            .run { context: AssertableApplicationContext ->
+                context.assert()
+                    .hasSingleBean(PrepareKeyProxyFactory::class.java)
+                val negativeCache = context.getBean<PrepareProperties>().negativeCache
+                negativeCache.enabled.assert().isTrue()
+                negativeCache.ttl.assert().isEqualTo(Duration.ofSeconds(1))
+                negativeCache.maxEntries.assert().isEqualTo(16)
+            }
+    }
+
     @Test
     fun `should create prepare proxy factory after redis prepare key factory`() {
         contextRunner
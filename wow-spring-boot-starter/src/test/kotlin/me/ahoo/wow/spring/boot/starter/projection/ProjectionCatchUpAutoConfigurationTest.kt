@@ -0,0 +1,96 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.spring.boot.starter.projection
+
+import io.mockk.mockk
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.event.DistributedDomainEventBus
+import me.ahoo.wow.event.DomainEventBus
+import me.ahoo.wow.event.InMemoryDomainEventBus
+import me.ahoo.wow.eventsourcing.EventStore
+import me.ahoo.wow.eventsourcing.InMemoryEventStore
+import me.ahoo.wow.eventsourcing.state.InMemoryStateEventBus
+import me.ahoo.wow.eventsourcing.state.StateEventBus
+import me.ahoo.wow.projection.catchup.ProjectionCatchUp
+import me.ahoo.wow.projection.catchup.ProjectionCatchUpFilter
+import me.ahoo.wow.projection.catchup.ProjectionCatchUpRegistry
+import me.ahoo.wow.spring.boot.starter.enableWow
+import me.ahoo.wow.spring.boot.starter.opentelemetry.WowOpenTelemetryAutoConfiguration
+import org.junit.jupiter.api.Test
+import org.springframework.boot.test.context.assertj.AssertableApplicationContext
+import org.springframework.boot.test.context.runner.ApplicationContextRunner
+
+internal class ProjectionCatchUpAutoConfigurationTest {
+    private val baseContextRunner = ApplicationContextRunner()
+        .enableWow()
+        .withBean(EventStore::class.java, { InMemoryEventStore() })
+        .withBean(StateEventBus::class.java, { InMemoryStateEventBus() })
+        .withUserConfiguration(
+            WowOpenTelemetryAutoConfiguration::class.java,
+            ProjectionDispatcherAutoConfiguration::class.java,
+            ProjectionCatchUpAutoConfiguration::class.java,
+        )
+    private val contextRunner = baseContextRunner
+        .withBean(DomainEventBus::class.java, { InMemoryDomainEventBus() })
+
+    @Test
+    fun `should load catch-up beans when enabled`() {
+        contextRunner
+            .withPropertyValues(
+                "${ConditionalOnProjectionCatchUpEnabled.ENABLED_KEY}=true",
+                "${ProjectionCatchUpProperties.PREFIX}.batch-size=10",
+            )
+            .run { context: AssertableApplicationContext ->
+                context.assert()
+                    .hasSingleBean(ProjectionCatchUpRegistry::class.java)
+                    .hasSingleBean(ProjectionCatchUpFilter::class.java)
+                    .hasSingleBean(ProjectionCatchUp::class.java)
+                context.getBean(ProjectionCatchUpProperties::class.java).batchSize.assert().isEqualTo(10)
+            }
+    }
+
+    @Test
+    fun `should reject a distributed event bus without single instance confirmation`() {
+        baseContextRunner
+            .withBean(DomainEventBus::class.java, { mockk<DistributedDomainEventBus>(relaxed = true) })
+            .withPropertyValues("${ConditionalOnProjectionCatchUpEnabled.ENABLED_KEY}=true")
+            .run { context: AssertableApplicationContext ->
+                context.assert().hasFailed()
+                context.startupFailure.assert().rootCause().hasMessageContaining("single-instance=true")
+            }
+    }
+
+    @Test
+    fun `should accept a distributed event bus with single instance confirmation`() {
+        baseContextRunner
+            .withBean(DomainEventBus::class.java, { mockk<DistributedDomainEventBus>(relaxed = true) })
+            .withPropertyValues(
+                "${ConditionalOnProjectionCatchUpEnabled.ENABLED_KEY}=true",
+                "${ProjectionCatchUpProperties.PREFIX}.single-instance=true",
+            )
+            .run { context: AssertableApplicationContext ->
+                context.assert().hasSingleBean(ProjectionCatchUp::class.java)
+            }
+    }
+
+    @Test
+    fun `should not load catch-up beans by default`() {
+        contextRunner
+            .run { context: AssertableApplicationContext ->
+                context.assert()
+                    .doesNotHaveBean(ProjectionCatchUpRegistry::class.java)
+                    .doesNotHaveBean(ProjectionCatchUp::class.java)
+            }
+    }
+}
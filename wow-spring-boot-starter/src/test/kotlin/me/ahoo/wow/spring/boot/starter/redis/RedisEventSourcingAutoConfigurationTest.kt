@@ -19,6 +19,8 @@ import io.mockk.verify
 import me.ahoo.test.asserts.assert
 import me.ahoo.wow.eventsourcing.EventStore
 import me.ahoo.wow.infra.Decorator.Companion.getOriginalDelegate
+import me.ahoo.wow.modeling.state.ConstructorStateAggregateFactory
+import me.ahoo.wow.modeling.state.StateAggregateFactory
 import me.ahoo.wow.redis.eventsourcing.RedisEventStore
 import me.ahoo.wow.redis.eventsourcing.RedisSnapshotStore
 import me.ahoo.wow.redis.prepare.RedisPrepareKeyFactory
@@ -30,6 +32,7 @@ import me.ahoo.wow.spring.boot.starter.eventsourcing.routing.StorageRoutingPrope
 import me.ahoo.wow.spring.boot.starter.eventsourcing.snapshot.SnapshotProperties
 import me.ahoo.wow.spring.boot.starter.eventsourcing.store.EventStoreProperties
 import me.ahoo.wow.spring.boot.starter.metrics.MetricsAutoConfiguration
+import me.ahoo.wow.spring.boot.starter.modeling.StateAggregateRepositoryCustomizer
 import me.ahoo.wow.spring.boot.starter.prepare.PrepareProperties
 import me.ahoo.wow.spring.boot.starter.prepare.PrepareStorage
 import org.junit.jupiter.api.Test
@@ -49,6 +52,8 @@ class RedisEventSourcingAutoConfigurationTest {
                 "${SnapshotProperties.STORAGE}=${StorageType.REDIS_NAME}",
                 "${EventStoreProperties.STORAGE}=${StorageType.REDIS_NAME}",
                 "${PrepareProperties.STORAGE}=${PrepareStorage.REDIS_NAME}",
+                "${RedisProperties.PREFIX}.event-log=true",
+                "${RedisProperties.PREFIX}.event-log-max-length=1000",
             )
             .withBean(ReactiveStringRedisTemplate::class.java, {
                 redisTemplate()
@@ -66,6 +71,8 @@ class RedisEventSourcingAutoConfigurationTest {
                     .hasSingleBean(SnapshotStoreBinding::class.java)
                     .hasSingleBean(RedisPrepareKeyFactory::class.java)
                 val eventStore = context.getBean(RedisEventStore::class.java)
+                eventStore.eventLog.assert().isTrue()
+                eventStore.eventLogMaxLength.assert().isEqualTo(1000L)
                 val eventBinding = context.getBean(EventStoreBinding::class.java)
                 eventBinding.storage.assert().isEqualTo(StorageType.REDIS)
                 eventBinding.eventStore.assert().isSameAs(eventStore)
@@ -77,6 +84,50 @@ class RedisEventSourcingAutoConfigurationTest {
             }
     }
 
+    @Test
+    fun `should colocate snapshots and customize state aggregate repository`() {
+        contextRunner
+            .enableWow()
+            .withPropertyValues(
+                "${SnapshotProperties.STORAGE}=${StorageType.REDIS_NAME}",
+                "${EventStoreProperties.STORAGE}=${StorageType.REDIS_NAME}",
+                "${RedisProperties.COLOCATED_SNAPSHOT}=true",
+            )
+            .withBean(ReactiveStringRedisTemplate::class.java, {
+                redisTemplate()
+            })
+            .withBean(StateAggregateFactory::class.java, { ConstructorStateAggregateFactory })
+            .withUserConfiguration(
+                RedisEventSourcingAutoConfiguration::class.java,
+            )
+            .run { context: AssertableApplicationContext ->
+                context.assert()
+                    .hasSingleBean(StateAggregateRepositoryCustomizer::class.java)
+                context.getBean(RedisSnapshotStore::class.java).colocated.assert().isTrue()
+            }
+    }
+
+    @Test
+    fun `should not customize state aggregate repository by default`() {
+        contextRunner
+            .enableWow()
+            .withPropertyValues(
+                "${SnapshotProperties.STORAGE}=${StorageType.REDIS_NAME}",
+                "${EventStoreProperties.STORAGE}=${StorageType.REDIS_NAME}",
+            )
+            .withBean(ReactiveStringRedisTemplate::class.java, {
+                redisTemplate()
+            })
+            .withUserConfiguration(
+                RedisEventSourcingAutoConfiguration::class.java,
+            )
+            .run { context: AssertableApplicationContext ->
+                context.assert()
+                    .doesNotHaveBean(StateAggregateRepositoryCustomizer::class.java)
+                context.getBean(RedisSnapshotStore::class.java).colocated.assert().isFalse()
+            }
+    }
+
     @Test
     fun `should load redis event store when aggregate event route uses redis`() {
         contextRunner
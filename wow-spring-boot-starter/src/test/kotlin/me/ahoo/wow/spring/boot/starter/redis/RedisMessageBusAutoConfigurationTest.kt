@@ -1,5 +1,7 @@
 package me.ahoo.wow.spring.boot.starter.redis
 
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
 import io.mockk.every
 import io.mockk.mockk
 import io.mockk.verify
@@ -13,12 +15,14 @@ import me.ahoo.wow.eventsourcing.state.LocalFirstStateEventBus
 import me.ahoo.wow.modeling.state.ConstructorStateAggregateFactory
 import me.ahoo.wow.modeling.state.StateAggregateFactory
 import me.ahoo.wow.redis.bus.AbstractRedisMessageBus
+import me.ahoo.wow.redis.bus.MetricRedisMessageBusObserver
 import me.ahoo.wow.redis.bus.RedisCommandBus
 import me.ahoo.wow.redis.bus.RedisDomainEventBus
 import me.ahoo.wow.redis.bus.RedisMessageBusObservation
 import me.ahoo.wow.redis.bus.RedisMessageBusObserver
 import me.ahoo.wow.redis.bus.RedisStateEventBus
 import me.ahoo.wow.redis.bus.RedisStreamRecoveryOptions
+import me.ahoo.wow.redis.bus.RedisStreamScalingOptions
 import me.ahoo.wow.spring.boot.starter.BusType
 import me.ahoo.wow.spring.boot.starter.command.CommandProperties
 import me.ahoo.wow.spring.boot.starter.enableWow
@@ -161,6 +165,89 @@ class RedisMessageBusAutoConfigurationTest {
             }
     }
 
+    @Test
+    fun `should bind redis stream scaling options`() {
+        RedisStreamScalingProperties().toOptions().assert().isEqualTo(RedisStreamScalingOptions.DISABLED)
+        contextRunner
+            .enableWow()
+            .withPropertyValues(
+                "${CommandProperties.BUS_TYPE}=${BusType.REDIS_NAME}",
+                "${RedisStreamScalingProperties.PREFIX}.enabled=true",
+                "${RedisStreamScalingProperties.PREFIX}.max-consumers=8",
+                "${RedisStreamScalingProperties.PREFIX}.lag-per-consumer=500",
+                "${RedisStreamScalingProperties.PREFIX}.interval=5s",
+                "${RedisStreamScalingProperties.PREFIX}.max-batch-size=256",
+            )
+            .withBean(ReactiveStringRedisTemplate::class.java, {
+                mockk<ReactiveStringRedisTemplate> {
+                    every { opsForStream<String, String>() } returns mockk()
+                }
+            })
+            .withUserConfiguration(RedisMessageBusAutoConfiguration::class.java)
+            .run { context ->
+                context.assert().hasNotFailed()
+                val scalingOptionsField = AbstractRedisMessageBus::class.java
+                    .getDeclaredField("scalingOptions")
+                    .apply { isAccessible = true }
+
+                scalingOptionsField.get(context.getBean(RedisCommandBus::class.java))
+                    .assert()
+                    .isEqualTo(
+                        RedisStreamScalingOptions(
+                            enabled = true,
+                            maxConsumers = 8,
+                            lagPerConsumer = 500,
+                            interval = Duration.ofSeconds(5),
+                            maxBatchSize = 256,
+                        ),
+                    )
+            }
+    }
+
+    @Test
+    fun `should require recovery when scaling redis stream consumers`() {
+        contextRunner
+            .enableWow()
+            .withPropertyValues(
+                "${CommandProperties.BUS_TYPE}=${BusType.REDIS_NAME}",
+                "${RedisStreamScalingProperties.PREFIX}.enabled=true",
+                "${RedisStreamRecoveryProperties.PREFIX}.enabled=false",
+            )
+            .withBean(ReactiveStringRedisTemplate::class.java, {
+                mockk<ReactiveStringRedisTemplate> {
+                    every { opsForStream<String, String>() } returns mockk()
+                }
+            })
+            .withUserConfiguration(RedisMessageBusAutoConfiguration::class.java)
+            .run { context ->
+                context.assert().hasFailed()
+            }
+    }
+
+    @Test
+    fun `should observe redis streams with the meter registry`() {
+        contextRunner
+            .enableWow()
+            .withPropertyValues("${CommandProperties.BUS_TYPE}=${BusType.REDIS_NAME}")
+            .withBean(ReactiveStringRedisTemplate::class.java, {
+                mockk<ReactiveStringRedisTemplate> {
+                    every { opsForStream<String, String>() } returns mockk()
+                }
+            })
+            .withBean(MeterRegistry::class.java, { SimpleMeterRegistry() })
+            .withUserConfiguration(RedisMessageBusAutoConfiguration::class.java)
+            .run { context ->
+                context.assert().hasNotFailed().hasSingleBean(MetricRedisMessageBusObserver::class.java)
+                val observerField = AbstractRedisMessageBus::class.java
+                    .getDeclaredField("messageBusObserver")
+                    .apply { isAccessible = true }
+
+                observerField.get(context.getBean(RedisCommandBus::class.java))
+                    .assert()
+                    .isSameAs(context.getBean(MetricRedisMessageBusObserver::class.java))
+            }
+    }
+
     @Test
     fun `should compose every redis message-bus observer`() {
         val failingObserver = mockk<RedisMessageBusObserver>()
@@ -211,7 +298,7 @@ class RedisMessageBusAutoConfigurationTest {
             .withBean(RedisMessageBusObserver::class.java, { singleObserver })
             .withUserConfiguration(RedisMessageBusAutoConfiguration::class.java)
             .run { context ->
-                context.assert().hasNotFailed()
+                context.assert().hasNotFailed().doesNotHaveBean(MetricRedisMessageBusObserver::class.java)
                 val observerField = AbstractRedisMessageBus::class.java
                     .getDeclaredField("messageBusObserver")
                     .apply { isAccessible = true }
@@ -86,4 +86,18 @@ internal class StatelessSagaAutoConfigurationTest {
                     .isNotEmpty()
             }
     }
+
+    @Test
+    fun `should bind stateless saga send parallelism`() {
+        contextRunner
+            .withPropertyValues("${StatelessSagaProperties.PREFIX}.send-parallelism=16")
+            .run { context: AssertableApplicationContext ->
+                context.getBean(StatelessSagaProperties::class.java)
+                    .sendParallelism.assert().isEqualTo(16)
+                ReflectionTestUtils.getField(
+                    context.getBean(StatelessSagaFunctionRegistrar::class.java),
+                    "sendParallelism",
+                ).assert().isEqualTo(16)
+            }
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.spring.boot.starter.scheduler
+
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.scheduler.AggregateSchedulerFactory
+import me.ahoo.wow.scheduler.VirtualThreadPinningDetector
+import me.ahoo.wow.spring.boot.starter.enableWow
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.condition.EnabledForJreRange
+import org.junit.jupiter.api.condition.JRE
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.ValueSource
+import org.springframework.boot.test.context.assertj.AssertableApplicationContext
+import org.springframework.boot.test.context.runner.ApplicationContextRunner
+
+internal class SchedulerAutoConfigurationTest {
+    private val contextRunner = ApplicationContextRunner()
+        .enableWow()
+        .withUserConfiguration(SchedulerAutoConfiguration::class.java)
+
+    @Test
+    fun `should use parallel schedulers by default`() {
+        contextRunner
+            .run { context: AssertableApplicationContext ->
+                context.assert()
+                    .hasSingleBean(AggregateSchedulerFactory::class.java)
+                    .doesNotHaveBean(VirtualThreadPinningDetector::class.java)
+                context.getBean(AggregateSchedulerFactory::class.java)
+                    .assert().isSameAs(AggregateSchedulerFactory.PARALLEL)
+            }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = [SchedulerMode.VIRTUAL_THREAD_NAME, "virtual-thread", "VIRTUAL_THREAD"])
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    fun `should use virtual thread schedulers with pinning detection`(mode: String) {
+        contextRunner
+            .withPropertyValues("${SchedulerProperties.MODE}=$mode")
+            .run { context: AssertableApplicationContext ->
+                context.assert().hasSingleBean(VirtualThreadPinningDetector::class.java)
+                context.getBean(AggregateSchedulerFactory::class.java)
+                    .assert().isSameAs(AggregateSchedulerFactory.VIRTUAL_THREAD)
+            }
+    }
+
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_20)
+    fun `should fail virtual thread mode before Java 21`() {
+        contextRunner
+            .withPropertyValues("${SchedulerProperties.MODE}=${SchedulerMode.VIRTUAL_THREAD_NAME}")
+            .run { context: AssertableApplicationContext ->
+                context.assert().hasFailed()
+            }
+    }
+}
@@ -13,8 +13,13 @@
 
 package me.ahoo.wow.webflux.route.state
 
+import me.ahoo.wow.api.Version
+import me.ahoo.wow.api.modeling.AggregateId
 import me.ahoo.wow.eventsourcing.EventStore
 import me.ahoo.wow.eventsourcing.EventStore.Companion.DEFAULT_TAIL_VERSION
+import me.ahoo.wow.eventsourcing.snapshot.NoOpSnapshotStore
+import me.ahoo.wow.eventsourcing.snapshot.Snapshot
+import me.ahoo.wow.eventsourcing.snapshot.SnapshotStore
 import me.ahoo.wow.eventsourcing.state.StateEvent
 import me.ahoo.wow.modeling.metadata.AggregateMetadata
 import me.ahoo.wow.modeling.state.StateAggregateFactory
@@ -33,13 +38,22 @@ import org.springframework.web.reactive.function.server.ServerResponse
 import reactor.core.publisher.Flux
 import reactor.core.publisher.Mono
 import tools.jackson.databind.node.ObjectNode
+import java.util.Optional
 
+/**
+ * Traces the state of an aggregate after each event within the requested version range.
+ *
+ * Replay starts from the nearest snapshot at or below the version preceding the first emitted
+ * event, so tracing a window near the head of a long history only loads the events after that
+ * checkpoint. Without a usable snapshot, replay starts from the first event.
+ */
 class AggregateTracingHandlerFunction(
     private val aggregateMetadata: AggregateMetadata<*, *>,
     private val stateAggregateFactory: StateAggregateFactory,
     private val eventStore: EventStore,
     private val exceptionHandler: RequestExceptionHandler,
-    private val tracingPolicy: TracingPolicy
+    private val tracingPolicy: TracingPolicy,
+    private val snapshotStore: SnapshotStore = NoOpSnapshotStore
 ) : HandlerFunction<ServerResponse> {
     override fun handle(request: ServerRequest): Mono<ServerResponse> {
         return Mono.defer {
@@ -58,19 +72,11 @@ class AggregateTracingHandlerFunction(
     ): Flux<StateEvent<ObjectNode>> {
         val limit = tracingRequest.limit
         if (limit == null) {
-            return eventStore
-                .load(
-                    aggregateId = context.aggregateId,
-                    tailVersion = tracingRequest.tailVersion ?: DEFAULT_TAIL_VERSION,
-                )
-                .let { eventStreams ->
-                    AggregateTracingReplay.trace(
-                        stateAggregateMetadata = aggregateMetadata.state,
-                        stateAggregateFactory = stateAggregateFactory,
-                        eventStreams = eventStreams,
-                        tracingRequest = tracingRequest,
-                    )
-                }
+            return replay(
+                aggregateId = context.aggregateId,
+                emitHeadVersion = tracingRequest.emitHeadVersion,
+                tailVersion = tracingRequest.tailVersion ?: DEFAULT_TAIL_VERSION,
+            )
         }
         if (limit == 0) {
             return Flux.empty()
@@ -83,29 +89,58 @@ class AggregateTracingHandlerFunction(
                 if (range.tailVersion < range.emitHeadVersion) {
                     return@flatMapMany Flux.empty()
                 }
+                replay(
+                    aggregateId = context.aggregateId,
+                    emitHeadVersion = range.emitHeadVersion,
+                    tailVersion = range.tailVersion,
+                )
+            }
+    }
+
+    private fun replay(
+        aggregateId: AggregateId,
+        emitHeadVersion: Int,
+        tailVersion: Int
+    ): Flux<StateEvent<ObjectNode>> {
+        val tracingRequest = TracingRequest(
+            headVersion = emitHeadVersion,
+            tailVersion = tailVersion,
+            limit = null,
+        )
+        return loadCheckpoint(aggregateId, emitHeadVersion)
+            .map { Optional.of(it) }
+            .defaultIfEmpty(Optional.empty())
+            .flatMapMany { checkpoint ->
+                val replayHeadVersion = checkpoint.map { it.version + 1 }.orElse(TracingPolicy.DEFAULT_HEAD_VERSION)
                 AggregateTracingReplay.trace(
                     stateAggregateMetadata = aggregateMetadata.state,
                     stateAggregateFactory = stateAggregateFactory,
                     eventStreams = eventStore.load(
-                        aggregateId = context.aggregateId,
-                        headVersion = range.replayHeadVersion,
-                        tailVersion = range.tailVersion,
-                    ),
-                    tracingRequest = TracingRequest(
-                        headVersion = range.emitHeadVersion,
-                        tailVersion = range.tailVersion,
-                        limit = null,
+                        aggregateId = aggregateId,
+                        headVersion = replayHeadVersion,
+                        tailVersion = tailVersion,
                     ),
+                    tracingRequest = tracingRequest,
+                    checkpoint = checkpoint.orElse(null),
                 )
             }
     }
+
+    private fun loadCheckpoint(aggregateId: AggregateId, emitHeadVersion: Int): Mono<Snapshot<Any>> {
+        val checkpointVersion = emitHeadVersion - 1
+        if (checkpointVersion < Version.INITIAL_VERSION) {
+            return Mono.empty()
+        }
+        return snapshotStore.loadAtOrBefore(aggregateId, checkpointVersion)
+    }
 }
 
 class AggregateTracingHandlerFunctionFactory(
     private val stateAggregateFactory: StateAggregateFactory,
     private val eventStore: EventStore,
     private val exceptionHandler: RequestExceptionHandler,
-    private val tracingPolicy: TracingPolicy
+    private val tracingPolicy: TracingPolicy,
+    private val snapshotStore: SnapshotStore = NoOpSnapshotStore
 ) : AggregateRouteHandlerFunctionFactorySupport(BuiltInHttpRouteHandlerKeys.State.AGGREGATE_TRACING) {
     override fun create(
         contract: HttpRouteContract,
@@ -121,6 +156,7 @@ class AggregateTracingHandlerFunctionFactory(
             eventStore,
             exceptionHandler,
             tracingPolicy,
+            snapshotStore,
         )
     }
 }
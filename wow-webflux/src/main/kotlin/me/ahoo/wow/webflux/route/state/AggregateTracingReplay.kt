@@ -14,11 +14,14 @@
 package me.ahoo.wow.webflux.route.state
 
 import me.ahoo.wow.event.DomainEventStream
+import me.ahoo.wow.eventsourcing.snapshot.Snapshot
 import me.ahoo.wow.eventsourcing.state.StateEvent
 import me.ahoo.wow.eventsourcing.state.StateEvent.Companion.toStateEvent
 import me.ahoo.wow.modeling.metadata.StateAggregateMetadata
+import me.ahoo.wow.modeling.state.ConstructorStateAggregateFactory.toStateAggregate
 import me.ahoo.wow.modeling.state.StateAggregate
 import me.ahoo.wow.modeling.state.StateAggregateFactory
+import me.ahoo.wow.serialization.deepCopy
 import me.ahoo.wow.serialization.toJsonNode
 import me.ahoo.wow.webflux.route.policy.TracingRequest
 import reactor.core.publisher.Flux
@@ -69,20 +72,33 @@ object AggregateTracingReplay {
         )
     }
 
+    /**
+     * Replays [eventStreams] and emits the state events within [tracingRequest].
+     *
+     * When [checkpoint] is given, replay starts from its state instead of an empty aggregate, and
+     * [eventStreams] must start right after the checkpoint version.
+     */
     internal fun <S : Any> trace(
         stateAggregateMetadata: StateAggregateMetadata<S>,
         stateAggregateFactory: StateAggregateFactory,
         eventStreams: Flux<DomainEventStream>,
-        tracingRequest: TracingRequest
+        tracingRequest: TracingRequest,
+        checkpoint: Snapshot<*>? = null
     ): Flux<StateEvent<ObjectNode>> {
         require(tracingRequest.limit == null) {
             "tail limit must be resolved to an explicit range before replay."
         }
+        checkpoint?.let {
+            require(it.version < tracingRequest.emitHeadVersion) {
+                "checkpoint version must be less than the emit head version."
+            }
+        }
         return traceStreamingRange(
             stateAggregateMetadata = stateAggregateMetadata,
             stateAggregateFactory = stateAggregateFactory,
             eventStreams = eventStreams,
             tracingRequest = tracingRequest,
+            checkpoint = checkpoint,
         )
     }
 
@@ -90,10 +106,11 @@ object AggregateTracingReplay {
         stateAggregateMetadata: StateAggregateMetadata<S>,
         stateAggregateFactory: StateAggregateFactory,
         eventStreams: Flux<DomainEventStream>,
-        tracingRequest: TracingRequest
+        tracingRequest: TracingRequest,
+        checkpoint: Snapshot<*>?
     ): Flux<StateEvent<ObjectNode>> {
         return Flux.defer {
-            val replayState = ReplayState(stateAggregateMetadata, stateAggregateFactory)
+            val replayState = ReplayState(stateAggregateMetadata, stateAggregateFactory, checkpoint)
             val boundedEventStreams = eventStreams.takeUntilTail(tracingRequest.tailVersion)
             boundedEventStreams.handle<StateEvent<ObjectNode>> { eventStream, sink ->
                 val stateAggregate = replayState.source(eventStream)
@@ -112,9 +129,31 @@ object AggregateTracingReplay {
 
     private class ReplayState<S : Any>(
         private val stateAggregateMetadata: StateAggregateMetadata<S>,
-        private val stateAggregateFactory: StateAggregateFactory
+        private val stateAggregateFactory: StateAggregateFactory,
+        checkpoint: Snapshot<*>? = null
     ) {
-        private var stateAggregate: StateAggregate<S>? = null
+        @Suppress("UNCHECKED_CAST")
+        private var stateAggregate: StateAggregate<S>? = (checkpoint as Snapshot<S>?)?.toReplayStateAggregate()
+
+        /**
+         * Replays onto a deep copy of the checkpoint state, since sourcing mutates the state in place and
+         * the checkpoint may still be cached or pending a write.
+         */
+        private fun Snapshot<S>.toReplayStateAggregate(): StateAggregate<S> =
+            stateAggregateMetadata.toStateAggregate(
+                aggregateId = aggregateId,
+                state = state.deepCopy(),
+                version = version,
+                ownerId = ownerId,
+                spaceId = spaceId,
+                eventId = eventId,
+                firstOperator = firstOperator,
+                operator = operator,
+                firstEventTime = firstEventTime,
+                eventTime = eventTime,
+                tags = tags,
+                deleted = deleted,
+            )
 
         fun source(eventStream: DomainEventStream): StateAggregate<S> {
             val aggregate = stateAggregate ?: stateAggregateFactory
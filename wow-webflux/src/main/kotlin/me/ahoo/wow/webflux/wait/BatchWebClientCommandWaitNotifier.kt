@@ -0,0 +1,121 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.webflux.wait
+
+import io.github.oshai.kotlinlogging.KotlinLogging
+import me.ahoo.wow.command.wait.CommandWaitNotifier
+import me.ahoo.wow.command.wait.WaitCoordinator
+import me.ahoo.wow.command.wait.WaitSignal
+import me.ahoo.wow.command.wait.isLocalWaitCommandId
+import me.ahoo.wow.infra.batch.BatchItemResult
+import me.ahoo.wow.infra.batch.BatchOptions
+import me.ahoo.wow.infra.batch.BatchWriter
+import me.ahoo.wow.infra.batch.KeyedBatchCoordinator
+import me.ahoo.wow.infra.lifecycle.GracefullyStoppable
+import me.ahoo.wow.metrics.WowMetrics
+import org.springframework.http.MediaType
+import org.springframework.web.reactive.function.client.WebClient
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+
+/**
+ * [CommandWaitNotifier] that coalesces remote wait signals per command wait endpoint.
+ *
+ * Local signals keep the in-process fast path. Remote signals are collected for up to
+ * [RemoteWaitNotifyBatchOptions.maxDelay] and sent to the batch wait route of their endpoint in one
+ * request, so a command that fans out into many stages costs one round trip per window instead of one
+ * per signal. Signals for the same endpoint share a lane and are sent in submission order.
+ */
+class BatchWebClientCommandWaitNotifier(
+    private val waitCoordinator: WaitCoordinator,
+    private val webClient: WebClient,
+    private val remoteWaitNotifyPolicy: RemoteWaitNotifyPolicy,
+    options: RemoteWaitNotifyBatchOptions,
+    metrics: WowMetrics = WowMetrics.NONE,
+) : CommandWaitNotifier, GracefullyStoppable {
+    companion object {
+        private val log = KotlinLogging.logger {}
+        const val BATCH_PATH_SUFFIX = "/batch"
+    }
+
+    private val coordinator = KeyedBatchCoordinator(
+        name = CommandWaitNotifier::class.simpleName!!,
+        options = BatchOptions(
+            maxSize = options.maxSize,
+            maxDelay = options.maxDelay,
+            maxPendingItems = options.maxPendingNotifications,
+        ),
+        laneCount = options.laneCount,
+        keySelector = RemoteWaitNotification::endpoint,
+        writer = BatchWriter(::write),
+        metrics = metrics,
+    )
+
+    override fun notify(commandWaitEndpoint: String, waitSignal: WaitSignal): Mono<Void> {
+        return Mono.defer {
+            if (isLocalWaitCommandId(waitSignal.waitCommandId)) {
+                log.debug {
+                    "Notify Local - waitSignal: $waitSignal."
+                }
+                waitCoordinator.signal(waitSignal)
+                return@defer Mono.empty()
+            }
+            coordinator.submit(RemoteWaitNotification(commandWaitEndpoint, waitSignal))
+        }
+    }
+
+    private fun write(items: List<RemoteWaitNotification>): Mono<List<BatchItemResult>> {
+        val results = arrayOfNulls<BatchItemResult>(items.size)
+        val groups = items.indices.groupBy { items[it].endpoint }
+        return Flux.fromIterable(groups.entries)
+            .flatMap { (endpoint, indices) ->
+                send(endpoint, indices.map { items[it].signal })
+                    .then(Mono.fromRunnable<Void> { indices.forEach { results[it] = BatchItemResult.Success } })
+                    .onErrorResume { error ->
+                        log.warn(error) {
+                            "Notify remote batch failed: endpoint: [$endpoint] - size: ${indices.size}."
+                        }
+                        indices.forEach { results[it] = BatchItemResult.Failure(error) }
+                        Mono.empty()
+                    }
+            }.then(
+                Mono.fromCallable {
+                    results.map { requireNotNull(it) }
+                }
+            )
+    }
+
+    private fun send(endpoint: String, signals: List<WaitSignal>): Mono<Void> {
+        log.debug {
+            "Notify remote batch: endpoint: [$endpoint] - size: ${signals.size}."
+        }
+        return webClient
+            .post()
+            .uri(endpoint + BATCH_PATH_SUFFIX)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(signals)
+            .retrieve()
+            .bodyToMono(Void::class.java)
+            .let { remoteWaitNotifyPolicy.apply(it) }
+    }
+
+    override fun stopGracefully(): Mono<Void> = coordinator.stopGracefully()
+
+    override fun close() = coordinator.close()
+}
+
+internal data class RemoteWaitNotification(
+    val endpoint: String,
+    val signal: WaitSignal,
+)
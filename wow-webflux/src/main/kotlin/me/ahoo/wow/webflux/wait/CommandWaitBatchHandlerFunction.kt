@@ -0,0 +1,56 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.webflux.wait
+
+import me.ahoo.wow.command.wait.SimpleWaitSignal
+import me.ahoo.wow.command.wait.WaitCoordinator
+import me.ahoo.wow.openapi.contract.BuiltInHttpRouteHandlerKeys
+import me.ahoo.wow.openapi.contract.HttpRouteContract
+import me.ahoo.wow.webflux.route.NoMetadataRouteHandlerFunctionFactorySupport
+import me.ahoo.wow.webflux.route.mapRequestBodyDecodingException
+import org.springframework.web.reactive.function.server.HandlerFunction
+import org.springframework.web.reactive.function.server.ServerRequest
+import org.springframework.web.reactive.function.server.ServerResponse
+import reactor.core.publisher.Mono
+
+/**
+ * Receives a batch of wait signals in one request.
+ *
+ * The body is decoded as a stream, so both a JSON array and newline-delimited JSON are accepted,
+ * and each signal is handed to the [WaitCoordinator] as soon as it is decoded.
+ */
+class CommandWaitBatchHandlerFunction(
+    private val waitCoordinator: WaitCoordinator
+) : HandlerFunction<ServerResponse> {
+
+    override fun handle(request: ServerRequest): Mono<ServerResponse> {
+        return request
+            .bodyToFlux(SimpleWaitSignal::class.java)
+            .doOnNext {
+                waitCoordinator.signal(it)
+            }.then()
+            .mapRequestBodyDecodingException()
+            .then(EMPTY_OK)
+    }
+}
+
+class CommandWaitBatchHandlerFunctionFactory(private val waitCoordinator: WaitCoordinator) :
+    NoMetadataRouteHandlerFunctionFactorySupport(BuiltInHttpRouteHandlerKeys.Global.COMMAND_WAIT_BATCH) {
+
+    override fun create(
+        contract: HttpRouteContract
+    ): HandlerFunction<ServerResponse> {
+        return CommandWaitBatchHandlerFunction(waitCoordinator)
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.webflux.wait
+
+import java.time.Duration
+
+/**
+ * Controls coalescing of remote wait signals into one request per command wait endpoint.
+ *
+ * Batching is opt-in because collecting a partial batch adds up to `maxDelay`
+ * to a low-throughput notification, and because every peer must expose the batch wait route.
+ */
+data class RemoteWaitNotifyBatchOptions(
+    val enabled: Boolean = false,
+    val maxSize: Int = DEFAULT_MAX_SIZE,
+    val maxDelay: Duration = DEFAULT_MAX_DELAY,
+    val maxPendingNotifications: Int = DEFAULT_MAX_PENDING_NOTIFICATIONS,
+    val laneCount: Int = DEFAULT_LANE_COUNT,
+) {
+    init {
+        require(maxSize > 1) {
+            "maxSize must be greater than 1."
+        }
+        require(!maxDelay.isNegative && !maxDelay.isZero) {
+            "maxDelay must be positive."
+        }
+        require(maxPendingNotifications >= maxSize) {
+            "maxPendingNotifications must be greater than or equal to maxSize."
+        }
+        require(laneCount > 0) {
+            "laneCount must be greater than zero."
+        }
+    }
+
+    companion object {
+        const val DEFAULT_MAX_SIZE: Int = 256
+        const val DEFAULT_MAX_PENDING_NOTIFICATIONS: Int = 8192
+        const val DEFAULT_LANE_COUNT: Int = 4
+        val DEFAULT_MAX_DELAY: Duration = Duration.ofMillis(2)
+    }
+}
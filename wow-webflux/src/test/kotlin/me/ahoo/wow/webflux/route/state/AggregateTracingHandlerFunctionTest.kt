@@ -20,6 +20,10 @@ import me.ahoo.wow.event.DomainEventStream
 import me.ahoo.wow.event.toDomainEventStream
 import me.ahoo.wow.eventsourcing.EventStore
 import me.ahoo.wow.eventsourcing.InMemoryEventStore
+import me.ahoo.wow.eventsourcing.snapshot.NoOpSnapshotStore
+import me.ahoo.wow.eventsourcing.snapshot.SimpleSnapshot
+import me.ahoo.wow.eventsourcing.snapshot.Snapshot
+import me.ahoo.wow.eventsourcing.snapshot.SnapshotStore
 import me.ahoo.wow.eventsourcing.state.StateEvent
 import me.ahoo.wow.example.api.cart.CartItem
 import me.ahoo.wow.example.api.cart.CartItemAdded
@@ -288,6 +292,91 @@ class AggregateTracingHandlerFunctionTest {
             .verifyComplete()
     }
 
+    @Test
+    fun `handler should replay from snapshot checkpoint below emit head`() {
+        val eventStreams = cartEventStreams(eventCount = 4)
+        val aggregateId = eventStreams.first().aggregateId
+        val checkpointState = ConstructorStateAggregateFactory.create(CART_AGGREGATE_METADATA.state, aggregateId)
+        eventStreams.take(2).forEach { checkpointState.onSourcing(it) }
+        val checkpoint = SimpleSnapshot(checkpointState)
+        val snapshotStore = object : SnapshotStore by NoOpSnapshotStore {
+            @Suppress("UNCHECKED_CAST")
+            override fun <S : Any> load(aggregateId: AggregateId): Mono<Snapshot<S>> =
+                Mono.just(checkpoint as Snapshot<S>)
+        }
+        val eventStore = FixtureEventStore(eventStreams)
+        val stateAggregateFactory = CountingStateAggregateFactory()
+        val handlerFunction = AggregateTracingHandlerFunctionFactory(
+            stateAggregateFactory,
+            eventStore,
+            WebFluxRequestExceptionHandler(),
+            TracingPolicy(),
+            snapshotStore,
+        ).create(
+            mockTracingContract()
+        )
+
+        val request = MockServerRequest.builder()
+            .pathVariable(MessageRecords.ID, aggregateId.id)
+            .pathVariable(MessageRecords.TENANT_ID, aggregateId.tenantId)
+            .queryParam(TracingPolicy.HEAD_VERSION, "3")
+            .build()
+
+        handlerFunction.handle(request)
+            .test()
+            .consumeNextWith {
+                val body = it.writeToString()
+                body.assert().contains("\"version\":3")
+                body.assert().contains("\"version\":4")
+                body.assert().contains("product-1")
+            }
+            .verifyComplete()
+        eventStore.loadedHeadVersions.assert().containsExactly(3)
+        stateAggregateFactory.createCount.assert().isZero()
+    }
+
+    @Test
+    fun `handler should replay from first event when snapshot is newer than emit head`() {
+        val eventStreams = cartEventStreams(eventCount = 4)
+        val aggregateId = eventStreams.first().aggregateId
+        val latestState = ConstructorStateAggregateFactory.create(CART_AGGREGATE_METADATA.state, aggregateId)
+        eventStreams.forEach { latestState.onSourcing(it) }
+        val latest = SimpleSnapshot(latestState)
+        val snapshotStore = object : SnapshotStore by NoOpSnapshotStore {
+            @Suppress("UNCHECKED_CAST")
+            override fun <S : Any> load(aggregateId: AggregateId): Mono<Snapshot<S>> =
+                Mono.just(latest as Snapshot<S>)
+        }
+        val eventStore = FixtureEventStore(eventStreams)
+        val handlerFunction = AggregateTracingHandlerFunctionFactory(
+            ConstructorStateAggregateFactory,
+            eventStore,
+            WebFluxRequestExceptionHandler(),
+            TracingPolicy(),
+            snapshotStore,
+        ).create(
+            mockTracingContract()
+        )
+
+        val request = MockServerRequest.builder()
+            .pathVariable(MessageRecords.ID, aggregateId.id)
+            .pathVariable(MessageRecords.TENANT_ID, aggregateId.tenantId)
+            .queryParam(TracingPolicy.HEAD_VERSION, "2")
+            .queryParam(TracingPolicy.TAIL_VERSION, "3")
+            .build()
+
+        handlerFunction.handle(request)
+            .test()
+            .consumeNextWith {
+                val body = it.writeToString()
+                body.assert().contains("\"version\":2")
+                body.assert().contains("\"version\":3")
+                body.assert().doesNotContain("product-4")
+            }
+            .verifyComplete()
+        eventStore.loadedHeadVersions.assert().containsExactly(1)
+    }
+
     private companion object {
         val CART_AGGREGATE_METADATA = aggregateMetadata<Cart, CartState>()
         val SERVER_RESPONSE_CONTEXT = object : ServerResponse.Context {
@@ -343,6 +432,8 @@ class AggregateTracingHandlerFunctionTest {
     private class FixtureEventStore(
         private val eventStreams: List<DomainEventStream>
     ) : EventStore {
+        val loadedHeadVersions = mutableListOf<Int>()
+
         override fun append(eventStream: DomainEventStream): Mono<Void> {
             return Mono.empty()
         }
@@ -352,6 +443,7 @@ class AggregateTracingHandlerFunctionTest {
             headVersion: Int,
             tailVersion: Int
         ): Flux<DomainEventStream> {
+            loadedHeadVersions.add(headVersion)
             return Flux.fromIterable(eventStreams)
                 .filter { it.version in headVersion..tailVersion }
         }
@@ -17,6 +17,7 @@ import me.ahoo.test.asserts.assert
 import me.ahoo.wow.api.modeling.AggregateId
 import me.ahoo.wow.event.DomainEventStream
 import me.ahoo.wow.event.toDomainEventStream
+import me.ahoo.wow.eventsourcing.snapshot.SimpleSnapshot
 import me.ahoo.wow.example.api.cart.CartItem
 import me.ahoo.wow.example.api.cart.CartItemAdded
 import me.ahoo.wow.example.domain.cart.Cart
@@ -189,6 +190,36 @@ class AggregateTracingReplayTest {
             .verifyComplete()
     }
 
+    @Test
+    fun `checkpoint replay should not mutate the checkpoint state`() {
+        val eventStreams = cartEventStreams(eventCount = 3)
+        val checkpointState = ConstructorStateAggregateFactory.create(
+            CART_AGGREGATE_METADATA.state,
+            eventStreams.first().aggregateId,
+        )
+        checkpointState.onSourcing(eventStreams.first())
+        val checkpoint = SimpleSnapshot(checkpointState)
+
+        AggregateTracingReplay.trace(
+            stateAggregateMetadata = CART_AGGREGATE_METADATA.state,
+            stateAggregateFactory = ConstructorStateAggregateFactory,
+            eventStreams = Flux.fromIterable(eventStreams.drop(1)),
+            tracingRequest = TracingRequest(headVersion = 2, tailVersion = 3, limit = null),
+            checkpoint = checkpoint,
+        ).collectList()
+            .test()
+            .consumeNextWith { tracedStates ->
+                tracedStates.last().state.assertJsonState()
+                    .itemProductIds()
+                    .assert()
+                    .isEqualTo(listOf("product-1", "product-2", "product-3"))
+            }
+            .verifyComplete()
+
+        checkpoint.version.assert().isEqualTo(1)
+        checkpoint.state.items.map { it.productId }.assert().isEqualTo(listOf("product-1"))
+    }
+
     private companion object {
         val CART_AGGREGATE_METADATA = aggregateMetadata<Cart, CartState>()
 
@@ -0,0 +1,152 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.webflux.wait
+
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.slot
+import io.mockk.verify
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.api.messaging.function.FunctionInfoData
+import me.ahoo.wow.api.messaging.function.FunctionKind
+import me.ahoo.wow.command.wait.CommandStage
+import me.ahoo.wow.command.wait.SimpleWaitSignal
+import me.ahoo.wow.command.wait.WaitCoordinator
+import me.ahoo.wow.command.wait.WaitSignal
+import me.ahoo.wow.id.generateGlobalId
+import me.ahoo.wow.modeling.aggregateId
+import me.ahoo.wow.tck.mock.MOCK_AGGREGATE_METADATA
+import org.junit.jupiter.api.Test
+import org.springframework.http.MediaType
+import org.springframework.web.reactive.function.client.WebClient
+import reactor.core.publisher.Mono
+import reactor.kotlin.test.test
+import java.time.Duration
+
+class BatchWebClientCommandWaitNotifierTest {
+    private val options = RemoteWaitNotifyBatchOptions(
+        enabled = true,
+        maxSize = 2,
+        maxDelay = Duration.ofSeconds(5),
+        maxPendingNotifications = 16,
+        laneCount = 1,
+    )
+
+    private fun signal(waitCommandId: String) = SimpleWaitSignal(
+        id = generateGlobalId(),
+        waitCommandId = waitCommandId,
+        commandId = "0ToC0Bez003X00Z",
+        aggregateId = MOCK_AGGREGATE_METADATA.aggregateId(),
+        stage = CommandStage.PROCESSED,
+        function = FunctionInfoData(
+            functionKind = FunctionKind.COMMAND,
+            contextName = "contextName",
+            processorName = "processorName",
+            name = "name"
+        ),
+    )
+
+    @Test
+    fun `should notify local wait signal without batching`() {
+        val webClient = mockk<WebClient>()
+        val waitCoordinator = mockk<WaitCoordinator> {
+            every { signal(any()) } returns true
+        }
+        val notifier = BatchWebClientCommandWaitNotifier(
+            waitCoordinator = waitCoordinator,
+            webClient = webClient,
+            remoteWaitNotifyPolicy = RemoteWaitNotifyPolicy(),
+            options = options,
+        )
+        val waitSignal = signal(generateGlobalId())
+        notifier.notify("http://localhost:8080/wow/command/wait", waitSignal)
+            .test()
+            .verifyComplete()
+        verify { waitCoordinator.signal(waitSignal) }
+        verify(exactly = 0) { webClient.post() }
+        notifier.close()
+    }
+
+    @Test
+    fun `should coalesce remote wait signals into one request`() {
+        val commandWaitEndpoint = "http://localhost:8080/wow/command/wait"
+        val requestBodyUriSpec = mockk<WebClient.RequestBodyUriSpec>()
+        val requestBodySpec = mockk<WebClient.RequestBodySpec>()
+        val requestHeadersSpec = mockk<WebClient.RequestHeadersSpec<*>>()
+        val responseSpec = mockk<WebClient.ResponseSpec>()
+        val webClient = mockk<WebClient>()
+        val body = slot<Any>()
+        every { webClient.post() } returns requestBodyUriSpec
+        every {
+            requestBodyUriSpec.uri(commandWaitEndpoint + BatchWebClientCommandWaitNotifier.BATCH_PATH_SUFFIX)
+        } returns requestBodySpec
+        every { requestBodySpec.contentType(MediaType.APPLICATION_JSON) } returns requestBodySpec
+        every { requestBodySpec.bodyValue(capture(body)) } returns requestHeadersSpec
+        every { requestHeadersSpec.retrieve() } returns responseSpec
+        every { responseSpec.bodyToMono(Void::class.java) } returns Mono.empty()
+        val waitCoordinator = mockk<WaitCoordinator>(relaxed = true)
+        val notifier = BatchWebClientCommandWaitNotifier(
+            waitCoordinator = waitCoordinator,
+            webClient = webClient,
+            remoteWaitNotifyPolicy = RemoteWaitNotifyPolicy(),
+            options = options,
+        )
+        val first = signal("0ToC0Bez003X00Z")
+        val second = signal("0ToC0Bez003X00Z")
+
+        Mono.`when`(
+            notifier.notify(commandWaitEndpoint, first),
+            notifier.notify(commandWaitEndpoint, second),
+        ).test()
+            .verifyComplete()
+
+        verify(exactly = 1) { webClient.post() }
+        verify(exactly = 0) { waitCoordinator.signal(any()) }
+        @Suppress("UNCHECKED_CAST")
+        (body.captured as List<WaitSignal>).assert().containsExactly(first, second)
+        notifier.close()
+    }
+
+    @Test
+    fun `should fail every signal of a failed request`() {
+        val commandWaitEndpoint = "http://localhost:8080/wow/command/wait"
+        val requestBodyUriSpec = mockk<WebClient.RequestBodyUriSpec>()
+        val requestBodySpec = mockk<WebClient.RequestBodySpec>()
+        val requestHeadersSpec = mockk<WebClient.RequestHeadersSpec<*>>()
+        val responseSpec = mockk<WebClient.ResponseSpec>()
+        val webClient = mockk<WebClient>()
+        every { webClient.post() } returns requestBodyUriSpec
+        every { requestBodyUriSpec.uri(any<String>()) } returns requestBodySpec
+        every { requestBodySpec.contentType(MediaType.APPLICATION_JSON) } returns requestBodySpec
+        every { requestBodySpec.bodyValue(any()) } returns requestHeadersSpec
+        every { requestHeadersSpec.retrieve() } returns responseSpec
+        every { responseSpec.bodyToMono(Void::class.java) } returns Mono.error(IllegalStateException("unavailable"))
+        val notifier = BatchWebClientCommandWaitNotifier(
+            waitCoordinator = mockk(relaxed = true),
+            webClient = webClient,
+            remoteWaitNotifyPolicy = mockk {
+                every { apply(any<Mono<Void>>()) } answers { firstArg<Mono<Void>>() }
+            },
+            options = options,
+        )
+
+        Mono.`when`(
+            notifier.notify(commandWaitEndpoint, signal("0ToC0Bez003X00Z")),
+            notifier.notify(commandWaitEndpoint, signal("0ToC0Bez003X00Z")),
+        ).test()
+            .expectError(IllegalStateException::class.java)
+            .verify()
+        notifier.close()
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright [2021-present] [ahoo wang <ahoowang@qq.com> (https://github.com/Ahoo-Wang)].
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package me.ahoo.wow.webflux.wait
+
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import me.ahoo.test.asserts.assert
+import me.ahoo.wow.api.messaging.function.FunctionInfoData
+import me.ahoo.wow.api.messaging.function.FunctionKind
+import me.ahoo.wow.command.wait.CommandStage
+import me.ahoo.wow.command.wait.SimpleWaitSignal
+import me.ahoo.wow.command.wait.WaitCoordinator
+import me.ahoo.wow.id.generateGlobalId
+import me.ahoo.wow.modeling.aggregateId
+import me.ahoo.wow.tck.mock.MOCK_AGGREGATE_METADATA
+import org.junit.jupiter.api.Test
+import org.springframework.core.codec.DecodingException
+import org.springframework.web.reactive.function.server.ServerRequest
+import org.springframework.web.server.ServerWebInputException
+import reactor.core.publisher.Flux
+import reactor.kotlin.test.test
+
+class CommandWaitBatchHandlerFunctionTest {
+
+    private fun signal(stage: CommandStage) = SimpleWaitSignal(
+        id = generateGlobalId(),
+        waitCommandId = generateGlobalId(),
+        commandId = "commandId",
+        aggregateId = MOCK_AGGREGATE_METADATA.aggregateId(),
+        stage = stage,
+        function = FunctionInfoData(
+            functionKind = FunctionKind.COMMAND,
+            contextName = "contextName",
+            processorName = "processorName",
+            name = "name"
+        ),
+    )
+
+    @Test
+    fun `should signal every wait signal in batch`() {
+        val waitCoordinator = mockk<WaitCoordinator> {
+            every { signal(any()) } returns true
+        }
+        val signals = listOf(signal(CommandStage.SENT), signal(CommandStage.PROCESSED))
+        val request = mockk<ServerRequest> {
+            every { bodyToFlux(SimpleWaitSignal::class.java) } returns Flux.fromIterable(signals)
+        }
+        CommandWaitBatchHandlerFunction(waitCoordinator).handle(request)
+            .test()
+            .consumeNextWith {
+                it.statusCode().is2xxSuccessful.assert().isTrue()
+            }
+            .verifyComplete()
+        verify(exactly = 1) { waitCoordinator.signal(signals[0]) }
+        verify(exactly = 1) { waitCoordinator.signal(signals[1]) }
+    }
+
+    @Test
+    fun `should map decoding failure to bad request`() {
+        val waitCoordinator = mockk<WaitCoordinator>(relaxed = true)
+        val request = mockk<ServerRequest> {
+            every { bodyToFlux(SimpleWaitSignal::class.java) } returns Flux.error(DecodingException("bad"))
+        }
+        CommandWaitBatchHandlerFunction(waitCoordinator).handle(request)
+            .test()
+            .expectError(ServerWebInputException::class.java)
+            .verify()
+        verify(exactly = 0) { waitCoordinator.signal(any()) }
+    }
+}